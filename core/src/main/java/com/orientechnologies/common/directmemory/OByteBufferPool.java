@@ -27,6 +27,8 @@ import com.orientechnologies.orient.core.OOrientShutdownListener;
 import com.orientechnologies.orient.core.OOrientStartupListener;
 import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.storage.fs.ODirectIO;
+import com.orientechnologies.orient.core.storage.fs.OFileClassic;
 import sun.misc.Cleaner;
 import sun.nio.ch.DirectBuffer;
 
@@ -40,7 +42,9 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.*;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -54,8 +58,13 @@ import java.util.logging.LogManager;
  * All <code>DirectByteBuffer</code> objects have the same size which is specified in objects constructor as "page size". Despite of
  * the fact that size of page is relatively small memory may be acquired from OS in relatively big chunks. It is done to optimize
  * memory usage inside of database.
+ * <p>
+ * Each thread keeps small cache ("magazine") of released pages, page released by thread is reused by the same thread during next
+ * acquire operation without access to the shared pool. If magazine is full half of it is moved to the shared pool. Pages cached
+ * by threads which are not alive any more are returned to the shared pool when new page has to be allocated.
  *
  * @see OGlobalConfiguration#MEMORY_CHUNK_SIZE
+ * @see OGlobalConfiguration#DIRECT_MEMORY_POOL_MAGAZINE_SIZE
  */
 public class OByteBufferPool implements OOrientStartupListener, OOrientShutdownListener, OByteBufferPoolMXBean {
   /**
@@ -78,11 +87,26 @@ public class OByteBufferPool implements OOrientStartupListener, OOrientShutdownL
 
   private static final boolean TRACK = OGlobalConfiguration.DIRECT_MEMORY_TRACK_MODE.getValueAsBoolean();
 
+  /**
+   * Minimum interval between checks of magazines of dead threads.
+   */
+  private static final long MAGAZINES_RECLAIM_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
   /**
    * Size of single byte buffer instance in bytes.
    */
   private final int pageSize;
 
+  /**
+   * Alignment of addresses of allocated pages, is more than 1 only if direct I/O is used. Pages are stored in files after the
+   * file header, so addresses of pages have the same offset from the block boundary as pages in files, which allows to read and
+   * write whole blocks of pages directly.
+   *
+   * @see ODirectIO
+   * @see OFileClassic#HEADER_SIZE
+   */
+  private final int alignment = ODirectIO.isEnabled() ? ODirectIO.DEFAULT_BLOCK_SIZE : 1;
+
   /**
    * Page which is filled with zeros and used to speedup clear operation on page acquire operation {@link #acquireDirect(boolean)}.
    */
@@ -123,6 +147,45 @@ public class OByteBufferPool implements OOrientStartupListener, OOrientShutdownL
    */
   private final AtomicBoolean mbeanIsRegistered = new AtomicBoolean();
 
+  /**
+   * Maximum amount of released pages which are cached by single thread.
+   */
+  private final int magazineSize;
+
+  /**
+   * Thread local caches of released pages.
+   */
+  private final ThreadLocal<Magazine> magazines = new ThreadLocal<Magazine>();
+
+  /**
+   * All magazines of threads which use this pool. Used to gather statistics and to return pages cached by dead threads back to the
+   * pool.
+   */
+  private final ConcurrentLinkedQueue<Magazine> magazineRegistry = new ConcurrentLinkedQueue<Magazine>();
+
+  /**
+   * Incremented on shutdown, magazines created before shutdown are not used any more.
+   */
+  private volatile int magazinesEpoch;
+
+  /**
+   * Time of last check of magazines of dead threads.
+   */
+  private final AtomicLong lastMagazinesReclaim = new AtomicLong(System.nanoTime());
+
+  /**
+   * Statistic of magazines of dead threads which were removed from {@link #magazineRegistry}.
+   */
+  private final AtomicLong retiredAcquisitions      = new AtomicLong();
+  private final AtomicLong retiredReleases          = new AtomicLong();
+  private final AtomicLong retiredMagazineHits      = new AtomicLong();
+  private final AtomicLong retiredMagazineOverflows = new AtomicLong();
+
+  /**
+   * Preallocated memory chunks (arenas) in order of their allocation.
+   */
+  private final List<BufferHolder> arenas = new CopyOnWriteArrayList<BufferHolder>();
+
   private final ReferenceQueue<ByteBuffer>                    trackedBuffersQueue;
   private final Set<TrackedBufferReference>                   trackedReferences;
   private final Map<TrackedBufferKey, TrackedBufferReference> trackedBuffers;
@@ -141,7 +204,19 @@ public class OByteBufferPool implements OOrientStartupListener, OOrientShutdownL
    * @param preAllocationLimit Limit of memory which will be allocated by big chunks
    */
   public OByteBufferPool(int pageSize, int maxChunkSize, long preAllocationLimit) {
+    this(pageSize, maxChunkSize, preAllocationLimit, OGlobalConfiguration.DIRECT_MEMORY_POOL_MAGAZINE_SIZE.getValueAsInteger());
+  }
+
+  /**
+   * @param pageSize           Size of single page (<code>DirectByteBuffer</code>) returned by pool.
+   * @param maxChunkSize       Maximum allocation chunk size
+   * @param preAllocationLimit Limit of memory which will be allocated by big chunks
+   * @param magazineSize       Maximum amount of released pages which are cached by single thread, 0 means that released pages are
+   *                           always returned to the shared pool.
+   */
+  public OByteBufferPool(int pageSize, int maxChunkSize, long preAllocationLimit, int magazineSize) {
     this.pageSize = pageSize;
+    this.magazineSize = Math.max(magazineSize, 0);
     this.zeroPage = ByteBuffer.allocateDirect(pageSize).order(ByteOrder.nativeOrder());
 
     this.preAllocationLimit = (preAllocationLimit / pageSize) * pageSize;
@@ -179,10 +254,11 @@ public class OByteBufferPool implements OOrientStartupListener, OOrientShutdownL
   }
 
   /**
-   * @return Amount of pages which are available in pool. Pages which were allocated and now not used.
+   * @return Amount of pages which are available in pool. Pages which were allocated and now not used, including pages cached by
+   * threads.
    */
   public int getSize() {
-    return pool.size();
+    return pool.size() + getBuffersInMagazines();
   }
 
   /**
@@ -224,8 +300,16 @@ public class OByteBufferPool implements OOrientStartupListener, OOrientShutdownL
    * @return Direct memory buffer instance.
    */
   public ByteBuffer acquireDirect(boolean clear) {
-    // check the pool first.
-    final ByteBuffer buffer = pool.poll();
+    final Magazine magazine = magazine();
+    magazine.onAcquire();
+
+    // check the thread local magazine and the pool first.
+    ByteBuffer buffer = magazine.pop();
+    if (buffer == null)
+      buffer = pool.poll();
+
+    if (buffer == null && reclaimMagazinesOfDeadThreads())
+      buffer = pool.poll();
 
     if (buffer != null) {
       if (clear) {
@@ -247,7 +331,7 @@ public class OByteBufferPool implements OOrientStartupListener, OOrientShutdownL
 
       //if we hit the end of preallocation buffer we allocate by small chunks
       if (currentAllocationPosition >= preAllocationLimit) {
-        return trackBuffer(ByteBuffer.allocateDirect(pageSize).order(ByteOrder.nativeOrder()));
+        return trackBuffer(allocateDirect(pageSize));
       }
 
       //allocation size should be the same for all buffers from chuck with the same index
@@ -336,7 +420,17 @@ public class OByteBufferPool implements OOrientStartupListener, OOrientShutdownL
 
     // this should not happen if amount of pages is needed for storage is calculated correctly
     overflowBufferCount.incrementAndGet();
-    return trackBuffer(ByteBuffer.allocateDirect(pageSize).order(ByteOrder.nativeOrder()));
+    return trackBuffer(allocateDirect(pageSize));
+  }
+
+  /**
+   * Allocates direct byte buffer aligned to {@link #alignment} in native byte order.
+   */
+  private ByteBuffer allocateDirect(int size) {
+    if (alignment > 1)
+      return ODirectIO.allocateAligned(size, alignment, OFileClassic.HEADER_SIZE % alignment);
+
+    return ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
   }
 
   /**
@@ -346,7 +440,11 @@ public class OByteBufferPool implements OOrientStartupListener, OOrientShutdownL
    */
   private void allocateBuffer(BufferHolder bfh, int allocationSize) {
     try {
-      bfh.buffer = ByteBuffer.allocateDirect(allocationSize).order(ByteOrder.nativeOrder());
+      bfh.buffer = allocateDirect(allocationSize);
+      bfh.address = ((DirectBuffer) bfh.buffer).address();
+      bfh.pages = allocationSize / pageSize;
+
+      arenas.add(bfh);
     } finally {
       bfh.latch.countDown();
     }
@@ -358,7 +456,66 @@ public class OByteBufferPool implements OOrientStartupListener, OOrientShutdownL
    * @param buffer Not used instance of buffer.
    */
   public void release(ByteBuffer buffer) {
-    pool.offer(untrackBuffer(buffer));
+    untrackBuffer(buffer);
+
+    final Magazine magazine = magazine();
+    magazine.onRelease();
+
+    if (!magazine.push(buffer)) {
+      magazine.spill(pool);
+
+      if (!magazine.push(buffer))
+        pool.offer(buffer);
+    }
+  }
+
+  /**
+   * @return Magazine of current thread, creates new one if thread does not have magazine yet or it was created before shutdown of
+   * pool.
+   */
+  private Magazine magazine() {
+    Magazine magazine = magazines.get();
+
+    final int epoch = magazinesEpoch;
+    if (magazine == null || magazine.epoch != epoch) {
+      magazine = new Magazine(magazineSize, epoch);
+      magazines.set(magazine);
+      magazineRegistry.add(magazine);
+    }
+
+    return magazine;
+  }
+
+  /**
+   * Returns pages cached in magazines of dead threads back to the pool. Check is performed not often than once per
+   * {@link #MAGAZINES_RECLAIM_INTERVAL}.
+   *
+   * @return <code>true</code> if at least one page was returned to the pool.
+   */
+  private boolean reclaimMagazinesOfDeadThreads() {
+    final long now = System.nanoTime();
+    final long lastReclaim = lastMagazinesReclaim.get();
+
+    if (now - lastReclaim < MAGAZINES_RECLAIM_INTERVAL || !lastMagazinesReclaim.compareAndSet(lastReclaim, now))
+      return false;
+
+    boolean reclaimed = false;
+    for (Magazine magazine : magazineRegistry) {
+      if (!magazine.isOwnerAlive() && magazineRegistry.remove(magazine)) {
+        retiredAcquisitions.addAndGet(magazine.acquisitions.get());
+        retiredReleases.addAndGet(magazine.releases.get());
+        retiredMagazineHits.addAndGet(magazine.hits.get());
+        retiredMagazineOverflows.addAndGet(magazine.overflows.get());
+
+        ByteBuffer buffer;
+        while ((buffer = magazine.pop()) != null) {
+          pool.offer(buffer);
+          reclaimed = true;
+        }
+      }
+    }
+
+    return reclaimed;
   }
 
   @Override
@@ -381,6 +538,116 @@ public class OByteBufferPool implements OOrientStartupListener, OOrientShutdownL
     return getSize();
   }
 
+  @Override
+  public int getBuffersInMagazines() {
+    int buffers = 0;
+    for (Magazine magazine : magazineRegistry)
+      buffers += magazine.size.get();
+
+    return buffers;
+  }
+
+  @Override
+  public long getBuffersInUse() {
+    long acquisitions = retiredAcquisitions.get();
+    long releases = retiredReleases.get();
+
+    for (Magazine magazine : magazineRegistry) {
+      acquisitions += magazine.acquisitions.get();
+      releases += magazine.releases.get();
+    }
+
+    return acquisitions - releases;
+  }
+
+  @Override
+  public long getMagazineHits() {
+    long hits = retiredMagazineHits.get();
+    for (Magazine magazine : magazineRegistry)
+      hits += magazine.hits.get();
+
+    return hits;
+  }
+
+  @Override
+  public long getMagazineMisses() {
+    long acquisitions = retiredAcquisitions.get();
+    for (Magazine magazine : magazineRegistry)
+      acquisitions += magazine.acquisitions.get();
+
+    return acquisitions - getMagazineHits();
+  }
+
+  @Override
+  public double getMagazineHitRate() {
+    final long hits = getMagazineHits();
+    final long total = hits + getMagazineMisses();
+
+    if (total <= 0)
+      return 0;
+
+    return ((double) hits) / total;
+  }
+
+  @Override
+  public long getMagazineOverflowCount() {
+    long overflows = retiredMagazineOverflows.get();
+    for (Magazine magazine : magazineRegistry)
+      overflows += magazine.overflows.get();
+
+    return overflows;
+  }
+
+  @Override
+  public int getArenasCount() {
+    return arenas.size();
+  }
+
+  @Override
+  public double[] getArenasOccupancy() {
+    final BufferHolder[] arenas = this.arenas.toArray(new BufferHolder[0]);
+    final long[] freePages = new long[arenas.length];
+
+    for (ByteBuffer buffer : pool)
+      countFreePage(arenas, freePages, buffer);
+
+    for (Magazine magazine : magazineRegistry) {
+      final int size = magazine.size.get();
+      for (int i = 0; i < size; i++) {
+        //magazine may be changed by owner thread, so we may read not actual data, but it is enough for statistic
+        countFreePage(arenas, freePages, magazine.buffers[i]);
+      }
+    }
+
+    final long allocatedPages = nextAllocationPosition.get();
+    final double[] occupancy = new double[arenas.length];
+
+    for (int i = 0; i < arenas.length; i++) {
+      final BufferHolder arena = arenas[i];
+      final long splitPages = Math.max(0, Math.min(arena.pages, allocatedPages - (long) arena.index * maxPagesPerSingleArea));
+      final long usedPages = Math.max(0, splitPages - freePages[i]);
+
+      occupancy[i] = arena.pages > 0 ? ((double) usedPages) / arena.pages : 0;
+    }
+
+    return occupancy;
+  }
+
+  private void countFreePage(BufferHolder[] arenas, long[] freePages, ByteBuffer buffer) {
+    if (!(buffer instanceof DirectBuffer))
+      return;
+
+    final long address = ((DirectBuffer) buffer).address();
+    for (int i = 0; i < arenas.length; i++) {
+      final BufferHolder arena = arenas[i];
+
+      if (address >= arena.address && address < arena.address + (long) arena.pages * pageSize) {
+        freePages[i]++;
+        return;
+      }
+    }
+  }
+
   @Override
   public long getAllocatedMemory() {
     long memory = getOverflowBufferCount();
@@ -528,6 +795,15 @@ public class OByteBufferPool implements OOrientStartupListener, OOrientShutdownL
       clean(zeroPage, cleaned);
       for (ByteBuffer byteBuffer : pool)
         clean(byteBuffer, cleaned);
+
+      for (Magazine magazine : magazineRegistry) {
+        final int size = magazine.size.get();
+        for (int i = 0; i < size; i++) {
+          final ByteBuffer byteBuffer = magazine.buffers[i];
+          if (byteBuffer != null)
+            clean(byteBuffer, cleaned);
+        }
+      }
     } catch (Throwable t) {
       return;
     }
@@ -539,6 +815,14 @@ public class OByteBufferPool implements OOrientStartupListener, OOrientShutdownL
     pool.clear();
     overflowBufferCount.set(0);
 
+    magazinesEpoch++;
+    magazineRegistry.clear();
+    arenas.clear();
+    retiredAcquisitions.set(0);
+    retiredReleases.set(0);
+    retiredMagazineHits.set(0);
+    retiredMagazineOverflows.set(0);
+
     if (TRACK) {
       for (TrackedBufferReference reference : trackedReferences)
         reference.clear();
@@ -619,12 +903,97 @@ public class OByteBufferPool implements OOrientStartupListener, OOrientShutdownL
 
     private final int index;
 
+    /**
+     * Address of allocated memory chunk and amount of pages in it, set once chunk is allocated.
+     */
+    private volatile long address;
+    private volatile int  pages;
+
     public BufferHolder(int index) {
       this.index = index;
     }
 
   }
 
+  /**
+   * Thread local cache of released pages. All fields are modified only by owner thread, counters are published using ordered
+   * writes so statistic may be read by other threads without additional synchronization.
+   */
+  private static final class Magazine {
+    private final WeakReference<Thread> owner;
+    private final int                   epoch;
+    private final ByteBuffer[]          buffers;
+
+    private final AtomicInteger size         = new AtomicInteger();
+    private final AtomicLong    acquisitions = new AtomicLong();
+    private final AtomicLong    releases     = new AtomicLong();
+    private final AtomicLong    hits         = new AtomicLong();
+    private final AtomicLong    overflows    = new AtomicLong();
+
+    private Magazine(int capacity, int epoch) {
+      this.owner = new WeakReference<Thread>(Thread.currentThread());
+      this.epoch = epoch;
+      this.buffers = new ByteBuffer[capacity];
+    }
+
+    private ByteBuffer pop() {
+      final int size = this.size.get();
+      if (size == 0)
+        return null;
+
+      final ByteBuffer buffer = buffers[size - 1];
+      buffers[size - 1] = null;
+
+      this.size.lazySet(size - 1);
+      hits.lazySet(hits.get() + 1);
+
+      return buffer;
+    }
+
+    private boolean push(ByteBuffer buffer) {
+      final int size = this.size.get();
+      if (size == buffers.length)
+        return false;
+
+      buffers[size] = buffer;
+      this.size.lazySet(size + 1);
+
+      return true;
+    }
+
+    /**
+     * Moves half of cached pages to the shared pool.
+     */
+    private void spill(Queue<ByteBuffer> pool) {
+      if (buffers.length == 0)
+        return;
+
+      final int size = this.size.get();
+      final int newSize = size / 2;
+
+      for (int i = newSize; i < size; i++) {
+        pool.offer(buffers[i]);
+        buffers[i] = null;
+      }
+
+      this.size.lazySet(newSize);
+      overflows.lazySet(overflows.get() + 1);
+    }
+
+    private void onAcquire() {
+      acquisitions.lazySet(acquisitions.get() + 1);
+    }
+
+    private void onRelease() {
+      releases.lazySet(releases.get() + 1);
+    }
+
+    private boolean isOwnerAlive() {
+      final Thread thread = owner.get();
+      return thread != null && thread.isAlive();
+    }
+  }
+
   private ByteBuffer trackBuffer(ByteBuffer buffer) {
     if (TRACK) {
       synchronized (this) {
@@ -64,4 +64,46 @@ public interface OByteBufferPoolMXBean {
    */
   double getAllocatedMemoryInGB();
 
+  /**
+   * @return the number of the free buffers which are cached by threads in their magazines, these buffers are included in
+   * {@link #getBuffersInThePool()}.
+   */
+  int getBuffersInMagazines();
+
+  /**
+   * @return the number of the buffers which were acquired and not released yet. Value which grows without a stop indicates a leak
+   * of buffers.
+   */
+  long getBuffersInUse();
+
+  /**
+   * @return the number of the buffer acquisitions which were served from a thread local magazine.
+   */
+  long getMagazineHits();
+
+  /**
+   * @return the number of the buffer acquisitions which were served from the shared pool or by allocation of new buffer.
+   */
+  long getMagazineMisses();
+
+  /**
+   * @return the ratio of the buffer acquisitions served from a thread local magazine to all buffer acquisitions.
+   */
+  double getMagazineHitRate();
+
+  /**
+   * @return the number of the times when a thread local magazine was full and part of its buffers was moved to the shared pool.
+   */
+  long getMagazineOverflowCount();
+
+  /**
+   * @return the number of the preallocated memory chunks (arenas) of the associated {@link OByteBufferPool}.
+   */
+  int getArenasCount();
+
+  /**
+   * @return the ratio of the buffers which are in use to the capacity of the arena for each arena in order of allocation.
+   */
+  double[] getArenasOccupancy();
+
 }
@@ -0,0 +1,55 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+
+package com.orientechnologies.common.serialization.types;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Implemented by {@link OBinarySerializer}s which are able to compare object stored in byte buffer with other object without
+ * deserialization of stored object. Other object should be serialized by {@link OBinarySerializer#serializeNativeObject(Object,
+ * byte[], int, Object...)} before comparison, so it is serialized only once even if it is compared with many stored objects, for
+ * example during binary search of key inside of index page.
+ *
+ * @see com.orientechnologies.common.comparator.ODefaultComparator
+ */
+public interface OBinaryComparator {
+  /**
+   * @param key   Key which is going to be compared with stored keys.
+   * @param hints List of parameters which are passed to serializer during serialization of key.
+   *
+   * @return <code>true</code> if given key can be compared with stored keys using {@link #compareInByteBuffer(ByteBuffer, int,
+   * byte[], int)}, otherwise keys should be compared as deserialized objects.
+   */
+  boolean isBinaryComparable(Object key, Object... hints);
+
+  /**
+   * Compares object stored in buffer in native byte order with object serialized by {@link OBinarySerializer#serializeNativeObject(Object,
+   * byte[], int, Object...)}. Sign of result is the same as sign of result of {@link com.orientechnologies.common.comparator.ODefaultComparator#compare(Object,
+   * Object)} called for deserialized stored object and original object. Position of buffer is not changed.
+   *
+   * @param buffer    Buffer which contains stored object.
+   * @param offset    Position of stored object inside of buffer.
+   * @param key       Serialized presentation of object to compare with, object should pass {@link #isBinaryComparable(Object,
+   *                  Object...)} check.
+   * @param keyOffset Position of serialized object inside of array.
+   */
+  int compareInByteBuffer(ByteBuffer buffer, int offset, byte[] key, int keyOffset);
+}
@@ -32,7 +32,7 @@ import java.util.Date;
  * @author Ilya Bershadskiy (ibersh20-at-gmail.com)
  * @since 20.01.12
  */
-public class ODateSerializer implements OBinarySerializer<Date> {
+public class ODateSerializer implements OBinarySerializer<Date>, OBinaryComparator {
 
   public static final byte      ID       = 4;
   public static final ODateSerializer INSTANCE = new ODateSerializer();
@@ -156,4 +156,22 @@ public class ODateSerializer implements OBinarySerializer<Date> {
   public int getObjectSizeInByteBuffer(ByteBuffer buffer, OWALChanges walChanges, int offset) {
     return OLongSerializer.LONG_SIZE;
   }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * The same as {@link ODateTimeSerializer#isBinaryComparable(Object, Object...)}.
+   */
+  @Override
+  public boolean isBinaryComparable(Object key, Object... hints) {
+    return key != null && key.getClass() == Date.class;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int compareInByteBuffer(ByteBuffer buffer, int offset, byte[] key, int keyOffset) {
+    return OLongSerializer.INSTANCE.compareInByteBuffer(buffer, offset, key, keyOffset);
+  }
 }
@@ -32,7 +32,7 @@ import java.util.Date;
  * @author Ilya Bershadskiy (ibersh20-at-gmail.com)
  * @since 20.01.12
  */
-public class ODateTimeSerializer implements OBinarySerializer<Date> {
+public class ODateTimeSerializer implements OBinarySerializer<Date>, OBinaryComparator {
   public static final byte                ID       = 5;
   public static final ODateTimeSerializer INSTANCE = new ODateTimeSerializer();
 
@@ -136,4 +136,23 @@ public class ODateTimeSerializer implements OBinarySerializer<Date> {
   public int getObjectSizeInByteBuffer(ByteBuffer buffer, OWALChanges walChanges, int offset) {
     return OLongSerializer.LONG_SIZE;
   }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Subclasses of {@link Date} may compare themselves in different way, so only instances of {@link Date} itself are compared
+   * in binary form.
+   */
+  @Override
+  public boolean isBinaryComparable(Object key, Object... hints) {
+    return key != null && key.getClass() == Date.class;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int compareInByteBuffer(ByteBuffer buffer, int offset, byte[] key, int keyOffset) {
+    return OLongSerializer.INSTANCE.compareInByteBuffer(buffer, offset, key, keyOffset);
+  }
 }
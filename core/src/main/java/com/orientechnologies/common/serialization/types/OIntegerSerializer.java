@@ -33,7 +33,7 @@ import java.nio.ByteOrder;
  * @author Ilya Bershadskiy (ibersh20-at-gmail.com)
  * @since 17.01.12
  */
-public class OIntegerSerializer implements OBinarySerializer<Integer> {
+public class OIntegerSerializer implements OBinarySerializer<Integer>, OBinaryComparator {
   public static final  byte               ID        = 8;
   /**
    * size of int value in bytes
@@ -148,4 +148,23 @@ public class OIntegerSerializer implements OBinarySerializer<Integer> {
   public int getObjectSizeInByteBuffer(ByteBuffer buffer, OWALChanges walChanges, int offset) {
     return INT_SIZE;
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isBinaryComparable(Object key, Object... hints) {
+    return key instanceof Integer;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int compareInByteBuffer(ByteBuffer buffer, int offset, byte[] key, int keyOffset) {
+    final int storedValue = buffer.getInt(offset);
+    final int value = deserializeNative(key, keyOffset);
+
+    return (storedValue < value) ? -1 : ((storedValue == value) ? 0 : 1);
+  }
 }
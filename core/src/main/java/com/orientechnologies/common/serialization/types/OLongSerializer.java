@@ -33,7 +33,7 @@ import java.nio.ByteOrder;
  * @author Ilya Bershadskiy (ibersh20-at-gmail.com)
  * @since 18.01.12
  */
-public class OLongSerializer implements OBinarySerializer<Long> {
+public class OLongSerializer implements OBinarySerializer<Long>, OBinaryComparator {
   public static final  byte             ID        = 10;
   /**
    * size of long value in bytes
@@ -154,4 +154,23 @@ public class OLongSerializer implements OBinarySerializer<Long> {
   public int getObjectSizeInByteBuffer(ByteBuffer buffer, OWALChanges walChanges, int offset) {
     return LONG_SIZE;
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isBinaryComparable(Object key, Object... hints) {
+    return key instanceof Long;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int compareInByteBuffer(ByteBuffer buffer, int offset, byte[] key, int keyOffset) {
+    final long storedValue = buffer.getLong(offset);
+    final long value = deserializeNative(key, keyOffset);
+
+    return (storedValue < value) ? -1 : ((storedValue == value) ? 0 : 1);
+  }
 }
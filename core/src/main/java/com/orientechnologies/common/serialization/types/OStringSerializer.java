@@ -30,7 +30,7 @@ import java.nio.ByteBuffer;
  * @author Ilya Bershadskiy (ibersh20-at-gmail.com)
  * @since 18.01.12
  */
-public class OStringSerializer implements OBinarySerializer<String> {
+public class OStringSerializer implements OBinarySerializer<String>, OBinaryComparator {
   public static final OStringSerializer INSTANCE = new OStringSerializer();
   public static final byte              ID       = 13;
 
@@ -203,4 +203,40 @@ public class OStringSerializer implements OBinarySerializer<String> {
   public int getObjectSizeInByteBuffer(ByteBuffer buffer, OWALChanges walChanges, int offset) {
     return walChanges.getIntValue(buffer, offset) * 2 + OIntegerSerializer.INT_SIZE;
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isBinaryComparable(Object key, Object... hints) {
+    return key instanceof String;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Characters are compared one by one in the same way as {@link String#compareTo(String)} does it.
+   */
+  @Override
+  public int compareInByteBuffer(ByteBuffer buffer, int offset, byte[] key, int keyOffset) {
+    final int storedLength = buffer.getInt(offset);
+    final int length = OIntegerSerializer.INSTANCE.deserializeNative(key, keyOffset);
+    final int commonLength = Math.min(storedLength, length);
+
+    int storedPosition = offset + OIntegerSerializer.INT_SIZE;
+    int position = keyOffset + OIntegerSerializer.INT_SIZE;
+
+    for (int i = 0; i < commonLength; i++) {
+      final char storedCharacter = (char) ((0xFF & buffer.get(storedPosition)) | ((0xFF & buffer.get(storedPosition + 1)) << 8));
+      final char character = (char) ((0xFF & key[position]) | ((0xFF & key[position + 1]) << 8));
+
+      if (storedCharacter != character)
+        return storedCharacter - character;
+
+      storedPosition += 2;
+      position += 2;
+    }
+
+    return storedLength - length;
+  }
 }
@@ -78,6 +78,11 @@ public enum OGlobalConfiguration {
           + "-Djava.util.logging.manager=com.orientechnologies.common.log.OLogManager$DebugLogManager switch to the JVM, "
           + "if you use this mode, this will enable the logging from JVM shutdown hooks.", Boolean.class, false),
 
+  DIRECT_MEMORY_POOL_MAGAZINE_SIZE("memory.directMemory.magazineSize",
+      "Maximum amount of released direct memory pages which are cached by each thread before they are returned to the shared pool. "
+          + "Thread local cache of pages decreases contention on the shared pool, 0 means that released pages are always returned "
+          + "to the shared pool", Integer.class, 8),
+
   DIRECT_MEMORY_ONLY_ALIGNED_ACCESS("memory.directMemory.onlyAlignedMemoryAccess",
       "Some architectures do not allow unaligned memory access or may suffer from speed degradation. For such platforms, this flag should be set to true",
       Boolean.class, true),
@@ -102,6 +107,15 @@ public enum OGlobalConfiguration {
       + " if this percent is reached next pages will be left in unpinned state. You can not set value more than 50", Integer.class,
       20, false),
 
+  /**
+   * Amount of independent segments of read cache, if value is more than 1 pages are split between several 2Q caches each of which
+   * has own queues, locks and part of memory limit. Is used to decrease contention between threads under high concurrency.
+   */
+  DISK_CACHE_SEGMENTS("storage.diskCache.segments",
+      "Amount of independent segments of read cache. If value is more than 1, pages are split between several 2Q caches "
+          + "each of which has own queues, locks and part of memory limit. Is rounded up to the closest power of two", Integer.class, 1,
+      false),
+
   DISK_CACHE_SIZE("storage.diskCache.bufferSize", "Size of disk buffer in megabytes, disk size may be changed at runtime, "
       + "but if does not enough to contain all pinned pages exception will be thrown", Integer.class, 4 * 1024,
       new OConfigurationChangeCallback() {
@@ -124,6 +138,10 @@ public enum OGlobalConfiguration {
   DISK_WRITE_CACHE_PAGE_FLUSH_INTERVAL("storage.diskCache.writeCachePageFlushInterval",
       "Interval between flushing of pages from write cache (in ms)", Integer.class, 25),
 
+  DISK_WRITE_CACHE_FLUSH_THREADS("storage.diskCache.writeCacheFlushThreads",
+      "Amount of threads which flush pages of write cache. If value is more than 1, dirty pages are split between threads by file "
+          + "and each thread writes contiguous runs of pages of own files at once", Integer.class, 1, false),
+
   DISK_WRITE_CACHE_FLUSH_WRITE_INACTIVITY_INTERVAL("storage.diskCache.writeCacheFlushInactivityInterval",
       "Interval between 2 writes to the disk cache,"
           + " if writes are done with an interval more than provided, all files will be fsynced before the next write,"
@@ -132,6 +150,28 @@ public enum OGlobalConfiguration {
   DISK_WRITE_CACHE_FLUSH_LOCK_TIMEOUT("storage.diskCache.writeCacheFlushLockTimeout",
       "Maximum amount of time the write cache will wait before a page flushes (in ms, -1 to disable)", Integer.class, -1),
 
+  DISK_CACHE_MMAP_FILE_EXTENSIONS("storage.diskCache.mmapFileExtensions",
+      "Comma separated list of extensions of storage files (for example '.sbt,.nbt') pages of which are read from memory mapped "
+          + "regions of file instead of positional reads. Empty value means that all files are read using classic file IO",
+      String.class, ""),
+
+  DISK_CACHE_MMAP_WINDOW_SIZE("storage.diskCache.mmapWindowSize",
+      "Size of single memory mapped region of file (in megabytes) which is used if file is read using memory mapping",
+      Integer.class, 64),
+
+  /**
+   * Load following pages of cluster into disk cache in background when sequential scan of cluster is detected.
+   * <code>true</code> by default.
+   */
+  DISK_CACHE_READ_AHEAD("storage.diskCache.readAhead",
+      "Load following pages of cluster into disk cache in background when sequential scan of cluster is detected. Pages loaded "
+          + "in advance are placed only into the queue of recently loaded pages, so scans do not evict frequently used pages",
+      Boolean.class, true),
+
+  DISK_CACHE_READ_AHEAD_MAX_PAGES("storage.diskCache.readAheadMaxPages",
+      "Maximum amount of pages which are loaded in advance during sequential scan of cluster. Amount of loaded pages is doubled "
+          + "each time when scan reaches pages loaded in advance till this limit is reached", Integer.class, 64),
+
   @Deprecated DISC_CACHE_FREE_SPACE_CHECK_INTERVAL("storage.diskCache.diskFreeSpaceCheckInterval",
       "The interval (in seconds), after which the storage periodically "
           + "checks whether the amount of free disk space is enough to work in write mode", Integer.class, 5),
@@ -151,6 +191,15 @@ public enum OGlobalConfiguration {
       "Keep disk cache state between moment when storage is closed and moment when it is opened again. true by default",
       Boolean.class, true),
 
+  /**
+   * Load pages of disk cache state restored during storage open in background thread, so storage is available immediately after
+   * open. <code>true</code> by default.
+   */
+  STORAGE_KEEP_DISK_CACHE_STATE_IN_BACKGROUND("storage.diskCache.keepStateInBackground",
+      "Load pages of disk cache state restored during storage open in background thread, so storage is available immediately "
+          + "after open. Pages are loaded in order of their position in file and loading is paused while pages are read from disk "
+          + "by user requests. true by default", Boolean.class, true),
+
   STORAGE_CONFIGURATION_SYNC_ON_UPDATE("storage.configuration.syncOnUpdate",
       "Indicates a force sync should be performed for each update on the storage configuration", Boolean.class, true),
 
@@ -198,6 +247,28 @@ public enum OGlobalConfiguration {
 
   WAL_COMMIT_TIMEOUT("storage.wal.commitTimeout", "Maximum interval between WAL commits (in ms.)", Integer.class, 1000),
 
+  WAL_GROUP_COMMIT("storage.wal.groupCommit",
+      "Indicates whether commit of atomic operation should wait till WAL is flushed to the disk. Flush of WAL is shared between "
+          + "all transactions which are committed at the same time, so only one fsync is performed for whole group of them",
+      Boolean.class, false),
+
+  WAL_GROUP_COMMIT_MAX_WAIT("storage.wal.groupCommitMaxWait",
+      "Maximum interval (in microseconds) during which first transaction of group commit waits for other transactions "
+          + "to join the group before WAL is flushed", Integer.class, 200),
+
+  WAL_GROUP_COMMIT_MAX_BATCH_SIZE("storage.wal.groupCommitMaxBatchSize",
+      "Maximum amount of transactions in single group commit, WAL is flushed immediately once this amount is reached",
+      Integer.class, 64),
+
+  WAL_PAGE_CHANGES_COMPRESSION("storage.wal.pageChangesCompression",
+      "Name of compression algorithm which is used to compress changes of pages logged in WAL (for example 'snappy'). "
+          + "Records which are logged without compression are still read if compression is switched on and vice versa, "
+          + "'nothing' disables compression", String.class, "nothing"),
+
+  WAL_PAGE_CHANGES_COMPRESSION_MIN_SIZE("storage.wal.pageChangesCompressionMinSize",
+      "Minimum size of WAL record which contains changes of page (in bytes) to be compressed, smaller records are logged as is",
+      Integer.class, 256),
+
   WAL_SHUTDOWN_TIMEOUT("storage.wal.shutdownTimeout", "Maximum wait interval between events, when the background flush thread"
       + "receives a shutdown command and when the background flush will be stopped (in ms.)", Integer.class, 10000),
 
@@ -233,6 +304,15 @@ public enum OGlobalConfiguration {
   PAGINATED_STORAGE_LOWEST_FREELIST_BOUNDARY("storage.lowestFreeListBound",
       "The least amount of free space (in kb) in a page, which is tracked in paginated storage", Integer.class, 16),
 
+  /**
+   * Amount of entries of in-memory cache of mapping between cluster positions and physical positions of records which is kept for
+   * each cluster.
+   */
+  STORAGE_CLUSTER_POSITION_MAP_CACHE_SIZE("storage.cluster.positionMapCacheSize",
+      "Amount of entries of off-heap cache of mapping between cluster positions and physical positions of records which is kept "
+          + "for each cluster, each entry takes 8 bytes. Memory is allocated on first read of cluster. Use 0 to disable",
+      Integer.class, 8192),
+
   STORAGE_LOCK_TIMEOUT("storage.lockTimeout", "Maximum amount of time (in ms) to lock the storage", Integer.class, 0),
 
   STORAGE_RECORD_LOCK_TIMEOUT("storage.record.lockTimeout", "Maximum of time (in ms) to lock a shared record", Integer.class, 2000),
@@ -326,6 +406,25 @@ public enum OGlobalConfiguration {
 
   INDEX_CURSOR_PREFETCH_SIZE("index.cursor.prefetchSize", "Default prefetch size of index cursor", Integer.class, 500000),
 
+  INDEX_BULK_LOAD_ENABLED("index.bulkLoad.enabled",
+      "Build indexes from sorted entries instead of insertion of keys one by one during index creation and rebuild, if index "
+          + "implementation supports it", Boolean.class, true),
+
+  INDEX_BULK_LOAD_THREADS("index.bulkLoad.threads", "Amount of threads which scan clusters in parallel during bulk load of index",
+      Integer.class, Runtime.getRuntime().availableProcessors()),
+
+  INDEX_BULK_LOAD_RUN_SIZE("index.bulkLoad.runSize",
+      "Amount of index entries which are sorted in memory by each thread during bulk load of index, bigger runs of entries are "
+          + "spilled to temporary files", Integer.class, 500000),
+
+  INDEX_BULK_LOAD_FILL_FACTOR("index.bulkLoad.fillFactor",
+      "Percent of space of index pages which is filled during bulk load of index, the rest of space is left for further insertions",
+      Integer.class, 90),
+
+  INDEX_CONCURRENT_HASH_PARTITIONS("index.concurrentHash.partitions",
+      "Default amount of partitions of hash indexes created with CONCURRENT_HASH_INDEX engine, each partition is modified "
+          + "independently of others but preallocates the same space as single hash index", Integer.class, 8),
+
   // SBTREE
   SBTREE_MAX_DEPTH("sbtree.maxDepth",
       "Maximum depth of sbtree, which will be traversed during key look up until it will be treated as broken (64 by default)",
@@ -378,6 +477,17 @@ public enum OGlobalConfiguration {
 
   FILE_DELETE_RETRY("file.deleteRetry", "Number of retries to delete a locked file", Integer.class, 50),
 
+  /**
+   * Read and write pages of storage files and WAL segments bypassing the operating system page cache. <code>false</code> by
+   * default.
+   *
+   * @see com.orientechnologies.orient.core.storage.fs.ODirectIO
+   */
+  FILE_DIRECT_IO("file.directIO",
+      "Read and write pages of storage files and WAL segments using direct I/O (O_DIRECT), bypassing the page cache of the operating "
+          + "system, so pages are not cached twice by the disk cache and the OS. Requires JVM which supports direct I/O (Java 10+), "
+          + "if JVM or file system does not support it, classic file I/O is used", Boolean.class, false),
+
   // SECURITY
   SECURITY_USER_PASSWORD_SALT_ITERATIONS("security.userPasswordSaltIterations",
       "Number of iterations to generate the salt or user password. Changing this setting does not affect stored passwords",
@@ -576,8 +686,20 @@ public enum OGlobalConfiguration {
 
   QUERY_LIVE_SUPPORT("query.live.support", "Enable/Disable the support of live query. (Use false to disable)", Boolean.class, true),
 
+  QUERY_STATISTICS_HISTOGRAM_BUCKETS("query.statistics.histogramBuckets",
+      "Maximum number of buckets of equi-depth histograms collected by the ANALYZE command for cost based query planning",
+      Integer.class, 100),
+
+  QUERY_SPILL_THRESHOLD("query.spillThreshold",
+      "Maximum number of results to sort and of groups to aggregate which are kept in memory by a single query. When exceeded they are spilled to temporary files in the database directory and merged at the end. 0 disables spilling",
+      Integer.class, 500000),
+
   STATEMENT_CACHE_SIZE("statement.cacheSize", "Number of parsed SQL statements kept in cache", Integer.class, 100),
 
+  QUERY_PLAN_CACHE_SIZE("query.planCacheSize",
+      "Number of query plans (indexes chosen by query planner) kept in cache per database. The cache is cleared when schema, "
+          + "indexes or index statistics change. 0 disables the cache", Integer.class, 100),
+
   // GRAPH
   SQL_GRAPH_CONSISTENCY_MODE("sql.graphConsistencyMode",
       "Consistency mode for graphs. It can be 'tx' (default), 'notx_sync_repair' and 'notx_async_repair'. "
@@ -23,6 +23,7 @@ package com.orientechnologies.orient.core.engine.local;
 import com.orientechnologies.common.collection.closabledictionary.OClosableLinkedContainer;
 import com.orientechnologies.common.directmemory.OByteBufferPool;
 import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.exception.OSystemException;
 import com.orientechnologies.common.io.OIOUtils;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
@@ -30,10 +31,15 @@ import com.orientechnologies.orient.core.engine.OEngineAbstract;
 import com.orientechnologies.orient.core.engine.OMemoryAndLocalPaginatedEnginesInitializer;
 import com.orientechnologies.orient.core.exception.ODatabaseException;
 import com.orientechnologies.orient.core.storage.OStorage;
+import com.orientechnologies.orient.core.storage.cache.OReadCache;
 import com.orientechnologies.orient.core.storage.cache.local.twoq.O2QCache;
+import com.orientechnologies.orient.core.storage.cache.local.twoq.O2QCacheMXBean;
+import com.orientechnologies.orient.core.storage.cache.local.twoq.OSegmented2QCache;
 import com.orientechnologies.orient.core.storage.fs.OFileClassic;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
 
+import javax.management.*;
+import java.lang.management.ManagementFactory;
 import java.util.Map;
 
 /**
@@ -43,7 +49,14 @@ import java.util.Map;
 public class OEngineLocalPaginated extends OEngineAbstract {
   public static final String NAME = "plocal";
 
-  private volatile O2QCache readCache;
+  /**
+   * Name of MBean of read cache which is shared between all storages of this engine.
+   *
+   * @see O2QCacheMXBean
+   */
+  public static final String READ_CACHE_MBEAN_NAME = "com.orientechnologies.orient.core.storage.cache.local.twoq:type=O2QCacheMXBean";
+
+  private volatile OReadCache readCache;
 
   protected final OClosableLinkedContainer<Long, OFileClassic> files = new OClosableLinkedContainer<Long, OFileClassic>(
       OGlobalConfiguration.OPEN_FILES_LIMIT.getValueAsInteger());
@@ -56,9 +69,18 @@ public class OEngineLocalPaginated extends OEngineAbstract {
     OMemoryAndLocalPaginatedEnginesInitializer.INSTANCE.initialize();
     super.startup();
 
-    readCache = new O2QCache(calculateReadCacheMaxMemory(OGlobalConfiguration.DISK_CACHE_SIZE.getValueAsLong() * 1024 * 1024),
-        OGlobalConfiguration.DISK_CACHE_PAGE_SIZE.getValueAsInteger() * 1024, true,
-        OGlobalConfiguration.DISK_CACHE_PINNED_PAGES.getValueAsInteger());
+    final long readCacheMaxMemory = calculateReadCacheMaxMemory(
+        OGlobalConfiguration.DISK_CACHE_SIZE.getValueAsLong() * 1024 * 1024);
+    final int pageSize = OGlobalConfiguration.DISK_CACHE_PAGE_SIZE.getValueAsInteger() * 1024;
+    final int percentOfPinnedPages = OGlobalConfiguration.DISK_CACHE_PINNED_PAGES.getValueAsInteger();
+    final int segments = OGlobalConfiguration.DISK_CACHE_SEGMENTS.getValueAsInteger();
+
+    if (segments > 1) {
+      readCache = new OSegmented2QCache(readCacheMaxMemory, pageSize, true, percentOfPinnedPages, segments);
+      OLogManager.instance().info(this, "Segmented disk cache with %d segments is used",
+          ((OSegmented2QCache) readCache).getSegmentsCount());
+    } else
+      readCache = new O2QCache(readCacheMaxMemory, pageSize, true, percentOfPinnedPages);
 
     try {
       if (OByteBufferPool.instance() != null)
@@ -66,6 +88,51 @@ public class OEngineLocalPaginated extends OEngineAbstract {
     } catch (Exception e) {
       OLogManager.instance().error(this, "MBean for byte buffer pool cannot be registered", e);
     }
+
+    try {
+      registerReadCacheMBean();
+    } catch (Exception e) {
+      OLogManager.instance().error(this, "MBean for read cache cannot be registered", e);
+    }
+  }
+
+  private void registerReadCacheMBean() {
+    try {
+      final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      final ObjectName mbeanName = new ObjectName(READ_CACHE_MBEAN_NAME);
+
+      if (!server.isRegistered(mbeanName)) {
+        server.registerMBean(readCache, mbeanName);
+      } else {
+        OLogManager.instance().warn(this,
+            "MBean with name %s has already registered. Probably your system was not shutdown correctly"
+                + " or you have several running applications which use OrientDB engine inside", mbeanName.getCanonicalName());
+      }
+    } catch (MalformedObjectNameException e) {
+      throw OException.wrapException(new OSystemException("Error during registration of read cache MBean"), e);
+    } catch (InstanceAlreadyExistsException e) {
+      throw OException.wrapException(new OSystemException("Error during registration of read cache MBean"), e);
+    } catch (MBeanRegistrationException e) {
+      throw OException.wrapException(new OSystemException("Error during registration of read cache MBean"), e);
+    } catch (NotCompliantMBeanException e) {
+      throw OException.wrapException(new OSystemException("Error during registration of read cache MBean"), e);
+    }
+  }
+
+  private void unregisterReadCacheMBean() {
+    try {
+      final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      final ObjectName mbeanName = new ObjectName(READ_CACHE_MBEAN_NAME);
+
+      if (server.isRegistered(mbeanName))
+        server.unregisterMBean(mbeanName);
+    } catch (MalformedObjectNameException e) {
+      throw OException.wrapException(new OSystemException("Error during unregistration of read cache MBean"), e);
+    } catch (InstanceNotFoundException e) {
+      throw OException.wrapException(new OSystemException("Error during unregistration of read cache MBean"), e);
+    } catch (MBeanRegistrationException e) {
+      throw OException.wrapException(new OSystemException("Error during unregistration of read cache MBean"), e);
+    }
   }
 
   private long calculateReadCacheMaxMemory(final long cacheSize) {
@@ -74,7 +141,7 @@ public class OEngineLocalPaginated extends OEngineAbstract {
 
   /**
    * @param cacheSize Cache size in bytes.
-   * @see O2QCache#changeMaximumAmountOfMemory(long)
+   * @see OReadCache#changeMaximumAmountOfMemory(long)
    */
   public void changeCacheSize(final long cacheSize) {
     readCache.changeMaximumAmountOfMemory(calculateReadCacheMaxMemory(cacheSize));
@@ -97,7 +164,7 @@ public class OEngineLocalPaginated extends OEngineAbstract {
     return NAME;
   }
 
-  public O2QCache getReadCache() {
+  public OReadCache getReadCache() {
     return readCache;
   }
 
@@ -118,6 +185,12 @@ public class OEngineLocalPaginated extends OEngineAbstract {
       } catch (Exception e) {
         OLogManager.instance().error(this, "MBean for byte buffer pool cannot be unregistered", e);
       }
+
+      try {
+        unregisterReadCacheMBean();
+      } catch (Exception e) {
+        OLogManager.instance().error(this, "MBean for read cache cannot be unregistered", e);
+      }
     } finally {
       super.shutdown();
     }
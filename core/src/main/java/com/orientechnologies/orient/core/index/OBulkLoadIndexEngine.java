@@ -0,0 +1,53 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Index engine which is able to fill empty index by entries sorted by key without search of each key inside of index. It is used
+ * during creation and rebuild of index, see {@link OIndexAbstract#rebuild()}.
+ */
+public interface OBulkLoadIndexEngine extends OIndexEngine {
+  /**
+   * @return Serializer of keys of index, it is used to preprocess keys before they are sorted and to spill sorted entries to the
+   * disk.
+   */
+  OBinarySerializer getKeySerializer();
+
+  /**
+   * @return Types of keys of index which are passed as hints to key serializer.
+   */
+  OType[] getKeyTypes();
+
+  /**
+   * Fills empty index.
+   *
+   * @param sortedEntries Entries sorted by keys in ascending order, keys are unique, not <code>null</code> and are preprocessed by
+   *                      key serializer.
+   * @param fillFactor    Percent of space of index pages which is filled by entries.
+   */
+  void bulkLoad(Iterator<Map.Entry<Object, Object>> sortedEntries, int fillFactor);
+}
@@ -106,7 +106,7 @@ public class OClassIndexManager extends ODocumentHookAbstract
             removeFromIndex(index, origValue, iRecord);
 
           if (!indexDefinition.isNullValuesIgnored() || newValue != null)
-            putInIndex(index, newValue, iRecord.getIdentity());
+            putInIndex(index, newValue, indexValue(index, iRecord));
         } else {
           final OMultiValueChangeTimeLine<?, ?> multiValueChangeTimeLine = iRecord.getCollectionTimeLine(multiValueField);
           if (multiValueChangeTimeLine == null) {
@@ -135,7 +135,7 @@ public class OClassIndexManager extends ODocumentHookAbstract
                 removeFromIndex(index, keyToRemove, iRecord);
 
               for (final Object keyToAdd : keysToAdd.keySet())
-                putInIndex(index, keyToAdd, iRecord.getIdentity());
+                putInIndex(index, keyToAdd, indexValue(index, iRecord));
             } else {
               final OTrackedMultiValue fieldValue = iRecord.field(multiValueField);
               final Object restoredMultiValue = fieldValue
@@ -162,12 +162,12 @@ public class OClassIndexManager extends ODocumentHookAbstract
     if (indexFields.isEmpty())
       return;
 
-    final String indexField = indexFields.get(0);
+    final String indexField = indexedField(indexDefinition);
     if (!dirtyFields.contains(indexField))
       return;
 
     final OMultiValueChangeTimeLine<?, ?> multiValueChangeTimeLine = iRecord.getCollectionTimeLine(indexField);
-    if (multiValueChangeTimeLine != null) {
+    if (multiValueChangeTimeLine != null && indexDefinition instanceof OIndexDefinitionMultiValue) {
       final OIndexDefinitionMultiValue indexDefinitionMultiValue = (OIndexDefinitionMultiValue) indexDefinition;
       final Map<Object, Integer> keysToAdd = new HashMap<Object, Integer>();
       final Map<Object, Integer> keysToRemove = new HashMap<Object, Integer>();
@@ -180,10 +180,17 @@ public class OClassIndexManager extends ODocumentHookAbstract
         removeFromIndex(index, keyToRemove, iRecord);
 
       for (final Object keyToAdd : keysToAdd.keySet())
-        putInIndex(index, keyToAdd, iRecord.getIdentity());
+        putInIndex(index, keyToAdd, indexValue(index, iRecord));
 
     } else {
-      final Object origValue = indexDefinition.createValue(iRecord.getOriginalValue(indexField));
+      final Object origFieldValue;
+      if (multiValueChangeTimeLine != null) {
+        final OTrackedMultiValue fieldValue = iRecord.field(indexField);
+        origFieldValue = fieldValue.returnOriginalState(multiValueChangeTimeLine.getMultiValueChangeEvents());
+      } else
+        origFieldValue = iRecord.getOriginalValue(indexField);
+
+      final Object origValue = createValue(indexDefinition, iRecord, origFieldValue);
       final Object newValue = indexDefinition.getDocumentValueToIndex(iRecord);
 
       processIndexUpdateFieldAssignment(index, iRecord, origValue, newValue);
@@ -217,10 +224,10 @@ public class OClassIndexManager extends ODocumentHookAbstract
 
       if (newValue instanceof Collection) {
         for (final Object newValueItem : (Collection<?>) newValue) {
-          putInIndex(index, newValueItem, iRecord.getIdentity());
+          putInIndex(index, newValueItem, indexValue(index, iRecord));
         }
       } else if (!indexDefinition.isNullValuesIgnored() || newValue != null) {
-        putInIndex(index, newValue, iRecord.getIdentity());
+        putInIndex(index, newValue, indexValue(index, iRecord));
       }
     }
   }
@@ -287,7 +294,7 @@ public class OClassIndexManager extends ODocumentHookAbstract
       return false;
     }
 
-    final String indexField = indexFields.iterator().next();
+    final String indexField = indexedField(indexDefinition);
     if (dirtyFields.contains(indexField)) {
       final OMultiValueChangeTimeLine<?, ?> multiValueChangeTimeLine = iRecord.getCollectionTimeLine(indexField);
 
@@ -295,9 +302,9 @@ public class OClassIndexManager extends ODocumentHookAbstract
       if (multiValueChangeTimeLine != null) {
         final OTrackedMultiValue fieldValue = iRecord.field(indexField);
         final Object restoredMultiValue = fieldValue.returnOriginalState(multiValueChangeTimeLine.getMultiValueChangeEvents());
-        origValue = indexDefinition.createValue(restoredMultiValue);
+        origValue = createValue(indexDefinition, iRecord, restoredMultiValue);
       } else
-        origValue = indexDefinition.createValue(iRecord.getOriginalValue(indexField));
+        origValue = createValue(indexDefinition, iRecord, iRecord.getOriginalValue(indexField));
 
       deleteIndexKey(index, iRecord, origValue);
       return true;
@@ -463,10 +470,57 @@ public class OClassIndexManager extends ODocumentHookAbstract
   }
 
   private void processIndexUpdate(ODocument iDocument, Set<String> dirtyFields, OIndex<?> index) {
+    final OIndexPredicate predicate = OIndexPredicate.getPredicate(index);
+    if (predicate != null) {
+      final boolean wasIndexed = predicate.evaluate(originalState(iDocument, dirtyFields));
+      final boolean indexed = predicate.evaluate(iDocument);
+
+      if (!wasIndexed) {
+        if (indexed)
+          addIndexEntry(iDocument, iDocument.getIdentity(), index);
+        return;
+      }
+
+      if (!indexed) {
+        removeOriginalIndexEntry(index, dirtyFields, iDocument);
+        return;
+      }
+    }
+
     if (index.getDefinition() instanceof OCompositeIndexDefinition)
       processCompositeIndexUpdate(index, dirtyFields, iDocument);
     else
       processSingleIndexUpdate(index, dirtyFields, iDocument);
+
+    if (isCovering(index))
+      processCoveredFieldsUpdate(index, dirtyFields, iDocument);
+  }
+
+  private void removeOriginalIndexEntry(final OIndex<?> index, final Set<String> dirtyFields, final ODocument iRecord) {
+    final boolean removed;
+    if (index.getDefinition() instanceof OCompositeIndexDefinition)
+      removed = processCompositeIndexDelete(index, dirtyFields, iRecord);
+    else
+      removed = processSingleIndexDelete(index, dirtyFields, iRecord);
+
+    if (!removed)
+      deleteIndexKey(index, iRecord, index.getDefinition().getDocumentValueToIndex(iRecord));
+  }
+
+  private void processCoveredFieldsUpdate(final OIndex<?> index, final Set<String> dirtyFields, final ODocument iRecord) {
+    for (final String indexField : index.getDefinition().getFields()) {
+      if (dirtyFields.contains(indexField))
+        // KEY CHANGED: COVERED FIELDS ARE ALREADY STORED TOGETHER WITH NEW KEY
+        return;
+    }
+
+    for (final String coveredField : ((OIndexOneValue) index.getInternal()).getCoveredFields()) {
+      if (dirtyFields.contains(coveredField)) {
+        // ONLY INCLUDED FIELDS CHANGED: REPLACE THE VALUE STORED UNDER THE SAME KEY
+        addIndexEntry(iRecord, iRecord.getIdentity(), index);
+        return;
+      }
+    }
   }
 
   @Override
@@ -543,7 +597,14 @@ public class OClassIndexManager extends ODocumentHookAbstract
   }
 
   private void addIndexEntry(ODocument document, OIdentifiable rid, OIndex<?> index) {
+    final OIndexPredicate predicate = OIndexPredicate.getPredicate(index);
+    if (predicate != null && !predicate.evaluate(document))
+      return;
+
     final OIndexDefinition indexDefinition = index.getDefinition();
+    if (isCovering(index))
+      rid = document;
+
     final Object key = indexDefinition.getDocumentValueToIndex(document);
     if (key instanceof Collection) {
       for (final Object keyItem : (Collection<?>) key)
@@ -570,6 +631,19 @@ public class OClassIndexManager extends ODocumentHookAbstract
     if (!indexes.isEmpty()) {
       final Set<String> dirtyFields = new HashSet<String>(Arrays.asList(iDocument.getDirtyFields()));
 
+      // PARTIAL INDEXES CONTAIN THE RECORD ONLY IF ITS STORED STATE SATISFIES THEIR PREDICATE
+      ODocument originalState = null;
+      for (final Iterator<OIndex<?>> indexIterator = indexes.iterator(); indexIterator.hasNext(); ) {
+        final OIndexPredicate predicate = OIndexPredicate.getPredicate(indexIterator.next());
+        if (predicate != null) {
+          if (originalState == null)
+            originalState = originalState(iDocument, dirtyFields);
+
+          if (!predicate.evaluate(originalState))
+            indexIterator.remove();
+        }
+      }
+
       if (!dirtyFields.isEmpty()) {
         // REMOVE INDEX OF ENTRIES FOR THE OLD VALUES
         final Iterator<OIndex<?>> indexIterator = indexes.iterator();
@@ -663,6 +737,53 @@ public class OClassIndexManager extends ODocumentHookAbstract
     index.remove(key, value);
   }
 
+  /**
+   * Covering indexes copy fields of the record, so they receive the record itself instead of its identity to avoid reload of the
+   * record.
+   */
+  private static OIdentifiable indexValue(final OIndex<?> index, final ODocument record) {
+    return isCovering(index) ? record : record.getIdentity();
+  }
+
+  private static boolean isCovering(final OIndex<?> index) {
+    final OIndexInternal<?> internal = index.getInternal();
+    return internal instanceof OIndexOneValue && ((OIndexOneValue) internal).isCovering();
+  }
+
+  /**
+   * @return Name of the document field from which key of single field index is calculated.
+   */
+  private static String indexedField(final OIndexDefinition indexDefinition) {
+    if (indexDefinition instanceof OExpressionIndexDefinition)
+      return ((OExpressionIndexDefinition) indexDefinition).getField();
+
+    return indexDefinition.getFields().get(0);
+  }
+
+  /**
+   * Calculates key of single field index from passed in value of the indexed field.
+   */
+  private static Object createValue(final OIndexDefinition indexDefinition, final ODocument iRecord, final Object fieldValue) {
+    if (indexDefinition instanceof OExpressionIndexDefinition)
+      return ((OExpressionIndexDefinition) indexDefinition).createValueFromField(iRecord, fieldValue);
+
+    return indexDefinition.createValue(fieldValue);
+  }
+
+  /**
+   * Returns copy of the document which contains values of fields as they were before the document was changed.
+   */
+  private static ODocument originalState(final ODocument document, final Set<String> dirtyFields) {
+    if (dirtyFields.isEmpty())
+      return document;
+
+    final ODocument original = document.copy();
+    for (final String dirtyField : dirtyFields)
+      original.field(dirtyField, document.getOriginalValue(dirtyField));
+
+    return original;
+  }
+
   private static boolean noTx(ODocument document) {
     return !document.getDatabase().getTransaction().isActive();
   }
@@ -37,6 +37,7 @@ import java.util.Set;
  * <li>NOTUNIQUE</li>
  * <li>FULLTEXT</li>
  * <li>DICTIONARY</li>
+ * <li>BITMAP</li>
  * </ul>
  */
 public class ODefaultIndexFactory implements OIndexFactory {
@@ -55,6 +56,7 @@ public class ODefaultIndexFactory implements OIndexFactory {
     types.add(OClass.INDEX_TYPE.NOTUNIQUE.toString());
     types.add(OClass.INDEX_TYPE.FULLTEXT.toString());
     types.add(OClass.INDEX_TYPE.DICTIONARY.toString());
+    types.add(OClass.INDEX_TYPE.BITMAP.toString());
     TYPES = Collections.unmodifiableSet(types);
   }
 
@@ -83,6 +85,7 @@ public class ODefaultIndexFactory implements OIndexFactory {
    * <li>NOTUNIQUE</li>
    * <li>FULLTEXT</li>
    * <li>DICTIONARY</li>
+   * <li>BITMAP</li>
    * </ul>
    */
   public Set<String> getTypes() {
@@ -119,6 +122,8 @@ public class ODefaultIndexFactory implements OIndexFactory {
       return new OIndexFullText(name, indexType, SBTREE_ALGORITHM, version, storage, valueContainerAlgorithm, metadata);
     } else if (OClass.INDEX_TYPE.DICTIONARY.toString().equals(indexType)) {
       return new OIndexDictionary(name, indexType, SBTREE_ALGORITHM, version, storage, valueContainerAlgorithm, metadata);
+    } else if (OClass.INDEX_TYPE.BITMAP.toString().equals(indexType)) {
+      return new OIndexBitmap(name, indexType, SBTREE_ALGORITHM, version, storage, valueContainerAlgorithm, metadata);
     }
 
     throw new OConfigurationException("Unsupported type: " + indexType);
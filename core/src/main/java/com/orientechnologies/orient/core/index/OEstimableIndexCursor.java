@@ -0,0 +1,33 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.index;
+
+/**
+ * Index cursor which is able to estimate amount of entries it iterates without iteration over them. Estimation is used by query
+ * engine to choose the most selective index among indexes which may be used to evaluate query.
+ *
+ * @see OIndexEngine#getApproximateRangeSize(Object, boolean, Object, boolean)
+ */
+public interface OEstimableIndexCursor extends OIndexCursor {
+  /**
+   * @return Estimated amount of entries of the whole range of cursor or <code>-1</code> if it can not be estimated cheaply.
+   */
+  long estimateSize();
+}
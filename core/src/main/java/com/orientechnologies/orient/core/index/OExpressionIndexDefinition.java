@@ -0,0 +1,199 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.common.util.OPair;
+import com.orientechnologies.orient.core.collate.ODefaultCollate;
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.OCommandExecutorSQLCreateIndex;
+import com.orientechnologies.orient.core.sql.filter.OSQLFilterItemField;
+import com.orientechnologies.orient.core.sql.filter.OSQLPredicate;
+import com.orientechnologies.orient.core.sql.method.OSQLMethodRuntime;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index bound to the value of SQL expression calculated from one schema class property, like <code>name.toLowerCase()</code> or
+ * <code>date.format('yyyy-MM')</code>. Expression is a chain of methods applied to the property, it is evaluated when record is
+ * indexed.
+ *
+ * Name of the indexed field is the normalized text of the expression, so query conditions which contain the same expression are
+ * matched with the index in the same way as conditions on plain properties.
+ */
+public class OExpressionIndexDefinition extends OPropertyIndexDefinition {
+  private static final long               serialVersionUID = -3525406335718734318L;
+
+  private static final Map<String, OType> METHOD_TYPES     = new HashMap<String, OType>();
+
+  static {
+    for (String method : new String[] { "tolowercase", "touppercase", "trim", "normalize", "format", "asstring", "substring",
+        "left", "right", "charat", "replace", "append", "prefix", "hash", "tojson" })
+      METHOD_TYPES.put(method, OType.STRING);
+
+    for (String method : new String[] { "asinteger", "size", "length", "indexof", "lastindexof" })
+      METHOD_TYPES.put(method, OType.INTEGER);
+
+    METHOD_TYPES.put("aslong", OType.LONG);
+    METHOD_TYPES.put("asfloat", OType.FLOAT);
+    METHOD_TYPES.put("asdecimal", OType.DECIMAL);
+    METHOD_TYPES.put("asboolean", OType.BOOLEAN);
+    METHOD_TYPES.put("asdate", OType.DATE);
+    METHOD_TYPES.put("asdatetime", OType.DATETIME);
+  }
+
+  private String                              expression;
+  private String                              normalizedExpression;
+
+  private final ThreadLocal<OSQLFilterItemField> item = new ThreadLocal<OSQLFilterItemField>() {
+    @Override
+    protected OSQLFilterItemField initialValue() {
+      return parse(expression);
+    }
+  };
+
+  /**
+   * @param iClassName  Name of indexed class.
+   * @param iExpression Text of the expression, like <code>name.toLowerCase()</code>.
+   * @param iFieldType  Type of the property which value is passed to the expression, it is used as type of the key if type of
+   *                    the expression result is unknown.
+   */
+  public OExpressionIndexDefinition(final String iClassName, final String iExpression, final OType iFieldType) {
+    super(iClassName, null, null);
+    init(iExpression);
+
+    final OPair<OSQLMethodRuntime, Object[]> lastMethod = item.get().getLastChainOperator();
+    final OType methodType = lastMethod != null ? METHOD_TYPES.get(lastMethod.getKey().getMethod().getName()) : null;
+    keyType = methodType != null ? methodType : iFieldType;
+  }
+
+  /**
+   * Constructor used for index unmarshalling.
+   */
+  public OExpressionIndexDefinition() {
+  }
+
+  /**
+   * @return Name of the property which value is passed to the expression.
+   */
+  public String getField() {
+    return field;
+  }
+
+  public String getExpression() {
+    return expression;
+  }
+
+  @Override
+  public List<String> getFields() {
+    return Collections.singletonList(normalizedExpression);
+  }
+
+  @Override
+  public List<String> getFieldsToIndex() {
+    if (collate == null || collate.getName().equals(ODefaultCollate.NAME))
+      return Collections.singletonList(normalizedExpression);
+
+    return Collections.singletonList(normalizedExpression + " collate " + collate.getName());
+  }
+
+  @Override
+  public Object getDocumentValueToIndex(final ODocument iDocument) {
+    return createValue(item.get().getValue(iDocument, null, new OBasicCommandContext()));
+  }
+
+  /**
+   * Calculates key from passed in value of the indexed property, it is used to find keys of previous versions of the record.
+   *
+   * @param iRecord     Indexed record.
+   * @param iFieldValue Value of the property.
+   */
+  public Object createValueFromField(final ODocument iRecord, final Object iFieldValue) {
+    return createValue(item.get().transformValue(iRecord, new OBasicCommandContext(), iFieldValue));
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (!super.equals(o))
+      return false;
+
+    return normalizedExpression.equals(((OExpressionIndexDefinition) o).normalizedExpression);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * super.hashCode() + normalizedExpression.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "OExpressionIndexDefinition{" + "className='" + className + '\'' + ", expression='" + expression + '\'' + ", keyType="
+        + keyType + ", collate=" + collate + ", null values ignored = " + isNullValuesIgnored() + '}';
+  }
+
+  @Override
+  protected void serializeToStream() {
+    super.serializeToStream();
+
+    document.field("expression", expression);
+  }
+
+  @Override
+  protected void serializeFromStream() {
+    super.serializeFromStream();
+
+    init((String) document.field("expression"));
+  }
+
+  @Override
+  public String toCreateIndexDDL(final String indexName, final String indexType, final String engine) {
+    final StringBuilder ddl = new StringBuilder("create index `");
+    ddl.append(indexName).append("` on `").append(className).append("` ( ").append(expression);
+
+    if (!collate.getName().equals(ODefaultCollate.NAME))
+      ddl.append(" collate ").append(collate.getName());
+
+    ddl.append(" ) ").append(indexType);
+
+    if (engine != null)
+      ddl.append(' ').append(OCommandExecutorSQLCreateIndex.KEYWORD_ENGINE + " " + engine);
+
+    return ddl.toString();
+  }
+
+  private void init(final String iExpression) {
+    final OSQLFilterItemField parsed = parse(iExpression);
+    if (parsed.isFieldChain())
+      throw new OIndexException("Expression '" + iExpression + "' does not contain any method calls");
+
+    expression = iExpression;
+    normalizedExpression = parsed.toString();
+    field = parsed.getRoot();
+    item.set(parsed);
+  }
+
+  private static OSQLFilterItemField parse(final String expression) {
+    return new OSQLFilterItemField(new OSQLPredicate(), expression, null);
+  }
+}
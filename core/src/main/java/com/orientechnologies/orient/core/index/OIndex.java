@@ -36,6 +36,18 @@ import java.util.Set;
 public interface OIndex<T> extends Comparable<OIndex<T>> {
   String MERGE_KEYS = "mergeKeys";
 
+  /**
+   * Metadata field which lists fields stored in the index together with the record identity, see
+   * {@link OIndexCoveringValue}.
+   */
+  String INCLUDE_FIELDS = "include";
+
+  /**
+   * Metadata field which contains SQL condition of partial index, only records which satisfy it are indexed, see
+   * {@link OIndexPredicate}.
+   */
+  String PREDICATE = "where";
+
   /**
    * Creates the index.
    *
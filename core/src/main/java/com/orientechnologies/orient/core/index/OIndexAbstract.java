@@ -20,6 +20,7 @@
 package com.orientechnologies.orient.core.index;
 
 import com.orientechnologies.common.collection.OMultiValue;
+import com.orientechnologies.common.comparator.ODefaultComparator;
 import com.orientechnologies.common.concur.lock.OLockManager;
 import com.orientechnologies.common.concur.lock.OOneEntryPerKeyLockManager;
 import com.orientechnologies.common.concur.lock.OPartitionedLockManager;
@@ -40,6 +41,7 @@ import com.orientechnologies.orient.core.db.record.ridbag.sbtree.OIndexRIDContai
 import com.orientechnologies.orient.core.exception.OCommandExecutionException;
 import com.orientechnologies.orient.core.exception.OConfigurationException;
 import com.orientechnologies.orient.core.exception.OTooBigIndexKeyException;
+import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.intent.OIntentMassiveInsert;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.ORecord;
@@ -57,6 +59,11 @@ import com.orientechnologies.orient.core.tx.OTransactionIndexChangesPerKey;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 
@@ -90,6 +97,7 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T>, OOrientSta
   private Set<String> clustersToIndex = new HashSet<String>();
   private volatile OIndexDefinition indexDefinition;
   private volatile boolean                      rebuilding       = false;
+  private volatile OIndexPredicate              predicate;
   private volatile ThreadLocal<IndexTxSnapshot> txSnapshot       = new IndexTxSnapshotThreadLocal();
   private          Map<String, String>          engineProperties = new HashMap<String, String>();
 
@@ -502,11 +510,15 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T>, OOrientSta
       if (iProgressListener != null)
         iProgressListener.onBegin(this, documentTotal, true);
 
-      // INDEX ALL CLUSTERS
-      for (final String clusterName : clustersToIndex) {
-        final long[] metrics = indexCluster(clusterName, iProgressListener, documentNum, documentIndexed, documentTotal);
-        documentNum = metrics[0];
-        documentIndexed = metrics[1];
+      if (isBulkLoadPossible())
+        documentIndexed = bulkLoad(iProgressListener, documentTotal);
+      else {
+        // INDEX ALL CLUSTERS
+        for (final String clusterName : clustersToIndex) {
+          final long[] metrics = indexCluster(clusterName, iProgressListener, documentNum, documentIndexed, documentTotal);
+          documentNum = metrics[0];
+          documentIndexed = metrics[1];
+        }
       }
 
       if (iProgressListener != null)
@@ -519,6 +531,202 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T>, OOrientSta
     return documentIndexed;
   }
 
+  /**
+   * Indicates whether index is able to merge all values of the same key into single value which is put into index engine, see
+   * {@link #bulkLoadValue(Object, List)}. Such indexes are filled using bulk load if their engine supports it.
+   */
+  protected boolean isBulkLoadSupported() {
+    return false;
+  }
+
+  /**
+   * Merges all values of the same key into value which is put into index engine during bulk load.
+   *
+   * @param key    Key of index.
+   * @param values Identities of all records indexed by given key sorted in ascending order.
+   */
+  protected Object bulkLoadValue(Object key, List<ORID> values) {
+    throw new UnsupportedOperationException("Bulk load is not supported by index " + getName());
+  }
+
+  private boolean isBulkLoadPossible() {
+    return OGlobalConfiguration.INDEX_BULK_LOAD_ENABLED.getValueAsBoolean() && isBulkLoadSupported() && indexDefinition != null
+        && !clustersToIndex.isEmpty() && !getDatabase().getTransaction().isActive() && storage
+        .getIndexEngine(indexId) instanceof OBulkLoadIndexEngine;
+  }
+
+  /**
+   * Fills empty index by parallel scan of indexed clusters, external sort of extracted keys and bulk load of sorted entries into
+   * index engine.
+   *
+   * @return Amount of indexed documents.
+   */
+  private long bulkLoad(final OProgressListener iProgressListener, final long documentTotal) {
+    final OBulkLoadIndexEngine engine = (OBulkLoadIndexEngine) storage.getIndexEngine(indexId);
+    final OIndexEntriesSorter sorter = new OIndexEntriesSorter(engine.getKeySerializer(), engine.getKeyTypes(),
+        OGlobalConfiguration.INDEX_BULK_LOAD_RUN_SIZE.getValueAsInteger());
+    try {
+      final List<ORID> nullKeyValues = Collections.synchronizedList(new ArrayList<ORID>());
+      final long documentIndexed = sortClusters(sorter, nullKeyValues, iProgressListener, documentTotal);
+
+      final Iterator<Map.Entry<Object, List<ORID>>> sortedEntries = sorter.sortedEntries();
+      final int fillFactor = OGlobalConfiguration.INDEX_BULK_LOAD_FILL_FACTOR.getValueAsInteger();
+
+      storage.callIndexEngine(false, false, indexId, new OIndexEngineCallback<Object>() {
+        @Override
+        public Object callEngine(OIndexEngine indexEngine) {
+          ((OBulkLoadIndexEngine) indexEngine).bulkLoad(new Iterator<Map.Entry<Object, Object>>() {
+            @Override
+            public boolean hasNext() {
+              return sortedEntries.hasNext();
+            }
+
+            @Override
+            public Map.Entry<Object, Object> next() {
+              final Map.Entry<Object, List<ORID>> entry = sortedEntries.next();
+              return new AbstractMap.SimpleImmutableEntry<Object, Object>(entry.getKey(),
+                  bulkLoadValue(entry.getKey(), entry.getValue()));
+            }
+
+            @Override
+            public void remove() {
+              throw new UnsupportedOperationException("remove");
+            }
+          }, fillFactor);
+
+          return null;
+        }
+      });
+
+      for (ORID value : nullKeyValues)
+        put(null, value);
+
+      return documentIndexed;
+    } finally {
+      sorter.delete();
+    }
+  }
+
+  /**
+   * Scans indexed clusters in parallel and passes extracted keys to the sorter.
+   *
+   * @return Amount of indexed documents.
+   */
+  private long sortClusters(final OIndexEntriesSorter sorter, final List<ORID> nullKeyValues,
+      final OProgressListener iProgressListener, final long documentTotal) {
+    final ODatabaseDocumentInternal database = getDatabase();
+
+    final Queue<String> clusters = new ConcurrentLinkedQueue<String>(clustersToIndex);
+    final AtomicLong documentNum = new AtomicLong();
+    final AtomicLong documentIndexed = new AtomicLong();
+    final AtomicBoolean stop = new AtomicBoolean();
+
+    final int threads = Math
+        .max(1, Math.min(clustersToIndex.size(), OGlobalConfiguration.INDEX_BULK_LOAD_THREADS.getValueAsInteger()));
+    final List<Future<Void>> futures = new ArrayList<Future<Void>>(threads);
+
+    for (int i = 0; i < threads; i++) {
+      futures.add(Orient.instance().submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          final ODatabaseDocumentInternal threadDatabase = database.copy();
+          threadDatabase.activateOnCurrentThread();
+          try {
+            final OIndexEntriesSorter.Collector collector = sorter.createCollector();
+
+            String clusterName;
+            while (!stop.get() && (clusterName = clusters.poll()) != null)
+              sortCluster(threadDatabase, clusterName, collector, nullKeyValues, iProgressListener, documentNum, documentIndexed,
+                  documentTotal, stop);
+
+            collector.close();
+          } finally {
+            threadDatabase.close();
+          }
+
+          return null;
+        }
+      }));
+    }
+
+    Throwable error = null;
+    for (Future<Void> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        stop.set(true);
+        Thread.currentThread().interrupt();
+
+        if (error == null)
+          error = new OCommandExecutionException("The index rebuild has been interrupted");
+      } catch (ExecutionException e) {
+        stop.set(true);
+
+        if (error == null)
+          error = e.getCause();
+      }
+    }
+
+    database.activateOnCurrentThread();
+
+    if (error instanceof RuntimeException)
+      throw (RuntimeException) error;
+    if (error instanceof Error)
+      throw (Error) error;
+    if (error != null)
+      throw OException.wrapException(new OIndexException("Error during bulk load of index '" + name + "'"), error);
+
+    return documentIndexed.get();
+  }
+
+  private void sortCluster(final ODatabaseDocumentInternal database, final String clusterName,
+      final OIndexEntriesSorter.Collector collector, final List<ORID> nullKeyValues, final OProgressListener iProgressListener,
+      final AtomicLong documentNum, final AtomicLong documentIndexed, final long documentTotal, final AtomicBoolean stop) {
+    try {
+      for (final ORecord record : database.browseCluster(clusterName)) {
+        if (stop.get())
+          return;
+
+        if (Thread.interrupted())
+          throw new OCommandExecutionException("The index rebuild has been interrupted");
+
+        if (record instanceof ODocument) {
+          final ODocument doc = (ODocument) record;
+          final Object fieldValue = indexDefinition.getDocumentValueToIndex(doc);
+
+          if ((fieldValue != null || !indexDefinition.isNullValuesIgnored()) && isIndexed(doc)) {
+            if (fieldValue instanceof Collection) {
+              for (final Object fieldValueItem : (Collection<?>) fieldValue)
+                sortEntry(collector, nullKeyValues, fieldValueItem, doc.getIdentity());
+            } else
+              sortEntry(collector, nullKeyValues, fieldValue, doc.getIdentity());
+
+            documentIndexed.incrementAndGet();
+          }
+        }
+
+        final long num = documentNum.incrementAndGet();
+
+        if (iProgressListener != null) {
+          synchronized (iProgressListener) {
+            iProgressListener.onProgress(this, num, (float) (num * 100.0 / documentTotal));
+          }
+        }
+      }
+    } catch (NoSuchElementException e) {
+      // END OF CLUSTER REACHED, IGNORE IT
+    }
+  }
+
+  private void sortEntry(final OIndexEntriesSorter.Collector collector, final List<ORID> nullKeyValues, final Object key,
+      final ORID value) {
+    final Object collatedKey = getCollatingValue(key);
+    if (collatedKey == null)
+      nullKeyValues.add(value);
+    else
+      collector.add(collatedKey, value);
+  }
+
   public boolean remove(Object key, final OIdentifiable value) {
     return remove(key);
   }
@@ -792,6 +1000,34 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T>, OOrientSta
     return metadata;
   }
 
+  /**
+   * Returns predicate of partial index, or <code>null</code> if all records of indexed clusters are indexed.
+   */
+  public OIndexPredicate getPredicate() {
+    if (metadata == null)
+      return null;
+
+    final String text = metadata.field(PREDICATE);
+    if (text == null)
+      return null;
+
+    OIndexPredicate result = predicate;
+    if (result == null) {
+      result = new OIndexPredicate(text);
+      predicate = result;
+    }
+
+    return result;
+  }
+
+  /**
+   * @return <code>true</code> if record satisfies predicate of partial index or index is not partial.
+   */
+  public boolean isIndexed(final ODocument record) {
+    final OIndexPredicate indexPredicate = getPredicate();
+    return indexPredicate == null || indexPredicate.evaluate(record);
+  }
+
   @Override
   public boolean isUnique() {
     return false;
@@ -880,6 +1116,82 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T>, OOrientSta
 
   protected abstract OBinarySerializer determineValueSerializer();
 
+  /**
+   * Collates and sorts keys of multi-key lookup, see {@link #iterateEntries(Collection, boolean)}.
+   */
+  protected List<Object> sortKeys(Collection<?> keys, boolean ascSortOrder) {
+    final List<Object> sortedKeys = new ArrayList<Object>(keys.size());
+    for (Object key : keys)
+      sortedKeys.add(getCollatingValue(key));
+
+    if (ascSortOrder)
+      Collections.sort(sortedKeys, ODefaultComparator.INSTANCE);
+    else
+      Collections.sort(sortedKeys, Collections.reverseOrder(ODefaultComparator.INSTANCE));
+
+    return sortedKeys;
+  }
+
+  /**
+   * Looks up values of keys by batches of {@link OGlobalConfiguration#INDEX_CURSOR_PREFETCH_SIZE} keys, each batch is looked up by
+   * single call of index engine (see {@link OIndexEngine#getAll(Collection)}).
+   *
+   * @param sortedKeys Collated keys, see {@link #sortKeys(Collection, boolean)}.
+   *
+   * @return Keys and their values in order of passed in keys, absent keys are skipped.
+   */
+  protected Iterator<Map.Entry<Object, Object>> lookupValues(final List<Object> sortedKeys) {
+    final int batchSize = OGlobalConfiguration.INDEX_CURSOR_PREFETCH_SIZE.getValueAsInteger();
+
+    return new Iterator<Map.Entry<Object, Object>>() {
+      private int position;
+      private Iterator<Map.Entry<Object, Object>> batchIterator = Collections.<Map.Entry<Object, Object>>emptyList().iterator();
+
+      @Override
+      public boolean hasNext() {
+        while (!batchIterator.hasNext() && position < sortedKeys.size())
+          fetchBatch();
+
+        return batchIterator.hasNext();
+      }
+
+      @Override
+      public Map.Entry<Object, Object> next() {
+        if (!hasNext())
+          throw new NoSuchElementException();
+
+        return batchIterator.next();
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException("remove");
+      }
+
+      private void fetchBatch() {
+        final List<Object> batchKeys = sortedKeys.subList(position, Math.min(position + batchSize, sortedKeys.size()));
+        position += batchKeys.size();
+
+        final Map<Object, Object> values;
+        acquireSharedLock();
+        try {
+          values = storage.getIndexValues(indexId, batchKeys);
+        } finally {
+          releaseSharedLock();
+        }
+
+        final List<Map.Entry<Object, Object>> batch = new ArrayList<Map.Entry<Object, Object>>(values.size());
+        for (Object key : batchKeys) {
+          final Object value = values.get(key);
+          if (value != null)
+            batch.add(new AbstractMap.SimpleImmutableEntry<Object, Object>(key, value));
+        }
+
+        batchIterator = batch.iterator();
+      }
+    };
+  }
+
   protected void populateIndex(ODocument doc, Object fieldValue) {
     if (fieldValue instanceof Collection) {
       for (final Object fieldValueItem : (Collection<?>) fieldValue) {
@@ -968,7 +1280,7 @@ public abstract class OIndexAbstract<T> implements OIndexInternal<T>, OOrientSta
 
           final Object fieldValue = indexDefinition.getDocumentValueToIndex(doc);
 
-          if (fieldValue != null || !indexDefinition.isNullValuesIgnored()) {
+          if ((fieldValue != null || !indexDefinition.isNullValuesIgnored()) && isIndexed(doc)) {
             try {
               populateIndex(doc, fieldValue);
             } catch (OTooBigIndexKeyException e) {
@@ -0,0 +1,92 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.index.bitmap.ORidBitmap;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.index.ORidBitmapSerializer;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.tx.OTransactionIndexChangesPerKey;
+
+import java.util.Set;
+
+/**
+ * Index implementation that allows multiple values for the same key and stores values of each key as compressed bitmap of
+ * cluster positions per cluster ({@link ORidBitmap}). It fits best for keys with small number of distinct values, like statuses
+ * or categories. Bitmaps of several keys and several bitmap indexes are combined by query engine with AND, OR and AND NOT
+ * operations without loading of RIDs, size of the result is known without iteration over it.
+ */
+public class OIndexBitmap extends OIndexMultiValues {
+
+  public OIndexBitmap(String name, String typeId, String algorithm, int version, OAbstractPaginatedStorage storage,
+      String valueContainerAlgorithm, ODocument metadata) {
+    super(name, typeId, algorithm, version, storage, valueContainerAlgorithm, metadata);
+  }
+
+  /**
+   * @return Bitmap of records indexed by passed in key, modification of returned bitmap does not affect content of index.
+   */
+  public ORidBitmap getBitmap(Object key) {
+    key = getCollatingValue(key);
+
+    acquireSharedLock();
+    try {
+      final ORidBitmap values = (ORidBitmap) storage.getIndexValue(indexId, key);
+      if (values == null)
+        return new ORidBitmap();
+
+      return values;
+    } finally {
+      releaseSharedLock();
+    }
+  }
+
+  public boolean canBeUsedInEqualityOperators() {
+    return true;
+  }
+
+  @Override
+  public boolean supportsOrderedIterations() {
+    return storage.hasIndexRangeQuerySupport(indexId);
+  }
+
+  @Override
+  protected Set<OIdentifiable> createValuesContainer(final boolean durable) {
+    return new ORidBitmap();
+  }
+
+  @Override
+  protected boolean isBulkLoadSupported() {
+    return true;
+  }
+
+  @Override
+  protected OBinarySerializer determineValueSerializer() {
+    return storage.getComponentsFactory().binarySerializerFactory.getObjectSerializer(ORidBitmapSerializer.ID);
+  }
+
+  @Override
+  protected Iterable<OTransactionIndexChangesPerKey.OTransactionIndexEntry> interpretTxKeyChanges(
+      OTransactionIndexChangesPerKey changes) {
+    return changes.interpret(OTransactionIndexChangesPerKey.Interpretation.NonUnique);
+  }
+}
@@ -15,7 +15,7 @@ import java.util.Set;
  *
  * @see OIndexAbstract#getRebuildVersion()
  */
-public class OIndexChangesWrapper implements OIndexCursor {
+public class OIndexChangesWrapper implements OEstimableIndexCursor {
   protected final OIndex<?>    source;
   protected final OIndexCursor delegate;
   protected final long         indexRebuildVersion;
@@ -127,6 +127,17 @@ public class OIndexChangesWrapper implements OIndexCursor {
     delegate.setPrefetchSize(prefetchSize);
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public long estimateSize() {
+    if (delegate instanceof OEstimableIndexCursor)
+      return ((OEstimableIndexCursor) delegate).estimateSize();
+
+    return -1;
+  }
+
   /**
    * {@inheritDoc}
    */
@@ -0,0 +1,143 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.ORecordInternal;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.OStorage;
+
+import java.util.Collection;
+
+/**
+ * Value stored by covering indexes. Besides the identity of the indexed record it keeps a copy of the indexed and included
+ * fields, so queries which project only these fields can be answered without loading the record from the cluster. It behaves
+ * like the RID of the record in all other cases.
+ *
+ * @see OIndex#INCLUDE_FIELDS
+ */
+public class OIndexCoveringValue implements OIdentifiable {
+  private final ORID   rid;
+  private final byte[] fields;
+
+  public OIndexCoveringValue(final ORID rid, final byte[] fields) {
+    this.rid = rid;
+    this.fields = fields;
+  }
+
+  /**
+   * Creates covering value which contains passed in fields of the record.
+   *
+   * @param record     Record to index.
+   * @param fieldNames Names of fields to copy into the index.
+   */
+  public static OIndexCoveringValue fromRecord(final ODocument record, final Collection<String> fieldNames) {
+    final ODocument covered = new ODocument(record.getClassName());
+    for (String fieldName : fieldNames) {
+      if (record.containsField(fieldName))
+        covered.field(fieldName, record.rawField(fieldName));
+    }
+
+    return new OIndexCoveringValue(record.getIdentity(), covered.toStream());
+  }
+
+  /**
+   * @return Serialized content of the covered fields.
+   */
+  public byte[] getFields() {
+    return fields;
+  }
+
+  /**
+   * Returns transient document which has identity of the indexed record and contains only covered fields. Document is not bound
+   * to the record cache and should be used only to read the covered fields.
+   */
+  public ODocument toDocument() {
+    final ODocument document = new ODocument();
+    document.fromStream(fields);
+    ORecordInternal.setIdentity(document, new ORecordId(rid));
+    ORecordInternal.unsetDirty(document);
+
+    return document;
+  }
+
+  @Override
+  public ORID getIdentity() {
+    return rid;
+  }
+
+  @Override
+  public <T extends ORecord> T getRecord() {
+    return rid.getRecord();
+  }
+
+  @Override
+  public void lock(boolean iExclusive) {
+    rid.lock(iExclusive);
+  }
+
+  @Override
+  public boolean isLocked() {
+    return rid.isLocked();
+  }
+
+  @Override
+  public OStorage.LOCKING_STRATEGY lockingStrategy() {
+    return rid.lockingStrategy();
+  }
+
+  @Override
+  public void unlock() {
+    rid.unlock();
+  }
+
+  @Override
+  public int compareTo(OIdentifiable o) {
+    return rid.compareTo(o);
+  }
+
+  @Override
+  public int compare(OIdentifiable o1, OIdentifiable o2) {
+    return rid.compare(o1, o2);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o)
+      return true;
+    if (!(o instanceof OIdentifiable))
+      return false;
+
+    return rid.equals(((OIdentifiable) o).getIdentity());
+  }
+
+  @Override
+  public int hashCode() {
+    return rid.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return rid.toString();
+  }
+}
@@ -78,6 +78,15 @@ public class OIndexDefinitionFactory {
    * @return extracted property name
    */
   public static String extractFieldName(final String fieldDefinition) {
+    if (isExpression(fieldDefinition)) {
+      final int separator = fieldDefinition.indexOf('.');
+      if (separator < 1 || separator > fieldDefinition.indexOf('('))
+        throw new IllegalArgumentException(
+            "Illegal expression format, should be '<property>.<method>([arguments])' but was '" + fieldDefinition + '\'');
+
+      return fieldDefinition.substring(0, separator).trim();
+    }
+
     String[] fieldNameParts = FILED_NAME_PATTERN.split(fieldDefinition);
     if (fieldNameParts.length == 1)
       return fieldDefinition;
@@ -88,6 +97,18 @@ public class OIndexDefinitionFactory {
         "Illegal field name format, should be '<property> [by key|value]' but was '" + fieldDefinition + '\'');
   }
 
+  /**
+   * Checks whether field definition is an expression calculated from the property value, like 'name.toLowerCase()', see
+   * {@link OExpressionIndexDefinition}.
+   *
+   * @param fieldDefinition
+   *          definition of field
+   * @return <code>true</code> if field definition contains method calls
+   */
+  public static boolean isExpression(final String fieldDefinition) {
+    return fieldDefinition.indexOf('(') > -1;
+  }
+
   private static OIndexDefinition createMultipleFieldIndexDefinition(final OClass oClass, final List<String> fieldsToIndex,
       final List<OType> types, List<OCollate> collates, String indexKind, String algorithm) {
     final OIndexFactory factory = OIndexes.getFactory(indexKind, algorithm);
@@ -95,6 +116,9 @@ public class OIndexDefinitionFactory {
     final OCompositeIndexDefinition compositeIndex = new OCompositeIndexDefinition(className);
 
     for (int i = 0, fieldsToIndexSize = fieldsToIndex.size(); i < fieldsToIndexSize; i++) {
+      if (isExpression(fieldsToIndex.get(i)))
+        throw new OIndexException("Expression '" + fieldsToIndex.get(i) + "' can be indexed only by single field index");
+
       OCollate collate = null;
       if (collates != null)
         collate = collates.get(i);
@@ -124,6 +148,13 @@ public class OIndexDefinitionFactory {
 
   private static OIndexDefinition createSingleFieldIndexDefinition(OClass oClass, final String field, final OType type,
       OCollate collate, String indexKind, String algorithm) {
+    if (isExpression(field)) {
+      final OIndexDefinition indexDefinition = new OExpressionIndexDefinition(oClass.getName(), field, type);
+      if (collate != null)
+        indexDefinition.setCollate(collate);
+
+      return indexDefinition;
+    }
 
     final String fieldName = OClassImpl.decodeClassName(adjustFieldName(oClass, extractFieldName(field)));
     final OIndexDefinition indexDefinition;
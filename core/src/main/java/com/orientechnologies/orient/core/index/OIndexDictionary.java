@@ -21,10 +21,13 @@ package com.orientechnologies.orient.core.index;
 
 import com.orientechnologies.orient.core.db.ODatabase;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 import com.orientechnologies.orient.core.tx.OTransactionIndexChangesPerKey;
 
+import java.util.List;
+
 /**
  * Dictionary index similar to unique index but does not check for updates, just executes changes. Last put always wins and override
  * the previous value.
@@ -64,6 +67,16 @@ public class OIndexDictionary extends OIndexOneValue {
     }
   }
 
+  @Override
+  protected boolean isBulkLoadSupported() {
+    return true;
+  }
+
+  @Override
+  protected Object bulkLoadValue(Object key, List<ORID> values) {
+    return values.get(values.size() - 1);
+  }
+
   /**
    * Disables check of entries.
    */
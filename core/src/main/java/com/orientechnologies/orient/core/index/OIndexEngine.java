@@ -59,6 +59,16 @@ public interface OIndexEngine {
 
   Object get(Object key);
 
+  /**
+   * Looks up values of several keys at once. Implementations may look up keys faster than separate calls of {@link #get(Object)}
+   * do, for example by single pass over index pages under single acquisition of locks.
+   *
+   * @param keys Keys to look up.
+   *
+   * @return Map of found keys to their values, passed in instances of keys are used as keys of the map.
+   */
+  Map<Object, Object> getAll(Collection<?> keys);
+
   void put(Object key, Object value);
 
   /**
@@ -94,6 +104,23 @@ public interface OIndexEngine {
 
   long size(ValuesTransformer transformer);
 
+  /**
+   * Calculates exact amount of keys between given keys, <code>null</code> boundary means that range is not limited from the
+   * corresponding side.
+   *
+   * @throws UnsupportedOperationException if engine does not support range queries.
+   * @see #hasRangeQuerySupport()
+   */
+  long getRangeSize(Object rangeFrom, boolean fromInclusive, Object rangeTo, boolean toInclusive);
+
+  /**
+   * Estimates amount of keys between given keys without iteration over them, <code>null</code> boundary means that range is not
+   * limited from the corresponding side.
+   *
+   * @return Estimated amount of keys or <code>-1</code> if engine is not able to estimate it cheaply.
+   */
+  long getApproximateRangeSize(Object rangeFrom, boolean fromInclusive, Object rangeTo, boolean toInclusive);
+
   boolean hasRangeQuerySupport();
 
   int getVersion();
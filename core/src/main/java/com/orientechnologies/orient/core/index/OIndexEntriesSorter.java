@@ -0,0 +1,327 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.common.comparator.ODefaultComparator;
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * External sort of index entries which is used during bulk load of index (see {@link OBulkLoadIndexEngine}).
+ * <p>
+ * Entries are added by several threads, each thread uses its own {@link Collector}. Collector sorts entries in memory by runs of
+ * limited size, full runs are spilled to temporary files. Once all entries are collected sorted runs are merged and entries are
+ * returned sorted by key, values of entries with the same key are grouped together.
+ */
+public class OIndexEntriesSorter {
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final OBinarySerializer<Object> keySerializer;
+  private final OType[]                   keyTypes;
+  private final int                       runSize;
+
+  private final List<File>        runFiles   = Collections.synchronizedList(new ArrayList<File>());
+  private final List<List<Entry>> memoryRuns = Collections.synchronizedList(new ArrayList<List<Entry>>());
+
+  private final List<RunCursor> openCursors = new ArrayList<RunCursor>();
+
+  @SuppressWarnings("unchecked")
+  public OIndexEntriesSorter(OBinarySerializer<?> keySerializer, OType[] keyTypes, int runSize) {
+    if (runSize <= 0)
+      throw new IllegalArgumentException("Size of run of sorted entries should be positive but was " + runSize);
+
+    this.keySerializer = (OBinarySerializer<Object>) keySerializer;
+    this.keyTypes = keyTypes;
+    this.runSize = runSize;
+  }
+
+  /**
+   * @return New collector of entries, collector should be used only by single thread.
+   */
+  public Collector createCollector() {
+    return new Collector();
+  }
+
+  /**
+   * Merges sorted runs of entries. Should be called once all collectors are closed.
+   *
+   * @return Entries sorted by key, values of the same key are sorted by their identity.
+   */
+  public Iterator<Map.Entry<Object, List<ORID>>> sortedEntries() {
+    final PriorityQueue<RunCursor> queue = new PriorityQueue<RunCursor>(Math.max(1, runFiles.size() + memoryRuns.size()));
+
+    try {
+      for (List<Entry> run : memoryRuns) {
+        final RunCursor cursor = new MemoryRunCursor(run);
+        if (cursor.next())
+          queue.add(cursor);
+      }
+
+      for (File file : runFiles) {
+        final FileRunCursor cursor = new FileRunCursor(file);
+        openCursors.add(cursor);
+
+        if (cursor.next())
+          queue.add(cursor);
+      }
+    } catch (IOException e) {
+      throw OException.wrapException(new OIndexException("Error during merge of sorted index entries"), e);
+    }
+
+    return new Iterator<Map.Entry<Object, List<ORID>>>() {
+      @Override
+      public boolean hasNext() {
+        return !queue.isEmpty();
+      }
+
+      @Override
+      public Map.Entry<Object, List<ORID>> next() {
+        if (queue.isEmpty())
+          throw new NoSuchElementException();
+
+        final Entry first = poll(queue);
+        final List<ORID> values = new ArrayList<ORID>(1);
+        values.add(first.value);
+
+        while (!queue.isEmpty() && ODefaultComparator.INSTANCE.compare(queue.peek().current.key, first.key) == 0)
+          values.add(poll(queue).value);
+
+        return new AbstractMap.SimpleImmutableEntry<Object, List<ORID>>(first.key, values);
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException("remove");
+      }
+    };
+  }
+
+  /**
+   * Closes merged runs and deletes temporary files of spilled runs.
+   */
+  public void delete() {
+    for (RunCursor cursor : openCursors) {
+      try {
+        cursor.close();
+      } catch (IOException e) {
+        OLogManager.instance().error(this, "Error during closing of file of sorted index entries", e);
+      }
+    }
+    openCursors.clear();
+
+    for (File file : runFiles) {
+      if (file.exists() && !file.delete())
+        OLogManager.instance().warn(this, "Cannot delete file of sorted index entries %s", file);
+    }
+
+    runFiles.clear();
+    memoryRuns.clear();
+  }
+
+  private Entry poll(PriorityQueue<RunCursor> queue) {
+    final RunCursor cursor = queue.poll();
+    final Entry entry = cursor.current;
+
+    try {
+      if (cursor.next())
+        queue.add(cursor);
+    } catch (IOException e) {
+      throw OException.wrapException(new OIndexException("Error during merge of sorted index entries"), e);
+    }
+
+    return entry;
+  }
+
+  private File spill(List<Entry> run) throws IOException {
+    final File file = File.createTempFile("orientdb-index-", ".sorted");
+    runFiles.add(file);
+
+    final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+    try {
+      out.writeInt(run.size());
+
+      for (Entry entry : run) {
+        final byte[] serializedKey = new byte[keySerializer.getObjectSize(entry.key, (Object[]) keyTypes)];
+        keySerializer.serialize(entry.key, serializedKey, 0, (Object[]) keyTypes);
+
+        out.writeInt(serializedKey.length);
+        out.write(serializedKey);
+        out.writeInt(entry.value.getClusterId());
+        out.writeLong(entry.value.getClusterPosition());
+      }
+    } finally {
+      out.close();
+    }
+
+    return file;
+  }
+
+  /**
+   * Collects entries of single thread.
+   */
+  public final class Collector {
+    private List<Entry> run = new ArrayList<Entry>();
+
+    private Collector() {
+    }
+
+    /**
+     * Adds entry to the sorter.
+     *
+     * @param key   Not <code>null</code> key of index.
+     * @param value Identity of indexed record.
+     */
+    public void add(Object key, ORID value) {
+      run.add(new Entry(keySerializer.preprocess(key, (Object[]) keyTypes), value));
+
+      if (run.size() >= runSize) {
+        Collections.sort(run);
+
+        try {
+          spill(run);
+        } catch (IOException e) {
+          throw OException.wrapException(new OIndexException("Error during spill of sorted index entries to the disk"), e);
+        }
+
+        run = new ArrayList<Entry>();
+      }
+    }
+
+    /**
+     * Sorts the rest of collected entries, they are kept in memory till merge.
+     */
+    public void close() {
+      if (!run.isEmpty()) {
+        Collections.sort(run);
+        memoryRuns.add(run);
+      }
+
+      run = null;
+    }
+  }
+
+  private static final class Entry implements Comparable<Entry> {
+    private final Object key;
+    private final ORID   value;
+
+    private Entry(Object key, ORID value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public int compareTo(Entry other) {
+      final int result = ODefaultComparator.INSTANCE.compare(key, other.key);
+      if (result != 0)
+        return result;
+
+      return value.compareTo(other.value);
+    }
+  }
+
+  private static abstract class RunCursor implements Comparable<RunCursor> {
+    protected Entry current;
+
+    protected abstract boolean next() throws IOException;
+
+    protected void close() throws IOException {
+    }
+
+    @Override
+    public int compareTo(RunCursor other) {
+      return current.compareTo(other.current);
+    }
+  }
+
+  private static final class MemoryRunCursor extends RunCursor {
+    private final Iterator<Entry> iterator;
+
+    private MemoryRunCursor(List<Entry> run) {
+      iterator = run.iterator();
+    }
+
+    @Override
+    protected boolean next() {
+      if (!iterator.hasNext()) {
+        current = null;
+        return false;
+      }
+
+      current = iterator.next();
+      return true;
+    }
+  }
+
+  private final class FileRunCursor extends RunCursor {
+    private final DataInputStream in;
+    private int                   remaining;
+
+    private FileRunCursor(File file) throws IOException {
+      in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+      remaining = in.readInt();
+    }
+
+    @Override
+    protected boolean next() throws IOException {
+      if (remaining == 0) {
+        current = null;
+        return false;
+      }
+
+      final byte[] serializedKey = new byte[in.readInt()];
+      in.readFully(serializedKey);
+
+      final int clusterId = in.readInt();
+      final long clusterPosition = in.readLong();
+
+      current = new Entry(keySerializer.deserialize(serializedKey, 0), new ORecordId(clusterId, clusterPosition));
+      remaining--;
+
+      return true;
+    }
+
+    @Override
+    protected void close() throws IOException {
+      in.close();
+    }
+  }
+}
@@ -74,6 +74,14 @@ public class OIndexFullText extends OIndexMultiValues {
     }
   }
 
+  /**
+   * Keys are split in words during {@link #put(Object, OIdentifiable)}, so index can not be filled by bulk load.
+   */
+  @Override
+  protected boolean isBulkLoadSupported() {
+    return false;
+  }
+
   /**
    * Indexes a value and save the index. Splits the value in single words and index each one. Save of the index is responsibility of
    * the caller.
@@ -0,0 +1,66 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cursor which returns entries of the main cursor whose values are also returned by the filter cursor. Values of the filter cursor
+ * are collected in memory on the first call, order of entries of the main cursor is preserved.
+ */
+public class OIndexIntersectionCursor extends OIndexAbstractCursor {
+  private final OIndexCursor cursor;
+  private final OIndexCursor filterCursor;
+  private Set<ORID>          filter;
+
+  public OIndexIntersectionCursor(OIndexCursor cursor, OIndexCursor filterCursor) {
+    this.cursor = cursor;
+    this.filterCursor = filterCursor;
+  }
+
+  @Override
+  public Map.Entry<Object, OIdentifiable> nextEntry() {
+    if (filter == null) {
+      filter = new HashSet<ORID>();
+
+      Map.Entry<Object, OIdentifiable> filterEntry;
+      while ((filterEntry = filterCursor.nextEntry()) != null)
+        filter.add(filterEntry.getValue().getIdentity());
+    }
+
+    Map.Entry<Object, OIdentifiable> entry;
+    do {
+      entry = cursor.nextEntry();
+    } while (entry != null && !filter.contains(entry.getValue().getIdentity()));
+
+    return entry;
+  }
+
+  @Override
+  public void setPrefetchSize(int prefetchSize) {
+    super.setPrefetchSize(prefetchSize);
+    cursor.setPrefetchSize(prefetchSize);
+  }
+}
@@ -33,6 +33,7 @@ import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.db.record.ORecordElement;
 import com.orientechnologies.orient.core.db.record.OTrackedSet;
 import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.metadata.OMetadataUpdateListener;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OClassImpl;
 import com.orientechnologies.orient.core.metadata.schema.OSchemaShared;
@@ -45,6 +46,7 @@ import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedSt
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Manages indexes at database level. A single instance is shared among multiple databases. Contentions are managed by r/w locks.
@@ -59,6 +61,8 @@ public class OIndexManagerShared extends OIndexManagerAbstract {
   protected volatile transient Thread recreateIndexesThread = null;
   private volatile boolean            rebuildCompleted      = false;
 
+  private final transient List<OMetadataUpdateListener> updateListeners = new CopyOnWriteArrayList<OMetadataUpdateListener>();
+
   public OIndexManagerShared(final ODatabaseDocument iDatabase) {
     super(iDatabase);
   }
@@ -275,6 +279,7 @@ public class OIndexManagerShared extends OIndexManagerAbstract {
       releaseExclusiveLock();
     }
 
+    notifyUpdateListeners();
     return this;
   }
 
@@ -445,6 +450,8 @@ public class OIndexManagerShared extends OIndexManagerAbstract {
     } finally {
       releaseExclusiveLock();
     }
+
+    notifyUpdateListeners();
   }
 
   public void removeClassPropertyIndex(final OIndex<?> idx) {
@@ -675,4 +682,30 @@ public class OIndexManagerShared extends OIndexManagerAbstract {
     return index;
   }
 
+  @Override
+  protected void addIndexInternal(final OIndex<?> index) {
+    super.addIndexInternal(index);
+    notifyUpdateListeners();
+  }
+
+  /**
+   * Registers a listener called every time an index is added or removed.
+   */
+  public void registerUpdateListener(final OMetadataUpdateListener listener) {
+    updateListeners.add(listener);
+  }
+
+  public void unregisterUpdateListener(final OMetadataUpdateListener listener) {
+    updateListeners.remove(listener);
+  }
+
+  private void notifyUpdateListeners() {
+    for (OMetadataUpdateListener listener : updateListeners)
+      try {
+        listener.onIndexManagerUpdate(this);
+      } catch (Exception e) {
+        OLogManager.instance().error(this, "Error on notifying index update to listener %s", e, listener);
+      }
+  }
+
 }
@@ -19,17 +19,14 @@
  */
 package com.orientechnologies.orient.core.index;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
 
-import com.orientechnologies.common.comparator.ODefaultComparator;
 import com.orientechnologies.common.listener.OProgressListener;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
 import com.orientechnologies.common.types.OModifiableBoolean;
@@ -129,12 +126,7 @@ public abstract class OIndexMultiValues extends OIndexAbstract<Set<OIdentifiable
 
         final ORID identity = singleValue.getIdentity();
 
-        final boolean durable;
-
-        if (metadata != null && Boolean.TRUE.equals(metadata.field("durableInNonTxMode")))
-          durable = true;
-        else
-          durable = false;
+        final boolean durable = isValuesContainerDurable();
 
         final Set<OIdentifiable> values = (Set<OIdentifiable>) storage.getIndexValue(indexId, key);
 
@@ -143,13 +135,8 @@ public abstract class OIndexMultiValues extends OIndexAbstract<Set<OIdentifiable
           public Object call() throws Exception {
             Set<OIdentifiable> result = values;
 
-            if (result == null) {
-              if (ODefaultIndexFactory.SBTREEBONSAI_VALUE_CONTAINER.equals(valueContainerAlgorithm)) {
-                result = new OIndexRIDContainer(getName(), durable);
-              } else {
-                throw new IllegalStateException("MVRBTree is not supported any more");
-              }
-            }
+            if (result == null)
+              result = createValuesContainer(durable);
 
             result.add(identity);
 
@@ -168,6 +155,34 @@ public abstract class OIndexMultiValues extends OIndexAbstract<Set<OIdentifiable
     }
   }
 
+  @Override
+  protected boolean isBulkLoadSupported() {
+    return ODefaultIndexFactory.SBTREEBONSAI_VALUE_CONTAINER.equals(valueContainerAlgorithm);
+  }
+
+  @Override
+  protected Object bulkLoadValue(Object key, List<ORID> values) {
+    final Set<OIdentifiable> result = createValuesContainer(isValuesContainerDurable());
+    for (ORID value : values)
+      result.add(value);
+
+    return result;
+  }
+
+  /**
+   * @return Empty container of values of a single key.
+   */
+  protected Set<OIdentifiable> createValuesContainer(final boolean durable) {
+    if (ODefaultIndexFactory.SBTREEBONSAI_VALUE_CONTAINER.equals(valueContainerAlgorithm))
+      return new OIndexRIDContainer(getName(), durable);
+
+    throw new IllegalStateException("MVRBTree is not supported any more");
+  }
+
+  private boolean isValuesContainerDurable() {
+    return metadata != null && Boolean.TRUE.equals(metadata.field("durableInNonTxMode"));
+  }
+
   @Override
   public boolean remove(Object key, final OIdentifiable value) {
     key = getCollatingValue(key);
@@ -258,56 +273,30 @@ public abstract class OIndexMultiValues extends OIndexAbstract<Set<OIdentifiable
 
   @Override
   public OIndexCursor iterateEntries(Collection<?> keys, boolean ascSortOrder) {
-    final List<Object> sortedKeys = new ArrayList<Object>(keys);
-    final Comparator<Object> comparator;
-    if (ascSortOrder)
-      comparator = ODefaultComparator.INSTANCE;
-    else
-      comparator = Collections.reverseOrder(ODefaultComparator.INSTANCE);
-
-    Collections.sort(sortedKeys, comparator);
+    final Iterator<Map.Entry<Object, Object>> valuesIterator = lookupValues(sortKeys(keys, ascSortOrder));
 
     return new OIndexAbstractCursor() {
-      private Iterator<?> keysIterator = sortedKeys.iterator();
-
       private Iterator<OIdentifiable> currentIterator = OEmptyIterator.IDENTIFIABLE_INSTANCE;
       private Object currentKey;
 
       @Override
       public Map.Entry<Object, OIdentifiable> nextEntry() {
-        if (currentIterator == null)
-          return null;
-
-        Object key = null;
-        if (!currentIterator.hasNext()) {
-          Collection<OIdentifiable> result = null;
-          while (keysIterator.hasNext() && (result == null || result.isEmpty())) {
-            key = keysIterator.next();
-            key = getCollatingValue(key);
-
-            acquireSharedLock();
-            try {
-              result = (Collection<OIdentifiable>) storage.getIndexValue(indexId, key);
-            } finally {
-              releaseSharedLock();
-            }
-          }
-
-          if (result == null) {
-            currentIterator = null;
+        while (!currentIterator.hasNext()) {
+          if (!valuesIterator.hasNext())
             return null;
-          }
 
-          currentKey = key;
-          currentIterator = result.iterator();
+          final Map.Entry<Object, Object> entry = valuesIterator.next();
+          currentKey = entry.getKey();
+          currentIterator = ((Collection<OIdentifiable>) entry.getValue()).iterator();
         }
 
+        final Object resultKey = currentKey;
         final OIdentifiable resultValue = currentIterator.next();
 
         return new Map.Entry<Object, OIdentifiable>() {
           @Override
           public Object getKey() {
-            return currentKey;
+            return resultKey;
           }
 
           @Override
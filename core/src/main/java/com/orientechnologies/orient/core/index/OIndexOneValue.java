@@ -19,12 +19,13 @@
  */
 package com.orientechnologies.orient.core.index;
 
-import com.orientechnologies.common.comparator.ODefaultComparator;
 import com.orientechnologies.common.listener.OProgressListener;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
 import com.orientechnologies.orient.core.db.ODatabase;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.record.ORecord;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.index.OIndexCoveringValueSerializer;
 import com.orientechnologies.orient.core.serialization.serializer.stream.OStreamSerializerRID;
 import com.orientechnologies.orient.core.storage.ORecordDuplicatedException;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
@@ -38,6 +39,8 @@ import java.util.*;
  * 
  */
 public abstract class OIndexOneValue extends OIndexAbstract<OIdentifiable> {
+  private volatile Set<String> coveredFields;
+
   public OIndexOneValue(String name, final String type, String algorithm, int version, OAbstractPaginatedStorage storage,
       String valueContainerAlgorithm, ODocument metadata) {
     super(name, type, algorithm, valueContainerAlgorithm, metadata, version, storage);
@@ -115,46 +118,27 @@ public abstract class OIndexOneValue extends OIndexAbstract<OIdentifiable> {
 
   public OIndexOneValue create(final String name, final OIndexDefinition indexDefinition, final String clusterIndexName,
       final Set<String> clustersToIndex, boolean rebuild, final OProgressListener progressListener) {
+    if (!getIncludeFields().isEmpty() && !supportsCoveringValues())
+      throw new OIndexException(
+          "Index '" + name + "' of type " + getType() + " with algorithm " + getAlgorithm() + " cannot include fields");
+
     return (OIndexOneValue) super.create(indexDefinition, clusterIndexName, clustersToIndex, rebuild, progressListener,
         determineValueSerializer());
   }
 
   @Override
   public OIndexCursor iterateEntries(Collection<?> keys, boolean ascSortOrder) {
-    final List<Object> sortedKeys = new ArrayList<Object>(keys);
-    final Comparator<Object> comparator;
-
-    if (ascSortOrder)
-      comparator = ODefaultComparator.INSTANCE;
-    else
-      comparator = Collections.reverseOrder(ODefaultComparator.INSTANCE);
-
-    Collections.sort(sortedKeys, comparator);
+    final Iterator<Map.Entry<Object, Object>> valuesIterator = lookupValues(sortKeys(keys, ascSortOrder));
 
     return new OIndexAbstractCursor() {
-      private Iterator<?> keysIterator = sortedKeys.iterator();
-
       @Override
       public Map.Entry<Object, OIdentifiable> nextEntry() {
-        OIdentifiable result = null;
-        Object key = null;
-        while (keysIterator.hasNext() && result == null) {
-          key = keysIterator.next();
-          key = getCollatingValue(key);
-
-          acquireSharedLock();
-          try {
-            result = (OIdentifiable) storage.getIndexValue(indexId, key);
-          } finally {
-            releaseSharedLock();
-          }
-        }
-
-        if (result == null)
+        if (!valuesIterator.hasNext())
           return null;
 
-        final Object resultKey = key;
-        final OIdentifiable resultValue = result;
+        final Map.Entry<Object, Object> entry = valuesIterator.next();
+        final Object resultKey = entry.getKey();
+        final OIdentifiable resultValue = (OIdentifiable) entry.getValue();
 
         return new Map.Entry<Object, OIdentifiable>() {
           @Override
@@ -255,8 +239,78 @@ public abstract class OIndexOneValue extends OIndexAbstract<OIdentifiable> {
     return true;
   }
 
+  /**
+   * Returns fields which are stored in index together with identity of the record, it is fields of index definition plus fields
+   * listed in {@link OIndex#INCLUDE_FIELDS} metadata. Returns empty set if index stores only identities of records.
+   */
+  public Set<String> getCoveredFields() {
+    Set<String> fields = coveredFields;
+    if (fields == null) {
+      final Collection<String> includeFields = getIncludeFields();
+      if (includeFields.isEmpty())
+        fields = Collections.emptySet();
+      else {
+        fields = new LinkedHashSet<String>();
+        final OIndexDefinition indexDefinition = getDefinition();
+        if (indexDefinition != null)
+          fields.addAll(indexDefinition.getFields());
+        fields.addAll(includeFields);
+        fields = Collections.unmodifiableSet(fields);
+
+        if (indexDefinition == null)
+          // DEFINITION IS NOT ASSIGNED YET, DO NOT CACHE INCOMPLETE SET
+          return fields;
+      }
+
+      coveredFields = fields;
+    }
+
+    return fields;
+  }
+
+  public boolean isCovering() {
+    return !getCoveredFields().isEmpty();
+  }
+
+  /**
+   * Indicates whether index is able to store covered fields together with identities of records, see
+   * {@link OIndexCoveringValue}.
+   */
+  protected boolean supportsCoveringValues() {
+    return false;
+  }
+
+  /**
+   * Converts value passed by user into value which is stored in index engine. Covering indexes copy covered fields of the
+   * record, so value should be the record itself to avoid its reload.
+   */
+  protected OIdentifiable toIndexValue(final OIdentifiable value) {
+    if (!isCovering())
+      return value.getIdentity();
+
+    final ORecord record = value.getRecord();
+    if (!(record instanceof ODocument))
+      return value.getIdentity();
+
+    return OIndexCoveringValue.fromRecord((ODocument) record, getCoveredFields());
+  }
+
   @Override
   protected OBinarySerializer determineValueSerializer() {
+    if (!getIncludeFields().isEmpty())
+      return OIndexCoveringValueSerializer.INSTANCE;
+
     return OStreamSerializerRID.INSTANCE;
   }
+
+  private Collection<String> getIncludeFields() {
+    if (metadata == null)
+      return Collections.emptyList();
+
+    final Collection<String> includeFields = metadata.field(INCLUDE_FIELDS);
+    if (includeFields == null)
+      return Collections.emptyList();
+
+    return includeFields;
+  }
 }
@@ -0,0 +1,188 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.orient.core.command.OBasicCommandContext;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.filter.OSQLFilterCondition;
+import com.orientechnologies.orient.core.sql.filter.OSQLFilterItem;
+import com.orientechnologies.orient.core.sql.filter.OSQLFilterItemField;
+import com.orientechnologies.orient.core.sql.filter.OSQLFilterItemParameter;
+import com.orientechnologies.orient.core.sql.filter.OSQLPredicate;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorAnd;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorEquals;
+import com.orientechnologies.orient.core.sql.query.OSQLQuery;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Predicate of partial index, only records which satisfy it are put in index, see {@link OIndex#PREDICATE}.
+ *
+ * Index may be used by query only if all records which satisfy the query condition satisfy the predicate too. This is checked
+ * conservatively: every condition of the predicate joined by AND has either to be present as is in the query condition, or to
+ * be satisfied by values which query condition assigns to fields by equality operators.
+ */
+public class OIndexPredicate {
+  private final String text;
+
+  private final ThreadLocal<OSQLPredicate> predicate = new ThreadLocal<OSQLPredicate>() {
+    @Override
+    protected OSQLPredicate initialValue() {
+      return new OSQLPredicate(text);
+    }
+  };
+
+  public OIndexPredicate(final String text) {
+    this.text = text;
+    // FAIL FAST ON SYNTAX ERRORS
+    predicate.get();
+  }
+
+  /**
+   * @return predicate of passed in index or <code>null</code> if index is not partial.
+   */
+  public static OIndexPredicate getPredicate(final OIndex<?> index) {
+    OIndexInternal<?> internal = index.getInternal();
+    if (internal instanceof OIndexRecorder)
+      internal = ((OIndexRecorder) internal).getDelegate();
+
+    return internal instanceof OIndexAbstract ? ((OIndexAbstract<?>) internal).getPredicate() : null;
+  }
+
+  public String getText() {
+    return text;
+  }
+
+  /**
+   * @return <code>true</code> if record satisfies predicate and should be indexed.
+   */
+  public boolean evaluate(final ODocument record) {
+    return Boolean.TRUE.equals(predicate.get().evaluate(record, record, new OBasicCommandContext()));
+  }
+
+  /**
+   * Checks whether every record which satisfies query condition satisfies this predicate too.
+   *
+   * @param condition Condition of the query.
+   * @param context   Context of the query which is used to resolve parameters.
+   */
+  public boolean isImpliedBy(final OSQLFilterCondition condition, final OCommandContext context) {
+    if (condition == null)
+      return false;
+
+    final List<OSQLFilterCondition> queryConditions = new ArrayList<OSQLFilterCondition>();
+    if (!splitByAnd(condition, queryConditions))
+      return false;
+
+    final List<OSQLFilterCondition> predicateConditions = new ArrayList<OSQLFilterCondition>();
+    if (!splitByAnd(predicate.get().getRootCondition(), predicateConditions))
+      return false;
+
+    final Map<String, Object> assignedValues = new HashMap<String, Object>();
+    final List<String> queryConditionsText = new ArrayList<String>(queryConditions.size());
+    for (OSQLFilterCondition queryCondition : queryConditions) {
+      queryConditionsText.add(queryCondition.toString());
+      extractAssignedValue(queryCondition, assignedValues, context);
+    }
+
+    final ODocument assignedDocument = new ODocument();
+    for (Map.Entry<String, Object> entry : assignedValues.entrySet())
+      assignedDocument.field(entry.getKey(), entry.getValue());
+
+    for (OSQLFilterCondition predicateCondition : predicateConditions) {
+      if (queryConditionsText.contains(predicateCondition.toString()))
+        continue;
+
+      final List<String> fields = new ArrayList<String>();
+      if (!extractFields(predicateCondition, fields) || !assignedValues.keySet().containsAll(fields))
+        return false;
+
+      if (!Boolean.TRUE.equals(predicateCondition.evaluate(assignedDocument, null, context)))
+        return false;
+    }
+
+    return true;
+  }
+
+  private static boolean splitByAnd(final Object condition, final List<OSQLFilterCondition> result) {
+    if (!(condition instanceof OSQLFilterCondition))
+      return false;
+
+    final OSQLFilterCondition filterCondition = (OSQLFilterCondition) condition;
+    if (filterCondition.getOperator() instanceof OQueryOperatorAnd)
+      return splitByAnd(filterCondition.getLeft(), result) && splitByAnd(filterCondition.getRight(), result);
+
+    if (filterCondition.getOperator() == null)
+      // CONDITION IN BRACKETS
+      return splitByAnd(filterCondition.getLeft(), result);
+
+    result.add(filterCondition);
+    return true;
+  }
+
+  private static void extractAssignedValue(final OSQLFilterCondition condition, final Map<String, Object> assignedValues,
+      final OCommandContext context) {
+    if (!(condition.getOperator() instanceof OQueryOperatorEquals))
+      return;
+
+    if (isPlainField(condition.getLeft()) && isValue(condition.getRight()))
+      assignedValues.put(((OSQLFilterItemField) condition.getLeft()).getRoot(), value(condition.getRight(), context));
+    else if (isPlainField(condition.getRight()) && isValue(condition.getLeft()))
+      assignedValues.put(((OSQLFilterItemField) condition.getRight()).getRoot(), value(condition.getLeft(), context));
+  }
+
+  private static boolean extractFields(final Object item, final List<String> fields) {
+    if (item instanceof OSQLFilterCondition) {
+      final OSQLFilterCondition condition = (OSQLFilterCondition) item;
+      return extractFields(condition.getLeft(), fields) && extractFields(condition.getRight(), fields);
+    }
+
+    if (item instanceof OSQLFilterItemField) {
+      if (!isPlainField(item))
+        return false;
+
+      fields.add(((OSQLFilterItemField) item).getRoot());
+      return true;
+    }
+
+    return isValue(item);
+  }
+
+  private static boolean isPlainField(final Object item) {
+    return item instanceof OSQLFilterItemField && ((OSQLFilterItemField) item).isFieldChain()
+        && !((OSQLFilterItemField) item).getFieldChain().isLong();
+  }
+
+  private static boolean isValue(final Object item) {
+    return item instanceof OSQLFilterItemParameter || !(item instanceof OSQLFilterItem || item instanceof OSQLFilterCondition
+        || item instanceof OSQLQuery);
+  }
+
+  private static Object value(final Object item, final OCommandContext context) {
+    if (item instanceof OSQLFilterItemParameter)
+      return ((OSQLFilterItemParameter) item).getValue(null, null, context);
+
+    return item;
+  }
+}
@@ -49,6 +49,10 @@ public class OIndexRecorder implements OIndex<OIdentifiable>, OIndexInternal<OId
     this.delegate = delegate;
   }
 
+  public OIndexInternal<OIdentifiable> getDelegate() {
+    return delegate;
+  }
+
   public List<Object> getAffectedKeys() {
     List<Object> result = new ArrayList<Object>(removedKeys.size() + updatedKeys.size());
 
@@ -21,11 +21,14 @@ package com.orientechnologies.orient.core.index;
 
 import com.orientechnologies.orient.core.db.ODatabase;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.storage.ORecordDuplicatedException;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 import com.orientechnologies.orient.core.tx.OTransactionIndexChangesPerKey;
 
+import java.util.List;
+
 /**
  * Index implementation that allows only one value for a key.
  *
@@ -44,13 +47,13 @@ public class OIndexUnique extends OIndexOneValue {
             throw new ORecordDuplicatedException(String
                 .format("Cannot index record %s: found duplicated key '%s' in index '%s' previously assigned to the record %s",
                     newValue.getIdentity(), key, getName(), oldValue.getIdentity()), getName(), oldValue.getIdentity());
-        } else
+        } else if (!isCovering())
           return OIndexEngine.Validator.IGNORE;
       }
 
       if (!newValue.getIdentity().isPersistent())
         newValue.getRecord().save();
-      return newValue.getIdentity();
+      return toIndexValue(newValue);
     }
   };
 
@@ -84,6 +87,29 @@ public class OIndexUnique extends OIndexOneValue {
     }
   }
 
+  @Override
+  protected boolean isBulkLoadSupported() {
+    // COVERING VALUES ARE BUILT FROM RECORDS WHICH ARE NOT AVAILABLE DURING BULK LOAD
+    return !isCovering();
+  }
+
+  @Override
+  protected Object bulkLoadValue(Object key, List<ORID> values) {
+    Object result = null;
+    for (ORID value : values) {
+      final Object validatedValue = UNIQUE_VALIDATOR.validate(key, (OIdentifiable) result, value);
+      if (validatedValue != OIndexEngine.Validator.IGNORE)
+        result = validatedValue;
+    }
+
+    return result;
+  }
+
+  @Override
+  protected boolean supportsCoveringValues() {
+    return ODefaultIndexFactory.SBTREE_ALGORITHM.equals(getAlgorithm());
+  }
+
   @Override
   public boolean canBeUsedInEqualityOperators() {
     return true;
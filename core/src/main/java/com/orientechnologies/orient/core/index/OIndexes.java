@@ -145,9 +145,10 @@ public final class OIndexes {
    */
   public static OIndexInternal<?> createIndex(ODatabaseDocumentInternal database, String name, String indexType, String algorithm,
       String valueContainerAlgorithm, ODocument metadata, int version) throws OConfigurationException, OIndexException {
-    if (indexType.equalsIgnoreCase(OClass.INDEX_TYPE.UNIQUE_HASH_INDEX.name())
+    if ((indexType.equalsIgnoreCase(OClass.INDEX_TYPE.UNIQUE_HASH_INDEX.name())
         || indexType.equalsIgnoreCase(OClass.INDEX_TYPE.NOTUNIQUE_HASH_INDEX.name())
         || indexType.equalsIgnoreCase(OClass.INDEX_TYPE.DICTIONARY_HASH_INDEX.name()))
+        && !OHashIndexFactory.CONCURRENT_HASH_INDEX_ALGORITHM.equals(algorithm))
       algorithm = OHashIndexFactory.HASH_INDEX_ALGORITHM;
 
     return findFactoryByAlgorithmAndType(algorithm, indexType).createIndex(name, database, indexType, algorithm,
@@ -180,7 +181,8 @@ public final class OIndexes {
     String algorithm = null;
 
     if (OClass.INDEX_TYPE.DICTIONARY.name().equals(type) || OClass.INDEX_TYPE.FULLTEXT.name().equals(type)
-        || OClass.INDEX_TYPE.NOTUNIQUE.name().equals(type) || OClass.INDEX_TYPE.UNIQUE.name().equals(type)) {
+        || OClass.INDEX_TYPE.NOTUNIQUE.name().equals(type) || OClass.INDEX_TYPE.UNIQUE.name().equals(type)
+        || OClass.INDEX_TYPE.BITMAP.name().equals(type)) {
       algorithm = ODefaultIndexFactory.SBTREE_ALGORITHM;
     } else if (OClass.INDEX_TYPE.DICTIONARY_HASH_INDEX.name().equals(type)
         || OClass.INDEX_TYPE.FULLTEXT_HASH_INDEX.name().equals(type) || OClass.INDEX_TYPE.NOTUNIQUE_HASH_INDEX.name().equals(type)
@@ -0,0 +1,619 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.index.bitmap;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Compressed bitmap of non negative <code>long</code> values (cluster positions) organized in the same way as roaring bitmaps.
+ * Values are split into chunks of 2^16 values which share the same high bits. Each chunk is stored in container which is either
+ * sorted array of low bits if chunk contains not more than {@link #ARRAY_CONTAINER_MAX_SIZE} values, or plain bitmap of 2^16 bits
+ * otherwise. So both sparse and dense sets of values take little space and intersections and unions are calculated container by
+ * container without iterating over the values.
+ */
+public class OCompressedBitmap {
+  static final int ARRAY_CONTAINER_MAX_SIZE = 4096;
+
+  private static final byte ARRAY_CONTAINER  = 0;
+  private static final byte BITMAP_CONTAINER = 1;
+
+  private long[]      keys       = new long[4];
+  private Container[] containers = new Container[4];
+  private int         size;
+
+  /**
+   * Iterator over values of the bitmap which does not box them.
+   */
+  public interface ValueIterator {
+    boolean hasNext();
+
+    long next();
+  }
+
+  public void add(final long value) {
+    final long key = value >>> 16;
+    final int index = Arrays.binarySearch(keys, 0, size, key);
+    if (index >= 0)
+      containers[index] = containers[index].add((char) value);
+    else
+      insertContainer(-index - 1, key, new ArrayContainer().add((char) value));
+  }
+
+  public boolean remove(final long value) {
+    final int index = Arrays.binarySearch(keys, 0, size, value >>> 16);
+    if (index < 0 || !containers[index].contains((char) value))
+      return false;
+
+    final Container container = containers[index].remove((char) value);
+    if (container.cardinality() == 0)
+      removeContainer(index);
+    else
+      containers[index] = container;
+
+    return true;
+  }
+
+  public boolean contains(final long value) {
+    final int index = Arrays.binarySearch(keys, 0, size, value >>> 16);
+    return index >= 0 && containers[index].contains((char) value);
+  }
+
+  public long cardinality() {
+    long result = 0;
+    for (int i = 0; i < size; i++)
+      result += containers[i].cardinality();
+
+    return result;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return New bitmap which contains values present in both bitmaps.
+   */
+  public OCompressedBitmap and(final OCompressedBitmap other) {
+    final OCompressedBitmap result = new OCompressedBitmap();
+
+    int i = 0, j = 0;
+    while (i < size && j < other.size) {
+      if (keys[i] < other.keys[j])
+        i++;
+      else if (keys[i] > other.keys[j])
+        j++;
+      else {
+        final Container container = containers[i].and(other.containers[j]);
+        if (container.cardinality() > 0)
+          result.appendContainer(keys[i], container);
+
+        i++;
+        j++;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * @return New bitmap which contains values present in any of bitmaps.
+   */
+  public OCompressedBitmap or(final OCompressedBitmap other) {
+    final OCompressedBitmap result = new OCompressedBitmap();
+
+    int i = 0, j = 0;
+    while (i < size || j < other.size) {
+      if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+        result.appendContainer(keys[i], containers[i].copy());
+        i++;
+      } else if (i == size || keys[i] > other.keys[j]) {
+        result.appendContainer(other.keys[j], other.containers[j].copy());
+        j++;
+      } else {
+        result.appendContainer(keys[i], containers[i].or(other.containers[j]));
+        i++;
+        j++;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * @return New bitmap which contains values of this bitmap absent in passed in one.
+   */
+  public OCompressedBitmap andNot(final OCompressedBitmap other) {
+    final OCompressedBitmap result = new OCompressedBitmap();
+
+    int j = 0;
+    for (int i = 0; i < size; i++) {
+      while (j < other.size && other.keys[j] < keys[i])
+        j++;
+
+      final Container container;
+      if (j < other.size && other.keys[j] == keys[i])
+        container = containers[i].andNot(other.containers[j]);
+      else
+        container = containers[i].copy();
+
+      if (container.cardinality() > 0)
+        result.appendContainer(keys[i], container);
+    }
+
+    return result;
+  }
+
+  public OCompressedBitmap copy() {
+    final OCompressedBitmap result = new OCompressedBitmap();
+    for (int i = 0; i < size; i++)
+      result.appendContainer(keys[i], containers[i].copy());
+
+    return result;
+  }
+
+  /**
+   * @return Iterator over values in ascending order.
+   */
+  public ValueIterator iterator() {
+    return new ValueIterator() {
+      private int containerIndex = 0;
+      private int low            = size > 0 ? containers[0].nextValue(0) : -1;
+
+      @Override
+      public boolean hasNext() {
+        return containerIndex < size;
+      }
+
+      @Override
+      public long next() {
+        if (containerIndex >= size)
+          throw new NoSuchElementException();
+
+        final long result = (keys[containerIndex] << 16) | low;
+
+        low = containers[containerIndex].nextValue(low + 1);
+        while (low < 0 && ++containerIndex < size)
+          low = containers[containerIndex].nextValue(0);
+
+        return result;
+      }
+    };
+  }
+
+  /**
+   * @return Size of the bitmap in serialized form in bytes.
+   */
+  public int getSerializedSize() {
+    int result = 4;
+    for (int i = 0; i < size; i++)
+      result += 8 + 1 + containers[i].getSerializedSize();
+
+    return result;
+  }
+
+  public void serialize(final ByteBuffer buffer) {
+    buffer.putInt(size);
+    for (int i = 0; i < size; i++) {
+      buffer.putLong(keys[i]);
+      buffer.put(containers[i] instanceof ArrayContainer ? ARRAY_CONTAINER : BITMAP_CONTAINER);
+      containers[i].serialize(buffer);
+    }
+  }
+
+  public static OCompressedBitmap deserialize(final ByteBuffer buffer) {
+    final OCompressedBitmap result = new OCompressedBitmap();
+
+    final int containersCount = buffer.getInt();
+    for (int i = 0; i < containersCount; i++) {
+      final long key = buffer.getLong();
+      final Container container = buffer.get() == ARRAY_CONTAINER ? new ArrayContainer() : new BitmapContainer();
+      container.deserialize(buffer);
+
+      result.appendContainer(key, container);
+    }
+
+    return result;
+  }
+
+  @Override
+  public boolean equals(final Object o) {
+    if (this == o)
+      return true;
+    if (!(o instanceof OCompressedBitmap))
+      return false;
+
+    final OCompressedBitmap that = (OCompressedBitmap) o;
+    if (cardinality() != that.cardinality())
+      return false;
+
+    final ValueIterator iterator = iterator();
+    final ValueIterator thatIterator = that.iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next() != thatIterator.next())
+        return false;
+    }
+
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = 0;
+    final ValueIterator iterator = iterator();
+    while (iterator.hasNext()) {
+      final long value = iterator.next();
+      result = 31 * result + (int) (value ^ (value >>> 32));
+    }
+
+    return result;
+  }
+
+  private void appendContainer(final long key, final Container container) {
+    insertContainer(size, key, container);
+  }
+
+  private void insertContainer(final int index, final long key, final Container container) {
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, size << 1);
+      containers = Arrays.copyOf(containers, size << 1);
+    }
+
+    System.arraycopy(keys, index, keys, index + 1, size - index);
+    System.arraycopy(containers, index, containers, index + 1, size - index);
+
+    keys[index] = key;
+    containers[index] = container;
+    size++;
+  }
+
+  private void removeContainer(final int index) {
+    System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+    System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+
+    size--;
+    containers[size] = null;
+  }
+
+  /**
+   * Container of low 16 bits of values which share the same high bits. Operations may return container of another type if
+   * cardinality of the result crosses {@link #ARRAY_CONTAINER_MAX_SIZE}.
+   */
+  private abstract static class Container {
+    abstract Container add(char value);
+
+    abstract Container remove(char value);
+
+    abstract boolean contains(char value);
+
+    abstract int cardinality();
+
+    /**
+     * @return Smallest value which is not less than passed in one or <code>-1</code> if there is no such value.
+     */
+    abstract int nextValue(int from);
+
+    abstract Container copy();
+
+    abstract BitmapContainer toBitmap();
+
+    abstract int getSerializedSize();
+
+    abstract void serialize(ByteBuffer buffer);
+
+    abstract void deserialize(ByteBuffer buffer);
+
+    Container and(final Container other) {
+      if (this instanceof BitmapContainer && other instanceof BitmapContainer)
+        return ((BitmapContainer) this).andBitmap((BitmapContainer) other);
+
+      final Container smaller = cardinality() <= other.cardinality() ? this : other;
+      final Container larger = smaller == this ? other : this;
+
+      final ArrayContainer result = new ArrayContainer();
+      for (int value = smaller.nextValue(0); value >= 0; value = smaller.nextValue(value + 1)) {
+        if (larger.contains((char) value))
+          result.append((char) value);
+      }
+
+      return result;
+    }
+
+    Container or(final Container other) {
+      if (this instanceof ArrayContainer && other instanceof ArrayContainer
+          && cardinality() + other.cardinality() <= ARRAY_CONTAINER_MAX_SIZE)
+        return ((ArrayContainer) this).orArray((ArrayContainer) other);
+
+      return toBitmap().orBitmap(other.toBitmap()).optimize();
+    }
+
+    Container andNot(final Container other) {
+      if (this instanceof BitmapContainer)
+        return ((BitmapContainer) this).andNotBitmap(other.toBitmap()).optimize();
+
+      final ArrayContainer result = new ArrayContainer();
+      for (int value = nextValue(0); value >= 0; value = nextValue(value + 1)) {
+        if (!other.contains((char) value))
+          result.append((char) value);
+      }
+
+      return result;
+    }
+  }
+
+  private static final class ArrayContainer extends Container {
+    private char[] values = new char[4];
+    private int    cardinality;
+
+    @Override
+    Container add(final char value) {
+      final int index = Arrays.binarySearch(values, 0, cardinality, value);
+      if (index >= 0)
+        return this;
+
+      if (cardinality == ARRAY_CONTAINER_MAX_SIZE)
+        return toBitmap().add(value);
+
+      final int insertionPoint = -index - 1;
+      if (cardinality == values.length)
+        values = Arrays.copyOf(values, Math.min(cardinality << 1, ARRAY_CONTAINER_MAX_SIZE));
+
+      System.arraycopy(values, insertionPoint, values, insertionPoint + 1, cardinality - insertionPoint);
+      values[insertionPoint] = value;
+      cardinality++;
+
+      return this;
+    }
+
+    @Override
+    Container remove(final char value) {
+      final int index = Arrays.binarySearch(values, 0, cardinality, value);
+      if (index >= 0) {
+        System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+        cardinality--;
+      }
+
+      return this;
+    }
+
+    @Override
+    boolean contains(final char value) {
+      return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    int nextValue(final int from) {
+      if (from > Character.MAX_VALUE)
+        return -1;
+
+      int index = Arrays.binarySearch(values, 0, cardinality, (char) from);
+      if (index < 0)
+        index = -index - 1;
+
+      return index < cardinality ? values[index] : -1;
+    }
+
+    @Override
+    Container copy() {
+      final ArrayContainer result = new ArrayContainer();
+      result.values = Arrays.copyOf(values, Math.max(cardinality, 4));
+      result.cardinality = cardinality;
+      return result;
+    }
+
+    @Override
+    BitmapContainer toBitmap() {
+      final BitmapContainer result = new BitmapContainer();
+      for (int i = 0; i < cardinality; i++)
+        result.add(values[i]);
+
+      return result;
+    }
+
+    /**
+     * Appends value which is bigger than all values of the container.
+     */
+    void append(final char value) {
+      if (cardinality == values.length)
+        values = Arrays.copyOf(values, cardinality << 1);
+
+      values[cardinality++] = value;
+    }
+
+    ArrayContainer orArray(final ArrayContainer other) {
+      final ArrayContainer result = new ArrayContainer();
+      result.values = new char[Math.max(cardinality + other.cardinality, 4)];
+
+      int i = 0, j = 0;
+      while (i < cardinality || j < other.cardinality) {
+        if (j == other.cardinality || (i < cardinality && values[i] < other.values[j]))
+          result.values[result.cardinality++] = values[i++];
+        else if (i == cardinality || values[i] > other.values[j])
+          result.values[result.cardinality++] = other.values[j++];
+        else {
+          result.values[result.cardinality++] = values[i++];
+          j++;
+        }
+      }
+
+      return result;
+    }
+
+    @Override
+    int getSerializedSize() {
+      return 2 + 2 * cardinality;
+    }
+
+    @Override
+    void serialize(final ByteBuffer buffer) {
+      buffer.putChar((char) cardinality);
+      for (int i = 0; i < cardinality; i++)
+        buffer.putChar(values[i]);
+    }
+
+    @Override
+    void deserialize(final ByteBuffer buffer) {
+      cardinality = buffer.getChar();
+      values = new char[Math.max(cardinality, 4)];
+      for (int i = 0; i < cardinality; i++)
+        values[i] = buffer.getChar();
+    }
+  }
+
+  private static final class BitmapContainer extends Container {
+    private final long[] words = new long[1 << 10];
+    private int cardinality;
+
+    @Override
+    Container add(final char value) {
+      final long mask = 1L << value;
+      final int index = value >>> 6;
+      if ((words[index] & mask) == 0) {
+        words[index] |= mask;
+        cardinality++;
+      }
+
+      return this;
+    }
+
+    @Override
+    Container remove(final char value) {
+      final long mask = 1L << value;
+      final int index = value >>> 6;
+      if ((words[index] & mask) != 0) {
+        words[index] &= ~mask;
+        cardinality--;
+      }
+
+      return optimize();
+    }
+
+    @Override
+    boolean contains(final char value) {
+      return (words[value >>> 6] & (1L << value)) != 0;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    int nextValue(final int from) {
+      int index = from >>> 6;
+      if (index >= words.length)
+        return -1;
+
+      long word = words[index] & (-1L << from);
+      while (true) {
+        if (word != 0)
+          return (index << 6) + Long.numberOfTrailingZeros(word);
+
+        if (++index == words.length)
+          return -1;
+
+        word = words[index];
+      }
+    }
+
+    @Override
+    Container copy() {
+      final BitmapContainer result = new BitmapContainer();
+      System.arraycopy(words, 0, result.words, 0, words.length);
+      result.cardinality = cardinality;
+      return result;
+    }
+
+    @Override
+    BitmapContainer toBitmap() {
+      return this;
+    }
+
+    BitmapContainer orBitmap(final BitmapContainer other) {
+      final BitmapContainer result = new BitmapContainer();
+      for (int i = 0; i < words.length; i++) {
+        result.words[i] = words[i] | other.words[i];
+        result.cardinality += Long.bitCount(result.words[i]);
+      }
+
+      return result;
+    }
+
+    Container andBitmap(final BitmapContainer other) {
+      final BitmapContainer result = new BitmapContainer();
+      for (int i = 0; i < words.length; i++) {
+        result.words[i] = words[i] & other.words[i];
+        result.cardinality += Long.bitCount(result.words[i]);
+      }
+
+      return result.optimize();
+    }
+
+    BitmapContainer andNotBitmap(final BitmapContainer other) {
+      final BitmapContainer result = new BitmapContainer();
+      for (int i = 0; i < words.length; i++) {
+        result.words[i] = words[i] & ~other.words[i];
+        result.cardinality += Long.bitCount(result.words[i]);
+      }
+
+      return result;
+    }
+
+    /**
+     * @return Array container with the same content if cardinality is small enough, otherwise this container.
+     */
+    Container optimize() {
+      if (cardinality > ARRAY_CONTAINER_MAX_SIZE)
+        return this;
+
+      final ArrayContainer result = new ArrayContainer();
+      for (int value = nextValue(0); value >= 0; value = nextValue(value + 1))
+        result.append((char) value);
+
+      return result;
+    }
+
+    @Override
+    int getSerializedSize() {
+      return 8 * words.length;
+    }
+
+    @Override
+    void serialize(final ByteBuffer buffer) {
+      for (long word : words)
+        buffer.putLong(word);
+    }
+
+    @Override
+    void deserialize(final ByteBuffer buffer) {
+      cardinality = 0;
+      for (int i = 0; i < words.length; i++) {
+        words[i] = buffer.getLong();
+        cardinality += Long.bitCount(words[i]);
+      }
+    }
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.index.bitmap;
+
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * Set of RIDs stored as {@link OCompressedBitmap} of cluster positions per cluster. It is used as value of bitmap indexes, set
+ * operations between such sets are performed on the bitmaps without creation of RIDs. Iteration returns RIDs ordered by cluster id
+ * and cluster position.
+ */
+public class ORidBitmap extends AbstractSet<OIdentifiable> {
+  private final TreeMap<Integer, OCompressedBitmap> clusters = new TreeMap<Integer, OCompressedBitmap>();
+
+  public ORidBitmap() {
+  }
+
+  @Override
+  public boolean add(final OIdentifiable identifiable) {
+    final ORID rid = identifiable.getIdentity();
+    if (!rid.isPersistent())
+      throw new IllegalArgumentException("Only persistent records can be added to bitmap, but " + rid + " was passed");
+
+    OCompressedBitmap bitmap = clusters.get(rid.getClusterId());
+    if (bitmap == null) {
+      bitmap = new OCompressedBitmap();
+      clusters.put(rid.getClusterId(), bitmap);
+    } else if (bitmap.contains(rid.getClusterPosition()))
+      return false;
+
+    bitmap.add(rid.getClusterPosition());
+    return true;
+  }
+
+  @Override
+  public boolean remove(final Object o) {
+    if (!(o instanceof OIdentifiable))
+      return false;
+
+    final ORID rid = ((OIdentifiable) o).getIdentity();
+    final OCompressedBitmap bitmap = clusters.get(rid.getClusterId());
+    if (bitmap == null || !bitmap.remove(rid.getClusterPosition()))
+      return false;
+
+    if (bitmap.isEmpty())
+      clusters.remove(rid.getClusterId());
+
+    return true;
+  }
+
+  @Override
+  public boolean contains(final Object o) {
+    if (!(o instanceof OIdentifiable))
+      return false;
+
+    final ORID rid = ((OIdentifiable) o).getIdentity();
+    final OCompressedBitmap bitmap = clusters.get(rid.getClusterId());
+    return bitmap != null && bitmap.contains(rid.getClusterPosition());
+  }
+
+  @Override
+  public int size() {
+    final long size = cardinality();
+    return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) size;
+  }
+
+  public long cardinality() {
+    long result = 0;
+    for (OCompressedBitmap bitmap : clusters.values())
+      result += bitmap.cardinality();
+
+    return result;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return clusters.isEmpty();
+  }
+
+  @Override
+  public void clear() {
+    clusters.clear();
+  }
+
+  /**
+   * @return New set which contains RIDs present in both sets.
+   */
+  public ORidBitmap and(final ORidBitmap other) {
+    final ORidBitmap result = new ORidBitmap();
+    for (Map.Entry<Integer, OCompressedBitmap> entry : clusters.entrySet()) {
+      final OCompressedBitmap otherBitmap = other.clusters.get(entry.getKey());
+      if (otherBitmap == null)
+        continue;
+
+      final OCompressedBitmap bitmap = entry.getValue().and(otherBitmap);
+      if (!bitmap.isEmpty())
+        result.clusters.put(entry.getKey(), bitmap);
+    }
+
+    return result;
+  }
+
+  /**
+   * @return New set which contains RIDs present in any of sets.
+   */
+  public ORidBitmap or(final ORidBitmap other) {
+    final ORidBitmap result = new ORidBitmap();
+    for (Map.Entry<Integer, OCompressedBitmap> entry : clusters.entrySet()) {
+      final OCompressedBitmap otherBitmap = other.clusters.get(entry.getKey());
+      result.clusters.put(entry.getKey(), otherBitmap == null ? entry.getValue().copy() : entry.getValue().or(otherBitmap));
+    }
+
+    for (Map.Entry<Integer, OCompressedBitmap> entry : other.clusters.entrySet()) {
+      if (!clusters.containsKey(entry.getKey()))
+        result.clusters.put(entry.getKey(), entry.getValue().copy());
+    }
+
+    return result;
+  }
+
+  /**
+   * @return New set which contains RIDs of this set absent in passed in one.
+   */
+  public ORidBitmap andNot(final ORidBitmap other) {
+    final ORidBitmap result = new ORidBitmap();
+    for (Map.Entry<Integer, OCompressedBitmap> entry : clusters.entrySet()) {
+      final OCompressedBitmap otherBitmap = other.clusters.get(entry.getKey());
+      final OCompressedBitmap bitmap = otherBitmap == null ? entry.getValue().copy() : entry.getValue().andNot(otherBitmap);
+      if (!bitmap.isEmpty())
+        result.clusters.put(entry.getKey(), bitmap);
+    }
+
+    return result;
+  }
+
+  /**
+   * @return New set which contains only RIDs which belong to passed in clusters.
+   */
+  public ORidBitmap retainClusters(final int[] clusterIds) {
+    final ORidBitmap result = new ORidBitmap();
+    for (int clusterId : clusterIds) {
+      final OCompressedBitmap bitmap = clusters.get(clusterId);
+      if (bitmap != null)
+        result.clusters.put(clusterId, bitmap.copy());
+    }
+
+    return result;
+  }
+
+  @Override
+  public Iterator<OIdentifiable> iterator() {
+    return new Iterator<OIdentifiable>() {
+      private final Iterator<Map.Entry<Integer, OCompressedBitmap>> clustersIterator = clusters.entrySet().iterator();
+
+      private int                             clusterId;
+      private OCompressedBitmap.ValueIterator positionsIterator;
+
+      @Override
+      public boolean hasNext() {
+        while (positionsIterator == null || !positionsIterator.hasNext()) {
+          if (!clustersIterator.hasNext())
+            return false;
+
+          final Map.Entry<Integer, OCompressedBitmap> entry = clustersIterator.next();
+          clusterId = entry.getKey();
+          positionsIterator = entry.getValue().iterator();
+        }
+
+        return true;
+      }
+
+      @Override
+      public OIdentifiable next() {
+        if (!hasNext())
+          throw new NoSuchElementException();
+
+        return new ORecordId(clusterId, positionsIterator.next());
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException("remove");
+      }
+    };
+  }
+
+  public int getSerializedSize() {
+    int result = 4;
+    for (OCompressedBitmap bitmap : clusters.values())
+      result += 4 + bitmap.getSerializedSize();
+
+    return result;
+  }
+
+  public byte[] toStream() {
+    final ByteBuffer buffer = ByteBuffer.allocate(getSerializedSize());
+
+    buffer.putInt(clusters.size());
+    for (Map.Entry<Integer, OCompressedBitmap> entry : clusters.entrySet()) {
+      buffer.putInt(entry.getKey());
+      entry.getValue().serialize(buffer);
+    }
+
+    return buffer.array();
+  }
+
+  public static ORidBitmap fromStream(final byte[] stream) {
+    final ByteBuffer buffer = ByteBuffer.wrap(stream);
+    final ORidBitmap result = new ORidBitmap();
+
+    final int clustersCount = buffer.getInt();
+    for (int i = 0; i < clustersCount; i++) {
+      final int clusterId = buffer.getInt();
+      result.clusters.put(clusterId, OCompressedBitmap.deserialize(buffer));
+    }
+
+    return result;
+  }
+}
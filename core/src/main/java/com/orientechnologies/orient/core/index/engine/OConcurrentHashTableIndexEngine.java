@@ -0,0 +1,106 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.index.engine;
+
+import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.index.OIndexException;
+import com.orientechnologies.orient.core.index.hashindex.local.OConcurrentHashTable;
+import com.orientechnologies.orient.core.index.hashindex.local.OMurmurHash3HashFunction;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hash index engine which is based on {@link OConcurrentHashTable}, hash table partitions of which are modified independently and
+ * read without locks. Amount of partitions is taken from "partitions" field of index metadata or from
+ * {@link OGlobalConfiguration#INDEX_CONCURRENT_HASH_PARTITIONS} and is stored in engine properties.
+ */
+public final class OConcurrentHashTableIndexEngine extends OHashTableIndexEngine {
+  public static final String METADATA_FILE_EXTENSION    = ".chm";
+  public static final String TREE_FILE_EXTENSION        = ".cht";
+  public static final String BUCKET_FILE_EXTENSION      = ".chb";
+  public static final String NULL_BUCKET_FILE_EXTENSION = ".chn";
+
+  private static final String PARTITIONS_PROPERTY = "partitions";
+
+  private final OConcurrentHashTable<Object, Object> hashTable;
+
+  public OConcurrentHashTableIndexEngine(String name, Boolean durableInNonTxMode, OAbstractPaginatedStorage storage, int version) {
+    this(name, version, new OMurmurHash3HashFunction<Object>(), durableInNonTxMode != null ?
+        durableInNonTxMode :
+        OGlobalConfiguration.INDEX_DURABLE_IN_NON_TX_MODE.getValueAsBoolean(), storage);
+  }
+
+  private OConcurrentHashTableIndexEngine(String name, int version, OMurmurHash3HashFunction<Object> hashFunction,
+      boolean durableInNonTx, OAbstractPaginatedStorage storage) {
+    this(name, version, hashFunction,
+        new OConcurrentHashTable<Object, Object>(name, METADATA_FILE_EXTENSION, TREE_FILE_EXTENSION, BUCKET_FILE_EXTENSION,
+            NULL_BUCKET_FILE_EXTENSION, hashFunction, durableInNonTx, storage));
+  }
+
+  private OConcurrentHashTableIndexEngine(String name, int version, OMurmurHash3HashFunction<Object> hashFunction,
+      OConcurrentHashTable<Object, Object> hashTable) {
+    super(name, version, hashTable, hashFunction);
+    this.hashTable = hashTable;
+  }
+
+  @Override
+  public void create(OBinarySerializer valueSerializer, boolean isAutomatic, OType[] keyTypes, boolean nullPointerSupport,
+      OBinarySerializer keySerializer, int keySize, Set<String> clustersToIndex, Map<String, String> engineProperties,
+      ODocument metadata) {
+    int partitionsCount = OGlobalConfiguration.INDEX_CONCURRENT_HASH_PARTITIONS.getValueAsInteger();
+    if (metadata != null && metadata.containsField(PARTITIONS_PROPERTY))
+      partitionsCount = metadata.<Number>field(PARTITIONS_PROPERTY).intValue();
+
+    engineProperties.put(PARTITIONS_PROPERTY, String.valueOf(partitionsCount));
+    hashTable.setPartitionsCount(partitionsCount);
+
+    super.create(valueSerializer, isAutomatic, keyTypes, nullPointerSupport, keySerializer, keySize, clustersToIndex,
+        engineProperties, metadata);
+  }
+
+  @Override
+  public void load(String indexName, OBinarySerializer valueSerializer, boolean isAutomatic, OBinarySerializer keySerializer,
+      OType[] keyTypes, boolean nullPointerSupport, int keySize, Map<String, String> engineProperties) {
+    final String partitionsCount = engineProperties != null ? engineProperties.get(PARTITIONS_PROPERTY) : null;
+    if (partitionsCount == null || partitionsCount.isEmpty())
+      throw new OIndexException(
+          "Cannot load concurrent hash index '" + indexName + "' because there is no metadata about the number of partitions");
+
+    hashTable.setPartitionsCount(Integer.parseInt(partitionsCount));
+
+    super.load(indexName, valueSerializer, isAutomatic, keySerializer, keyTypes, nullPointerSupport, keySize, engineProperties);
+  }
+
+  @Override
+  public String getIndexNameByKey(Object key) {
+    return hashTable.getPartitionName(key);
+  }
+
+  @Override
+  public boolean acquireAtomicExclusiveLock(Object key) {
+    hashTable.acquireAtomicExclusiveLock(key);
+    return false;
+  }
+}
@@ -32,6 +32,7 @@ import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
@@ -41,7 +42,7 @@ import java.util.Set;
  * @author Andrey Lomakin
  * @since 15.07.13
  */
-public final class OHashTableIndexEngine implements OIndexEngine {
+public class OHashTableIndexEngine implements OIndexEngine {
   public static final int VERSION = 2;
 
   public static final String METADATA_FILE_EXTENSION    = ".him";
@@ -76,6 +77,17 @@ public final class OHashTableIndexEngine implements OIndexEngine {
     this.name = name;
   }
 
+  /**
+   * Creates index engine on top of already constructed hash table, passed in hash function has to be used by this hash table.
+   */
+  protected OHashTableIndexEngine(String name, int version, OHashTable<Object, Object> hashTable,
+      OMurmurHash3HashFunction<Object> hashFunction) {
+    this.name = name;
+    this.version = version;
+    this.hashTable = hashTable;
+    this.hashFunction = hashFunction;
+  }
+
   @Override
   public void init(String indexName, String indexType, OIndexDefinition indexDefinition, boolean isAutomatic, ODocument metadata) {
   }
@@ -145,6 +157,11 @@ public final class OHashTableIndexEngine implements OIndexEngine {
     return hashTable.get(key);
   }
 
+  @Override
+  public Map<Object, Object> getAll(Collection<?> keys) {
+    return hashTable.getAll(keys);
+  }
+
   @Override
   public void put(Object key, Object value) {
     hashTable.put(key, value);
@@ -197,6 +214,16 @@ public final class OHashTableIndexEngine implements OIndexEngine {
     return false;
   }
 
+  @Override
+  public long getRangeSize(Object rangeFrom, boolean fromInclusive, Object rangeTo, boolean toInclusive) {
+    throw new UnsupportedOperationException("getRangeSize");
+  }
+
+  @Override
+  public long getApproximateRangeSize(Object rangeFrom, boolean fromInclusive, Object rangeTo, boolean toInclusive) {
+    return -1;
+  }
+
   @Override
   public OIndexCursor iterateEntriesBetween(Object rangeFrom, boolean fromInclusive, Object rangeTo, boolean toInclusive,
       boolean ascSortOrder, ValuesTransformer transformer) {
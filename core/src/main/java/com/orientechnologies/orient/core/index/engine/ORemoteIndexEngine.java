@@ -25,6 +25,8 @@ import com.orientechnologies.orient.core.index.*;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.Set;
 
@@ -99,6 +101,11 @@ public class ORemoteIndexEngine implements OIndexEngine {
     return null;
   }
 
+  @Override
+  public Map<Object, Object> getAll(Collection<?> keys) {
+    return Collections.emptyMap();
+  }
+
   @Override
   public void put(Object key, Object value) {
   }
@@ -145,6 +152,16 @@ public class ORemoteIndexEngine implements OIndexEngine {
     return false;
   }
 
+  @Override
+  public long getRangeSize(Object rangeFrom, boolean fromInclusive, Object rangeTo, boolean toInclusive) {
+    throw new UnsupportedOperationException("getRangeSize");
+  }
+
+  @Override
+  public long getApproximateRangeSize(Object rangeFrom, boolean fromInclusive, Object rangeTo, boolean toInclusive) {
+    return -1;
+  }
+
   @Override
   public OIndexCursor cursor(ValuesTransformer valuesTransformer) {
     throw new UnsupportedOperationException("cursor");
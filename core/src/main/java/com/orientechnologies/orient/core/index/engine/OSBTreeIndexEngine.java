@@ -20,7 +20,10 @@
 
 package com.orientechnologies.orient.core.index.engine;
 
+import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.serialization.types.OStringSerializer;
+import com.orientechnologies.common.util.OSizeable;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.index.*;
@@ -30,6 +33,7 @@ import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
@@ -38,12 +42,18 @@ import java.util.Set;
  * @author Andrey Lomakin
  * @since 8/30/13
  */
-public class OSBTreeIndexEngine implements OIndexEngine {
+public class OSBTreeIndexEngine implements OBulkLoadIndexEngine {
   public static final int VERSION = 1;
 
   public static final String DATA_FILE_EXTENSION        = ".sbt";
   public static final String NULL_BUCKET_FILE_EXTENSION = ".nbt";
 
+  /**
+   * Name of index metadata field and engine property which enables prefix compression of string keys, see {@link
+   * OSBTree#create(OBinarySerializer, OBinarySerializer, OType[], int, boolean, boolean)}.
+   */
+  public static final String PREFIX_COMPRESSION = "prefixCompression";
+
   private final OSBTree<Object, Object> sbTree;
   private       int                     version;
   private final String                  name;
@@ -79,7 +89,19 @@ public class OSBTreeIndexEngine implements OIndexEngine {
   public void create(OBinarySerializer valueSerializer, boolean isAutomatic, OType[] keyTypes, boolean nullPointerSupport,
       OBinarySerializer keySerializer, int keySize, Set<String> clustersToIndex, Map<String, String> engineProperties,
       ODocument metadata) {
-    sbTree.create(keySerializer, valueSerializer, keyTypes, keySize, nullPointerSupport);
+    boolean prefixCompression = false;
+    if (metadata != null && Boolean.TRUE.equals(metadata.field(PREFIX_COMPRESSION))) {
+      if (keySerializer instanceof OStringSerializer)
+        prefixCompression = true;
+      else
+        OLogManager.instance()
+            .warn(this, "Prefix compression of keys is supported only for string keys, it is ignored for index '%s'", name);
+    }
+
+    if (prefixCompression && engineProperties != null)
+      engineProperties.put(PREFIX_COMPRESSION, Boolean.TRUE.toString());
+
+    sbTree.create(keySerializer, valueSerializer, keyTypes, keySize, nullPointerSupport, prefixCompression);
   }
 
   @Override
@@ -95,7 +117,23 @@ public class OSBTreeIndexEngine implements OIndexEngine {
   @Override
   public void load(String indexName, OBinarySerializer valueSerializer, boolean isAutomatic, OBinarySerializer keySerializer,
       OType[] keyTypes, boolean nullPointerSupport, int keySize, Map<String, String> engineProperties) {
-    sbTree.load(indexName, keySerializer, valueSerializer, keyTypes, keySize, nullPointerSupport);
+    final boolean prefixCompression = engineProperties != null && Boolean.parseBoolean(engineProperties.get(PREFIX_COMPRESSION));
+    sbTree.load(indexName, keySerializer, valueSerializer, keyTypes, keySize, nullPointerSupport, prefixCompression);
+  }
+
+  @Override
+  public OBinarySerializer getKeySerializer() {
+    return sbTree.getKeySerializer();
+  }
+
+  @Override
+  public OType[] getKeyTypes() {
+    return sbTree.getKeyTypes();
+  }
+
+  @Override
+  public void bulkLoad(Iterator<Map.Entry<Object, Object>> sortedEntries, int fillFactor) {
+    sbTree.bulkLoad(sortedEntries, fillFactor);
   }
 
   @Override
@@ -128,13 +166,18 @@ public class OSBTreeIndexEngine implements OIndexEngine {
     return sbTree.get(key);
   }
 
+  @Override
+  public Map<Object, Object> getAll(Collection<?> keys) {
+    return sbTree.getAll(keys);
+  }
+
   @Override
   public OIndexCursor cursor(ValuesTransformer valuesTransformer) {
     final Object firstKey = sbTree.firstKey();
     if (firstKey == null)
       return new NullCursor();
 
-    return new OSBTreeIndexCursor(sbTree.iterateEntriesMajor(firstKey, true, true), valuesTransformer);
+    return createCursor(sbTree.iterateEntriesMajor(firstKey, true, true), null, false, null, false, valuesTransformer);
   }
 
   @Override
@@ -143,7 +186,7 @@ public class OSBTreeIndexEngine implements OIndexEngine {
     if (lastKey == null)
       return new NullCursor();
 
-    return new OSBTreeIndexCursor(sbTree.iterateEntriesMinor(lastKey, true, false), valuesTransformer);
+    return createCursor(sbTree.iterateEntriesMinor(lastKey, true, false), null, false, null, false, valuesTransformer);
   }
 
   @Override
@@ -182,19 +225,21 @@ public class OSBTreeIndexEngine implements OIndexEngine {
   @Override
   public OIndexCursor iterateEntriesBetween(Object rangeFrom, boolean fromInclusive, Object rangeTo, boolean toInclusive,
       boolean ascSortOrder, ValuesTransformer transformer) {
-    return new OSBTreeIndexCursor(sbTree.iterateEntriesBetween(rangeFrom, fromInclusive, rangeTo, toInclusive, ascSortOrder),
-        transformer);
+    return createCursor(sbTree.iterateEntriesBetween(rangeFrom, fromInclusive, rangeTo, toInclusive, ascSortOrder), rangeFrom,
+        fromInclusive, rangeTo, toInclusive, transformer);
   }
 
   @Override
   public OIndexCursor iterateEntriesMajor(Object fromKey, boolean isInclusive, boolean ascSortOrder,
       ValuesTransformer transformer) {
-    return new OSBTreeIndexCursor(sbTree.iterateEntriesMajor(fromKey, isInclusive, ascSortOrder), transformer);
+    return createCursor(sbTree.iterateEntriesMajor(fromKey, isInclusive, ascSortOrder), fromKey, isInclusive, null, false,
+        transformer);
   }
 
   @Override
   public OIndexCursor iterateEntriesMinor(Object toKey, boolean isInclusive, boolean ascSortOrder, ValuesTransformer transformer) {
-    return new OSBTreeIndexCursor(sbTree.iterateEntriesMinor(toKey, isInclusive, ascSortOrder), transformer);
+    return createCursor(sbTree.iterateEntriesMinor(toKey, isInclusive, ascSortOrder), null, false, toKey, isInclusive,
+        transformer);
   }
 
   @Override
@@ -234,6 +279,19 @@ public class OSBTreeIndexEngine implements OIndexEngine {
     return true;
   }
 
+  @Override
+  public long getRangeSize(Object rangeFrom, boolean fromInclusive, Object rangeTo, boolean toInclusive) {
+    return sbTree.size(rangeFrom, fromInclusive, rangeTo, toInclusive);
+  }
+
+  @Override
+  public long getApproximateRangeSize(Object rangeFrom, boolean fromInclusive, Object rangeTo, boolean toInclusive) {
+    if (!sbTree.hasSubtreeSizes())
+      return -1;
+
+    return sbTree.size(rangeFrom, fromInclusive, rangeTo, toInclusive);
+  }
+
   @Override
   public boolean acquireAtomicExclusiveLock(Object key) {
     sbTree.acquireAtomicExclusiveLock();
@@ -245,16 +303,49 @@ public class OSBTreeIndexEngine implements OIndexEngine {
     return name;
   }
 
-  private static final class OSBTreeIndexCursor extends OIndexAbstractCursor {
+  /**
+   * Cursor over entries without transformation of values is sizeable if amount of keys in range is known without iteration.
+   */
+  private OIndexCursor createCursor(OSBTree.OSBTreeCursor<Object, Object> treeCursor, Object rangeFrom, boolean fromInclusive,
+      Object rangeTo, boolean toInclusive, ValuesTransformer transformer) {
+    if (transformer == null && sbTree.hasSubtreeSizes())
+      return new OSBTreeIndexSizeableCursor(treeCursor, this, rangeFrom, fromInclusive, rangeTo, toInclusive);
+
+    return new OSBTreeIndexCursor(treeCursor, transformer, this, rangeFrom, fromInclusive, rangeTo, toInclusive);
+  }
+
+  private static class OSBTreeIndexCursor extends OIndexAbstractCursor implements OEstimableIndexCursor {
     private final OSBTree.OSBTreeCursor<Object, Object> treeCursor;
     private final ValuesTransformer                     valuesTransformer;
 
+    protected final OSBTreeIndexEngine engine;
+    protected final Object             rangeFrom;
+    protected final boolean            fromInclusive;
+    protected final Object             rangeTo;
+    protected final boolean            toInclusive;
+
     private Iterator<OIdentifiable> currentIterator = OEmptyIterator.IDENTIFIABLE_INSTANCE;
     private Object                  currentKey      = null;
 
-    private OSBTreeIndexCursor(OSBTree.OSBTreeCursor<Object, Object> treeCursor, ValuesTransformer valuesTransformer) {
+    private OSBTreeIndexCursor(OSBTree.OSBTreeCursor<Object, Object> treeCursor, ValuesTransformer valuesTransformer,
+        OSBTreeIndexEngine engine, Object rangeFrom, boolean fromInclusive, Object rangeTo, boolean toInclusive) {
       this.treeCursor = treeCursor;
       this.valuesTransformer = valuesTransformer;
+      this.engine = engine;
+      this.rangeFrom = rangeFrom;
+      this.fromInclusive = fromInclusive;
+      this.rangeTo = rangeTo;
+      this.toInclusive = toInclusive;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Amount of keys in range is returned, so it is less than amount of entries if keys have several values.
+     */
+    @Override
+    public long estimateSize() {
+      return engine.getApproximateRangeSize(rangeFrom, fromInclusive, rangeTo, toInclusive);
     }
 
     @Override
@@ -301,6 +392,21 @@ public class OSBTreeIndexEngine implements OIndexEngine {
     }
   }
 
+  /**
+   * Size of cursor is amount of entries of the whole range, it does not depend on amount of already iterated entries.
+   */
+  private static final class OSBTreeIndexSizeableCursor extends OSBTreeIndexCursor implements OSizeable {
+    private OSBTreeIndexSizeableCursor(OSBTree.OSBTreeCursor<Object, Object> treeCursor, OSBTreeIndexEngine engine,
+        Object rangeFrom, boolean fromInclusive, Object rangeTo, boolean toInclusive) {
+      super(treeCursor, null, engine, rangeFrom, fromInclusive, rangeTo, toInclusive);
+    }
+
+    @Override
+    public int size() {
+      return (int) Math.min(engine.getRangeSize(rangeFrom, fromInclusive, rangeTo, toInclusive), Integer.MAX_VALUE);
+    }
+  }
+
   private static class NullCursor extends OIndexAbstractCursor {
     @Override
     public Map.Entry<Object, OIdentifiable> nextEntry() {
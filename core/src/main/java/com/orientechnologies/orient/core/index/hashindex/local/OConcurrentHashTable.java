@@ -0,0 +1,385 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.index.hashindex.local;
+
+import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.util.OCommonConst;
+import com.orientechnologies.orient.core.index.OIndexEngine;
+import com.orientechnologies.orient.core.index.OIndexException;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hash table which is split into several partitions, each partition is separate {@link OLocalHashTable} which has its own
+ * directory, buckets and locks. Key is placed in partition by the lowest bits of its hash code, while inside of partition the
+ * highest bits of hash code are used, so keys are evenly distributed both between partitions and between buckets of each partition.
+ * <p>
+ * Because each partition is separate durable component, modifications of different partitions are not serialized by the same
+ * exclusive lock, and split of bucket blocks only directory of the partition which contains this bucket. Partitions are created
+ * with optimistic reads enabled, so lookups of keys do not acquire locks at all unless partition is modified concurrently.
+ * <p>
+ * Entries are iterated partition by partition, inside of partition they are iterated in order of hash codes of keys. Null key is
+ * always stored in the first partition.
+ *
+ * @see OLocalHashTable
+ */
+public class OConcurrentHashTable<K, V> implements OHashTable<K, V> {
+  private final String                    name;
+  private final String                    metadataConfigurationFileExtension;
+  private final String                    treeStateFileExtension;
+  private final String                    bucketFileExtension;
+  private final String                    nullBucketFileExtension;
+  private final OHashFunction<K>          keyHashFunction;
+  private final boolean                   durableInNonTxMode;
+  private final OAbstractPaginatedStorage storage;
+
+  private List<OLocalHashTable<K, V>> partitions;
+
+  private OBinarySerializer<K> keySerializer;
+  private OType[]              keyTypes;
+
+  public OConcurrentHashTable(String name, String metadataConfigurationFileExtension, String treeStateFileExtension,
+      String bucketFileExtension, String nullBucketFileExtension, OHashFunction<K> keyHashFunction, boolean durableInNonTxMode,
+      OAbstractPaginatedStorage storage) {
+    this.name = name;
+    this.metadataConfigurationFileExtension = metadataConfigurationFileExtension;
+    this.treeStateFileExtension = treeStateFileExtension;
+    this.bucketFileExtension = bucketFileExtension;
+    this.nullBucketFileExtension = nullBucketFileExtension;
+    this.keyHashFunction = keyHashFunction;
+    this.durableInNonTxMode = durableInNonTxMode;
+    this.storage = storage;
+  }
+
+  /**
+   * Sets amount of partitions of hash table, has to be called before creation or load of hash table.
+   */
+  public void setPartitionsCount(int partitionsCount) {
+    if (partitionsCount <= 0)
+      throw new OIndexException("Amount of partitions of hash table '" + name + "' should be positive but was " + partitionsCount);
+
+    partitions = new ArrayList<OLocalHashTable<K, V>>(partitionsCount);
+    for (int i = 0; i < partitionsCount; i++)
+      partitions.add(createPartition(i));
+  }
+
+  public int getPartitionsCount() {
+    return partitions.size();
+  }
+
+  @Override
+  public void create(OBinarySerializer<K> keySerializer, OBinarySerializer<V> valueSerializer, OType[] keyTypes,
+      boolean nullKeyIsSupported) {
+    checkPartitions();
+
+    this.keySerializer = keySerializer;
+    this.keyTypes = keyTypes;
+
+    for (int i = 0; i < partitions.size(); i++)
+      partitions.get(i).create(keySerializer, valueSerializer, keyTypes, nullKeyIsSupported && i == 0);
+  }
+
+  @Override
+  public void load(String name, OType[] keyTypes, boolean nullKeyIsSupported) {
+    checkPartitions();
+
+    for (int i = 0; i < partitions.size(); i++)
+      partitions.get(i).load(partitionName(name, i), keyTypes, nullKeyIsSupported && i == 0);
+
+    this.keySerializer = partitions.get(0).getKeySerializer();
+    this.keyTypes = keyTypes;
+  }
+
+  /**
+   * Deletes files of all partitions, amount of partitions is not known before load, so partitions are deleted while their files
+   * exist.
+   */
+  @Override
+  public void deleteWithoutLoad(String name, OAbstractPaginatedStorage storageLocal) {
+    int i = 0;
+    while (storageLocal.getWriteCache().exists(partitionName(name, i) + metadataConfigurationFileExtension)) {
+      createPartition(i).deleteWithoutLoad(partitionName(name, i), storageLocal);
+      i++;
+    }
+  }
+
+  @Override
+  public OBinarySerializer<K> getKeySerializer() {
+    return partitions.get(0).getKeySerializer();
+  }
+
+  @Override
+  public void setKeySerializer(OBinarySerializer<K> keySerializer) {
+    for (OLocalHashTable<K, V> partition : partitions)
+      partition.setKeySerializer(keySerializer);
+
+    this.keySerializer = keySerializer;
+  }
+
+  @Override
+  public OBinarySerializer<V> getValueSerializer() {
+    return partitions.get(0).getValueSerializer();
+  }
+
+  @Override
+  public void setValueSerializer(OBinarySerializer<V> valueSerializer) {
+    for (OLocalHashTable<K, V> partition : partitions)
+      partition.setValueSerializer(valueSerializer);
+  }
+
+  @Override
+  public V get(K key) {
+    return getPartition(key).get(key);
+  }
+
+  @Override
+  public Map<K, V> getAll(Collection<? extends K> keys) {
+    final Map<OLocalHashTable<K, V>, List<K>> partitionKeys = new HashMap<OLocalHashTable<K, V>, List<K>>();
+    for (K key : keys) {
+      final OLocalHashTable<K, V> partition = getPartition(key);
+
+      List<K> keysOfPartition = partitionKeys.get(partition);
+      if (keysOfPartition == null) {
+        keysOfPartition = new ArrayList<K>();
+        partitionKeys.put(partition, keysOfPartition);
+      }
+
+      keysOfPartition.add(key);
+    }
+
+    final Map<K, V> result = new HashMap<K, V>();
+    for (Map.Entry<OLocalHashTable<K, V>, List<K>> entry : partitionKeys.entrySet())
+      result.putAll(entry.getKey().getAll(entry.getValue()));
+
+    return result;
+  }
+
+  @Override
+  public void put(K key, V value) {
+    getPartition(key).put(key, value);
+  }
+
+  @Override
+  public boolean validatedPut(K key, V value, OIndexEngine.Validator<K, V> validator) {
+    return getPartition(key).validatedPut(key, value, validator);
+  }
+
+  @Override
+  public V remove(K key) {
+    return getPartition(key).remove(key);
+  }
+
+  @Override
+  public void clear() {
+    for (OLocalHashTable<K, V> partition : partitions)
+      partition.clear();
+  }
+
+  @Override
+  public OHashIndexBucket.Entry<K, V>[] higherEntries(K key) {
+    return higherEntries(key, -1);
+  }
+
+  @Override
+  public OHashIndexBucket.Entry<K, V>[] higherEntries(K key, int limit) {
+    final int partitionIndex = getPartitionIndex(key);
+
+    final OHashIndexBucket.Entry<K, V>[] entries = partitions.get(partitionIndex).higherEntries(key, limit);
+    if (entries.length > 0)
+      return entries;
+
+    return firstEntriesAfter(partitionIndex);
+  }
+
+  @Override
+  public OHashIndexBucket.Entry<K, V>[] ceilingEntries(K key) {
+    final int partitionIndex = getPartitionIndex(key);
+
+    final OHashIndexBucket.Entry<K, V>[] entries = partitions.get(partitionIndex).ceilingEntries(key);
+    if (entries.length > 0)
+      return entries;
+
+    return firstEntriesAfter(partitionIndex);
+  }
+
+  @Override
+  public OHashIndexBucket.Entry<K, V> firstEntry() {
+    for (OLocalHashTable<K, V> partition : partitions) {
+      final OHashIndexBucket.Entry<K, V> entry = partition.firstEntry();
+      if (entry != null)
+        return entry;
+    }
+
+    return null;
+  }
+
+  @Override
+  public OHashIndexBucket.Entry<K, V> lastEntry() {
+    for (int i = partitions.size() - 1; i >= 0; i--) {
+      final OHashIndexBucket.Entry<K, V> entry = partitions.get(i).lastEntry();
+      if (entry != null)
+        return entry;
+    }
+
+    return null;
+  }
+
+  @Override
+  public OHashIndexBucket.Entry<K, V>[] lowerEntries(K key) {
+    final int partitionIndex = getPartitionIndex(key);
+
+    final OHashIndexBucket.Entry<K, V>[] entries = partitions.get(partitionIndex).lowerEntries(key);
+    if (entries.length > 0)
+      return entries;
+
+    return lastEntriesBefore(partitionIndex);
+  }
+
+  @Override
+  public OHashIndexBucket.Entry<K, V>[] floorEntries(K key) {
+    final int partitionIndex = getPartitionIndex(key);
+
+    final OHashIndexBucket.Entry<K, V>[] entries = partitions.get(partitionIndex).floorEntries(key);
+    if (entries.length > 0)
+      return entries;
+
+    return lastEntriesBefore(partitionIndex);
+  }
+
+  @Override
+  public long size() {
+    long size = 0;
+    for (OLocalHashTable<K, V> partition : partitions)
+      size += partition.size();
+
+    return size;
+  }
+
+  @Override
+  public void close() {
+    if (partitions != null)
+      for (OLocalHashTable<K, V> partition : partitions)
+        partition.close();
+  }
+
+  @Override
+  public void delete() {
+    if (partitions != null)
+      for (OLocalHashTable<K, V> partition : partitions)
+        partition.delete();
+  }
+
+  @Override
+  public void flush() {
+    if (partitions != null)
+      for (OLocalHashTable<K, V> partition : partitions)
+        partition.flush();
+  }
+
+  @Override
+  public boolean isNullKeyIsSupported() {
+    return partitions.get(0).isNullKeyIsSupported();
+  }
+
+  /**
+   * Acquires exclusive locks of all partitions in the active atomic operation, partitions are locked in the same order by all
+   * threads.
+   */
+  @Override
+  public void acquireAtomicExclusiveLock() {
+    for (OLocalHashTable<K, V> partition : partitions)
+      partition.acquireAtomicExclusiveLock();
+  }
+
+  /**
+   * Acquires exclusive lock in the active atomic operation only for partition which contains passed in key.
+   */
+  public void acquireAtomicExclusiveLock(K key) {
+    getPartition(key).acquireAtomicExclusiveLock();
+  }
+
+  /**
+   * @return Name of partition which contains passed in key.
+   */
+  public String getPartitionName(K key) {
+    return getPartition(key).getName();
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  private OHashIndexBucket.Entry<K, V>[] firstEntriesAfter(int partitionIndex) {
+    for (int i = partitionIndex + 1; i < partitions.size(); i++) {
+      final OLocalHashTable<K, V> partition = partitions.get(i);
+
+      final OHashIndexBucket.Entry<K, V> firstEntry = partition.firstEntry();
+      if (firstEntry != null)
+        return partition.ceilingEntries(firstEntry.key);
+    }
+
+    return OCommonConst.EMPTY_BUCKET_ENTRY_ARRAY;
+  }
+
+  private OHashIndexBucket.Entry<K, V>[] lastEntriesBefore(int partitionIndex) {
+    for (int i = partitionIndex - 1; i >= 0; i--) {
+      final OLocalHashTable<K, V> partition = partitions.get(i);
+
+      final OHashIndexBucket.Entry<K, V> lastEntry = partition.lastEntry();
+      if (lastEntry != null)
+        return partition.floorEntries(lastEntry.key);
+    }
+
+    return OCommonConst.EMPTY_BUCKET_ENTRY_ARRAY;
+  }
+
+  private OLocalHashTable<K, V> getPartition(K key) {
+    return partitions.get(getPartitionIndex(key));
+  }
+
+  private int getPartitionIndex(K key) {
+    if (key == null)
+      return 0;
+
+    final long hashCode = keyHashFunction.hashCode(keySerializer.preprocess(key, (Object[]) keyTypes));
+    return (int) ((hashCode & Long.MAX_VALUE) % partitions.size());
+  }
+
+  private OLocalHashTable<K, V> createPartition(int partitionIndex) {
+    return new OLocalHashTable<K, V>(partitionName(name, partitionIndex), metadataConfigurationFileExtension,
+        treeStateFileExtension, bucketFileExtension, nullBucketFileExtension, keyHashFunction, durableInNonTxMode, true, storage);
+  }
+
+  private void checkPartitions() {
+    if (partitions == null)
+      throw new OIndexException("Amount of partitions of hash table '" + name + "' is not set");
+  }
+
+  private static String partitionName(String name, int partitionIndex) {
+    return name + "_" + partitionIndex;
+  }
+}
@@ -30,6 +30,7 @@ import com.orientechnologies.orient.core.index.OIndexFullText;
 import com.orientechnologies.orient.core.index.OIndexInternal;
 import com.orientechnologies.orient.core.index.OIndexNotUnique;
 import com.orientechnologies.orient.core.index.OIndexUnique;
+import com.orientechnologies.orient.core.index.engine.OConcurrentHashTableIndexEngine;
 import com.orientechnologies.orient.core.index.engine.OHashTableIndexEngine;
 import com.orientechnologies.orient.core.index.engine.ORemoteIndexEngine;
 import com.orientechnologies.orient.core.metadata.schema.OClass;
@@ -50,7 +51,11 @@ import java.util.Set;
 public class OHashIndexFactory implements OIndexFactory {
 
   private static final Set<String> TYPES;
-  public static final String       HASH_INDEX_ALGORITHM = "HASH_INDEX";
+  public static final String       HASH_INDEX_ALGORITHM            = "HASH_INDEX";
+  /**
+   * Hash index partitions of which are modified independently and read without locks, see {@link OConcurrentHashTableIndexEngine}.
+   */
+  public static final String       CONCURRENT_HASH_INDEX_ALGORITHM = "CONCURRENT_HASH_INDEX";
   private static final Set<String> ALGORITHMS;
 
   static {
@@ -65,6 +70,7 @@ public class OHashIndexFactory implements OIndexFactory {
   static {
     final Set<String> algorithms = new HashSet<String>();
     algorithms.add(HASH_INDEX_ALGORITHM);
+    algorithms.add(CONCURRENT_HASH_INDEX_ALGORITHM);
 
     ALGORITHMS = Collections.unmodifiableSet(algorithms);
   }
@@ -125,10 +131,10 @@ public class OHashIndexFactory implements OIndexFactory {
 
     final String storageType = storage.getType();
     if (storageType.equals("memory") || storageType.equals("plocal"))
-      indexEngine = new OHashTableIndexEngine(name, durableInNonTxMode, (OAbstractPaginatedStorage) storage, version);
+      indexEngine = createLocalIndexEngine(algoritm, name, durableInNonTxMode, (OAbstractPaginatedStorage) storage, version);
     else if (storageType.equals("distributed"))
       // DISTRIBUTED CASE: HANDLE IT AS FOR LOCAL
-      indexEngine = new OHashTableIndexEngine(name, durableInNonTxMode, (OAbstractPaginatedStorage) storage.getUnderlying(),
+      indexEngine = createLocalIndexEngine(algoritm, name, durableInNonTxMode, (OAbstractPaginatedStorage) storage.getUnderlying(),
           version);
     else if (storageType.equals("remote"))
       indexEngine = new ORemoteIndexEngine(name);
@@ -137,4 +143,12 @@ public class OHashIndexFactory implements OIndexFactory {
 
     return indexEngine;
   }
+
+  private static OIndexEngine createLocalIndexEngine(final String algorithm, final String name, final Boolean durableInNonTxMode,
+      final OAbstractPaginatedStorage storage, final int version) {
+    if (CONCURRENT_HASH_INDEX_ALGORITHM.equals(algorithm))
+      return new OConcurrentHashTableIndexEngine(name, durableInNonTxMode, storage, version);
+
+    return new OHashTableIndexEngine(name, durableInNonTxMode, storage, version);
+  }
 }
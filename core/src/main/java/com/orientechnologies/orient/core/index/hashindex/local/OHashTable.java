@@ -26,7 +26,9 @@ import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.Map;
 
 /**
  * Created by lomak_000 on 15.04.2015.
@@ -45,6 +47,13 @@ public interface OHashTable<K, V> {
 
   V get(K key);
 
+  /**
+   * Looks up values of several keys under single acquisition of locks of hash table.
+   *
+   * @return Map of found keys to their values, passed in instances of keys are used as keys of the map.
+   */
+  Map<K, V> getAll(Collection<? extends K> keys);
+
   void put(K key, V value);
 
   /**
@@ -565,6 +565,38 @@ public class OHashTableDirectory extends ODurableComponent {
     }
   }
 
+  /**
+   * Reads local depth of node without acquisition of locks of component, only page latch is acquired. Result of this method may be
+   * inconsistent with the rest of directory if directory is changed concurrently, so it has to be validated by caller.
+   *
+   * @see OLocalHashTable#get(Object)
+   */
+  byte getNodeLocalDepthOptimistic(int nodeIndex) throws IOException {
+    final OAtomicOperation atomicOperation = atomicOperationsManager.getCurrentOperation();
+    final ODirectoryPage page = loadPage(nodeIndex, false, atomicOperation);
+    try {
+      return page.getNodeLocalDepth(getLocalNodeIndex(nodeIndex));
+    } finally {
+      releasePage(page, false, atomicOperation);
+    }
+  }
+
+  /**
+   * Reads pointer of node without acquisition of locks of component, only page latch is acquired. Result of this method may be
+   * inconsistent with the rest of directory if directory is changed concurrently, so it has to be validated by caller.
+   *
+   * @see OLocalHashTable#get(Object)
+   */
+  long getNodePointerOptimistic(int nodeIndex, int index) throws IOException {
+    final OAtomicOperation atomicOperation = atomicOperationsManager.getCurrentOperation();
+    final ODirectoryPage page = loadPage(nodeIndex, false, atomicOperation);
+    try {
+      return page.getPointer(getLocalNodeIndex(nodeIndex), index);
+    } finally {
+      releasePage(page, false, atomicOperation);
+    }
+  }
+
   public long getNodePointer(int nodeIndex, int index) throws IOException {
     startOperation();
     try {
@@ -14,6 +14,7 @@ import com.orientechnologies.orient.core.serialization.serializer.binary.OBinary
 import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperation;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperationListener;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODurableComponent;
 import com.orientechnologies.orient.core.storage.impl.local.statistic.OSessionStoragePerformanceStatistic;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -21,8 +22,12 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Implementation of hash index which is based on <a href="http://en.wikipedia.org/wiki/Extendible_hashing">extendible hashing
@@ -77,6 +82,11 @@ import java.util.List;
  * <li>Amount of buckets in given level - 8 bytes.</li>
  * <li>Index of page of first removed bucket (not splitted but removed) - 8 bytes</li>
  * </ol>
+ * <p>
+ * If hash table is created with optimistic reads enabled, lookups of keys do not acquire locks of component. Each atomic operation
+ * which modifies hash table makes counter of modifications odd when it is started and even when it is completed, so lookup which
+ * observes the same even value of counter before and after reading of pages is known to be consistent. Otherwise lookup is repeated
+ * under locks.
  *
  * @author Andrey Lomakin
  * @since 12.03.13
@@ -117,11 +127,42 @@ public class OLocalHashTable<K, V> extends ODurableComponent implements OHashTab
 
   private final boolean durableInNonTxMode;
 
+  private final boolean                  optimisticReads;
+  private final AtomicLong               modificationsCounter = new AtomicLong();
+  private final OAtomicOperationListener modificationsListener;
+
   public OLocalHashTable(String name, String metadataConfigurationFileExtension, String treeStateFileExtension,
       String bucketFileExtension, String nullBucketFileExtension, OHashFunction<K> keyHashFunction, boolean durableInNonTxMode,
       OAbstractPaginatedStorage abstractPaginatedStorage) {
+    this(name, metadataConfigurationFileExtension, treeStateFileExtension, bucketFileExtension, nullBucketFileExtension,
+        keyHashFunction, durableInNonTxMode, false, abstractPaginatedStorage);
+  }
+
+  /**
+   * @param optimisticReads If <code>true</code> lookups of keys do not acquire locks of hash table but are validated by counter of
+   *                        modifications and repeated under locks only if hash table was modified concurrently.
+   */
+  public OLocalHashTable(String name, String metadataConfigurationFileExtension, String treeStateFileExtension,
+      String bucketFileExtension, String nullBucketFileExtension, OHashFunction<K> keyHashFunction, boolean durableInNonTxMode,
+      boolean optimisticReads, OAbstractPaginatedStorage abstractPaginatedStorage) {
     super(abstractPaginatedStorage, name, bucketFileExtension, name + bucketFileExtension);
 
+    this.optimisticReads = optimisticReads;
+    if (optimisticReads)
+      this.modificationsListener = new OAtomicOperationListener() {
+        @Override
+        public void onCommit(OAtomicOperation operation) {
+          modificationsCounter.incrementAndGet();
+        }
+
+        @Override
+        public void onRollback(OAtomicOperation operation) {
+          modificationsCounter.incrementAndGet();
+        }
+      };
+    else
+      this.modificationsListener = null;
+
     this.metadataConfigurationFileExtension = metadataConfigurationFileExtension;
     this.treeStateFileExtension = treeStateFileExtension;
     this.keyHashFunction = keyHashFunction;
@@ -322,6 +363,30 @@ public class OLocalHashTable<K, V> extends ODurableComponent implements OHashTab
     if (statistic != null)
       statistic.startIndexEntryReadTimer();
     try {
+      if (optimisticReads) {
+        checkNullSupport(key);
+
+        final long modificationsStamp = modificationsCounter.get();
+        if ((modificationsStamp & 1) == 0) {
+          try {
+            final OAtomicOperation atomicOperation = atomicOperationsManager.getCurrentOperation();
+
+            final V value;
+            if (key == null)
+              value = readNullValue(atomicOperation);
+            else
+              value = readValue(keySerializer.preprocess(key, (Object[]) keyTypes), atomicOperation, true);
+
+            if (modificationsCounter.get() == modificationsStamp)
+              return value;
+          } catch (IOException e) {
+            // PAGES WERE CHANGED BY CONCURRENT ATOMIC OPERATION, REPEAT LOOKUP UNDER LOCKS
+          } catch (RuntimeException e) {
+            // PAGES WERE CHANGED BY CONCURRENT ATOMIC OPERATION, REPEAT LOOKUP UNDER LOCKS
+          }
+        }
+      }
+
       atomicOperationsManager.acquireReadLock(this);
       try {
         acquireSharedLock();
@@ -329,54 +394,84 @@ public class OLocalHashTable<K, V> extends ODurableComponent implements OHashTab
           final OAtomicOperation atomicOperation = atomicOperationsManager.getCurrentOperation();
 
           checkNullSupport(key);
-          if (key == null) {
-            if (getFilledUpTo(atomicOperation, nullBucketFileId) == 0)
-              return null;
-
-            V result = null;
-            OCacheEntry cacheEntry = loadPage(atomicOperation, nullBucketFileId, 0, false);
-            cacheEntry.acquireSharedLock();
-            try {
-              ONullBucket<V> nullBucket = new ONullBucket<V>(cacheEntry, getChanges(atomicOperation, cacheEntry), valueSerializer,
-                  false);
-              result = nullBucket.getValue();
-            } finally {
-              cacheEntry.releaseSharedLock();
-              releasePage(atomicOperation, cacheEntry);
-            }
+          if (key == null)
+            return readNullValue(atomicOperation);
 
-            return result;
-          } else {
-            key = keySerializer.preprocess(key, (Object[]) keyTypes);
+          return readValue(keySerializer.preprocess(key, (Object[]) keyTypes), atomicOperation, false);
+        } finally {
+          releaseSharedLock();
+        }
+      } catch (IOException e) {
+        throw OException.wrapException(new OIndexException("Exception during index value retrieval"), e);
+      } finally {
+        atomicOperationsManager.releaseReadLock(this);
+      }
+    } finally {
+      if (statistic != null)
+        statistic.stopIndexEntryReadTimer();
+      completeOperation();
+    }
+  }
 
-            final long hashCode = keyHashFunction.hashCode(key);
+  @Override
+  public Map<K, V> getAll(Collection<? extends K> keys) {
+    final OSessionStoragePerformanceStatistic statistic = performanceStatisticManager.getSessionPerformanceStatistic();
+    startOperation();
+    if (statistic != null)
+      statistic.startIndexEntryReadTimer();
+    try {
+      if (optimisticReads) {
+        for (K key : keys)
+          checkNullSupport(key);
 
-            OHashTable.BucketPath bucketPath = getBucket(hashCode);
-            final long bucketPointer = directory
-                .getNodePointer(bucketPath.nodeIndex, bucketPath.itemIndex + bucketPath.hashMapOffset);
+        final long modificationsStamp = modificationsCounter.get();
+        if ((modificationsStamp & 1) == 0) {
+          try {
+            final OAtomicOperation atomicOperation = atomicOperationsManager.getCurrentOperation();
+            final Map<K, V> result = new HashMap<K, V>();
+
+            for (K key : keys) {
+              final V value;
+              if (key == null)
+                value = readNullValue(atomicOperation);
+              else
+                value = readValue(keySerializer.preprocess(key, (Object[]) keyTypes), atomicOperation, true);
+
+              if (value != null)
+                result.put(key, value);
+            }
 
-            if (bucketPointer == 0)
-              return null;
+            if (modificationsCounter.get() == modificationsStamp)
+              return result;
+          } catch (IOException e) {
+            // PAGES WERE CHANGED BY CONCURRENT ATOMIC OPERATION, REPEAT LOOKUP UNDER LOCKS
+          } catch (RuntimeException e) {
+            // PAGES WERE CHANGED BY CONCURRENT ATOMIC OPERATION, REPEAT LOOKUP UNDER LOCKS
+          }
+        }
+      }
 
-            final long pageIndex = getPageIndex(bucketPointer);
+      atomicOperationsManager.acquireReadLock(this);
+      try {
+        acquireSharedLock();
+        try {
+          final OAtomicOperation atomicOperation = atomicOperationsManager.getCurrentOperation();
+          final Map<K, V> result = new HashMap<K, V>();
 
-            OCacheEntry cacheEntry = loadPage(atomicOperation, fileId, pageIndex, false);
-            cacheEntry.acquireSharedLock();
-            try {
-              final OHashIndexBucket<K, V> bucket = new OHashIndexBucket<K, V>(cacheEntry, keySerializer, valueSerializer, keyTypes,
-                  getChanges(atomicOperation, cacheEntry));
+          for (K key : keys) {
+            checkNullSupport(key);
 
-              OHashIndexBucket.Entry<K, V> entry = bucket.find(key, hashCode);
-              if (entry == null)
-                return null;
+            final V value;
+            if (key == null)
+              value = readNullValue(atomicOperation);
+            else
+              value = readValue(keySerializer.preprocess(key, (Object[]) keyTypes), atomicOperation, false);
 
-              return entry.value;
-            } finally {
-              cacheEntry.releaseSharedLock();
-              releasePage(atomicOperation, cacheEntry);
-            }
+            if (value != null)
+              result.put(key, value);
           }
 
+          return result;
         } finally {
           releaseSharedLock();
         }
@@ -392,6 +487,55 @@ public class OLocalHashTable<K, V> extends ODurableComponent implements OHashTab
     }
   }
 
+  private V readNullValue(OAtomicOperation atomicOperation) throws IOException {
+    if (getFilledUpTo(atomicOperation, nullBucketFileId) == 0)
+      return null;
+
+    OCacheEntry cacheEntry = loadPage(atomicOperation, nullBucketFileId, 0, false);
+    cacheEntry.acquireSharedLock();
+    try {
+      ONullBucket<V> nullBucket = new ONullBucket<V>(cacheEntry, getChanges(atomicOperation, cacheEntry), valueSerializer, false);
+      return nullBucket.getValue();
+    } finally {
+      cacheEntry.releaseSharedLock();
+      releasePage(atomicOperation, cacheEntry);
+    }
+  }
+
+  private V readValue(K key, OAtomicOperation atomicOperation, boolean optimistic) throws IOException {
+    final long hashCode = keyHashFunction.hashCode(key);
+
+    final OHashTable.BucketPath bucketPath = getBucket(hashCode, optimistic);
+    final long bucketPointer;
+    if (optimistic)
+      bucketPointer = directory.getNodePointerOptimistic(bucketPath.nodeIndex, bucketPath.itemIndex + bucketPath.hashMapOffset);
+    else
+      bucketPointer = directory.getNodePointer(bucketPath.nodeIndex, bucketPath.itemIndex + bucketPath.hashMapOffset);
+
+    if (bucketPointer == 0)
+      return null;
+
+    final long pageIndex = getPageIndex(bucketPointer);
+    if (optimistic && pageIndex >= getFilledUpTo(atomicOperation, fileId))
+      throw new OLocalHashTableException("Bucket " + pageIndex + " is not committed yet", this);
+
+    OCacheEntry cacheEntry = loadPage(atomicOperation, fileId, pageIndex, false);
+    cacheEntry.acquireSharedLock();
+    try {
+      final OHashIndexBucket<K, V> bucket = new OHashIndexBucket<K, V>(cacheEntry, keySerializer, valueSerializer, keyTypes,
+          getChanges(atomicOperation, cacheEntry));
+
+      OHashIndexBucket.Entry<K, V> entry = bucket.find(key, hashCode);
+      if (entry == null)
+        return null;
+
+      return entry.value;
+    } finally {
+      cacheEntry.releaseSharedLock();
+      releasePage(atomicOperation, cacheEntry);
+    }
+  }
+
   @Override
   public boolean isNullKeyIsSupported() {
     acquireSharedLock();
@@ -2038,7 +2182,14 @@ public class OLocalHashTable<K, V> extends ODurableComponent implements OHashTab
   }
 
   private OHashTable.BucketPath getBucket(final long hashCode) throws IOException {
-    int localNodeDepth = directory.getNodeLocalDepth(0);
+    return getBucket(hashCode, false);
+  }
+
+  /**
+   * @param optimistic If <code>true</code> directory is read without acquisition of locks, see {@link #get(Object)}.
+   */
+  private OHashTable.BucketPath getBucket(final long hashCode, final boolean optimistic) throws IOException {
+    int localNodeDepth = optimistic ? directory.getNodeLocalDepthOptimistic(0) : directory.getNodeLocalDepth(0);
     int nodeDepth = localNodeDepth;
     OHashTable.BucketPath parentNode = null;
     int nodeIndex = 0;
@@ -2047,14 +2198,16 @@ public class OLocalHashTable<K, V> extends ODurableComponent implements OHashTab
     int index = (int) ((hashCode >>> (HASH_CODE_SIZE - nodeDepth)) & (LEVEL_MASK >>> (MAX_LEVEL_DEPTH - localNodeDepth)));
     OHashTable.BucketPath currentNode = new OHashTable.BucketPath(null, 0, index, 0, localNodeDepth, nodeDepth);
     do {
-      final long position = directory.getNodePointer(nodeIndex, index + offset);
+      final long position = optimistic ?
+          directory.getNodePointerOptimistic(nodeIndex, index + offset) :
+          directory.getNodePointer(nodeIndex, index + offset);
       if (position >= 0)
         return currentNode;
 
       nodeIndex = (int) ((position & Long.MAX_VALUE) >>> 8);
       offset = (int) (position & 0xFF);
 
-      localNodeDepth = directory.getNodeLocalDepth(nodeIndex);
+      localNodeDepth = optimistic ? directory.getNodeLocalDepthOptimistic(nodeIndex) : directory.getNodeLocalDepth(nodeIndex);
       nodeDepth += localNodeDepth;
 
       index = (int) ((hashCode >>> (HASH_CODE_SIZE - nodeDepth)) & (LEVEL_MASK >>> (MAX_LEVEL_DEPTH - localNodeDepth)));
@@ -2066,6 +2219,22 @@ public class OLocalHashTable<K, V> extends ODurableComponent implements OHashTab
     throw new IllegalStateException("Extendible hashing tree in corrupted state.");
   }
 
+  /**
+   * Marks hash table as modified till the end of atomic operation if optimistic reads are enabled, see {@link #get(Object)}.
+   */
+  @Override
+  protected OAtomicOperation startAtomicOperation(boolean trackNonTxOperations) throws IOException {
+    final OAtomicOperation atomicOperation = super.startAtomicOperation(trackNonTxOperations);
+
+    if (optimisticReads && atomicOperation.getListener(this) == null) {
+      // LISTENER MAKES COUNTER EVEN AGAIN ONCE CHANGES OF ATOMIC OPERATION ARE APPLIED OR DISCARDED
+      modificationsCounter.incrementAndGet();
+      atomicOperation.addListener(this, modificationsListener);
+    }
+
+    return atomicOperation;
+  }
+
   @Override
   protected void startOperation() {
     OSessionStoragePerformanceStatistic sessionStoragePerformanceStatistic = performanceStatisticManager
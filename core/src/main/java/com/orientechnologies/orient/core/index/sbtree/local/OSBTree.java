@@ -24,6 +24,7 @@ import com.orientechnologies.common.comparator.ODefaultComparator;
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.serialization.types.OStringSerializer;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.exception.OTooBigIndexKeyException;
 import com.orientechnologies.orient.core.index.OAlwaysGreaterKey;
@@ -92,6 +93,13 @@ public class OSBTree<K, V> extends ODurableComponent {
   private OType[]              keyTypes;
   private OBinarySerializer<V> valueSerializer;
   private boolean              nullPointerSupport;
+  private boolean              prefixCompression;
+
+  /**
+   * Whether non-leaf buckets store amount of keys in subtrees of their children, it is <code>true</code> for all trees created or
+   * cleared since subtree sizes are supported.
+   */
+  private boolean subtreeSizes;
 
   public OSBTree(String name, String dataFileExtension, boolean durableInNonTxMode, String nullFileExtension,
       OAbstractPaginatedStorage storage) {
@@ -107,7 +115,21 @@ public class OSBTree<K, V> extends ODurableComponent {
 
   public void create(OBinarySerializer<K> keySerializer, OBinarySerializer<V> valueSerializer, OType[] keyTypes, int keySize,
       boolean nullPointerSupport) {
+    create(keySerializer, valueSerializer, keyTypes, keySize, nullPointerSupport, false);
+  }
+
+  /**
+   * Creates tree.
+   *
+   * @param prefixCompression If <code>true</code> buckets store common prefix of their keys only once and leaf buckets are split by
+   *                          the shortest key which separates them, applicable only to trees with {@link String} keys.
+   */
+  public void create(OBinarySerializer<K> keySerializer, OBinarySerializer<V> valueSerializer, OType[] keyTypes, int keySize,
+      boolean nullPointerSupport, boolean prefixCompression) {
     assert keySerializer != null;
+    if (prefixCompression && !(keySerializer instanceof OStringSerializer))
+      throw new OSBTreeException("Prefix compression of keys is supported only for string keys", this);
+
     startOperation();
     try {
       final OAtomicOperation atomicOperation;
@@ -130,6 +152,8 @@ public class OSBTree<K, V> extends ODurableComponent {
 
         this.valueSerializer = valueSerializer;
         this.nullPointerSupport = nullPointerSupport;
+        this.prefixCompression = prefixCompression;
+        this.subtreeSizes = true;
 
         fileId = addFile(atomicOperation, getFullName());
 
@@ -141,7 +165,7 @@ public class OSBTree<K, V> extends ODurableComponent {
         try {
 
           OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, true, keySerializer, keyTypes, valueSerializer,
-              getChanges(atomicOperation, rootCacheEntry));
+              getChanges(atomicOperation, rootCacheEntry), prefixCompression, subtreeSizes);
           rootBucket.setTreeSize(0);
 
         } finally {
@@ -172,6 +196,27 @@ public class OSBTree<K, V> extends ODurableComponent {
     }
   }
 
+  public OBinarySerializer<K> getKeySerializer() {
+    acquireSharedLock();
+    try {
+      return keySerializer;
+    } finally {
+      releaseSharedLock();
+    }
+  }
+
+  public OType[] getKeyTypes() {
+    acquireSharedLock();
+    try {
+      if (keyTypes == null)
+        return null;
+
+      return Arrays.copyOf(keyTypes, keyTypes.length);
+    } finally {
+      releaseSharedLock();
+    }
+  }
+
   public boolean isNullPointerSupport() {
     acquireSharedLock();
     try {
@@ -214,25 +259,116 @@ public class OSBTree<K, V> extends ODurableComponent {
               keyBucketCacheEntry.releaseSharedLock();
               releasePage(atomicOperation, keyBucketCacheEntry);
             }
-          } else {
-            if (getFilledUpTo(atomicOperation, nullBucketFileId) == 0)
-              return null;
+          } else
+            return readNullValue(atomicOperation);
+        } finally {
+          releaseSharedLock();
+        }
+      } catch (IOException e) {
+        throw OException.wrapException(new OSBTreeException("Error during retrieving  of sbtree with name " + getName(), this), e);
+      } finally {
+        atomicOperationsManager.releaseReadLock(this);
+      }
+    } finally {
+      if (statistic != null)
+        statistic.startIndexEntryReadTimer();
+      completeOperation();
+    }
+  }
 
-            final OCacheEntry nullBucketCacheEntry = loadPage(atomicOperation, nullBucketFileId, 0, false);
-            nullBucketCacheEntry.acquireSharedLock();
-            try {
-              final ONullBucket<V> nullBucket = new ONullBucket<V>(nullBucketCacheEntry,
-                  getChanges(atomicOperation, nullBucketCacheEntry), valueSerializer, false);
-              final OSBTreeValue<V> treeValue = nullBucket.getValue();
-              if (treeValue == null)
-                return null;
+  /**
+   * Looks up values of several keys during single pass over leaf buckets of the tree. Keys are sorted before the search, so each
+   * key which is placed in the same bucket as the previous key or in its right sibling is found without descent from the root.
+   *
+   * @param keys Keys to look up, may contain <code>null</code> if tree supports <code>null</code> keys.
+   *
+   * @return Map of found keys to their values, passed in instances of keys are used as keys of the map.
+   */
+  public Map<K, V> getAll(Collection<? extends K> keys) {
+    final OSessionStoragePerformanceStatistic statistic = performanceStatisticManager.getSessionPerformanceStatistic();
+    startOperation();
+    if (statistic != null)
+      statistic.startIndexEntryReadTimer();
+    try {
+      atomicOperationsManager.acquireReadLock(this);
+      try {
+        acquireSharedLock();
+        try {
+          final OAtomicOperation atomicOperation = atomicOperationsManager.getCurrentOperation();
+          final Map<K, V> result = new HashMap<K, V>();
+
+          final List<LookupKey<K>> lookupKeys = new ArrayList<LookupKey<K>>(keys.size());
+          for (K key : keys) {
+            checkNullSupport(key);
+
+            if (key != null)
+              lookupKeys.add(new LookupKey<K>(keySerializer.preprocess(key, (Object[]) keyTypes), key));
+            else if (!result.containsKey(null)) {
+              final V value = readNullValue(atomicOperation);
+              if (value != null)
+                result.put(null, value);
+            }
+          }
 
-              return readValue(treeValue, atomicOperation);
-            } finally {
-              nullBucketCacheEntry.releaseSharedLock();
-              releasePage(atomicOperation, nullBucketCacheEntry);
+          Collections.sort(lookupKeys, new Comparator<LookupKey<K>>() {
+            @Override
+            public int compare(LookupKey<K> lookupKeyOne, LookupKey<K> lookupKeyTwo) {
+              return comparator.compare(lookupKeyOne.key, lookupKeyTwo.key);
+            }
+          });
+
+          OCacheEntry leafCacheEntry = null;
+          OSBTreeBucket<K, V> leafBucket = null;
+          try {
+            for (LookupKey<K> lookupKey : lookupKeys) {
+              final K key = lookupKey.key;
+
+              if (leafBucket != null && (leafBucket.isEmpty()
+                  || comparator.compare(key, leafBucket.getKey(leafBucket.size() - 1)) > 0)) {
+                // KEY IS OUT OF CURRENT BUCKET, TRY RIGHT SIBLING BEFORE DESCENT FROM THE ROOT
+                final long rightSibling = leafBucket.getRightSibling();
+
+                leafCacheEntry.releaseSharedLock();
+                releasePage(atomicOperation, leafCacheEntry);
+                leafCacheEntry = null;
+                leafBucket = null;
+
+                if (rightSibling >= 0) {
+                  leafCacheEntry = loadPage(atomicOperation, fileId, rightSibling, false);
+                  leafCacheEntry.acquireSharedLock();
+                  leafBucket = new OSBTreeBucket<K, V>(leafCacheEntry, keySerializer, keyTypes, valueSerializer,
+                      getChanges(atomicOperation, leafCacheEntry));
+
+                  if (leafBucket.isEmpty() || comparator.compare(key, leafBucket.getKey(leafBucket.size() - 1)) > 0) {
+                    leafCacheEntry.releaseSharedLock();
+                    releasePage(atomicOperation, leafCacheEntry);
+                    leafCacheEntry = null;
+                    leafBucket = null;
+                  }
+                }
+              }
+
+              if (leafBucket == null) {
+                final BucketSearchResult bucketSearchResult = findBucket(key, atomicOperation);
+
+                leafCacheEntry = loadPage(atomicOperation, fileId, bucketSearchResult.getLastPathItem(), false);
+                leafCacheEntry.acquireSharedLock();
+                leafBucket = new OSBTreeBucket<K, V>(leafCacheEntry, keySerializer, keyTypes, valueSerializer,
+                    getChanges(atomicOperation, leafCacheEntry));
+              }
+
+              final int index = leafBucket.find(key, OSBTreeBucket.serializeKeyForComparison(keySerializer, keyTypes, key));
+              if (index >= 0)
+                result.put(lookupKey.originalKey, readValue(leafBucket.getValue(index), atomicOperation));
+            }
+          } finally {
+            if (leafCacheEntry != null) {
+              leafCacheEntry.releaseSharedLock();
+              releasePage(atomicOperation, leafCacheEntry);
             }
           }
+
+          return result;
         } finally {
           releaseSharedLock();
         }
@@ -243,11 +379,31 @@ public class OSBTree<K, V> extends ODurableComponent {
       }
     } finally {
       if (statistic != null)
-        statistic.startIndexEntryReadTimer();
+        statistic.stopIndexEntryReadTimer();
       completeOperation();
     }
   }
 
+  private V readNullValue(OAtomicOperation atomicOperation) throws IOException {
+    if (getFilledUpTo(atomicOperation, nullBucketFileId) == 0)
+      return null;
+
+    final OCacheEntry nullBucketCacheEntry = loadPage(atomicOperation, nullBucketFileId, 0, false);
+    nullBucketCacheEntry.acquireSharedLock();
+    try {
+      final ONullBucket<V> nullBucket = new ONullBucket<V>(nullBucketCacheEntry, getChanges(atomicOperation, nullBucketCacheEntry),
+          valueSerializer, false);
+      final OSBTreeValue<V> treeValue = nullBucket.getValue();
+      if (treeValue == null)
+        return null;
+
+      return readValue(treeValue, atomicOperation);
+    } finally {
+      nullBucketCacheEntry.releaseSharedLock();
+      releasePage(atomicOperation, nullBucketCacheEntry);
+    }
+  }
+
   public void put(K key, V value) {
     put(key, value, null);
   }
@@ -308,6 +464,8 @@ public class OSBTree<K, V> extends ODurableComponent {
         if (nullPointerSupport)
           truncateFile(atomicOperation, nullBucketFileId);
 
+        subtreeSizes = true;
+
         OCacheEntry cacheEntry = loadPage(atomicOperation, fileId, ROOT_INDEX, false);
         if (cacheEntry == null) {
           cacheEntry = addPage(atomicOperation, fileId);
@@ -316,7 +474,7 @@ public class OSBTree<K, V> extends ODurableComponent {
         cacheEntry.acquireExclusiveLock();
         try {
           OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(cacheEntry, true, keySerializer, keyTypes, valueSerializer,
-              getChanges(atomicOperation, cacheEntry));
+              getChanges(atomicOperation, cacheEntry), prefixCompression, subtreeSizes);
 
           rootBucket.setTreeSize(0);
 
@@ -412,6 +570,14 @@ public class OSBTree<K, V> extends ODurableComponent {
 
   public void load(String name, OBinarySerializer<K> keySerializer, OBinarySerializer<V> valueSerializer, OType[] keyTypes,
       int keySize, boolean nullPointerSupport) {
+    load(name, keySerializer, valueSerializer, keyTypes, keySize, nullPointerSupport, false);
+  }
+
+  /**
+   * Loads tree, <code>prefixCompression</code> flag should be the same as the one passed during creation of tree.
+   */
+  public void load(String name, OBinarySerializer<K> keySerializer, OBinarySerializer<V> valueSerializer, OType[] keyTypes,
+      int keySize, boolean nullPointerSupport, boolean prefixCompression) {
     startOperation();
     try {
       acquireExclusiveLock();
@@ -423,6 +589,7 @@ public class OSBTree<K, V> extends ODurableComponent {
           this.keyTypes = null;
 
         this.nullPointerSupport = nullPointerSupport;
+        this.prefixCompression = prefixCompression;
 
         final OAtomicOperation atomicOperation = atomicOperationsManager.getCurrentOperation();
 
@@ -432,6 +599,17 @@ public class OSBTree<K, V> extends ODurableComponent {
 
         this.keySerializer = keySerializer;
         this.valueSerializer = valueSerializer;
+
+        final OCacheEntry rootCacheEntry = loadPage(atomicOperation, fileId, ROOT_INDEX, false);
+        rootCacheEntry.acquireSharedLock();
+        try {
+          final OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer,
+              getChanges(atomicOperation, rootCacheEntry));
+          subtreeSizes = rootBucket.hasSubtreeSizes();
+        } finally {
+          rootCacheEntry.releaseSharedLock();
+          releasePage(atomicOperation, rootCacheEntry);
+        }
       } catch (IOException e) {
         throw OException.wrapException(new OSBTreeException("Exception during loading of sbtree " + name, this), e);
       } finally {
@@ -474,6 +652,414 @@ public class OSBTree<K, V> extends ODurableComponent {
     }
   }
 
+  /**
+   * @return <code>true</code> if non-leaf buckets store amount of keys in subtrees of their children, so {@link #size(Object,
+   * boolean, Object, boolean)} does not iterate over keys. Trees created before subtree sizes were supported do not store them
+   * till they are cleared or rebuilt.
+   */
+  public boolean hasSubtreeSizes() {
+    acquireSharedLock();
+    try {
+      return subtreeSizes;
+    } finally {
+      releaseSharedLock();
+    }
+  }
+
+  /**
+   * Calculates amount of keys between given keys, <code>null</code> boundary means that range is not limited from the
+   * corresponding side, <code>null</code> key is never counted. If tree stores subtree sizes the amount is calculated by single
+   * descent from root to leaf bucket for each boundary, otherwise keys are iterated.
+   */
+  public long size(K keyFrom, boolean fromInclusive, K keyTo, boolean toInclusive) {
+    if (!hasSubtreeSizes())
+      return countEntries(keyFrom, fromInclusive, keyTo, toInclusive);
+
+    startOperation();
+    try {
+      atomicOperationsManager.acquireReadLock(this);
+      try {
+        acquireSharedLock();
+        try {
+          final OAtomicOperation atomicOperation = atomicOperationsManager.getCurrentOperation();
+
+          long from = 0;
+          if (keyFrom != null) {
+            keyFrom = keySerializer.preprocess(keyFrom, (Object[]) keyTypes);
+            from = rank(enhanceFromCompositeKeyBetweenAsc(keyFrom, fromInclusive), !fromInclusive, atomicOperation);
+          }
+
+          if (keyTo != null)
+            keyTo = enhanceToCompositeKeyBetweenAsc(keySerializer.preprocess(keyTo, (Object[]) keyTypes), toInclusive);
+          final long to = rank(keyTo, toInclusive, atomicOperation);
+
+          return Math.max(to - from, 0);
+        } finally {
+          releaseSharedLock();
+        }
+      } catch (IOException e) {
+        throw OException.wrapException(
+            new OSBTreeException("Error during calculation of amount of keys between key " + keyFrom + " and key " + keyTo
+                + " in sbtree " + getName(), this), e);
+      } finally {
+        atomicOperationsManager.releaseReadLock(this);
+      }
+    } finally {
+      completeOperation();
+    }
+  }
+
+  private long countEntries(K keyFrom, boolean fromInclusive, K keyTo, boolean toInclusive) {
+    final OSBTreeCursor<K, V> cursor;
+    if (keyFrom != null && keyTo != null)
+      cursor = iterateEntriesBetween(keyFrom, fromInclusive, keyTo, toInclusive, true);
+    else if (keyFrom != null)
+      cursor = iterateEntriesMajor(keyFrom, fromInclusive, true);
+    else if (keyTo != null)
+      cursor = iterateEntriesMinor(keyTo, toInclusive, true);
+    else {
+      final K firstKey = firstKey();
+      if (firstKey == null)
+        return 0;
+
+      cursor = iterateEntriesMajor(firstKey, true, true);
+    }
+
+    long count = 0;
+    while (cursor.next(-1) != null)
+      count++;
+
+    return count;
+  }
+
+  /**
+   * @return Amount of levels of tree, tree which consists of single leaf bucket has height 1.
+   */
+  public int getHeight() {
+    startOperation();
+    try {
+      atomicOperationsManager.acquireReadLock(this);
+      try {
+        acquireSharedLock();
+        try {
+          OAtomicOperation atomicOperation = atomicOperationsManager.getCurrentOperation();
+
+          long pageIndex = ROOT_INDEX;
+          int height = 0;
+
+          while (true) {
+            height++;
+
+            final OCacheEntry cacheEntry = loadPage(atomicOperation, fileId, pageIndex, false);
+            cacheEntry.acquireSharedLock();
+            try {
+              final OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer,
+                  getChanges(atomicOperation, cacheEntry));
+              if (bucket.isLeaf() || bucket.isEmpty())
+                return height;
+
+              pageIndex = bucket.getEntry(0).leftChild;
+            } finally {
+              cacheEntry.releaseSharedLock();
+              releasePage(atomicOperation, cacheEntry);
+            }
+          }
+        } finally {
+          releaseSharedLock();
+        }
+      } catch (IOException e) {
+        throw OException.wrapException(new OSBTreeException("Error during calculation of height of index " + getName(), this), e);
+      } finally {
+        atomicOperationsManager.releaseReadLock(this);
+      }
+    } finally {
+      completeOperation();
+    }
+  }
+
+  /**
+   * Fills empty tree by entries sorted by key. Leaf buckets are filled one by one from the lowest to the highest key and then
+   * non-leaf buckets are built level by level from the bottom, so no key is searched inside of tree. Bucket of the highest level is
+   * stored in root page, because the amount of levels is not known in advance the first bucket of each level is written into root
+   * page and is moved into separate page once the next bucket of the same level is started.
+   * <p>
+   * Changes of pages are not logged into WAL, only record about non-transactional operation is logged, so indexes are rebuilt if
+   * storage is not closed properly before tree content is flushed to the disk at the end of this method.
+   *
+   * @param sortedEntries Entries sorted by keys in ascending order, keys should be unique, not <code>null</code> and preprocessed by
+   *                      key serializer.
+   * @param fillFactor    Percent of space of bucket which is filled by entries, the rest is left for further insertions.
+   */
+  public void bulkLoad(Iterator<Map.Entry<K, V>> sortedEntries, int fillFactor) {
+    if (fillFactor <= 0 || fillFactor > 100)
+      throw new IllegalArgumentException("Fill factor should be in range (0, 100] but it is " + fillFactor);
+
+    startOperation();
+    try {
+      acquireExclusiveLock();
+      try {
+        if (atomicOperationsManager.getCurrentOperation() != null)
+          throw new OSBTreeException("Bulk load of sbtree can not be performed inside of atomic operation", this);
+
+        startAtomicOperation(true);
+        endAtomicOperation(false, null);
+
+        OCacheEntry rootCacheEntry = loadPage(null, fileId, ROOT_INDEX, false);
+        rootCacheEntry.acquireSharedLock();
+        try {
+          final OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer,
+              null);
+          if (rootBucket.getTreeSize() > 0 || !rootBucket.isEmpty())
+            throw new OSBTreeException("Bulk load is possible only into empty sbtree", this);
+        } finally {
+          rootCacheEntry.releaseSharedLock();
+          releasePage(null, rootCacheEntry);
+        }
+
+        List<OSBTreeBucket.SBTreeEntry<K, V>> level = new ArrayList<OSBTreeBucket.SBTreeEntry<K, V>>();
+        final long treeSize = bulkLoadLeaves(sortedEntries, fillFactor, level);
+
+        while (level.size() > 1)
+          level = bulkLoadNonLeafLevel(level, fillFactor);
+
+        rootCacheEntry = loadPage(null, fileId, ROOT_INDEX, false);
+        rootCacheEntry.acquireExclusiveLock();
+        try {
+          final OSBTreeBucket<K, V> rootBucket = new OSBTreeBucket<K, V>(rootCacheEntry, keySerializer, keyTypes, valueSerializer,
+              null);
+          rootBucket.setTreeSize(treeSize);
+        } finally {
+          rootCacheEntry.releaseExclusiveLock();
+          releasePage(null, rootCacheEntry);
+        }
+
+        writeCache.flush(fileId);
+      } catch (IOException e) {
+        throw OException.wrapException(new OSBTreeException("Error during bulk load of sbtree " + getName(), this), e);
+      } finally {
+        releaseExclusiveLock();
+      }
+    } finally {
+      completeOperation();
+    }
+  }
+
+  /**
+   * Writes leaf buckets of tree during bulk load.
+   *
+   * @param buckets List which is filled by descriptions of written buckets, page index of bucket is stored as left child, amount
+   *                of keys of bucket as left size and the lowest key of bucket as key of entry.
+   *
+   * @return Amount of written entries.
+   */
+  private long bulkLoadLeaves(Iterator<Map.Entry<K, V>> sortedEntries, int fillFactor, List<OSBTreeBucket.SBTreeEntry<K, V>> buckets)
+      throws IOException {
+    long treeSize = 0;
+    K lastKey = null;
+
+    OCacheEntry cacheEntry = loadPage(null, fileId, ROOT_INDEX, false);
+    cacheEntry.acquireExclusiveLock();
+    try {
+      OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, true, keySerializer, keyTypes, valueSerializer, null,
+          prefixCompression, subtreeSizes);
+      buckets.add(new OSBTreeBucket.SBTreeEntry<K, V>(ROOT_INDEX, -1, null, null));
+      boolean compacted = false;
+
+      while (sortedEntries.hasNext()) {
+        final Map.Entry<K, V> entry = sortedEntries.next();
+        final K key = entry.getKey();
+
+        if (lastKey != null && comparator.compare(lastKey, key) >= 0)
+          throw new OSBTreeException("Keys of bulk loaded entries should be unique and sorted in ascending order", this);
+
+        final int keySize = keySerializer.getObjectSize(key, (Object[]) keyTypes);
+        if (keySize > MAX_KEY_SIZE) {
+          OLogManager.instance()
+              .error(this, "Key %s is skipped during bulk load of index %s because its size %d is more than allowed %d", null, key,
+                  getName(), keySize, MAX_KEY_SIZE);
+          continue;
+        }
+
+        final V value = entry.getValue();
+        final boolean createLinkToTheValue = valueSerializer.getObjectSize(value) > MAX_EMBEDDED_VALUE_SIZE;
+        final long valueLink = createLinkToTheValue ? createLinkToTheValue(value, null) : -1;
+
+        final OSBTreeBucket.SBTreeEntry<K, V> treeEntry = new OSBTreeBucket.SBTreeEntry<K, V>(-1, -1, key,
+            new OSBTreeValue<V>(createLinkToTheValue, valueLink, createLinkToTheValue ? null : value));
+
+        boolean added = addBulkLoadedEntry(bucket, treeEntry, fillFactor);
+        if (!added && prefixCompression && !compacted) {
+          bucket.shrink(bucket.size());
+          compacted = true;
+
+          added = addBulkLoadedEntry(bucket, treeEntry, fillFactor);
+        }
+
+        if (!added) {
+          final OCacheEntry nextCacheEntry = addPage(null, fileId);
+          nextCacheEntry.acquireExclusiveLock();
+
+          final long pageIndex;
+          if (cacheEntry.getPageIndex() == ROOT_INDEX) {
+            pageIndex = moveBulkLoadedRoot(bucket, nextCacheEntry.getPageIndex());
+            buckets.set(0, new OSBTreeBucket.SBTreeEntry<K, V>(pageIndex, -1, null, null));
+          } else {
+            pageIndex = cacheEntry.getPageIndex();
+            bucket.setRightSibling(nextCacheEntry.getPageIndex());
+          }
+          setLastBucketSize(buckets, bucket.size());
+
+          cacheEntry.releaseExclusiveLock();
+          releasePage(null, cacheEntry);
+
+          cacheEntry = nextCacheEntry;
+          bucket = new OSBTreeBucket<K, V>(cacheEntry, true, keySerializer, keyTypes, valueSerializer, null, prefixCompression,
+              subtreeSizes);
+          bucket.setLeftSibling(pageIndex);
+          compacted = false;
+
+          buckets.add(new OSBTreeBucket.SBTreeEntry<K, V>(cacheEntry.getPageIndex(), -1, key, null));
+
+          added = bucket.addEntry(0, treeEntry, false);
+          assert added;
+        }
+
+        lastKey = key;
+        treeSize++;
+      }
+
+      setLastBucketSize(buckets, bucket.size());
+    } finally {
+      cacheEntry.releaseExclusiveLock();
+      releasePage(null, cacheEntry);
+    }
+
+    return treeSize;
+  }
+
+  /**
+   * Writes level of non-leaf buckets of tree during bulk load.
+   *
+   * @param children Descriptions of buckets of previous level.
+   *
+   * @return Descriptions of buckets of written level.
+   */
+  private List<OSBTreeBucket.SBTreeEntry<K, V>> bulkLoadNonLeafLevel(List<OSBTreeBucket.SBTreeEntry<K, V>> children, int fillFactor)
+      throws IOException {
+    final List<OSBTreeBucket.SBTreeEntry<K, V>> buckets = new ArrayList<OSBTreeBucket.SBTreeEntry<K, V>>();
+
+    OCacheEntry cacheEntry = loadPage(null, fileId, ROOT_INDEX, false);
+    cacheEntry.acquireExclusiveLock();
+    try {
+      OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, false, keySerializer, keyTypes, valueSerializer, null,
+          prefixCompression, subtreeSizes);
+      buckets.add(new OSBTreeBucket.SBTreeEntry<K, V>(ROOT_INDEX, -1, null, null));
+      boolean compacted = false;
+
+      for (int i = 1; i < children.size(); i++) {
+        final OSBTreeBucket.SBTreeEntry<K, V> treeEntry = new OSBTreeBucket.SBTreeEntry<K, V>(children.get(i - 1).leftChild,
+            children.get(i).leftChild, children.get(i - 1).leftSize, children.get(i).leftSize, children.get(i).key, null);
+
+        // non-leaf bucket can not contain single child, so the last child is not put into separate bucket if it is possible
+        final boolean lastChild = i == children.size() - 1;
+
+        boolean added = addBulkLoadedEntry(bucket, treeEntry, lastChild ? 100 : fillFactor);
+        if (!added && prefixCompression && !compacted) {
+          bucket.shrink(bucket.size());
+          compacted = true;
+
+          added = addBulkLoadedEntry(bucket, treeEntry, lastChild ? 100 : fillFactor);
+        }
+
+        if (added)
+          continue;
+
+        int firstChild = i;
+        if (lastChild) {
+          // the last entry of current bucket is moved to the next bucket which contains the last child
+          firstChild = i - 1;
+          bucket.shrink(bucket.size() - 1);
+        }
+
+        final OCacheEntry nextCacheEntry = addPage(null, fileId);
+        nextCacheEntry.acquireExclusiveLock();
+
+        if (cacheEntry.getPageIndex() == ROOT_INDEX)
+          buckets.set(0, new OSBTreeBucket.SBTreeEntry<K, V>(moveBulkLoadedRoot(bucket, -1), -1, null, null));
+        setLastBucketSize(buckets, getSubtreeSize(bucket));
+
+        cacheEntry.releaseExclusiveLock();
+        releasePage(null, cacheEntry);
+
+        cacheEntry = nextCacheEntry;
+        bucket = new OSBTreeBucket<K, V>(cacheEntry, false, keySerializer, keyTypes, valueSerializer, null, prefixCompression,
+            subtreeSizes);
+        compacted = false;
+
+        buckets.add(new OSBTreeBucket.SBTreeEntry<K, V>(cacheEntry.getPageIndex(), -1, children.get(firstChild).key, null));
+
+        if (firstChild < i) {
+          added = bucket.addEntry(0, treeEntry, false);
+          assert added;
+        }
+      }
+
+      setLastBucketSize(buckets, getSubtreeSize(bucket));
+    } finally {
+      cacheEntry.releaseExclusiveLock();
+      releasePage(null, cacheEntry);
+    }
+
+    return buckets;
+  }
+
+  /**
+   * Stores amount of keys in subtree of the last written bucket of level as left size of its description.
+   */
+  private static <K, V> void setLastBucketSize(List<OSBTreeBucket.SBTreeEntry<K, V>> buckets, long size) {
+    final int lastIndex = buckets.size() - 1;
+    final OSBTreeBucket.SBTreeEntry<K, V> description = buckets.get(lastIndex);
+
+    buckets.set(lastIndex, new OSBTreeBucket.SBTreeEntry<K, V>(description.leftChild, -1, size, 0, description.key, null));
+  }
+
+  private boolean addBulkLoadedEntry(OSBTreeBucket<K, V> bucket, OSBTreeBucket.SBTreeEntry<K, V> treeEntry, int fillFactor)
+      throws IOException {
+    if (!bucket.isEmpty() && bucket.getFillFactor() >= fillFactor)
+      return false;
+
+    return bucket.addEntry(bucket.size(), treeEntry, false);
+  }
+
+  /**
+   * Moves content of root bucket into new page, so root page may be used to store bucket of the next level of tree.
+   *
+   * @param rightSibling Right sibling of moved bucket if it is leaf bucket.
+   *
+   * @return Index of page which contains moved bucket.
+   */
+  private long moveBulkLoadedRoot(OSBTreeBucket<K, V> rootBucket, long rightSibling) throws IOException {
+    final List<OSBTreeBucket.SBTreeEntry<K, V>> entries = new ArrayList<OSBTreeBucket.SBTreeEntry<K, V>>(rootBucket.size());
+    for (int i = 0; i < rootBucket.size(); i++)
+      entries.add(rootBucket.getEntry(i));
+
+    final OCacheEntry cacheEntry = addPage(null, fileId);
+    cacheEntry.acquireExclusiveLock();
+    try {
+      final OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, rootBucket.isLeaf(), keySerializer, keyTypes,
+          valueSerializer, null, prefixCompression, subtreeSizes);
+      bucket.addAll(entries);
+
+      if (bucket.isLeaf())
+        bucket.setRightSibling(rightSibling);
+
+      return cacheEntry.getPageIndex();
+    } finally {
+      cacheEntry.releaseExclusiveLock();
+      releasePage(null, cacheEntry);
+    }
+  }
+
   public V remove(K key) {
     final OSessionStoragePerformanceStatistic statistic = performanceStatisticManager.getSessionPerformanceStatistic();
     startOperation();
@@ -513,6 +1099,7 @@ public class OSBTree<K, V> extends ODurableComponent {
             if (removedValueLink >= 0)
               removeLinkedValue(removedValueLink, atomicOperation);
 
+            updateSubtreeSizes(bucketSearchResult.path, key, -1, atomicOperation);
             setSize(size() - 1, atomicOperation);
 
             removedValue = value;
@@ -839,21 +1426,12 @@ public class OSBTree<K, V> extends ODurableComponent {
         if (key != null) {
           final int keySize = keySerializer.getObjectSize(key, (Object[]) keyTypes);
 
-          final int valueSize = valueSerializer.getObjectSize(value);
           if (keySize > MAX_KEY_SIZE)
             throw new OTooBigIndexKeyException(
                 "Key size is more than allowed, operation was canceled. Current key size " + keySize + ", allowed  " + MAX_KEY_SIZE,
                 getName());
 
-          final boolean createLinkToTheValue = valueSize > MAX_EMBEDDED_VALUE_SIZE;
-
           key = keySerializer.preprocess(key, (Object[]) keyTypes);
-          long valueLink = -1;
-          if (createLinkToTheValue)
-            valueLink = createLinkToTheValue(value, atomicOperation);
-
-          final OSBTreeValue<V> treeValue = new OSBTreeValue<V>(createLinkToTheValue, valueLink,
-              createLinkToTheValue ? null : value);
           BucketSearchResult bucketSearchResult = findBucket(key, atomicOperation);
 
           OCacheEntry keyBucketCacheEntry = loadPage(atomicOperation, fileId, bucketSearchResult.getLastPathItem(), false);
@@ -883,6 +1461,17 @@ public class OSBTree<K, V> extends ODurableComponent {
             }
           }
 
+          // value is built after validation because validator may replace it, for example by value which contains covered fields
+          final int valueSize = valueSerializer.getObjectSize(value);
+          final boolean createLinkToTheValue = valueSize > MAX_EMBEDDED_VALUE_SIZE;
+
+          long valueLink = -1;
+          if (createLinkToTheValue)
+            valueLink = createLinkToTheValue(value, atomicOperation);
+
+          final OSBTreeValue<V> treeValue = new OSBTreeValue<V>(createLinkToTheValue, valueLink,
+              createLinkToTheValue ? null : value);
+
           int insertionIndex;
           int sizeDiff;
           if (bucketSearchResult.itemIndex >= 0) {
@@ -901,6 +1490,9 @@ public class OSBTree<K, V> extends ODurableComponent {
               if (removedLinkedValue >= 0)
                 removeLinkedValue(removedLinkedValue, atomicOperation);
 
+              // subtree sizes are kept consistent with content of buckets in case of split during insertion
+              updateSubtreeSizes(bucketSearchResult.path, key, -1, atomicOperation);
+
               insertionIndex = bucketSearchResult.itemIndex;
               sizeDiff = 0;
             }
@@ -909,10 +1501,14 @@ public class OSBTree<K, V> extends ODurableComponent {
             sizeDiff = 1;
           }
 
+          final List<Long> path = bucketSearchResult.path;
+          boolean split = false;
+
           while (!keyBucket.addEntry(insertionIndex, new OSBTreeBucket.SBTreeEntry<K, V>(-1, -1, key, treeValue), true)) {
             keyBucketCacheEntry.releaseExclusiveLock();
             releasePage(atomicOperation, keyBucketCacheEntry);
 
+            split = true;
             bucketSearchResult = splitBucket(bucketSearchResult.path, insertionIndex, key, atomicOperation);
 
             insertionIndex = bucketSearchResult.itemIndex;
@@ -927,6 +1523,9 @@ public class OSBTree<K, V> extends ODurableComponent {
           keyBucketCacheEntry.releaseExclusiveLock();
           releasePage(atomicOperation, keyBucketCacheEntry);
 
+          // path of the key is changed by split of buckets
+          updateSubtreeSizes(split ? findBucket(key, atomicOperation).path : path, key, 1, atomicOperation);
+
           if (sizeDiff != 0)
             setSize(size() + sizeDiff, atomicOperation);
         } else {
@@ -939,16 +1538,6 @@ public class OSBTree<K, V> extends ODurableComponent {
           } else
             cacheEntry = loadPage(atomicOperation, nullBucketFileId, 0, false);
 
-          final int valueSize = valueSerializer.getObjectSize(value);
-          final boolean createLinkToTheValue = valueSize > MAX_EMBEDDED_VALUE_SIZE;
-
-          long valueLink = -1;
-          if (createLinkToTheValue)
-            valueLink = createLinkToTheValue(value, atomicOperation);
-
-          final OSBTreeValue<V> treeValue = new OSBTreeValue<V>(createLinkToTheValue, valueLink,
-              createLinkToTheValue ? null : value);
-
           int sizeDiff = 0;
 
           cacheEntry.acquireExclusiveLock();
@@ -967,6 +1556,16 @@ public class OSBTree<K, V> extends ODurableComponent {
               value = (V) result;
             }
 
+            final int valueSize = valueSerializer.getObjectSize(value);
+            final boolean createLinkToTheValue = valueSize > MAX_EMBEDDED_VALUE_SIZE;
+
+            long valueLink = -1;
+            if (createLinkToTheValue)
+              valueLink = createLinkToTheValue(value, atomicOperation);
+
+            final OSBTreeValue<V> treeValue = new OSBTreeValue<V>(createLinkToTheValue, valueLink,
+                createLinkToTheValue ? null : value);
+
             if (oldValue != null)
               sizeDiff = -1;
 
@@ -1184,6 +1783,42 @@ public class OSBTree<K, V> extends ODurableComponent {
     }
   }
 
+  /**
+   * Changes amount of keys in subtrees which contain given key in all non-leaf buckets of the path to the leaf bucket of the key.
+   *
+   * @param path Path to the leaf bucket of the key, leaf bucket itself is not changed.
+   */
+  private void updateSubtreeSizes(List<Long> path, K key, int delta, OAtomicOperation atomicOperation) throws IOException {
+    if (!subtreeSizes)
+      return;
+
+    for (int i = 0; i < path.size() - 1; i++) {
+      final OCacheEntry cacheEntry = loadPage(atomicOperation, fileId, path.get(i), false);
+      cacheEntry.acquireExclusiveLock();
+      try {
+        final OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer,
+            getChanges(atomicOperation, cacheEntry));
+        bucket.updateChildSize(childIndex(bucket.find(key)), delta);
+      } finally {
+        cacheEntry.releaseExclusiveLock();
+        releasePage(atomicOperation, cacheEntry);
+      }
+    }
+  }
+
+  /**
+   * @param index Result of search of key inside of non-leaf bucket.
+   *
+   * @return Index of child of non-leaf bucket which contains the key, see {@link OSBTreeBucket#getChildSize(int)}.
+   */
+  private static int childIndex(int index) {
+    // keys which are equal to the key of entry are stored in its right child
+    if (index >= 0)
+      return index + 1;
+
+    return -index - 1;
+  }
+
   private OSBTreeCursor<K, V> iterateEntriesMinorDesc(K key, boolean inclusive, OAtomicOperation atomicOperation)
       throws IOException {
     key = keySerializer.preprocess(key, (Object[]) keyTypes);
@@ -1561,7 +2196,11 @@ public class OSBTree<K, V> extends ODurableComponent {
       final int bucketSize = bucketToSplit.size();
 
       int indexToSplit = bucketSize >>> 1;
-      final K separationKey = bucketToSplit.getKey(indexToSplit);
+      final K separationKey;
+      if (splitLeaf && prefixCompression && indexToSplit > 0)
+        separationKey = shortestSeparator(bucketToSplit.getKey(indexToSplit - 1), bucketToSplit.getKey(indexToSplit));
+      else
+        separationKey = bucketToSplit.getKey(indexToSplit);
       final List<OSBTreeBucket.SBTreeEntry<K, V>> rightEntries = new ArrayList<OSBTreeBucket.SBTreeEntry<K, V>>(indexToSplit);
 
       final int startRightIndex = splitLeaf ? indexToSplit : indexToSplit + 1;
@@ -1582,6 +2221,18 @@ public class OSBTree<K, V> extends ODurableComponent {
     }
   }
 
+  /**
+   * @return The shortest key which is bigger than <code>left</code> key and is less or equal to <code>right</code> key, so it still
+   * separates content of split leaf buckets but takes less space in non-leaf buckets.
+   */
+  @SuppressWarnings("unchecked")
+  private K shortestSeparator(K left, K right) {
+    final String rightKey = (String) right;
+    final int commonPrefixLength = OSBTreeBucket.commonPrefix((String) left, rightKey).length();
+
+    return (K) rightKey.substring(0, commonPrefixLength + 1);
+  }
+
   private BucketSearchResult splitNonRootBucket(List<Long> path, int keyIndex, K keyToInsert, long pageIndex,
       OSBTreeBucket<K, V> bucketToSplit, boolean splitLeaf, int indexToSplit, K separationKey,
       List<OSBTreeBucket.SBTreeEntry<K, V>> rightEntries, OAtomicOperation atomicOperation) throws IOException {
@@ -1590,7 +2241,7 @@ public class OSBTree<K, V> extends ODurableComponent {
 
     try {
       OSBTreeBucket<K, V> newRightBucket = new OSBTreeBucket<K, V>(rightBucketEntry, splitLeaf, keySerializer, keyTypes,
-          valueSerializer, getChanges(atomicOperation, rightBucketEntry));
+          valueSerializer, getChanges(atomicOperation, rightBucketEntry), prefixCompression, subtreeSizes);
       newRightBucket.addAll(rightEntries);
 
       bucketToSplit.shrink(indexToSplit);
@@ -1624,7 +2275,7 @@ public class OSBTree<K, V> extends ODurableComponent {
         OSBTreeBucket<K, V> parentBucket = new OSBTreeBucket<K, V>(parentCacheEntry, keySerializer, keyTypes, valueSerializer,
             getChanges(atomicOperation, parentCacheEntry));
         OSBTreeBucket.SBTreeEntry<K, V> parentEntry = new OSBTreeBucket.SBTreeEntry<K, V>(pageIndex,
-            rightBucketEntry.getPageIndex(), separationKey, null);
+            rightBucketEntry.getPageIndex(), getSubtreeSize(bucketToSplit), getSubtreeSize(newRightBucket), separationKey, null);
 
         int insertionIndex = parentBucket.find(separationKey);
         assert insertionIndex < 0;
@@ -1687,11 +2338,15 @@ public class OSBTree<K, V> extends ODurableComponent {
     OCacheEntry leftBucketEntry = addPage(atomicOperation, fileId);
 
     OCacheEntry rightBucketEntry = addPage(atomicOperation, fileId);
+    final long leftSize;
+    final long rightSize;
+
     leftBucketEntry.acquireExclusiveLock();
     try {
       OSBTreeBucket<K, V> newLeftBucket = new OSBTreeBucket<K, V>(leftBucketEntry, splitLeaf, keySerializer, keyTypes,
-          valueSerializer, getChanges(atomicOperation, leftBucketEntry));
+          valueSerializer, getChanges(atomicOperation, leftBucketEntry), prefixCompression, subtreeSizes);
       newLeftBucket.addAll(leftEntries);
+      leftSize = getSubtreeSize(newLeftBucket);
 
       if (splitLeaf)
         newLeftBucket.setRightSibling(rightBucketEntry.getPageIndex());
@@ -1704,8 +2359,9 @@ public class OSBTree<K, V> extends ODurableComponent {
     rightBucketEntry.acquireExclusiveLock();
     try {
       OSBTreeBucket<K, V> newRightBucket = new OSBTreeBucket<K, V>(rightBucketEntry, splitLeaf, keySerializer, keyTypes,
-          valueSerializer, getChanges(atomicOperation, rightBucketEntry));
+          valueSerializer, getChanges(atomicOperation, rightBucketEntry), prefixCompression, subtreeSizes);
       newRightBucket.addAll(rightEntries);
+      rightSize = getSubtreeSize(newRightBucket);
 
       if (splitLeaf)
         newRightBucket.setLeftSibling(leftBucketEntry.getPageIndex());
@@ -1715,14 +2371,14 @@ public class OSBTree<K, V> extends ODurableComponent {
     }
 
     bucketToSplit = new OSBTreeBucket<K, V>(bucketEntry, false, keySerializer, keyTypes, valueSerializer,
-        getChanges(atomicOperation, bucketEntry));
+        getChanges(atomicOperation, bucketEntry), prefixCompression, subtreeSizes);
 
     bucketToSplit.setTreeSize(treeSize);
     bucketToSplit.setValuesFreeListFirstIndex(freeListPage);
 
     bucketToSplit.addEntry(0,
-        new OSBTreeBucket.SBTreeEntry<K, V>(leftBucketEntry.getPageIndex(), rightBucketEntry.getPageIndex(), separationKey, null),
-        true);
+        new OSBTreeBucket.SBTreeEntry<K, V>(leftBucketEntry.getPageIndex(), rightBucketEntry.getPageIndex(), leftSize, rightSize,
+            separationKey, null), true);
 
     ArrayList<Long> resultPath = new ArrayList<Long>(path.subList(0, path.size() - 1));
 
@@ -1739,9 +2395,72 @@ public class OSBTree<K, V> extends ODurableComponent {
     return new BucketSearchResult(keyIndex - indexToSplit - 1, resultPath);
   }
 
+  /**
+   * @return Amount of keys in subtree of given bucket or <code>0</code> if tree does not store subtree sizes.
+   */
+  private long getSubtreeSize(OSBTreeBucket<K, V> bucket) {
+    if (!subtreeSizes)
+      return 0;
+
+    return bucket.getSubtreeSize();
+  }
+
+  /**
+   * Descends from root to leaf bucket of the key and sums sizes of subtrees which precede the key in visited buckets.
+   *
+   * @param key Key to search or <code>null</code> which is treated as key which is bigger than all keys of tree.
+   *
+   * @return Amount of keys which are less than given key, or less or equal to it if <code>inclusive</code> is <code>true</code>.
+   */
+  private long rank(K key, boolean inclusive, OAtomicOperation atomicOperation) throws IOException {
+    final byte[] serializedKey = key == null ? null : OSBTreeBucket.serializeKeyForComparison(keySerializer, keyTypes, key);
+
+    long pageIndex = ROOT_INDEX;
+    long rank = 0;
+    int depth = 0;
+
+    while (true) {
+      if (++depth > MAX_PATH_LENGTH)
+        throw new OSBTreeException(
+            "We reached max level of depth of SBTree but still found nothing, seems like tree is in corrupted state. You should rebuild index related to given query.",
+            this);
+
+      final OCacheEntry cacheEntry = loadPage(atomicOperation, fileId, pageIndex, false);
+      cacheEntry.acquireSharedLock();
+      try {
+        final OSBTreeBucket<K, V> bucket = new OSBTreeBucket<K, V>(cacheEntry, keySerializer, keyTypes, valueSerializer,
+            getChanges(atomicOperation, cacheEntry));
+
+        if (key == null)
+          return rank + bucket.getSubtreeSize();
+
+        final int index = bucket.find(key, serializedKey);
+        if (bucket.isLeaf()) {
+          if (index >= 0)
+            return rank + (inclusive ? index + 1 : index);
+
+          return rank - index - 1;
+        }
+
+        final int childIndex = childIndex(index);
+        for (int i = 0; i < childIndex; i++)
+          rank += bucket.getChildSize(i);
+
+        if (childIndex < bucket.size())
+          pageIndex = bucket.getEntry(childIndex).leftChild;
+        else
+          pageIndex = bucket.getEntry(childIndex - 1).rightChild;
+      } finally {
+        cacheEntry.releaseSharedLock();
+        releasePage(atomicOperation, cacheEntry);
+      }
+    }
+  }
+
   private BucketSearchResult findBucket(K key, OAtomicOperation atomicOperation) throws IOException {
     long pageIndex = ROOT_INDEX;
     final ArrayList<Long> path = new ArrayList<Long>();
+    final byte[] serializedKey = OSBTreeBucket.serializeKeyForComparison(keySerializer, keyTypes, key);
 
     while (true) {
       if (path.size() > MAX_PATH_LENGTH)
@@ -1756,7 +2475,7 @@ public class OSBTree<K, V> extends ODurableComponent {
       try {
         final OSBTreeBucket<K, V> keyBucket = new OSBTreeBucket<K, V>(bucketEntry, keySerializer, keyTypes, valueSerializer,
             getChanges(atomicOperation, bucketEntry));
-        final int index = keyBucket.find(key);
+        final int index = keyBucket.find(key, serializedKey);
 
         if (keyBucket.isLeaf())
           return new BucketSearchResult(index, path);
@@ -1906,6 +2625,16 @@ public class OSBTree<K, V> extends ODurableComponent {
     }
   }
 
+  private static final class LookupKey<K> {
+    private final K key;
+    private final K originalKey;
+
+    private LookupKey(K key, K originalKey) {
+      this.key = key;
+      this.originalKey = originalKey;
+    }
+  }
+
   private static final class PagePathItemUnit {
     private final long pageIndex;
     private final int  itemIndex;
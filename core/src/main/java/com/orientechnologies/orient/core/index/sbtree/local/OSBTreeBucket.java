@@ -21,10 +21,12 @@
 package com.orientechnologies.orient.core.index.sbtree.local;
 
 import com.orientechnologies.common.comparator.ODefaultComparator;
+import com.orientechnologies.common.serialization.types.OBinaryComparator;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
 import com.orientechnologies.common.serialization.types.OByteSerializer;
 import com.orientechnologies.common.serialization.types.OIntegerSerializer;
 import com.orientechnologies.common.serialization.types.OLongSerializer;
+import com.orientechnologies.common.serialization.types.OStringSerializer;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODurablePage;
@@ -61,7 +63,22 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
 
   private static final int POSITIONS_ARRAY_OFFSET = FREE_VALUES_LIST_OFFSET + OLongSerializer.LONG_SIZE;
 
+  /**
+   * Buckets with prefix compression of keys store common prefix of all keys of bucket at this offset, positions array follows
+   * the prefix. Keys of such buckets are stored without the common prefix.
+   */
+  private static final int PREFIX_OFFSET = POSITIONS_ARRAY_OFFSET;
+
+  private static final byte LEAF_FLAG               = 1;
+  private static final byte PREFIX_COMPRESSION_FLAG = 2;
+  private static final byte SUBTREE_SIZES_FLAG      = 4;
+
   private final boolean isLeaf;
+  private final boolean prefixCompression;
+  private final boolean subtreeSizes;
+
+  private int    positionsArrayOffset;
+  private String prefix;
 
   private final OBinarySerializer<K> keySerializer;
   private final OBinarySerializer<V> valueSerializer;
@@ -70,12 +87,34 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
 
   private final Comparator<? super K> comparator = ODefaultComparator.INSTANCE;
 
-  @SuppressFBWarnings("EI_EXPOSE_REP2")
   public OSBTreeBucket(OCacheEntry cacheEntry, boolean isLeaf, OBinarySerializer<K> keySerializer, OType[] keyTypes,
       OBinarySerializer<V> valueSerializer, OWALChanges changes) throws IOException {
+    this(cacheEntry, isLeaf, keySerializer, keyTypes, valueSerializer, changes, false);
+  }
+
+  public OSBTreeBucket(OCacheEntry cacheEntry, boolean isLeaf, OBinarySerializer<K> keySerializer, OType[] keyTypes,
+      OBinarySerializer<V> valueSerializer, OWALChanges changes, boolean prefixCompression) throws IOException {
+    this(cacheEntry, isLeaf, keySerializer, keyTypes, valueSerializer, changes, prefixCompression, false);
+  }
+
+  /**
+   * Initializes new bucket.
+   *
+   * @param prefixCompression Whether common prefix of keys should be stored once per bucket, applicable only to buckets with
+   *                          {@link String} keys.
+   * @param subtreeSizes      Whether entries of non-leaf bucket store amount of keys in subtrees of their children, so amount of
+   *                          keys in range may be calculated without iteration over them.
+   */
+  @SuppressFBWarnings("EI_EXPOSE_REP2")
+  public OSBTreeBucket(OCacheEntry cacheEntry, boolean isLeaf, OBinarySerializer<K> keySerializer, OType[] keyTypes,
+      OBinarySerializer<V> valueSerializer, OWALChanges changes, boolean prefixCompression, boolean subtreeSizes)
+      throws IOException {
     super(cacheEntry, changes);
+    assert !prefixCompression || keySerializer instanceof OStringSerializer;
 
     this.isLeaf = isLeaf;
+    this.prefixCompression = prefixCompression;
+    this.subtreeSizes = subtreeSizes;
     this.keySerializer = keySerializer;
     this.keyTypes = keyTypes;
     this.valueSerializer = valueSerializer;
@@ -83,7 +122,13 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
     setIntValue(FREE_POINTER_OFFSET, MAX_PAGE_SIZE_BYTES);
     setIntValue(SIZE_OFFSET, 0);
 
-    setByteValue(IS_LEAF_OFFSET, (byte) (isLeaf ? 1 : 0));
+    byte flags = isLeaf ? LEAF_FLAG : 0;
+    if (prefixCompression)
+      flags |= PREFIX_COMPRESSION_FLAG;
+    if (subtreeSizes)
+      flags |= SUBTREE_SIZES_FLAG;
+
+    setByteValue(IS_LEAF_OFFSET, flags);
     setLongValue(LEFT_SIBLING_OFFSET, -1);
     setLongValue(RIGHT_SIBLING_OFFSET, -1);
 
@@ -92,6 +137,11 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
 
     setByteValue(KEY_SERIALIZER_OFFSET, this.keySerializer.getId());
     setByteValue(VALUE_SERIALIZER_OFFSET, this.valueSerializer.getId());
+
+    if (prefixCompression)
+      setPrefix("");
+    else
+      positionsArrayOffset = POSITIONS_ARRAY_OFFSET;
   }
 
   @SuppressFBWarnings("EI_EXPOSE_REP2")
@@ -100,9 +150,78 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
     super(cacheEntry, changes);
     this.keyTypes = keyTypes;
 
-    this.isLeaf = getByteValue(IS_LEAF_OFFSET) > 0;
+    final byte flags = getByteValue(IS_LEAF_OFFSET);
+    this.isLeaf = (flags & LEAF_FLAG) != 0;
+    this.prefixCompression = (flags & PREFIX_COMPRESSION_FLAG) != 0;
+    this.subtreeSizes = (flags & SUBTREE_SIZES_FLAG) != 0;
     this.keySerializer = keySerializer;
     this.valueSerializer = valueSerializer;
+
+    if (prefixCompression)
+      positionsArrayOffset = PREFIX_OFFSET + getObjectSizeInDirectMemory(OStringSerializer.INSTANCE, PREFIX_OFFSET);
+    else
+      positionsArrayOffset = POSITIONS_ARRAY_OFFSET;
+  }
+
+  /**
+   * @return <code>true</code> if common prefix of keys is stored once per bucket.
+   */
+  public boolean isPrefixCompressed() {
+    return prefixCompression;
+  }
+
+  /**
+   * @return <code>true</code> if entries of non-leaf bucket store amount of keys in subtrees of their children.
+   */
+  public boolean hasSubtreeSizes() {
+    return subtreeSizes;
+  }
+
+  /**
+   * Amount of keys in subtree of child of non-leaf bucket. Child with index <code>i</code> is the left child of entry
+   * <code>i</code>, the last child is the right child of the last entry.
+   */
+  public long getChildSize(int childIndex) {
+    assert !isLeaf && subtreeSizes;
+
+    if (childIndex < size())
+      return getLongValue(getEntryPosition(childIndex) + 2 * OLongSerializer.LONG_SIZE);
+
+    return getLongValue(getEntryPosition(childIndex - 1) + 3 * OLongSerializer.LONG_SIZE);
+  }
+
+  /**
+   * Changes amount of keys in subtree of child of non-leaf bucket, both entries which refer to the child are updated.
+   *
+   * @see #getChildSize(int)
+   */
+  public void updateChildSize(int childIndex, long delta) throws IOException {
+    assert !isLeaf && subtreeSizes;
+
+    if (childIndex < size()) {
+      final int position = getEntryPosition(childIndex) + 2 * OLongSerializer.LONG_SIZE;
+      setLongValue(position, getLongValue(position) + delta);
+    }
+
+    if (childIndex > 0) {
+      final int position = getEntryPosition(childIndex - 1) + 3 * OLongSerializer.LONG_SIZE;
+      setLongValue(position, getLongValue(position) + delta);
+    }
+  }
+
+  /**
+   * @return Amount of keys in subtree of this bucket.
+   */
+  public long getSubtreeSize() {
+    final int size = size();
+    if (isLeaf)
+      return size;
+
+    long subtreeSize = 0;
+    for (int i = 0; i <= size; i++)
+      subtreeSize += getChildSize(i);
+
+    return subtreeSize;
   }
 
   public void setTreeSize(long size) throws IOException {
@@ -126,13 +245,55 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
   }
 
   public int find(K key) {
+    if (changes != null)
+      return find(key, null);
+
+    return find(key, serializeKeyForComparison(keySerializer, keyTypes, key));
+  }
+
+  /**
+   * Binary search of key inside of bucket. If key is serialized by {@link #serializeKeyForComparison(OBinarySerializer, OType[],
+   * Object)} and bucket is not changed inside of current atomic operation keys stored in bucket are compared with serialized key
+   * without deserialization, otherwise they are deserialized and compared as objects.
+   *
+   * @param key           Key to find.
+   * @param serializedKey Serialized presentation of the same key or <code>null</code>.
+   *
+   * @return Index of key or <code>-(insertion point + 1)</code> if key is absent.
+   */
+  public int find(K key, byte[] serializedKey) {
+    final OBinaryComparator binaryComparator;
+    if (serializedKey != null && changes == null)
+      binaryComparator = (OBinaryComparator) keySerializer;
+    else
+      binaryComparator = null;
+
     int low = 0;
     int high = size() - 1;
 
+    if (prefixCompression && binaryComparator != null) {
+      final String prefix = getPrefix();
+      final String stringKey = (String) key;
+
+      // all keys of bucket start with prefix, so position of key which does not start with it is known without search
+      if (!stringKey.startsWith(prefix)) {
+        if (stringKey.compareTo(prefix) < 0)
+          return -1;
+
+        return -(high + 2);
+      }
+
+      serializedKey = cutPrefix(serializedKey, prefix.length());
+    }
+
     while (low <= high) {
       int mid = (low + high) >>> 1;
-      K midVal = getKey(mid);
-      int cmp = comparator.compare(midVal, key);
+
+      final int cmp;
+      if (binaryComparator != null)
+        cmp = compareInDirectMemory(binaryComparator, getKeyPosition(mid), serializedKey);
+      else
+        cmp = comparator.compare(getKey(mid), key);
 
       if (cmp < 0)
         low = mid + 1;
@@ -145,7 +306,7 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
   }
 
   public long remove(int entryIndex) throws IOException {
-    int entryPosition = getIntValue(POSITIONS_ARRAY_OFFSET + entryIndex * OIntegerSerializer.INT_SIZE);
+    int entryPosition = getIntValue(positionsArrayOffset + entryIndex * OIntegerSerializer.INT_SIZE);
     int keySize = getObjectSizeInDirectMemory(keySerializer, entryPosition);
 
     int entrySize;
@@ -171,8 +332,8 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
 
     int size = size();
     if (entryIndex < size - 1) {
-      moveData(POSITIONS_ARRAY_OFFSET + (entryIndex + 1) * OIntegerSerializer.INT_SIZE,
-          POSITIONS_ARRAY_OFFSET + entryIndex * OIntegerSerializer.INT_SIZE, (size - entryIndex - 1) * OIntegerSerializer.INT_SIZE);
+      moveData(positionsArrayOffset + (entryIndex + 1) * OIntegerSerializer.INT_SIZE,
+          positionsArrayOffset + entryIndex * OIntegerSerializer.INT_SIZE, (size - entryIndex - 1) * OIntegerSerializer.INT_SIZE);
     }
 
     size--;
@@ -184,7 +345,7 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
     }
     setIntValue(FREE_POINTER_OFFSET, freePointer + entrySize);
 
-    int currentPositionOffset = POSITIONS_ARRAY_OFFSET;
+    int currentPositionOffset = positionsArrayOffset;
 
     for (int i = 0; i < size; i++) {
       int currentEntryPosition = getIntValue(currentPositionOffset);
@@ -201,10 +362,10 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
   }
 
   public SBTreeEntry<K, V> getEntry(int entryIndex) {
-    int entryPosition = getIntValue(entryIndex * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET);
+    int entryPosition = getIntValue(entryIndex * OIntegerSerializer.INT_SIZE + positionsArrayOffset);
 
     if (isLeaf) {
-      K key = deserializeFromDirectMemory(keySerializer, entryPosition);
+      K key = readKey(entryPosition);
       entryPosition += getObjectSizeInDirectMemory(keySerializer, entryPosition);
 
       boolean isLinkValue = getByteValue(entryPosition) > 0;
@@ -224,9 +385,19 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
       long rightChild = getLongValue(entryPosition);
       entryPosition += OLongSerializer.LONG_SIZE;
 
-      K key = deserializeFromDirectMemory(keySerializer, entryPosition);
+      long leftSize = 0;
+      long rightSize = 0;
+      if (subtreeSizes) {
+        leftSize = getLongValue(entryPosition);
+        entryPosition += OLongSerializer.LONG_SIZE;
+
+        rightSize = getLongValue(entryPosition);
+        entryPosition += OLongSerializer.LONG_SIZE;
+      }
 
-      return new SBTreeEntry<K, V>(leftChild, rightChild, key, null);
+      K key = readKey(entryPosition);
+
+      return new SBTreeEntry<K, V>(leftChild, rightChild, leftSize, rightSize, key, null);
     }
   }
 
@@ -240,7 +411,7 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
   public OSBTreeValue<V> getValue(int entryIndex) {
     assert isLeaf;
 
-    int entryPosition = getIntValue(entryIndex * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET);
+    int entryPosition = getIntValue(entryIndex * OIntegerSerializer.INT_SIZE + positionsArrayOffset);
 
     // skip key
     entryPosition += getObjectSizeInDirectMemory(keySerializer, entryPosition);
@@ -258,19 +429,142 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
   }
 
   public K getKey(int index) {
-    int entryPosition = getIntValue(index * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET);
+    return readKey(getKeyPosition(index));
+  }
+
+  @SuppressWarnings("unchecked")
+  private K readKey(int keyPosition) {
+    final K key = deserializeFromDirectMemory(keySerializer, keyPosition);
+    if (!prefixCompression)
+      return key;
+
+    return (K) (getPrefix() + key);
+  }
+
+  private String getPrefix() {
+    if (prefix == null)
+      prefix = deserializeFromDirectMemory(OStringSerializer.INSTANCE, PREFIX_OFFSET);
+
+    return prefix;
+  }
+
+  /**
+   * Changes common prefix of keys, can be called only if bucket is empty because positions array follows the prefix.
+   */
+  private void setPrefix(String prefix) throws IOException {
+    assert size() == 0;
+
+    final byte[] serializedPrefix = new byte[OStringSerializer.INSTANCE.getObjectSize(prefix)];
+    OStringSerializer.INSTANCE.serializeNativeObject(prefix, serializedPrefix, 0);
+    setBinaryValue(PREFIX_OFFSET, serializedPrefix);
+
+    this.prefix = prefix;
+    this.positionsArrayOffset = PREFIX_OFFSET + serializedPrefix.length;
+  }
+
+  /**
+   * Replaces common prefix of keys by its shorter version and stores all entries of bucket again.
+   *
+   * @return <code>false</code> if entries do not fit into the bucket once prefix is shortened.
+   */
+  private boolean shortenPrefix(String newPrefix) throws IOException {
+    final int size = size();
+    final int prefixSizeDiff = OStringSerializer.INSTANCE.getObjectSize(getPrefix()) - OStringSerializer.INSTANCE
+        .getObjectSize(newPrefix);
+
+    final int entriesSize = MAX_PAGE_SIZE_BYTES - getIntValue(FREE_POINTER_OFFSET) + size * prefixSizeDiff;
+    if (positionsArrayOffset - prefixSizeDiff + size * OIntegerSerializer.INT_SIZE + entriesSize > MAX_PAGE_SIZE_BYTES)
+      return false;
+
+    final List<SBTreeEntry<K, V>> treeEntries = new ArrayList<SBTreeEntry<K, V>>(size);
+    for (int i = 0; i < size; i++)
+      treeEntries.add(getEntry(i));
+
+    setIntValue(FREE_POINTER_OFFSET, MAX_PAGE_SIZE_BYTES);
+    setIntValue(SIZE_OFFSET, 0);
+    setPrefix(newPrefix);
+
+    for (int i = 0; i < treeEntries.size(); i++)
+      addEntry(i, treeEntries.get(i), false);
+
+    return true;
+  }
+
+  private static byte[] cutPrefix(byte[] serializedKey, int prefixLength) {
+    final int length = OIntegerSerializer.INSTANCE.deserializeNative(serializedKey, 0) - prefixLength;
+    final byte[] serializedSuffix = new byte[OIntegerSerializer.INT_SIZE + 2 * length];
+
+    OIntegerSerializer.INSTANCE.serializeNative(length, serializedSuffix, 0);
+    System.arraycopy(serializedKey, serializedKey.length - 2 * length, serializedSuffix, OIntegerSerializer.INT_SIZE, 2 * length);
+
+    return serializedSuffix;
+  }
+
+  static String commonPrefix(String first, String second) {
+    final int length = Math.min(first.length(), second.length());
+
+    int i = 0;
+    while (i < length && first.charAt(i) == second.charAt(i))
+      i++;
+
+    return first.substring(0, i);
+  }
+
+  private int getKeyPosition(int index) {
+    int entryPosition = getEntryPosition(index);
 
     if (!isLeaf)
-      entryPosition += 2 * OLongSerializer.LONG_SIZE;
+      entryPosition += getChildLinksSize();
+
+    return entryPosition;
+  }
+
+  private int getEntryPosition(int index) {
+    return getIntValue(index * OIntegerSerializer.INT_SIZE + positionsArrayOffset);
+  }
+
+  /**
+   * @return Size of links to children and sizes of their subtrees which precede key in entries of non-leaf bucket.
+   */
+  private int getChildLinksSize() {
+    return (subtreeSizes ? 4 : 2) * OLongSerializer.LONG_SIZE;
+  }
+
+  /**
+   * Serializes key to compare it with keys stored in buckets by {@link #find(Object, byte[])}, so key may be serialized once and
+   * then used to search it in several buckets.
+   *
+   * @return Serialized key or <code>null</code> if key serializer does not support binary comparison of given key.
+   */
+  public static <K> byte[] serializeKeyForComparison(OBinarySerializer<K> keySerializer, OType[] keyTypes, K key) {
+    if (!(keySerializer instanceof OBinaryComparator) || !((OBinaryComparator) keySerializer)
+        .isBinaryComparable(key, (Object[]) keyTypes))
+      return null;
+
+    final byte[] serializedKey = new byte[keySerializer.getObjectSize(key, (Object[]) keyTypes)];
+    keySerializer.serializeNativeObject(key, serializedKey, 0, (Object[]) keyTypes);
 
-    return deserializeFromDirectMemory(keySerializer, entryPosition);
+    return serializedKey;
   }
 
   public boolean isLeaf() {
     return isLeaf;
   }
 
+  /**
+   * @return Percent of space of bucket which is occupied by entries.
+   */
+  public int getFillFactor() {
+    final int usedSpace = MAX_PAGE_SIZE_BYTES - getIntValue(FREE_POINTER_OFFSET) + size() * OIntegerSerializer.INT_SIZE + (
+        positionsArrayOffset - POSITIONS_ARRAY_OFFSET);
+
+    return (int) (100L * usedSpace / (MAX_PAGE_SIZE_BYTES - POSITIONS_ARRAY_OFFSET));
+  }
+
   public void addAll(List<SBTreeEntry<K, V>> entries) throws IOException {
+    if (prefixCompression && size() == 0 && !entries.isEmpty())
+      setPrefix(commonPrefix((String) entries.get(0).key, (String) entries.get(entries.size() - 1).key));
+
     for (int i = 0; i < entries.size(); i++)
       addEntry(i, entries.get(i), false);
   }
@@ -285,6 +579,9 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
     setIntValue(FREE_POINTER_OFFSET, MAX_PAGE_SIZE_BYTES);
     setIntValue(SIZE_OFFSET, 0);
 
+    if (prefixCompression && !treeEntries.isEmpty())
+      setPrefix(commonPrefix((String) treeEntries.get(0).key, (String) treeEntries.get(treeEntries.size() - 1).key));
+
     int index = 0;
     for (SBTreeEntry<K, V> entry : treeEntries) {
       addEntry(index, entry, false);
@@ -292,8 +589,19 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
     }
   }
 
+  @SuppressWarnings("unchecked")
   public boolean addEntry(int index, SBTreeEntry<K, V> treeEntry, boolean updateNeighbors) throws IOException {
-    final int keySize = keySerializer.getObjectSize(treeEntry.key, (Object[]) keyTypes);
+    final K key;
+    if (prefixCompression) {
+      final String stringKey = (String) treeEntry.key;
+      if (!stringKey.startsWith(getPrefix()) && !shortenPrefix(commonPrefix(getPrefix(), stringKey)))
+        return false;
+
+      key = (K) stringKey.substring(getPrefix().length());
+    } else
+      key = treeEntry.key;
+
+    final int keySize = keySerializer.getObjectSize(key, (Object[]) keyTypes);
     int valueSize = 0;
     int entrySize = keySize;
 
@@ -309,27 +617,27 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
 
       entrySize += valueSize + OByteSerializer.BYTE_SIZE;
     } else
-      entrySize += 2 * OLongSerializer.LONG_SIZE;
+      entrySize += getChildLinksSize();
 
     int size = size();
     int freePointer = getIntValue(FREE_POINTER_OFFSET);
-    if (freePointer - entrySize < (size + 1) * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET)
+    if (freePointer - entrySize < (size + 1) * OIntegerSerializer.INT_SIZE + positionsArrayOffset)
       return false;
 
     if (index <= size - 1) {
-      moveData(POSITIONS_ARRAY_OFFSET + index * OIntegerSerializer.INT_SIZE,
-          POSITIONS_ARRAY_OFFSET + (index + 1) * OIntegerSerializer.INT_SIZE, (size - index) * OIntegerSerializer.INT_SIZE);
+      moveData(positionsArrayOffset + index * OIntegerSerializer.INT_SIZE,
+          positionsArrayOffset + (index + 1) * OIntegerSerializer.INT_SIZE, (size - index) * OIntegerSerializer.INT_SIZE);
     }
 
     freePointer -= entrySize;
 
     setIntValue(FREE_POINTER_OFFSET, freePointer);
-    setIntValue(POSITIONS_ARRAY_OFFSET + index * OIntegerSerializer.INT_SIZE, freePointer);
+    setIntValue(positionsArrayOffset + index * OIntegerSerializer.INT_SIZE, freePointer);
     setIntValue(SIZE_OFFSET, size + 1);
 
     if (isLeaf) {
       byte[] serializedKey = new byte[keySize];
-      keySerializer.serializeNativeObject(treeEntry.key, serializedKey, 0, (Object[]) keyTypes);
+      keySerializer.serializeNativeObject(key, serializedKey, 0, (Object[]) keyTypes);
 
       freePointer += setBinaryValue(freePointer, serializedKey);
       freePointer += setByteValue(freePointer, treeEntry.value.isLink() ? (byte) 1 : (byte) 0);
@@ -345,21 +653,30 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
       freePointer += setLongValue(freePointer, treeEntry.leftChild);
       freePointer += setLongValue(freePointer, treeEntry.rightChild);
 
+      if (subtreeSizes) {
+        freePointer += setLongValue(freePointer, treeEntry.leftSize);
+        freePointer += setLongValue(freePointer, treeEntry.rightSize);
+      }
+
       byte[] serializedKey = new byte[keySize];
-      keySerializer.serializeNativeObject(treeEntry.key, serializedKey, 0, (Object[]) keyTypes);
+      keySerializer.serializeNativeObject(key, serializedKey, 0, (Object[]) keyTypes);
       setBinaryValue(freePointer, serializedKey);
 
       size++;
 
       if (updateNeighbors && size > 1) {
         if (index < size - 1) {
-          final int nextEntryPosition = getIntValue(POSITIONS_ARRAY_OFFSET + (index + 1) * OIntegerSerializer.INT_SIZE);
+          final int nextEntryPosition = getIntValue(positionsArrayOffset + (index + 1) * OIntegerSerializer.INT_SIZE);
           setLongValue(nextEntryPosition, treeEntry.rightChild);
+          if (subtreeSizes)
+            setLongValue(nextEntryPosition + 2 * OLongSerializer.LONG_SIZE, treeEntry.rightSize);
         }
 
         if (index > 0) {
-          final int prevEntryPosition = getIntValue(POSITIONS_ARRAY_OFFSET + (index - 1) * OIntegerSerializer.INT_SIZE);
+          final int prevEntryPosition = getIntValue(positionsArrayOffset + (index - 1) * OIntegerSerializer.INT_SIZE);
           setLongValue(prevEntryPosition + OLongSerializer.LONG_SIZE, treeEntry.leftChild);
+          if (subtreeSizes)
+            setLongValue(prevEntryPosition + 3 * OLongSerializer.LONG_SIZE, treeEntry.leftSize);
         }
       }
     }
@@ -368,7 +685,7 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
   }
 
   public int updateValue(int index, OSBTreeValue<V> value) throws IOException {
-    int entryPosition = getIntValue(index * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET);
+    int entryPosition = getIntValue(index * OIntegerSerializer.INT_SIZE + positionsArrayOffset);
     entryPosition += getObjectSizeInDirectMemory(keySerializer, entryPosition);
     boolean isLinkValue = getByteValue(entryPosition) > 0;
 
@@ -426,12 +743,24 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
 
     public final long            leftChild;
     public final long            rightChild;
+    public final long            leftSize;
+    public final long            rightSize;
     public final K               key;
     public final OSBTreeValue<V> value;
 
     public SBTreeEntry(long leftChild, long rightChild, K key, OSBTreeValue<V> value) {
+      this(leftChild, rightChild, 0, 0, key, value);
+    }
+
+    /**
+     * @param leftSize  Amount of keys in subtree of left child, stored only by buckets with subtree sizes.
+     * @param rightSize Amount of keys in subtree of right child, stored only by buckets with subtree sizes.
+     */
+    public SBTreeEntry(long leftChild, long rightChild, long leftSize, long rightSize, K key, OSBTreeValue<V> value) {
       this.leftChild = leftChild;
       this.rightChild = rightChild;
+      this.leftSize = leftSize;
+      this.rightSize = rightSize;
       this.key = key;
       this.value = value;
     }
@@ -449,6 +778,10 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
         return false;
       if (rightChild != that.rightChild)
         return false;
+      if (leftSize != that.leftSize)
+        return false;
+      if (rightSize != that.rightSize)
+        return false;
       if (!key.equals(that.key))
         return false;
       if (value != null) {
@@ -466,6 +799,8 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
     public int hashCode() {
       int result = (int) (leftChild ^ (leftChild >>> 32));
       result = 31 * result + (int) (rightChild ^ (rightChild >>> 32));
+      result = 31 * result + (int) (leftSize ^ (leftSize >>> 32));
+      result = 31 * result + (int) (rightSize ^ (rightSize >>> 32));
       result = 31 * result + key.hashCode();
       result = 31 * result + (value != null ? value.hashCode() : 0);
       return result;
@@ -473,7 +808,8 @@ public class OSBTreeBucket<K, V> extends ODurablePage {
 
     @Override
     public String toString() {
-      return "SBTreeEntry{" + "leftChild=" + leftChild + ", rightChild=" + rightChild + ", key=" + key + ", value=" + value + '}';
+      return "SBTreeEntry{" + "leftChild=" + leftChild + ", rightChild=" + rightChild + ", leftSize=" + leftSize + ", rightSize="
+          + rightSize + ", key=" + key + ", value=" + value + '}';
     }
 
     @Override
@@ -21,6 +21,7 @@
 package com.orientechnologies.orient.core.index.sbtreebonsai.local;
 
 import com.orientechnologies.common.comparator.ODefaultComparator;
+import com.orientechnologies.common.serialization.types.OBinaryComparator;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
 import com.orientechnologies.common.serialization.types.OByteSerializer;
 import com.orientechnologies.common.serialization.types.OIntegerSerializer;
@@ -202,13 +203,40 @@ public class OSBTreeBonsaiBucket<K, V> extends OBonsaiBucketAbstract {
   }
 
   public int find(K key) {
+    if (changes != null)
+      return find(key, null);
+
+    return find(key, serializeKeyForComparison(keySerializer, key));
+  }
+
+  /**
+   * Binary search of key inside of bucket. If key is serialized by {@link #serializeKeyForComparison(OBinarySerializer, Object)}
+   * and bucket is not changed inside of current atomic operation keys stored in bucket are compared with serialized key without
+   * deserialization, otherwise they are deserialized and compared as objects.
+   *
+   * @param key           Key to find.
+   * @param serializedKey Serialized presentation of the same key or <code>null</code>.
+   *
+   * @return Index of key or <code>-(insertion point + 1)</code> if key is absent.
+   */
+  public int find(K key, byte[] serializedKey) {
+    final OBinaryComparator binaryComparator;
+    if (serializedKey != null && changes == null)
+      binaryComparator = (OBinaryComparator) keySerializer;
+    else
+      binaryComparator = null;
+
     int low = 0;
     int high = size() - 1;
 
     while (low <= high) {
       int mid = (low + high) >>> 1;
-      K midVal = getKey(mid);
-      int cmp = comparator.compare(midVal, key);
+
+      final int cmp;
+      if (binaryComparator != null)
+        cmp = compareInDirectMemory(binaryComparator, getKeyPosition(mid), serializedKey);
+      else
+        cmp = comparator.compare(getKey(mid), key);
 
       if (cmp < 0)
         low = mid + 1;
@@ -284,12 +312,32 @@ public class OSBTreeBonsaiBucket<K, V> extends OBonsaiBucketAbstract {
   }
 
   public K getKey(int index) {
+    return deserializeFromDirectMemory(keySerializer, getKeyPosition(index));
+  }
+
+  private int getKeyPosition(int index) {
     int entryPosition = getIntValue(offset + index * OIntegerSerializer.INT_SIZE + POSITIONS_ARRAY_OFFSET);
 
     if (!isLeaf)
       entryPosition += 2 * (OLongSerializer.LONG_SIZE + OIntegerSerializer.INT_SIZE);
 
-    return deserializeFromDirectMemory(keySerializer, offset + entryPosition);
+    return offset + entryPosition;
+  }
+
+  /**
+   * Serializes key to compare it with keys stored in buckets by {@link #find(Object, byte[])}, so key may be serialized once and
+   * then used to search it in several buckets.
+   *
+   * @return Serialized key or <code>null</code> if key serializer does not support binary comparison of given key.
+   */
+  public static <K> byte[] serializeKeyForComparison(OBinarySerializer<K> keySerializer, K key) {
+    if (!(keySerializer instanceof OBinaryComparator) || !((OBinaryComparator) keySerializer).isBinaryComparable(key))
+      return null;
+
+    final byte[] serializedKey = new byte[keySerializer.getObjectSize(key)];
+    keySerializer.serializeNativeObject(key, serializedKey, 0);
+
+    return serializedKey;
   }
 
   public boolean isLeaf() {
@@ -1336,6 +1336,7 @@ public class OSBTreeBonsaiLocal<K, V> extends ODurableComponent implements OSBTr
   private BucketSearchResult findBucket(K key, OAtomicOperation atomicOperation) throws IOException {
     OBonsaiBucketPointer bucketPointer = rootBucketPointer;
     final ArrayList<OBonsaiBucketPointer> path = new ArrayList<OBonsaiBucketPointer>();
+    final byte[] serializedKey = OSBTreeBonsaiBucket.serializeKeyForComparison(keySerializer, key);
 
     while (true) {
       path.add(bucketPointer);
@@ -1346,7 +1347,7 @@ public class OSBTreeBonsaiLocal<K, V> extends ODurableComponent implements OSBTr
       try {
         final OSBTreeBonsaiBucket<K, V> keyBucket = new OSBTreeBonsaiBucket<K, V>(bucketEntry, bucketPointer.getPageOffset(),
             keySerializer, valueSerializer, getChanges(atomicOperation, bucketEntry), this);
-        final int index = keyBucket.find(key);
+        final int index = keyBucket.find(key, serializedKey);
 
         if (keyBucket.isLeaf())
           return new BucketSearchResult(index, path);
@@ -25,6 +25,7 @@ import com.orientechnologies.common.profiler.OProfiler;
 import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.cache.OCommandCache;
 import com.orientechnologies.orient.core.cache.OCommandCacheSoftRefs;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabase;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.exception.OSecurityException;
@@ -44,10 +45,12 @@ import com.orientechnologies.orient.core.metadata.security.OSecurityProxy;
 import com.orientechnologies.orient.core.metadata.sequence.OSequenceLibrary;
 import com.orientechnologies.orient.core.metadata.sequence.OSequenceLibraryImpl;
 import com.orientechnologies.orient.core.metadata.sequence.OSequenceLibraryProxy;
+import com.orientechnologies.orient.core.metadata.statistics.OStatisticsManager;
 import com.orientechnologies.orient.core.schedule.OScheduler;
 import com.orientechnologies.orient.core.schedule.OSchedulerImpl;
 import com.orientechnologies.orient.core.schedule.OSchedulerProxy;
 import com.orientechnologies.orient.core.security.OSecurityManager;
+import com.orientechnologies.orient.core.sql.OQueryPlanCache;
 import com.orientechnologies.orient.core.storage.OStorageProxy;
 
 import java.io.IOException;
@@ -69,6 +72,8 @@ public class OMetadataDefault implements OMetadataInternal {
   protected OSequenceLibraryProxy sequenceLibrary;
 
   protected OCommandCache          commandCache;
+  protected OStatisticsManager     statistics;
+  protected OQueryPlanCache        queryPlanCache;
   protected static final OProfiler PROFILER = Orient.instance().getProfiler();
 
   private OImmutableSchema          immutableSchema = null;
@@ -119,6 +124,16 @@ public class OMetadataDefault implements OMetadataInternal {
     return commandCache;
   }
 
+  @Override
+  public OStatisticsManager getStatistics() {
+    return statistics;
+  }
+
+  @Override
+  public OQueryPlanCache getQueryPlanCache() {
+    return queryPlanCache;
+  }
+
   @Override
   public void makeThreadLocalSchemaSnapshot() {
     if (this.immutableCount == 0) {
@@ -164,21 +179,23 @@ public class OMetadataDefault implements OMetadataInternal {
 
     final AtomicBoolean schemaLoaded = new AtomicBoolean(false);
 
-    schema = new OSchemaProxy(database.getStorage().getResource(OSchema.class.getSimpleName(), new Callable<OSchemaShared>() {
-      public OSchemaShared call() {
-        ODatabaseDocumentInternal database = getDatabase();
-        final OSchemaShared instance = new OSchemaShared(database.getStorageVersions().classesAreDetectedByClusterId());
-        if (iLoad)
-          instance.load();
+    final OSchemaShared sharedSchema = database.getStorage()
+        .getResource(OSchema.class.getSimpleName(), new Callable<OSchemaShared>() {
+          public OSchemaShared call() {
+            ODatabaseDocumentInternal database = getDatabase();
+            final OSchemaShared instance = new OSchemaShared(database.getStorageVersions().classesAreDetectedByClusterId());
+            if (iLoad)
+              instance.load();
 
-        schemaLoaded.set(true);
+            schemaLoaded.set(true);
 
-        return instance;
-      }
-    }), database);
+            return instance;
+          }
+        });
+    schema = new OSchemaProxy(sharedSchema, database);
 
-    indexManager = new OIndexManagerProxy(
-        database.getStorage().getResource(OIndexManager.class.getSimpleName(), new Callable<OIndexManager>() {
+    final OIndexManager sharedIndexManager = database.getStorage()
+        .getResource(OIndexManager.class.getSimpleName(), new Callable<OIndexManager>() {
           public OIndexManager call() {
             OIndexManager instance;
             if (database.getStorage() instanceof OStorageProxy)
@@ -196,7 +213,8 @@ public class OMetadataDefault implements OMetadataInternal {
 
             return instance;
           }
-        }), database);
+        });
+    indexManager = new OIndexManagerProxy(sharedIndexManager, database);
 
     security = new OSecurityProxy(database.getStorage().getResource(OSecurity.class.getSimpleName(),
         new Callable<OSecurity>() {
@@ -217,6 +235,25 @@ public class OMetadataDefault implements OMetadataInternal {
       }
     });
 
+    statistics = database.getStorage().getResource(OStatisticsManager.class.getSimpleName(), new Callable<OStatisticsManager>() {
+      public OStatisticsManager call() {
+        return new OStatisticsManager();
+      }
+    });
+
+    queryPlanCache = database.getStorage().getResource(OQueryPlanCache.class.getSimpleName(), new Callable<OQueryPlanCache>() {
+      public OQueryPlanCache call() {
+        final OQueryPlanCache instance = new OQueryPlanCache(database.getName(),
+            OGlobalConfiguration.QUERY_PLAN_CACHE_SIZE.getValueAsInteger());
+
+        // CACHED PLANS DEPEND ON CLASSES AND INDEXES: ANY CHANGE OF THEM INVALIDATES THE CACHE
+        sharedSchema.registerUpdateListener(instance);
+        if (sharedIndexManager instanceof OIndexManagerShared)
+          ((OIndexManagerShared) sharedIndexManager).registerUpdateListener(instance);
+        return instance;
+      }
+    });
+
     final Class<? extends OSecurity> securityClass = (Class<? extends OSecurity>) database
         .getProperty(ODatabase.OPTIONS.SECURITY.toString());
     if (securityClass != null)
@@ -17,6 +17,8 @@
 package com.orientechnologies.orient.core.metadata;
 
 import com.orientechnologies.orient.core.metadata.schema.OImmutableSchema;
+import com.orientechnologies.orient.core.metadata.statistics.OStatisticsManager;
+import com.orientechnologies.orient.core.sql.OQueryPlanCache;
 
 /**
  * Internal interface to manage metadata snapshots.
@@ -29,4 +31,14 @@ public interface OMetadataInternal extends OMetadata {
 
   OImmutableSchema getImmutableSchemaSnapshot();
 
+  /**
+   * @return Statistics of indexes used by query planner, shared between all connections to the same storage.
+   */
+  OStatisticsManager getStatistics();
+
+  /**
+   * @return Cache of the indexes chosen by the query planner, shared between all connections to the same storage.
+   */
+  OQueryPlanCache getQueryPlanCache();
+
 }
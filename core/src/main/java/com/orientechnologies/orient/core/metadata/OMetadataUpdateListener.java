@@ -0,0 +1,48 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.metadata;
+
+import com.orientechnologies.orient.core.index.OIndexManager;
+import com.orientechnologies.orient.core.metadata.schema.OSchemaShared;
+
+/**
+ * Listener notified when the shared schema or the shared index manager of a storage changes. It is used by the components that
+ * cache information depending on them, like the query plan cache.
+ * <p>
+ * Listeners are called by the thread which changed the metadata, so they should be fast and must not acquire metadata locks.
+ */
+public interface OMetadataUpdateListener {
+
+  /**
+   * Called after a change of the schema is completed or the schema is reloaded.
+   *
+   * @param schema
+   *          Changed schema.
+   */
+  void onSchemaUpdate(OSchemaShared schema);
+
+  /**
+   * Called after an index is added, dropped or the index manager is reloaded.
+   *
+   * @param indexManager
+   *          Changed index manager.
+   */
+  void onIndexManagerUpdate(OIndexManager indexManager);
+}
@@ -44,6 +44,7 @@ import com.orientechnologies.orient.core.id.ORecordId;
 import com.orientechnologies.orient.core.index.OIndex;
 import com.orientechnologies.orient.core.index.OIndexManager;
 import com.orientechnologies.orient.core.metadata.OMetadataDefault;
+import com.orientechnologies.orient.core.metadata.OMetadataUpdateListener;
 import com.orientechnologies.orient.core.metadata.schema.clusterselection.OClusterSelectionFactory;
 import com.orientechnologies.orient.core.metadata.security.ORole;
 import com.orientechnologies.orient.core.metadata.security.ORule;
@@ -58,6 +59,7 @@ import com.orientechnologies.orient.core.type.ODocumentWrapperNoClass;
 
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Shared schema class. It's shared by all the database instances that point to the same storage.
@@ -89,6 +91,7 @@ public class OSchemaShared extends ODocumentWrapperNoClass
   private Set<Integer>                             blobClusters            = new HashSet<Integer>();
   private volatile int                             version                 = 0;
   private volatile OImmutableSchema                snapshot;
+  private final List<OMetadataUpdateListener>      updateListeners         = new CopyOnWriteArrayList<OMetadataUpdateListener>();
 
   private static Set<String>                       internalClasses         = new HashSet<String>();
 
@@ -125,6 +128,26 @@ public class OSchemaShared extends ODocumentWrapperNoClass
       modificationCounter = new OModificationsCounter();
   }
 
+  /**
+   * Registers a listener called every time the schema changes.
+   */
+  public void registerUpdateListener(final OMetadataUpdateListener listener) {
+    updateListeners.add(listener);
+  }
+
+  public void unregisterUpdateListener(final OMetadataUpdateListener listener) {
+    updateListeners.remove(listener);
+  }
+
+  private void notifyUpdateListeners() {
+    for (OMetadataUpdateListener listener : updateListeners)
+      try {
+        listener.onSchemaUpdate(this);
+      } catch (Exception e) {
+        OLogManager.instance().error(this, "Error on notifying schema update to listener %s", e, listener);
+      }
+  }
+
   public static Character checkClassNameIfValid(String iName) throws OSchemaException {
     if (iName == null)
       throw new IllegalArgumentException("Name is null");
@@ -617,6 +640,7 @@ public class OSchemaShared extends ODocumentWrapperNoClass
   }
 
   public void releaseSchemaWriteLock(final boolean iSave) {
+    boolean changed = false;
     try {
       if (modificationCounter.get().intValue() == 1) {
         // if it is embedded storage modification of schema is done by internal methods otherwise it is done by
@@ -631,12 +655,16 @@ public class OSchemaShared extends ODocumentWrapperNoClass
           snapshot = new OImmutableSchema(this);
 
         version++;
+        changed = true;
       }
     } finally {
       rwSpinLock.releaseWriteLock();
       modificationCounter.get().decrement();
     }
 
+    if (changed)
+      notifyUpdateListeners();
+
     assert modificationCounter.get().intValue() >= 0;
 
     if (modificationCounter.get().intValue() == 0 && getDatabase().getStorage().getUnderlying() instanceof OStorageProxy) {
@@ -777,6 +805,8 @@ public class OSchemaShared extends ODocumentWrapperNoClass
       modificationCounter.get().decrement();
       rwSpinLock.releaseWriteLock();
     }
+
+    notifyUpdateListeners();
   }
 
   /**
@@ -0,0 +1,241 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.metadata.statistics;
+
+import com.orientechnologies.common.comparator.ODefaultComparator;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.index.OIndexDefinition;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Statistics of index content collected by the ANALYZE command: amount of entries, amount of distinct keys and, for indexes
+ * which support ordered iteration, equi-depth histogram of keys. Each bucket of histogram contains about the same amount of
+ * entries, so buckets are narrow where keys are dense and estimations stay accurate for skewed data.
+ * <p>
+ * Statistics are immutable snapshots. Estimations are scaled by ratio of current amount of keys of index to the amount of keys
+ * at the moment of analysis, so they follow growth of index without new analysis.
+ */
+public class OIndexStatistics {
+  private final String           indexName;
+  private final String           indexType;
+  private final OIndexDefinition definition;
+  private final long             entries;
+  private final long             distinctKeys;
+  private final long             analyzedOn;
+
+  private final Object   lowerBound;
+  private final Object[] upperBounds;
+  private final long[]   bucketEntries;
+  private final long[]   bucketDistinctKeys;
+
+  OIndexStatistics(OIndex<?> index, long entries, long distinctKeys, Object lowerBound, Object[] upperBounds,
+      long[] bucketEntries, long[] bucketDistinctKeys) {
+    this.indexName = index.getName();
+    this.indexType = index.getType();
+    this.definition = index.getDefinition();
+    this.entries = entries;
+    this.distinctKeys = distinctKeys;
+    this.analyzedOn = System.currentTimeMillis();
+
+    this.lowerBound = lowerBound;
+    this.upperBounds = upperBounds;
+    this.bucketEntries = bucketEntries;
+    this.bucketDistinctKeys = bucketDistinctKeys;
+  }
+
+  public String getIndexName() {
+    return indexName;
+  }
+
+  public long getEntries() {
+    return entries;
+  }
+
+  public long getDistinctKeys() {
+    return distinctKeys;
+  }
+
+  public long getAnalyzedOn() {
+    return analyzedOn;
+  }
+
+  public boolean hasHistogram() {
+    return upperBounds != null && upperBounds.length > 0;
+  }
+
+  /**
+   * @return <code>true</code> if statistics were collected for index with the same name, type and definition as passed in one,
+   *         so index was not recreated since analysis.
+   */
+  public boolean isValidFor(OIndex<?> index) {
+    return indexName.equals(index.getName()) && indexType.equals(index.getType()) && definition != null
+        && definition.equals(index.getDefinition());
+  }
+
+  /**
+   * @param key
+   *          Key which is already converted to the type of index key and collated.
+   * @param currentKeys
+   *          Current amount of keys of index.
+   *
+   * @return Estimated amount of entries which have given key.
+   */
+  public double estimateEquals(Object key, long currentKeys) {
+    if (key == null || entries == 0)
+      return 0;
+
+    return scale(equalEntries(key), currentKeys);
+  }
+
+  /**
+   * Estimates amount of entries in range of keys. <code>null</code> boundary means that range is not limited from the
+   * corresponding side.
+   *
+   * @return Estimated amount of entries or <code>-1</code> if there is no histogram for index.
+   */
+  public double estimateRange(Object keyFrom, boolean fromInclusive, Object keyTo, boolean toInclusive, long currentKeys) {
+    if (!hasHistogram())
+      return -1;
+
+    double from = 0;
+    if (keyFrom != null)
+      from = lessEntries(keyFrom) + (fromInclusive ? 0 : equalEntries(keyFrom));
+
+    double to = entries;
+    if (keyTo != null)
+      to = lessEntries(keyTo) + (toInclusive ? equalEntries(keyTo) : 0);
+
+    return scale(Math.max(to - from, 0), currentKeys);
+  }
+
+  public ODocument toDocument() {
+    final ODocument document = new ODocument();
+    document.field("index", indexName);
+    document.field("entries", entries);
+    document.field("distinctKeys", distinctKeys);
+    document.field("analyzedOn", new Date(analyzedOn));
+
+    if (hasHistogram()) {
+      final List<ODocument> buckets = new ArrayList<ODocument>(upperBounds.length);
+      for (int i = 0; i < upperBounds.length; i++) {
+        final ODocument bucket = new ODocument();
+        bucket.field("from", i == 0 ? lowerBound : upperBounds[i - 1]);
+        bucket.field("to", upperBounds[i]);
+        bucket.field("entries", bucketEntries[i]);
+        bucket.field("distinctKeys", bucketDistinctKeys[i]);
+        buckets.add(bucket);
+      }
+
+      document.field("histogram", buckets, OType.EMBEDDEDLIST);
+    }
+
+    return document;
+  }
+
+  private double scale(double value, long currentKeys) {
+    if (distinctKeys == 0 || currentKeys < 0)
+      return value;
+
+    return value * currentKeys / distinctKeys;
+  }
+
+  private double equalEntries(Object key) {
+    if (!hasHistogram())
+      return distinctKeys == 0 ? 0 : (double) entries / distinctKeys;
+
+    final int bucket = findBucket(key);
+    if (bucket < 0)
+      return 0;
+
+    return (double) bucketEntries[bucket] / Math.max(bucketDistinctKeys[bucket], 1);
+  }
+
+  private double lessEntries(Object key) {
+    if (compare(key, lowerBound) <= 0)
+      return 0;
+
+    double result = 0;
+    for (int i = 0; i < upperBounds.length; i++) {
+      final int compareWithUpper = compare(key, upperBounds[i]);
+      if (compareWithUpper > 0) {
+        result += bucketEntries[i];
+        continue;
+      }
+
+      if (compareWithUpper == 0)
+        return result + bucketEntries[i] - equalEntries(key);
+
+      final Object bucketLower = i == 0 ? lowerBound : upperBounds[i - 1];
+      return result + bucketEntries[i] * fraction(bucketLower, upperBounds[i], key);
+    }
+
+    return result;
+  }
+
+  /**
+   * @return Index of bucket which covers given key or <code>-1</code> if key is out of histogram range.
+   */
+  private int findBucket(Object key) {
+    if (compare(key, lowerBound) < 0)
+      return -1;
+
+    for (int i = 0; i < upperBounds.length; i++) {
+      if (compare(key, upperBounds[i]) <= 0)
+        return i;
+    }
+
+    return -1;
+  }
+
+  /**
+   * @return Part of bucket which precedes given key, calculated by linear interpolation for numbers and dates, otherwise key is
+   *         considered to be in the middle of bucket.
+   */
+  private static double fraction(Object lower, Object upper, Object key) {
+    final double lowerValue;
+    final double upperValue;
+    final double keyValue;
+
+    if (lower instanceof Number && upper instanceof Number && key instanceof Number) {
+      lowerValue = ((Number) lower).doubleValue();
+      upperValue = ((Number) upper).doubleValue();
+      keyValue = ((Number) key).doubleValue();
+    } else if (lower instanceof Date && upper instanceof Date && key instanceof Date) {
+      lowerValue = ((Date) lower).getTime();
+      upperValue = ((Date) upper).getTime();
+      keyValue = ((Date) key).getTime();
+    } else
+      return 0.5;
+
+    if (upperValue <= lowerValue)
+      return 0.5;
+
+    return Math.min(Math.max((keyValue - lowerValue) / (upperValue - lowerValue), 0), 1);
+  }
+
+  private static int compare(Object first, Object second) {
+    return ODefaultComparator.INSTANCE.compare(first, second);
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.metadata.statistics;
+
+import com.orientechnologies.common.comparator.ODefaultComparator;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.index.OIndexCursor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps statistics of indexes of database which are used by query planner to estimate selectivity of conditions. Statistics are
+ * collected on demand by the ANALYZE command and are kept in memory, one instance is shared between all connections to the same
+ * storage. Amount of records of classes is not stored because it is maintained by clusters and is always available.
+ *
+ * @see OIndexStatistics
+ */
+public class OStatisticsManager {
+  private final ConcurrentMap<String, OIndexStatistics> indexStatistics = new ConcurrentHashMap<String, OIndexStatistics>();
+
+  /**
+   * Collects statistics of given index, iterates over all index entries.
+   */
+  public OIndexStatistics analyze(final OIndex<?> index) {
+    final OIndexStatistics statistics;
+    if (index.supportsOrderedIterations())
+      statistics = collectHistogram(index, OGlobalConfiguration.QUERY_STATISTICS_HISTOGRAM_BUCKETS.getValueAsInteger());
+    else
+      statistics = new OIndexStatistics(index, index.getSize(), index.getKeySize(), null, null, null, null);
+
+    indexStatistics.put(index.getName().toLowerCase(), statistics);
+    return statistics;
+  }
+
+  /**
+   * @return Statistics of given index or <code>null</code> if index was not analyzed or was recreated after analysis.
+   */
+  public OIndexStatistics getIndexStatistics(final OIndex<?> index) {
+    final OIndexStatistics statistics = indexStatistics.get(index.getName().toLowerCase());
+    if (statistics == null)
+      return null;
+
+    if (!statistics.isValidFor(index)) {
+      indexStatistics.remove(index.getName().toLowerCase(), statistics);
+      return null;
+    }
+
+    return statistics;
+  }
+
+  public void removeIndexStatistics(final String indexName) {
+    indexStatistics.remove(indexName.toLowerCase());
+  }
+
+  public void clear() {
+    indexStatistics.clear();
+  }
+
+  private static OIndexStatistics collectHistogram(final OIndex<?> index, final int maxBuckets) {
+    final long bucketDepth = Math.max((index.getSize() + maxBuckets - 1) / Math.max(maxBuckets, 1), 1);
+
+    final List<Object> upperBounds = new ArrayList<Object>();
+    final List<Long> bucketEntries = new ArrayList<Long>();
+    final List<Long> bucketDistinctKeys = new ArrayList<Long>();
+
+    Object lowerBound = null;
+    Object previousKey = null;
+    long entries = 0;
+    long distinctKeys = 0;
+    long currentEntries = 0;
+    long currentDistinctKeys = 0;
+
+    final OIndexCursor cursor = index.cursor();
+    Map.Entry<Object, OIdentifiable> entry;
+    while ((entry = cursor.nextEntry()) != null) {
+      final Object key = entry.getKey();
+      if (key == null)
+        continue;
+
+      if (previousKey == null || ODefaultComparator.INSTANCE.compare(previousKey, key) != 0) {
+        // ENTRIES OF THE SAME KEY ARE NEVER SPLIT BETWEEN BUCKETS
+        if (currentEntries >= bucketDepth) {
+          upperBounds.add(previousKey);
+          bucketEntries.add(currentEntries);
+          bucketDistinctKeys.add(currentDistinctKeys);
+
+          currentEntries = 0;
+          currentDistinctKeys = 0;
+        }
+
+        if (lowerBound == null)
+          lowerBound = key;
+
+        distinctKeys++;
+        currentDistinctKeys++;
+      }
+
+      entries++;
+      currentEntries++;
+      previousKey = key;
+    }
+
+    if (currentEntries > 0) {
+      upperBounds.add(previousKey);
+      bucketEntries.add(currentEntries);
+      bucketDistinctKeys.add(currentDistinctKeys);
+    }
+
+    final long[] entriesArray = new long[bucketEntries.size()];
+    final long[] distinctKeysArray = new long[bucketDistinctKeys.size()];
+    for (int i = 0; i < entriesArray.length; i++) {
+      entriesArray[i] = bucketEntries.get(i);
+      distinctKeysArray[i] = bucketDistinctKeys.get(i);
+    }
+
+    return new OIndexStatistics(index, entries, distinctKeys, lowerBound, upperBounds.toArray(), entriesArray, distinctKeysArray);
+  }
+}
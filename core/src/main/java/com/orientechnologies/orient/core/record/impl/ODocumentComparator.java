@@ -55,58 +55,88 @@ public class ODocumentComparator implements Comparator<OIdentifiable> {
         + internal.get(ATTRIBUTES.LOCALELANGUAGE)));
   }
 
-  @SuppressWarnings("unchecked")
   public int compare(final OIdentifiable iDoc1, final OIdentifiable iDoc2) {
     if (iDoc1 != null && iDoc1.equals(iDoc2))
       return 0;
 
-    Object fieldValue1;
-    Object fieldValue2;
-
     int partialResult = 0;
 
     for (OPair<String, String> field : orderCriteria) {
       final String fieldName = field.getKey();
-      final String ordering = field.getValue();
 
-      fieldValue1 = ((ODocument) iDoc1.getRecord()).field(fieldName);
-      fieldValue2 = ((ODocument) iDoc2.getRecord()).field(fieldName);
+      partialResult = compareValues(((ODocument) iDoc1.getRecord()).field(fieldName),
+          ((ODocument) iDoc2.getRecord()).field(fieldName), field.getValue());
 
-      if (fieldValue1 == null && fieldValue2 == null) {
-        continue;
-      }
+      if (partialResult != 0)
+        break;
+
+      // CONTINUE WITH THE NEXT FIELD
+    }
 
-      if (fieldValue1 == null)
-        return factor(-1, ordering);
+    return partialResult;
+  }
 
-      if (fieldValue2 == null)
-        return factor(1, ordering);
+  /**
+   * Extracts values of the ordering fields of document, so document can be compared later without keeping it in memory.
+   *
+   * @see #compareValues(Object[], Object[])
+   */
+  public Object[] getValues(final OIdentifiable iDoc) {
+    final ODocument document = iDoc.getRecord();
 
-      if (!(fieldValue1 instanceof Comparable<?>)) {
-        context.incrementVariable(OBasicCommandContext.INVALID_COMPARE_COUNT);
-        partialResult = ("" + fieldValue1).compareTo("" + fieldValue2);
-      } else {
-        try {
-          if (collator != null && fieldValue1 instanceof String && fieldValue2 instanceof String)
-            partialResult = collator.compare(fieldValue1, fieldValue2);
-          else
-            partialResult = ((Comparable<Object>) fieldValue1).compareTo(fieldValue2);
-        } catch (Exception x) {
-          context.incrementVariable(OBasicCommandContext.INVALID_COMPARE_COUNT);
-          partialResult = collator.compare("" + fieldValue1, "" + fieldValue2);
-        }
-      }
-      partialResult = factor(partialResult, ordering);
+    final Object[] values = new Object[orderCriteria.size()];
+    for (int i = 0; i < values.length; i++)
+      values[i] = document.field(orderCriteria.get(i).getKey());
+
+    return values;
+  }
+
+  /**
+   * Compares values of the ordering fields previously extracted by {@link #getValues(OIdentifiable)}.
+   */
+  public int compareValues(final Object[] iValues1, final Object[] iValues2) {
+    int partialResult = 0;
+
+    for (int i = 0; i < iValues1.length; i++) {
+      partialResult = compareValues(iValues1[i], iValues2[i], orderCriteria.get(i).getValue());
 
       if (partialResult != 0)
         break;
-
-      // CONTINUE WITH THE NEXT FIELD
     }
 
     return partialResult;
   }
 
+  @SuppressWarnings("unchecked")
+  private int compareValues(final Object fieldValue1, final Object fieldValue2, final String ordering) {
+    if (fieldValue1 == null && fieldValue2 == null)
+      return 0;
+
+    if (fieldValue1 == null)
+      return factor(-1, ordering);
+
+    if (fieldValue2 == null)
+      return factor(1, ordering);
+
+    int partialResult;
+    if (!(fieldValue1 instanceof Comparable<?>)) {
+      context.incrementVariable(OBasicCommandContext.INVALID_COMPARE_COUNT);
+      partialResult = ("" + fieldValue1).compareTo("" + fieldValue2);
+    } else {
+      try {
+        if (collator != null && fieldValue1 instanceof String && fieldValue2 instanceof String)
+          partialResult = collator.compare(fieldValue1, fieldValue2);
+        else
+          partialResult = ((Comparable<Object>) fieldValue1).compareTo(fieldValue2);
+      } catch (Exception x) {
+        context.incrementVariable(OBasicCommandContext.INVALID_COMPARE_COUNT);
+        partialResult = collator.compare("" + fieldValue1, "" + fieldValue2);
+      }
+    }
+
+    return factor(partialResult, ordering);
+  }
+
   private int factor(final int partialResult, final String iOrdering) {
     if (iOrdering.equals(OCommandExecutorSQLSelect.KEYWORD_DESC))
       // INVERT THE ORDERING
@@ -30,6 +30,8 @@ import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.serialization.serializer.binary.impl.OLinkSerializer;
 import com.orientechnologies.orient.core.serialization.serializer.binary.impl.index.OCompositeKeySerializer;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.index.OIndexCoveringValueSerializer;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.index.ORidBitmapSerializer;
 import com.orientechnologies.orient.core.serialization.serializer.binary.impl.index.OSimpleKeySerializer;
 import com.orientechnologies.orient.core.serialization.serializer.stream.OStreamSerializerRID;
 import com.orientechnologies.orient.core.serialization.serializer.stream.OStreamSerializerSBTreeIndexRIDContainer;
@@ -78,6 +80,8 @@ public class OBinarySerializerFactory {
     factory.registerSerializer(ODecimalSerializer.INSTANCE, OType.DECIMAL);
 
     factory.registerSerializer(OStreamSerializerSBTreeIndexRIDContainer.INSTANCE, null);
+    factory.registerSerializer(OIndexCoveringValueSerializer.INSTANCE, null);
+    factory.registerSerializer(ORidBitmapSerializer.INSTANCE, null);
 
     // STATEFUL SERIALIER
     factory.registerSerializer(OSimpleKeySerializer.ID, OSimpleKeySerializer.class);
@@ -20,6 +20,7 @@
 
 package com.orientechnologies.orient.core.serialization.serializer.binary.impl;
 
+import com.orientechnologies.common.serialization.types.OBinaryComparator;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
 import com.orientechnologies.common.serialization.types.OLongSerializer;
 import com.orientechnologies.common.serialization.types.OShortSerializer;
@@ -29,6 +30,7 @@ import com.orientechnologies.orient.core.id.ORecordId;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALChanges;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import static com.orientechnologies.orient.core.serialization.OBinaryProtocol.bytes2long;
 import static com.orientechnologies.orient.core.serialization.OBinaryProtocol.bytes2short;
@@ -41,7 +43,7 @@ import static com.orientechnologies.orient.core.serialization.OBinaryProtocol.sh
  * @author Ilya Bershadskiy (ibersh20-at-gmail.com)
  * @since 07.02.12
  */
-public class OLinkSerializer implements OBinarySerializer<OIdentifiable> {
+public class OLinkSerializer implements OBinarySerializer<OIdentifiable>, OBinaryComparator {
   public static final  byte            ID               = 9;
   private static final int             CLUSTER_POS_SIZE = OLongSerializer.LONG_SIZE;
   public static final  int             RID_SIZE         = OShortSerializer.SHORT_SIZE + CLUSTER_POS_SIZE;
@@ -165,4 +167,35 @@ public class OLinkSerializer implements OBinarySerializer<OIdentifiable> {
   public int getObjectSizeInByteBuffer(ByteBuffer buffer, OWALChanges walChanges, int offset) {
     return RID_SIZE;
   }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean isBinaryComparable(Object key, Object... hints) {
+    return key instanceof OIdentifiable && ((OIdentifiable) key).getIdentity() != null;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Links are compared in the same way as {@link ORecordId#compareTo(OIdentifiable)} does it.
+   */
+  @Override
+  public int compareInByteBuffer(ByteBuffer buffer, int offset, byte[] key, int keyOffset) {
+    final int storedClusterId = buffer.getShort(offset);
+    final int clusterId = OShortSerializer.INSTANCE.deserializeNative(key, keyOffset);
+
+    if (storedClusterId != clusterId)
+      return storedClusterId > clusterId ? 1 : -1;
+
+    // cluster position is always stored in big endian byte order, see serializeNativeObject
+    long storedClusterPosition = buffer.getLong(offset + OShortSerializer.SHORT_SIZE);
+    if (buffer.order() != ByteOrder.BIG_ENDIAN)
+      storedClusterPosition = Long.reverseBytes(storedClusterPosition);
+
+    final long clusterPosition = OLongSerializer.INSTANCE.deserialize(key, keyOffset + OShortSerializer.SHORT_SIZE);
+
+    return (storedClusterPosition < clusterPosition) ? -1 : ((storedClusterPosition == clusterPosition) ? 0 : 1);
+  }
 }
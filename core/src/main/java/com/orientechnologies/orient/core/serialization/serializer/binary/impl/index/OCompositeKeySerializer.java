@@ -20,6 +20,8 @@
 
 package com.orientechnologies.orient.core.serialization.serializer.binary.impl.index;
 
+import com.orientechnologies.common.comparator.ODefaultComparator;
+import com.orientechnologies.common.serialization.types.OBinaryComparator;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
 import com.orientechnologies.common.serialization.types.OIntegerSerializer;
 import com.orientechnologies.common.serialization.types.ONullSerializer;
@@ -43,7 +45,7 @@ import java.util.List;
  * @author Andrey Lomakin
  * @since 29.07.11
  */
-public class OCompositeKeySerializer implements OBinarySerializer<OCompositeKey>, OStreamSerializer {
+public class OCompositeKeySerializer implements OBinarySerializer<OCompositeKey>, OStreamSerializer, OBinaryComparator {
 
   public static final String NAME = "cks";
 
@@ -393,4 +395,113 @@ public class OCompositeKeySerializer implements OBinarySerializer<OCompositeKey>
   public int getObjectSizeInByteBuffer(ByteBuffer buffer, OWALChanges walChanges, int offset) {
     return walChanges.getIntValue(buffer, offset);
   }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Composite key may be compared in binary form if serializers of all its not <code>null</code> items support binary
+   * comparison. Keys which contain {@link com.orientechnologies.orient.core.index.OAlwaysGreaterKey} or {@link
+   * com.orientechnologies.orient.core.index.OAlwaysLessKey} items are compared as objects.
+   */
+  @Override
+  public boolean isBinaryComparable(Object key, Object... hints) {
+    if (!(key instanceof OCompositeKey))
+      return false;
+
+    final OType[] types = getKeyTypes(hints);
+    final List<Object> keys = ((OCompositeKey) key).getKeys();
+
+    final OBinarySerializerFactory factory = OBinarySerializerFactory.getInstance();
+    for (int i = 0; i < keys.size(); i++) {
+      final Object item = keys.get(i);
+      if (item == null)
+        continue;
+
+      final OType type;
+      if (types.length > i)
+        type = types[i];
+      else
+        type = OType.getTypeByClass(item.getClass());
+
+      if (type == null)
+        return false;
+
+      final OBinarySerializer<?> binarySerializer = factory.getObjectSerializer(type);
+      if (!(binarySerializer instanceof OBinaryComparator) || !((OBinaryComparator) binarySerializer).isBinaryComparable(item))
+        return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Items are compared in the same way as {@link OCompositeKey#compareTo(OCompositeKey)} does it, so if one key is a prefix of
+   * other key they are treated as equal. Items which are stored using different serializers are deserialized and compared as
+   * objects.
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public int compareInByteBuffer(ByteBuffer buffer, int offset, byte[] key, int keyOffset) {
+    offset += OIntegerSerializer.INT_SIZE;
+    keyOffset += OIntegerSerializer.INT_SIZE;
+
+    final int storedKeysSize = buffer.getInt(offset);
+    final int keysSize = OIntegerSerializer.INSTANCE.deserializeNative(key, keyOffset);
+    final int commonSize = Math.min(storedKeysSize, keysSize);
+
+    offset += OIntegerSerializer.INT_SIZE;
+    keyOffset += OIntegerSerializer.INT_SIZE;
+
+    final OBinarySerializerFactory factory = OBinarySerializerFactory.getInstance();
+    for (int i = 0; i < commonSize; i++) {
+      final byte storedSerializerId = buffer.get(offset);
+      final byte serializerId = key[keyOffset];
+
+      offset += OBinarySerializerFactory.TYPE_IDENTIFIER_SIZE;
+      keyOffset += OBinarySerializerFactory.TYPE_IDENTIFIER_SIZE;
+
+      if (serializerId == ONullSerializer.ID) {
+        if (storedSerializerId != ONullSerializer.ID)
+          return 1;
+
+        continue;
+      }
+
+      if (storedSerializerId == ONullSerializer.ID)
+        return -1;
+
+      final OBinarySerializer<Object> binarySerializer = (OBinarySerializer<Object>) factory.getObjectSerializer(serializerId);
+      if (storedSerializerId == serializerId && binarySerializer instanceof OBinaryComparator) {
+        final int result = ((OBinaryComparator) binarySerializer).compareInByteBuffer(buffer, offset, key, keyOffset);
+        if (result != 0)
+          return result;
+
+        // equal items have equal size of serialized presentation
+        final int size = binarySerializer.getObjectSizeNative(key, keyOffset);
+        offset += size;
+        keyOffset += size;
+      } else {
+        final OBinarySerializer<Object> storedSerializer = (OBinarySerializer<Object>) factory
+            .getObjectSerializer(storedSerializerId);
+
+        final int position = buffer.position();
+        buffer.position(offset);
+        final Object storedItem = storedSerializer.deserializeFromByteBufferObject(buffer);
+        buffer.position(position);
+
+        final Object item = binarySerializer.deserializeNativeObject(key, keyOffset);
+
+        final int result = ODefaultComparator.INSTANCE.compare(storedItem, item);
+        if (result != 0)
+          return result;
+
+        offset += storedSerializer.getObjectSize(storedItem);
+        keyOffset += binarySerializer.getObjectSizeNative(key, keyOffset);
+      }
+    }
+
+    return 0;
+  }
 }
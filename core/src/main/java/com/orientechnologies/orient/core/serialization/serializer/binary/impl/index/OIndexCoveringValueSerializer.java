@@ -0,0 +1,163 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.serialization.serializer.binary.impl.index;
+
+import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.serialization.types.OBinaryTypeSerializer;
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.index.OIndexCoveringValue;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.OLinkSerializer;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALChanges;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Serializer of values of covering indexes. Value is stored as RID of the record followed by length prefixed content of the
+ * covered fields. Values which do not contain covered fields are stored with empty content and are deserialized as plain RIDs.
+ *
+ * @see OIndexCoveringValue
+ */
+public class OIndexCoveringValueSerializer implements OBinarySerializer<OIdentifiable> {
+  public static final byte                          ID       = 22;
+  public static final OIndexCoveringValueSerializer INSTANCE = new OIndexCoveringValueSerializer();
+
+  private static final byte[] EMPTY_FIELDS = new byte[0];
+
+  @Override
+  public int getObjectSize(OIdentifiable object, Object... hints) {
+    return OLinkSerializer.RID_SIZE + OBinaryTypeSerializer.INSTANCE.getObjectSize(fields(object));
+  }
+
+  @Override
+  public int getObjectSize(byte[] stream, int startPosition) {
+    return OLinkSerializer.RID_SIZE + OBinaryTypeSerializer.INSTANCE.getObjectSize(stream, startPosition + OLinkSerializer.RID_SIZE);
+  }
+
+  @Override
+  public void serialize(OIdentifiable object, byte[] stream, int startPosition, Object... hints) {
+    OLinkSerializer.INSTANCE.serialize(object.getIdentity(), stream, startPosition);
+    OBinaryTypeSerializer.INSTANCE.serialize(fields(object), stream, startPosition + OLinkSerializer.RID_SIZE);
+  }
+
+  @Override
+  public OIdentifiable deserialize(byte[] stream, int startPosition) {
+    final ORID rid = OLinkSerializer.INSTANCE.deserialize(stream, startPosition);
+    return value(rid, OBinaryTypeSerializer.INSTANCE.deserialize(stream, startPosition + OLinkSerializer.RID_SIZE));
+  }
+
+  @Override
+  public byte getId() {
+    return ID;
+  }
+
+  @Override
+  public boolean isFixedLength() {
+    return false;
+  }
+
+  @Override
+  public int getFixedLength() {
+    return 0;
+  }
+
+  @Override
+  public void serializeNativeObject(OIdentifiable object, byte[] stream, int startPosition, Object... hints) {
+    OLinkSerializer.INSTANCE.serializeNativeObject(object.getIdentity(), stream, startPosition);
+    OBinaryTypeSerializer.INSTANCE.serializeNativeObject(fields(object), stream, startPosition + OLinkSerializer.RID_SIZE);
+  }
+
+  @Override
+  public OIdentifiable deserializeNativeObject(byte[] stream, int startPosition) {
+    final ORID rid = OLinkSerializer.INSTANCE.deserializeNativeObject(stream, startPosition);
+    return value(rid, OBinaryTypeSerializer.INSTANCE.deserializeNativeObject(stream, startPosition + OLinkSerializer.RID_SIZE));
+  }
+
+  @Override
+  public int getObjectSizeNative(byte[] stream, int startPosition) {
+    return OLinkSerializer.RID_SIZE + OBinaryTypeSerializer.INSTANCE
+        .getObjectSizeNative(stream, startPosition + OLinkSerializer.RID_SIZE);
+  }
+
+  @Override
+  public OIdentifiable preprocess(OIdentifiable value, Object... hints) {
+    return value;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void serializeInByteBufferObject(OIdentifiable object, ByteBuffer buffer, Object... hints) {
+    OLinkSerializer.INSTANCE.serializeInByteBufferObject(object.getIdentity(), buffer);
+    OBinaryTypeSerializer.INSTANCE.serializeInByteBufferObject(fields(object), buffer);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public OIdentifiable deserializeFromByteBufferObject(ByteBuffer buffer) {
+    final ORID rid = OLinkSerializer.INSTANCE.deserializeFromByteBufferObject(buffer).getIdentity();
+    return value(rid, OBinaryTypeSerializer.INSTANCE.deserializeFromByteBufferObject(buffer));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getObjectSizeInByteBuffer(ByteBuffer buffer) {
+    return OLinkSerializer.RID_SIZE + buffer.getInt(buffer.position() + OLinkSerializer.RID_SIZE) + OIntegerSerializer.INT_SIZE;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public OIdentifiable deserializeFromByteBufferObject(ByteBuffer buffer, OWALChanges walChanges, int offset) {
+    final ORID rid = OLinkSerializer.INSTANCE.deserializeFromByteBufferObject(buffer, walChanges, offset).getIdentity();
+    return value(rid,
+        OBinaryTypeSerializer.INSTANCE.deserializeFromByteBufferObject(buffer, walChanges, offset + OLinkSerializer.RID_SIZE));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getObjectSizeInByteBuffer(ByteBuffer buffer, OWALChanges walChanges, int offset) {
+    return OLinkSerializer.RID_SIZE + OBinaryTypeSerializer.INSTANCE
+        .getObjectSizeInByteBuffer(buffer, walChanges, offset + OLinkSerializer.RID_SIZE);
+  }
+
+  private static byte[] fields(OIdentifiable object) {
+    if (object instanceof OIndexCoveringValue)
+      return ((OIndexCoveringValue) object).getFields();
+
+    return EMPTY_FIELDS;
+  }
+
+  private static OIdentifiable value(ORID rid, byte[] fields) {
+    if (fields.length == 0)
+      return rid;
+
+    return new OIndexCoveringValue(rid, fields);
+  }
+}
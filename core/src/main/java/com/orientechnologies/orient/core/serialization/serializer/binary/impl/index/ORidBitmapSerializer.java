@@ -0,0 +1,132 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.serialization.serializer.binary.impl.index;
+
+import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.serialization.types.OBinaryTypeSerializer;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.index.bitmap.ORidBitmap;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALChanges;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+
+/**
+ * Serializer of values of bitmap indexes. Value is stored as length prefixed content of {@link ORidBitmap}.
+ */
+public class ORidBitmapSerializer implements OBinarySerializer<Set<OIdentifiable>> {
+  public static final byte                 ID       = 23;
+  public static final ORidBitmapSerializer INSTANCE = new ORidBitmapSerializer();
+
+  @Override
+  public int getObjectSize(Set<OIdentifiable> object, Object... hints) {
+    return OBinaryTypeSerializer.INSTANCE.getObjectSize(((ORidBitmap) object).getSerializedSize());
+  }
+
+  @Override
+  public int getObjectSize(byte[] stream, int startPosition) {
+    return OBinaryTypeSerializer.INSTANCE.getObjectSize(stream, startPosition);
+  }
+
+  @Override
+  public void serialize(Set<OIdentifiable> object, byte[] stream, int startPosition, Object... hints) {
+    OBinaryTypeSerializer.INSTANCE.serialize(((ORidBitmap) object).toStream(), stream, startPosition);
+  }
+
+  @Override
+  public Set<OIdentifiable> deserialize(byte[] stream, int startPosition) {
+    return ORidBitmap.fromStream(OBinaryTypeSerializer.INSTANCE.deserialize(stream, startPosition));
+  }
+
+  @Override
+  public byte getId() {
+    return ID;
+  }
+
+  @Override
+  public boolean isFixedLength() {
+    return false;
+  }
+
+  @Override
+  public int getFixedLength() {
+    return 0;
+  }
+
+  @Override
+  public void serializeNativeObject(Set<OIdentifiable> object, byte[] stream, int startPosition, Object... hints) {
+    OBinaryTypeSerializer.INSTANCE.serializeNativeObject(((ORidBitmap) object).toStream(), stream, startPosition);
+  }
+
+  @Override
+  public Set<OIdentifiable> deserializeNativeObject(byte[] stream, int startPosition) {
+    return ORidBitmap.fromStream(OBinaryTypeSerializer.INSTANCE.deserializeNativeObject(stream, startPosition));
+  }
+
+  @Override
+  public int getObjectSizeNative(byte[] stream, int startPosition) {
+    return OBinaryTypeSerializer.INSTANCE.getObjectSizeNative(stream, startPosition);
+  }
+
+  @Override
+  public Set<OIdentifiable> preprocess(Set<OIdentifiable> value, Object... hints) {
+    return value;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void serializeInByteBufferObject(Set<OIdentifiable> object, ByteBuffer buffer, Object... hints) {
+    OBinaryTypeSerializer.INSTANCE.serializeInByteBufferObject(((ORidBitmap) object).toStream(), buffer);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Set<OIdentifiable> deserializeFromByteBufferObject(ByteBuffer buffer) {
+    return ORidBitmap.fromStream(OBinaryTypeSerializer.INSTANCE.deserializeFromByteBufferObject(buffer));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getObjectSizeInByteBuffer(ByteBuffer buffer) {
+    return OBinaryTypeSerializer.INSTANCE.getObjectSizeInByteBuffer(buffer);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public Set<OIdentifiable> deserializeFromByteBufferObject(ByteBuffer buffer, OWALChanges walChanges, int offset) {
+    return ORidBitmap.fromStream(OBinaryTypeSerializer.INSTANCE.deserializeFromByteBufferObject(buffer, walChanges, offset));
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public int getObjectSizeInByteBuffer(ByteBuffer buffer, OWALChanges walChanges, int offset) {
+    return OBinaryTypeSerializer.INSTANCE.getObjectSizeInByteBuffer(buffer, walChanges, offset);
+  }
+}
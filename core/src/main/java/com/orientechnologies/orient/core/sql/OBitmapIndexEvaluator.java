@@ -0,0 +1,230 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.sql;
+
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.index.OIndexBitmap;
+import com.orientechnologies.orient.core.index.OIndexDefinition;
+import com.orientechnologies.orient.core.index.OIndexDefinitionMultiValue;
+import com.orientechnologies.orient.core.index.OIndexInternal;
+import com.orientechnologies.orient.core.index.OIndexPredicate;
+import com.orientechnologies.orient.core.index.bitmap.ORidBitmap;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.sql.filter.OSQLFilterCondition;
+import com.orientechnologies.orient.core.sql.filter.OSQLFilterItem;
+import com.orientechnologies.orient.core.sql.filter.OSQLFilterItemField;
+import com.orientechnologies.orient.core.sql.filter.OSQLFilterItemParameter;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperator;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorAnd;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorEquals;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorIn;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorNot;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorOr;
+import com.orientechnologies.orient.core.sql.query.OSQLQuery;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Evaluates query condition using bitmap indexes only. Condition may consist of equality and IN operators on properties indexed
+ * by single field bitmap indexes joined by AND, OR and AND NOT operators. Bitmaps of keys are combined without loading of RIDs and
+ * the result contains exactly the records of the class which satisfy the condition.
+ *
+ * @see OIndexBitmap
+ */
+public class OBitmapIndexEvaluator {
+  private final OClass          schemaClass;
+  private final OCommandContext context;
+  private final Set<OIndex<?>>  usedIndexes = new LinkedHashSet<OIndex<?>>();
+
+  public OBitmapIndexEvaluator(final OClass schemaClass, final OCommandContext context) {
+    this.schemaClass = schemaClass;
+    this.context = context;
+  }
+
+  /**
+   * @return Set of records which satisfy passed in condition or <code>null</code> if condition can not be evaluated by bitmap
+   *         indexes.
+   */
+  public ORidBitmap evaluate(final OSQLFilterCondition condition) {
+    usedIndexes.clear();
+
+    final ORidBitmap result = evaluateItem(condition);
+    if (result == null) {
+      usedIndexes.clear();
+      return null;
+    }
+
+    return result.retainClusters(schemaClass.getPolymorphicClusterIds());
+  }
+
+  /**
+   * @return Indexes used during last successful evaluation.
+   */
+  public Set<OIndex<?>> getUsedIndexes() {
+    return Collections.unmodifiableSet(usedIndexes);
+  }
+
+  private ORidBitmap evaluateItem(final Object item) {
+    if (!(item instanceof OSQLFilterCondition))
+      return null;
+
+    final OSQLFilterCondition condition = (OSQLFilterCondition) item;
+    final OQueryOperator operator = condition.getOperator();
+
+    if (operator == null)
+      // CONDITION IN BRACKETS
+      return condition.getRight() == null ? evaluateItem(condition.getLeft()) : null;
+
+    if (operator instanceof OQueryOperatorAnd)
+      return evaluateAnd(condition.getLeft(), condition.getRight());
+
+    if (operator instanceof OQueryOperatorOr) {
+      final ORidBitmap left = evaluateItem(condition.getLeft());
+      if (left == null)
+        return null;
+
+      final ORidBitmap right = evaluateItem(condition.getRight());
+      return right == null ? null : left.or(right);
+    }
+
+    if (operator instanceof OQueryOperatorEquals) {
+      if (condition.getLeft() instanceof OSQLFilterItemField)
+        return lookup(condition.getLeft(), Collections.singletonList(condition.getRight()));
+
+      return lookup(condition.getRight(), Collections.singletonList(condition.getLeft()));
+    }
+
+    if (operator instanceof OQueryOperatorIn) {
+      final Object values = value(condition.getRight());
+      if (values instanceof Collection)
+        return lookup(condition.getLeft(), (Collection<?>) values);
+    }
+
+    return null;
+  }
+
+  private ORidBitmap evaluateAnd(final Object left, final Object right) {
+    // NEGATION IS EVALUATED ONLY AGAINST OTHER PART OF CONJUNCTION, COMPLEMENT OF THE WHOLE CLASS IS NEVER CALCULATED
+    if (isNegation(right)) {
+      if (isNegation(left))
+        return null;
+
+      return evaluateAndNot(left, right);
+    }
+
+    if (isNegation(left))
+      return evaluateAndNot(right, left);
+
+    final ORidBitmap leftResult = evaluateItem(left);
+    if (leftResult == null)
+      return null;
+
+    final ORidBitmap rightResult = evaluateItem(right);
+    return rightResult == null ? null : leftResult.and(rightResult);
+  }
+
+  private ORidBitmap evaluateAndNot(final Object positive, final Object negation) {
+    final ORidBitmap positiveResult = evaluateItem(positive);
+    if (positiveResult == null)
+      return null;
+
+    final ORidBitmap negatedResult = evaluateItem(((OSQLFilterCondition) negation).getLeft());
+    return negatedResult == null ? null : positiveResult.andNot(negatedResult);
+  }
+
+  private static boolean isNegation(final Object item) {
+    if (!(item instanceof OSQLFilterCondition))
+      return false;
+
+    final OSQLFilterCondition condition = (OSQLFilterCondition) item;
+    // "NOT IN" AND OTHER NEGATED OPERATORS HAVE RIGHT OPERAND
+    return condition.getOperator() instanceof OQueryOperatorNot && condition.getRight() == null
+        && condition.getLeft() instanceof OSQLFilterCondition;
+  }
+
+  private ORidBitmap lookup(final Object fieldItem, final Collection<?> valueItems) {
+    if (!(fieldItem instanceof OSQLFilterItemField))
+      return null;
+
+    final OSQLFilterItemField field = (OSQLFilterItemField) fieldItem;
+    if (!field.isFieldChain() || field.getFieldChain().isLong())
+      return null;
+
+    final OIndex<?> index = findIndex(field.getRoot());
+    if (index == null)
+      return null;
+
+    final OIndexBitmap bitmapIndex = (OIndexBitmap) index.getInternal();
+    final OIndexDefinition definition = index.getDefinition();
+
+    ORidBitmap result = new ORidBitmap();
+    for (Object valueItem : valueItems) {
+      final Object value = value(valueItem);
+      if (value == null || value instanceof Collection || value instanceof OSQLFilterItem || value instanceof OSQLFilterCondition
+          || value instanceof OSQLQuery)
+        return null;
+
+      final Object key = definition.createValue(Collections.singletonList(value));
+      if (key == null)
+        return null;
+
+      result = result.or(bitmapIndex.getBitmap(key));
+    }
+
+    usedIndexes.add(index);
+    return result;
+  }
+
+  private OIndex<?> findIndex(final String fieldName) {
+    final ODatabaseDocumentInternal database = ODatabaseRecordThreadLocal.INSTANCE.get();
+
+    for (OIndex<?> index : schemaClass.getInvolvedIndexes(fieldName)) {
+      final OIndexInternal<?> internal = index.getInternal();
+      if (!(internal instanceof OIndexBitmap) || index.isRebuilding())
+        continue;
+
+      final OIndexDefinition definition = index.getDefinition();
+      if (definition.getParamCount() != 1 || definition instanceof OIndexDefinitionMultiValue
+          || !definition.getFields().get(0).equalsIgnoreCase(fieldName) || OIndexPredicate.getPredicate(index) != null)
+        continue;
+
+      // CHANGES OF ACTIVE TRANSACTION ARE NOT VISIBLE IN STORED BITMAPS
+      if (database.getTransaction().isActive() && database.getTransaction().getIndexChanges(index.getName()) != null)
+        continue;
+
+      return index;
+    }
+
+    return null;
+  }
+
+  private Object value(final Object item) {
+    if (item instanceof OSQLFilterItemParameter)
+      return ((OSQLFilterItemParameter) item).getValue(null, null, context);
+
+    return item;
+  }
+}
@@ -127,6 +127,10 @@ public class OChainedIndexProxy<T> implements OIndex<T> {
     final Collection<Class<? extends OIndex>> indexTypes = new HashSet<Class<? extends OIndex>>(3);
 
     for (OIndex<?> involvedIndex : involvedIndexes) {
+      if (OIndexPredicate.getPredicate(involvedIndex) != null)
+        // PARTIAL INDEX DOES NOT CONTAIN ALL LINKED RECORDS
+        continue;
+
       if (!indexTypes.contains(involvedIndex.getInternal().getClass())) {
         result.add(involvedIndex);
         indexTypes.add(involvedIndex.getInternal().getClass());
@@ -161,6 +165,7 @@ public class OChainedIndexProxy<T> implements OIndex<T> {
    * <li>Should be unique or not unique. Other types cannot be used to get all documents with required links.</li>
    * <li>Should not be composite hash index. As soon as hash index does not support partial match search.</li>
    * <li>Composite index that ignores null values should not be used.</li>
+   * <li>Partial index should not be used.</li>
    * <li>Hash index is better than tree based indexes.</li>
    * <li>Non composite indexes is better that composite.</li>
    * </ul>
@@ -179,7 +184,7 @@ public class OChainedIndexProxy<T> implements OIndex<T> {
   }
 
   private static int priorityOfUsage(OIndex<?> index) {
-    if (index == null)
+    if (index == null || OIndexPredicate.getPredicate(index) != null)
       return -1;
 
     final OClass.INDEX_TYPE indexType = OClass.INDEX_TYPE.valueOf(index.getType());
@@ -205,6 +210,7 @@ public class OChainedIndexProxy<T> implements OIndex<T> {
       break;
     case UNIQUE:
     case NOTUNIQUE:
+    case BITMAP:
       priority += 5;
       break;
     case PROXY:
@@ -0,0 +1,149 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.sql;
+
+import com.orientechnologies.orient.core.command.OCommandDistributedReplicateRequest;
+import com.orientechnologies.orient.core.command.OCommandRequest;
+import com.orientechnologies.orient.core.command.OCommandRequestText;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocument;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.metadata.OMetadataInternal;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.metadata.security.ORole;
+import com.orientechnologies.orient.core.metadata.security.ORule;
+import com.orientechnologies.orient.core.metadata.statistics.OStatisticsManager;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL ANALYZE command: collects statistics of indexes which are used by query planner to estimate selectivity of conditions.
+ *
+ * @see OStatisticsManager
+ */
+public class OCommandExecutorSQLAnalyze extends OCommandExecutorSQLAbstract implements OCommandDistributedReplicateRequest {
+  public static final String KEYWORD_ANALYZE = "ANALYZE";
+  public static final String KEYWORD_CLASS   = "CLASS";
+  public static final String KEYWORD_INDEX   = "INDEX";
+
+  private String  name;
+  private boolean analyzeClass;
+
+  public OCommandExecutorSQLAnalyze parse(final OCommandRequest iRequest) {
+    final OCommandRequestText textRequest = (OCommandRequestText) iRequest;
+
+    String queryText = textRequest.getText();
+    String originalQuery = queryText;
+    try {
+      queryText = preParse(queryText, iRequest);
+      textRequest.setText(queryText);
+      init((OCommandRequestText) iRequest);
+
+      final StringBuilder word = new StringBuilder();
+
+      int oldPos = 0;
+      int pos = nextWord(parserText, parserTextUpperCase, oldPos, word, true);
+      if (pos == -1 || !word.toString().equals(KEYWORD_ANALYZE))
+        throw new OCommandSQLParsingException("Keyword " + KEYWORD_ANALYZE + " not found. Use " + getSyntax(), parserText, oldPos);
+
+      oldPos = pos;
+      pos = nextWord(parserText, parserTextUpperCase, pos, word, true);
+      if (pos == -1 || !(word.toString().equals(KEYWORD_CLASS) || word.toString().equals(KEYWORD_INDEX)))
+        throw new OCommandSQLParsingException("Keyword " + KEYWORD_CLASS + " or " + KEYWORD_INDEX + " not found. Use " + getSyntax(),
+            parserText, oldPos);
+
+      analyzeClass = word.toString().equals(KEYWORD_CLASS);
+
+      oldPos = pos;
+      pos = nextWord(parserText, parserTextUpperCase, oldPos, word, false);
+      if (pos == -1)
+        throw new OCommandSQLParsingException("Expected " + (analyzeClass ? "class" : "index") + " name", parserText, oldPos);
+
+      name = word.toString();
+
+    } finally {
+      textRequest.setText(originalQuery);
+    }
+
+    return this;
+  }
+
+  /**
+   * Execute the ANALYZE.
+   */
+  public Object execute(final Map<Object, Object> iArgs) {
+    if (name == null)
+      throw new OCommandExecutionException("Cannot execute the command because it has not been parsed yet");
+
+    final ODatabaseDocument database = getDatabase();
+    final OStatisticsManager statistics = ((OMetadataInternal) database.getMetadata()).getStatistics();
+
+    try {
+      if (analyzeClass) {
+        final OClass cls = database.getMetadata().getSchema().getClass(name);
+        if (cls == null)
+          throw new OCommandExecutionException("Class '" + name + "' not found");
+
+        database.checkSecurity(ORule.ResourceGeneric.CLASS, ORole.PERMISSION_READ, cls.getName());
+
+        final List<ODocument> indexes = new ArrayList<ODocument>();
+        for (OIndex<?> index : cls.getIndexes())
+          indexes.add(statistics.analyze(index).toDocument());
+
+        final ODocument result = new ODocument();
+        result.field("class", cls.getName());
+        result.field("records", cls.count());
+        result.field("indexes", indexes, OType.EMBEDDEDLIST);
+        return result;
+      }
+
+      if (name.equals("*")) {
+        final List<ODocument> result = new ArrayList<ODocument>();
+        for (OIndex<?> index : database.getMetadata().getIndexManager().getIndexes())
+          result.add(statistics.analyze(index).toDocument());
+
+        return result;
+      }
+
+      final OIndex<?> index = database.getMetadata().getIndexManager().getIndex(name);
+      if (index == null)
+        throw new OCommandExecutionException("Index '" + name + "' not found");
+
+      return statistics.analyze(index).toDocument();
+    } finally {
+      // PLANS CHOSEN WITH PREVIOUS STATISTICS COULD BE NOT OPTIMAL ANYMORE
+      ((OMetadataInternal) database.getMetadata()).getQueryPlanCache().invalidate();
+    }
+  }
+
+  @Override
+  public String getSyntax() {
+    return "ANALYZE CLASS <class-name> | ANALYZE INDEX <index-name>|*";
+  }
+
+  @Override
+  public QUORUM_TYPE getQuorumType() {
+    return QUORUM_TYPE.ALL;
+  }
+}
@@ -32,12 +32,14 @@ import com.orientechnologies.orient.core.metadata.schema.OClass;
 import com.orientechnologies.orient.core.metadata.schema.OClassImpl;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.filter.OSQLPredicate;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * SQL CREATE INDEX command: Create a new index against a property.
@@ -57,6 +59,8 @@ public class OCommandExecutorSQLCreateIndex extends OCommandExecutorSQLAbstract
   public static final String KEYWORD_ON       = "ON";
   public static final String KEYWORD_METADATA = "METADATA";
   public static final String KEYWORD_ENGINE   = "ENGINE";
+  public static final String KEYWORD_INCLUDE  = "INCLUDE";
+  public static final String KEYWORD_WHERE    = "WHERE";
 
   private String            indexName;
   private OClass            oClass;
@@ -67,6 +71,8 @@ public class OCommandExecutorSQLCreateIndex extends OCommandExecutorSQLAbstract
   private String            engine;
   private ODocument metadataDoc = null;
   private String[] collates;
+  private List<String> includeFields;
+  private String       predicate;
 
   public OCommandExecutorSQLCreateIndex parse(final OCommandRequest iRequest) {
     final OCommandRequestText textRequest = (OCommandRequestText) iRequest;
@@ -114,15 +120,14 @@ public class OCommandExecutorSQLCreateIndex extends OCommandExecutorSQLAbstract
         if (oClass == null)
           throw new OCommandExecutionException("Class " + word + " not found");
 
-        pos = parserTextUpperCase.indexOf(")");
+        pos = findClosingBracket(parserText, parserText.indexOf('(', oldPos));
         if (pos == -1) {
           throw new OCommandSQLParsingException("No right bracket found. Use " + getSyntax(), parserText, oldPos);
         }
 
         final String props = parserText.substring(oldPos, pos).trim().substring(1);
 
-        List<String> propList = new ArrayList<String>();
-        Collections.addAll(propList, OPatternConst.PATTERN_COMMA_SEPARATED.split(props.trim()));
+        final List<String> propList = splitFields(props.trim());
 
         fields = new String[propList.size()];
         propList.toArray(fields);
@@ -175,6 +180,37 @@ public class OCommandExecutorSQLCreateIndex extends OCommandExecutorSQLAbstract
       oldPos = pos;
       pos = nextWord(parserText, parserTextUpperCase, oldPos, word, true);
 
+      if (word.toString().equals(KEYWORD_INCLUDE) || word.toString().startsWith(KEYWORD_INCLUDE + "(")) {
+        final int openPos = parserText.indexOf('(', oldPos);
+        final int closePos = openPos > -1 ? parserText.indexOf(')', openPos) : -1;
+        if (closePos == -1)
+          throw new OCommandSQLParsingException("Expected list of included fields. Use " + getSyntax(), parserText, oldPos);
+
+        includeFields = new ArrayList<String>();
+        for (String includeField : OPatternConst.PATTERN_COMMA_SEPARATED.split(parserText.substring(openPos + 1, closePos).trim()))
+          includeFields.add(decodeClassName(includeField.trim()));
+
+        oldPos = closePos + 1;
+        pos = nextWord(parserText, parserTextUpperCase, oldPos, word, true);
+      }
+
+      if (word.toString().equals(KEYWORD_WHERE)) {
+        int wherePos = parserText.length();
+        final Matcher matcher = Pattern.compile("\\s(" + KEYWORD_ENGINE + "|" + KEYWORD_METADATA + ")\\s").matcher(parserTextUpperCase);
+        if (matcher.find(pos))
+          wherePos = matcher.start();
+
+        predicate = parserText.substring(pos, wherePos).trim();
+        if (predicate.isEmpty())
+          throw new OCommandSQLParsingException("Expected condition of partial index. Use " + getSyntax(), parserText, pos);
+
+        // CHECK SYNTAX OF THE CONDITION
+        new OSQLPredicate(predicate);
+
+        oldPos = wherePos;
+        pos = nextWord(parserText, parserTextUpperCase, oldPos, word, true);
+      }
+
       if (word.toString().equals(KEYWORD_ENGINE)) {
         oldPos = pos;
         pos = nextWord(parserText, parserTextUpperCase, oldPos, word, false);
@@ -190,6 +226,20 @@ public class OCommandExecutorSQLCreateIndex extends OCommandExecutorSQLAbstract
         metadataDoc = new ODocument().fromJSON(configString);
       }
 
+      if (includeFields != null) {
+        if (metadataDoc == null)
+          metadataDoc = new ODocument();
+
+        metadataDoc.field(OIndex.INCLUDE_FIELDS, includeFields);
+      }
+
+      if (predicate != null) {
+        if (metadataDoc == null)
+          metadataDoc = new ODocument();
+
+        metadataDoc.field(OIndex.PREDICATE, predicate);
+      }
+
       pos = nextWord(parserText, parserTextUpperCase, oldPos, word, true);
       if (pos != -1 && !word.toString().equalsIgnoreCase("NULL") && !word.toString().equalsIgnoreCase(KEYWORD_METADATA)) {
         final String typesString;
@@ -279,7 +329,7 @@ public class OCommandExecutorSQLCreateIndex extends OCommandExecutorSQLAbstract
         final List<OType> fieldTypeList;
         if (keyTypes == null) {
           for (final String fieldName : fields) {
-            if (!fieldName.equals("@rid") && !oClass.existsProperty(fieldName))
+            if (!fieldName.equals("@rid") && !oClass.existsProperty(OIndexDefinitionFactory.extractFieldName(fieldName)))
               throw new OIndexException("Index with name : '" + indexName + "' cannot be created on class : '" + oClass.getName() + "' because field: '" + fieldName + "' is absent in class definition.");
           }
           fieldTypeList = ((OClassImpl) oClass).extractFieldTypes(fields);
@@ -307,14 +357,72 @@ public class OCommandExecutorSQLCreateIndex extends OCommandExecutorSQLAbstract
 
   @Override
   public String getSyntax() {
-    return "CREATE INDEX <name> [ON <class-name> (prop-names [COLLATE <collate>])] <type> [<key-type>] [ENGINE <engine>] [METADATA {JSON Index Metadata Document}]";
+    return "CREATE INDEX <name> [ON <class-name> (prop-names|expression [COLLATE <collate>])] <type> [INCLUDE (field-names)] [WHERE <condition>] [<key-type>] [ENGINE <engine>] [METADATA {JSON Index Metadata Document}]";
   }
 
   private OClass findClass(String part) {
     return getDatabase().getMetadata().getSchema().getClass(part);
   }
 
+  /**
+   * Finds bracket which closes the one at passed in position, brackets of expressions and quoted text are skipped.
+   */
+  private static int findClosingBracket(final String text, final int openPos) {
+    if (openPos == -1)
+      return -1;
+
+    int depth = 0;
+    char quote = 0;
+    for (int i = openPos; i < text.length(); i++) {
+      final char c = text.charAt(i);
+      if (quote != 0) {
+        if (c == quote)
+          quote = 0;
+      } else if (c == '\'' || c == '"')
+        quote = c;
+      else if (c == '(')
+        depth++;
+      else if (c == ')' && --depth == 0)
+        return i;
+    }
+
+    return -1;
+  }
+
+  /**
+   * Splits list of indexed fields by commas which are not part of expressions, like <code>date.format('yyyy-MM', 'UTC')</code>.
+   */
+  private static List<String> splitFields(final String fields) {
+    final List<String> result = new ArrayList<String>();
+
+    int depth = 0;
+    char quote = 0;
+    int start = 0;
+    for (int i = 0; i < fields.length(); i++) {
+      final char c = fields.charAt(i);
+      if (quote != 0) {
+        if (c == quote)
+          quote = 0;
+      } else if (c == '\'' || c == '"')
+        quote = c;
+      else if (c == '(')
+        depth++;
+      else if (c == ')')
+        depth--;
+      else if (c == ',' && depth == 0) {
+        result.add(fields.substring(start, i).trim());
+        start = i + 1;
+      }
+    }
+    result.add(fields.substring(start).trim());
+
+    return result;
+  }
+
   private void checkMapIndexSpecifier(final String fieldName, final String text, final int pos) {
+    if (OIndexDefinitionFactory.isExpression(fieldName))
+      return;
+
     final String[] fieldNameParts = OPatternConst.PATTERN_SPACES.split(fieldName);
     if (fieldNameParts.length == 1)
       return;
@@ -50,6 +50,7 @@ import com.orientechnologies.orient.core.id.OContextualRecordId;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.id.ORecordId;
 import com.orientechnologies.orient.core.index.*;
+import com.orientechnologies.orient.core.index.bitmap.ORidBitmap;
 import com.orientechnologies.orient.core.iterator.OIdentifiableIterator;
 import com.orientechnologies.orient.core.iterator.ORecordIteratorClass;
 import com.orientechnologies.orient.core.iterator.ORecordIteratorCluster;
@@ -69,6 +70,7 @@ import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.record.impl.ODocumentHelper;
 import com.orientechnologies.orient.core.serialization.serializer.OStringSerializerHelper;
 import com.orientechnologies.orient.core.sql.filter.*;
+import com.orientechnologies.orient.core.sql.functions.OSQLFunctionMergeable;
 import com.orientechnologies.orient.core.sql.functions.OSQLFunctionRuntime;
 import com.orientechnologies.orient.core.sql.functions.coll.OSQLFunctionDistinct;
 import com.orientechnologies.orient.core.sql.functions.misc.OSQLFunctionCount;
@@ -85,6 +87,8 @@ import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -110,7 +114,6 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
   public static final  String KEYWORD_NOCACHE               = "NOCACHE";
   private static final String KEYWORD_AS                    = "AS";
   private static final String KEYWORD_PARALLEL              = "PARALLEL";
-  private static final int    PARTIAL_SORT_BUFFER_THRESHOLD = 10000;
 
   private static class AsyncResult {
     final OIdentifiable   record;
@@ -124,6 +127,10 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
 
   private static final AsyncResult PARALLEL_END_EXECUTION_THREAD = new AsyncResult(null, null);
 
+  // RANGES OF CLUSTER POSITIONS SCANNED BY PARALLEL QUERY: MORE RANGES THAN THREADS TO BALANCE THE LOAD BETWEEN THREADS
+  private static final int  PARALLEL_RANGES_PER_THREAD = 4;
+  private static final long PARALLEL_MIN_RANGE_SIZE    = 1000;
+
   private final OOrderByOptimizer           orderByOptimizer     = new OOrderByOptimizer();
   private final OMetricRecorder             metricRecorder       = new OMetricRecorder();
   private final OFilterOptimizer            filterOptimizer      = new OFilterOptimizer();
@@ -141,6 +148,11 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
   private OIdentifiable lastRecord;
   private String        fetchPlan;
   private boolean          fullySortedByIndex = false;
+  private boolean          fullScanChosen     = false;
+  private OTopKResultCollector topKResult;
+  private OExternalSort        externalSort;
+  private OGroupBySpill        groupBySpill;
+  private int                  groupBySpillLevel  = 0;
   private LOCKING_STRATEGY lockingStrategy    = LOCKING_STRATEGY.DEFAULT;
 
   private          Boolean isAnyFunctionAggregates = null;
@@ -148,10 +160,14 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
   private volatile boolean parallelRunning;
   private final ArrayBlockingQueue<AsyncResult> resultQueue = new ArrayBlockingQueue<AsyncResult>(
       OGlobalConfiguration.QUERY_PARALLEL_RESULT_QUEUE_SIZE.getValueAsInteger());
+  // GROUPS AGGREGATED BY THE CURRENT THREAD OF PARALLEL QUERY, THEY ARE MERGED WHEN ALL THE THREADS END
+  private final ThreadLocal<ConcurrentMap<Object, ORuntimeResult>> partialGroupedResult =
+      new ThreadLocal<ConcurrentMap<Object, ORuntimeResult>>();
 
   private ConcurrentHashMap<ORID, ORID> uniqueResult;
   private boolean noCache           = false;
   private int     tipLimitThreshold = OGlobalConfiguration.QUERY_LIMIT_THRESHOLD_TIP.getValueAsInteger();
+  private int     spillThreshold    = OGlobalConfiguration.QUERY_SPILL_THRESHOLD.getValueAsInteger();
   private String  NULL_VALUE        = "null";
 
   private AtomicLong tmpQueueOffer = new AtomicLong();
@@ -172,6 +188,42 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
     }
   }
 
+  /**
+   * Index which may be used to evaluate one of variants of the condition, together with estimated amount of records returned by
+   * its cursor and cost of its usage. Candidates with unknown estimations are considered the most expensive ones.
+   * <p>
+   * If amount of records is estimated by index statistics, cursor is opened only when candidate is chosen.
+   *
+   * @see OQueryCostModel
+   */
+  private static final class IndexCandidate {
+    final OIndexSearchResult searchResult;
+    final IndexUsageLog      usageLog;
+    final long               indexRebuildVersion;
+    final boolean            usedInOrderBy;
+    final long               estimatedRows;
+    final double             cost;
+
+    OIndexCursor cursor;
+
+    IndexCandidate(OIndexSearchResult searchResult, OIndexCursor cursor, IndexUsageLog usageLog, long indexRebuildVersion,
+        boolean usedInOrderBy, long estimatedRows, boolean sortRequired) {
+      this.searchResult = searchResult;
+      this.cursor = cursor;
+      this.usageLog = usageLog;
+      this.indexRebuildVersion = indexRebuildVersion;
+      this.usedInOrderBy = usedInOrderBy;
+      this.estimatedRows = estimatedRows;
+
+      if (estimatedRows < 0)
+        cost = Double.MAX_VALUE;
+      else if (sortRequired && !usedInOrderBy)
+        cost = OQueryCostModel.indexCost(estimatedRows) + OQueryCostModel.sortCost(estimatedRows);
+      else
+        cost = OQueryCostModel.indexCost(estimatedRows);
+    }
+  }
+
   private final class IndexComparator implements Comparator<OIndex<?>> {
     public int compare(final OIndex<?> indexOne, final OIndex<?> indexTwo) {
       final OIndexDefinition definitionOne = indexOne.getDefinition();
@@ -448,14 +500,18 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
     final Iterator<OIdentifiable> subIterator;
     if (target == null) {
       // GET THE RESULT
-      executeSearch(iArgs);
-      applyExpand();
-      handleNoTarget();
-      handleGroupBy(context);
-      applyOrderBy(true);
-      applyLimitAndSkip();
-
-      subIterator = new ArrayList<OIdentifiable>((List<OIdentifiable>) getResult()).iterator();
+      try {
+        executeSearch(iArgs);
+        applyExpand();
+        handleNoTarget();
+        handleGroupBy(context);
+        applyOrderBy(true);
+        applyLimitAndSkip();
+
+        subIterator = new ArrayList<OIdentifiable>((List<OIdentifiable>) getResult()).iterator();
+      } finally {
+        releaseSpilledResults();
+      }
       lastRecord = null;
       tempResult = null;
       groupedResult.clear();
@@ -482,17 +538,21 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
       getContext().beginExecution(timeoutMs, timeoutStrategy);
     }
 
-    if (!optimizeExecution()) {
-      fetchLimit = getQueryFetchLimit();
+    try {
+      if (!optimizeExecution()) {
+        fetchLimit = getQueryFetchLimit();
 
-      executeSearch(iArgs);
-      applyExpand();
-      handleNoTarget();
-      handleGroupBy(context);
-      applyOrderBy(true);
-      applyLimitAndSkip();
+        executeSearch(iArgs);
+        applyExpand();
+        handleNoTarget();
+        handleGroupBy(context);
+        applyOrderBy(true);
+        applyLimitAndSkip();
+      }
+      return getResult();
+    } finally {
+      releaseSpilledResults();
     }
-    return getResult();
   }
 
   public Map<String, Object> getProjections() {
@@ -610,12 +670,18 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
       iContext.setVariable("current", record);
 
       if (filter(record, iContext)) {
+        iContext.updateMetric("actualRows", +1);
+
         if (callHooks) {
           ((ODatabaseDocumentInternal) getDatabase()).callbackHooks(ORecordHook.TYPE.BEFORE_READ, record);
           ((ODatabaseDocumentInternal) getDatabase()).callbackHooks(ORecordHook.TYPE.AFTER_READ, record);
         }
 
-        if (parallel) {
+        final ConcurrentMap<Object, ORuntimeResult> partialGroups = parallel ? partialGroupedResult.get() : null;
+        if (partialGroups != null) {
+          // AGGREGATED BY THE CURRENT THREAD ONLY, THE RECORD IS NOT NEEDED BY THE MAIN THREAD
+          applyGroupBy(record, iContext, partialGroups);
+        } else if (parallel) {
           try {
             applyGroupBy(record, iContext);
             resultQueue.put(new AsyncResult(record, iContext));
@@ -740,23 +806,90 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
         for (OIdentifiable iRes : allResults) {
           result = pushResult(iRes);
         }
-    } else {
+    } else if (isTopKOrderBy()) {
 
-      // COLLECT ALL THE RECORDS AND ORDER THEM AT THE END
-      if (tempResult == null)
-        tempResult = new ArrayList<OIdentifiable>();
+      // COLLECT ONLY THE BEST SKIP + LIMIT RECORDS, THEY ARE ORDERED AT THE END
+      if (topKResult == null)
+        topKResult = new OTopKResultCollector((int) Math.min((long) limit + skip, Integer.MAX_VALUE), orderedFields, iContext);
 
-      applyPartialOrderBy();
+      for (OIdentifiable iRes : allResults) {
+        topKResult.add(iRes);
+      }
+    } else {
 
+      // COLLECT ALL THE RECORDS AND ORDER THEM AT THE END
       for (OIdentifiable iRes : allResults) {
-        ((Collection<OIdentifiable>) tempResult).add(iRes);
+        collectResult(iRes);
       }
     }
 
     return result;
   }
 
+  /**
+   * Collects result which is returned at the end of execution. If results have to be ordered and their amount exceeds the spill
+   * threshold they are moved to external sort which keeps them on disk.
+   */
+  private void collectResult(final OIdentifiable iResult) {
+    if (externalSort != null) {
+      externalSort.add(iResult);
+      return;
+    }
+
+    if (tempResult == null)
+      tempResult = new ArrayList<OIdentifiable>();
+
+    ((Collection<OIdentifiable>) tempResult).add(iResult);
+
+    if (spillThreshold > 0 && tempResult instanceof List && ((List<OIdentifiable>) tempResult).size() >= spillThreshold
+        && isExternalSortApplicable()) {
+      externalSort = new OExternalSort(spillThreshold, orderedFields, context);
+      for (OIdentifiable o : tempResult) {
+        externalSort.add(o);
+      }
+      tempResult = null;
+    }
+  }
+
+  private boolean isExternalSortApplicable() {
+    return expandTarget == null && !orderedFields.isEmpty() && !fullySortedByIndex && !isRidOnlySort();
+  }
+
+  /**
+   * Spilling of GROUP BY replays input records, so it is not used if groups depend on context of the record.
+   */
+  private boolean isGroupBySpillApplicable() {
+    if (spillThreshold <= 0 || groupBySpillLevel >= OGroupBySpill.MAX_LEVEL || parallel || groupByFields == null
+        || groupByFields.isEmpty() || (let != null && !let.isEmpty()))
+      return false;
+
+    for (String field : groupByFields) {
+      if (field == null || field.startsWith("$"))
+        return false;
+    }
+
+    return true;
+  }
+
+  private void releaseSpilledResults() {
+    if (externalSort != null) {
+      externalSort.close();
+      externalSort = null;
+    }
+
+    if (groupBySpill != null) {
+      groupBySpill.close();
+      groupBySpill = null;
+    }
+    groupBySpillLevel = 0;
+  }
+
   private ODocument applyGroupBy(final OIdentifiable iRecord, final OCommandContext iContext) {
+    return applyGroupBy(iRecord, iContext, groupedResult);
+  }
+
+  private ODocument applyGroupBy(final OIdentifiable iRecord, final OCommandContext iContext,
+      final ConcurrentMap<Object, ORuntimeResult> groups) {
     if (!aggregate)
       return null;
 
@@ -787,7 +920,19 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
       }
     }
 
-    return getProjectionGroup(fieldValue, iContext).applyRecord(iRecord);
+    if (groups.size() >= spillThreshold && isGroupBySpillApplicable()) {
+      final Object key = getGroupKey(fieldValue);
+      if (!groups.containsKey(key)) {
+        // NO ROOM FOR NEW GROUPS: AGGREGATE THEM LATER
+        if (groupBySpill == null)
+          groupBySpill = new OGroupBySpill(groupBySpillLevel);
+
+        groupBySpill.add(key, iRecord);
+        return null;
+      }
+    }
+
+    return getProjectionGroup(fieldValue, iContext, groups).applyRecord(iRecord);
   }
 
   private boolean allowsStreamedResult() {
@@ -795,25 +940,12 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
   }
 
   /**
-   * in case of ORDER BY + SKIP + LIMIT, this method applies ORDER BY operation on partial result and discards overflowing results
-   * (results > skip + limit)
+   * in case of ORDER BY + SKIP + LIMIT, only the first skip + limit results are kept in bounded heap instead of collecting and
+   * sorting all of them
    */
-  private void applyPartialOrderBy() {
-    if (expandTarget != null || (unwindFields != null && unwindFields.size() > 0) || orderedFields.isEmpty() || fullySortedByIndex
-        || isRidOnlySort()) {
-      return;
-    }
-
-    if (limit > 0) {
-      int sortBufferSize = limit + 1;
-      if (skip > 0) {
-        sortBufferSize += skip;
-      }
-      if (tempResult instanceof List && ((List) tempResult).size() >= sortBufferSize + PARTIAL_SORT_BUFFER_THRESHOLD) {
-        applyOrderBy(false);
-        tempResult = new ArrayList(((List) tempResult).subList(0, sortBufferSize));
-      }
-    }
+  private boolean isTopKOrderBy() {
+    return limit > 0 && expandTarget == null && (unwindFields == null || unwindFields.isEmpty()) && !orderedFields.isEmpty()
+        && !fullySortedByIndex && !isRidOnlySort() && (spillThreshold <= 0 || (long) limit + skip <= spillThreshold);
   }
 
   private Collection<OIdentifiable> unwind(final OIdentifiable iRecord, final List<String> unwindFields,
@@ -872,44 +1004,25 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
   }
 
   protected ORuntimeResult getProjectionGroup(final Object fieldValue, final OCommandContext iContext) {
+    return getProjectionGroup(fieldValue, iContext, groupedResult);
+  }
+
+  private ORuntimeResult getProjectionGroup(final Object fieldValue, final OCommandContext iContext,
+      final ConcurrentMap<Object, ORuntimeResult> groups) {
     final long projectionElapsed = (Long) context.getVariable("projectionElapsed", 0l);
     final long begin = System.currentTimeMillis();
     try {
 
       aggregate = true;
 
-      Object key;
-
-      if (fieldValue != null) {
-        if (fieldValue.getClass().isArray()) {
-          // LOOK IT BY HASH (FASTER THAN COMPARE EACH SINGLE VALUE)
-          final Object[] array = (Object[]) fieldValue;
-
-          final StringBuilder keyArray = new StringBuilder();
-          for (Object o : array) {
-            if (keyArray.length() > 0) {
-              keyArray.append(",");
-            }
-            if (o != null) {
-              keyArray.append(o instanceof OIdentifiable ? ((OIdentifiable) o).getIdentity().toString() : o.toString());
-            } else {
-              keyArray.append(NULL_VALUE);
-            }
-          }
-
-          key = keyArray.toString();
-        } else {
-          // LOOKUP FOR THE FIELD
-          key = fieldValue;
-        }
-      } else
-        // USE NULL_VALUE THEN REPLACE WITH REAL NULL
-        key = NULL_VALUE;
+      final Object key = getGroupKey(fieldValue);
 
-      ORuntimeResult group = groupedResult.get(key);
+      ORuntimeResult group = groups.get(key);
       if (group == null) {
-        group = new ORuntimeResult(fieldValue, createProjectionFromDefinition(), getTemporaryRIDCounter(iContext), context);
-        final ORuntimeResult prev = groupedResult.putIfAbsent(key, group);
+        // PARTIAL GROUPS OF PARALLEL QUERY ARE USED BY ONE THREAD ONLY: THEY USE ITS CONTEXT
+        final OCommandContext groupContext = groups == groupedResult ? context : iContext;
+        group = new ORuntimeResult(fieldValue, createProjectionFromDefinition(), getTemporaryRIDCounter(iContext), groupContext);
+        final ORuntimeResult prev = groups.putIfAbsent(key, group);
         if (prev != null)
           // ALREADY EXISTENT: USE THIS
           group = prev;
@@ -921,6 +1034,35 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
     }
   }
 
+  private Object getGroupKey(final Object fieldValue) {
+    if (fieldValue != null) {
+      if (fieldValue.getClass().isArray()) {
+        // LOOK IT BY HASH (FASTER THAN COMPARE EACH SINGLE VALUE)
+        final Object[] array = (Object[]) fieldValue;
+
+        final StringBuilder keyArray = new StringBuilder();
+        for (Object o : array) {
+          if (keyArray.length() > 0) {
+            keyArray.append(",");
+          }
+          if (o != null) {
+            keyArray.append(o instanceof OIdentifiable ? ((OIdentifiable) o).getIdentity().toString() : o.toString());
+          } else {
+            keyArray.append(NULL_VALUE);
+          }
+        }
+
+        return keyArray.toString();
+      }
+
+      // LOOKUP FOR THE FIELD
+      return fieldValue;
+    }
+
+    // USE NULL_VALUE THEN REPLACE WITH REAL NULL
+    return NULL_VALUE;
+  }
+
   protected void parseGroupBy() {
     parserRequiredKeyword(KEYWORD_BY);
 
@@ -998,7 +1140,7 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
     final String className = parsedTarget.getTargetClasses().keySet().iterator().next();
 
     final OClass cls = getDatabase().getMetadata().getSchema().getClass(className);
-    if (!searchForIndexes(cls) && !searchForSubclassIndexes(cls)) {
+    if (!searchForIndexes(cls) && (fullScanChosen || !searchForSubclassIndexes(cls))) {
       // CHECK FOR INVERSE ORDER
       final boolean browsingOrderAsc = isBrowsingAscendingOrder();
       super.searchInClasses(browsingOrderAsc);
@@ -1305,6 +1447,15 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
     }
   }
 
+  private void discardIndexCandidate(final IndexCandidate candidate, final List<IndexUsageLog> indexUseAttempts) {
+    // INDEX WAS NOT QUERIED IF CURSOR OF CANDIDATE WAS NOT OPENED
+    if (!indexUseAttempts.remove(candidate.usageLog))
+      return;
+
+    final IndexUsageLog usageLog = candidate.usageLog;
+    revertProfiler(context, usageLog.index, usageLog.keyParams, usageLog.indexDefinition);
+  }
+
   protected void revertProfiler(final OCommandContext iContext, final OIndex<?> index, final List<Object> keyParams,
       final OIndexDefinition indexDefinition) {
     if (iContext.isRecordingMetrics()) {
@@ -1656,18 +1807,30 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
   private boolean execParallelWithPool(final ORecordIteratorClusters iTarget, final ODatabaseDocumentTx db) {
     final int[] clusterIds = iTarget.getClusterIds();
 
-    // CREATE ONE THREAD PER CLUSTER
-    final int jobNumbers = clusterIds.length;
+    // SPLIT CLUSTERS IN RANGES OF POSITIONS: EVERY THREAD TAKES THE NEXT RANGE AS SOON AS IT ENDS THE PREVIOUS ONE, SO ALSO
+    // CLUSTERS OF DIFFERENT SIZE ARE SCANNED BY ALL THE THREADS
+    final int threads = Runtime.getRuntime().availableProcessors();
+    final Queue<long[]> ranges = splitClusterRanges(db, clusterIds, threads);
+    final int jobNumbers = Math.min(threads, ranges.size());
     final List<Future<?>> jobs = new ArrayList<Future<?>>();
 
     OLogManager.instance()
-        .debug(this, "Executing parallel query with strategy executors. clusterIds=%d, jobs=%d", clusterIds.length, jobNumbers);
+        .debug(this, "Executing parallel query with strategy executors. clusterIds=%d, ranges=%d, jobs=%d", clusterIds.length,
+            ranges.size(), jobNumbers);
+    metricRecorder.recordParallelRangesMetric(ranges.size(), jobNumbers);
 
     final boolean[] results = new boolean[jobNumbers];
     final OCommandContext[] contexts = new OCommandContext[jobNumbers];
 
     final RuntimeException[] exceptions = new RuntimeException[jobNumbers];
 
+    // AGGREGATE FUNCTIONS WHICH CAN BE MERGED ARE COMPUTED BY EVERY THREAD ON ITS OWN GROUPS
+    final boolean partialAggregation = isPartialAggregationApplicable();
+    final List<ConcurrentMap<Object, ORuntimeResult>> partialGroups = new ArrayList<ConcurrentMap<Object, ORuntimeResult>>(
+        jobNumbers);
+    for (int i = 0; i < jobNumbers; ++i)
+      partialGroups.add(partialAggregation ? new ConcurrentHashMap<Object, ORuntimeResult>() : null);
+
     parallelRunning = true;
 
     final AtomicInteger runningJobs = new AtomicInteger(jobNumbers);
@@ -1693,7 +1856,13 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
               // CREATE A SNAPSHOT TO AVOID DEADLOCKS
               db.getMetadata().getSchema().makeSnapshot();
 
-              scanClusterWithIterator(localDatabase, threadContext, clusterIds[current], current, results);
+              if (partialGroups.get(current) != null)
+                partialGroupedResult.set(partialGroups.get(current));
+              try {
+                scanClusterRanges(localDatabase, threadContext, ranges, current, results);
+              } finally {
+                partialGroupedResult.remove();
+              }
             } catch (RuntimeException t) {
               exceptions[current] = t;
             } finally {
@@ -1779,6 +1948,9 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
       if (exceptions[i] != null)
         throw exceptions[i];
 
+    if (partialAggregation && !cancelQuery)
+      mergePartialGroups(partialGroups);
+
     for (int i = 0; i < jobNumbers; ++i) {
       if (!results[i])
         return false;
@@ -1786,21 +1958,89 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
     return true;
   }
 
-  private void scanClusterWithIterator(final ODatabaseDocumentInternal localDatabase, final OCommandContext iContext,
-      final int iClusterId, final int current, final boolean[] results) {
-    final ORecordIteratorCluster it = new ORecordIteratorCluster(localDatabase, localDatabase, iClusterId);
+  private void scanClusterRanges(final ODatabaseDocumentInternal localDatabase, final OCommandContext iContext,
+      final Queue<long[]> ranges, final int current, final boolean[] results) {
+    long[] range;
+    while ((range = ranges.poll()) != null) {
+      final ORecordIteratorCluster it = new ORecordIteratorCluster(localDatabase, localDatabase, (int) range[0], range[1],
+          range[2]);
 
-    while (it.hasNext()) {
-      final ORecord next = it.next();
+      while (it.hasNext()) {
+        final ORecord next = it.next();
 
-      if (!executeSearchRecord(next, iContext, false)) {
-        results[current] = false;
-        break;
+        if (!executeSearchRecord(next, iContext, false)) {
+          results[current] = false;
+          return;
+        }
+
+        if (parallel && !parallelRunning)
+          // EXECUTION ENDED
+          return;
       }
+    }
+  }
 
-      if (parallel && !parallelRunning)
-        // EXECUTION ENDED
-        break;
+  /**
+   * Splits positions of clusters in ranges of the same size, the amount of ranges is proportional to the amount of threads.
+   *
+   * @return Ranges as arrays of cluster id, first and last position (inclusive)
+   */
+  private static Queue<long[]> splitClusterRanges(final ODatabaseDocumentInternal db, final int[] clusterIds, final int threads) {
+    final List<long[]> clusterRanges = new ArrayList<long[]>(clusterIds.length);
+    long totalPositions = 0;
+    for (int clusterId : clusterIds) {
+      final long[] range = db.getStorage().getClusterDataRange(clusterId);
+      if (range.length < 2 || range[0] < 0 || range[1] < range[0])
+        // EMPTY CLUSTER
+        continue;
+
+      clusterRanges.add(new long[] { clusterId, range[0], range[1] });
+      totalPositions += range[1] - range[0] + 1;
+    }
+
+    final long rangeSize = Math.max(totalPositions / ((long) threads * PARALLEL_RANGES_PER_THREAD), PARALLEL_MIN_RANGE_SIZE);
+
+    final Queue<long[]> ranges = new ConcurrentLinkedQueue<long[]>();
+    for (long[] clusterRange : clusterRanges) {
+      for (long first = clusterRange[1]; first <= clusterRange[2]; first += rangeSize)
+        ranges.add(new long[] { clusterRange[0], first, Math.min(first + rangeSize - 1, clusterRange[2]) });
+    }
+    return ranges;
+  }
+
+  /**
+   * Aggregation is computed by every thread of parallel query separately only if all the aggregate functions can merge their
+   * partial results and the groups do not depend on order of records.
+   */
+  private boolean isPartialAggregationApplicable() {
+    if (!aggregate || expandTarget != null || unwindFields != null || skip > 0)
+      return false;
+
+    if (projections != null) {
+      for (Object projection : projections.values()) {
+        if (projection instanceof OSQLFunctionRuntime) {
+          final OSQLFunctionRuntime f = (OSQLFunctionRuntime) projection;
+          if ((f.aggregateResults() || f.filterResult()) && !(f.getFunction() instanceof OSQLFunctionMergeable))
+            return false;
+
+          for (Object parameter : f.getConfiguredParameters()) {
+            if (parameter instanceof OSQLFunctionRuntime && ((OSQLFunctionRuntime) parameter).aggregateResults())
+              return false;
+          }
+        }
+      }
+    }
+
+    return true;
+  }
+
+  private void mergePartialGroups(final List<ConcurrentMap<Object, ORuntimeResult>> partialGroups) {
+    for (ConcurrentMap<Object, ORuntimeResult> groups : partialGroups) {
+      for (Entry<Object, ORuntimeResult> group : groups.entrySet()) {
+        final ORuntimeResult existent = groupedResult.putIfAbsent(group.getKey(), group.getValue());
+        if (existent != null)
+          existent.merge(group.getValue());
+      }
     }
   }
 
@@ -1968,6 +2208,10 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
             continue;
           }
 
+          if (!isPartialIndexUsable(index)) {
+            continue;
+          }
+
           final OIndexDefinition indexDefinition = index.getDefinition();
 
           if (searchResult.containsNullValues && indexDefinition.isNullValuesIgnored()) {
@@ -2072,11 +2316,17 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
     return cursors;
   }
 
-  @SuppressWarnings("rawtypes")
   private boolean searchForIndexes(final OClass iSchemaClass) {
+    return searchForIndexes(iSchemaClass, true);
+  }
+
+  @SuppressWarnings("rawtypes")
+  private boolean searchForIndexes(final OClass iSchemaClass, final boolean iUsePlanCache) {
     if (uniqueResult != null)
       uniqueResult.clear();
 
+    fullScanChosen = false;
+
     final ODatabaseDocument database = getDatabase();
     database.checkSecurity(ORule.ResourceGeneric.CLASS, ORole.PERMISSION_READ, iSchemaClass.getName().toLowerCase());
 
@@ -2092,12 +2342,32 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
       return true;
     }
 
+    // try bitmap indexes
+    if (tryBitmapIndexes(iSchemaClass))
+      return true;
+
     // the main condition is a set of sub-conditions separated by OR operators
     final List<List<OIndexSearchResult>> conditionHierarchy = filterAnalyzer
         .analyzeMainCondition(compiledFilter.getRootCondition(), iSchemaClass, context);
     if (conditionHierarchy == null)
       return false;
 
+    // INDEXES CHOSEN BY PREVIOUS EXECUTIONS OF THE SAME QUERY ARE REUSED WITHOUT EVALUATING ALL THE CANDIDATES AGAIN
+    final OQueryPlanCache planCache = ((OMetadataInternal) database.getMetadata()).getQueryPlanCache();
+    final String planKey = iUsePlanCache ? getQueryPlanKey(planCache, iSchemaClass) : null;
+    final long planCacheVersion = planKey != null ? planCache.getVersion() : -1;
+    OQueryPlan cachedPlan = planKey != null ? planCache.get(planKey) : null;
+    if (cachedPlan != null && !cachedPlan.isFullScan() && cachedPlan.getBranchCount() != conditionHierarchy.size())
+      cachedPlan = null;
+
+    metricRecorder.recordPlanCachedMetric(cachedPlan != null);
+    if (cachedPlan != null && cachedPlan.isFullScan()) {
+      metricRecorder.recordQueryPlanMetric("FULL_SCAN", -1);
+      fullScanChosen = true;
+      return false;
+    }
+
+    final List<Set<String>> chosenIndexes = new ArrayList<Set<String>>(conditionHierarchy.size());
     List<OIndexCursor> cursors = new ArrayList<OIndexCursor>();
 
     boolean indexIsUsedInOrderBy = false;
@@ -2106,26 +2376,40 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
 
       boolean indexOnExactClass = true;//to track if the index used is specific for this class or if it's defined on a super/sub class
 
+      final OQueryCostModel costModel = new OQueryCostModel(context,
+          ((OMetadataInternal) database.getMetadata()).getStatistics());
+      final boolean sortRequired = orderedFields.size() > 0;
+      long records = -1;
+
       OIndexSearchResult lastSearchResult = null;
       for (List<OIndexSearchResult> indexSearchResults : conditionHierarchy) {
-        // go through all variants to choose which one can be used for index search.
-        boolean indexUsed = false;
+        // go through all variants to choose which one can be used for index search, if several variants can be used the
+        // cheapest one is chosen.
+        final Set<String> planIndexes = cachedPlan != null ? cachedPlan.getIndexes(chosenIndexes.size()) : null;
+        final List<IndexCandidate> candidates = new ArrayList<IndexCandidate>();
+        IndexCandidate chosenCandidate = null;
+
         for (final OIndexSearchResult searchResult : indexSearchResults) {
-          lastSearchResult = searchResult;
           final List<OIndex<?>> involvedIndexes = filterAnalyzer.getInvolvedIndexes(iSchemaClass, searchResult);
 
           Collections.sort(involvedIndexes, new IndexComparator());
 
-          indexOnExactClass = true;
-
           // go through all possible index for given set of fields.
           for (final OIndex index : involvedIndexes) {
+            if (planIndexes != null && !planIndexes.contains(index.getName())) {
+              continue;
+            }
+
             final long indexRebuildVersion = index.getRebuildVersion();
 
             if (index.isRebuilding()) {
               continue;
             }
 
+            if (!isPartialIndexUsable(index)) {
+              continue;
+            }
+
             final OIndexDefinition indexDefinition = index.getDefinition();
 
             if (searchResult.containsNullValues && indexDefinition.isNullValuesIgnored()) {
@@ -2164,64 +2448,177 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
               }
             }
 
-            metricRecorder.recordInvolvedIndexesMetric(index);
-
-            OIndexCursor cursor;
-
-            indexIsUsedInOrderBy =
+            final boolean usedInOrderBy =
                 orderByOptimizer.canBeUsedByOrderByAfterFilter(index, getEqualsClausesPrefix(searchResult), orderedFields)
                     && !(index.getInternal() instanceof OChainedIndexProxy);
-            try {
-              boolean ascSortOrder = !indexIsUsedInOrderBy || orderedFields.get(0).getValue().equals(KEYWORD_ASC);
+            final IndexUsageLog usageLog = new IndexUsageLog(index, keyParams, indexDefinition);
+
+            // INDEX IS QUERIED DURING ESTIMATION ONLY IF ITS STATISTICS CANNOT ESTIMATE AMOUNT OF RECORDS
+            OIndexCursor cursor = null;
+            long estimatedRows = costModel.estimateRows(index, searchResult, null);
+            if (estimatedRows < 0) {
+              try {
+                cursor = executeIndexQuery(searchResult, usageLog, indexRebuildVersion, usedInOrderBy);
+              } catch (OIndexEngineException e) {
+                throw e;
+              } catch (Exception e) {
+                logIndexQueryError(index, e);
+                cursors.clear();
+                return false;
+              }
 
-              if (indexIsUsedInOrderBy) {
-                fullySortedByIndex = expandTarget == null && indexDefinition.getFields().size() >= orderedFields.size()
-                    && conditionHierarchy.size() == 1;
+              if (cursor == null) {
+                continue;
               }
 
-              context.setVariable("$limit", limit);
+              indexUseAttempts.add(usageLog);
+              estimatedRows = costModel.estimateRows(index, searchResult, cursor);
+            }
 
-              cursor = operator.executeIndexQuery(context, index, keyParams, ascSortOrder);
+            final IndexCandidate candidate = new IndexCandidate(searchResult, cursor, usageLog, indexRebuildVersion,
+                usedInOrderBy, estimatedRows, sortRequired);
+            candidates.add(candidate);
 
-              if (!iSchemaClass.getName().equals(index.getDefinition().getClassName())) {
-                indexOnExactClass = false;
-              }
-            } catch (OIndexEngineException e) {
-              throw e;
-            } catch (Exception e) {
-              OLogManager.instance().error(this,
-                  "Error on using index %s in query '%s'. Probably you need to rebuild indexes. Now executing query using cluster scan",
-                  e, index.getName(), request != null && request.getText() != null ? request.getText() : "");
-
-              fullySortedByIndex = false;
-              cursors.clear();
-              return false;
+            if (chosenCandidate == null || candidate.cost < chosenCandidate.cost)
+              chosenCandidate = candidate;
+
+            break;
+          }
+
+          if (chosenCandidate != null && chosenCandidate.estimatedRows == 0) {
+            break;
+          }
+        }
+
+        OIndex<?> index;
+        IndexCandidate intersectionCandidate;
+        double cost;
+        long estimatedRows;
+
+        while (true) {
+          if (chosenCandidate == null) {
+            if (cachedPlan != null) {
+              // INDEXES OF CACHED PLAN CANNOT SERVE THIS EXECUTION: THE PLAN IS COMPUTED AGAIN
+              planCache.remove(planKey);
+              return searchForIndexes(iSchemaClass, false);
             }
+            return tryOptimizeSort(iSchemaClass);
+          }
 
-            if (cursor == null) {
-              continue;
+          index = chosenCandidate.usageLog.index;
+          final boolean hasStatistics = costModel.hasStatistics(index);
+          if (hasStatistics && records < 0)
+            records = iSchemaClass.count();
+
+          // INDEX INTERSECTION AND FULL SCAN ARE CONSIDERED ONLY IF INDEXES WERE ANALYZED
+          intersectionCandidate = null;
+          cost = chosenCandidate.cost;
+          estimatedRows = chosenCandidate.estimatedRows;
+
+          if (hasStatistics && estimatedRows > 0) {
+            for (IndexCandidate candidate : candidates) {
+              if (candidate == chosenCandidate || candidate.estimatedRows < 0 || !costModel
+                  .hasStatistics(candidate.usageLog.index) || candidate.usageLog.index.getName().equals(index.getName()))
+                continue;
+
+              final long intersectionRows = OQueryCostModel
+                  .intersectionRows(chosenCandidate.estimatedRows, candidate.estimatedRows, records);
+              final double intersectionCost =
+                  OQueryCostModel.intersectionCost(chosenCandidate.estimatedRows, candidate.estimatedRows, records) + (
+                      sortRequired && !chosenCandidate.usedInOrderBy ? OQueryCostModel.sortCost(intersectionRows) : 0);
+
+              if (intersectionCost < cost) {
+                intersectionCandidate = candidate;
+                cost = intersectionCost;
+                estimatedRows = intersectionRows;
+              }
             }
+          }
+
+          if (cachedPlan == null && hasStatistics && estimatedRows >= 0 && conditionHierarchy.size() == 1
+              && !isCountAllProjection() && !isCoveringIndex(index)) {
+            final double fullScanCost =
+                OQueryCostModel.fullScanCost(records) + (sortRequired ? OQueryCostModel.sortCost(estimatedRows) : 0);
+
+            if (fullScanCost < cost) {
+              // INDEX USAGE IS REVERTED ON EXIT
+              metricRecorder.recordQueryPlanMetric("FULL_SCAN", estimatedRows);
+              fullScanChosen = true;
 
-            if (index.getRebuildVersion() == indexRebuildVersion) {
-              cursors.add(OIndexChangesWrapper.wrap(index, cursor, indexRebuildVersion));
-              indexUseAttempts.add(new IndexUsageLog(index, keyParams, indexDefinition));
-              indexUsed = true;
-              break;
+              // FULL SCAN DEPENDS ON SELECTIVITY OF PARAMETERS, SO IT IS CACHED ONLY FOR QUERIES WITHOUT PARAMETERS
+              if (planKey != null && (parameters == null || parameters.isEmpty()))
+                planCache.put(planKey, OQueryPlan.fullScan(), planCacheVersion);
+              return false;
             }
           }
-          if (indexUsed) {
-            break;
+
+          // INDEXES ESTIMATED BY STATISTICS ARE QUERIED ONLY ONCE THEY ARE CHOSEN
+          IndexCandidate unusableCandidate = null;
+          try {
+            if (!openCursor(chosenCandidate, indexUseAttempts))
+              unusableCandidate = chosenCandidate;
+            else if (intersectionCandidate != null && !openCursor(intersectionCandidate, indexUseAttempts))
+              unusableCandidate = intersectionCandidate;
+          } catch (OIndexEngineException e) {
+            throw e;
+          } catch (Exception e) {
+            logIndexQueryError(index, e);
+            cursors.clear();
+            return false;
           }
+
+          if (unusableCandidate == null)
+            break;
+
+          candidates.remove(unusableCandidate);
+          chosenCandidate = getCheapestCandidate(candidates);
         }
-        if (!indexUsed) {
-          return tryOptimizeSort(iSchemaClass);
+
+        for (IndexCandidate candidate : candidates) {
+          if (candidate != chosenCandidate && candidate != intersectionCandidate)
+            discardIndexCandidate(candidate, indexUseAttempts);
+        }
+
+        final Set<String> branchIndexes = new HashSet<String>();
+        branchIndexes.add(index.getName());
+        if (intersectionCandidate != null)
+          branchIndexes.add(intersectionCandidate.usageLog.index.getName());
+        chosenIndexes.add(branchIndexes);
+
+        metricRecorder.recordInvolvedIndexesMetric(index);
+
+        OIndexCursor cursor = chosenCandidate.cursor;
+        if (intersectionCandidate != null) {
+          metricRecorder.recordInvolvedIndexesMetric(intersectionCandidate.usageLog.index);
+          metricRecorder.recordQueryPlanMetric("INDEX_INTERSECTION", estimatedRows);
+
+          // LOG OF MAIN INDEX IS KEPT FIRST
+          indexUseAttempts.remove(intersectionCandidate.usageLog);
+          indexUseAttempts.add(intersectionCandidate.usageLog);
+
+          cursor = new OIndexIntersectionCursor(chosenCandidate.cursor, intersectionCandidate.cursor);
+        } else
+          metricRecorder
+              .recordQueryPlanMetric(sortRequired && chosenCandidate.usedInOrderBy ? "SORTED_INDEX" : "INDEX", estimatedRows);
+
+        lastSearchResult = chosenCandidate.searchResult;
+        indexIsUsedInOrderBy = chosenCandidate.usedInOrderBy;
+        if (indexIsUsedInOrderBy) {
+          fullySortedByIndex = expandTarget == null && index.getDefinition().getFields().size() >= orderedFields.size()
+              && conditionHierarchy.size() == 1;
         }
+
+        indexOnExactClass = iSchemaClass.getName().equals(index.getDefinition().getClassName());
+        cursors.add(cursor);
       }
 
       if (cursors.size() == 0 || lastSearchResult == null) {
         return false;
       }
 
+      if (planKey != null && cachedPlan == null)
+        planCache.put(planKey, new OQueryPlan(chosenIndexes), planCacheVersion);
+
       if (cursors.size() == 1 && canOptimize(conditionHierarchy)) {
         filterOptimizer.optimize(compiledFilter, lastSearchResult);
       }
@@ -2251,6 +2648,7 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
                   count++;
                 }
               }
+              metricRecorder.recordActualRowsMetric(count);
 
               final OProfiler profiler = Orient.instance().getProfiler();
               if (profiler.isRecording()) {
@@ -2266,8 +2664,11 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
         }
       }
 
+      final boolean indexOnly = cursors.size() == 1 && indexOnExactClass && canBeServedByIndexOnly(indexUseAttempts.get(0).index);
+      metricRecorder.recordIndexOnlyMetric(indexOnly);
+
       for (OIndexCursor cursor : cursors) {
-        if (!fetchValuesFromIndexCursor(cursor)) {
+        if (!fetchValuesFromIndexCursor(cursor, indexOnly)) {
           break;
         }
       }
@@ -2285,6 +2686,74 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
     }
   }
 
+  /**
+   * Queries index of candidate if it was not queried during estimation of its cost.
+   *
+   * @return <code>false</code> if index of candidate cannot be used to evaluate the condition.
+   */
+  private boolean openCursor(final IndexCandidate candidate, final List<IndexUsageLog> indexUseAttempts) throws Exception {
+    if (candidate.cursor != null)
+      return true;
+
+    final OIndexCursor cursor = executeIndexQuery(candidate.searchResult, candidate.usageLog, candidate.indexRebuildVersion,
+        candidate.usedInOrderBy);
+    if (cursor == null)
+      return false;
+
+    candidate.cursor = cursor;
+    indexUseAttempts.add(candidate.usageLog);
+    return true;
+  }
+
+  /**
+   * @return Cursor of index for given condition or <code>null</code> if index cannot be used to evaluate it or was rebuilt in the
+   *         meantime.
+   */
+  private OIndexCursor executeIndexQuery(final OIndexSearchResult searchResult, final IndexUsageLog usageLog,
+      final long indexRebuildVersion, final boolean usedInOrderBy) throws Exception {
+    final boolean ascSortOrder = !usedInOrderBy || orderedFields.get(0).getValue().equals(KEYWORD_ASC);
+
+    context.setVariable("$limit", limit);
+
+    final OIndex<?> index = usageLog.index;
+    final OIndexCursor cursor = searchResult.lastOperator.executeIndexQuery(context, index, usageLog.keyParams, ascSortOrder);
+    if (cursor == null || index.getRebuildVersion() != indexRebuildVersion)
+      return null;
+
+    return OIndexChangesWrapper.wrap(index, cursor, indexRebuildVersion);
+  }
+
+  private void logIndexQueryError(final OIndex<?> index, final Exception e) {
+    OLogManager.instance().error(this,
+        "Error on using index %s in query '%s'. Probably you need to rebuild indexes. Now executing query using cluster scan", e,
+        index.getName(), request != null && request.getText() != null ? request.getText() : "");
+
+    fullySortedByIndex = false;
+  }
+
+  /**
+   * @return The cheapest candidate, the first one of equally expensive candidates or <code>null</code> if there are no candidates.
+   */
+  private static IndexCandidate getCheapestCandidate(final List<IndexCandidate> candidates) {
+    IndexCandidate cheapest = null;
+    for (IndexCandidate candidate : candidates) {
+      if (cheapest == null || candidate.cost < cheapest.cost)
+        cheapest = candidate;
+    }
+
+    return cheapest;
+  }
+
+  /**
+   * @return Key of the query plan cache for the current query on given class, or null if plan of the query cannot be cached.
+   */
+  private String getQueryPlanKey(final OQueryPlanCache planCache, final OClass iSchemaClass) {
+    if (planCache == null || !planCache.isEnabled() || request == null || request.getText() == null)
+      return null;
+
+    return iSchemaClass.getName() + ":" + OStatementCache.normalize(request.getText());
+  }
+
   private Iterator<OIdentifiable> tryIndexedFunctions(OClass iSchemaClass) {
     // TODO profiler
     if (this.preParsedStatement == null) {
@@ -2320,6 +2789,39 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
     return result.iterator();
   }
 
+  /**
+   * Evaluates the whole condition by bitmap indexes if it is possible, records of resulting bitmap are filtered as usual. If only
+   * number of records is requested it is taken from the bitmap.
+   */
+  private boolean tryBitmapIndexes(final OClass iSchemaClass) {
+    final OBitmapIndexEvaluator evaluator = new OBitmapIndexEvaluator(iSchemaClass, context);
+    final ORidBitmap bitmap = evaluator.evaluate(compiledFilter.getRootCondition());
+    if (bitmap == null)
+      return false;
+
+    for (OIndex<?> index : evaluator.getUsedIndexes())
+      metricRecorder.recordInvolvedIndexesMetric(index);
+
+    if (groupByFields == null && projections != null && projections.size() == 1) {
+      final Entry<String, Object> entry = projections.entrySet().iterator().next();
+
+      if (entry.getValue() instanceof OSQLFunctionRuntime) {
+        final OSQLFunctionRuntime rf = (OSQLFunctionRuntime) entry.getValue();
+        if (rf.function instanceof OSQLFunctionCount && rf.configuredParameters.length == 1 && "*"
+            .equals(rf.configuredParameters[0]) && !isUsingRestrictedClasses()) {
+          // OPTIMIZATION: BITMAP CONTAINS EXACTLY THE RECORDS WHICH SATISFY THE CONDITION
+          if (tempResult == null)
+            tempResult = new ArrayList<OIdentifiable>();
+          ((Collection<OIdentifiable>) tempResult).add(new ODocument().field(entry.getKey(), bitmap.cardinality()));
+          return true;
+        }
+      }
+    }
+
+    fetchFromTarget(bitmap.iterator());
+    return true;
+  }
+
   private List<String> getEqualsClausesPrefix(OIndexSearchResult searchResult) {
     List<String> result = new ArrayList<String>();
     if (searchResult.lastOperator instanceof OQueryOperatorEquals) {
@@ -2351,12 +2853,24 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
   private boolean optimizeSort(OClass iSchemaClass) {
     OIndexCursor cursor = getOptimizedSortCursor(iSchemaClass);
     if (cursor != null) {
-      fetchValuesFromIndexCursor(cursor);
+      fetchValuesFromIndexCursor(cursor, false);
       return true;
     }
     return false;
   }
 
+  /**
+   * Partial index contains only records which satisfy its predicate, so it can be used only if query condition implies the
+   * predicate.
+   */
+  private boolean isPartialIndexUsable(final OIndex<?> index) {
+    final OIndexPredicate predicate = OIndexPredicate.getPredicate(index);
+    if (predicate == null)
+      return true;
+
+    return compiledFilter != null && predicate.isImpliedBy(compiledFilter.getRootCondition(), context);
+  }
+
   private OIndexCursor getOptimizedSortCursor(OClass iSchemaClass) {
     final List<String> fieldNames = new ArrayList<String>();
 
@@ -2367,6 +2881,9 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
     final Set<OIndex<?>> indexes = iSchemaClass.getInvolvedIndexes(fieldNames);
 
     for (OIndex<?> index : indexes) {
+      if (!isPartialIndexUsable(index))
+        continue;
+
       if (orderByOptimizer.canBeUsedByOrderBy(index, orderedFields)) {
         final long indexRebuildVersion = index.getRebuildVersion();
 
@@ -2443,7 +2960,7 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
     return null;
   }
 
-  private boolean fetchValuesFromIndexCursor(final OIndexCursor cursor) {
+  private boolean fetchValuesFromIndexCursor(final OIndexCursor cursor, final boolean indexOnly) {
     int needsToFetch;
     if (fetchLimit > 0) {
       needsToFetch = fetchLimit + skip;
@@ -2452,7 +2969,94 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
     }
 
     cursor.setPrefetchSize(needsToFetch);
-    return fetchFromTarget(cursor);
+    if (!indexOnly)
+      return fetchFromTarget(cursor);
+
+    // READ COVERED FIELDS FROM THE INDEX, RECORDS ARE LOADED ONLY FOR ENTRIES WITHOUT COVERED FIELDS (E.G. CHANGED IN TX)
+    return fetchFromTarget(new Iterator<OIdentifiable>() {
+      @Override
+      public boolean hasNext() {
+        return cursor.hasNext();
+      }
+
+      @Override
+      public OIdentifiable next() {
+        final OIdentifiable value = cursor.next();
+        if (value instanceof OIndexCoveringValue)
+          return ((OIndexCoveringValue) value).toDocument();
+
+        return value;
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException("remove");
+      }
+    });
+  }
+
+  /**
+   * @return <code>true</code> if index stores values of fields besides the indexed ones, so it may serve projections of them.
+   */
+  private static boolean isCoveringIndex(final OIndex<?> index) {
+    final OIndexInternal<?> internal = index.getInternal();
+    return internal instanceof OIndexOneValue && !((OIndexOneValue) internal).getCoveredFields().isEmpty();
+  }
+
+  /**
+   * @return <code>true</code> if the only projection is COUNT(*), which may be calculated by index without loading of records.
+   */
+  private boolean isCountAllProjection() {
+    if (groupByFields != null || projections == null || projections.size() != 1)
+      return false;
+
+    final Object projection = projections.values().iterator().next();
+    if (!(projection instanceof OSQLFunctionRuntime))
+      return false;
+
+    final OSQLFunctionRuntime function = (OSQLFunctionRuntime) projection;
+    return function.function instanceof OSQLFunctionCount && function.configuredParameters.length == 1 && "*"
+        .equals(function.configuredParameters[0]);
+  }
+
+  /**
+   * Checks whether the result can be built from the fields stored in the covering index, without loading of records. It is the
+   * case when index condition is the whole filter and all projections read only covered fields.
+   */
+  private boolean canBeServedByIndexOnly(final OIndex<?> index) {
+    if (compiledFilter != null && compiledFilter.getRootCondition() != null)
+      return false;
+
+    if (projections == null || projections.isEmpty() || aggregate || parallel || expandTarget != null || unwindFields != null || (
+        groupByFields != null && !groupByFields.isEmpty()) || (let != null && !let.isEmpty()))
+      return false;
+
+    if (lockingStrategy != LOCKING_STRATEGY.DEFAULT && lockingStrategy != LOCKING_STRATEGY.NONE
+        || context.getVariable("$locking") != null)
+      return false;
+
+    // RECORD LEVEL SECURITY IS CHECKED ONLY ON LOADED RECORDS
+    if (isUsingRestrictedClasses())
+      return false;
+
+    final OIndexInternal<?> internal = index.getInternal();
+    if (!(internal instanceof OIndexOneValue))
+      return false;
+
+    final Set<String> coveredFields = ((OIndexOneValue) internal).getCoveredFields();
+    if (coveredFields.isEmpty())
+      return false;
+
+    for (Object projection : projections.values()) {
+      if (!(projection instanceof OSQLFilterItemField))
+        return false;
+
+      final String root = ((OSQLFilterItemField) projection).getRoot();
+      if (!coveredFields.contains(root) && !"@rid".equalsIgnoreCase(root) && !"@class".equalsIgnoreCase(root))
+        return false;
+    }
+
+    return true;
   }
 
   private void fetchEntriesFromIndexCursor(final OIndexCursor cursor) {
@@ -2509,6 +3113,37 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
 
     final long startOrderBy = System.currentTimeMillis();
     try {
+      if (topKResult != null) {
+        if (tempResult != null) {
+          for (OIdentifiable o : tempResult) {
+            topKResult.add(o);
+          }
+        }
+        tempResult = topKResult.getSortedResult();
+        topKResult = null;
+
+        if (clearOrderedFields) {
+          orderedFields.clear();
+        }
+        return;
+      }
+
+      if (externalSort != null) {
+        if (tempResult != null) {
+          for (OIdentifiable o : tempResult) {
+            externalSort.add(o);
+          }
+        }
+        // SKIP IS APPLIED BY THE MERGE, THE RESULT IS NOT A LIST
+        tempResult = externalSort.getSortedResult(skip);
+        metricRecorder.recordSpilledRunsMetric(externalSort.getRuns());
+
+        if (clearOrderedFields) {
+          orderedFields.clear();
+        }
+        return;
+      }
+
       if (tempResult instanceof OMultiCollectionIterator) {
         final List<OIdentifiable> list = new ArrayList<OIdentifiable>();
         for (OIdentifiable o : tempResult) {
@@ -2854,12 +3489,33 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
 
         tempResult = new ArrayList<OIdentifiable>();
 
-        for (Entry<Object, ORuntimeResult> g : groupedResult.entrySet()) {
-          if (g.getKey() != null || (groupedResult.size() == 1 && groupByFields == null)) {
-            final ODocument doc = g.getValue().getResult();
-            if (doc != null && !doc.isEmpty()) {
-              ((List<OIdentifiable>) tempResult).add(doc);
+        collectGroupResults();
+
+        // GROUPS WHICH DID NOT FIT IN MEMORY ARE PARTITIONED ON DISK: AGGREGATE ONE PARTITION AT A TIME
+        while (groupBySpill != null) {
+          final OGroupBySpill spill = groupBySpill;
+          groupBySpill = null;
+          groupBySpillLevel = spill.getLevel() + 1;
+          metricRecorder.recordSpilledPartitionsMetric(spill.getPartitions());
+
+          try {
+            Iterator<OIdentifiable> partition;
+            while ((partition = spill.nextPartition()) != null) {
+              groupedResult.clear();
+
+              while (partition.hasNext()) {
+                // RECORDS OF SPILLED GROUPS ARE STORED BY RID, THEY ARE LOADED AGAIN
+                final ORecord record = partition.next().getRecord();
+                if (record != null) {
+                  iContext.setVariable("current", record);
+                  applyGroupBy(record, iContext);
+                }
+              }
+
+              collectGroupResults();
             }
+          } finally {
+            spill.close();
           }
         }
 
@@ -2869,6 +3525,17 @@ public class OCommandExecutorSQLSelect extends OCommandExecutorSQLResultsetAbstr
     }
   }
 
+  private void collectGroupResults() {
+    for (Entry<Object, ORuntimeResult> g : groupedResult.entrySet()) {
+      if (g.getKey() != null || (groupedResult.size() == 1 && groupByFields == null)) {
+        final ODocument doc = g.getValue().getResult();
+        if (doc != null && !doc.isEmpty()) {
+          collectResult(doc);
+        }
+      }
+    }
+  }
+
   public void setProjections(final Map<String, Object> projections) {
     this.projections = projections;
   }
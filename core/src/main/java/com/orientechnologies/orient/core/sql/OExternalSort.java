@@ -0,0 +1,190 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.sql;
+
+import com.orientechnologies.common.util.OPair;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.record.impl.ODocumentComparator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * External merge sort of query results. Results are buffered in memory up to the given threshold, then the buffer is sorted and
+ * written to {@link OQuerySpillFile} as sorted run together with values of the ordering fields. Sorted result is produced lazily
+ * by merge of all runs, so only one entry of each run is kept in memory.
+ * <p>
+ * Persistent records are written by RID only and are loaded again when they are returned. Results with equal ordering values
+ * keep the order in which they were added.
+ */
+public class OExternalSort {
+  private final int                   threshold;
+  private final ODocumentComparator   comparator;
+  private final List<OIdentifiable>   buffer = new ArrayList<OIdentifiable>();
+  private final List<OQuerySpillFile> runs   = new ArrayList<OQuerySpillFile>();
+
+  public OExternalSort(final int threshold, final List<OPair<String, String>> orderedFields, final OCommandContext context) {
+    this.threshold = Math.max(threshold, 1);
+    this.comparator = new ODocumentComparator(new ArrayList<OPair<String, String>>(orderedFields), context);
+  }
+
+  public void add(final OIdentifiable result) {
+    buffer.add(result);
+
+    if (buffer.size() >= threshold)
+      spill();
+  }
+
+  /**
+   * @return Amount of sorted runs written to disk.
+   */
+  public int getRuns() {
+    return runs.size();
+  }
+
+  /**
+   * Returns all added results in sorted order, the result can be iterated only once.
+   *
+   * @param skip
+   *          Amount of first results to skip.
+   */
+  public Iterable<OIdentifiable> getSortedResult(final int skip) {
+    spill();
+
+    return new Iterable<OIdentifiable>() {
+      @Override
+      public Iterator<OIdentifiable> iterator() {
+        final MergeIterator iterator = new MergeIterator();
+        for (int i = 0; i < skip && iterator.hasNext(); i++)
+          iterator.next();
+
+        return iterator;
+      }
+    };
+  }
+
+  /**
+   * Deletes all files which are not read yet.
+   */
+  public void close() {
+    for (OQuerySpillFile run : runs)
+      run.delete();
+
+    runs.clear();
+    buffer.clear();
+  }
+
+  private void spill() {
+    if (buffer.isEmpty())
+      return;
+
+    Collections.sort(buffer, comparator);
+
+    final OQuerySpillFile run = new OQuerySpillFile();
+    runs.add(run);
+
+    for (OIdentifiable result : buffer) {
+      final ODocument entry = OQuerySpillFile.toEntry(result);
+      entry.field("values", Arrays.asList(comparator.getValues(result)), OType.EMBEDDEDLIST);
+      run.write(entry);
+    }
+
+    buffer.clear();
+  }
+
+  private static final class RunCursor {
+    private final int                 run;
+    private final Iterator<ODocument> entries;
+    private Object[]                  values;
+    private OIdentifiable             result;
+
+    private RunCursor(final int run, final Iterator<ODocument> entries) {
+      this.run = run;
+      this.entries = entries;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean advance() {
+      if (!entries.hasNext())
+        return false;
+
+      final ODocument entry = entries.next();
+      values = ((List<Object>) entry.field("values")).toArray();
+      result = OQuerySpillFile.fromEntry(entry);
+      return true;
+    }
+  }
+
+  private final class MergeIterator implements Iterator<OIdentifiable> {
+    private final PriorityQueue<RunCursor> queue;
+
+    private MergeIterator() {
+      queue = new PriorityQueue<RunCursor>(Math.max(runs.size(), 1), new Comparator<RunCursor>() {
+        @Override
+        public int compare(final RunCursor cursor1, final RunCursor cursor2) {
+          final int result = comparator.compareValues(cursor1.values, cursor2.values);
+          if (result != 0)
+            return result;
+
+          // RUNS ARE WRITTEN IN ORDER OF ADDITION
+          return cursor1.run < cursor2.run ? -1 : (cursor1.run == cursor2.run ? 0 : 1);
+        }
+      });
+
+      for (int i = 0; i < runs.size(); i++) {
+        final RunCursor cursor = new RunCursor(i, runs.get(i).read());
+        if (cursor.advance())
+          queue.offer(cursor);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !queue.isEmpty();
+    }
+
+    @Override
+    public OIdentifiable next() {
+      final RunCursor cursor = queue.poll();
+      if (cursor == null)
+        throw new NoSuchElementException();
+
+      final OIdentifiable result = cursor.result;
+      if (cursor.advance())
+        queue.offer(cursor);
+
+      return result;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("remove");
+    }
+  }
+}
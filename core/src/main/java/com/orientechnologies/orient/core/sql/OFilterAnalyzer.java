@@ -213,9 +213,8 @@ public class OFilterAnalyzer {
 
     final OSQLFilterItemField item = (OSQLFilterItemField) iItem;
 
-    if (item.hasChainOperators() && !item.isFieldChain()) {
-      return null;
-    }
+    // FIELDS WITH METHOD CALLS CAN BE MATCHED ONLY WITH INDEXES BUILT ON THE SAME EXPRESSION
+    final OSQLFilterItemField.FieldChain fieldChain = item.isFieldChain() ? item.getFieldChain() : item.getExpressionChain();
 
     final Object origValue = iCondition.getLeft() == iItem ? iCondition.getRight() : iCondition.getLeft();
 
@@ -231,11 +230,11 @@ public class OFilterAnalyzer {
 
     if (iCondition.getOperator() instanceof OQueryOperatorBetween || operator instanceof OQueryOperatorIn) {
 
-      return new OIndexSearchResult(operator, item.getFieldChain(), origValue);
+      return new OIndexSearchResult(operator, fieldChain, origValue);
     }
 
     final Object value = OSQLHelper.getValue(origValue);
-    return new OIndexSearchResult(operator, item.getFieldChain(), value);
+    return new OIndexSearchResult(operator, fieldChain, value);
   }
 
   private boolean checkIndexExistence(final OClass iSchemaClass, final OIndexSearchResult result) {
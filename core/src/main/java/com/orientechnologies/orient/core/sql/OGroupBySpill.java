@@ -0,0 +1,131 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.sql;
+
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Input records of GROUP BY whose groups do not fit in memory. When the amount of groups kept in memory reaches the threshold,
+ * records of the new groups are written to one of {@link #PARTITIONS} spill files chosen by hash of group key, so all records of
+ * the same group are in the same partition. Groups of each partition are aggregated later separately, partition which still does
+ * not fit in memory is split again with different hash function on the next level.
+ */
+public class OGroupBySpill {
+  public static final int PARTITIONS = 16;
+  public static final int MAX_LEVEL  = 4;
+
+  private final int               level;
+  private final OQuerySpillFile[] partitions = new OQuerySpillFile[PARTITIONS];
+  private OQuerySpillFile         current;
+
+  public OGroupBySpill(final int level) {
+    this.level = level;
+  }
+
+  public int getLevel() {
+    return level;
+  }
+
+  public void add(final Object groupKey, final OIdentifiable record) {
+    final int partition = partition(groupKey);
+    if (partitions[partition] == null)
+      partitions[partition] = new OQuerySpillFile();
+
+    partitions[partition].write(OQuerySpillFile.toEntry(record));
+  }
+
+  /**
+   * @return Number of partitions which contain records.
+   */
+  public int getPartitions() {
+    int result = 0;
+    for (OQuerySpillFile partition : partitions)
+      if (partition != null)
+        result++;
+
+    return result;
+  }
+
+  /**
+   * Returns records of the next not empty partition, the partition file is deleted when records are read completely.
+   *
+   * @return Records of partition or <code>null</code> if all partitions were read.
+   */
+  public Iterator<OIdentifiable> nextPartition() {
+    for (int i = 0; i < partitions.length; i++) {
+      if (partitions[i] != null) {
+        current = partitions[i];
+        partitions[i] = null;
+
+        final Iterator<ODocument> entries = current.read();
+
+        return new Iterator<OIdentifiable>() {
+          @Override
+          public boolean hasNext() {
+            return entries.hasNext();
+          }
+
+          @Override
+          public OIdentifiable next() {
+            if (!entries.hasNext())
+              throw new NoSuchElementException();
+
+            return OQuerySpillFile.fromEntry(entries.next());
+          }
+
+          @Override
+          public void remove() {
+            throw new UnsupportedOperationException("remove");
+          }
+        };
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Deletes all partitions which are not read yet.
+   */
+  public void close() {
+    if (current != null) {
+      current.delete();
+      current = null;
+    }
+
+    for (int i = 0; i < partitions.length; i++) {
+      if (partitions[i] != null) {
+        partitions[i].delete();
+        partitions[i] = null;
+      }
+    }
+  }
+
+  private int partition(final Object groupKey) {
+    int hash = (groupKey != null ? groupKey.hashCode() : 0) ^ (level * 0x9E3779B9);
+    hash *= 0x85EBCA6B;
+    hash ^= hash >>> 13;
+    return (hash & Integer.MAX_VALUE) % PARTITIONS;
+  }
+}
@@ -43,6 +43,16 @@ public class OMetricRecorder {
     }
   }
 
+  public void recordPlanCachedMetric(boolean planCached) {
+    if (context.isRecordingMetrics())
+      context.setVariable("planCached", planCached);
+  }
+
+  public void recordIndexOnlyMetric(boolean indexOnly) {
+    if (context.isRecordingMetrics())
+      context.setVariable("indexOnly", indexOnly);
+  }
+
   public void recordInvolvedIndexesMetric(OIndex index) {
     if (context.isRecordingMetrics()) {
       Set<String> idxNames = (Set<String>) context.getVariable("involvedIndexes");
@@ -57,6 +67,55 @@ public class OMetricRecorder {
     }
   }
 
+  /**
+   * Records access path chosen by query planner and amount of records it is estimated to return, <code>-1</code> means that
+   * amount is unknown. Access paths of several branches of OR condition are accumulated.
+   */
+  public void recordQueryPlanMetric(String plan, long estimatedRows) {
+    if (context.isRecordingMetrics()) {
+      final String recordedPlan = (String) context.getVariable("plan");
+      context.setVariable("plan", recordedPlan == null ? plan : recordedPlan + ", " + plan);
+
+      final Long recordedRows = (Long) context.getVariable("estimatedRows");
+      if (recordedRows == null || estimatedRows < 0)
+        context.setVariable("estimatedRows", estimatedRows);
+      else if (recordedRows >= 0)
+        context.setVariable("estimatedRows", recordedRows + estimatedRows);
+    }
+  }
+
+  public void recordActualRowsMetric(long actualRows) {
+    if (context.isRecordingMetrics())
+      context.setVariable("actualRows", actualRows);
+  }
+
+  /**
+   * Records amount of sorted runs written to disk by ORDER BY which did not fit in memory.
+   */
+  public void recordSpilledRunsMetric(int runs) {
+    if (context.isRecordingMetrics())
+      context.setVariable("spilledRuns", runs);
+  }
+
+  /**
+   * Records amount of partitions of groups written to disk by GROUP BY which did not fit in memory, partitions of all levels are
+   * summed.
+   */
+  public void recordSpilledPartitionsMetric(int partitions) {
+    if (context.isRecordingMetrics())
+      context.updateMetric("spilledPartitions", partitions);
+  }
+
+  /**
+   * Records amount of ranges of cluster positions scanned by parallel query and amount of threads which scanned them.
+   */
+  public void recordParallelRangesMetric(int ranges, int threads) {
+    if (context.isRecordingMetrics()) {
+      context.setVariable("parallelRanges", ranges);
+      context.setVariable("parallelThreads", threads);
+    }
+  }
+
   OCommandContext orderByElapsed(long startOrderBy) {
     return context.setVariable("orderByElapsed", (System.currentTimeMillis() - startOrderBy));
   }
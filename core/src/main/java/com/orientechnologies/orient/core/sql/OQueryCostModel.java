@@ -0,0 +1,227 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.sql;
+
+import com.orientechnologies.common.util.OSizeable;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.index.OEstimableIndexCursor;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.index.OIndexCursor;
+import com.orientechnologies.orient.core.index.OIndexDefinition;
+import com.orientechnologies.orient.core.index.OIndexDefinitionMultiValue;
+import com.orientechnologies.orient.core.metadata.statistics.OIndexStatistics;
+import com.orientechnologies.orient.core.metadata.statistics.OStatisticsManager;
+import com.orientechnologies.orient.core.sql.filter.OSQLFilterItem;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperator;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorBetween;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorEquals;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorIn;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorMajor;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorMajorEquals;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorMinor;
+import com.orientechnologies.orient.core.sql.operator.OQueryOperatorMinorEquals;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Cost model of query planner. Estimates amount of records returned by index for given condition and costs of access paths in
+ * units of sequential read of one record during cluster scan.
+ * <p>
+ * Estimations are taken from exact sizes of index cursors if they are known, then from index statistics collected by the ANALYZE
+ * command, and at last from approximate sizes of index cursors.
+ *
+ * @see OStatisticsManager
+ */
+public class OQueryCostModel {
+  /**
+   * Sequential read of record during cluster scan.
+   */
+  public static final double RECORD_SCAN_COST  = 1;
+  /**
+   * Random read of record by RID returned by index.
+   */
+  public static final double RECORD_FETCH_COST = 3;
+  /**
+   * Read of single index entry.
+   */
+  public static final double INDEX_ENTRY_COST  = 0.1;
+  /**
+   * Single comparison of in memory sort.
+   */
+  public static final double SORT_COMPARE_COST = 0.02;
+
+  private final OCommandContext    context;
+  private final OStatisticsManager statistics;
+
+  public OQueryCostModel(final OCommandContext context, final OStatisticsManager statistics) {
+    this.context = context;
+    this.statistics = statistics;
+  }
+
+  /**
+   * @return <code>true</code> if statistics were collected for given index.
+   */
+  public boolean hasStatistics(final OIndex<?> index) {
+    return getStatistics(index) != null;
+  }
+
+  /**
+   * @param cursor Cursor of given index for passed in condition or <code>null</code> if it is not opened yet, in such case only
+   *               index statistics are used.
+   *
+   * @return Estimated amount of records returned by cursor of given index for passed in condition or <code>-1</code> if it can not
+   *         be estimated.
+   */
+  public long estimateRows(final OIndex<?> index, final OIndexSearchResult searchResult, final OIndexCursor cursor) {
+    if (cursor instanceof OSizeable)
+      return ((OSizeable) cursor).size();
+
+    final OIndexStatistics indexStatistics = getStatistics(index);
+    if (indexStatistics != null) {
+      final double estimation = estimateRows(index, indexStatistics, searchResult);
+      if (estimation >= 0)
+        return Math.round(Math.ceil(estimation));
+    }
+
+    if (cursor instanceof OEstimableIndexCursor) {
+      final long keys = ((OEstimableIndexCursor) cursor).estimateSize();
+      if (keys >= 0 && indexStatistics != null && indexStatistics.getDistinctKeys() > 0)
+        // CURSOR ESTIMATES KEYS, STATISTICS KNOW AVERAGE AMOUNT OF ENTRIES OF KEY
+        return Math.round(Math.ceil((double) keys * indexStatistics.getEntries() / indexStatistics.getDistinctKeys()));
+
+      return keys;
+    }
+
+    return -1;
+  }
+
+  public static double fullScanCost(final long records) {
+    return records * RECORD_SCAN_COST;
+  }
+
+  public static double indexCost(final long rows) {
+    return rows * (INDEX_ENTRY_COST + RECORD_FETCH_COST);
+  }
+
+  /**
+   * Cost of index intersection: RIDs of the second index are collected in memory, entries of the first one are filtered by them,
+   * so only records which satisfy both conditions are fetched. Conditions are considered independent.
+   */
+  public static double intersectionCost(final long firstRows, final long secondRows, final long records) {
+    final double matchedRows = records > 0 ? (double) firstRows * secondRows / records : Math.min(firstRows, secondRows);
+    return (firstRows + secondRows) * INDEX_ENTRY_COST + matchedRows * RECORD_FETCH_COST;
+  }
+
+  public static long intersectionRows(final long firstRows, final long secondRows, final long records) {
+    if (records <= 0)
+      return Math.min(firstRows, secondRows);
+
+    return Math.round(Math.ceil((double) firstRows * secondRows / records));
+  }
+
+  public static double sortCost(final long rows) {
+    if (rows < 2)
+      return 0;
+
+    return rows * (Math.log(rows) / Math.log(2)) * SORT_COMPARE_COST;
+  }
+
+  private OIndexStatistics getStatistics(final OIndex<?> index) {
+    if (statistics == null || index.getInternal() instanceof OChainedIndexProxy)
+      return null;
+
+    return statistics.getIndexStatistics(index);
+  }
+
+  private double estimateRows(final OIndex<?> index, final OIndexStatistics indexStatistics, final OIndexSearchResult searchResult) {
+    final OIndexDefinition definition = index.getDefinition();
+    if (definition == null || definition.getParamCount() != 1 || definition instanceof OIndexDefinitionMultiValue)
+      return -1;
+
+    final OQueryOperator operator = searchResult.lastOperator;
+    final Object value = OSQLHelper.getValue(searchResult.lastValue, null, context);
+    final long currentKeys = index.getKeySize();
+
+    if (operator instanceof OQueryOperatorEquals) {
+      final Object key = toKey(definition, value);
+      return key != null ? indexStatistics.estimateEquals(key, currentKeys) : -1;
+    }
+
+    if (operator instanceof OQueryOperatorIn) {
+      if (!(value instanceof Collection))
+        return -1;
+
+      double result = 0;
+      for (Object item : (Collection<?>) value) {
+        final Object key = toKey(definition, OSQLHelper.getValue(item, null, context));
+        if (key == null)
+          return -1;
+
+        result += indexStatistics.estimateEquals(key, currentKeys);
+      }
+
+      return result;
+    }
+
+    if (operator instanceof OQueryOperatorMajor || operator instanceof OQueryOperatorMajorEquals)
+      return estimateRange(definition, indexStatistics, value, operator instanceof OQueryOperatorMajorEquals, null, true,
+          currentKeys);
+
+    if (operator instanceof OQueryOperatorMinor || operator instanceof OQueryOperatorMinorEquals)
+      return estimateRange(definition, indexStatistics, null, true, value, operator instanceof OQueryOperatorMinorEquals,
+          currentKeys);
+
+    if (operator instanceof OQueryOperatorBetween && value instanceof Object[] && ((Object[]) value).length == 3) {
+      final Object[] betweenKeys = (Object[]) value;
+      final OQueryOperatorBetween between = (OQueryOperatorBetween) operator;
+      return estimateRange(definition, indexStatistics, OSQLHelper.getValue(betweenKeys[0], null, context),
+          between.isLeftInclusive(), OSQLHelper.getValue(betweenKeys[2], null, context), between.isRightInclusive(), currentKeys);
+    }
+
+    return -1;
+  }
+
+  private static double estimateRange(final OIndexDefinition definition, final OIndexStatistics indexStatistics,
+      final Object from, final boolean fromInclusive, final Object to, final boolean toInclusive, final long currentKeys) {
+    final Object keyFrom = from != null ? toKey(definition, from) : null;
+    final Object keyTo = to != null ? toKey(definition, to) : null;
+    if ((from != null && keyFrom == null) || (to != null && keyTo == null))
+      return -1;
+
+    return indexStatistics.estimateRange(keyFrom, fromInclusive, keyTo, toInclusive, currentKeys);
+  }
+
+  private static Object toKey(final OIndexDefinition definition, final Object value) {
+    if (value == null || value instanceof OSQLFilterItem || value instanceof Collection)
+      return null;
+
+    try {
+      final Object key = definition.createValue(Collections.singletonList(value));
+      if (key == null)
+        return null;
+
+      return definition.getCollate().transform(key);
+    } catch (RuntimeException e) {
+      // VALUE CAN NOT BE CONVERTED TO THE KEY TYPE, INDEX QUERY WILL DECIDE WHAT TO DO WITH IT
+      return null;
+    }
+  }
+}
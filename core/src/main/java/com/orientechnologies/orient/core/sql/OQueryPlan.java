@@ -0,0 +1,76 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.sql;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Access path chosen by query planner for a query on a class. Plan is either a full scan of the class or, for each of
+ * sub-conditions separated by OR operator, the set of indexes used to fetch records (one index or two indexes whose results are
+ * intersected).
+ * <p>
+ * Plan stores only names of indexes, so it is independent from the values of query parameters and can be reused by following
+ * executions of the same query.
+ */
+public class OQueryPlan {
+  private static final OQueryPlan FULL_SCAN = new OQueryPlan(Collections.<Set<String>> emptyList(), true);
+
+  private final List<Set<String>> branches;
+  private final boolean           fullScan;
+
+  /**
+   * @param branches
+   *          Names of indexes used for each sub-condition of query, in the same order of sub-conditions.
+   */
+  public OQueryPlan(final List<Set<String>> branches) {
+    this(branches, false);
+  }
+
+  private OQueryPlan(final List<Set<String>> branches, final boolean fullScan) {
+    this.branches = branches;
+    this.fullScan = fullScan;
+  }
+
+  public static OQueryPlan fullScan() {
+    return FULL_SCAN;
+  }
+
+  public boolean isFullScan() {
+    return fullScan;
+  }
+
+  public int getBranchCount() {
+    return branches.size();
+  }
+
+  /**
+   * @return Names of indexes used for sub-condition with given position.
+   */
+  public Set<String> getIndexes(final int branch) {
+    return branches.get(branch);
+  }
+
+  @Override
+  public String toString() {
+    return fullScan ? "FULL_SCAN" : branches.toString();
+  }
+}
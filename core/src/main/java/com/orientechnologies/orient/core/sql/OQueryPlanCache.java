@@ -0,0 +1,215 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.sql;
+
+import com.orientechnologies.common.concur.resource.OCloseable;
+import com.orientechnologies.common.profiler.OAbstractProfiler.OProfilerHookValue;
+import com.orientechnologies.common.profiler.OProfiler;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.index.OIndexManager;
+import com.orientechnologies.orient.core.metadata.OMetadataUpdateListener;
+import com.orientechnologies.orient.core.metadata.schema.OSchemaShared;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of query plans chosen by query planner, keyed by normalized text of query and name of queried class. It is shared by
+ * all the connections to the same storage and stored as storage resource, so executions of the same query do not repeat index
+ * selection.
+ * <p>
+ * Plans depend on classes, indexes and index statistics, so the whole cache is invalidated when schema or indexes change and when
+ * indexes are analyzed. Hits, misses, evictions and invalidations are published through the profiler.
+ *
+ * @see OQueryPlan
+ */
+public class OQueryPlanCache implements OMetadataUpdateListener, OCloseable {
+  private final String                  databaseName;
+  private final int                     size;
+  private final Map<String, OQueryPlan> plans;
+
+  private final AtomicLong hits          = new AtomicLong();
+  private final AtomicLong misses        = new AtomicLong();
+  private final AtomicLong evictions     = new AtomicLong();
+  private final AtomicLong invalidations = new AtomicLong();
+  private volatile long    version       = 0;
+
+  /**
+   * @param databaseName
+   *          Name of the database the cache belongs to, used to publish the cache metrics.
+   * @param size
+   *          Maximum amount of cached plans, 0 disables the cache.
+   */
+  public OQueryPlanCache(final String databaseName, final int size) {
+    this.databaseName = databaseName;
+    this.size = size;
+    this.plans = new LinkedHashMap<String, OQueryPlan>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, OQueryPlan> eldest) {
+        if (super.size() > OQueryPlanCache.this.size) {
+          evictions.incrementAndGet();
+          updateCounter("eviction", "Query plans removed from the query plan cache because it was full");
+          return true;
+        }
+        return false;
+      }
+    };
+
+    Orient.instance().getProfiler().registerHookValue(getMetricName("hitRatio"), "Ratio of query plans found in the plan cache",
+        OProfiler.METRIC_TYPE.STAT, new OProfilerHookValue() {
+          @Override
+          public Object getValue() {
+            return getHitRatio();
+          }
+        });
+  }
+
+  public boolean isEnabled() {
+    return size > 0;
+  }
+
+  /**
+   * @return Cached plan of the query or null if the plan is not in cache.
+   */
+  public OQueryPlan get(final String key) {
+    if (!isEnabled())
+      return null;
+
+    final OQueryPlan plan;
+    synchronized (plans) {
+      plan = plans.get(key);
+    }
+
+    if (plan != null) {
+      hits.incrementAndGet();
+      updateCounter("hit", "Query plans found in the query plan cache");
+    } else {
+      misses.incrementAndGet();
+      updateCounter("miss", "Query plans not found in the query plan cache and computed");
+    }
+    return plan;
+  }
+
+  /**
+   * @return Version of the cache, it changes on every invalidation. It has to be read before the computation of a plan and passed
+   *         to {@link #put(String, OQueryPlan, long)}.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Caches a plan, unless the cache was invalidated after the computation of the plan was started.
+   *
+   * @param version
+   *          Version of the cache read before the computation of the plan.
+   */
+  public void put(final String key, final OQueryPlan plan, final long version) {
+    if (!isEnabled())
+      return;
+
+    synchronized (plans) {
+      if (this.version == version)
+        plans.put(key, plan);
+    }
+  }
+
+  /**
+   * Removes a plan which cannot be used anymore, for example because one of its indexes cannot serve the query.
+   */
+  public void remove(final String key) {
+    synchronized (plans) {
+      plans.remove(key);
+    }
+  }
+
+  /**
+   * Removes all the cached plans.
+   */
+  public void invalidate() {
+    synchronized (plans) {
+      version++;
+      plans.clear();
+    }
+
+    invalidations.incrementAndGet();
+    updateCounter("invalidation", "Invalidations of the query plan cache caused by schema or index changes");
+  }
+
+  public int size() {
+    synchronized (plans) {
+      return plans.size();
+    }
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  public long getInvalidations() {
+    return invalidations.get();
+  }
+
+  /**
+   * @return Ratio of the lookups served by the cache, 0 if the cache was never used.
+   */
+  public float getHitRatio() {
+    final long h = hits.get();
+    final long total = h + misses.get();
+    return total == 0 ? 0 : (float) h / total;
+  }
+
+  @Override
+  public void onSchemaUpdate(final OSchemaShared schema) {
+    invalidate();
+  }
+
+  @Override
+  public void onIndexManagerUpdate(final OIndexManager indexManager) {
+    invalidate();
+  }
+
+  @Override
+  public void close() {
+    synchronized (plans) {
+      plans.clear();
+    }
+    Orient.instance().getProfiler().unregisterHookValue(getMetricName("hitRatio"));
+  }
+
+  private String getMetricName(final String name) {
+    return Orient.instance().getProfiler().getDatabaseMetric(databaseName, "queryPlanCache." + name);
+  }
+
+  private void updateCounter(final String name, final String description) {
+    final OProfiler profiler = Orient.instance().getProfiler();
+    if (profiler.isRecording())
+      profiler.updateCounter(getMetricName(name), description, +1);
+  }
+}
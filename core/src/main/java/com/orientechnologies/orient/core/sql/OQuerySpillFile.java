@@ -0,0 +1,219 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.sql;
+
+import com.orientechnologies.common.exception.OException;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.db.ODatabaseRecordThreadLocal;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.exception.OCommandExecutionException;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.ORecordInternal;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.OStorage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Temporary file used by query to keep intermediate results which do not fit in memory. Entries are documents which are written
+ * sequentially and read back once in the same order, file is deleted when it is read completely or by {@link #delete()}.
+ * <p>
+ * Files are created in the "spill" folder of database directory, or in the temporary folder of OrientDB for in memory databases.
+ */
+public class OQuerySpillFile {
+  private static final String SPILL_DIRECTORY = "spill";
+  private static final int    BUFFER_SIZE     = 64 * 1024;
+
+  private final File       file;
+  private DataOutputStream output;
+  private DataInputStream  input;
+  private long             size;
+
+  public OQuerySpillFile() {
+    final File directory = getSpillDirectory();
+    try {
+      if (!directory.exists() && !directory.mkdirs() && !directory.exists())
+        throw new IOException("Cannot create directory " + directory);
+
+      file = File.createTempFile("query", ".spill", directory);
+      output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+    } catch (IOException e) {
+      throw OException.wrapException(new OCommandExecutionException("Error on creation of query spill file in " + directory), e);
+    }
+  }
+
+  public void write(final ODocument entry) {
+    if (output == null)
+      throw new IllegalStateException("Spill file " + file + " is already read");
+
+    final byte[] content = entry.toStream();
+    try {
+      output.writeInt(content.length);
+      output.write(content);
+      size++;
+    } catch (IOException e) {
+      delete();
+      throw OException.wrapException(new OCommandExecutionException("Error on writing of query spill file " + file), e);
+    }
+  }
+
+  public long size() {
+    return size;
+  }
+
+  /**
+   * Finishes writing and returns iterator over written entries. Only one iteration is allowed.
+   */
+  public Iterator<ODocument> read() {
+    try {
+      if (output != null) {
+        output.close();
+        output = null;
+      }
+      input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+    } catch (IOException e) {
+      delete();
+      throw OException.wrapException(new OCommandExecutionException("Error on reading of query spill file " + file), e);
+    }
+
+    return new Iterator<ODocument>() {
+      private long read = 0;
+
+      @Override
+      public boolean hasNext() {
+        if (read < size)
+          return true;
+
+        delete();
+        return false;
+      }
+
+      @Override
+      public ODocument next() {
+        if (!hasNext())
+          throw new NoSuchElementException();
+
+        try {
+          final byte[] content = new byte[input.readInt()];
+          input.readFully(content);
+          read++;
+
+          final ODocument entry = new ODocument();
+          entry.setLazyLoad(false);
+          entry.fromStream(content);
+          return entry;
+        } catch (IOException e) {
+          delete();
+          throw OException.wrapException(new OCommandExecutionException("Error on reading of query spill file " + file), e);
+        }
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException("remove");
+      }
+    };
+  }
+
+  public void delete() {
+    try {
+      if (output != null)
+        output.close();
+      if (input != null)
+        input.close();
+    } catch (IOException e) {
+      // IGNORE IT, FILE IS DELETED ANYWAY
+    } finally {
+      output = null;
+      input = null;
+      file.delete();
+    }
+  }
+
+  /**
+   * Converts result of query to the entry of spill file. Persistent records which are not changed are stored by RID only, other
+   * results, like projections or records with unsaved changes, are stored completely.
+   */
+  public static ODocument toEntry(final OIdentifiable result) {
+    final ORID identity = result.getIdentity();
+    final boolean dirty = result instanceof ORecord && ((ORecord) result).isDirty();
+
+    final ODocument entry = new ODocument();
+    entry.field("cluster", identity.getClusterId());
+    entry.field("position", identity.getClusterPosition());
+    if (!identity.isPersistent() || dirty) {
+      final ODocument document = (ODocument) result.getRecord();
+      entry.field("record", document.toStream(), OType.BINARY);
+      if (dirty) {
+        entry.field("version", document.getVersion());
+        entry.field("dirty", true);
+      }
+    }
+
+    return entry;
+  }
+
+  /**
+   * @return Result stored by {@link #toEntry(OIdentifiable)}, RID for unchanged persistent records which are loaded lazily.
+   */
+  public static OIdentifiable fromEntry(final ODocument entry) {
+    final ORecordId identity = new ORecordId((Integer) entry.field("cluster"), (Long) entry.field("position"));
+
+    final byte[] content = entry.field("record");
+    if (content == null)
+      return identity;
+
+    final ODocument document = new ODocument().setOrdered(true);
+    document.fromStream(content);
+    ((ORecordId) document.getIdentity()).setClusterId(identity.getClusterId());
+    ((ORecordId) document.getIdentity()).setClusterPosition(identity.getClusterPosition());
+
+    final Integer version = entry.field("version");
+    if (version != null)
+      ORecordInternal.setVersion(document, version);
+
+    if (Boolean.TRUE.equals(entry.field("dirty")))
+      document.setDirty();
+    else
+      ORecordInternal.unsetDirty(document);
+    return document;
+  }
+
+  private static File getSpillDirectory() {
+    final OStorage storage = ODatabaseRecordThreadLocal.INSTANCE.get().getStorage().getUnderlying();
+    if (storage instanceof OLocalPaginatedStorage)
+      return new File(((OLocalPaginatedStorage) storage).getStoragePath(), SPILL_DIRECTORY);
+
+    return new File(Orient.getTempPath(), SPILL_DIRECTORY);
+  }
+}
@@ -35,6 +35,7 @@ import com.orientechnologies.orient.core.record.impl.ORecordBytes;
 import com.orientechnologies.orient.core.sql.filter.OSQLFilterItemAbstract;
 import com.orientechnologies.orient.core.sql.filter.OSQLFilterItemField;
 import com.orientechnologies.orient.core.sql.filter.OSQLFilterItemVariable;
+import com.orientechnologies.orient.core.sql.functions.OSQLFunctionMergeable;
 import com.orientechnologies.orient.core.sql.functions.OSQLFunctionRuntime;
 import com.orientechnologies.orient.core.sql.method.OSQLMethodRuntime;
 import com.orientechnologies.orient.core.sql.method.misc.OSQLMethodField;
@@ -277,6 +278,28 @@ public class ORuntimeResult {
     return getResult(value, projections);
   }
 
+  /**
+   * Merges the result of the same group computed on other records, like by another thread of parallel query. All the aggregate
+   * functions must implement {@link OSQLFunctionMergeable}, other projections keep the values of this result.
+   *
+   * @param iOther Result of the same group, it is not used anymore after the merge
+   */
+  public void merge(final ORuntimeResult iOther) {
+    synchronized (this) {
+      for (Entry<String, Object> projection : projections.entrySet()) {
+        final Object v = projection.getValue();
+        if (v instanceof OSQLFunctionRuntime && ((OSQLFunctionRuntime) v).aggregateResults()) {
+          final OSQLFunctionRuntime f = (OSQLFunctionRuntime) v;
+          final OSQLFunctionRuntime other = (OSQLFunctionRuntime) iOther.projections.get(projection.getKey());
+          ((OSQLFunctionMergeable) f.getFunction()).merge(other.getFunction());
+
+          // THE VALUE SET BY THE LAST RECORD IS PARTIAL: IT IS TAKEN FROM THE MERGED FUNCTION BY getResult()
+          value.removeField(projection.getKey());
+        }
+      }
+    }
+  }
+
   public Object getFieldValue() {
     return fieldValue;
   }
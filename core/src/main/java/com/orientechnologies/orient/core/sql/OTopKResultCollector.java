@@ -0,0 +1,135 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.sql;
+
+import com.orientechnologies.common.util.OPair;
+import com.orientechnologies.orient.core.command.OCommandContext;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.record.ORecord;
+import com.orientechnologies.orient.core.record.impl.ODocumentComparator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Collects the first K results of query with ORDER BY and LIMIT (plus SKIP) in bounded heap, so memory consumption does not
+ * depend on amount of matched records. The worst of the collected results is on the top of heap and is replaced when better
+ * result comes.
+ * <p>
+ * Only RIDs and values of the ordering fields are kept for persistent records, records are loaded again when sorted result is
+ * requested. Results which are not persistent, like projections, are kept as is. Results with equal ordering values keep the order
+ * in which they were collected.
+ */
+public class OTopKResultCollector {
+  private final int                  capacity;
+  private final ODocumentComparator  comparator;
+  private final Comparator<Entry>    entryComparator;
+  private final PriorityQueue<Entry> heap;
+  private long                       serial = 0;
+
+  private static final class Entry {
+    private final Object[]      values;
+    private final OIdentifiable result;
+    private final long          serial;
+
+    private Entry(Object[] values, OIdentifiable result, long serial) {
+      this.values = values;
+      this.result = result;
+      this.serial = serial;
+    }
+  }
+
+  public OTopKResultCollector(final int capacity, final List<OPair<String, String>> orderedFields,
+      final OCommandContext context) {
+    this.capacity = capacity;
+    this.comparator = new ODocumentComparator(new ArrayList<OPair<String, String>>(orderedFields), context);
+    this.entryComparator = new Comparator<Entry>() {
+      @Override
+      public int compare(final Entry entry1, final Entry entry2) {
+        return compareEntries(entry1, entry2);
+      }
+    };
+    this.heap = new PriorityQueue<Entry>(Math.max(Math.min(capacity, 256), 1), Collections.reverseOrder(entryComparator));
+  }
+
+  public void add(final OIdentifiable result) {
+    if (capacity <= 0)
+      return;
+
+    final Entry entry = new Entry(comparator.getValues(result), compact(result), serial++);
+
+    if (heap.size() < capacity) {
+      heap.offer(entry);
+      return;
+    }
+
+    // LATER ENTRY WITH THE SAME VALUES IS NEVER BETTER THAN ALREADY COLLECTED ONE
+    if (entryComparator.compare(entry, heap.peek()) < 0) {
+      heap.poll();
+      heap.offer(entry);
+    }
+  }
+
+  public int size() {
+    return heap.size();
+  }
+
+  /**
+   * @return Collected results sorted by ordering fields. Records which were deleted since they were collected are skipped.
+   */
+  public List<OIdentifiable> getSortedResult() {
+    final List<Entry> entries = new ArrayList<Entry>(heap);
+    Collections.sort(entries, entryComparator);
+
+    final List<OIdentifiable> result = new ArrayList<OIdentifiable>(entries.size());
+    for (Entry entry : entries) {
+      if (entry.result instanceof ORID) {
+        final ORecord record = entry.result.getRecord();
+        if (record != null)
+          result.add(record);
+      } else
+        result.add(entry.result);
+    }
+
+    return result;
+  }
+
+  private int compareEntries(final Entry entry1, final Entry entry2) {
+    final int result = comparator.compareValues(entry1.values, entry2.values);
+    if (result != 0)
+      return result;
+
+    return entry1.serial < entry2.serial ? -1 : (entry1.serial == entry2.serial ? 0 : 1);
+  }
+
+  private static OIdentifiable compact(final OIdentifiable result) {
+    if (result instanceof ORecord) {
+      final ORecord record = (ORecord) result;
+      if (record.getIdentity().isPersistent() && !record.isDirty())
+        return record.getIdentity();
+    }
+
+    return result;
+  }
+}
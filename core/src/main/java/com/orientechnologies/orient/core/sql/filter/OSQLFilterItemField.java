@@ -56,19 +56,26 @@ public class OSQLFilterItemField extends OSQLFilterItemAbstract {
    * Represents filter item as chain of fields. Provide interface to work with this chain like with sequence of field names.
    */
   public class FieldChain {
+    private final String expression;
+
     private FieldChain() {
+      this(null);
+    }
+
+    private FieldChain(final String expression) {
+      this.expression = expression;
     }
 
     public String getItemName(int fieldIndex) {
       if (fieldIndex == 0) {
-        return name;
+        return expression != null ? expression : name;
       } else {
         return operationsChain.get(fieldIndex - 1).getValue()[0].toString();
       }
     }
 
     public int getItemCount() {
-      if (operationsChain == null) {
+      if (operationsChain == null || expression != null) {
         return 1;
       } else {
         return operationsChain.size() + 1;
@@ -81,7 +88,7 @@ public class OSQLFilterItemField extends OSQLFilterItemAbstract {
      * @return true if this chain is long and false in another case.
      */
     public boolean isLong() {
-      return operationsChain != null && operationsChain.size() > 0;
+      return expression == null && operationsChain != null && operationsChain.size() > 0;
     }
 
     public boolean belongsTo(OSQLFilterItemField filterItemField) {
@@ -209,6 +216,16 @@ public class OSQLFilterItemField extends OSQLFilterItemAbstract {
     return new FieldChain();
   }
 
+  /**
+   * Creates {@code FieldChain} which consists of single item named as the whole text of this filter item including all operators
+   * (e.g. "name.tolowercase"). Such chain is used to match filter item with indexes built on expressions.
+   *
+   * @return {@code FieldChain} representation of this filter item as expression.
+   */
+  public FieldChain getExpressionChain() {
+    return new FieldChain(toString());
+  }
+
   public void setPreLoadedFields(final Set<String> iPrefetchedFieldList) {
     this.preLoadedFields = iPrefetchedFieldList;
   }
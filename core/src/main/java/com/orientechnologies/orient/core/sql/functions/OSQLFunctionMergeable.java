@@ -0,0 +1,35 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.sql.functions;
+
+/**
+ * Aggregate function whose partial state can be merged with the state of another instance of the same function. Parallel queries
+ * aggregate records of each thread separately and merge the partial results at the end.
+ */
+public interface OSQLFunctionMergeable extends OSQLFunction {
+
+  /**
+   * Merges the state of another instance of the same function, computed on different records, in this instance.
+   *
+   * @param iOther
+   *          Function of the same class, it is not used anymore after the merge.
+   */
+  void merge(OSQLFunction iOther);
+}
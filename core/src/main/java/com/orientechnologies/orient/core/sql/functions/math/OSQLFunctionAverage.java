@@ -23,6 +23,8 @@ import com.orientechnologies.common.collection.OMultiValue;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.sql.functions.OSQLFunction;
+import com.orientechnologies.orient.core.sql.functions.OSQLFunctionMergeable;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -37,7 +39,7 @@ import java.util.Map;
  * @author Luca Garulli (l.garulli--at--orientechnologies.com)
  * 
  */
-public class OSQLFunctionAverage extends OSQLFunctionMathAbstract {
+public class OSQLFunctionAverage extends OSQLFunctionMathAbstract implements OSQLFunctionMergeable {
   public static final String NAME  = "avg";
 
   private Number             sum;
@@ -92,6 +94,18 @@ public class OSQLFunctionAverage extends OSQLFunctionMathAbstract {
     }
   }
 
+  @Override
+  public void merge(final OSQLFunction iOther) {
+    final OSQLFunctionAverage other = (OSQLFunctionAverage) iOther;
+    if (other.sum != null) {
+      if (sum == null)
+        sum = other.sum;
+      else
+        sum = OType.increment(sum, other.sum);
+    }
+    total += other.total;
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public Object mergeDistributedResult(final List<Object> resultsToMerge) {
@@ -22,6 +22,8 @@ package com.orientechnologies.orient.core.sql.functions.math;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.sql.functions.OSQLFunction;
+import com.orientechnologies.orient.core.sql.functions.OSQLFunctionMergeable;
 
 import java.util.Collection;
 import java.util.List;
@@ -32,7 +34,7 @@ import java.util.List;
  *
  * @author Luca Garulli (l.garulli--at--orientechnologies.com)
  */
-public class OSQLFunctionMax extends OSQLFunctionMathAbstract {
+public class OSQLFunctionMax extends OSQLFunctionMathAbstract implements OSQLFunctionMergeable {
   public static final String NAME = "max";
 
   private Object context;
@@ -68,20 +70,7 @@ public class OSQLFunctionMax extends OSQLFunctionMathAbstract {
     // what to do with the result, for current record, depends on how this function has been invoked
     // for an unique result aggregated from all output records
     if (aggregateResults() && max != null) {
-      if (context == null)
-        // FIRST TIME
-        context = (Comparable) max;
-      else {
-        if (context instanceof Number && max instanceof Number) {
-          final Number[] casted = OType.castComparableNumber((Number) context, (Number) max);
-          context = casted[0];
-          max = casted[1];
-        }
-        if (((Comparable<Object>) context).compareTo((Comparable) max) < 0)
-          // BIGGER
-          context = (Comparable) max;
-      }
-
+      aggregate(max);
       return null;
     }
 
@@ -89,6 +78,23 @@ public class OSQLFunctionMax extends OSQLFunctionMathAbstract {
     return max;
   }
 
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private void aggregate(Object max) {
+    if (context == null)
+      // FIRST TIME
+      context = (Comparable) max;
+    else {
+      if (context instanceof Number && max instanceof Number) {
+        final Number[] casted = OType.castComparableNumber((Number) context, (Number) max);
+        context = casted[0];
+        max = casted[1];
+      }
+      if (((Comparable<Object>) context).compareTo((Comparable) max) < 0)
+        // BIGGER
+        context = (Comparable) max;
+    }
+  }
+
   public boolean aggregateResults() {
     // LET definitions (contain $current) does not require results aggregation
     return ((configuredParameters.length == 1) && !configuredParameters[0].toString().contains("$current"));
@@ -103,6 +109,13 @@ public class OSQLFunctionMax extends OSQLFunctionMathAbstract {
     return context;
   }
 
+  @Override
+  public void merge(final OSQLFunction iOther) {
+    final Object otherMax = ((OSQLFunctionMax) iOther).context;
+    if (otherMax != null)
+      aggregate(otherMax);
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public Object mergeDistributedResult(List<Object> resultsToMerge) {
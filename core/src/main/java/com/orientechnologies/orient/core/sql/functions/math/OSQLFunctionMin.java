@@ -22,6 +22,8 @@ package com.orientechnologies.orient.core.sql.functions.math;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.sql.functions.OSQLFunction;
+import com.orientechnologies.orient.core.sql.functions.OSQLFunctionMergeable;
 
 import java.util.Collection;
 import java.util.List;
@@ -33,7 +35,7 @@ import java.util.List;
  * @author Luca Garulli (l.garulli--at--orientechnologies.com)
  * 
  */
-public class OSQLFunctionMin extends OSQLFunctionMathAbstract {
+public class OSQLFunctionMin extends OSQLFunctionMathAbstract implements OSQLFunctionMergeable {
   public static final String NAME = "min";
 
   private Object             context;
@@ -69,21 +71,7 @@ public class OSQLFunctionMin extends OSQLFunctionMathAbstract {
     // what to do with the result, for current record, depends on how this function has been invoked
     // for an unique result aggregated from all output records
     if (aggregateResults() && min != null) {
-      if (context == null)
-        // FIRST TIME
-        context = (Comparable) min;
-      else {
-        if (context instanceof Number && min instanceof Number) {
-          final Number[] casted = OType.castComparableNumber((Number) context, (Number) min);
-          context = casted[0];
-          min = casted[1];
-        }
-
-        if (((Comparable<Object>) context).compareTo((Comparable) min) > 0)
-          // MINOR
-          context = (Comparable) min;
-      }
-
+      aggregate(min);
       return null;
     }
 
@@ -91,6 +79,24 @@ public class OSQLFunctionMin extends OSQLFunctionMathAbstract {
     return min;
   }
 
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private void aggregate(Object min) {
+    if (context == null)
+      // FIRST TIME
+      context = (Comparable) min;
+    else {
+      if (context instanceof Number && min instanceof Number) {
+        final Number[] casted = OType.castComparableNumber((Number) context, (Number) min);
+        context = casted[0];
+        min = casted[1];
+      }
+
+      if (((Comparable<Object>) context).compareTo((Comparable) min) > 0)
+        // MINOR
+        context = (Comparable) min;
+    }
+  }
+
   public boolean aggregateResults() {
     // LET definitions (contain $current) does not require results aggregation
     return ((configuredParameters.length == 1) && !configuredParameters[0].toString().contains("$current"));
@@ -105,6 +111,13 @@ public class OSQLFunctionMin extends OSQLFunctionMathAbstract {
     return context;
   }
 
+  @Override
+  public void merge(final OSQLFunction iOther) {
+    final Object otherMin = ((OSQLFunctionMin) iOther).context;
+    if (otherMin != null)
+      aggregate(otherMin);
+  }
+
   @SuppressWarnings("unchecked")
   @Override
   public Object mergeDistributedResult(List<Object> resultsToMerge) {
@@ -23,6 +23,8 @@ import com.orientechnologies.common.collection.OMultiValue;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.sql.functions.OSQLFunction;
+import com.orientechnologies.orient.core.sql.functions.OSQLFunctionMergeable;
 
 import java.util.List;
 
@@ -33,7 +35,7 @@ import java.util.List;
  * @author Luca Garulli (l.garulli--at--orientechnologies.com)
  * 
  */
-public class OSQLFunctionSum extends OSQLFunctionMathAbstract {
+public class OSQLFunctionSum extends OSQLFunctionMathAbstract implements OSQLFunctionMergeable {
   public static final String NAME = "sum";
 
   private Number             sum;
@@ -82,6 +84,11 @@ public class OSQLFunctionSum extends OSQLFunctionMathAbstract {
     return sum;
   }
 
+  @Override
+  public void merge(final OSQLFunction iOther) {
+    sum(((OSQLFunctionSum) iOther).sum);
+  }
+
   @Override
   public Object mergeDistributedResult(List<Object> resultsToMerge) {
     Number sum = null;
@@ -21,6 +21,8 @@ package com.orientechnologies.orient.core.sql.functions.misc;
 
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.sql.functions.OSQLFunction;
+import com.orientechnologies.orient.core.sql.functions.OSQLFunctionMergeable;
 import com.orientechnologies.orient.core.sql.functions.math.OSQLFunctionMathAbstract;
 
 import java.util.List;
@@ -32,7 +34,7 @@ import java.util.List;
  * @author Luca Garulli (l.garulli--at--orientechnologies.com)
  * 
  */
-public class OSQLFunctionCount extends OSQLFunctionMathAbstract {
+public class OSQLFunctionCount extends OSQLFunctionMathAbstract implements OSQLFunctionMergeable {
   public static final String NAME  = "count";
 
   private long               total = 0;
@@ -67,6 +69,11 @@ public class OSQLFunctionCount extends OSQLFunctionMathAbstract {
     total = ((Number) iResult).longValue();
   }
 
+  @Override
+  public void merge(final OSQLFunction iOther) {
+    total += ((OSQLFunctionCount) iOther).total;
+  }
+
   @Override
   public Object mergeDistributedResult(List<Object> resultsToMerge) {
     long total = 0;
@@ -1,5 +1,9 @@
 package com.orientechnologies.orient.core.sql.parser;
 
+import com.orientechnologies.common.concur.resource.OCloseable;
+import com.orientechnologies.common.profiler.OAbstractProfiler.OProfilerHookValue;
+import com.orientechnologies.common.profiler.OProfiler;
+import com.orientechnologies.orient.core.Orient;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.db.ODatabaseDocumentInternal;
 import com.orientechnologies.orient.core.sql.OCommandSQLParsingException;
@@ -9,28 +13,62 @@ import java.io.InputStream;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class is an LRU cache for already parsed SQL statement executors. It stores itself in the storage as a resource. It also
  * acts an an entry point for the SQL parser.
+ * <p>
+ * Statements are looked up by their normalized text (see {@link #normalize(String)}), so the same statement written with different
+ * spacing is parsed only once. Hits, misses and evictions are counted and, when the cache belongs to a database, published through
+ * the profiler.
  *
  * @author Luigi Dell'Aquila
  */
-public class OStatementCache {
+public class OStatementCache implements OCloseable {
 
   Map<String, OStatement> map;
   int                     mapSize;
 
+  private final String     databaseName;
+  private final AtomicLong hits      = new AtomicLong();
+  private final AtomicLong misses    = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
   /**
    * @param size the size of the cache
    */
   public OStatementCache(int size) {
+    this(null, size);
+  }
+
+  /**
+   * @param databaseName the name of the database the cache belongs to, used to publish the cache metrics. If null metrics are not
+   *                     published
+   * @param size         the size of the cache
+   */
+  public OStatementCache(String databaseName, int size) {
+    this.databaseName = databaseName;
     this.mapSize = size;
     map = new LinkedHashMap<String, OStatement>(size) {
       protected boolean removeEldestEntry(final Map.Entry<String, OStatement> eldest) {
-        return super.size() > mapSize;
+        if (super.size() > mapSize) {
+          evictions.incrementAndGet();
+          updateCounter("eviction", "Statements removed from the statement cache because it was full");
+          return true;
+        }
+        return false;
       }
     };
+
+    if (databaseName != null)
+      Orient.instance().getProfiler().registerHookValue(getMetricName("hitRatio"), "Ratio of statements found in the cache",
+          OProfiler.METRIC_TYPE.STAT, new OProfilerHookValue() {
+            @Override
+            public Object getValue() {
+              return getHitRatio();
+            }
+          });
   }
 
   /**
@@ -39,7 +77,7 @@ public class OStatementCache {
    */
   public boolean contains(String statement) {
     synchronized (map) {
-      return map.containsKey(statement);
+      return map.containsKey(normalize(statement));
     }
   }
 
@@ -56,9 +94,10 @@ public class OStatementCache {
       return parse(statement);
     }
 
+    final String databaseName = db.getName();
     OStatementCache resource = db.getStorage().getResource(OStatementCache.class.getSimpleName(), new Callable<OStatementCache>() {
       @Override public OStatementCache call() throws Exception {
-        return new OStatementCache(OGlobalConfiguration.STATEMENT_CACHE_SIZE.getValueAsInteger());
+        return new OStatementCache(databaseName, OGlobalConfiguration.STATEMENT_CACHE_SIZE.getValueAsInteger());
       }
     });
     return resource.get(statement);
@@ -69,23 +108,100 @@ public class OStatementCache {
    * @return the corresponding executor, taking it from the internal cache, if it exists
    */
   public OStatement get(String statement) {
+    final String key = normalize(statement);
     OStatement result;
     synchronized (map) {
       //LRU
-      result = map.remove(statement);
+      result = map.remove(key);
       if (result != null) {
-        map.put(statement, result);
+        map.put(key, result);
       }
     }
     if (result == null) {
+      misses.incrementAndGet();
+      updateCounter("miss", "Statements not found in the statement cache and parsed");
+
       result = parse(statement);
       synchronized (map) {
-        map.put(statement, result);
+        map.put(key, result);
       }
+    } else {
+      hits.incrementAndGet();
+      updateCounter("hit", "Statements found in the statement cache");
     }
     return result;
   }
 
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  /**
+   * @return the ratio of the lookups served by the cache, 0 if the cache was never used
+   */
+  public float getHitRatio() {
+    final long h = hits.get();
+    final long total = h + misses.get();
+    return total == 0 ? 0 : (float) h / total;
+  }
+
+  @Override
+  public void close() {
+    synchronized (map) {
+      map.clear();
+    }
+    if (databaseName != null)
+      Orient.instance().getProfiler().unregisterHookValue(getMetricName("hitRatio"));
+  }
+
+  /**
+   * Normalizes an SQL statement to be used as cache key: leading and trailing spaces are removed and every sequence of white spaces
+   * outside of quoted strings and identifiers is replaced by a single space.
+   *
+   * @param statement the SQL statement
+   * @return the normalized statement
+   */
+  public static String normalize(final String statement) {
+    if (statement == null)
+      return null;
+
+    final String text = statement.trim();
+    final StringBuilder buffer = new StringBuilder(text.length());
+
+    char quote = 0;
+    boolean space = false;
+    for (int i = 0; i < text.length(); i++) {
+      final char c = text.charAt(i);
+
+      if (quote != 0) {
+        buffer.append(c);
+        if (c == '\\' && i + 1 < text.length())
+          buffer.append(text.charAt(++i));
+        else if (c == quote)
+          quote = 0;
+      } else if (Character.isWhitespace(c)) {
+        space = true;
+      } else {
+        if (space) {
+          buffer.append(' ');
+          space = false;
+        }
+        if (c == '\'' || c == '"' || c == '`')
+          quote = c;
+        buffer.append(c);
+      }
+    }
+    return buffer.toString();
+  }
+
   /**
    * parses an SQL statement and returns the corresponding executor
    *
@@ -109,4 +225,17 @@ public class OStatementCache {
     throw new OCommandSQLParsingException(e, statement);
   }
 
+  private String getMetricName(final String name) {
+    return Orient.instance().getProfiler().getDatabaseMetric(databaseName, "statementCache." + name);
+  }
+
+  private void updateCounter(final String name, final String description) {
+    if (databaseName == null)
+      return;
+
+    final OProfiler profiler = Orient.instance().getProfiler();
+    if (profiler.isRecording())
+      profiler.updateCounter(getMetricName(name), description, +1);
+  }
+
 }
@@ -33,6 +33,11 @@ public class OCacheEntry {
   boolean       dirty;
   int           usagesCount;
 
+  /**
+   * Page was loaded into cache by read-ahead and was not requested by user yet.
+   */
+  boolean       prefetched;
+
   public OCacheEntry(long fileId, long pageIndex, OCachePointer dataPointer, boolean dirty) {
     this.fileId = fileId;
     this.pageIndex = pageIndex;
@@ -53,6 +58,18 @@ public class OCacheEntry {
     return dirty;
   }
 
+  public void markPrefetched() {
+    this.prefetched = true;
+  }
+
+  public void clearPrefetched() {
+    this.prefetched = false;
+  }
+
+  public boolean isPrefetched() {
+    return prefetched;
+  }
+
   public OCachePointer getCachePointer() {
     return dataPointer;
   }
@@ -66,6 +66,20 @@ public interface OReadCache {
 
   OCacheEntry load(long fileId, long pageIndex, boolean checkPinnedPages, OWriteCache writeCache, int pageCount) throws IOException;
 
+  /**
+   * Loads pages of file into the cache in background thread, method returns immediately. Pages which are already contained in cache
+   * are not loaded again. Request may be silently dropped if there are too many pending requests.
+   * <p>
+   * Is used during sequential scan of file, so pages should be placed into the cache the way which does not lead to eviction of
+   * frequently used pages.
+   *
+   * @param fileId     Id of file pages of which should be loaded.
+   * @param pageIndex  Index of first page to load.
+   * @param pageCount  Amount of pages to load.
+   * @param writeCache Write cache which is used to read pages.
+   */
+  void prefetch(long fileId, long pageIndex, int pageCount, OWriteCache writeCache);
+
   void pinPage(OCacheEntry cacheEntry) throws IOException;
 
   OCacheEntry allocateNewPage(long fileId, OWriteCache writeCache) throws IOException;
@@ -74,6 +88,14 @@ public interface OReadCache {
 
   long getUsedMemory();
 
+  /**
+   * Changes amount of memory which may be used by given cache.
+   *
+   * @param readCacheMaxMemory New maximum size of cache in bytes.
+   * @throws IllegalStateException In case of new size of disk cache is too small to hold existing pinned pages.
+   */
+  void changeMaximumAmountOfMemory(long readCacheMaxMemory) throws IllegalStateException;
+
   void clear();
 
   void truncateFile(long fileId, OWriteCache writeCache) throws IOException;
@@ -30,6 +30,7 @@ import com.orientechnologies.common.serialization.types.OIntegerSerializer;
 import com.orientechnologies.common.serialization.types.OLongSerializer;
 import com.orientechnologies.common.types.OModifiableBoolean;
 import com.orientechnologies.orient.core.command.OCommandOutputListener;
+import com.orientechnologies.orient.core.config.OContextConfiguration;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.exception.OStorageException;
 import com.orientechnologies.orient.core.exception.OWriteCacheException;
@@ -40,7 +41,9 @@ import com.orientechnologies.orient.core.storage.cache.OAbstractWriteCache;
 import com.orientechnologies.orient.core.storage.cache.OCachePointer;
 import com.orientechnologies.orient.core.storage.cache.OPageDataVerificationError;
 import com.orientechnologies.orient.core.storage.cache.OWriteCache;
+import com.orientechnologies.orient.core.storage.fs.ODirectIO;
 import com.orientechnologies.orient.core.storage.fs.OFileClassic;
+import com.orientechnologies.orient.core.storage.fs.OFileMMap;
 import com.orientechnologies.orient.core.storage.impl.local.OLowDiskSpaceInformation;
 import com.orientechnologies.orient.core.storage.impl.local.OLowDiskSpaceListener;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
@@ -50,14 +53,18 @@ import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWrite
 import com.orientechnologies.orient.core.storage.impl.local.statistic.OPerformanceStatisticManager;
 import com.orientechnologies.orient.core.storage.impl.local.statistic.OSessionStoragePerformanceStatistic;
 
+import javax.management.*;
 import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
 import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.zip.CRC32;
@@ -66,7 +73,7 @@ import java.util.zip.CRC32;
  * @author Andrey Lomakin
  * @since 7/23/13
  */
-public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCachePointer.WritersListener {
+public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCachePointer.WritersListener, OWOWCacheMXBean {
   // we add 8 bytes before and after cache pages to prevent word tearing in mt case.
 
   private final int MAX_PAGES_PER_FLUSH;
@@ -81,6 +88,13 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
 
   private static final double MAX_LSN_SEGMENT_DISTANCE_FACTOR = 0.75;
 
+  /**
+   * Maximum amount of contiguous pages which are written by flush worker using single vectored write.
+   */
+  private static final int MAX_PAGES_PER_WRITE = 64;
+
+  public static final String MBEAN_NAME = "com.orientechnologies.orient.core.storage.cache.local:type=OWOWCacheMXBean";
+
   private final long freeSpaceLimit = OGlobalConfiguration.DISK_CACHE_FREE_SPACE_LIMIT.getValueAsLong() * 1024L * 1024L;
 
   private final int                                        diskSizeCheckInterval = OGlobalConfiguration.DISC_CACHE_FREE_SPACE_CHECK_INTERVAL_IN_PAGES
@@ -113,6 +127,19 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
 
   private final ExecutorService lowSpaceEventsPublisher;
 
+  /**
+   * Threads which flush pages of files assigned to them, <code>null</code> if all pages are flushed by {@link #commitExecutor}.
+   */
+  private final FlushWorker[] flushWorkers;
+
+  /**
+   * Extensions of files which are read using memory mapping, see {@link OGlobalConfiguration#DISK_CACHE_MMAP_FILE_EXTENSIONS}.
+   */
+  private final Set<String> mappedFileExtensions;
+  private final int         mappedWindowSize;
+
+  private final AtomicBoolean mbeanIsRegistered = new AtomicBoolean();
+
   private volatile ConcurrentMap<String, Integer> nameIdMap;
 
   private       RandomAccessFile nameIdMapHolder;
@@ -132,6 +159,14 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
 
   private final OByteBufferPool bufferPool;
 
+  /**
+   * If direct I/O is used pages are written from direct buffers of {@link #bufferPool}, which are aligned as direct I/O requires,
+   * instead of heap buffers.
+   *
+   * @see ODirectIO
+   */
+  private final boolean directIO = ODirectIO.isEnabled();
+
   /**
    * Listeners which are called when exception in background data flush thread is happened.
    */
@@ -140,6 +175,17 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
   public OWOWCache(boolean syncOnPageFlush, int pageSize, OByteBufferPool bufferPool, long groupTTL, OWriteAheadLog writeAheadLog,
       long pageFlushInterval, long writeCacheMaxSize, long cacheMaxSize, OLocalPaginatedStorage storageLocal, boolean checkMinSize,
       OClosableLinkedContainer<Long, OFileClassic> files, int id) {
+    this(syncOnPageFlush, pageSize, bufferPool, groupTTL, writeAheadLog, pageFlushInterval, writeCacheMaxSize, cacheMaxSize,
+        storageLocal, checkMinSize, files, id, OGlobalConfiguration.DISK_WRITE_CACHE_FLUSH_THREADS.getValueAsInteger());
+  }
+
+  /**
+   * @param flushThreads Amount of threads which flush pages of write cache. If value is more than 1 dirty pages are split between
+   *                     threads by files, otherwise all pages are flushed by single background thread.
+   */
+  public OWOWCache(boolean syncOnPageFlush, int pageSize, OByteBufferPool bufferPool, long groupTTL, OWriteAheadLog writeAheadLog,
+      long pageFlushInterval, long writeCacheMaxSize, long cacheMaxSize, OLocalPaginatedStorage storageLocal, boolean checkMinSize,
+      OClosableLinkedContainer<Long, OFileClassic> files, int id, int flushThreads) {
     filesLock.acquireWriteLock();
     try {
       this.id = id;
@@ -173,6 +219,26 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
       commitExecutor = Executors.newSingleThreadScheduledExecutor(new FlushThreadFactory(storageLocal.getName()));
       lowSpaceEventsPublisher = Executors.newCachedThreadPool(new LowSpaceEventsPublisherFactory(storageLocal.getName()));
 
+      if (flushThreads > 1) {
+        flushWorkers = new FlushWorker[flushThreads];
+        for (int i = 0; i < flushThreads; i++) {
+          flushWorkers[i] = new FlushWorker(i);
+        }
+      } else {
+        flushWorkers = null;
+      }
+
+      final OContextConfiguration contextConfiguration =
+          storageLocal.getConfiguration() != null ? storageLocal.getConfiguration().getContextConfiguration() : null;
+      if (contextConfiguration != null) {
+        mappedFileExtensions = parseFileExtensions(
+            contextConfiguration.getValueAsString(OGlobalConfiguration.DISK_CACHE_MMAP_FILE_EXTENSIONS));
+        mappedWindowSize = contextConfiguration.getValueAsInteger(OGlobalConfiguration.DISK_CACHE_MMAP_WINDOW_SIZE) * 1024 * 1024;
+      } else {
+        mappedFileExtensions = parseFileExtensions(OGlobalConfiguration.DISK_CACHE_MMAP_FILE_EXTENSIONS.getValueAsString());
+        mappedWindowSize = OGlobalConfiguration.DISK_CACHE_MMAP_WINDOW_SIZE.getValueAsInteger() * 1024 * 1024;
+      }
+
       MAX_PAGES_PER_FLUSH = (int) (4000 / (1000.0 / pageFlushInterval));
 
       if (pageFlushInterval > 0)
@@ -333,6 +399,36 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
     return (int) crc32.getValue();
   }
 
+  private static int calculatePageCrc(ByteBuffer pageData) {
+    final ByteBuffer data = pageData.duplicate();
+    data.position(0);
+
+    final byte[] content = new byte[data.limit()];
+    data.get(content);
+
+    return calculatePageCrc(content);
+  }
+
+  /**
+   * Copies content of page into the direct buffer acquired from {@link #bufferPool} and fills magic number and CRC of copied page.
+   * Returned buffer should be released back to the pool once page is written.
+   */
+  private ByteBuffer copyPageToDirectBuffer(ByteBuffer buffer) {
+    final ByteBuffer source = buffer.duplicate();
+    source.position(0);
+    source.limit(pageSize);
+
+    final ByteBuffer content = bufferPool.acquireDirect(false);
+    content.put(source);
+    content.position(0);
+    content.limit(pageSize);
+
+    content.putLong(0, MAGIC_NUMBER);
+    content.putInt(OLongSerializer.LONG_SIZE, calculatePageCrc(content));
+
+    return content;
+  }
+
   public long bookFileId(String fileName) throws IOException {
     filesLock.acquireWriteLock();
     try {
@@ -710,6 +806,20 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
   }
 
   public void flush() {
+    if (flushWorkers != null) {
+      final Future<Void> future = commitExecutor.submit(new FlushWorkersFilesFlushTask());
+      try {
+        future.get();
+      } catch (InterruptedException e) {
+        Thread.interrupted();
+        throw new OInterruptedException("File flush was interrupted");
+      } catch (Exception e) {
+        throw OException.wrapException(new OWriteCacheException("File flush was abnormally terminated"), e);
+      }
+
+      return;
+    }
+
     int counter = 0;
     for (int intId : nameIdMap.values()) {
       if (intId < 0)
@@ -828,6 +938,9 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
       }
     }
 
+    shutdownFlushWorkers();
+    unregisterMBean();
+
     final List<Long> result = new ArrayList<Long>();
 
     filesLock.acquireWriteLock();
@@ -1023,6 +1136,9 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
       }
     }
 
+    shutdownFlushWorkers();
+    unregisterMBean();
+
     final long[] ids = new long[result.size()];
     int counter = 0;
     for (long id : result) {
@@ -1064,6 +1180,140 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
     return exclusiveWriteCacheSize.get();
   }
 
+  @Override
+  public long getWriteCacheSizeInMB() {
+    return getWriteCacheSize() * pageSize / (1024 * 1024);
+  }
+
+  @Override
+  public double getWriteCacheSizeInGB() {
+    return Math.ceil((getWriteCacheSize() * pageSize * 100) / (1024.0 * 1024 * 1024)) / 100;
+  }
+
+  @Override
+  public long getExclusiveWriteCacheSizeInMB() {
+    return getExclusiveWriteCacheSize() * pageSize / (1024 * 1024);
+  }
+
+  @Override
+  public double getExclusiveWriteCacheSizeInGB() {
+    return Math.ceil((getExclusiveWriteCacheSize() * pageSize * 100) / (1024.0 * 1024 * 1024)) / 100;
+  }
+
+  @Override
+  public int getFlushWorkersCount() {
+    return flushWorkers == null ? 0 : flushWorkers.length;
+  }
+
+  @Override
+  public long[] getFlushWorkersFlushedPages() {
+    final long[] result = new long[getFlushWorkersCount()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = flushWorkers[i].totalFlushedPages.get();
+    }
+
+    return result;
+  }
+
+  @Override
+  public double[] getFlushWorkersPagesPerSecond() {
+    final double[] result = new double[getFlushWorkersCount()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = flushWorkers[i].getPagesPerSecond();
+    }
+
+    return result;
+  }
+
+  @Override
+  public int[] getFlushWorkersQueueDepth() {
+    final int[] result = new int[getFlushWorkersCount()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = Math.max(0, flushWorkers[i].queueDepth.get());
+    }
+
+    return result;
+  }
+
+  /**
+   * Registers the MBean for this write cache.
+   *
+   * @see OWOWCacheMXBean
+   */
+  public void registerMBean() {
+    if (mbeanIsRegistered.compareAndSet(false, true)) {
+      try {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName mbeanName = new ObjectName(getMBeanName());
+
+        if (!server.isRegistered(mbeanName)) {
+          server.registerMBean(this, mbeanName);
+        } else {
+          mbeanIsRegistered.set(false);
+          OLogManager.instance().warn(this,
+              "MBean with name %s has already registered. Probably your system was not shutdown correctly "
+                  + "or you have several running applications which use OrientDB engine inside", mbeanName.getCanonicalName());
+        }
+
+      } catch (MalformedObjectNameException e) {
+        throw OException.wrapException(new OWriteCacheException("Error during registration of write cache MBean"), e);
+      } catch (InstanceAlreadyExistsException e) {
+        throw OException.wrapException(new OWriteCacheException("Error during registration of write cache MBean"), e);
+      } catch (MBeanRegistrationException e) {
+        throw OException.wrapException(new OWriteCacheException("Error during registration of write cache MBean"), e);
+      } catch (NotCompliantMBeanException e) {
+        throw OException.wrapException(new OWriteCacheException("Error during registration of write cache MBean"), e);
+      }
+    }
+  }
+
+  /**
+   * Unregisters the MBean for this write cache.
+   *
+   * @see OWOWCacheMXBean
+   */
+  public void unregisterMBean() {
+    if (mbeanIsRegistered.compareAndSet(true, false)) {
+      try {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName mbeanName = new ObjectName(getMBeanName());
+        server.unregisterMBean(mbeanName);
+      } catch (MalformedObjectNameException e) {
+        throw OException.wrapException(new OWriteCacheException("Error during unregistration of write cache MBean"), e);
+      } catch (InstanceNotFoundException e) {
+        throw OException.wrapException(new OWriteCacheException("Error during unregistration of write cache MBean"), e);
+      } catch (MBeanRegistrationException e) {
+        throw OException.wrapException(new OWriteCacheException("Error during unregistration of write cache MBean"), e);
+      }
+    }
+  }
+
+  private String getMBeanName() {
+    return MBEAN_NAME + ",name=" + ObjectName.quote(storageLocal.getName()) + ",id=" + id;
+  }
+
+  private void shutdownFlushWorkers() {
+    if (flushWorkers == null)
+      return;
+
+    for (FlushWorker flushWorker : flushWorkers) {
+      final ExecutorService executor = flushWorker.executor;
+      if (executor.isShutdown())
+        continue;
+
+      executor.shutdown();
+      try {
+        if (!executor.awaitTermination(5, TimeUnit.MINUTES))
+          throw new OWriteCacheException("Background data flush task cannot be stopped.");
+      } catch (InterruptedException e) {
+        OLogManager.instance().error(this, "Data flush thread was interrupted");
+
+        Thread.interrupted();
+        throw new OInterruptedException("Data flush thread was interrupted");
+      }
+    }
+  }
+
   private void openFile(final OFileClassic fileClassic) throws IOException {
     if (fileClassic.exists()) {
       if (!fileClassic.isOpen())
@@ -1100,9 +1350,33 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
   private OFileClassic createFileInstance(String fileName) {
     final String path = storageLocal.getVariableParser()
         .resolveVariables(storageLocal.getStoragePath() + File.separator + fileName);
+
+    final int extensionIndex = fileName.lastIndexOf('.');
+    if (extensionIndex >= 0 && mappedFileExtensions.contains(fileName.substring(extensionIndex).toLowerCase(Locale.ENGLISH)))
+      return new OFileMMap(path, storageLocal.getMode(), mappedWindowSize);
+
     return new OFileClassic(path, storageLocal.getMode());
   }
 
+  private static Set<String> parseFileExtensions(String extensions) {
+    if (extensions == null || extensions.trim().isEmpty())
+      return Collections.emptySet();
+
+    final Set<String> result = new HashSet<String>();
+    for (String extension : extensions.split(",")) {
+      extension = extension.trim().toLowerCase(Locale.ENGLISH);
+      if (extension.isEmpty())
+        continue;
+
+      if (extension.charAt(0) != '.')
+        extension = '.' + extension;
+
+      result.add(extension);
+    }
+
+    return result;
+  }
+
   private void readNameIdMap() throws IOException {
     nameIdMap = new ConcurrentHashMap<String, Integer>();
     long localFileCounter = -1;
@@ -1311,6 +1585,25 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
         writeAheadLog.flush();
     }
 
+    final long externalId = composeFileId(id, fileId);
+
+    if (directIO) {
+      final ByteBuffer content = copyPageToDirectBuffer(buffer);
+      final OClosableEntry<Long, OFileClassic> entry = files.acquire(externalId);
+      try {
+        final OFileClassic fileClassic = entry.get();
+        fileClassic.write(pageIndex * pageSize, content);
+
+        if (syncOnPageFlush)
+          fileClassic.synch();
+      } finally {
+        files.release(entry);
+        bufferPool.release(content);
+      }
+
+      return;
+    }
+
     final byte[] content = new byte[pageSize];
     buffer.position(0);
     buffer.get(content);
@@ -1320,7 +1613,6 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
     final int crc32 = calculatePageCrc(content);
     OIntegerSerializer.INSTANCE.serializeNative(crc32, content, OLongSerializer.LONG_SIZE);
 
-    final long externalId = composeFileId(id, fileId);
     final OClosableEntry<Long, OFileClassic> entry = files.acquire(externalId);
     try {
       final OFileClassic fileClassic = entry.get();
@@ -1471,6 +1763,11 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
 
         writePagesToFlush = Math.max(4, Math.min(MAX_PAGES_PER_FLUSH, writePagesToFlush));
 
+        if (flushWorkers != null) {
+          flushedPages = flushByWorkers(writePagesToFlush, forceFlush, iterateByWritePagesFirst);
+          return;
+        }
+
         // Obtain page keys with minimum LSNs and rewind them one position back to include them into tailSet/tailMap view later.
         lastPageKey = findNonExclusivePageKeyWithMinimumLsn().previous();
         lastWritePageKey = findExclusivePageKeyWithMinimumLsn().previous();
@@ -1734,15 +2031,69 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
       return flushedWritePages;
     }
 
-    private boolean tooOldLsn(OLogSequenceNumber lsn, long maxSegmentDistance) {
-      if (lsn == null || maxSegmentDistance == -1)
-        return false;
+    /**
+     * Splits amount of pages which should be flushed between flush workers proportionally to the amount of dirty pages of their
+     * files and waits till all workers finish their part of work. Because this task does not complete till pages are written, fuzzy
+     * checkpoint which is executed by the same {@link #commitExecutor} still observes consistent state of write cache.
+     */
+    private int flushByWorkers(final int writePagesToFlush, final boolean forceFlush, final boolean iterateByWritePagesFirst)
+        throws InterruptedException, ExecutionException {
+      final int[] dirtyPages = countFlushWorkersDirtyPages();
+
+      int totalDirtyPages = 0;
+      for (int pages : dirtyPages) {
+        totalDirtyPages += pages;
+      }
 
-      final OLogSequenceNumber walLsn = writeAheadLog.getFlushedLsn();
-      return walLsn != null && Math.abs(walLsn.getSegment() - lsn.getSegment()) > maxSegmentDistance;
+      if (totalDirtyPages == 0)
+        return 0;
+
+      final List<Future<Integer>> futures = new ArrayList<Future<Integer>>(flushWorkers.length);
+      for (int i = 0; i < flushWorkers.length; i++) {
+        if (dirtyPages[i] == 0)
+          continue;
+
+        final int pagesToFlush = (int) Math.ceil(((double) writePagesToFlush) * dirtyPages[i] / totalDirtyPages);
+        futures.add(flushWorkers[i].submitPeriodicFlush(pagesToFlush, forceFlush, iterateByWritePagesFirst));
+      }
+
+      int flushedPages = 0;
+      for (Future<Integer> future : futures) {
+        flushedPages += future.get();
+      }
+
+      return flushedPages;
     }
   }
 
+  private boolean tooOldLsn(OLogSequenceNumber lsn, long maxSegmentDistance) {
+    if (lsn == null || maxSegmentDistance == -1)
+      return false;
+
+    final OLogSequenceNumber walLsn = writeAheadLog.getFlushedLsn();
+    return walLsn != null && Math.abs(walLsn.getSegment() - lsn.getSegment()) > maxSegmentDistance;
+  }
+
+  /**
+   * Calculates amount of dirty pages which belong to the files of each flush worker and updates queue depth of workers.
+   */
+  private int[] countFlushWorkersDirtyPages() {
+    final int[] dirtyPages = new int[flushWorkers.length];
+    for (PageKey pageKey : writeCachePages.keySet()) {
+      dirtyPages[flushWorkerIndex(pageKey.fileId)]++;
+    }
+
+    for (int i = 0; i < flushWorkers.length; i++) {
+      flushWorkers[i].queueDepth.set(dirtyPages[i]);
+    }
+
+    return dirtyPages;
+  }
+
+  private int flushWorkerIndex(final int fileId) {
+    return (fileId & Integer.MAX_VALUE) % flushWorkers.length;
+  }
+
   private final class PeriodicalFuzzyCheckpointTask implements Runnable {
     private PeriodicalFuzzyCheckpointTask() {
     }
@@ -1876,6 +2227,294 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
     }
   }
 
+  /**
+   * Flushes all files of write cache using flush workers. Each worker flushes and syncs files assigned to it.
+   */
+  private final class FlushWorkersFilesFlushTask implements Callable<Void> {
+    @Override
+    public Void call() throws Exception {
+      countFlushWorkersDirtyPages();
+
+      final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (int intId : nameIdMap.values()) {
+        if (intId < 0)
+          continue;
+
+        futures.add(flushWorkers[flushWorkerIndex(intId)].submitFileFlush(intId));
+      }
+
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+
+      return null;
+    }
+  }
+
+  /**
+   * Flushes pages of files assigned to it. File is assigned to the worker by its id, so pages of single file are always flushed by
+   * the same thread. Contiguous dirty pages are written to the file by single vectored write and write ahead log is flushed only
+   * once for each such write.
+   * <p>
+   * All tasks of worker are submitted by tasks executed in {@link #commitExecutor} which wait for their completion, so flush
+   * workers never run concurrently with fuzzy checkpoint, file truncation or removal of file pages.
+   */
+  private final class FlushWorker {
+    private final ExecutorService executor;
+
+    private final AtomicLong    totalFlushedPages = new AtomicLong();
+    private final AtomicInteger queueDepth        = new AtomicInteger();
+
+    /**
+     * Last processed page, next periodic flush starts from the page after it. Accessed only by worker thread.
+     */
+    private PageKey lastFlushedPageKey = new PageKey(0, -1);
+
+    private long   lastSampleTime = System.nanoTime();
+    private long   lastSamplePages;
+    private double pagesPerSecond;
+
+    private final List<OCachePointer> runPointers = new ArrayList<OCachePointer>(MAX_PAGES_PER_WRITE);
+    private       int                 runFileId;
+    private       long                runStartPageIndex;
+
+    private FlushWorker(final int index) {
+      executor = Executors.newSingleThreadExecutor(new FlushWorkerThreadFactory(storageLocal.getName(), index));
+    }
+
+    private Future<Integer> submitPeriodicFlush(final int pagesToFlush, final boolean forceFlush,
+        final boolean iterateByWritePagesFirst) {
+      return executor.submit(new Callable<Integer>() {
+        @Override
+        public Integer call() throws Exception {
+          int flushedPages = 0;
+
+          if (iterateByWritePagesFirst) {
+            flushedPages = flushRing(exclusiveWritePages, pagesToFlush, flushedPages, false);
+          }
+
+          if (flushedPages < pagesToFlush) {
+            flushedPages = flushRing(writeCachePages.navigableKeySet(), pagesToFlush, flushedPages, false);
+          }
+
+          if (flushedPages < pagesToFlush && forceFlush) {
+            flushedPages = flushRing(writeCachePages.navigableKeySet(), pagesToFlush, flushedPages, true);
+          }
+
+          return flushedPages;
+        }
+      });
+    }
+
+    private Future<Void> submitFileFlush(final int fileId) {
+      return executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          final PageKey firstKey = new PageKey(fileId, -1);
+          final PageKey lastKey = new PageKey(fileId, Long.MAX_VALUE);
+
+          flushPages(writeCachePages.navigableKeySet().subSet(firstKey, false, lastKey, true), Integer.MAX_VALUE, 0, true);
+
+          final OClosableEntry<Long, OFileClassic> entry = files.acquire(composeFileId(id, fileId));
+          try {
+            entry.get().synch();
+          } finally {
+            files.release(entry);
+          }
+
+          return null;
+        }
+      });
+    }
+
+    private synchronized double getPagesPerSecond() {
+      final long currentTime = System.nanoTime();
+      final long interval = currentTime - lastSampleTime;
+
+      if (interval >= 1000000000L) {
+        final long pages = totalFlushedPages.get();
+
+        pagesPerSecond = (pages - lastSamplePages) * 1000000000.0 / interval;
+        lastSamplePages = pages;
+        lastSampleTime = currentTime;
+      }
+
+      return pagesPerSecond;
+    }
+
+    /**
+     * Iterates over pages of ring starting from the page which follows last processed page.
+     */
+    private int flushRing(final NavigableSet<PageKey> ring, final int pagesToFlush, int flushedPages, final boolean forceFlush)
+        throws IOException {
+      final PageKey startKey = lastFlushedPageKey;
+
+      flushedPages = flushPages(ring.tailSet(startKey, false), pagesToFlush, flushedPages, forceFlush);
+      if (flushedPages < pagesToFlush) {
+        flushedPages = flushPages(ring.headSet(startKey, true), pagesToFlush, flushedPages, forceFlush);
+      }
+
+      return flushedPages;
+    }
+
+    private int flushPages(final NavigableSet<PageKey> pageKeys, final int pagesToFlush, int flushedPages, final boolean forceFlush)
+        throws IOException {
+      final long currentTime = System.currentTimeMillis();
+      final long maxSegmentDistance =
+          writeAheadLog == null ? -1 : (long) (writeAheadLog.getPreferredSegmentCount() * MAX_LSN_SEGMENT_DISTANCE_FACTOR);
+
+      PageKey pageKey = pageKeys.ceiling(new PageKey(Integer.MIN_VALUE, Long.MIN_VALUE));
+      while (pageKey != null && flushedPages + runPointers.size() < pagesToFlush) {
+        final FlushWorker owner = flushWorkers[flushWorkerIndex(pageKey.fileId)];
+        if (owner != this) {
+          // skip pages of files which are flushed by other workers
+          pageKey = pageKeys.ceiling(new PageKey(pageKey.fileId + 1, Long.MIN_VALUE));
+          continue;
+        }
+
+        if (!runPointers.isEmpty() && (runFileId != pageKey.fileId
+            || runStartPageIndex + runPointers.size() != pageKey.pageIndex || runPointers.size() >= MAX_PAGES_PER_WRITE)) {
+          flushedPages += flushRun();
+        }
+
+        lockManager.acquireExclusiveLock(pageKey);
+        try {
+          final PageGroup group = writeCachePages.get(pageKey);
+
+          if (group != null) {
+            final OCachePointer pagePointer = group.page;
+            final boolean weakLockMode =
+                currentTime - group.creationTime < groupTTL && !forceFlush && !tooOldLsn(pagePointer.getLastFlushedLsn(),
+                    maxSegmentDistance);
+
+            if (group.recencyBit && weakLockMode) {
+              group.recencyBit = false;
+            } else {
+              group.recencyBit = false;
+
+              if (pagePointer.tryAcquireSharedLock()) {
+                if (runPointers.isEmpty()) {
+                  runFileId = pageKey.fileId;
+                  runStartPageIndex = pageKey.pageIndex;
+                }
+
+                runPointers.add(pagePointer);
+              }
+            }
+          }
+        } finally {
+          lockManager.releaseExclusiveLock(pageKey);
+        }
+
+        lastFlushedPageKey = pageKey;
+        pageKey = pageKeys.higher(pageKey);
+      }
+
+      if (!runPointers.isEmpty())
+        flushedPages += flushRun();
+
+      return flushedPages;
+    }
+
+    /**
+     * Writes collected run of contiguous pages. Shared locks of pages are acquired during collection of run and are held till pages
+     * are written, so content of pages can not be changed before they are removed from write cache.
+     */
+    private int flushRun() throws IOException {
+      final int pagesCount = runPointers.size();
+      final ByteBuffer[] buffers = new ByteBuffer[pagesCount];
+      final OLogSequenceNumber[] lsns = new OLogSequenceNumber[pagesCount];
+
+      boolean flushed = false;
+      try {
+        OLogSequenceNumber maxLsn = null;
+
+        for (int i = 0; i < pagesCount; i++) {
+          final ByteBuffer buffer = runPointers.get(i).getSharedBuffer();
+          lsns[i] = ODurablePage.getLogSequenceNumberFromPage(buffer);
+
+          if (maxLsn == null || maxLsn.compareTo(lsns[i]) < 0)
+            maxLsn = lsns[i];
+
+          if (directIO) {
+            buffers[i] = copyPageToDirectBuffer(buffer);
+            continue;
+          }
+
+          final byte[] content = new byte[pageSize];
+          buffer.position(0);
+          buffer.get(content);
+
+          OLongSerializer.INSTANCE.serializeNative(MAGIC_NUMBER, content, 0);
+
+          final int crc32 = calculatePageCrc(content);
+          OIntegerSerializer.INSTANCE.serializeNative(crc32, content, OLongSerializer.LONG_SIZE);
+
+          buffers[i] = ByteBuffer.wrap(content);
+        }
+
+        if (writeAheadLog != null) {
+          final OLogSequenceNumber flushedLSN = writeAheadLog.getFlushedLsn();
+
+          if (flushedLSN == null || flushedLSN.compareTo(maxLsn) < 0)
+            writeAheadLog.flush();
+        }
+
+        final OClosableEntry<Long, OFileClassic> entry = files.acquire(composeFileId(id, runFileId));
+        try {
+          final OFileClassic fileClassic = entry.get();
+          fileClassic.write(runStartPageIndex * pageSize, buffers);
+
+          if (syncOnPageFlush)
+            fileClassic.synch();
+        } finally {
+          files.release(entry);
+        }
+
+        flushed = true;
+      } finally {
+        if (directIO) {
+          for (ByteBuffer buffer : buffers) {
+            if (buffer != null)
+              bufferPool.release(buffer);
+          }
+        }
+
+        for (int i = 0; i < pagesCount; i++) {
+          final OCachePointer pagePointer = runPointers.get(i);
+          final PageKey pageKey = new PageKey(runFileId, runStartPageIndex + i);
+
+          lockManager.acquireExclusiveLock(pageKey);
+          try {
+            if (flushed)
+              pagePointer.setLastFlushedLsn(lsns[i]);
+
+            pagePointer.releaseSharedLock();
+
+            if (flushed) {
+              pagePointer.decrementWritersReferrer();
+              pagePointer.setWritersListener(null);
+
+              writeCachePages.remove(pageKey);
+            }
+          } finally {
+            lockManager.releaseExclusiveLock(pageKey);
+          }
+
+          if (flushed)
+            writeCacheSize.decrement();
+        }
+
+        runPointers.clear();
+      }
+
+      totalFlushedPages.addAndGet(pagesCount);
+      queueDepth.addAndGet(-pagesCount);
+
+      return pagesCount;
+    }
+  }
+
   private final class RemoveFilePagesTask implements Callable<Void> {
     private final int fileId;
 
@@ -1938,6 +2577,25 @@ public class OWOWCache extends OAbstractWriteCache implements OWriteCache, OCach
     }
   }
 
+  private static class FlushWorkerThreadFactory implements ThreadFactory {
+    private final String storageName;
+    private final int    index;
+
+    private FlushWorkerThreadFactory(String storageName, int index) {
+      this.storageName = storageName;
+      this.index = index;
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(OStorageAbstract.storageThreadGroup, r);
+      thread.setDaemon(true);
+      thread.setPriority(Thread.MAX_PRIORITY);
+      thread.setName("OrientDB Write Cache Flush Worker #" + index + " (" + storageName + ")");
+      return thread;
+    }
+  }
+
   private static class LowSpaceEventsPublisherFactory implements ThreadFactory {
     private final String storageName;
 
@@ -23,6 +23,9 @@ package com.orientechnologies.orient.core.storage.cache.local;
 import java.util.Date;
 
 public interface OWOWCacheMXBean {
+  /**
+   * @return Amount of pages in write cache.
+   */
   long getWriteCacheSize();
 
   long getWriteCacheSizeInMB();
@@ -34,4 +37,26 @@ public interface OWOWCacheMXBean {
   long getExclusiveWriteCacheSizeInMB();
 
   double getExclusiveWriteCacheSizeInGB();
+
+  /**
+   * @return Amount of threads which flush pages of write cache in parallel or <code>0</code> if pages are flushed by single
+   * background thread.
+   * @see com.orientechnologies.orient.core.config.OGlobalConfiguration#DISK_WRITE_CACHE_FLUSH_THREADS
+   */
+  int getFlushWorkersCount();
+
+  /**
+   * @return Amount of pages flushed by each flush thread since write cache was opened.
+   */
+  long[] getFlushWorkersFlushedPages();
+
+  /**
+   * @return Amount of pages flushed by each flush thread per second, value is recalculated not more often than once per second.
+   */
+  double[] getFlushWorkersPagesPerSecond();
+
+  /**
+   * @return Amount of dirty pages which belong to files of each flush thread and were not flushed yet.
+   */
+  int[] getFlushWorkersQueueDepth();
 }
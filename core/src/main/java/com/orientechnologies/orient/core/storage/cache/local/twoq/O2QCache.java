@@ -29,6 +29,7 @@ import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.exception.OAllCacheEntriesAreUsedException;
 import com.orientechnologies.orient.core.exception.OReadCacheException;
 import com.orientechnologies.orient.core.exception.OStorageException;
+import com.orientechnologies.orient.core.storage.OStorageAbstract;
 import com.orientechnologies.orient.core.storage.cache.*;
 import com.orientechnologies.orient.core.storage.impl.local.statistic.OSessionStoragePerformanceStatistic;
 
@@ -36,18 +37,28 @@ import java.io.*;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * @author Andrey Lomakin
  * @since 7/24/13
  */
-public class O2QCache implements OReadCache {
+public class O2QCache implements OReadCache, O2QCacheMXBean {
   /**
    * Maximum percent of pinned pages which may be contained in this cache.
    */
@@ -76,6 +87,52 @@ public class O2QCache implements OReadCache {
    */
   public static final String CACHE_STATISTIC_FILE_EXTENSION = ".stt";
 
+  /**
+   * Maximum amount of sequential pages which are read from disk by single request during background load of cache state.
+   */
+  private static final int WARM_UP_MAX_PAGES_PER_READ = 64;
+
+  /**
+   * Interval of time during which background load of cache state is paused if pages are read from disk by user requests.
+   */
+  private static final long WARM_UP_PAUSE_INTERVAL = TimeUnit.MICROSECONDS.toNanos(100);
+
+  /**
+   * Maximum amount of pauses before next portion of pages is loaded by background load of cache state, so cache state is
+   * restored even if user requests read pages from disk all the time.
+   */
+  private static final int WARM_UP_MAX_PAUSES = 100;
+
+  /**
+   * Interval between messages about progress of background load of cache state in server log.
+   */
+  private static final long WARM_UP_LOG_INTERVAL = TimeUnit.SECONDS.toNanos(10);
+
+  /**
+   * Executor which loads pages of stored cache states in background, it is shared between all caches so only single stream of
+   * sequential reads is issued to the disk.
+   */
+  private static final ExecutorService warmUpExecutor = Executors
+      .newSingleThreadExecutor(new LoaderThreadFactory("OrientDB Disk Cache State Loader"));
+
+  /**
+   * Amount of threads which load pages requested by read-ahead.
+   */
+  private static final int READ_AHEAD_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+  /**
+   * Maximum amount of read-ahead requests which wait for execution, requests which do not fit into the queue are dropped.
+   */
+  private static final int READ_AHEAD_QUEUE_SIZE = 1024;
+
+  /**
+   * Executor which loads pages requested by read-ahead ({@link #prefetch(long, long, int, OWriteCache)}), it is shared between all
+   * caches.
+   */
+  private static final ExecutorService readAheadExecutor = new ThreadPoolExecutor(READ_AHEAD_THREADS, READ_AHEAD_THREADS, 0L,
+      TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(READ_AHEAD_QUEUE_SIZE),
+      new LoaderThreadFactory("OrientDB Disk Cache Read Ahead"), new ThreadPoolExecutor.DiscardPolicy());
+
   private final LRUList am;
   private final LRUList a1out;
   private final LRUList a1in;
@@ -112,6 +169,39 @@ public class O2QCache implements OReadCache {
 
   private final AtomicBoolean coldPagesRemovalInProgress = new AtomicBoolean();
 
+  /**
+   * Background loads of cache state which are not completed yet, key is id of write cache (storage) state of which is loaded.
+   */
+  private final ConcurrentMap<Integer, WarmUp> warmUps = new ConcurrentHashMap<Integer, WarmUp>();
+
+  /**
+   * Amount of pages which are read from disk by user requests at the moment, background load of cache state is paused if this
+   * value is not zero.
+   */
+  private final AtomicInteger foregroundPageReads = new AtomicInteger();
+
+  private final AtomicLong warmUpPagesTotal     = new AtomicLong();
+  private final AtomicLong warmUpPagesProcessed = new AtomicLong();
+  private final AtomicLong warmUpStartTime      = new AtomicLong();
+  private final AtomicLong warmUpEndTime        = new AtomicLong();
+
+  /**
+   * Amount of pages which were loaded into the cache by read-ahead.
+   */
+  private final AtomicLong readAheadPages = new AtomicLong();
+
+  /**
+   * Amount of pages loaded by read-ahead which were requested by user before they were evicted from the cache.
+   */
+  private final AtomicLong readAheadHits = new AtomicLong();
+
+  /**
+   * Name of file which contains stored state of this cache.
+   *
+   * @see #CACHE_STATE_FILE
+   */
+  private final String stateFileName;
+
   /**
    * @param readCacheMaxMemory   Maximum amount of direct memory which can allocated by disk cache in bytes.
    * @param pageSize             Cache page size in bytes.
@@ -120,11 +210,25 @@ public class O2QCache implements OReadCache {
    * @see #MAX_PERCENT_OF_PINED_PAGES
    */
   public O2QCache(final long readCacheMaxMemory, final int pageSize, final boolean checkMinSize, final int percentOfPinnedPages) {
+    this(readCacheMaxMemory, pageSize, checkMinSize, percentOfPinnedPages, CACHE_STATE_FILE);
+  }
+
+  /**
+   * @param readCacheMaxMemory   Maximum amount of direct memory which can allocated by disk cache in bytes.
+   * @param pageSize             Cache page size in bytes.
+   * @param checkMinSize         If this flat is set size of cache may be {@link #MIN_CACHE_SIZE} or bigger.
+   * @param percentOfPinnedPages Maximum percent of pinned pages which may be hold by this cache.
+   * @param stateFileName        Name of file which is used to store state of cache between storage open/close cycles.
+   * @see #MAX_PERCENT_OF_PINED_PAGES
+   */
+  O2QCache(final long readCacheMaxMemory, final int pageSize, final boolean checkMinSize, final int percentOfPinnedPages,
+      final String stateFileName) {
     if (percentOfPinnedPages > MAX_PERCENT_OF_PINED_PAGES)
       throw new IllegalArgumentException(
           "Percent of pinned pages cannot be more than " + percentOfPinnedPages + " but passed value is " + percentOfPinnedPages);
 
     this.percentOfPinnedPages = percentOfPinnedPages;
+    this.stateFileName = stateFileName;
 
     cacheLock.acquireWriteLock();
     try {
@@ -253,6 +357,7 @@ public class O2QCache implements OReadCache {
    * @param readCacheMaxMemory New maximum size of cache in bytes.
    * @throws IllegalStateException In case of new size of disk cache is too small to hold existing pinned pages.
    */
+  @Override
   public void changeMaximumAmountOfMemory(final long readCacheMaxMemory) throws IllegalStateException {
     MemoryData memoryData;
     MemoryData newMemoryData;
@@ -316,6 +421,112 @@ public class O2QCache implements OReadCache {
     }
   }
 
+  /**
+   * Queues load of pages into this cache. Loaded pages are put only into a1in queue, and if they are not requested by user till they
+   * are evicted from a1in queue they are not remembered in a1out queue, so sequential scans do not evict pages of am queue.
+   */
+  @Override
+  public void prefetch(long fileId, final long pageIndex, final int pageCount, final OWriteCache writeCache) {
+    if (pageCount < 1)
+      return;
+
+    final long fid = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+    readAheadExecutor.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          readAhead(fid, pageIndex, pageCount, writeCache);
+        } catch (Exception e) {
+          // file may be closed or deleted after read-ahead was requested
+          OLogManager.instance().debug(this, "Read-ahead of %d pages of file %d is not completed", e, pageCount, fid);
+        }
+      }
+    });
+  }
+
+  /**
+   * Loads pages requested by read-ahead. Pages which are already present in cache at the beginning and at the end of requested range
+   * are not read from disk.
+   */
+  void readAhead(final long fileId, long pageIndex, int pageCount, final OWriteCache writeCache) throws IOException {
+    final Set<Long> pages = filePages.get(fileId);
+    if (pages == null)
+      return;
+
+    while (pageCount > 0 && pages.contains(pageIndex)) {
+      pageIndex++;
+      pageCount--;
+    }
+
+    while (pageCount > 0 && pages.contains(pageIndex + pageCount - 1))
+      pageCount--;
+
+    if (pageCount == 0)
+      return;
+
+    // used only for statistics, and there is passed merely as stub
+    final OModifiableBoolean cacheHit = new OModifiableBoolean();
+    boolean removeColdPages = false;
+
+    cacheLock.acquireReadLock();
+    try {
+      fileLockManager.acquireSharedLock(fileId);
+      try {
+        if (!filePages.containsKey(fileId) || !writeCache.exists(fileId))
+          return;
+
+        final PageKey[] pageKeys = new PageKey[pageCount];
+        for (int i = 0; i < pageCount; i++) {
+          pageKeys[i] = new PageKey(fileId, pageIndex + i);
+        }
+
+        final Lock[] pageLocks = pageLockManager.acquireExclusiveLocksInBatch(pageKeys);
+        try {
+          final OCachePointer[] pointers = writeCache.load(fileId, pageIndex, pageCount, false, cacheHit);
+          for (OCachePointer pointer : pointers) {
+            removeColdPages = addReadAheadPage(pointer) || removeColdPages;
+          }
+        } finally {
+          for (Lock pageLock : pageLocks) {
+            pageLock.unlock();
+          }
+        }
+      } finally {
+        fileLockManager.releaseSharedLock(fileId);
+      }
+    } finally {
+      cacheLock.releaseReadLock();
+    }
+
+    if (removeColdPages)
+      removeColdestPagesIfNeeded();
+  }
+
+  /**
+   * Adds page loaded by read-ahead to the a1in queue. Page is skipped if it is already contained in one of queues.
+   *
+   * @return <code>true</code> if page was added to the cache.
+   */
+  private boolean addReadAheadPage(final OCachePointer dataPointer) {
+    final long fileId = dataPointer.getFileId();
+    final long pageIndex = dataPointer.getPageIndex();
+
+    if (pinnedPages.containsKey(new PinnedPage(fileId, pageIndex)) || am.contains(fileId, pageIndex) || a1in
+        .contains(fileId, pageIndex) || a1out.contains(fileId, pageIndex)) {
+      dataPointer.decrementReadersReferrer();
+      return false;
+    }
+
+    final OCacheEntry cacheEntry = new OCacheEntry(fileId, pageIndex, dataPointer, false);
+    cacheEntry.markPrefetched();
+
+    a1in.putToMRU(cacheEntry);
+    filePages(fileId).add(pageIndex);
+
+    readAheadPages.incrementAndGet();
+    return true;
+  }
+
   private UpdateCacheResult doLoad(long fileId, long pageIndex, boolean checkPinnedPages, boolean addNewPages,
       OWriteCache writeCache, final int pageCount, final OSessionStoragePerformanceStatistic sessionStoragePerformanceStatistic)
       throws IOException {
@@ -485,6 +696,8 @@ public class O2QCache implements OReadCache {
   }
 
   public void clear() {
+    stopWarmUps();
+
     cacheLock.acquireWriteLock();
     try {
       clearCacheContent();
@@ -619,6 +832,8 @@ public class O2QCache implements OReadCache {
     if (writeCache == null)
       return;
 
+    stopWarmUp(writeCache);
+
     cacheLock.acquireWriteLock();
     try {
       final long[] filesToClear = writeCache.close();
@@ -636,6 +851,9 @@ public class O2QCache implements OReadCache {
    * {@link OGlobalConfiguration#STORAGE_KEEP_DISK_CACHE_STATE} is set to <code>true</code>.
    * <p>
    * If maximum size of cache was decreased cache state will not be restored.
+   * <p>
+   * If flag {@link OGlobalConfiguration#STORAGE_KEEP_DISK_CACHE_STATE_IN_BACKGROUND} is set to <code>true</code> only list of
+   * pages is read by this method, pages themselves are loaded by background thread, see {@link WarmUp}.
    *
    * @param writeCache Write cache is used to load pages back into cache if needed.
    * @see #closeStorage(OWriteCache)
@@ -645,10 +863,12 @@ public class O2QCache implements OReadCache {
       return;
     }
 
+    WarmUp warmUp = null;
+
     cacheLock.acquireReadLock();
     try {
       final File rootDirectory = writeCache.getRootDirectory();
-      final File stateFile = new File(rootDirectory, CACHE_STATE_FILE);
+      final File stateFile = new File(rootDirectory, stateFileName);
       if (stateFile.exists()) {
         final RandomAccessFile cacheState = new RandomAccessFile(stateFile, "rw");
         try {
@@ -668,10 +888,21 @@ public class O2QCache implements OReadCache {
               return;
             }
 
-            restoreQueue(writeCache, am, dataInputStream, true);
-            restoreQueue(writeCache, a1in, dataInputStream, true);
+            if (OGlobalConfiguration.STORAGE_KEEP_DISK_CACHE_STATE_IN_BACKGROUND.getValueAsBoolean()) {
+              final List<WarmUpPage> pages = new ArrayList<WarmUpPage>();
+              readWarmUpPages(writeCache, am, dataInputStream, pages);
+              readWarmUpPages(writeCache, a1in, dataInputStream, pages);
+
+              restoreQueue(writeCache, a1out, dataInputStream, false);
 
-            restoreQueue(writeCache, a1out, dataInputStream, false);
+              if (!pages.isEmpty())
+                warmUp = new WarmUp(writeCache, pages.toArray(new WarmUpPage[pages.size()]));
+            } else {
+              restoreQueue(writeCache, am, dataInputStream, true);
+              restoreQueue(writeCache, a1in, dataInputStream, true);
+
+              restoreQueue(writeCache, a1out, dataInputStream, false);
+            }
           } finally {
             dataInputStream.close();
           }
@@ -686,6 +917,37 @@ public class O2QCache implements OReadCache {
     } finally {
       cacheLock.releaseReadLock();
     }
+
+    if (warmUp != null)
+      startWarmUp(warmUp);
+  }
+
+  /**
+   * Reads list of pages of single queue which should be loaded by background load of cache state.
+   * <p>
+   * Following format is used to store queue state:
+   * <p>
+   * <ol>
+   * <li>File id or -1 if end of queue is reached (int)</li>
+   * <li>Page index (long), is absent if end of the queue is reached</li>
+   * </ol>
+   *
+   * @param writeCache      Write cache is used to convert internal file ids to external ones.
+   * @param queue           Queue to which pages should be added.
+   * @param dataInputStream Stream of file which contains state of the cache.
+   * @param pages           List of pages to which read pages are added.
+   */
+  private static void readWarmUpPages(OWriteCache writeCache, LRUList queue, DataInputStream dataInputStream,
+      List<WarmUpPage> pages) throws IOException {
+    int internalFileId = dataInputStream.readInt();
+    while (internalFileId >= 0) {
+      final long pageIndex = dataInputStream.readLong();
+      try {
+        pages.add(new WarmUpPage(writeCache.externalFileId(internalFileId), pageIndex, queue));
+      } finally {
+        internalFileId = dataInputStream.readInt();
+      }
+    }
   }
 
   /**
@@ -736,18 +998,8 @@ public class O2QCache implements OReadCache {
         final long fileId = writeCache.externalFileId(internalFileId);
         final OCacheEntry cacheEntry = new OCacheEntry(fileId, pageIndex, null, false);
 
-        Set<Long> pages = filePages.get(fileId);
-        if (pages == null) {
-          pages = new HashSet<Long>();
-
-          Set<Long> op = filePages.putIfAbsent(fileId, pages);
-          if (op != null) {
-            pages = op;
-          }
-        }
-
         queue.putToMRU(cacheEntry);
-        pages.add(cacheEntry.getPageIndex());
+        filePages(fileId).add(cacheEntry.getPageIndex());
       } finally {
         internalFileId = dataInputStream.readInt();
       }
@@ -812,19 +1064,8 @@ public class O2QCache implements OReadCache {
 
     // third step: add pages according to their order in LRU queue
     for (final OCacheEntry cacheEntry : queuePositionMap.values()) {
-      final long fileId = cacheEntry.getFileId();
-      Set<Long> pages = filePages.get(fileId);
-      if (pages == null) {
-        pages = new HashSet<Long>();
-
-        Set<Long> op = filePages.putIfAbsent(fileId, pages);
-        if (op != null) {
-          pages = op;
-        }
-      }
-
       queue.putToMRU(cacheEntry);
-      pages.add(cacheEntry.getPageIndex());
+      filePages(cacheEntry.getFileId()).add(cacheEntry.getPageIndex());
     }
   }
 
@@ -850,10 +1091,12 @@ public class O2QCache implements OReadCache {
     if (writeCache == null)
       return;
 
+    stopWarmUp(writeCache);
+
     cacheLock.acquireWriteLock();
     try {
       final File rootDirectory = writeCache.getRootDirectory();
-      final File stateFile = new File(rootDirectory, CACHE_STATE_FILE);
+      final File stateFile = new File(rootDirectory, stateFileName);
 
       if (stateFile.exists()) {
         if (!stateFile.delete()) {
@@ -933,6 +1176,8 @@ public class O2QCache implements OReadCache {
 
   @Override
   public void deleteStorage(OWriteCache writeCache) throws IOException {
+    stopWarmUp(writeCache);
+
     cacheLock.acquireWriteLock();
     try {
       final long[] filesToClear = writeCache.delete();
@@ -940,7 +1185,7 @@ public class O2QCache implements OReadCache {
         clearFile(fileId);
 
       final File rootDirectory = writeCache.getRootDirectory();
-      final File stateFile = new File(rootDirectory, CACHE_STATE_FILE);
+      final File stateFile = new File(rootDirectory, stateFileName);
       if (stateFile.exists()) {
         if (!stateFile.delete()) {
           OLogManager.instance().error(this, "Cache state file %s cannot be deleted", stateFile);
@@ -1065,6 +1310,14 @@ public class O2QCache implements OReadCache {
     cacheEntry = new OCacheEntry(fileId, pageIndex, dataPointer, false);
     a1in.putToMRU(cacheEntry);
 
+    filePages(fileId).add(pageIndex);
+    return new UpdateCacheResult(true, cacheEntry);
+  }
+
+  /**
+   * @return Set of indexes of pages of given file which are contained in cache, set is created if it is absent.
+   */
+  private Set<Long> filePages(long fileId) {
     Set<Long> pages = filePages.get(fileId);
     if (pages == null) {
       pages = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
@@ -1074,8 +1327,20 @@ public class O2QCache implements OReadCache {
         pages = oldPages;
     }
 
-    pages.add(pageIndex);
-    return new UpdateCacheResult(true, cacheEntry);
+    return pages;
+  }
+
+  /**
+   * Reads pages from write cache on behalf of user request. Background load of cache state is paused till this read is completed.
+   */
+  private OCachePointer[] readPages(long fileId, long pageIndex, int pageCount, boolean addNewPages, OWriteCache writeCache,
+      OModifiableBoolean cacheHit) throws IOException {
+    foregroundPageReads.incrementAndGet();
+    try {
+      return writeCache.load(fileId, pageIndex, pageCount, addNewPages, cacheHit);
+    } finally {
+      foregroundPageReads.decrementAndGet();
+    }
   }
 
   private UpdateCacheResult updateCache(final long fileId, final long pageIndex, final boolean addNewPages, OWriteCache writeCache,
@@ -1096,7 +1361,7 @@ public class O2QCache implements OReadCache {
 
     cacheEntry = a1out.remove(fileId, pageIndex);
     if (cacheEntry != null) {
-      dataPointers = writeCache.load(fileId, pageIndex, pageCount, false, cacheHit);
+      dataPointers = readPages(fileId, pageIndex, pageCount, false, writeCache, cacheHit);
 
       OCachePointer dataPointer = dataPointers[0];
       removeColdPages = entryWasInA1OutQueue(fileId, pageIndex, dataPointer, cacheEntry);
@@ -1106,8 +1371,13 @@ public class O2QCache implements OReadCache {
       if (cacheEntry != null) {
         removeColdPages = entryIsInA1InQueue(fileId, pageIndex);
         cacheHit.setValue(true);
+
+        if (cacheEntry.isPrefetched()) {
+          cacheEntry.clearPrefetched();
+          readAheadHits.incrementAndGet();
+        }
       } else {
-        dataPointers = writeCache.load(fileId, pageIndex, pageCount, addNewPages, cacheHit);
+        dataPointers = readPages(fileId, pageIndex, pageCount, addNewPages, writeCache, cacheHit);
 
         if (dataPointers.length == 0)
           return null;
@@ -1211,7 +1481,7 @@ public class O2QCache implements OReadCache {
           cachePointer.decrementReadersReferrer();
           removedFromAInEntry.clearCachePointer();
 
-          a1out.putToMRU(removedFromAInEntry);
+          evictFromA1In(removedFromAInEntry);
         }
 
         while (a1out.size() > memoryData.K_OUT) {
@@ -1244,6 +1514,19 @@ public class O2QCache implements OReadCache {
     }
   }
 
+  /**
+   * Moves page removed from a1in queue to a1out queue. Pages loaded by read-ahead which were never requested by user are forgotten
+   * instead, so pages of sequential scan are not promoted to am queue when they are read next time.
+   */
+  private void evictFromA1In(final OCacheEntry removedFromAInEntry) {
+    if (removedFromAInEntry.isPrefetched()) {
+      final Set<Long> pageEntries = filePages.get(removedFromAInEntry.getFileId());
+      pageEntries.remove(removedFromAInEntry.getPageIndex());
+    } else {
+      a1out.putToMRU(removedFromAInEntry);
+    }
+  }
+
   private void removeColdPagesWithoutCacheLock() {
     Lock fileLock;
     Lock pageLock;
@@ -1280,7 +1563,7 @@ public class O2QCache implements OReadCache {
               if (OLogManager.instance().isDebugEnabled())
                 OLogManager.instance().debug(this, "Moving page in disk cache from a1in to a1out area: %s", removedFromAInEntry);
 
-              a1out.putToMRU(removedFromAInEntry);
+              evictFromA1In(removedFromAInEntry);
             } finally {
               pageLockManager.releaseExclusiveLock(k);
             }
@@ -1291,6 +1574,10 @@ public class O2QCache implements OReadCache {
 
         while (a1out.size() > memoryData.K_OUT) {
           OCacheEntry removedEntry = a1out.getLRU();
+          // entry may be concurrently moved from a1out queue to am queue
+          if (removedEntry == null)
+            break;
+
           fileLock = fileLockManager.acquireSharedLock(removedEntry.getFileId());
           try {
             final PageKey k = new PageKey(removedEntry.getFileId(), removedEntry.getPageIndex());
@@ -1350,6 +1637,112 @@ public class O2QCache implements OReadCache {
     }
   }
 
+  /**
+   * Registers file which was already added to the write cache by owner of this cache. Used by {@link OSegmented2QCache} which
+   * registers files in write cache only once for all segments.
+   *
+   * @param fileId Id of file which is already registered in write cache.
+   */
+  void registerFile(final long fileId) {
+    cacheLock.acquireWriteLock();
+    try {
+      Set<Long> oldPages = filePages.put(fileId, Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>()));
+      assert oldPages == null || oldPages.isEmpty();
+    } finally {
+      cacheLock.releaseWriteLock();
+    }
+  }
+
+  /**
+   * Acquires the same locks which are acquired by this cache when file is truncated, closed or deleted. All pages of file can not
+   * be loaded into this cache till lock is released by {@link #releaseFileExclusiveLock(long)}.
+   *
+   * @param fileId Id of file to lock.
+   */
+  void acquireFileExclusiveLock(final long fileId) {
+    cacheLock.acquireReadLock();
+    fileLockManager.acquireExclusiveLock(fileId);
+  }
+
+  /**
+   * Releases locks acquired by {@link #acquireFileExclusiveLock(long)}.
+   *
+   * @param fileId Id of locked file.
+   */
+  void releaseFileExclusiveLock(final long fileId) {
+    fileLockManager.releaseExclusiveLock(fileId);
+    cacheLock.releaseReadLock();
+  }
+
+  /**
+   * Removes all pages of given file from the cache, lock of file should be acquired by {@link #acquireFileExclusiveLock(long)}.
+   *
+   * @param fileId     Id of file pages of which should be removed.
+   * @param removeFile If <code>true</code> file is unregistered from the cache too.
+   */
+  void clearFilePages(final long fileId, final boolean removeFile) {
+    clearFile(fileId);
+
+    if (removeFile)
+      filePages.remove(fileId);
+  }
+
+  /**
+   * Removes all pages of passed in files from the cache. Is used when all files of storage are closed or deleted by write cache.
+   *
+   * @param filesToClear Ids of files pages of which should be removed.
+   */
+  void clearFilesPages(final long[] filesToClear) {
+    cacheLock.acquireWriteLock();
+    try {
+      for (long fileId : filesToClear)
+        clearFile(fileId);
+    } finally {
+      cacheLock.releaseWriteLock();
+    }
+  }
+
+  /**
+   * Loads page with given index in file by adding it to the file if needed. Caller is responsible for calculation of page index
+   * and for serialization of concurrent page allocations.
+   *
+   * @param fileId     Id of file new page of which should be loaded.
+   * @param pageIndex  Index of allocated page.
+   * @param writeCache Write cache is used to load page.
+   * @return Loaded cache entry.
+   * @see #allocateNewPage(long, OWriteCache)
+   */
+  OCacheEntry loadNewPage(final long fileId, final long pageIndex, final OWriteCache writeCache) throws IOException {
+    final OSessionStoragePerformanceStatistic sessionStoragePerformanceStatistic = writeCache.getPerformanceStatisticManager()
+        .getSessionPerformanceStatistic();
+
+    if (sessionStoragePerformanceStatistic != null) {
+      sessionStoragePerformanceStatistic.startPageReadFromCacheTimer();
+    }
+
+    try {
+      final UpdateCacheResult cacheResult = doLoad(fileId, pageIndex, false, true, writeCache, 1,
+          sessionStoragePerformanceStatistic);
+      assert cacheResult != null;
+
+      try {
+        if (cacheResult.removeColdPages)
+          removeColdestPagesIfNeeded();
+      } catch (RuntimeException e) {
+        assert !cacheResult.cacheEntry.isDirty();
+
+        release(cacheResult.cacheEntry, writeCache);
+        throw e;
+      }
+
+      return cacheResult.cacheEntry;
+    } finally {
+      if (sessionStoragePerformanceStatistic != null) {
+        sessionStoragePerformanceStatistic.stopPageReadFromCacheTimer();
+      }
+    }
+  }
+
   int getMaxSize() {
     return memoryDataContainer.get().maxSize;
   }
@@ -1359,6 +1752,262 @@ public class O2QCache implements OReadCache {
     return ((long) (am.size() + a1in.size())) * pageSize;
   }
 
+  @Override
+  public long getUsedMemoryInMB() {
+    return getUsedMemory() / (1024 * 1024);
+  }
+
+  @Override
+  public double getUsedMemoryInGB() {
+    return Math.ceil((getUsedMemory() * 100) / (1024.0 * 1024 * 1024)) / 100;
+  }
+
+  @Override
+  public int getA1InSize() {
+    return a1in.size();
+  }
+
+  @Override
+  public int getA1OutSize() {
+    return a1out.size();
+  }
+
+  @Override
+  public int getAmSize() {
+    return am.size();
+  }
+
+  @Override
+  public boolean isWarmUpInProgress() {
+    return !warmUps.isEmpty();
+  }
+
+  @Override
+  public long getWarmUpPagesTotal() {
+    return warmUpPagesTotal.get();
+  }
+
+  @Override
+  public long getWarmUpPagesProcessed() {
+    return warmUpPagesProcessed.get();
+  }
+
+  @Override
+  public double getWarmUpProgress() {
+    final long total = warmUpPagesTotal.get();
+    if (total == 0)
+      return 100;
+
+    return Math.min(100, 100.0 * warmUpPagesProcessed.get() / total);
+  }
+
+  @Override
+  public long getWarmUpPagesPerSecond() {
+    return pagesPerSecond(warmUpPagesProcessed.get(), getWarmUpTime());
+  }
+
+  @Override
+  public long getReadAheadPages() {
+    return readAheadPages.get();
+  }
+
+  @Override
+  public long getReadAheadHits() {
+    return readAheadHits.get();
+  }
+
+  @Override
+  public double getReadAheadHitRatio() {
+    return readAheadHitRatio(readAheadHits.get(), readAheadPages.get());
+  }
+
+  static double readAheadHitRatio(final long hits, final long pages) {
+    if (pages == 0)
+      return 0;
+
+    return Math.min(100, 100.0 * hits / pages);
+  }
+
+  /**
+   * @return Duration of current (or last) background load of cache state in nanoseconds.
+   */
+  long getWarmUpTime() {
+    final long startTime = warmUpStartTime.get();
+    if (startTime == 0)
+      return 0;
+
+    final long endTime = warmUps.isEmpty() ? warmUpEndTime.get() : System.nanoTime();
+    return Math.max(0, endTime - startTime);
+  }
+
+  /**
+   * Waits till background load of cache state of given storage is stopped. Pages which are not loaded yet are not loaded at all.
+   *
+   * @param writeCache Write cache (storage) load of cache state of which should be stopped.
+   */
+  void stopWarmUp(final OWriteCache writeCache) {
+    final WarmUp warmUp = warmUps.get(writeCache.getId());
+    if (warmUp != null)
+      warmUp.stop();
+  }
+
+  private void stopWarmUps() {
+    for (WarmUp warmUp : warmUps.values())
+      warmUp.stop();
+  }
+
+  private void startWarmUp(final WarmUp warmUp) {
+    stopWarmUp(warmUp.writeCache);
+
+    if (warmUps.isEmpty()) {
+      warmUpPagesTotal.set(0);
+      warmUpPagesProcessed.set(0);
+      warmUpStartTime.set(System.nanoTime());
+    }
+
+    warmUpPagesTotal.addAndGet(warmUp.pages.length);
+    warmUps.put(warmUp.writeCache.getId(), warmUp);
+
+    warmUpExecutor.execute(warmUp);
+  }
+
+  /**
+   * Loads pages of cache state in order of their position in files. Sequential pages are loaded by single request to write cache.
+   * Before each request load is paused if there are pages which are read from disk by user requests at the moment.
+   */
+  private void warmUp(final WarmUp warmUp) {
+    final WarmUpPage[] pages = warmUp.pages;
+    Arrays.sort(pages);
+
+    final File rootDirectory = warmUp.writeCache.getRootDirectory();
+    OLogManager.instance()
+        .info(this, "Loading of %d pages of disk cache state of storage placed under %s is started", pages.length, rootDirectory);
+
+    final long startTime = System.nanoTime();
+    long lastLogTime = startTime;
+
+    int index = 0;
+    while (index < pages.length && !warmUp.stopped) {
+      int end = index + 1;
+      while (end < pages.length && end - index < WARM_UP_MAX_PAGES_PER_READ && pages[end].fileId == pages[index].fileId
+          && pages[end].pageIndex == pages[index].pageIndex + (end - index))
+        end++;
+
+      pauseWhileForegroundReads();
+
+      try {
+        loadWarmUpPages(warmUp.writeCache, pages, index, end);
+      } catch (Exception e) {
+        OLogManager.instance()
+            .debug(this, "Cannot load pages of file with id %d during loading of disk cache state", e, pages[index].fileId);
+      }
+
+      removeColdestPagesIfNeeded();
+
+      warmUp.processed += end - index;
+      warmUpPagesProcessed.addAndGet(end - index);
+      index = end;
+
+      final long now = System.nanoTime();
+      if (now - lastLogTime >= WARM_UP_LOG_INTERVAL) {
+        lastLogTime = now;
+        OLogManager.instance()
+            .info(this, "Loading of disk cache state of storage placed under %s, %d pages out of %d are loaded (%d pages/s)",
+                rootDirectory, index, pages.length, pagesPerSecond(index, now - startTime));
+      }
+    }
+
+    if (index < pages.length)
+      OLogManager.instance()
+          .info(this, "Loading of disk cache state of storage placed under %s is stopped, %d pages out of %d are loaded",
+              rootDirectory, index, pages.length);
+    else
+      OLogManager.instance()
+          .info(this, "Loading of disk cache state of storage placed under %s is completed, %d pages are loaded (%d pages/s)",
+              rootDirectory, pages.length, pagesPerSecond(pages.length, System.nanoTime() - startTime));
+  }
+
+  /**
+   * Loads pages of cache state which are placed between <code>from</code> (inclusive) and <code>to</code> (exclusive) indexes
+   * of array of pages. All those pages are sequential pages of the same file.
+   */
+  private void loadWarmUpPages(final OWriteCache writeCache, final WarmUpPage[] pages, final int from, final int to)
+      throws IOException {
+    final long fileId = pages[from].fileId;
+    final long startPageIndex = pages[from].pageIndex;
+    final int pageCount = to - from;
+
+    // used only for statistics, and there is passed merely as stub
+    final OModifiableBoolean cacheHit = new OModifiableBoolean();
+
+    cacheLock.acquireReadLock();
+    try {
+      fileLockManager.acquireSharedLock(fileId);
+      try {
+        final PageKey[] pageKeys = new PageKey[pageCount];
+        for (int i = 0; i < pageCount; i++) {
+          pageKeys[i] = new PageKey(fileId, startPageIndex + i);
+        }
+
+        final Lock[] pageLocks = pageLockManager.acquireExclusiveLocksInBatch(pageKeys);
+        try {
+          int loaded = 0;
+          while (loaded < pageCount) {
+            final OCachePointer[] pointers = writeCache.load(fileId, startPageIndex + loaded, pageCount - loaded, false, cacheHit);
+            if (pointers.length == 0)
+              break;
+
+            for (int i = 0; i < pointers.length; i++) {
+              addWarmUpPage(pages[from + loaded + i].queue, pointers[i]);
+            }
+
+            loaded += pointers.length;
+          }
+        } finally {
+          for (Lock pageLock : pageLocks) {
+            pageLock.unlock();
+          }
+        }
+      } finally {
+        fileLockManager.releaseSharedLock(fileId);
+      }
+    } finally {
+      cacheLock.releaseReadLock();
+    }
+  }
+
+  /**
+   * Adds page loaded by background load of cache state to the queue. Page is skipped if it was already loaded by user request.
+   */
+  private void addWarmUpPage(final LRUList queue, final OCachePointer dataPointer) {
+    final long fileId = dataPointer.getFileId();
+    final long pageIndex = dataPointer.getPageIndex();
+
+    if (pinnedPages.containsKey(new PinnedPage(fileId, pageIndex)) || am.contains(fileId, pageIndex) || a1in
+        .contains(fileId, pageIndex) || a1out.contains(fileId, pageIndex)) {
+      dataPointer.decrementReadersReferrer();
+      return;
+    }
+
+    queue.putToMRU(new OCacheEntry(fileId, pageIndex, dataPointer, false));
+    filePages(fileId).add(pageIndex);
+  }
+
+  private void pauseWhileForegroundReads() {
+    int pauses = 0;
+    while (foregroundPageReads.get() > 0 && pauses < WARM_UP_MAX_PAUSES) {
+      LockSupport.parkNanos(WARM_UP_PAUSE_INTERVAL);
+      pauses++;
+    }
+  }
+
+  static long pagesPerSecond(final long pages, final long intervalNanos) {
+    if (intervalNanos <= 0)
+      return 0;
+
+    return pages * TimeUnit.SECONDS.toNanos(1) / intervalNanos;
+  }
+
   private OCacheEntry remove(long fileId, long pageIndex) {
     OCacheEntry cacheEntry = am.remove(fileId, pageIndex);
     if (cacheEntry != null) {
@@ -1490,6 +2139,116 @@ public class O2QCache implements OReadCache {
     }
   }
 
+  /**
+   * Page of cache state which should be loaded by background load of cache state.
+   */
+  private static final class WarmUpPage implements Comparable<WarmUpPage> {
+    private final long    fileId;
+    private final long    pageIndex;
+    private final LRUList queue;
+
+    private WarmUpPage(long fileId, long pageIndex, LRUList queue) {
+      this.fileId = fileId;
+      this.pageIndex = pageIndex;
+      this.queue = queue;
+    }
+
+    @Override
+    public int compareTo(WarmUpPage other) {
+      if (fileId > other.fileId)
+        return 1;
+      if (fileId < other.fileId)
+        return -1;
+
+      if (pageIndex > other.pageIndex)
+        return 1;
+      if (pageIndex < other.pageIndex)
+        return -1;
+
+      return 0;
+    }
+  }
+
+  /**
+   * Background load of pages of cache state of single storage.
+   * <p>
+   * Pages are loaded in order of their position in file, so state of LRU queues is not restored exactly, pages of am and a1in
+   * queues are put into the same queues they were stored from but in order of their load. Load is stopped when storage is closed,
+   * pages which are not loaded yet are not stored in cache state again.
+   */
+  private final class WarmUp implements Runnable {
+    private final OWriteCache    writeCache;
+    private final WarmUpPage[]   pages;
+    private final AtomicBoolean  started  = new AtomicBoolean();
+    private final CountDownLatch finished = new CountDownLatch(1);
+
+    private volatile boolean stopped;
+    private volatile int     processed;
+
+    private WarmUp(OWriteCache writeCache, WarmUpPage[] pages) {
+      this.writeCache = writeCache;
+      this.pages = pages;
+    }
+
+    @Override
+    public void run() {
+      if (!started.compareAndSet(false, true))
+        return;
+
+      try {
+        warmUp(this);
+      } catch (RuntimeException e) {
+        OLogManager.instance()
+            .error(this, "Error during loading of disk cache state of storage placed under %s", e, writeCache.getRootDirectory());
+      } finally {
+        complete();
+      }
+    }
+
+    private void stop() {
+      stopped = true;
+
+      if (started.compareAndSet(false, true)) {
+        complete();
+        return;
+      }
+
+      try {
+        finished.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new OInterruptedException("Waiting for stop of loading of disk cache state was interrupted");
+      }
+    }
+
+    private void complete() {
+      // pages which were not loaded are removed from statistic
+      warmUpPagesTotal.addAndGet(processed - pages.length);
+
+      warmUps.remove(writeCache.getId(), this);
+      if (warmUps.isEmpty())
+        warmUpEndTime.set(System.nanoTime());
+
+      finished.countDown();
+    }
+  }
+
+  private static final class LoaderThreadFactory implements ThreadFactory {
+    private final String name;
+
+    private LoaderThreadFactory(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public Thread newThread(Runnable r) {
+      final Thread thread = new Thread(OStorageAbstract.storageThreadGroup, r);
+      thread.setDaemon(true);
+      thread.setName(name);
+      return thread;
+    }
+  }
+
   private final static class UpdateCacheResult {
     private final boolean     removeColdPages;
     private final OCacheEntry cacheEntry;
@@ -32,4 +32,49 @@ public interface O2QCacheMXBean {
   long getUsedMemoryInMB();
 
   double getUsedMemoryInGB();
+
+  /**
+   * @return <code>true</code> if pages of stored cache state are loaded in background at the moment.
+   *
+   * @see com.orientechnologies.orient.core.config.OGlobalConfiguration#STORAGE_KEEP_DISK_CACHE_STATE_IN_BACKGROUND
+   */
+  boolean isWarmUpInProgress();
+
+  /**
+   * @return Amount of pages of stored cache state which should be loaded by current (or last) background load of cache state.
+   */
+  long getWarmUpPagesTotal();
+
+  /**
+   * @return Amount of pages of stored cache state which are already processed by current (or last) background load of cache
+   * state.
+   */
+  long getWarmUpPagesProcessed();
+
+  /**
+   * @return Progress of current (or last) background load of cache state in percents.
+   */
+  double getWarmUpProgress();
+
+  /**
+   * @return Speed of current (or last) background load of cache state in pages per second.
+   */
+  long getWarmUpPagesPerSecond();
+
+  /**
+   * @return Amount of pages which were loaded into the cache by read-ahead during sequential scans.
+   *
+   * @see com.orientechnologies.orient.core.config.OGlobalConfiguration#DISK_CACHE_READ_AHEAD
+   */
+  long getReadAheadPages();
+
+  /**
+   * @return Amount of pages loaded by read-ahead which were requested by user before they were evicted from the cache.
+   */
+  long getReadAheadHits();
+
+  /**
+   * @return Percent of pages loaded by read-ahead which were requested by user before they were evicted from the cache.
+   */
+  double getReadAheadHitRatio();
 }
@@ -0,0 +1,445 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+
+package com.orientechnologies.orient.core.storage.cache.local.twoq;
+
+import com.orientechnologies.common.concur.lock.OLockManager;
+import com.orientechnologies.common.concur.lock.OPartitionedLockManager;
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.storage.cache.OAbstractWriteCache;
+import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
+import com.orientechnologies.orient.core.storage.cache.OReadCache;
+import com.orientechnologies.orient.core.storage.cache.OWriteCache;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Read cache which splits pages between several independent {@link O2QCache} segments. Each segment has own 2Q queues, own locks
+ * and own part of memory limit, so threads which load pages from different segments do not contend with each other.
+ * <p>
+ * Segment of page is chosen by hash of file id and index of group of {@link #STRIPE_SIZE} sequential pages. Pages of single group
+ * are always placed in the same segment, so batch page loads ({@link #load(long, long, boolean, OWriteCache, int)} with page
+ * count more than one) are limited by boundaries of group.
+ * <p>
+ * Operations which are applied to the whole file (truncation, close, deletion) are applied to all segments and hold exclusive
+ * file locks of all segments during execution.
+ *
+ * @see com.orientechnologies.orient.core.config.OGlobalConfiguration#DISK_CACHE_SEGMENTS
+ */
+public class OSegmented2QCache implements OReadCache, O2QCacheMXBean {
+  /**
+   * Amount of sequential pages which are always placed in the same segment. Should be power of two.
+   */
+  public static final int STRIPE_SIZE = 16;
+
+  private static final int STRIPE_SHIFT = Integer.numberOfTrailingZeros(STRIPE_SIZE);
+
+  private final O2QCache[] segments;
+  private final int        segmentsMask;
+
+  /**
+   * Serializes allocation of new pages and file wide operations on the same file, because pages of single file are spread between
+   * several segments.
+   */
+  private final OLockManager<Long> fileLockManager = new OPartitionedLockManager<Long>();
+
+  /**
+   * @param readCacheMaxMemory   Maximum amount of direct memory which can allocated by disk cache in bytes, memory is split
+   *                             equally between segments.
+   * @param pageSize             Cache page size in bytes.
+   * @param checkMinSize         If this flat is set size of each segment may be {@link O2QCache#MIN_CACHE_SIZE} or bigger.
+   * @param percentOfPinnedPages Maximum percent of pinned pages which may be hold by each segment.
+   * @param segmentsCount        Amount of segments, rounded up to the closest power of two.
+   */
+  public OSegmented2QCache(final long readCacheMaxMemory, final int pageSize, final boolean checkMinSize,
+      final int percentOfPinnedPages, final int segmentsCount) {
+    if (segmentsCount < 1)
+      throw new IllegalArgumentException("Amount of segments should be positive number but passed value is " + segmentsCount);
+
+    int size = 1;
+    while (size < segmentsCount)
+      size = size << 1;
+
+    segments = new O2QCache[size];
+    segmentsMask = size - 1;
+
+    final long segmentMaxMemory = readCacheMaxMemory / size;
+    for (int i = 0; i < size; i++) {
+      segments[i] = new O2QCache(segmentMaxMemory, pageSize, checkMinSize, percentOfPinnedPages, stateFileName(size, i));
+    }
+  }
+
+  /**
+   * @return Amount of segments used by this cache.
+   */
+  public int getSegmentsCount() {
+    return segments.length;
+  }
+
+  @Override
+  public long addFile(String fileName, OWriteCache writeCache) throws IOException {
+    final long fileId = writeCache.addFile(fileName);
+    registerFile(fileId);
+    return fileId;
+  }
+
+  @Override
+  public long addFile(String fileName, long fileId, OWriteCache writeCache) throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+
+    final long fid = writeCache.addFile(fileName, fileId);
+    registerFile(fid);
+    return fid;
+  }
+
+  @Override
+  public OCacheEntry load(long fileId, long pageIndex, boolean checkPinnedPages, OWriteCache writeCache, int pageCount)
+      throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+
+    final int pagesTillStripeEnd = (int) (STRIPE_SIZE - (pageIndex & (STRIPE_SIZE - 1)));
+    if (pageCount > pagesTillStripeEnd)
+      pageCount = pagesTillStripeEnd;
+
+    return segment(fileId, pageIndex).load(fileId, pageIndex, checkPinnedPages, writeCache, pageCount);
+  }
+
+  /**
+   * Splits requested pages by groups of {@link #STRIPE_SIZE} pages and passes each part to the segment which contains given group.
+   */
+  @Override
+  public void prefetch(long fileId, long pageIndex, int pageCount, OWriteCache writeCache) {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+
+    while (pageCount > 0) {
+      final int pagesTillStripeEnd = (int) (STRIPE_SIZE - (pageIndex & (STRIPE_SIZE - 1)));
+      final int count = Math.min(pageCount, pagesTillStripeEnd);
+
+      segment(fileId, pageIndex).prefetch(fileId, pageIndex, count, writeCache);
+
+      pageIndex += count;
+      pageCount -= count;
+    }
+  }
+
+  @Override
+  public void pinPage(OCacheEntry cacheEntry) throws IOException {
+    segment(cacheEntry.getFileId(), cacheEntry.getPageIndex()).pinPage(cacheEntry);
+  }
+
+  @Override
+  public OCacheEntry allocateNewPage(long fileId, OWriteCache writeCache) throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+
+    fileLockManager.acquireExclusiveLock(fileId);
+    try {
+      final long filledUpTo = writeCache.getFilledUpTo(fileId);
+      assert filledUpTo >= 0;
+
+      return segment(fileId, filledUpTo).loadNewPage(fileId, filledUpTo, writeCache);
+    } finally {
+      fileLockManager.releaseExclusiveLock(fileId);
+    }
+  }
+
+  @Override
+  public void release(OCacheEntry cacheEntry, OWriteCache writeCache) {
+    segment(cacheEntry.getFileId(), cacheEntry.getPageIndex()).release(cacheEntry, writeCache);
+  }
+
+  @Override
+  public long getUsedMemory() {
+    long usedMemory = 0;
+    for (O2QCache segment : segments)
+      usedMemory += segment.getUsedMemory();
+
+    return usedMemory;
+  }
+
+  @Override
+  public long getUsedMemoryInMB() {
+    return getUsedMemory() / (1024 * 1024);
+  }
+
+  @Override
+  public double getUsedMemoryInGB() {
+    return Math.ceil((getUsedMemory() * 100) / (1024.0 * 1024 * 1024)) / 100;
+  }
+
+  @Override
+  public int getA1InSize() {
+    int size = 0;
+    for (O2QCache segment : segments)
+      size += segment.getA1InSize();
+
+    return size;
+  }
+
+  @Override
+  public int getA1OutSize() {
+    int size = 0;
+    for (O2QCache segment : segments)
+      size += segment.getA1OutSize();
+
+    return size;
+  }
+
+  @Override
+  public int getAmSize() {
+    int size = 0;
+    for (O2QCache segment : segments)
+      size += segment.getAmSize();
+
+    return size;
+  }
+
+  @Override
+  public boolean isWarmUpInProgress() {
+    for (O2QCache segment : segments) {
+      if (segment.isWarmUpInProgress())
+        return true;
+    }
+
+    return false;
+  }
+
+  @Override
+  public long getWarmUpPagesTotal() {
+    long pages = 0;
+    for (O2QCache segment : segments)
+      pages += segment.getWarmUpPagesTotal();
+
+    return pages;
+  }
+
+  @Override
+  public long getWarmUpPagesProcessed() {
+    long pages = 0;
+    for (O2QCache segment : segments)
+      pages += segment.getWarmUpPagesProcessed();
+
+    return pages;
+  }
+
+  @Override
+  public double getWarmUpProgress() {
+    final long total = getWarmUpPagesTotal();
+    if (total == 0)
+      return 100;
+
+    return Math.min(100, 100.0 * getWarmUpPagesProcessed() / total);
+  }
+
+  /**
+   * Segments are loaded one by one by single background thread, so speed of load is calculated using duration of the longest
+   * load.
+   */
+  @Override
+  public long getWarmUpPagesPerSecond() {
+    long warmUpTime = 0;
+    for (O2QCache segment : segments)
+      warmUpTime = Math.max(warmUpTime, segment.getWarmUpTime());
+
+    return O2QCache.pagesPerSecond(getWarmUpPagesProcessed(), warmUpTime);
+  }
+
+  @Override
+  public long getReadAheadPages() {
+    long pages = 0;
+    for (O2QCache segment : segments)
+      pages += segment.getReadAheadPages();
+
+    return pages;
+  }
+
+  @Override
+  public long getReadAheadHits() {
+    long hits = 0;
+    for (O2QCache segment : segments)
+      hits += segment.getReadAheadHits();
+
+    return hits;
+  }
+
+  @Override
+  public double getReadAheadHitRatio() {
+    return O2QCache.readAheadHitRatio(getReadAheadHits(), getReadAheadPages());
+  }
+
+  /**
+   * Changes amount of memory which may be used by given cache, memory is split equally between segments.
+   *
+   * @param readCacheMaxMemory New maximum size of cache in bytes.
+   * @throws IllegalStateException In case of new size of disk cache is too small to hold existing pinned pages.
+   */
+  @Override
+  public void changeMaximumAmountOfMemory(long readCacheMaxMemory) throws IllegalStateException {
+    final long segmentMaxMemory = readCacheMaxMemory / segments.length;
+
+    for (O2QCache segment : segments)
+      segment.changeMaximumAmountOfMemory(segmentMaxMemory);
+  }
+
+  @Override
+  public void clear() {
+    for (O2QCache segment : segments)
+      segment.clear();
+  }
+
+  @Override
+  public void truncateFile(long fileId, OWriteCache writeCache) throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+
+    fileLockManager.acquireExclusiveLock(fileId);
+    try {
+      acquireSegmentsFileLock(fileId);
+      try {
+        writeCache.truncateFile(fileId);
+
+        for (O2QCache segment : segments)
+          segment.clearFilePages(fileId, false);
+      } finally {
+        releaseSegmentsFileLock(fileId);
+      }
+    } finally {
+      fileLockManager.releaseExclusiveLock(fileId);
+    }
+  }
+
+  @Override
+  public void closeFile(long fileId, boolean flush, OWriteCache writeCache) throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+
+    fileLockManager.acquireExclusiveLock(fileId);
+    try {
+      acquireSegmentsFileLock(fileId);
+      try {
+        writeCache.close(fileId, flush);
+
+        for (O2QCache segment : segments)
+          segment.clearFilePages(fileId, false);
+      } finally {
+        releaseSegmentsFileLock(fileId);
+      }
+    } finally {
+      fileLockManager.releaseExclusiveLock(fileId);
+    }
+  }
+
+  @Override
+  public void deleteFile(long fileId, OWriteCache writeCache) throws IOException {
+    fileId = OAbstractWriteCache.checkFileIdCompatibility(writeCache.getId(), fileId);
+
+    fileLockManager.acquireExclusiveLock(fileId);
+    try {
+      acquireSegmentsFileLock(fileId);
+      try {
+        for (O2QCache segment : segments)
+          segment.clearFilePages(fileId, true);
+
+        writeCache.deleteFile(fileId);
+      } finally {
+        releaseSegmentsFileLock(fileId);
+      }
+    } finally {
+      fileLockManager.releaseExclusiveLock(fileId);
+    }
+  }
+
+  @Override
+  public void deleteStorage(OWriteCache writeCache) throws IOException {
+    stopWarmUp(writeCache);
+
+    final long[] filesToClear = writeCache.delete();
+    for (O2QCache segment : segments)
+      segment.clearFilesPages(filesToClear);
+
+    final File rootDirectory = writeCache.getRootDirectory();
+    for (int i = 0; i < segments.length; i++) {
+      final File stateFile = new File(rootDirectory, stateFileName(segments.length, i));
+      if (stateFile.exists()) {
+        if (!stateFile.delete()) {
+          OLogManager.instance().error(this, "Cache state file %s cannot be deleted", stateFile);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void closeStorage(OWriteCache writeCache) throws IOException {
+    if (writeCache == null)
+      return;
+
+    stopWarmUp(writeCache);
+
+    final long[] filesToClear = writeCache.close();
+    for (O2QCache segment : segments)
+      segment.clearFilesPages(filesToClear);
+  }
+
+  /**
+   * State of each segment is stored in separate file, name of file contains amount of segments, so state of the cache is not
+   * restored if amount of segments is changed.
+   */
+  @Override
+  public void loadCacheState(OWriteCache writeCache) {
+    for (O2QCache segment : segments)
+      segment.loadCacheState(writeCache);
+  }
+
+  @Override
+  public void storeCacheState(OWriteCache writeCache) {
+    for (O2QCache segment : segments)
+      segment.storeCacheState(writeCache);
+  }
+
+  O2QCache segment(final long fileId, final long pageIndex) {
+    long hash = fileId * 0x9E3779B97F4A7C15L + (pageIndex >>> STRIPE_SHIFT);
+    hash ^= (hash >>> 32);
+    hash ^= (hash >>> 16);
+
+    return segments[(int) (hash & segmentsMask)];
+  }
+
+  private void stopWarmUp(final OWriteCache writeCache) {
+    for (O2QCache segment : segments)
+      segment.stopWarmUp(writeCache);
+  }
+
+  private void registerFile(final long fileId) {
+    for (O2QCache segment : segments)
+      segment.registerFile(fileId);
+  }
+
+  private void acquireSegmentsFileLock(final long fileId) {
+    for (O2QCache segment : segments)
+      segment.acquireFileExclusiveLock(fileId);
+  }
+
+  private void releaseSegmentsFileLock(final long fileId) {
+    for (int i = segments.length - 1; i >= 0; i--)
+      segments[i].releaseFileExclusiveLock(fileId);
+  }
+
+  private static String stateFileName(final int segmentsCount, final int segmentIndex) {
+    return "cache." + segmentsCount + "." + segmentIndex + O2QCache.CACHE_STATISTIC_FILE_EXTENSION;
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.fs;
+
+import com.orientechnologies.common.log.OLogManager;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import sun.nio.ch.DirectBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Support of direct I/O (<code>O_DIRECT</code>), which reads and writes data bypassing page cache of operating system. Direct
+ * I/O is available only if JVM provides <code>com.sun.nio.file.ExtendedOpenOption.DIRECT</code> open option (Java 10+) and is
+ * supported by file system, otherwise {@link #openChannel(File, boolean)} returns <code>null</code> and caller should use classic
+ * file I/O. NIO.2 API which is needed to open such channel is accessed through {@link ODirectIOJava7}, which is loaded only if
+ * direct I/O is supported, so this class can be used on Java 6 too.
+ * <p>
+ * Position and size of each read or write done through channel opened in direct mode and address of memory of buffers should be
+ * aligned to the block size of file system (see {@link #isAligned(long, ByteBuffer, int)}). Direct byte buffers which meet this
+ * requirement can be allocated by {@link #allocateAligned(int, int, int)}.
+ *
+ * @see OGlobalConfiguration#FILE_DIRECT_IO
+ */
+public final class ODirectIO {
+  /**
+   * Block size which is used if block size of file system cannot be detected.
+   */
+  public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+  private static final Object DIRECT_OPTION     = findDirectOption();
+  private static final Method BLOCK_SIZE_METHOD = findBlockSizeMethod();
+
+  private static final AtomicBoolean unsupportedJVMLogged        = new AtomicBoolean();
+  private static final AtomicBoolean unsupportedFileSystemLogged = new AtomicBoolean();
+
+  private ODirectIO() {
+  }
+
+  /**
+   * @return <code>true</code> if direct I/O is switched on in configuration and JVM supports it.
+   */
+  public static boolean isEnabled() {
+    if (!OGlobalConfiguration.FILE_DIRECT_IO.getValueAsBoolean())
+      return false;
+
+    if (DIRECT_OPTION == null) {
+      if (unsupportedJVMLogged.compareAndSet(false, true))
+        OLogManager.instance()
+            .warn(ODirectIO.class, "Direct I/O is not supported by current JVM (Java 10+ is required), classic file I/O will be used");
+
+      return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * @return <code>true</code> if current JVM supports direct I/O.
+   */
+  public static boolean isSupported() {
+    return DIRECT_OPTION != null;
+  }
+
+  /**
+   * Opens channel which reads and writes data of file bypassing page cache of operating system.
+   *
+   * @param file     File to open, should exist.
+   * @param readOnly Whether file should be opened only for reads.
+   *
+   * @return Opened channel or <code>null</code> if direct I/O is not supported by JVM or file system.
+   */
+  public static FileChannel openChannel(File file, boolean readOnly) {
+    if (DIRECT_OPTION == null)
+      return null;
+
+    try {
+      return ODirectIOJava7.openChannel(file, readOnly, DIRECT_OPTION);
+    } catch (IOException e) {
+      logUnsupportedFileSystem(file, e);
+    } catch (UnsupportedOperationException e) {
+      logUnsupportedFileSystem(file, e);
+    } catch (IllegalArgumentException e) {
+      logUnsupportedFileSystem(file, e);
+    }
+
+    return null;
+  }
+
+  /**
+   * @return Size of block of file system which contains given file, or {@link #DEFAULT_BLOCK_SIZE} if it cannot be detected.
+   */
+  public static int getBlockSize(File file) {
+    if (DIRECT_OPTION == null || BLOCK_SIZE_METHOD == null)
+      return DEFAULT_BLOCK_SIZE;
+
+    try {
+      final long blockSize = (Long) BLOCK_SIZE_METHOD.invoke(ODirectIOJava7.getFileStore(file));
+      if (blockSize > 0 && blockSize <= Integer.MAX_VALUE && Long.bitCount(blockSize) == 1)
+        return (int) blockSize;
+    } catch (Exception e) {
+      OLogManager.instance().debug(ODirectIO.class, "Cannot detect block size of file system for file '%s'", e, file);
+    }
+
+    return DEFAULT_BLOCK_SIZE;
+  }
+
+  /**
+   * @return <code>true</code> if data of given buffer can be read or written at given position of file using direct I/O.
+   */
+  public static boolean isAligned(long position, ByteBuffer buffer, int blockSize) {
+    if (!buffer.isDirect())
+      return false;
+
+    final long mask = blockSize - 1;
+    if ((position & mask) != 0 || (buffer.remaining() & mask) != 0)
+      return false;
+
+    return ((((DirectBuffer) buffer).address() + buffer.position()) & mask) == 0;
+  }
+
+  /**
+   * Allocates direct byte buffer address of memory of which is aligned to the given block size. Byte order of buffer equals to
+   * native byte order.
+   *
+   * @param size      Size of buffer.
+   * @param blockSize Size of block, should be power of two.
+   */
+  public static ByteBuffer allocateAligned(int size, int blockSize) {
+    return allocateAligned(size, blockSize, 0);
+  }
+
+  /**
+   * Allocates direct byte buffer address of memory of which has given offset from the block boundary. Such buffers are used to
+   * read and write data which are stored at the same offset from the block boundary in file, so parts of data which occupy whole
+   * blocks of file are aligned both in file and in memory. Byte order of buffer equals to native byte order.
+   *
+   * @param size      Size of buffer.
+   * @param blockSize Size of block, should be power of two.
+   * @param offset    Offset of address of buffer from the block boundary.
+   */
+  public static ByteBuffer allocateAligned(int size, int blockSize, int offset) {
+    final int mask = blockSize - 1;
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(size + blockSize - 1);
+    final long address = ((DirectBuffer) buffer).address();
+    final int start = (int) ((offset - address) & mask);
+
+    buffer.position(start);
+    buffer.limit(start + size);
+
+    return buffer.slice().order(ByteOrder.nativeOrder());
+  }
+
+  private static void logUnsupportedFileSystem(File file, Exception e) {
+    if (unsupportedFileSystemLogged.compareAndSet(false, true))
+      OLogManager.instance().warn(ODirectIO.class,
+          "Direct I/O is not supported by file system of file '%s' (%s), classic file I/O will be used for such files", file,
+          e.getMessage());
+  }
+
+  private static Object findDirectOption() {
+    try {
+      final Class<?> optionClass = Class.forName("com.sun.nio.file.ExtendedOpenOption");
+      for (Object option : optionClass.getEnumConstants()) {
+        if ("DIRECT".equals(((Enum) option).name()))
+          return option;
+      }
+    } catch (ClassNotFoundException e) {
+      // not supported by JVM
+    }
+
+    return null;
+  }
+
+  private static Method findBlockSizeMethod() {
+    try {
+      return Class.forName("java.nio.file.FileStore").getMethod("getBlockSize");
+    } catch (ClassNotFoundException e) {
+      return null;
+    } catch (NoSuchMethodException e) {
+      return null;
+    }
+  }
+}
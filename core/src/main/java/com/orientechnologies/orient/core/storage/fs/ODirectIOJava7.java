@@ -0,0 +1,47 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.fs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Part of {@link ODirectIO} which uses NIO.2 API of Java 7. It is loaded only if JVM supports direct I/O, so module can still be
+ * used on Java 6.
+ */
+final class ODirectIOJava7 {
+  private ODirectIOJava7() {
+  }
+
+  static FileChannel openChannel(File file, boolean readOnly, Object directOption) throws IOException {
+    if (readOnly)
+      return FileChannel.open(file.toPath(), StandardOpenOption.READ, (OpenOption) directOption);
+
+    return FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE, (OpenOption) directOption);
+  }
+
+  static Object getFileStore(File file) throws IOException {
+    return Files.getFileStore(file.toPath());
+  }
+}
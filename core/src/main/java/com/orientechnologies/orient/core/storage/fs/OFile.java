@@ -115,4 +115,6 @@ public interface OFile {
   long read(long offset, ByteBuffer[] buffers) throws IOException;
 
   void write(long offset, ByteBuffer buffer) throws IOException;
+
+  void write(long offset, ByteBuffer[] buffers) throws IOException;
 }
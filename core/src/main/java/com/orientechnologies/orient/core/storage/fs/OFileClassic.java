@@ -37,6 +37,7 @@ import java.io.PrintWriter;
 import java.io.RandomAccessFile;
 import java.io.StringWriter;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
@@ -65,6 +66,16 @@ public class OFileClassic implements OFile, OClosableItem {
 
   private RandomAccessFile accessFile;
   private FileChannel      channel;
+
+  /**
+   * Channel which reads and writes pages bypassing page cache of operating system, is <code>null</code> if direct I/O is switched
+   * off or not supported. Only parts of pages which are aligned to {@link #directBlockSize} are read and written through this
+   * channel, the rest of data, like file header, is read and written using {@link #channel}.
+   *
+   * @see ODirectIO
+   */
+  private FileChannel directChannel;
+  private int         directBlockSize;
   private volatile boolean dirty       = false;
   private volatile boolean headerDirty = false;
   private int version;
@@ -163,7 +174,11 @@ public class OFileClassic implements OFile, OClosableItem {
         acquireReadLock();
         try {
           offset = checkRegions(offset, buffer.limit());
-          channel.read(buffer, offset);
+
+          if (directChannel != null)
+            readDirect(offset, buffer);
+          else
+            channel.read(buffer, offset);
 
           break;
 
@@ -190,8 +205,18 @@ public class OFileClassic implements OFile, OClosableItem {
         try {
           offset += HEADER_SIZE;
 
-          channel.position(offset);
-          bytesRead = (int) channel.read(buffers);
+          if (directChannel != null) {
+            for (ByteBuffer buffer : buffers) {
+              final int read = readDirect(offset + bytesRead, buffer);
+              bytesRead += read;
+
+              if (buffer.hasRemaining())
+                break;
+            }
+          } else {
+            channel.position(offset);
+            bytesRead = (int) channel.read(buffers);
+          }
 
           break;
 
@@ -217,7 +242,52 @@ public class OFileClassic implements OFile, OClosableItem {
         acquireWriteLock();
         try {
           offset += HEADER_SIZE;
-          channel.write(buffer, offset);
+
+          if (directChannel != null)
+            writeDirect(offset, buffer);
+          else
+            channel.write(buffer, offset);
+
+          setDirty();
+
+          break;
+        } finally {
+          releaseWriteLock();
+          attempts++;
+        }
+      } catch (IOException e) {
+        OLogManager.instance().error(this, "Error during data write for file '" + getName() + "' " + attempts + "-th attempt", e);
+        reopenFile(attempts, e);
+      }
+    }
+  }
+
+  @Override
+  public void write(long offset, ByteBuffer[] buffers) throws IOException {
+    int attempts = 0;
+
+    while (true) {
+      try {
+        acquireWriteLock();
+        try {
+          if (directChannel != null) {
+            long position = offset + HEADER_SIZE;
+            for (ByteBuffer buffer : buffers) {
+              final int bytesToWrite = buffer.remaining();
+              writeDirect(position, buffer);
+              position += bytesToWrite;
+            }
+          } else {
+            channel.position(offset + HEADER_SIZE);
+
+            long bytesToWrite = 0;
+            for (ByteBuffer buffer : buffers)
+              bytesToWrite += buffer.remaining();
+
+            while (bytesToWrite > 0)
+              bytesToWrite -= channel.write(buffers);
+          }
+
           setDirty();
 
           break;
@@ -536,6 +606,26 @@ public class OFileClassic implements OFile, OClosableItem {
     }
   }
 
+  /**
+   * Maps region of file content into memory in read only mode.
+   *
+   * @param offset Offset of region from the start of file content (file header is not included).
+   * @param length Length of region, region should not exceed file size.
+   */
+  protected MappedByteBuffer mapRegion(long offset, long length) throws IOException {
+    acquireReadLock();
+    try {
+      if (offset < 0 || offset + length > size)
+        throw new OIOException(
+            "You cannot map region outside the file size (" + size + " bytes). You have requested portion " + offset + "-" + (
+                offset + length) + " bytes. File: " + toString());
+
+      return channel.map(FileChannel.MapMode.READ_ONLY, offset + HEADER_SIZE, length);
+    } finally {
+      releaseReadLock();
+    }
+  }
+
   /**
    * ALWAYS ADD THE HEADER SIZE BECAUSE ON THIS TYPE IS ALWAYS NEEDED
    */
@@ -648,6 +738,11 @@ public class OFileClassic implements OFile, OClosableItem {
         channel = null;
       }
 
+      if (directChannel != null) {
+        directChannel.close();
+        directChannel = null;
+      }
+
       if (accessFile != null) {
         accessFile.close();
         accessFile = null;
@@ -715,11 +810,133 @@ public class OFileClassic implements OFile, OClosableItem {
         throw new FileNotFoundException(osFile.getAbsolutePath());
 
       channel = accessFile.getChannel();
+
+      if (ODirectIO.isEnabled()) {
+        directChannel = ODirectIO.openChannel(osFile, mode.equals("r"));
+        if (directChannel != null)
+          directBlockSize = ODirectIO.getBlockSize(osFile);
+      }
     } finally {
       releaseWriteLock();
     }
   }
 
+  /**
+   * Reads data at given position of file. Part of data which is aligned to the block size is read bypassing page cache of
+   * operating system, unaligned head and tail of data (if any) are read using page cache.
+   *
+   * @return Amount of read bytes, which is less than requested only if end of file is reached.
+   */
+  private int readDirect(long position, ByteBuffer buffer) throws IOException {
+    final int start = buffer.position();
+    final ByteBuffer[] parts = splitByBlocks(position, buffer);
+
+    if (parts == null) {
+      transfer(channel, position, buffer, false);
+      return buffer.position() - start;
+    }
+
+    long partPosition = position;
+    for (int i = 0; i < parts.length; i++) {
+      final ByteBuffer part = parts[i];
+      final int partStart = part.position();
+
+      transfer(i == 1 ? directChannel : channel, partPosition, part, false);
+      partPosition += part.position() - partStart;
+
+      if (part.hasRemaining())
+        break;
+    }
+
+    buffer.position(start + (int) (partPosition - position));
+    return buffer.position() - start;
+  }
+
+  /**
+   * Writes data at given position of file. Part of data which is aligned to the block size is written bypassing page cache of
+   * operating system, unaligned head and tail of data (if any) are written using page cache.
+   */
+  private void writeDirect(long position, ByteBuffer buffer) throws IOException {
+    final ByteBuffer[] parts = splitByBlocks(position, buffer);
+
+    if (parts == null) {
+      transfer(channel, position, buffer, true);
+      return;
+    }
+
+    for (int i = 0; i < parts.length; i++) {
+      final ByteBuffer part = parts[i];
+      final int partSize = part.remaining();
+
+      transfer(i == 1 ? directChannel : channel, position, part, true);
+      position += partSize;
+    }
+
+    buffer.position(buffer.limit());
+  }
+
+  /**
+   * Splits data of buffer into three parts: unaligned head, part aligned to the block size and unaligned tail.
+   *
+   * @return Views of parts of buffer or <code>null</code> if data of buffer does not contain aligned part.
+   */
+  private ByteBuffer[] splitByBlocks(long position, ByteBuffer buffer) {
+    if (!buffer.isDirect())
+      return null;
+
+    final long mask = directBlockSize - 1;
+    final long end = position + buffer.remaining();
+
+    final long alignedStart = (position + mask) & ~mask;
+    final long alignedEnd = end & ~mask;
+
+    if (alignedEnd <= alignedStart)
+      return null;
+
+    final int headSize = (int) (alignedStart - position);
+    final int alignedSize = (int) (alignedEnd - alignedStart);
+
+    final ByteBuffer aligned = buffer.duplicate();
+    aligned.position(buffer.position() + headSize);
+    aligned.limit(aligned.position() + alignedSize);
+
+    if (!ODirectIO.isAligned(alignedStart, aligned, directBlockSize))
+      return null;
+
+    final ByteBuffer head = buffer.duplicate();
+    head.limit(head.position() + headSize);
+
+    final ByteBuffer tail = buffer.duplicate();
+    tail.position(aligned.limit());
+
+    return new ByteBuffer[] { head, aligned, tail };
+  }
+
+  /**
+   * Reads or writes all remaining data of buffer, reads stop earlier only if end of file is reached.
+   */
+  private static void transfer(FileChannel fileChannel, long position, ByteBuffer buffer, boolean write) throws IOException {
+    while (buffer.hasRemaining()) {
+      final int transferred = write ? fileChannel.write(buffer, position) : fileChannel.read(buffer, position);
+      if (transferred < 0)
+        break;
+
+      position += transferred;
+    }
+  }
+
+  /**
+   * @return <code>true</code> if pages of file are read and written using direct I/O.
+   */
+  public boolean isDirectIO() {
+    acquireReadLock();
+    try {
+      return directChannel != null;
+    } finally {
+      releaseReadLock();
+    }
+  }
+
   private void init(long newSize) throws IOException {
     if (newSize > -1 && accessFile.length() != newSize)
       accessFile.setLength(newSize);
@@ -887,7 +1104,17 @@ public class OFileClassic implements OFile, OClosableItem {
             .error(this, "Error during close of file '" + osFile.getAbsolutePath() + "', during IO exception handling", ioe);
       }
 
+      if (directChannel != null) {
+        try {
+          directChannel.close();
+        } catch (IOException ioe) {
+          OLogManager.instance().error(this,
+              "Error during direct I/O channel close for file '" + osFile.getAbsolutePath() + "', during IO exception handling", ioe);
+        }
+      }
+
       channel = null;
+      directChannel = null;
       accessFile = null;
 
       openChannel();
@@ -0,0 +1,262 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.fs;
+
+import com.orientechnologies.common.io.OIOException;
+import sun.misc.Cleaner;
+import sun.nio.ch.DirectBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * File which serves reads of data from memory mapped regions ("windows") of file instead of positional reads of file channel, so
+ * page read does not require system call. Writes are performed the same way as in {@link OFileClassic}, because shared mapping
+ * and file channel use the same OS page cache, changes written through channel are visible inside of mapped regions.
+ * <p>
+ * Windows are mapped lazily on first read. Last window of file is remapped if file grows and read requests data which is outside
+ * of already mapped region. All windows are unmapped when file is closed or shrunk, so truncated part of file is never accessed
+ * through stale mapping.
+ */
+public class OFileMMap extends OFileClassic {
+  public static final String NAME = "mmap";
+
+  private final int windowSize;
+
+  /**
+   * Lock which protects mapped windows, read lock is held during copy of data from mapped window, write lock is held when windows
+   * are mapped or unmapped. This lock is always acquired before lock of file itself.
+   */
+  private final ReadWriteLock      mappingLock = new ReentrantReadWriteLock();
+  private       MappedByteBuffer[] windows     = new MappedByteBuffer[0];
+
+  /**
+   * @param osFile     Path to the file.
+   * @param mode       Mode in which file is opened.
+   * @param windowSize Size of single mapped region of file in bytes.
+   */
+  public OFileMMap(String osFile, String mode, int windowSize) {
+    super(osFile, mode);
+
+    if (windowSize <= 0)
+      throw new IllegalArgumentException("Size of mapped window should be positive but is " + windowSize);
+
+    this.windowSize = windowSize;
+  }
+
+  @Override
+  public void read(long offset, ByteBuffer buffer) throws IOException {
+    final int length = buffer.remaining();
+    checkRegion(offset, length);
+
+    copy(offset, buffer, length);
+  }
+
+  @Override
+  public long read(long offset, ByteBuffer[] buffers) throws IOException {
+    final long fileSize = getFileSize();
+    long bytesRead = 0;
+
+    for (ByteBuffer buffer : buffers) {
+      if (offset >= fileSize)
+        break;
+
+      final int length = (int) Math.min(buffer.remaining(), fileSize - offset);
+      copy(offset, buffer, length);
+
+      offset += length;
+      bytesRead += length;
+
+      if (buffer.hasRemaining())
+        break;
+    }
+
+    return bytesRead;
+  }
+
+  @Override
+  public void read(long iOffset, byte[] iData, int iLength, int iArrayOffset) throws IOException {
+    checkRegion(iOffset, iLength);
+
+    copy(iOffset, ByteBuffer.wrap(iData, iArrayOffset, iLength), iLength);
+  }
+
+  @Override
+  public void shrink(long iSize) throws IOException {
+    mappingLock.writeLock().lock();
+    try {
+      unmapWindows();
+      super.shrink(iSize);
+    } finally {
+      mappingLock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void close() {
+    mappingLock.writeLock().lock();
+    try {
+      unmapWindows();
+      super.close();
+    } finally {
+      mappingLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * {@link OFileClassic#delete()} closes file under lock of file itself, so lock of mapping is acquired here first to keep order of
+   * locks the same as during mapping of windows.
+   */
+  @Override
+  public void delete() throws IOException {
+    mappingLock.writeLock().lock();
+    try {
+      unmapWindows();
+      super.delete();
+    } finally {
+      mappingLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @see #delete()
+   */
+  @Override
+  public boolean renameTo(File newFile) throws IOException {
+    mappingLock.writeLock().lock();
+    try {
+      unmapWindows();
+      return super.renameTo(newFile);
+    } finally {
+      mappingLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @return Amount of windows of file which are mapped at the moment.
+   */
+  public int getMappedWindowsCount() {
+    mappingLock.readLock().lock();
+    try {
+      int count = 0;
+      for (MappedByteBuffer window : windows) {
+        if (window != null)
+          count++;
+      }
+
+      return count;
+    } finally {
+      mappingLock.readLock().unlock();
+    }
+  }
+
+  private void checkRegion(long offset, long length) {
+    final long size = getFileSize();
+    if (offset < 0 || offset + length > size)
+      throw new OIOException(
+          "You cannot access outside the file size (" + size + " bytes). You have requested portion " + offset + "-" + (offset
+              + length) + " bytes. File: " + toString());
+  }
+
+  private void copy(long offset, ByteBuffer buffer, int length) throws IOException {
+    while (length > 0) {
+      final int windowIndex = (int) (offset / windowSize);
+      final int windowOffset = (int) (offset - (long) windowIndex * windowSize);
+      final int chunkSize = Math.min(length, windowSize - windowOffset);
+
+      final MappedByteBuffer window = acquireWindow(windowIndex, windowOffset + chunkSize);
+      try {
+        final ByteBuffer chunk = window.duplicate();
+        chunk.position(windowOffset);
+        chunk.limit(windowOffset + chunkSize);
+
+        buffer.put(chunk);
+      } finally {
+        mappingLock.readLock().unlock();
+      }
+
+      offset += chunkSize;
+      length -= chunkSize;
+    }
+  }
+
+  /**
+   * Returns window which contains at least <code>requiredLength</code> bytes, maps or remaps it if needed. Read lock of mapping is
+   * held when method returns and should be released by caller.
+   */
+  private MappedByteBuffer acquireWindow(int windowIndex, int requiredLength) throws IOException {
+    while (true) {
+      mappingLock.readLock().lock();
+
+      final MappedByteBuffer window = windowIndex < windows.length ? windows[windowIndex] : null;
+      if (window != null && window.capacity() >= requiredLength)
+        return window;
+
+      mappingLock.readLock().unlock();
+
+      mappingLock.writeLock().lock();
+      try {
+        mapWindow(windowIndex, requiredLength);
+      } finally {
+        mappingLock.writeLock().unlock();
+      }
+    }
+  }
+
+  private void mapWindow(int windowIndex, int requiredLength) throws IOException {
+    if (windowIndex >= windows.length)
+      windows = Arrays.copyOf(windows, windowIndex + 1);
+
+    final MappedByteBuffer window = windows[windowIndex];
+    if (window != null && window.capacity() >= requiredLength)
+      return;
+
+    final long windowStart = (long) windowIndex * windowSize;
+    final int length = (int) Math.min(windowSize, getFileSize() - windowStart);
+    if (length < requiredLength)
+      throw new OIOException("You cannot access outside the file size (" + getFileSize() + " bytes). You have requested portion "
+          + windowStart + "-" + (windowStart + requiredLength) + " bytes. File: " + toString());
+
+    windows[windowIndex] = mapRegion(windowStart, length);
+
+    if (window != null)
+      unmap(window);
+  }
+
+  private void unmapWindows() {
+    for (MappedByteBuffer window : windows) {
+      if (window != null)
+        unmap(window);
+    }
+
+    windows = new MappedByteBuffer[0];
+  }
+
+  private static void unmap(MappedByteBuffer window) {
+    final Cleaner cleaner = ((DirectBuffer) window).cleaner();
+    if (cleaner != null)
+      cleaner.clean();
+  }
+}
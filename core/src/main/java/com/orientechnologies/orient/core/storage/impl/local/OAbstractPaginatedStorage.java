@@ -1777,6 +1777,29 @@ public abstract class OAbstractPaginatedStorage extends OStorageAbstract
     return engine.get(key);
   }
 
+  public Map<Object, Object> getIndexValues(int indexId, Collection<?> keys) {
+    if (transaction.get() != null)
+      return doGetIndexValues(indexId, keys);
+
+    checkOpeness();
+
+    stateLock.acquireReadLock();
+    try {
+      checkOpeness();
+      return doGetIndexValues(indexId, keys);
+    } finally {
+      stateLock.releaseReadLock();
+    }
+  }
+
+  private Map<Object, Object> doGetIndexValues(int indexId, Collection<?> keys) {
+    checkIndexId(indexId);
+
+    final OIndexEngine engine = indexEngines.get(indexId);
+
+    return engine.getAll(keys);
+  }
+
   public OIndexEngine getIndexEngine(int indexId) {
     checkIndexId(indexId);
     return indexEngines.get(indexId);
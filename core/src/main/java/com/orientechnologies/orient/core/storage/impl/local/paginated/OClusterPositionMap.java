@@ -22,15 +22,19 @@ package com.orientechnologies.orient.core.storage.impl.local.paginated;
 
 import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.util.OCommonConst;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.exception.OClusterPositionMapException;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
 import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperation;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperationListener;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.base.ODurableComponent;
 
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * @author Andrey Lomakin (a.lomakin-at-orientechnologies.com)
@@ -40,8 +44,22 @@ public class OClusterPositionMap extends ODurableComponent {
   public static final String DEF_EXTENSION = ".cpm";
   private long fileId;
 
+  /**
+   * Cache of committed mappings, is <code>null</code> if cache is switched off. Mappings changed inside of atomic operation are
+   * removed from cache immediately and put back only when atomic operation is committed.
+   *
+   * @see OGlobalConfiguration#STORAGE_CLUSTER_POSITION_MAP_CACHE_SIZE
+   */
+  private final OClusterPositionMapCache cache;
+
   public OClusterPositionMap(OAbstractPaginatedStorage storage, String name, String lockName) {
     super(storage, name, DEF_EXTENSION, lockName);
+
+    final int cacheSize = OGlobalConfiguration.STORAGE_CLUSTER_POSITION_MAP_CACHE_SIZE.getValueAsInteger();
+    if (cacheSize > 0)
+      cache = new OClusterPositionMapCache(cacheSize);
+    else
+      cache = null;
   }
 
   public void open() throws IOException {
@@ -107,6 +125,9 @@ public class OClusterPositionMap extends ODurableComponent {
     try {
       acquireExclusiveLock();
       try {
+        if (cache != null)
+          cache.clear();
+
         readCache.closeFile(fileId, flush, writeCache);
       } finally {
         releaseExclusiveLock();
@@ -123,6 +144,12 @@ public class OClusterPositionMap extends ODurableComponent {
       acquireExclusiveLock();
       try {
         truncateFile(atomicOperation, fileId);
+
+        if (cache != null) {
+          cache.clear();
+          getCacheChanges(atomicOperation).truncated = true;
+        }
+
         endAtomicOperation(false, null);
       } catch (IOException ioe) {
         endAtomicOperation(true, ioe);
@@ -147,6 +174,10 @@ public class OClusterPositionMap extends ODurableComponent {
       acquireExclusiveLock();
       try {
         deleteFile(atomicOperation, fileId);
+
+        if (cache != null)
+          cache.clear();
+
         endAtomicOperation(false, null);
       } catch (IOException ioe) {
         endAtomicOperation(true, ioe);
@@ -217,7 +248,10 @@ public class OClusterPositionMap extends ODurableComponent {
           }
 
           final long index = bucket.add(pageIndex, recordPosition);
-          return index + cacheEntry.getPageIndex() * OClusterPositionMapBucket.MAX_ENTRIES;
+          final long clusterPosition = index + cacheEntry.getPageIndex() * OClusterPositionMapBucket.MAX_ENTRIES;
+
+          changeCachedEntry(atomicOperation, clusterPosition, new OClusterPositionMapBucket.PositionEntry(pageIndex, recordPosition));
+          return clusterPosition;
         } catch (Exception e) {
           exception = e;
           throw OException.wrapException(
@@ -269,7 +303,10 @@ public class OClusterPositionMap extends ODurableComponent {
           }
 
           final long index = bucket.allocate();
-          return index + cacheEntry.getPageIndex() * OClusterPositionMapBucket.MAX_ENTRIES;
+          final long clusterPosition = index + cacheEntry.getPageIndex() * OClusterPositionMapBucket.MAX_ENTRIES;
+
+          changeCachedEntry(atomicOperation, clusterPosition, null);
+          return clusterPosition;
         } catch (Exception e) {
           exception = e;
           throw OException.wrapException(
@@ -311,6 +348,7 @@ public class OClusterPositionMap extends ODurableComponent {
           final OClusterPositionMapBucket bucket = new OClusterPositionMapBucket(cacheEntry,
               getChanges(atomicOperation, cacheEntry));
           bucket.set(index, entry);
+          changeCachedEntry(atomicOperation, clusterPosition, entry);
         } finally {
           cacheEntry.releaseExclusiveLock();
           releasePage(atomicOperation, cacheEntry);
@@ -353,6 +391,7 @@ public class OClusterPositionMap extends ODurableComponent {
           final OClusterPositionMapBucket bucket = new OClusterPositionMapBucket(cacheEntry,
               getChanges(atomicOperation, cacheEntry));
           bucket.resurrect(index, entry);
+          changeCachedEntry(atomicOperation, clusterPosition, entry);
         } finally {
           cacheEntry.releaseExclusiveLock();
           releasePage(atomicOperation, cacheEntry);
@@ -380,6 +419,13 @@ public class OClusterPositionMap extends ODurableComponent {
   public OClusterPositionMapBucket.PositionEntry get(final long clusterPosition, final int pageCount) throws IOException {
     startOperation();
     try {
+      // cache contains only committed mappings, so it can be used only outside of atomic operations
+      if (cache != null && atomicOperationsManager.getCurrentOperation() == null) {
+        final OClusterPositionMapBucket.PositionEntry cachedEntry = cache.get(clusterPosition);
+        if (cachedEntry != null)
+          return cachedEntry;
+      }
+
       atomicOperationsManager.acquireReadLock(this);
       try {
         acquireSharedLock();
@@ -397,7 +443,12 @@ public class OClusterPositionMap extends ODurableComponent {
           try {
             final OClusterPositionMapBucket bucket = new OClusterPositionMapBucket(cacheEntry,
                 getChanges(atomicOperation, cacheEntry));
-            return bucket.get(index);
+            final OClusterPositionMapBucket.PositionEntry entry = bucket.get(index);
+
+            if (entry != null && cache != null && atomicOperation == null)
+              cache.put(clusterPosition, entry);
+
+            return entry;
           } finally {
             cacheEntry.releaseSharedLock();
             releasePage(atomicOperation, cacheEntry);
@@ -430,7 +481,10 @@ public class OClusterPositionMap extends ODurableComponent {
           final OClusterPositionMapBucket bucket = new OClusterPositionMapBucket(cacheEntry,
               getChanges(atomicOperation, cacheEntry));
 
-          return bucket.remove(index);
+          final OClusterPositionMapBucket.PositionEntry removed = bucket.remove(index);
+          changeCachedEntry(atomicOperation, clusterPosition, null);
+
+          return removed;
         } catch (Exception e) {
           exception = e;
           throw OException.wrapException(
@@ -794,4 +848,54 @@ public class OClusterPositionMap extends ODurableComponent {
       completeOperation();
     }
   }
+
+  /**
+   * Removes mapping from cache and remembers its new value which is put into the cache once atomic operation is committed.
+   *
+   * @param entry New value of mapping or <code>null</code> if mapping should not be cached.
+   */
+  private void changeCachedEntry(OAtomicOperation atomicOperation, long clusterPosition,
+      OClusterPositionMapBucket.PositionEntry entry) {
+    if (cache == null)
+      return;
+
+    cache.remove(clusterPosition);
+    getCacheChanges(atomicOperation).entries.put(clusterPosition, entry);
+  }
+
+  private CacheChanges getCacheChanges(OAtomicOperation atomicOperation) {
+    CacheChanges changes = (CacheChanges) atomicOperation.getListener(this);
+    if (changes == null) {
+      changes = new CacheChanges();
+      atomicOperation.addListener(this, changes);
+    }
+
+    return changes;
+  }
+
+  /**
+   * Changes of cached mappings done inside of single atomic operation. They are applied to the cache on commit and discarded on
+   * rollback, changed mappings are already removed from cache so nothing else should be done in the last case.
+   */
+  private final class CacheChanges implements OAtomicOperationListener {
+    private final Map<Long, OClusterPositionMapBucket.PositionEntry> entries = new HashMap<Long, OClusterPositionMapBucket.PositionEntry>();
+    private boolean truncated;
+
+    @Override
+    public void onCommit(OAtomicOperation atomicOperation) {
+      if (truncated)
+        cache.clear();
+
+      for (Map.Entry<Long, OClusterPositionMapBucket.PositionEntry> entry : entries.entrySet()) {
+        if (entry.getValue() == null)
+          cache.remove(entry.getKey());
+        else
+          cache.put(entry.getKey(), entry.getValue());
+      }
+    }
+
+    @Override
+    public void onRollback(OAtomicOperation atomicOperation) {
+    }
+  }
 }
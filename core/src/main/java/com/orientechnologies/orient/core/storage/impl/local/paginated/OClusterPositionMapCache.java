@@ -0,0 +1,174 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.impl.local.paginated;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Off-heap direct mapped cache of mapping between cluster positions and physical positions of records, is used by
+ * {@link OClusterPositionMap} to avoid load of page of map for each read of record.
+ * <p>
+ * Slot of entry is chosen by low bits of cluster position. Each slot is single <code>long</code> value which consists of:
+ * <ol>
+ * <li>tag - rest of bits of cluster position plus one (16 bits), zero tag means that slot is empty</li>
+ * <li>index of page which contains record (32 bits)</li>
+ * <li>position of record inside of page (16 bits)</li>
+ * </ol>
+ * So entry is read and written by single memory access and readers never observe partially written entries, that allows to read
+ * cache without any locks. Entries which do not fit into this layout (too big cluster position or page index) are not cached.
+ * <p>
+ * Memory is allocated on first insertion of entry and released on {@link #clear()}.
+ */
+public class OClusterPositionMapCache {
+  private static final int  ENTRY_SIZE           = 8;
+  private static final int  TAG_SHIFT            = 48;
+  private static final int  PAGE_INDEX_SHIFT     = 16;
+  private static final long MAX_TAG              = 0xFFFFL;
+  private static final long MAX_PAGE_INDEX       = 0xFFFFFFFFL;
+  private static final int  MAX_RECORD_POSITION  = 0xFFFF;
+  private static final long RECORD_POSITION_MASK = 0xFFFFL;
+
+  private final int slotBits;
+  private final int slotsCount;
+
+  private volatile ByteBuffer slots;
+
+  /**
+   * @param size Maximum amount of entries in cache, is rounded up to the closest power of two.
+   */
+  public OClusterPositionMapCache(int size) {
+    if (size < 1)
+      throw new IllegalArgumentException("Size of cache should be positive but is " + size);
+
+    int slotsCount = 1;
+    while (slotsCount < size)
+      slotsCount = slotsCount << 1;
+
+    this.slotsCount = slotsCount;
+    this.slotBits = Integer.numberOfTrailingZeros(slotsCount);
+  }
+
+  /**
+   * @return Cached physical position of record or <code>null</code> if it is absent in cache.
+   */
+  public OClusterPositionMapBucket.PositionEntry get(final long clusterPosition) {
+    final ByteBuffer slots = this.slots;
+    if (slots == null)
+      return null;
+
+    final long tag = tag(clusterPosition);
+    if (tag < 0)
+      return null;
+
+    final long entry = slots.getLong(slotOffset(clusterPosition));
+    if ((entry >>> TAG_SHIFT) != tag)
+      return null;
+
+    return new OClusterPositionMapBucket.PositionEntry((entry >>> PAGE_INDEX_SHIFT) & MAX_PAGE_INDEX,
+        (int) (entry & RECORD_POSITION_MASK));
+  }
+
+  /**
+   * Puts physical position of record into the cache, entry which occupies the same slot is replaced.
+   */
+  public void put(final long clusterPosition, final OClusterPositionMapBucket.PositionEntry positionEntry) {
+    final long tag = tag(clusterPosition);
+    if (tag < 0)
+      return;
+
+    final long pageIndex = positionEntry.getPageIndex();
+    final int recordPosition = positionEntry.getRecordPosition();
+
+    if (pageIndex < 0 || pageIndex > MAX_PAGE_INDEX || recordPosition < 0 || recordPosition > MAX_RECORD_POSITION) {
+      remove(clusterPosition);
+      return;
+    }
+
+    final long entry = (tag << TAG_SHIFT) | (pageIndex << PAGE_INDEX_SHIFT) | recordPosition;
+    allocate().putLong(slotOffset(clusterPosition), entry);
+  }
+
+  /**
+   * Removes physical position of record from the cache if it is present.
+   */
+  public void remove(final long clusterPosition) {
+    final ByteBuffer slots = this.slots;
+    if (slots == null)
+      return;
+
+    final long tag = tag(clusterPosition);
+    if (tag < 0)
+      return;
+
+    final int offset = slotOffset(clusterPosition);
+    if ((slots.getLong(offset) >>> TAG_SHIFT) == tag)
+      slots.putLong(offset, 0);
+  }
+
+  /**
+   * Removes all entries and releases memory allocated by cache.
+   */
+  public void clear() {
+    slots = null;
+  }
+
+  /**
+   * @return Maximum amount of entries in cache.
+   */
+  public int getSize() {
+    return slotsCount;
+  }
+
+  private ByteBuffer allocate() {
+    ByteBuffer slots = this.slots;
+    if (slots != null)
+      return slots;
+
+    synchronized (this) {
+      slots = this.slots;
+      if (slots == null) {
+        // direct buffers are filled by zeros, so all slots are empty
+        slots = ByteBuffer.allocateDirect(slotsCount * ENTRY_SIZE).order(ByteOrder.nativeOrder());
+        this.slots = slots;
+      }
+    }
+
+    return slots;
+  }
+
+  /**
+   * @return Tag of cluster position or <code>-1</code> if cluster position is too big to be cached.
+   */
+  private long tag(final long clusterPosition) {
+    if (clusterPosition < 0)
+      return -1;
+
+    final long tag = (clusterPosition >>> slotBits) + 1;
+    if (tag > MAX_TAG)
+      return -1;
+
+    return tag;
+  }
+
+  private int slotOffset(final long clusterPosition) {
+    return (int) (clusterPosition & (slotsCount - 1)) * ENTRY_SIZE;
+  }
+}
@@ -87,6 +87,13 @@ public class OPaginatedCluster extends ODurableComponent implements OCluster {
   private          long                                  pinnedStateEntryIndex;
   private          ORecordConflictStrategy               recordConflictStrategy;
 
+  /**
+   * Loads following pages of cluster during sequential scans, <code>null</code> if read-ahead is switched off.
+   *
+   * @see OGlobalConfiguration#DISK_CACHE_READ_AHEAD
+   */
+  private final OReadAhead readAhead;
+
   private static final class AddEntryResult {
     private final long pageIndex;
     private final int  pagePosition;
@@ -116,6 +123,11 @@ public class OPaginatedCluster extends ODurableComponent implements OCluster {
     super(storage, name, ".pcl", name + ".pcl");
 
     systemCluster = OMetadata.SYSTEM_CLUSTER.contains(name);
+
+    if (OGlobalConfiguration.DISK_CACHE_READ_AHEAD.getValueAsBoolean())
+      readAhead = new OReadAhead(readCache, writeCache, OGlobalConfiguration.DISK_CACHE_READ_AHEAD_MAX_PAGES.getValueAsInteger());
+    else
+      readAhead = null;
   }
 
   @Override
@@ -621,14 +633,15 @@ public class OPaginatedCluster extends ODurableComponent implements OCluster {
   @SuppressFBWarnings(value = "PZLA_PREFER_ZERO_LENGTH_ARRAYS")
   public ORawBuffer readRecord(final long clusterPosition, boolean prefetchRecords) throws IOException {
     int pagesCount = 1;
-    if (prefetchRecords) {
+    // if read-ahead is switched on following pages are loaded in background instead
+    if (prefetchRecords && readAhead == null) {
       pagesCount = OGlobalConfiguration.QUERY_SCAN_PREFETCH_PAGES.getValueAsInteger();
     }
 
-    return readRecord(clusterPosition, pagesCount);
+    return readRecord(clusterPosition, pagesCount, prefetchRecords);
   }
 
-  private ORawBuffer readRecord(final long clusterPosition, final int pageCount) throws IOException {
+  private ORawBuffer readRecord(final long clusterPosition, final int pageCount, final boolean scan) throws IOException {
     startOperation();
     OSessionStoragePerformanceStatistic statistic = performanceStatisticManager.getSessionPerformanceStatistic();
     if (statistic != null)
@@ -649,6 +662,9 @@ public class OPaginatedCluster extends ODurableComponent implements OCluster {
           if (getFilledUpTo(atomicOperation, fileId) <= pageIndex)
             return null;
 
+          if (readAhead != null && atomicOperation == null)
+            readAhead.pageRead(fileId, pageIndex, scan);
+
           int recordVersion = 0;
           final OCacheEntry cacheEntry = loadPage(atomicOperation, fileId, pageIndex, false, pageCount);
           cacheEntry.acquireSharedLock();
@@ -732,7 +748,7 @@ public class OPaginatedCluster extends ODurableComponent implements OCluster {
           }
 
           if (loadedRecordVersion > recordVersion)
-            return readRecord(clusterPosition, false);
+            return readRecord(clusterPosition, 1, false);
 
           return null;
         } finally {
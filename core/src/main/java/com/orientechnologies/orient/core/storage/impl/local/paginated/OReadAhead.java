@@ -0,0 +1,126 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.impl.local.paginated;
+
+import com.orientechnologies.orient.core.storage.cache.OReadCache;
+import com.orientechnologies.orient.core.storage.cache.OWriteCache;
+
+/**
+ * Detects sequential reads of pages of file and asks read cache to load following pages of file in background (see
+ * {@link OReadCache#prefetch(long, long, int, OWriteCache)}).
+ * <p>
+ * Access pattern is tracked separately for each thread. Read-ahead is started when pages are read in ascending order
+ * {@link #SEQUENTIAL_READS_THRESHOLD} times in a row, or immediately if caller knows that file is scanned. Amount of pages which
+ * are loaded in advance starts from {@link #MIN_PAGES} and is doubled each time when scan reaches pages loaded by previous request
+ * till maximum amount is reached, so short sequential runs do not load many pages but long scans are served by big sequential disk
+ * reads. Amount of pages is reset once access pattern is not sequential any more.
+ */
+public class OReadAhead {
+  /**
+   * Minimum amount of pages which are loaded by single read-ahead request.
+   */
+  static final int MIN_PAGES = 4;
+
+  /**
+   * Amount of sequential page reads after which read-ahead is started.
+   */
+  static final int SEQUENTIAL_READS_THRESHOLD = 2;
+
+  private final OReadCache  readCache;
+  private final OWriteCache writeCache;
+  private final int         maxPages;
+
+  private final ThreadLocal<State> state = new ThreadLocal<State>() {
+    @Override
+    protected State initialValue() {
+      return new State();
+    }
+  };
+
+  /**
+   * @param readCache  Read cache pages are loaded into.
+   * @param writeCache Write cache which is used to read pages.
+   * @param maxPages   Maximum amount of pages which are loaded by single read-ahead request.
+   */
+  public OReadAhead(OReadCache readCache, OWriteCache writeCache, int maxPages) {
+    this.readCache = readCache;
+    this.writeCache = writeCache;
+    this.maxPages = Math.max(1, maxPages);
+  }
+
+  /**
+   * Should be called each time when page of file is read by current thread.
+   *
+   * @param fileId    Id of file page of which is read.
+   * @param pageIndex Index of read page.
+   * @param scan      <code>true</code> if caller knows that file is read sequentially, in such case read-ahead is started
+   *                  without waiting for detection of sequential access.
+   */
+  public void pageRead(long fileId, long pageIndex, boolean scan) {
+    final State st = state.get();
+
+    if (st.fileId == fileId && st.lastPageIndex == pageIndex)
+      return;
+
+    if (st.fileId == fileId && pageIndex > st.lastPageIndex && pageIndex - st.lastPageIndex <= MIN_PAGES) {
+      st.sequentialReads++;
+    } else {
+      st.fileId = fileId;
+      st.sequentialReads = 0;
+      st.pages = Math.min(MIN_PAGES, maxPages);
+      st.prefetchedTill = pageIndex + 1;
+    }
+
+    st.lastPageIndex = pageIndex;
+
+    if (!scan && st.sequentialReads < SEQUENTIAL_READS_THRESHOLD)
+      return;
+
+    // next portion of pages is requested when scan reaches second half of pages loaded by previous request
+    if (st.prefetchedTill - pageIndex - 1 > st.pages / 2)
+      return;
+
+    if (st.prefetchedTill > pageIndex + 1)
+      st.pages = Math.min(st.pages * 2, maxPages);
+
+    final long start = Math.max(st.prefetchedTill, pageIndex + 1);
+    final long end = pageIndex + 1 + st.pages;
+
+    if (end > start) {
+      readCache.prefetch(fileId, start, (int) (end - start), writeCache);
+      st.prefetchedTill = end;
+    }
+  }
+
+  /**
+   * @return Amount of pages which will be requested by next read-ahead of current thread.
+   */
+  int getPages() {
+    return state.get().pages;
+  }
+
+  private static final class State {
+    private long fileId = -1;
+    private long lastPageIndex;
+    private int  sequentialReads;
+    private int  pages;
+    private long prefetchedTill;
+  }
+}
@@ -67,6 +67,8 @@ public class OAtomicOperation {
 
   private final Map<String, OAtomicOperationMetadata<?>> metadata = new LinkedHashMap<String, OAtomicOperationMetadata<?>>();
 
+  private final Map<Object, OAtomicOperationListener> listeners = new LinkedHashMap<Object, OAtomicOperationListener>();
+
   private final OPageCache pageCache;
 
   public OAtomicOperation(OLogSequenceNumber startLSN, OOperationUnitId operationUnitId, OReadCache readCache,
@@ -160,6 +162,26 @@ public class OAtomicOperation {
     return Collections.unmodifiableMap(metadata);
   }
 
+  /**
+   * Registers listener which is notified when atomic operation is completed. Listeners are associated with keys, if listener with
+   * the same key is added previous instance of listener is overwritten.
+   *
+   * @param key      Key associated with listener, usually component which registers listener.
+   * @param listener Listener to register.
+   * @see OAtomicOperationListener
+   */
+  public void addListener(Object key, OAtomicOperationListener listener) {
+    listeners.put(key, listener);
+  }
+
+  /**
+   * @param key Key of listener which is looking for.
+   * @return Listener by associated key or <code>null</code> if such listener is absent.
+   */
+  public OAtomicOperationListener getListener(Object key) {
+    return listeners.get(key);
+  }
+
   public void pinPage(OCacheEntry cacheEntry) throws IOException {
     if (deletedFiles.contains(cacheEntry.getFileId()))
       throw new OStorageException("File with id " + cacheEntry.getFileId() + " is deleted.");
@@ -490,6 +512,15 @@ public class OAtomicOperation {
     return rollback;
   }
 
+  void notifyListeners() {
+    for (OAtomicOperationListener listener : listeners.values()) {
+      if (rollback)
+        listener.onRollback(this);
+      else
+        listener.onCommit(this);
+    }
+  }
+
   void addLockedObject(String lockedObject) {
     lockedObjects.add(lockedObject);
   }
@@ -0,0 +1,43 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations;
+
+/**
+ * Listener which is notified once atomic operation is completed. Listener is called by thread which completes atomic operation
+ * before locks acquired by atomic operation are released, so state changed by listener becomes visible to other threads together
+ * with changes of atomic operation itself. Listener should not throw exceptions.
+ * <p>
+ * To register listener inside of atomic operation use {@link OAtomicOperation#addListener(Object, OAtomicOperationListener)}.
+ */
+public interface OAtomicOperationListener {
+  /**
+   * Is called when changes of atomic operation are applied.
+   *
+   * @param operation Completed atomic operation.
+   */
+  void onCommit(OAtomicOperation operation);
+
+  /**
+   * Is called when changes of atomic operation are discarded.
+   *
+   * @param operation Completed atomic operation.
+   */
+  void onRollback(OAtomicOperation operation);
+}
@@ -459,9 +459,14 @@ public class OAtomicOperationsManager implements OAtomicOperationsMangerMXBean {
       if (!operation.isRollback())
         operation.commitChanges(useWal ? writeAheadLog : null);
 
+      final OLogSequenceNumber endLsn;
       if (useWal)
-        writeAheadLog.logAtomicOperationEndRecord(operation.getOperationUnitId(), rollback, operation.getStartLSN(),
+        endLsn = writeAheadLog.logAtomicOperationEndRecord(operation.getOperationUnitId(), rollback, operation.getStartLSN(),
             operation.getMetadata());
+      else
+        endLsn = null;
+
+      operation.notifyListeners();
 
       // We have to decrement the counter after the disk operations, otherwise, if they
       // fail, we will be unable to rollback the atomic operation later.
@@ -476,6 +481,10 @@ public class OAtomicOperationsManager implements OAtomicOperationsMangerMXBean {
         lockManager.releaseLock(this, lockObject, OOneEntryPerKeyLockManager.LOCK.EXCLUSIVE);
 
       atomicOperationsCount.decrement();
+
+      // wait for WAL flush only after locks are released, so operations which wait for them can join the same group commit
+      if (endLsn != null && !rollback)
+        writeAheadLog.waitForGroupCommit(endLsn);
     } else
       operation.decrementCounter();
 
@@ -20,6 +20,7 @@
 
 package com.orientechnologies.orient.core.storage.impl.local.paginated.base;
 
+import com.orientechnologies.common.serialization.types.OBinaryComparator;
 import com.orientechnologies.common.serialization.types.OBinarySerializer;
 import com.orientechnologies.common.serialization.types.OByteSerializer;
 import com.orientechnologies.common.serialization.types.OIntegerSerializer;
@@ -167,6 +168,20 @@ public class ODurablePage {
     return binarySerializer.deserializeFromByteBufferObject(buffer, changes, offset);
   }
 
+  /**
+   * Compares object stored at given offset with object serialized by
+   * {@link OBinarySerializer#serializeNativeObject(Object, byte[], int, Object...)} without deserialization of stored object.
+   * Can be used only if page is not changed inside of current atomic operation, that is {@link #changes} is <code>null</code>.
+   *
+   * @see OBinaryComparator#compareInByteBuffer(ByteBuffer, int, byte[], int)
+   */
+  protected int compareInDirectMemory(OBinaryComparator binaryComparator, int offset, byte[] key) {
+    assert cacheEntry.isLockAcquiredByCurrentThread();
+    assert changes == null;
+
+    return binaryComparator.compareInByteBuffer(pointer.getSharedBuffer(), offset, key, 0);
+  }
+
   protected byte getByteValue(int pageOffset) {
     assert cacheEntry.isLockAcquiredByCurrentThread();
 
@@ -22,11 +22,15 @@ package com.orientechnologies.orient.core.storage.impl.local.paginated.wal;
 
 import com.orientechnologies.common.concur.executors.SubScheduledExecutorService;
 import com.orientechnologies.common.concur.lock.OInterruptedException;
+import com.orientechnologies.common.exception.OException;
 import com.orientechnologies.common.io.OFileUtils;
 import com.orientechnologies.common.log.OLogManager;
 import com.orientechnologies.common.serialization.types.OIntegerSerializer;
 import com.orientechnologies.common.serialization.types.OLongSerializer;
 import com.orientechnologies.common.util.OMemory;
+import com.orientechnologies.orient.core.compression.OCompression;
+import com.orientechnologies.orient.core.compression.OCompressionFactory;
+import com.orientechnologies.orient.core.compression.impl.ONothingCompression;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.exception.OStorageException;
 import com.orientechnologies.orient.core.storage.OStorageAbstract;
@@ -36,16 +40,22 @@ import com.orientechnologies.orient.core.storage.impl.local.OLowDiskSpaceListene
 import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
 import com.orientechnologies.orient.core.storage.impl.local.paginated.atomicoperations.OAtomicOperationMetadata;
 import com.orientechnologies.orient.core.storage.impl.local.statistic.OPerformanceStatisticManager;
+import com.orientechnologies.orient.core.storage.impl.local.statistic.OPowerOfTwoHistogram;
 import com.orientechnologies.orient.core.storage.impl.local.statistic.OSessionStoragePerformanceStatistic;
 
 import java.io.*;
 import java.lang.ref.WeakReference;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.zip.CRC32;
 
 /**
@@ -92,6 +102,45 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
   private       boolean   segmentCreationFlag     = false;
   private final Condition segmentCreationComplete = syncObject.newCondition();
 
+  /**
+   * Indicates whether commit of atomic operation waits till WAL is flushed to the disk.
+   *
+   * @see OGlobalConfiguration#WAL_GROUP_COMMIT
+   */
+  private final boolean groupCommit             = OGlobalConfiguration.WAL_GROUP_COMMIT.getValueAsBoolean();
+  private final long    groupCommitMaxWait      = OGlobalConfiguration.WAL_GROUP_COMMIT_MAX_WAIT.getValueAsLong() * 1000;
+  private final int     groupCommitMaxBatchSize = OGlobalConfiguration.WAL_GROUP_COMMIT_MAX_BATCH_SIZE.getValueAsInteger();
+
+  /**
+   * Protects {@link #currentGroupCommit}.
+   */
+  private final Lock        groupCommitLock   = new ReentrantLock();
+  private final Condition   groupCommitIsFull = groupCommitLock.newCondition();
+  private       GroupCommit currentGroupCommit;
+
+  /**
+   * Amount of atomic operations which are started but have not joined group commit yet. Leader of group commit does not wait for
+   * other operations if there are no such operations.
+   */
+  private final AtomicInteger uncommittedOperations = new AtomicInteger();
+
+  private final OPowerOfTwoHistogram groupCommitSizeHistogram      = new OPowerOfTwoHistogram();
+  private final OPowerOfTwoHistogram groupCommitFlushTimeHistogram = new OPowerOfTwoHistogram();
+
+  /**
+   * Compression which is applied to records which contain changes of pages or <code>null</code> if such records are not
+   * compressed.
+   *
+   * @see OGlobalConfiguration#WAL_PAGE_CHANGES_COMPRESSION
+   */
+  private final OCompression pageChangesCompression        = pageChangesCompression();
+  private final int          pageChangesCompressionMinSize = OGlobalConfiguration.WAL_PAGE_CHANGES_COMPRESSION_MIN_SIZE
+      .getValueAsInteger();
+
+  private final AtomicLong pageChangesRecords          = new AtomicLong();
+  private final AtomicLong pageChangesSize             = new AtomicLong();
+  private final AtomicLong pageChangesUncompressedSize = new AtomicLong();
+
   private final Set<OOperationUnitId>                               activeOperations        = new HashSet<OOperationUnitId>();
   private final List<WeakReference<OLowDiskSpaceListener>>          lowDiskSpaceListeners   = new CopyOnWriteArrayList<WeakReference<OLowDiskSpaceListener>>();
   private final List<WeakReference<OFullCheckpointRequestListener>> fullCheckpointListeners = new CopyOnWriteArrayList<WeakReference<OFullCheckpointRequestListener>>();
@@ -148,6 +197,20 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
     }
   }
 
+  /**
+   * Group of atomic operations which wait for the single WAL flush.
+   */
+  private static final class GroupCommit {
+    private final CountDownLatch completed = new CountDownLatch(1);
+
+    /**
+     * Amount of operations in group, is changed only under {@link #groupCommitLock}.
+     */
+    private int size;
+
+    private volatile RuntimeException error;
+  }
+
   public ODiskWriteAheadLog(OLocalPaginatedStorage storage) throws IOException {
     this(OGlobalConfiguration.WAL_CACHE_SIZE.getValueAsInteger(), OGlobalConfiguration.WAL_COMMIT_TIMEOUT.getValueAsInteger(),
         OGlobalConfiguration.WAL_MAX_SEGMENT_SIZE.getValueAsInteger() * ONE_KB * ONE_KB,
@@ -416,6 +479,10 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
 
         final OLogSequenceNumber lsn = internalLog(record, content);
         activeOperations.add(unitId);
+
+        if (groupCommit)
+          uncommittedOperations.incrementAndGet();
+
         return lsn;
       } finally {
         syncObject.unlock();
@@ -431,6 +498,8 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
       OLogSequenceNumber startLsn, Map<String, OAtomicOperationMetadata<?>> atomicOperationMetadata) throws IOException {
     final OSessionStoragePerformanceStatistic statistic = performanceStatisticManager.getSessionPerformanceStatistic();
 
+    final OLogSequenceNumber lsn;
+
     if (statistic != null)
       statistic.startWALLogRecordTimer();
     try {
@@ -440,10 +509,8 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
       try {
         checkForClose();
 
-        final OLogSequenceNumber lsn = internalLog(record, content);
+        lsn = internalLog(record, content);
         activeOperations.remove(operationUnitId);
-
-        return lsn;
       } finally {
         syncObject.unlock();
       }
@@ -451,6 +518,147 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
       if (statistic != null)
         statistic.stopWALRecordTimer(false, true);
     }
+
+    if (groupCommit && rollback && uncommittedOperations.decrementAndGet() == 0)
+      signalGroupCommitLeader();
+
+    return lsn;
+  }
+
+  /**
+   * Waits till record with passed in LSN is flushed to the disk if group commit is enabled, otherwise returns immediately.
+   * <p>
+   * First thread which enters this method becomes leader of group commit. Leader waits till either {@link #groupCommitMaxWait}
+   * interval is passed, {@link #groupCommitMaxBatchSize} threads join the group or there are no other started atomic operations
+   * which may join the group, then flushes all cached WAL pages using single fsync and wakes up rest of the group. Threads which
+   * call this method while leader flushes WAL form next group.
+   *
+   * @param lsn LSN of atomic operation end record which should be flushed to the disk.
+   */
+  @Override
+  public void waitForGroupCommit(final OLogSequenceNumber lsn) {
+    if (!groupCommit)
+      return;
+
+    final GroupCommit commit;
+    boolean leader = false;
+
+    groupCommitLock.lock();
+    try {
+      // nobody else may join current batch, so there is no reason for its leader to wait any more
+      if (uncommittedOperations.decrementAndGet() <= 0)
+        groupCommitIsFull.signalAll();
+
+      final OLogSequenceNumber flushed = flushedLsn;
+      if (flushed != null && flushed.compareTo(lsn) >= 0)
+        return;
+
+      if (currentGroupCommit == null) {
+        currentGroupCommit = new GroupCommit();
+        leader = true;
+      }
+
+      commit = currentGroupCommit;
+      commit.size++;
+
+      if (leader) {
+        long nanos = groupCommitMaxWait;
+        while (commit.size < groupCommitMaxBatchSize && nanos > 0 && uncommittedOperations.get() > 0) {
+          try {
+            nanos = groupCommitIsFull.awaitNanos(nanos);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            break;
+          }
+        }
+
+        if (currentGroupCommit == commit)
+          currentGroupCommit = null;
+      } else if (commit.size >= groupCommitMaxBatchSize) {
+        // batch is full, next commit starts new batch and does not wait for the leader of this one
+        currentGroupCommit = null;
+        groupCommitIsFull.signalAll();
+      }
+    } finally {
+      groupCommitLock.unlock();
+    }
+
+    if (leader) {
+      final long start = System.nanoTime();
+      try {
+        flush();
+      } catch (RuntimeException e) {
+        commit.error = e;
+        throw e;
+      } finally {
+        groupCommitFlushTimeHistogram.record((System.nanoTime() - start) / 1000);
+        groupCommitSizeHistogram.record(commit.size);
+
+        commit.completed.countDown();
+      }
+    } else {
+      try {
+        commit.completed.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new OInterruptedException("Waiting for WAL group commit was interrupted");
+      }
+
+      if (commit.error != null)
+        throw OException.wrapException(new OStorageException("Error during WAL group commit"), commit.error);
+    }
+  }
+
+  private void signalGroupCommitLeader() {
+    groupCommitLock.lock();
+    try {
+      groupCommitIsFull.signalAll();
+    } finally {
+      groupCommitLock.unlock();
+    }
+  }
+
+  /**
+   * @return Histogram of amount of atomic operations committed by single WAL flush in group commit mode.
+   *
+   * @see OPowerOfTwoHistogram
+   * @see OGlobalConfiguration#WAL_GROUP_COMMIT
+   */
+  public long[] getGroupCommitSizeHistogram() {
+    return groupCommitSizeHistogram.getCounts();
+  }
+
+  /**
+   * @return Histogram of time (in microseconds) which is spent on flush and fsync of WAL in group commit mode.
+   *
+   * @see OPowerOfTwoHistogram
+   * @see OGlobalConfiguration#WAL_GROUP_COMMIT
+   */
+  public long[] getGroupCommitFlushTimeHistogram() {
+    return groupCommitFlushTimeHistogram.getCounts();
+  }
+
+  /**
+   * @return Amount of logged records which contain changes of pages.
+   */
+  public long getPageChangesRecords() {
+    return pageChangesRecords.get();
+  }
+
+  /**
+   * @return Size of logged records which contain changes of pages in bytes, as they are written to the log.
+   */
+  public long getPageChangesSize() {
+    return pageChangesSize.get();
+  }
+
+  /**
+   * @return Size of logged records which contain changes of pages in bytes, before compression.
+   *
+   * @see OGlobalConfiguration#WAL_PAGE_CHANGES_COMPRESSION
+   */
+  public long getPageChangesUncompressedSize() {
+    return pageChangesUncompressedSize.get();
   }
 
   public OLogSequenceNumber log(OWALRecord record) throws IOException {
@@ -458,7 +666,11 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
     if (statistic != null)
       statistic.startWALLogRecordTimer();
     try {
-      return internalLog(record, OWALRecordsFactory.INSTANCE.toStream(record));
+      byte[] content = OWALRecordsFactory.INSTANCE.toStream(record);
+      if (record instanceof OUpdatePageRecord)
+        content = compressPageChanges(content);
+
+      return internalLog(record, content);
     } finally {
       if (statistic != null)
         statistic.stopWALRecordTimer(false, false);
@@ -466,6 +678,25 @@ public class ODiskWriteAheadLog extends OAbstractWriteAheadLog {
 
   }
 
+  private byte[] compressPageChanges(byte[] content) {
+    pageChangesRecords.incrementAndGet();
+    pageChangesUncompressedSize.addAndGet(content.length);
+
+    if (pageChangesCompression != null && content.length >= pageChangesCompressionMinSize)
+      content = OWALRecordsFactory.INSTANCE.compress(content, pageChangesCompression);
+
+    pageChangesSize.addAndGet(content.length);
+    return content;
+  }
+
+  private static OCompression pageChangesCompression() {
+    final String name = OGlobalConfiguration.WAL_PAGE_CHANGES_COMPRESSION.getValueAsString();
+    if (name == null || name.equals(ONothingCompression.NAME))
+      return null;
+
+    return OCompressionFactory.INSTANCE.getCompression(name, null);
+  }
+
   /**
    * it log a record getting the serialized content as paramenter.
    *
@@ -10,6 +10,7 @@ import com.orientechnologies.common.serialization.types.OLongSerializer;
 import com.orientechnologies.common.util.OPair;
 import com.orientechnologies.orient.core.config.OGlobalConfiguration;
 import com.orientechnologies.orient.core.exception.OStorageException;
+import com.orientechnologies.orient.core.storage.fs.ODirectIO;
 import com.orientechnologies.orient.core.storage.impl.local.statistic.OPerformanceStatisticManager;
 import com.orientechnologies.orient.core.storage.impl.local.statistic.OSessionStoragePerformanceStatistic;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -19,6 +20,7 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
@@ -51,6 +53,19 @@ final class OLogSegment implements Comparable<OLogSegment> {
    */
   private RandomAccessFile rndFile;
 
+  /**
+   * Channel which writes pages of segment bypassing page cache of operating system. It is opened together with {@link #rndFile}
+   * and is <code>null</code> if direct I/O is switched off or not supported.
+   *
+   * @see ODirectIO
+   */
+  private FileChannel directChannel;
+
+  /**
+   * Aligned buffer which is used to write pages through {@link #directChannel}.
+   */
+  private ByteBuffer directBuffer;
+
   /**
    * Lock which protects {@link #rndFile} access. Any time you call {@link #getRndFile()} you should also
    * acquire this lock.
@@ -193,10 +208,7 @@ final class OLogSegment implements Comparable<OLogSegment> {
           if (OWALPage.PAGE_SIZE - pos < OWALPage.MIN_RECORD_SIZE) {
             fileLock.lock();
             try {
-              final RandomAccessFile rndFile = getRndFile();
-
-              rndFile.seek(pageIndex * OWALPage.PAGE_SIZE);
-              flushPage(pageContent, rndFile);
+              flushPage(pageContent, pageIndex);
             } finally {
               fileLock.unlock();
             }
@@ -216,10 +228,7 @@ final class OLogSegment implements Comparable<OLogSegment> {
       if (lastToFlush) {
         fileLock.lock();
         try {
-          RandomAccessFile rndFile = getRndFile();
-
-          rndFile.seek(pageIndex * OWALPage.PAGE_SIZE);
-          flushPage(pageContent, rndFile);
+          flushPage(pageContent, pageIndex);
         } finally {
           fileLock.unlock();
         }
@@ -265,14 +274,31 @@ final class OLogSegment implements Comparable<OLogSegment> {
     return posInPage;
   }
 
-  private void flushPage(byte[] content, RandomAccessFile rndFile) throws IOException {
+  /**
+   * Writes page of segment. Call of this method should always be protected by {@link #fileLock}.
+   */
+  private void flushPage(byte[] content, long pageIndex) throws IOException {
     OLongSerializer.INSTANCE.serializeNative(OWALPage.MAGIC_NUMBER, content, OWALPage.MAGIC_NUMBER_OFFSET);
     CRC32 crc32 = new CRC32();
     crc32.update(content, OIntegerSerializer.INT_SIZE, OWALPage.PAGE_SIZE - OIntegerSerializer.INT_SIZE);
     OIntegerSerializer.INSTANCE.serializeNative((int) crc32.getValue(), content, 0);
 
-    rndFile.write(content);
+    final RandomAccessFile rndFile = getRndFile();
+
+    if (directChannel != null) {
+      directBuffer.clear();
+      directBuffer.put(content);
+      directBuffer.flip();
+
+      long position = pageIndex * OWALPage.PAGE_SIZE;
+      while (directBuffer.hasRemaining())
+        position += directChannel.write(directBuffer, position);
+
+      return;
+    }
 
+    rndFile.seek(pageIndex * OWALPage.PAGE_SIZE);
+    rndFile.write(content);
   }
 
   OLogSegment(ODiskWriteAheadLog writeAheadLog, File file, int fileTTL, int maxPagesCacheSize,
@@ -328,6 +354,18 @@ final class OLogSegment implements Comparable<OLogSegment> {
   private RandomAccessFile getRndFile() throws IOException {
     if (rndFile == null) {
       rndFile = new RandomAccessFile(file, "rw");
+
+      if (ODirectIO.isEnabled()) {
+        final int blockSize = ODirectIO.getBlockSize(file);
+
+        if (OWALPage.PAGE_SIZE % blockSize == 0) {
+          directChannel = ODirectIO.openChannel(file, false);
+
+          if (directChannel != null && directBuffer == null)
+            directBuffer = ODirectIO.allocateAligned(OWALPage.PAGE_SIZE, blockSize);
+        }
+      }
+
       scheduleFileAutoClose();
     } else {
       closeNextTime = false;
@@ -489,8 +527,6 @@ final class OLogSegment implements Comparable<OLogSegment> {
   }
 
   public OLogSequenceNumber logRecord(byte[] record) throws IOException {
-    flushNewData = true;
-
     OLogRecord rec = generateLogRecord(filledUpTo, record);
     filledUpTo = rec.writeTo;
     last = new OLogSequenceNumber(order, rec.writeFrom);
@@ -501,6 +537,10 @@ final class OLogSegment implements Comparable<OLogSegment> {
       cacheLock.unlock();
 
     }
+
+    // flag is set only after record is added to the cache, otherwise concurrent flush may reset flag before record is added and
+    // record will not be flushed by the next call of flush
+    flushNewData = true;
     long writtenPos = 0;
 
     if (writeAheadLog.getWrittenLsn() != null)
@@ -647,6 +687,11 @@ final class OLogSegment implements Comparable<OLogSegment> {
           rndFile.close();
           rndFile = null;
         }
+
+        if (directChannel != null) {
+          directChannel.close();
+          directChannel = null;
+        }
       } finally {
         fileLock.unlock();
       }
@@ -787,6 +832,11 @@ final class OLogSegment implements Comparable<OLogSegment> {
               rndFile.close();
               rndFile = null;
             }
+
+            if (directChannel != null) {
+              directChannel.close();
+              directChannel = null;
+            }
           } catch (IOException e) {
             OLogManager.instance().error(this, "Can not auto close file in WAL", e);
           }
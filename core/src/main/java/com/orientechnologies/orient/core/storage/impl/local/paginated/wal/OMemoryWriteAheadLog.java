@@ -58,6 +58,10 @@ public class OMemoryWriteAheadLog extends OAbstractWriteAheadLog {
     return log(new OAtomicUnitEndRecord(operationUnitId, rollback, atomicOperationMetadata));
   }
 
+  @Override
+  public void waitForGroupCommit(OLogSequenceNumber lsn) {
+  }
+
   @Override
   public OLogSequenceNumber log(OWALRecord record) throws IOException {
     return new OLogSequenceNumber(Long.MAX_VALUE, Long.MAX_VALUE);
@@ -126,23 +126,36 @@ public class OWALPageChangesPortion implements OWALChanges {
     }
   }
 
+  /**
+   * Changed chunks are serialized in one of two formats, the smaller one is chosen:
+   * <ol>
+   * <li>Each chunk is serialized separately together with its portion and chunk indexes (amount of chunks is stored as positive
+   * number).</li>
+   * <li>Sequential chunks are merged in runs, each run is serialized as index of its first chunk, amount of chunks in run and
+   * content of all chunks of run (amount of runs is stored as negative number). This format is chosen when page has long
+   * sequences of changed chunks, for example when records are moved inside of page.</li>
+   * </ol>
+   */
   public int serializedSize() {
     if (pageChunks == null) {
       return OShortSerializer.SHORT_SIZE;
     }
-    int offset = OShortSerializer.SHORT_SIZE;
-    for (int i = 0; i < pageChunks.length; i++) {
-      if (pageChunks[i] != null) {
-        for (int j = 0; j < PORTION_SIZE; j++) {
-          if (pageChunks[i][j] != null) {
-            offset += OByteSerializer.BYTE_SIZE;
-            offset += OByteSerializer.BYTE_SIZE;
-            offset += CHUNK_SIZE;
-          }
-        }
+
+    int chunks = 0;
+    int runs = 0;
+    boolean prevChanged = false;
+    for (int chunk = 0; chunk < pageChunks.length * PORTION_SIZE; chunk++) {
+      final boolean changed = isChunkChanged(chunk);
+      if (changed) {
+        chunks++;
+        if (!prevChanged)
+          runs++;
       }
+
+      prevChanged = changed;
     }
-    return offset;
+
+    return OShortSerializer.SHORT_SIZE + Math.min(chunksSize(chunks), runsSize(chunks, runs));
   }
 
   public int toStream(int offset, byte[] stream) {
@@ -150,6 +163,28 @@ public class OWALPageChangesPortion implements OWALChanges {
       OShortSerializer.INSTANCE.serializeNative((short) 0, stream, offset);
       return offset + OShortSerializer.SHORT_SIZE;
     }
+
+    int chunks = 0;
+    int runs = 0;
+    boolean prevChanged = false;
+    for (int chunk = 0; chunk < pageChunks.length * PORTION_SIZE; chunk++) {
+      final boolean changed = isChunkChanged(chunk);
+      if (changed) {
+        chunks++;
+        if (!prevChanged)
+          runs++;
+      }
+
+      prevChanged = changed;
+    }
+
+    if (runsSize(chunks, runs) < chunksSize(chunks))
+      return runsToStream(offset, stream);
+
+    return chunksToStream(offset, stream);
+  }
+
+  private int chunksToStream(int offset, byte[] stream) {
     int countPos = offset;
     int count = 0;
     offset += OShortSerializer.SHORT_SIZE;
@@ -172,9 +207,48 @@ public class OWALPageChangesPortion implements OWALChanges {
     return offset;
   }
 
+  private int runsToStream(int offset, byte[] stream) {
+    final int countPos = offset;
+    final int chunksCount = pageChunks.length * PORTION_SIZE;
+
+    int runs = 0;
+    offset += OShortSerializer.SHORT_SIZE;
+
+    int chunk = 0;
+    while (chunk < chunksCount) {
+      if (!isChunkChanged(chunk)) {
+        chunk++;
+        continue;
+      }
+
+      int end = chunk + 1;
+      while (end < chunksCount && isChunkChanged(end))
+        end++;
+
+      OShortSerializer.INSTANCE.serializeNative((short) chunk, stream, offset);
+      offset += OShortSerializer.SHORT_SIZE;
+      OShortSerializer.INSTANCE.serializeNative((short) (end - chunk), stream, offset);
+      offset += OShortSerializer.SHORT_SIZE;
+
+      for (; chunk < end; chunk++) {
+        System.arraycopy(pageChunks[chunk / PORTION_SIZE][chunk % PORTION_SIZE], 0, stream, offset, CHUNK_SIZE);
+        offset += CHUNK_SIZE;
+      }
+
+      runs++;
+    }
+
+    OShortSerializer.INSTANCE.serializeNative((short) -runs, stream, countPos);
+    return offset;
+  }
+
   public int fromStream(int offset, byte[] stream) {
     int chunkLength = OShortSerializer.INSTANCE.deserializeNative(stream, offset);
     offset += OShortSerializer.SHORT_SIZE;
+
+    if (chunkLength < 0)
+      return runsFromStream(-chunkLength, offset, stream);
+
     for (int c = 0; c < chunkLength; c++) {
       int i = OByteSerializer.INSTANCE.deserializeNative(stream, offset);
       offset += OByteSerializer.BYTE_SIZE;
@@ -192,6 +266,45 @@ public class OWALPageChangesPortion implements OWALChanges {
     return offset;
   }
 
+  private int runsFromStream(int runs, int offset, byte[] stream) {
+    if (pageChunks == null)
+      pageChunks = new byte[(pageSize + (PORTION_BYTES - 1)) / PORTION_BYTES][][];
+
+    for (int r = 0; r < runs; r++) {
+      final int start = OShortSerializer.INSTANCE.deserializeNative(stream, offset);
+      offset += OShortSerializer.SHORT_SIZE;
+      final int length = OShortSerializer.INSTANCE.deserializeNative(stream, offset);
+      offset += OShortSerializer.SHORT_SIZE;
+
+      for (int chunk = start; chunk < start + length; chunk++) {
+        final int i = chunk / PORTION_SIZE;
+        final int j = chunk % PORTION_SIZE;
+
+        if (pageChunks[i] == null)
+          pageChunks[i] = new byte[PORTION_SIZE][];
+        if (pageChunks[i][j] == null)
+          pageChunks[i][j] = new byte[CHUNK_SIZE];
+        System.arraycopy(stream, offset, pageChunks[i][j], 0, CHUNK_SIZE);
+        offset += CHUNK_SIZE;
+      }
+    }
+
+    return offset;
+  }
+
+  private boolean isChunkChanged(int chunk) {
+    final byte[][] portion = pageChunks[chunk / PORTION_SIZE];
+    return portion != null && portion[chunk % PORTION_SIZE] != null;
+  }
+
+  private static int chunksSize(int chunks) {
+    return chunks * (2 * OByteSerializer.BYTE_SIZE + CHUNK_SIZE);
+  }
+
+  private static int runsSize(int chunks, int runs) {
+    return runs * 2 * OShortSerializer.SHORT_SIZE + chunks * CHUNK_SIZE;
+  }
+
   @Override
   public OWALChanges inverse(ByteBuffer buffer) {
     final OWALPageChangesPortion inverse = new OWALPageChangesPortion(pageSize);
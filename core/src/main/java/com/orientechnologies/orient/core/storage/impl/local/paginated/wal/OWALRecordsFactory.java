@@ -20,6 +20,10 @@
 
 package com.orientechnologies.orient.core.storage.impl.local.paginated.wal;
 
+import com.orientechnologies.orient.core.compression.OCompression;
+import com.orientechnologies.orient.core.compression.OCompressionFactory;
+
+import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -33,6 +37,15 @@ public class OWALRecordsFactory {
 
   public static final OWALRecordsFactory INSTANCE    = new OWALRecordsFactory();
 
+  /**
+   * Id of record type which is used for records content of which is compressed.
+   *
+   * @see #compress(byte[], OCompression)
+   */
+  private static final byte COMPRESSED_RECORD_ID = 14;
+
+  private static final Charset COMPRESSION_NAME_CHARSET = Charset.forName("UTF-8");
+
   public byte[] toStream(OWALRecord walRecord) {
     int contentSize = walRecord.serializedSize() + 1;
     byte[] content = new byte[contentSize];
@@ -69,7 +82,59 @@ public class OWALRecordsFactory {
     return content;
   }
 
+  /**
+   * Compresses serialized content of record produced by {@link #toStream(OWALRecord)}. Compressed content has following format:
+   * <ol>
+   * <li>Id of compressed record type (byte)</li>
+   * <li>Id of type of original record (byte)</li>
+   * <li>Length of name of compression algorithm (byte)</li>
+   * <li>Name of compression algorithm in UTF-8 encoding</li>
+   * <li>Compressed content of original record</li>
+   * </ol>
+   * Compressed records are uncompressed automatically by {@link #fromStream(byte[])}, so compressed and not compressed records may
+   * be mixed inside of single log.
+   *
+   * @param content     Serialized record.
+   * @param compression Compression algorithm to use.
+   * @return Compressed content or passed in content if compression does not decrease its size.
+   */
+  public byte[] compress(byte[] content, OCompression compression) {
+    final byte[] name = compression.name().getBytes(COMPRESSION_NAME_CHARSET);
+    final byte[] compressed = compression.compress(content, 1, content.length - 1);
+
+    final int headerSize = 3 + name.length;
+    if (headerSize + compressed.length >= content.length)
+      return content;
+
+    final byte[] result = new byte[headerSize + compressed.length];
+    result[0] = COMPRESSED_RECORD_ID;
+    result[1] = content[0];
+    result[2] = (byte) name.length;
+    System.arraycopy(name, 0, result, 3, name.length);
+    System.arraycopy(compressed, 0, result, headerSize, compressed.length);
+
+    return result;
+  }
+
+  private static byte[] uncompress(byte[] content) {
+    final int nameLength = content[2] & 0xFF;
+    final String name = new String(content, 3, nameLength, COMPRESSION_NAME_CHARSET);
+    final OCompression compression = OCompressionFactory.INSTANCE.getCompression(name, null);
+
+    final int headerSize = 3 + nameLength;
+    final byte[] uncompressed = compression.uncompress(content, headerSize, content.length - headerSize);
+
+    final byte[] result = new byte[uncompressed.length + 1];
+    result[0] = content[1];
+    System.arraycopy(uncompressed, 0, result, 1, uncompressed.length);
+
+    return result;
+  }
+
   public OWALRecord fromStream(byte[] content) {
+    if (content[0] == COMPRESSED_RECORD_ID)
+      content = uncompress(content);
+
     OWALRecord walRecord;
     switch (content[0]) {
     case 0:
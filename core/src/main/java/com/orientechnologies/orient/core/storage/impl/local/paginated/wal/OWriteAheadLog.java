@@ -55,6 +55,14 @@ public interface OWriteAheadLog {
       Map<String, OAtomicOperationMetadata<?>> atomicOperationMetadata)
       throws IOException;
 
+  /**
+   * Waits till end record of atomic operation with passed in LSN is flushed to the disk if WAL group commit is used. Should be
+   * called after all locks of atomic operation are released, so other operations are not blocked till WAL is flushed.
+   *
+   * @param lsn LSN returned by {@link #logAtomicOperationEndRecord(OOperationUnitId, boolean, OLogSequenceNumber, Map)}
+   */
+  void waitForGroupCommit(OLogSequenceNumber lsn);
+
   OLogSequenceNumber log(OWALRecord record) throws IOException;
 
   void truncate() throws IOException;
@@ -186,6 +186,34 @@ public class OPerformanceStatisticManager {
    */
   private long walCacheOverflowCount = -1;
 
+  /**
+   * Histogram of amount of atomic operations committed by single WAL flush in group commit mode.
+   * Value is updated on demand if monitoring is switched on.
+   * Supported only for disk based storage.
+   */
+  private long[] walGroupCommitSizeHistogram;
+
+  /**
+   * Histogram of time (in microseconds) which is spent on flush and fsync of WAL in group commit mode.
+   * Value is updated on demand if monitoring is switched on.
+   * Supported only for disk based storage.
+   */
+  private long[] walGroupCommitFlushTimeHistogram;
+
+  /**
+   * Average size of WAL record which contains changes of page as it is written to the log.
+   * Value is updated on demand if monitoring is switched on.
+   * Supported only for disk based storage.
+   */
+  private long walPageChangesBytesPerRecord = -1;
+
+  /**
+   * Average size of WAL record which contains changes of page before compression.
+   * Value is updated on demand if monitoring is switched on.
+   * Supported only for disk based storage.
+   */
+  private long walPageChangesUncompressedBytesPerRecord = -1;
+
   /**
    * Size of read cache in bytes.
    * Value is updated on demand if monitoring is switched on.
@@ -1062,6 +1090,104 @@ public class OPerformanceStatisticManager {
     }
   }
 
+  /**
+   * @return Histogram of amount of atomic operations committed by single WAL flush in group commit mode or <code>null</code>
+   * if value is undefined
+   *
+   * @see ODiskWriteAheadLog#getGroupCommitSizeHistogram()
+   */
+  public long[] getWALGroupCommitSizeHistogram() {
+    switchLock.acquireReadLock();
+    try {
+      if (enabled) {
+        final ODiskWriteAheadLog wal = getWriteAheadLog();
+        if (wal != null)
+          walGroupCommitSizeHistogram = wal.getGroupCommitSizeHistogram();
+
+        return walGroupCommitSizeHistogram;
+      } else {
+        return walGroupCommitSizeHistogram;
+      }
+    } finally {
+      switchLock.releaseReadLock();
+    }
+  }
+
+  /**
+   * @return Average size of WAL record which contains changes of page in bytes as it is written to the log or <code>-1</code>
+   * if value is undefined
+   *
+   * @see ODiskWriteAheadLog#getPageChangesSize()
+   */
+  public long getWALPageChangesBytesPerRecord() {
+    switchLock.acquireReadLock();
+    try {
+      if (enabled) {
+        final ODiskWriteAheadLog wal = getWriteAheadLog();
+        if (wal != null) {
+          final long records = wal.getPageChangesRecords();
+          if (records > 0)
+            walPageChangesBytesPerRecord = wal.getPageChangesSize() / records;
+        }
+
+        return walPageChangesBytesPerRecord;
+      } else {
+        return walPageChangesBytesPerRecord;
+      }
+    } finally {
+      switchLock.releaseReadLock();
+    }
+  }
+
+  /**
+   * @return Average size of WAL record which contains changes of page in bytes before compression or <code>-1</code> if value is
+   * undefined
+   *
+   * @see ODiskWriteAheadLog#getPageChangesUncompressedSize()
+   */
+  public long getWALPageChangesUncompressedBytesPerRecord() {
+    switchLock.acquireReadLock();
+    try {
+      if (enabled) {
+        final ODiskWriteAheadLog wal = getWriteAheadLog();
+        if (wal != null) {
+          final long records = wal.getPageChangesRecords();
+          if (records > 0)
+            walPageChangesUncompressedBytesPerRecord = wal.getPageChangesUncompressedSize() / records;
+        }
+
+        return walPageChangesUncompressedBytesPerRecord;
+      } else {
+        return walPageChangesUncompressedBytesPerRecord;
+      }
+    } finally {
+      switchLock.releaseReadLock();
+    }
+  }
+
+  /**
+   * @return Histogram of time (in microseconds) which is spent on flush and fsync of WAL in group commit mode or
+   * <code>null</code> if value is undefined
+   *
+   * @see ODiskWriteAheadLog#getGroupCommitFlushTimeHistogram()
+   */
+  public long[] getWALGroupCommitFlushTimeHistogram() {
+    switchLock.acquireReadLock();
+    try {
+      if (enabled) {
+        final ODiskWriteAheadLog wal = getWriteAheadLog();
+        if (wal != null)
+          walGroupCommitFlushTimeHistogram = wal.getGroupCommitFlushTimeHistogram();
+
+        return walGroupCommitFlushTimeHistogram;
+      } else {
+        return walGroupCommitFlushTimeHistogram;
+      }
+    } finally {
+      switchLock.releaseReadLock();
+    }
+  }
+
   /**
    * @return time which is spent on logging of single record or <code>-1</code> if value is undefined.
    */
@@ -150,6 +150,26 @@ public class OPerformanceStatisticManagerMBean implements DynamicMBean {
    */
   public static final String WAL_FLUSH_TIME = "walFlushTime";
 
+  /**
+   * Name of "walGroupCommitSizeHistogram" performance attribute
+   */
+  public static final String WAL_GROUP_COMMIT_SIZE_HISTOGRAM = "walGroupCommitSizeHistogram";
+
+  /**
+   * Name of "walGroupCommitFlushTimeHistogram" performance attribute
+   */
+  public static final String WAL_GROUP_COMMIT_FLUSH_TIME_HISTOGRAM = "walGroupCommitFlushTimeHistogram";
+
+  /**
+   * Name of "walPageChangesBytesPerRecord" performance attribute
+   */
+  public static final String WAL_PAGE_CHANGES_BYTES_PER_RECORD = "walPageChangesBytesPerRecord";
+
+  /**
+   * Name of "walPageChangesUncompressedBytesPerRecord" performance attribute
+   */
+  public static final String WAL_PAGE_CHANGES_UNCOMPRESSED_BYTES_PER_RECORD = "walPageChangesUncompressedBytesPerRecord";
+
   /**
    * Reference to related performance manager
    */
@@ -298,6 +318,26 @@ public class OPerformanceStatisticManagerMBean implements DynamicMBean {
         return manager.getWALFlushTime();
       else
         throwComponentsAreNotSupported(WAL_FLUSH_TIME);
+    } else if (attributeName.equals(WAL_GROUP_COMMIT_SIZE_HISTOGRAM)) {
+      if (componentName == null)
+        return manager.getWALGroupCommitSizeHistogram();
+      else
+        throwComponentsAreNotSupported(WAL_GROUP_COMMIT_SIZE_HISTOGRAM);
+    } else if (attributeName.equals(WAL_GROUP_COMMIT_FLUSH_TIME_HISTOGRAM)) {
+      if (componentName == null)
+        return manager.getWALGroupCommitFlushTimeHistogram();
+      else
+        throwComponentsAreNotSupported(WAL_GROUP_COMMIT_FLUSH_TIME_HISTOGRAM);
+    } else if (attributeName.equals(WAL_PAGE_CHANGES_BYTES_PER_RECORD)) {
+      if (componentName == null)
+        return manager.getWALPageChangesBytesPerRecord();
+      else
+        throwComponentsAreNotSupported(WAL_PAGE_CHANGES_BYTES_PER_RECORD);
+    } else if (attributeName.equals(WAL_PAGE_CHANGES_UNCOMPRESSED_BYTES_PER_RECORD)) {
+      if (componentName == null)
+        return manager.getWALPageChangesUncompressedBytesPerRecord();
+      else
+        throwComponentsAreNotSupported(WAL_PAGE_CHANGES_UNCOMPRESSED_BYTES_PER_RECORD);
     }
 
     throw new AttributeNotFoundException("Cannot find " + attribute + " attribute in " + getClass().getSimpleName());
@@ -421,6 +461,10 @@ public class OPerformanceStatisticManagerMBean implements DynamicMBean {
     populateWALEndAOLogTime(performanceAttributes);
     populateWALStartAOLogTime(performanceAttributes);
     populateWALFlushTime(performanceAttributes);
+    populateWALGroupCommitSizeHistogram(performanceAttributes);
+    populateWALGroupCommitFlushTimeHistogram(performanceAttributes);
+    populateWALPageChangesBytesPerRecord(performanceAttributes);
+    populateWALPageChangesUncompressedBytesPerRecord(performanceAttributes);
   }
 
   private void populateWriteSpeedInCache(List<MBeanAttributeInfo> performanceAttributes, Collection<String> components) {
@@ -594,4 +638,36 @@ public class OPerformanceStatisticManagerMBean implements DynamicMBean {
     performanceAttributes.add(walFlushTime);
   }
 
+  private void populateWALGroupCommitSizeHistogram(List<MBeanAttributeInfo> performanceAttributes) {
+    final MBeanAttributeInfo walGroupCommitSizeHistogram = new ModelMBeanAttributeInfo(WAL_GROUP_COMMIT_SIZE_HISTOGRAM,
+        long[].class.getName(), "Histogram of amount of transactions committed by single WAL flush in group commit mode, "
+        + "bucket N contains amount of flushes which committed from 2^(N-1) till 2^N - 1 transactions", true, false, false);
+
+    performanceAttributes.add(walGroupCommitSizeHistogram);
+  }
+
+  private void populateWALGroupCommitFlushTimeHistogram(List<MBeanAttributeInfo> performanceAttributes) {
+    final MBeanAttributeInfo walGroupCommitFlushTimeHistogram = new ModelMBeanAttributeInfo(WAL_GROUP_COMMIT_FLUSH_TIME_HISTOGRAM,
+        long[].class.getName(), "Histogram of time which is spent on flush and fsync of WAL in group commit mode, "
+        + "bucket N contains amount of flushes which took from 2^(N-1) till 2^N - 1 microseconds", true, false, false);
+
+    performanceAttributes.add(walGroupCommitFlushTimeHistogram);
+  }
+
+  private void populateWALPageChangesBytesPerRecord(List<MBeanAttributeInfo> performanceAttributes) {
+    final MBeanAttributeInfo walPageChangesBytesPerRecord = new ModelMBeanAttributeInfo(WAL_PAGE_CHANGES_BYTES_PER_RECORD,
+        long.class.getName(), "Average size of WAL record which contains changes of page as it is written to the log", true, false,
+        false);
+
+    performanceAttributes.add(walPageChangesBytesPerRecord);
+  }
+
+  private void populateWALPageChangesUncompressedBytesPerRecord(List<MBeanAttributeInfo> performanceAttributes) {
+    final MBeanAttributeInfo walPageChangesUncompressedBytesPerRecord = new ModelMBeanAttributeInfo(
+        WAL_PAGE_CHANGES_UNCOMPRESSED_BYTES_PER_RECORD, long.class.getName(),
+        "Average size of WAL record which contains changes of page before compression", true, false, false);
+
+    performanceAttributes.add(walPageChangesUncompressedBytesPerRecord);
+  }
+
 }
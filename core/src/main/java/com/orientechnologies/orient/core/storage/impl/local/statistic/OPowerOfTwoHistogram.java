@@ -0,0 +1,75 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+package com.orientechnologies.orient.core.storage.impl.local.statistic;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of distribution of long values. Boundaries of buckets are powers of two, value <code>v</code> is counted in
+ * bucket with index <code>i</code> if <code>2<sup>i-1</sup> &lt;= v &lt; 2<sup>i</sup></code>. Zero and negative values are
+ * counted in the bucket with index <code>0</code>.
+ */
+public class OPowerOfTwoHistogram {
+  private static final int BUCKETS_COUNT = 64;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS_COUNT);
+
+  /**
+   * Adds value to the histogram.
+   *
+   * @param value Value to add.
+   */
+  public void record(long value) {
+    final int index = value <= 0 ? 0 : BUCKETS_COUNT - Long.numberOfLeadingZeros(value);
+    buckets.incrementAndGet(Math.min(index, BUCKETS_COUNT - 1));
+  }
+
+  /**
+   * @return Amount of values in each bucket of histogram. Empty buckets which follow the last not empty bucket are not included in
+   * result.
+   */
+  public long[] getCounts() {
+    final long[] counts = new long[BUCKETS_COUNT];
+
+    int size = 0;
+    for (int i = 0; i < BUCKETS_COUNT; i++) {
+      counts[i] = buckets.get(i);
+      if (counts[i] > 0)
+        size = i + 1;
+    }
+
+    final long[] result = new long[size];
+    System.arraycopy(counts, 0, result, 0, size);
+
+    return result;
+  }
+
+  /**
+   * @return Total amount of values added to histogram.
+   */
+  public long getTotalCount() {
+    long total = 0;
+    for (int i = 0; i < BUCKETS_COUNT; i++) {
+      total += buckets.get(i);
+    }
+
+    return total;
+  }
+}
@@ -225,6 +225,11 @@ public class ODirectMemoryOnlyDiskCache extends OAbstractWriteCache implements O
     }
   }
 
+  @Override
+  public void prefetch(long fileId, long pageIndex, int pageCount, OWriteCache writeCache) {
+    // all pages are always kept in memory
+  }
+
   @Override
   public void pinPage(OCacheEntry cacheEntry) {
   }
@@ -563,6 +568,13 @@ public class ODirectMemoryOnlyDiskCache extends OAbstractWriteCache implements O
     return totalPages * pageSize;
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void changeMaximumAmountOfMemory(long readCacheMaxMemory) {
+  }
+
   @Override
   public void startFuzzyCheckpoints() {
   }
@@ -66,6 +66,103 @@ import java.util.concurrent.*;
     }
   }
 
+  public void testReleasedPageIsCachedInMagazine() {
+    final OByteBufferPool pool = new OByteBufferPool(10, 300, 200, 4);
+
+    final ByteBuffer buffer = pool.acquireDirect(false);
+    pool.release(buffer);
+
+    Assert.assertEquals(pool.getBuffersInMagazines(), 1);
+    Assert.assertEquals(pool.getSize(), 1);
+
+    Assert.assertSame(pool.acquireDirect(false), buffer);
+    Assert.assertEquals(pool.getBuffersInMagazines(), 0);
+
+    Assert.assertEquals(pool.getMagazineHits(), 1);
+    Assert.assertEquals(pool.getMagazineMisses(), 1);
+    Assert.assertEquals(pool.getMagazineHitRate(), 0.5);
+    Assert.assertEquals(pool.getBuffersInUse(), 1);
+
+    pool.release(buffer);
+    Assert.assertEquals(pool.getBuffersInUse(), 0);
+  }
+
+  public void testMagazineOverflow() {
+    final OByteBufferPool pool = new OByteBufferPool(10, 300, 200, 4);
+
+    final List<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+    for (int i = 0; i < 5; i++)
+      buffers.add(pool.acquireDirect(false));
+
+    for (ByteBuffer buffer : buffers)
+      pool.release(buffer);
+
+    Assert.assertEquals(pool.getMagazineOverflowCount(), 1);
+    Assert.assertEquals(pool.getBuffersInMagazines(), 3);
+    Assert.assertEquals(pool.getSize(), 5);
+    Assert.assertEquals(pool.getBuffersInUse(), 0);
+  }
+
+  public void testWithoutMagazines() {
+    final OByteBufferPool pool = new OByteBufferPool(10, 300, 200, 0);
+
+    final ByteBuffer buffer = pool.acquireDirect(false);
+    pool.release(buffer);
+
+    Assert.assertEquals(pool.getBuffersInMagazines(), 0);
+    Assert.assertEquals(pool.getSize(), 1);
+    Assert.assertEquals(pool.getMagazineOverflowCount(), 0);
+
+    Assert.assertSame(pool.acquireDirect(false), buffer);
+    Assert.assertEquals(pool.getMagazineHits(), 0);
+  }
+
+  public void testPagesOfDeadThreadAreReused() throws Exception {
+    final OByteBufferPool pool = new OByteBufferPool(10, 300, 200, 4);
+
+    final List<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+    for (int i = 0; i < 3; i++)
+      buffers.add(pool.acquireDirect(false));
+
+    final Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        for (ByteBuffer buffer : buffers)
+          pool.release(buffer);
+      }
+    });
+    thread.start();
+    thread.join();
+
+    Assert.assertEquals(pool.getBuffersInMagazines(), 3);
+
+    // magazines of dead threads are checked not often than once per second
+    Thread.sleep(1100);
+
+    Assert.assertTrue(buffers.contains(pool.acquireDirect(false)));
+    Assert.assertEquals(pool.getBuffersInMagazines(), 0);
+    Assert.assertEquals(pool.getSize(), 2);
+    Assert.assertEquals(pool.getAllocatedBufferCount(), 3);
+    Assert.assertEquals(pool.getBuffersInUse(), 1);
+  }
+
+  public void testArenasOccupancy() {
+    final OByteBufferPool pool = new OByteBufferPool(10, 300, 200, 4);
+    Assert.assertEquals(pool.getArenasCount(), 0);
+
+    final List<ByteBuffer> buffers = new ArrayList<ByteBuffer>();
+    for (int i = 0; i < 20; i++)
+      buffers.add(pool.acquireDirect(false));
+
+    Assert.assertEquals(pool.getArenasCount(), 2);
+    Assert.assertEquals(pool.getArenasOccupancy(), new double[] { 1.0, 0.25 });
+
+    for (int i = 0; i < 8; i++)
+      pool.release(buffers.get(i));
+
+    Assert.assertEquals(pool.getArenasOccupancy(), new double[] { 0.5, 0.25 });
+  }
+
   @Test(enabled = false)
   public void testAcquireReleasePageWithPreallocationInMT() throws Exception {
     final OByteBufferPool pool = new OByteBufferPool(10, 300, 200);
@@ -0,0 +1,170 @@
+package com.orientechnologies.common.serialization.types;
+
+import com.orientechnologies.common.comparator.ODefaultComparator;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.index.OAlwaysGreaterKey;
+import com.orientechnologies.orient.core.index.OCompositeKey;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.OLinkSerializer;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.index.OCompositeKeySerializer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+@Test
+public class BinaryComparatorTest {
+  private static final int  BUFFER_OFFSET = 3;
+  private static final int  KEY_OFFSET    = 5;
+  private static final long DAY           = 24L * 60 * 60 * 1000;
+
+  private final Random random = new Random();
+
+  public void testLong() {
+    final List<Long> values = new ArrayList<Long>(Arrays.asList(Long.MIN_VALUE, -1L, 0L, 1L, Long.MAX_VALUE));
+    for (int i = 0; i < 20; i++)
+      values.add(random.nextLong());
+
+    assertConsistentWithComparator(OLongSerializer.INSTANCE, values);
+
+    Assert.assertFalse(OLongSerializer.INSTANCE.isBinaryComparable(1));
+    Assert.assertFalse(OLongSerializer.INSTANCE.isBinaryComparable(null));
+  }
+
+  public void testInteger() {
+    final List<Integer> values = new ArrayList<Integer>(Arrays.asList(Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE));
+    for (int i = 0; i < 20; i++)
+      values.add(random.nextInt());
+
+    assertConsistentWithComparator(OIntegerSerializer.INSTANCE, values);
+  }
+
+  public void testString() {
+    final List<String> values = new ArrayList<String>(
+        Arrays.asList("", "a", "ab", "abc", "abd", "b", "\u00ff", "\u0100", "\u7fff", "\u8000", "\uffff", "a\uffff"));
+    for (int i = 0; i < 20; i++) {
+      final char[] chars = new char[random.nextInt(10)];
+      for (int n = 0; n < chars.length; n++)
+        chars[n] = (char) random.nextInt(Character.MAX_VALUE + 1);
+
+      values.add(new String(chars));
+    }
+
+    assertConsistentWithComparator(OStringSerializer.INSTANCE, values);
+  }
+
+  public void testDateTime() {
+    final List<Date> values = new ArrayList<Date>();
+    for (int i = 0; i < 20; i++)
+      values.add(new Date(random.nextLong() >> 20));
+
+    assertConsistentWithComparator(ODateTimeSerializer.INSTANCE, values);
+
+    Assert.assertFalse(ODateTimeSerializer.INSTANCE.isBinaryComparable(new Timestamp(1)));
+  }
+
+  public void testDate() {
+    final List<Date> values = new ArrayList<Date>();
+    for (int i = 0; i < 20; i++)
+      values.add(ODateSerializer.INSTANCE.preprocess(new Date(random.nextLong() >> 20)));
+
+    assertConsistentWithComparator(ODateSerializer.INSTANCE, values);
+  }
+
+  public void testLink() {
+    final List<ORecordId> values = new ArrayList<ORecordId>(
+        Arrays.asList(new ORecordId(0, 0), new ORecordId(0, 1), new ORecordId(1, 0), new ORecordId(-1, -2),
+            new ORecordId(Short.MAX_VALUE, Long.MAX_VALUE)));
+    for (int i = 0; i < 20; i++)
+      values.add(new ORecordId(random.nextInt(Short.MAX_VALUE), random.nextLong()));
+
+    assertConsistentWithComparator(OLinkSerializer.INSTANCE, values);
+  }
+
+  public void testCompositeKey() {
+    final List<OCompositeKey> values = new ArrayList<OCompositeKey>();
+    values.add(new OCompositeKey());
+    values.add(new OCompositeKey("a"));
+    values.add(new OCompositeKey("a", 1L));
+    values.add(new OCompositeKey("a", 2L));
+    values.add(new OCompositeKey("b", -1L));
+    values.add(new OCompositeKey(null, 1L));
+    values.add(new OCompositeKey("a", null));
+    values.add(new OCompositeKey(null, null));
+
+    for (int i = 0; i < 20; i++)
+      values.add(new OCompositeKey(String.valueOf(random.nextInt(3)), (long) random.nextInt(3)));
+
+    assertConsistentWithComparator(OCompositeKeySerializer.INSTANCE, values, types(OType.STRING, OType.LONG));
+  }
+
+  public void testCompositeKeyWithDifferentItemTypes() {
+    final OCompositeKeySerializer serializer = OCompositeKeySerializer.INSTANCE;
+
+    final ByteBuffer buffer = store(serializer, new OCompositeKey("a", new Date(10 * DAY)), types(OType.STRING, OType.DATETIME));
+
+    Assert.assertTrue(serializer.compareInByteBuffer(buffer, BUFFER_OFFSET,
+        serialize(serializer, new OCompositeKey("a", new Date(5 * DAY)), types(OType.STRING, OType.DATE)), KEY_OFFSET) > 0);
+    Assert.assertTrue(serializer.compareInByteBuffer(buffer, BUFFER_OFFSET,
+        serialize(serializer, new OCompositeKey("a", new Date(15 * DAY)), types(OType.STRING, OType.DATE)), KEY_OFFSET) < 0);
+    Assert.assertEquals(buffer.position(), 0);
+  }
+
+  public void testCompositeKeyIsNotComparableIfItContainsSpecialItems() {
+    final OCompositeKeySerializer serializer = OCompositeKeySerializer.INSTANCE;
+
+    Assert.assertTrue(serializer.isBinaryComparable(new OCompositeKey("a", 1L), types(OType.STRING, OType.LONG)));
+    Assert.assertFalse(serializer.isBinaryComparable(new OCompositeKey("a", new OAlwaysGreaterKey()), types(OType.STRING)));
+    Assert.assertFalse(serializer.isBinaryComparable(new OCompositeKey("a", 1.0), types(OType.STRING, OType.DOUBLE)));
+    Assert.assertFalse(serializer.isBinaryComparable("a"));
+  }
+
+  private <T> void assertConsistentWithComparator(OBinarySerializer<T> serializer, List<? extends T> values, Object... hints) {
+    final OBinaryComparator binaryComparator = (OBinaryComparator) serializer;
+
+    for (T storedValue : values) {
+      final ByteBuffer buffer = store(serializer, storedValue, hints);
+
+      for (T value : values) {
+        Assert.assertTrue(binaryComparator.isBinaryComparable(value, hints));
+
+        final int expected = ODefaultComparator.INSTANCE.compare(storedValue, value);
+        final int actual = binaryComparator
+            .compareInByteBuffer(buffer, BUFFER_OFFSET, serialize(serializer, value, hints), KEY_OFFSET);
+
+        Assert.assertEquals(Integer.signum(actual), Integer.signum(expected), storedValue + " vs " + value);
+        Assert.assertEquals(buffer.position(), 0);
+      }
+    }
+  }
+
+  private static Object[] types(OType... types) {
+    return types;
+  }
+
+  private static <T> ByteBuffer store(OBinarySerializer<T> serializer, T value, Object... hints) {
+    final byte[] serializedValue = serialize(serializer, value, hints);
+
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(serializedValue.length - KEY_OFFSET + BUFFER_OFFSET)
+        .order(ByteOrder.nativeOrder());
+    buffer.position(BUFFER_OFFSET);
+    buffer.put(serializedValue, KEY_OFFSET, serializedValue.length - KEY_OFFSET);
+    buffer.position(0);
+
+    return buffer;
+  }
+
+  private static <T> byte[] serialize(OBinarySerializer<T> serializer, T value, Object... hints) {
+    final byte[] serializedValue = new byte[serializer.getObjectSize(value, hints) + KEY_OFFSET];
+    serializer.serializeNativeObject(value, serializedValue, KEY_OFFSET, hints);
+
+    return serializedValue;
+  }
+}
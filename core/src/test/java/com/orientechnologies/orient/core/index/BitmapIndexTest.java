@@ -0,0 +1,145 @@
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.index.bitmap.ORidBitmap;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.OCommandSQL;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collection;
+import java.util.List;
+
+@Test
+public class BitmapIndexTest {
+  private ODatabaseDocumentTx database;
+
+  @BeforeMethod
+  public void before() {
+    database = new ODatabaseDocumentTx("memory:" + BitmapIndexTest.class.getSimpleName());
+    database.create();
+
+    final OClass item = database.getMetadata().getSchema().createClass("Item");
+    item.createProperty("status", OType.STRING);
+    item.createProperty("color", OType.STRING);
+    item.createProperty("num", OType.INTEGER);
+
+    final String[] statuses = { "A", "B", "C" };
+    for (int i = 0; i < 100; i++) {
+      final ODocument document = new ODocument("Item");
+      document.field("status", statuses[i % 3]);
+      document.field("color", i % 2 == 0 ? "red" : "blue");
+      document.field("num", i);
+      document.save();
+    }
+
+    database.command(new OCommandSQL("create index Item.status on Item (status) BITMAP")).execute();
+    database.command(new OCommandSQL("create index Item.color on Item (color) BITMAP")).execute();
+  }
+
+  @AfterMethod
+  public void after() {
+    database.drop();
+  }
+
+  public void testIndexContent() {
+    final OIndex<?> index = database.getMetadata().getIndexManager().getIndex("Item.status");
+    Assert.assertTrue(index.getInternal() instanceof OIndexBitmap);
+    Assert.assertEquals(index.getType(), OClass.INDEX_TYPE.BITMAP.name());
+    Assert.assertEquals(index.getKeySize(), 3);
+    Assert.assertEquals(index.getSize(), 100);
+
+    final ORidBitmap bitmap = ((OIndexBitmap) index.getInternal()).getBitmap("A");
+    Assert.assertEquals(bitmap.size(), 34);
+    for (OIdentifiable rid : bitmap)
+      Assert.assertEquals(rid.<ODocument>getRecord().field("status"), "A");
+  }
+
+  public void testEquality() {
+    assertQuery("select from Item where status = 'A'", 34);
+    assertQuery("select from Item where status = 'D'", 0);
+  }
+
+  public void testAnd() {
+    final List<ODocument> result = assertQuery("select from Item where status = 'A' and color = 'red'", 17);
+    for (ODocument document : result)
+      Assert.assertEquals(document.<Integer>field("num") % 6, 0);
+  }
+
+  public void testOr() {
+    assertQuery("select from Item where status = 'A' or color = 'red'", 67);
+  }
+
+  public void testAndNot() {
+    final List<ODocument> result = assertQuery("select from Item where status = 'A' and not (color = 'red')", 17);
+    for (ODocument document : result)
+      Assert.assertEquals(document.field("color"), "blue");
+  }
+
+  public void testIn() {
+    assertQuery("select from Item where status in ['A', 'B']", 67);
+  }
+
+  public void testParameters() {
+    final List<ODocument> result = database
+        .query(new OSQLSynchQuery<ODocument>("select from Item where status = ? and color = ?"), "B", "blue");
+    Assert.assertEquals(result.size(), 17);
+  }
+
+  public void testCount() {
+    final List<ODocument> result = database
+        .query(new OSQLSynchQuery<ODocument>("select count(*) from Item where status = 'B' and color = 'blue'"));
+    Assert.assertEquals(result.size(), 1);
+    Assert.assertEquals(((Number) result.get(0).field("count")).longValue(), 17);
+  }
+
+  public void testConditionWhichIsNotEvaluableByBitmaps() {
+    final List<ODocument> result = database
+        .query(new OSQLSynchQuery<ODocument>("select from Item where status = 'A' and num < 10"));
+    Assert.assertEquals(result.size(), 4);
+  }
+
+  public void testUpdateAndDelete() {
+    database.command(new OCommandSQL("update Item set status = 'C' where status = 'A'")).execute();
+    assertQuery("select from Item where status = 'A'", 0);
+    assertQuery("select from Item where status = 'C'", 67);
+
+    database.command(new OCommandSQL("delete from Item where color = 'red'")).execute();
+    assertQuery("select from Item where status = 'C' and color = 'blue'", 33);
+    assertQuery("select from Item where color = 'red'", 0);
+    Assert.assertEquals(database.getMetadata().getIndexManager().getIndex("Item.color").getSize(), 50);
+  }
+
+  public void testTransactionChangesAreVisible() {
+    database.begin();
+    try {
+      final ODocument document = new ODocument("Item");
+      document.field("status", "A");
+      document.field("color", "red");
+      document.save();
+
+      final List<ODocument> result = database
+          .query(new OSQLSynchQuery<ODocument>("select count(*) from Item where status = 'A' and color = 'red'"));
+      Assert.assertEquals(((Number) result.get(0).field("count")).longValue(), 18);
+    } finally {
+      database.rollback();
+    }
+  }
+
+  private List<ODocument> assertQuery(final String query, final int expectedSize) {
+    final List<ODocument> result = database.query(new OSQLSynchQuery<ODocument>(query));
+    Assert.assertEquals(result.size(), expectedSize);
+
+    final ODocument explain = database.command(new OCommandSQL("explain " + query)).execute();
+    Assert.assertTrue(explain.<Collection<String>>field("involvedIndexes").contains("Item.status")
+        || explain.<Collection<String>>field("involvedIndexes").contains("Item.color"));
+
+    return result;
+  }
+}
@@ -0,0 +1,176 @@
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.id.ORID;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.OCommandSQL;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+import com.orientechnologies.orient.core.storage.OStorage;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.List;
+
+@Test
+public class CoveringIndexTest {
+  private ODatabaseDocumentTx database;
+
+  @BeforeMethod
+  public void before() {
+    database = new ODatabaseDocumentTx("memory:" + CoveringIndexTest.class.getSimpleName());
+    database.create();
+
+    final OClass person = database.getMetadata().getSchema().createClass("Person");
+    person.createProperty("id", OType.INTEGER);
+    person.createProperty("name", OType.STRING);
+    person.createProperty("age", OType.INTEGER);
+
+    database.command(new OCommandSQL("create index Person.id on Person (id) UNIQUE INCLUDE (name)")).execute();
+
+    for (int i = 0; i < 100; i++) {
+      final ODocument document = new ODocument("Person");
+      document.field("id", i);
+      document.field("name", "name" + i);
+      document.field("age", i % 50);
+      document.save();
+    }
+  }
+
+  @AfterMethod
+  public void after() {
+    database.drop();
+  }
+
+  public void testIndexStoresCoveredFields() {
+    final OIndex<?> index = database.getMetadata().getIndexManager().getIndex("Person.id");
+    Assert.assertEquals(((OIndexOneValue) index.getInternal()).getCoveredFields().size(), 2);
+
+    final Object value = index.get(10);
+    Assert.assertTrue(value instanceof OIndexCoveringValue);
+
+    final ODocument covered = ((OIndexCoveringValue) value).toDocument();
+    Assert.assertEquals(covered.field("id"), 10);
+    Assert.assertEquals(covered.field("name"), "name10");
+    Assert.assertNull(covered.field("age"));
+    Assert.assertEquals(covered.getClassName(), "Person");
+  }
+
+  public void testProjectionIsServedByIndex() {
+    final List<ODocument> result = database.query(new OSQLSynchQuery<ODocument>("select id, name from Person where id = 10"));
+    Assert.assertEquals(result.size(), 1);
+    Assert.assertEquals(result.get(0).field("id"), 10);
+    Assert.assertEquals(result.get(0).field("name"), "name10");
+
+    final ODocument explain = database.command(new OCommandSQL("explain select id, name from Person where id = 10")).execute();
+    Assert.assertEquals(explain.field("indexOnly"), Boolean.TRUE);
+  }
+
+  public void testRangeProjectionIsServedByIndex() {
+    final List<ODocument> result = database
+        .query(new OSQLSynchQuery<ODocument>("select @rid, name from Person where id between 10 and 19"));
+    Assert.assertEquals(result.size(), 10);
+    for (ODocument document : result) {
+      Assert.assertNotNull(document.field("rid"));
+      Assert.assertTrue(document.<String>field("name").startsWith("name1"));
+    }
+
+    final ODocument explain = database
+        .command(new OCommandSQL("explain select @rid, name from Person where id between 10 and 19")).execute();
+    Assert.assertEquals(explain.field("indexOnly"), Boolean.TRUE);
+  }
+
+  public void testNotCoveredProjectionLoadsRecords() {
+    final List<ODocument> result = database.query(new OSQLSynchQuery<ODocument>("select id, age from Person where id = 60"));
+    Assert.assertEquals(result.size(), 1);
+    Assert.assertEquals(result.get(0).field("age"), 10);
+
+    final ODocument explain = database.command(new OCommandSQL("explain select id, age from Person where id = 60")).execute();
+    Assert.assertEquals(explain.field("indexOnly"), Boolean.FALSE);
+  }
+
+  public void testUpdateOfIncludedField() {
+    database.command(new OCommandSQL("update Person set name = 'updated' where id = 20")).execute();
+
+    final List<ODocument> result = database.query(new OSQLSynchQuery<ODocument>("select name from Person where id = 20"));
+    Assert.assertEquals(result.size(), 1);
+    Assert.assertEquals(result.get(0).field("name"), "updated");
+  }
+
+  public void testUpdateOfIncludedFieldInTx() {
+    database.begin();
+    database.command(new OCommandSQL("update Person set name = 'updated' where id = 30")).execute();
+    database.commit();
+
+    final List<ODocument> result = database.query(new OSQLSynchQuery<ODocument>("select name from Person where id = 30"));
+    Assert.assertEquals(result.size(), 1);
+    Assert.assertEquals(result.get(0).field("name"), "updated");
+  }
+
+  public void testCoveredFieldsAreReadAfterReopen() {
+    String buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null)
+      buildDirectory = ".";
+
+    final String url = "plocal:" + buildDirectory + File.separator + CoveringIndexTest.class.getSimpleName();
+    ODatabaseDocumentTx db = new ODatabaseDocumentTx(url);
+    if (db.exists()) {
+      db.open("admin", "admin");
+      db.drop();
+      db = new ODatabaseDocumentTx(url);
+    }
+    db.create();
+
+    try {
+      final OClass person = db.getMetadata().getSchema().createClass("Person");
+      person.createProperty("id", OType.INTEGER);
+      person.createProperty("name", OType.STRING);
+      person.createProperty("age", OType.INTEGER);
+      db.command(new OCommandSQL("create index Person.id on Person (id) UNIQUE INCLUDE (name)")).execute();
+
+      ORID rid = null;
+      for (int i = 0; i < 100; i++) {
+        final ODocument document = new ODocument("Person");
+        document.field("id", i);
+        document.field("name", "name" + i);
+        document.field("age", i % 50);
+        document.save();
+
+        if (i == 10)
+          rid = document.getIdentity();
+      }
+
+      final OStorage storage = db.getStorage();
+      db.close();
+      storage.close(true, false);
+
+      db = new ODatabaseDocumentTx(url);
+      db.open("admin", "admin");
+
+      final Object value = db.getMetadata().getIndexManager().getIndex("Person.id").get(10);
+      Assert.assertTrue(value instanceof OIndexCoveringValue);
+      Assert.assertEquals(((OIndexCoveringValue) value).toDocument().field("name"), "name10");
+
+      final List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>("select id, name from Person where id = 10"));
+      Assert.assertEquals(result.size(), 1);
+      Assert.assertEquals(result.get(0).field("id"), 10);
+      Assert.assertEquals(result.get(0).field("name"), "name10");
+
+      // RESULT IS BUILT FROM THE INDEX, SO THE RECORD IS NEVER LOADED
+      Assert.assertNull(db.getLocalCache().findRecord(rid));
+    } finally {
+      db.activateOnCurrentThread();
+      db.drop();
+      database.activateOnCurrentThread();
+    }
+  }
+
+  @Test(expectedExceptions = OIndexException.class)
+  public void testIncludeIsNotSupportedByHashIndex() {
+    database.command(new OCommandSQL("create index Person.age on Person (age) UNIQUE_HASH_INDEX INCLUDE (name)")).execute();
+  }
+}
@@ -0,0 +1,106 @@
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.OCommandSQL;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Collection;
+import java.util.List;
+
+@Test
+public class ExpressionIndexTest {
+  private ODatabaseDocumentTx database;
+
+  @BeforeMethod
+  public void before() throws Exception {
+    database = new ODatabaseDocumentTx("memory:" + ExpressionIndexTest.class.getSimpleName());
+    database.create();
+
+    final OClass person = database.getMetadata().getSchema().createClass("Person");
+    person.createProperty("name", OType.STRING);
+    person.createProperty("birthDate", OType.DATETIME);
+
+    final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
+    final String[] names = { "John", "JOHN", "Mary", "Bob" };
+    for (int i = 0; i < names.length; i++) {
+      final ODocument document = new ODocument("Person");
+      document.field("name", names[i]);
+      document.field("birthDate", dateFormat.parse("1980-0" + (i % 2 + 1) + "-15"));
+      document.save();
+    }
+
+    database.command(new OCommandSQL("create index Person.nameLower on Person (name.toLowerCase()) NOTUNIQUE")).execute();
+    database.command(new OCommandSQL("create index Person.birthMonth on Person (birthDate.format('yyyy-MM')) NOTUNIQUE"))
+        .execute();
+  }
+
+  @AfterMethod
+  public void after() {
+    database.drop();
+  }
+
+  public void testIndexDefinition() {
+    final OIndex<?> index = database.getMetadata().getIndexManager().getIndex("Person.nameLower");
+    Assert.assertTrue(index.getDefinition() instanceof OExpressionIndexDefinition);
+    Assert.assertEquals(index.getDefinition().getTypes(), new OType[] { OType.STRING });
+    Assert.assertEquals(((OExpressionIndexDefinition) index.getDefinition()).getField(), "name");
+    Assert.assertEquals(index.getKeySize(), 3);
+  }
+
+  public void testQueryWithSameExpressionUsesIndex() {
+    final List<ODocument> result = database
+        .query(new OSQLSynchQuery<ODocument>("select from Person where name.toLowerCase() = 'john'"));
+    Assert.assertEquals(result.size(), 2);
+
+    final ODocument explain = database
+        .command(new OCommandSQL("explain select from Person where name.toLowerCase() = 'john'")).execute();
+    Assert.assertTrue(explain.<Collection<String>>field("involvedIndexes").contains("Person.nameLower"));
+  }
+
+  public void testQueryWithMethodArgumentsUsesIndex() {
+    final List<ODocument> result = database
+        .query(new OSQLSynchQuery<ODocument>("select from Person where birthDate.format('yyyy-MM') = '1980-02'"));
+    Assert.assertEquals(result.size(), 2);
+
+    final ODocument explain = database
+        .command(new OCommandSQL("explain select from Person where birthDate.format('yyyy-MM') = '1980-02'")).execute();
+    Assert.assertTrue(explain.<Collection<String>>field("involvedIndexes").contains("Person.birthMonth"));
+  }
+
+  public void testQueryOnPropertyDoesNotUseExpressionIndex() {
+    final List<ODocument> result = database.query(new OSQLSynchQuery<ODocument>("select from Person where name = 'john'"));
+    Assert.assertTrue(result.isEmpty());
+
+    final ODocument explain = database.command(new OCommandSQL("explain select from Person where name = 'john'")).execute();
+    Assert.assertNull(explain.field("involvedIndexes"));
+  }
+
+  public void testUpdateAndDelete() {
+    database.command(new OCommandSQL("update Person set name = 'Alice' where name = 'JOHN'")).execute();
+
+    Assert.assertEquals(
+        database.query(new OSQLSynchQuery<ODocument>("select from Person where name.toLowerCase() = 'john'")).size(), 1);
+    Assert.assertEquals(
+        database.query(new OSQLSynchQuery<ODocument>("select from Person where name.toLowerCase() = 'alice'")).size(), 1);
+
+    database.command(new OCommandSQL("delete from Person where name = 'Alice'")).execute();
+
+    Assert.assertTrue(
+        database.query(new OSQLSynchQuery<ODocument>("select from Person where name.toLowerCase() = 'alice'")).isEmpty());
+    Assert.assertEquals(database.getMetadata().getIndexManager().getIndex("Person.nameLower").getSize(), 3);
+  }
+
+  @Test(expectedExceptions = OIndexException.class)
+  public void testExpressionIsNotSupportedByCompositeIndex() {
+    database.command(new OCommandSQL("create index Person.nameDate on Person (name.toLowerCase(), birthDate) NOTUNIQUE"))
+        .execute();
+  }
+}
@@ -0,0 +1,159 @@
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.storage.ORecordDuplicatedException;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@Test
+public class IndexBulkLoadTest {
+  private static final int DOCUMENTS_COUNT = 20000;
+
+  private ODatabaseDocumentTx db;
+  private OClass              personClass;
+
+  private Object bulkLoadEnabled;
+  private Object runSize;
+
+  @BeforeMethod
+  public void before() {
+    bulkLoadEnabled = OGlobalConfiguration.INDEX_BULK_LOAD_ENABLED.getValue();
+    runSize = OGlobalConfiguration.INDEX_BULK_LOAD_RUN_SIZE.getValue();
+
+    OGlobalConfiguration.INDEX_BULK_LOAD_ENABLED.setValue(true);
+    // small runs force spill of sorted entries to the disk
+    OGlobalConfiguration.INDEX_BULK_LOAD_RUN_SIZE.setValue(1000);
+
+    db = new ODatabaseDocumentTx("memory:" + IndexBulkLoadTest.class.getSimpleName());
+    db.create();
+
+    personClass = db.getMetadata().getSchema().createClass("Person", 4);
+    personClass.createProperty("name", OType.STRING);
+    personClass.createProperty("nameCopy", OType.STRING);
+    personClass.createProperty("age", OType.INTEGER);
+    personClass.createProperty("ageCopy", OType.INTEGER);
+    personClass.createProperty("tags", OType.EMBEDDEDLIST, OType.STRING);
+    personClass.createProperty("tagsCopy", OType.EMBEDDEDLIST, OType.STRING);
+
+    for (int i = 0; i < DOCUMENTS_COUNT; i++) {
+      final ODocument document = new ODocument("Person");
+      final String name = "Person-" + Integer.toHexString(i * 0x9E3779B1);
+      final List<String> tags = Arrays.asList("tag-" + (i % 7), "tag-" + (i % 13));
+
+      document.field("name", name);
+      document.field("nameCopy", name);
+
+      if (i % 10 != 0) {
+        document.field("age", i % 100);
+        document.field("ageCopy", i % 100);
+      }
+
+      document.field("tags", tags);
+      document.field("tagsCopy", tags);
+
+      document.save();
+    }
+  }
+
+  @AfterMethod
+  public void after() {
+    db.drop();
+
+    OGlobalConfiguration.INDEX_BULK_LOAD_ENABLED.setValue(bulkLoadEnabled);
+    OGlobalConfiguration.INDEX_BULK_LOAD_RUN_SIZE.setValue(runSize);
+  }
+
+  public void testUniqueIndex() {
+    final OIndex<?> index = personClass.createIndex("Person.name", OClass.INDEX_TYPE.UNIQUE, "name");
+    Assert.assertEquals(index.getSize(), DOCUMENTS_COUNT);
+    Assert.assertEquals(entries(index), entries(createNotBulkLoadedIndex("Person.nameCopy", OClass.INDEX_TYPE.UNIQUE, "nameCopy")));
+
+    final ODocument document = new ODocument("Person");
+    document.field("name", "Person-" + Integer.toHexString(42 * 0x9E3779B1));
+    try {
+      document.save();
+      Assert.fail("Expected record duplicate exception");
+    } catch (ORecordDuplicatedException e) {
+    }
+
+    document.field("name", "Person-new");
+    document.save();
+
+    Assert.assertEquals(index.get("Person-new"), document.getIdentity());
+    Assert.assertEquals(index.getSize(), DOCUMENTS_COUNT + 1);
+  }
+
+  public void testNotUniqueIndexWithNullValues() {
+    final OIndex<?> index = personClass.createIndex("Person.age", OClass.INDEX_TYPE.NOTUNIQUE.toString(), null,
+        new ODocument().field("ignoreNullValues", false), new String[] { "age" });
+
+    Assert.assertEquals(index.getSize(), DOCUMENTS_COUNT);
+
+    OGlobalConfiguration.INDEX_BULK_LOAD_ENABLED.setValue(false);
+    Assert.assertEquals(entries(index), entries(
+        personClass.createIndex("Person.ageCopy", OClass.INDEX_TYPE.NOTUNIQUE.toString(), null,
+            new ODocument().field("ignoreNullValues", false), new String[] { "ageCopy" })));
+  }
+
+  public void testCollectionIndex() {
+    final OIndex<?> index = personClass.createIndex("Person.tags", OClass.INDEX_TYPE.NOTUNIQUE, "tags");
+    Assert.assertEquals(entries(index), entries(createNotBulkLoadedIndex("Person.tagsCopy", OClass.INDEX_TYPE.NOTUNIQUE, "tagsCopy")));
+  }
+
+  public void testCompositeIndex() {
+    final OIndex<?> index = personClass.createIndex("Person.ageName", OClass.INDEX_TYPE.UNIQUE, "age", "name");
+    Assert.assertEquals(entries(index),
+        entries(createNotBulkLoadedIndex("Person.ageNameCopy", OClass.INDEX_TYPE.UNIQUE, "ageCopy", "nameCopy")));
+  }
+
+  public void testRebuild() {
+    final OIndex<?> index = personClass.createIndex("Person.name", OClass.INDEX_TYPE.NOTUNIQUE, "name");
+    final List<String> entries = entries(index);
+
+    Assert.assertEquals(index.rebuild(), DOCUMENTS_COUNT);
+    Assert.assertEquals(entries(index), entries);
+  }
+
+  @Test(expectedExceptions = ORecordDuplicatedException.class)
+  public void testDuplicatedKeysInUniqueIndex() {
+    personClass.createIndex("Person.age", OClass.INDEX_TYPE.UNIQUE, "age");
+  }
+
+  private OIndex<?> createNotBulkLoadedIndex(String name, OClass.INDEX_TYPE type, String... fields) {
+    OGlobalConfiguration.INDEX_BULK_LOAD_ENABLED.setValue(false);
+    return personClass.createIndex(name, type, fields);
+  }
+
+  private static List<String> entries(OIndex<?> index) {
+    final List<String> entries = new ArrayList<String>();
+
+    final OIndexCursor cursor = index.cursor();
+    Map.Entry<Object, OIdentifiable> entry;
+    while ((entry = cursor.nextEntry()) != null)
+      entries.add(entry.getKey() + " -> " + entry.getValue().getIdentity());
+
+    final Object nullValue = index.get(null);
+    if (nullValue instanceof OIdentifiable)
+      entries.add("null -> " + ((OIdentifiable) nullValue).getIdentity());
+    else if (nullValue != null) {
+      for (OIdentifiable value : (Iterable<OIdentifiable>) nullValue)
+        entries.add("null -> " + value.getIdentity());
+    }
+
+    Collections.sort(entries);
+    return entries;
+  }
+}
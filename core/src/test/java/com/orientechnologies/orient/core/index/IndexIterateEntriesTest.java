@@ -0,0 +1,149 @@
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Test
+public class IndexIterateEntriesTest {
+  private static final int DOCUMENTS_COUNT = 5000;
+
+  private ODatabaseDocumentTx db;
+
+  @BeforeClass
+  public void beforeClass() {
+    db = new ODatabaseDocumentTx("memory:" + IndexIterateEntriesTest.class.getSimpleName());
+    db.create();
+
+    final OClass itemClass = db.getMetadata().getSchema().createClass("Item");
+    itemClass.createProperty("code", OType.INTEGER).createIndex(OClass.INDEX_TYPE.UNIQUE);
+    itemClass.createProperty("hashCode", OType.INTEGER).createIndex(OClass.INDEX_TYPE.UNIQUE_HASH_INDEX);
+    itemClass.createProperty("group", OType.INTEGER).createIndex(OClass.INDEX_TYPE.NOTUNIQUE);
+    itemClass.createProperty("name", OType.STRING).setCollate("ci").createIndex(OClass.INDEX_TYPE.UNIQUE);
+
+    for (int i = 0; i < DOCUMENTS_COUNT; i++) {
+      final ODocument document = new ODocument("Item");
+      document.field("code", i);
+      document.field("hashCode", i);
+      document.field("group", i % 100);
+      document.field("name", "Item-" + i);
+      document.save();
+    }
+  }
+
+  @AfterClass
+  public void afterClass() {
+    db.drop();
+  }
+
+  public void testUniqueIndex() {
+    assertIterateEntries("Item.code", Arrays.<Object>asList(17, 4000, -1, 3, 17, DOCUMENTS_COUNT), 4000, 17, 17, 3);
+  }
+
+  public void testHashIndex() {
+    assertIterateEntries("Item.hashCode", Arrays.<Object>asList(17, 4000, -1, 3, DOCUMENTS_COUNT), 4000, 17, 3);
+  }
+
+  public void testCollatedKeys() {
+    final OIndex<?> index = db.getMetadata().getIndexManager().getIndex("Item.name");
+    final OIndexCursor cursor = index.iterateEntries(Arrays.asList("ITEM-10", "item-11", "Item-12", "absent"), true);
+
+    final List<Object> keys = new ArrayList<Object>();
+    Map.Entry<Object, OIdentifiable> entry;
+    while ((entry = cursor.nextEntry()) != null) {
+      keys.add(entry.getKey());
+      Assert.assertEquals(((ODocument) entry.getValue().getRecord()).field("name"), "Item-" + (keys.size() + 9));
+    }
+
+    Assert.assertEquals(keys, Arrays.asList("item-10", "item-11", "item-12"));
+  }
+
+  public void testNotUniqueIndex() {
+    final OIndex<?> index = db.getMetadata().getIndexManager().getIndex("Item.group");
+    final OIndexCursor cursor = index.iterateEntries(Arrays.asList(7, 200, 3), true);
+
+    final Set<OIdentifiable> values = new HashSet<OIdentifiable>();
+    Object lastKey = null;
+    Map.Entry<Object, OIdentifiable> entry;
+    while ((entry = cursor.nextEntry()) != null) {
+      if (lastKey != null)
+        Assert.assertTrue((Integer) lastKey <= (Integer) entry.getKey());
+
+      lastKey = entry.getKey();
+      final int code = (Integer) ((ODocument) entry.getValue().getRecord()).field("code");
+      Assert.assertEquals(code % 100, ((Integer) entry.getKey()).intValue());
+      values.add(entry.getValue());
+    }
+
+    Assert.assertEquals(values.size(), 2 * DOCUMENTS_COUNT / 100);
+  }
+
+  public void testInOperator() {
+    final List<Integer> codes = new ArrayList<Integer>();
+    for (int i = -100; i < DOCUMENTS_COUNT + 100; i += 7)
+      codes.add(i);
+
+    for (String field : new String[] { "code", "hashCode" }) {
+      final List<ODocument> result = db
+          .query(new OSQLSynchQuery<ODocument>("select from Item where " + field + " in ?"), codes);
+
+      final Set<Integer> found = new HashSet<Integer>();
+      for (ODocument document : result)
+        found.add(document.<Integer>field("code"));
+
+      final Set<Integer> expected = new HashSet<Integer>();
+      for (Integer code : codes) {
+        if (code >= 0 && code < DOCUMENTS_COUNT)
+          expected.add(code);
+      }
+
+      Assert.assertEquals(found, expected);
+    }
+  }
+
+  public void testTxChanges() {
+    db.begin();
+    try {
+      final ODocument document = new ODocument("Item");
+      document.field("code", DOCUMENTS_COUNT + 1);
+      document.save();
+
+      final OIndex<?> index = db.getMetadata().getIndexManager().getIndex("Item.code");
+      final OIndexCursor cursor = index.iterateEntries(Arrays.asList(DOCUMENTS_COUNT + 1, 1), true);
+
+      Assert.assertEquals(cursor.nextEntry().getKey(), 1);
+      Assert.assertEquals(cursor.nextEntry().getValue(), document.getIdentity());
+      Assert.assertNull(cursor.nextEntry());
+    } finally {
+      db.rollback();
+    }
+  }
+
+  private void assertIterateEntries(String indexName, List<Object> keys, Object... expectedDescendingKeys) {
+    final OIndex<?> index = db.getMetadata().getIndexManager().getIndex(indexName);
+    final OIndexCursor cursor = index.iterateEntries(keys, false);
+
+    final List<Object> foundKeys = new ArrayList<Object>();
+    Map.Entry<Object, OIdentifiable> entry;
+    while ((entry = cursor.nextEntry()) != null) {
+      foundKeys.add(entry.getKey());
+      Assert.assertEquals(entry.getValue(), index.get(entry.getKey()));
+    }
+
+    Assert.assertEquals(foundKeys, Arrays.asList(expectedDescendingKeys));
+  }
+}
@@ -0,0 +1,118 @@
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.OCommandSQL;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+import com.orientechnologies.orient.core.storage.ORecordDuplicatedException;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collection;
+import java.util.List;
+
+@Test
+public class PartialIndexTest {
+  private ODatabaseDocumentTx database;
+
+  @BeforeMethod
+  public void before() {
+    database = new ODatabaseDocumentTx("memory:" + PartialIndexTest.class.getSimpleName());
+    database.create();
+
+    final OClass account = database.getMetadata().getSchema().createClass("Account");
+    account.createProperty("email", OType.STRING);
+    account.createProperty("status", OType.STRING);
+
+    for (int i = 0; i < 100; i++) {
+      final ODocument document = new ODocument("Account");
+      document.field("email", "user" + (i % 50) + "@test.com");
+      document.field("status", i < 50 ? "ACTIVE" : "DELETED");
+      document.save();
+    }
+
+    database.command(new OCommandSQL("create index Account.email on Account (email) UNIQUE WHERE status = 'ACTIVE'")).execute();
+  }
+
+  @AfterMethod
+  public void after() {
+    database.drop();
+  }
+
+  public void testOnlyMatchingRecordsAreIndexed() {
+    final OIndex<?> index = database.getMetadata().getIndexManager().getIndex("Account.email");
+    Assert.assertEquals(index.getSize(), 50);
+    Assert.assertNotNull(OIndexPredicate.getPredicate(index));
+
+    final ODocument deleted = new ODocument("Account");
+    deleted.field("email", "user1@test.com");
+    deleted.field("status", "DELETED");
+    deleted.save();
+
+    Assert.assertEquals(index.getSize(), 50);
+  }
+
+  @Test(expectedExceptions = ORecordDuplicatedException.class)
+  public void testUniquenessOfMatchingRecords() {
+    final ODocument active = new ODocument("Account");
+    active.field("email", "user1@test.com");
+    active.field("status", "ACTIVE");
+    active.save();
+  }
+
+  public void testUpdateInAndOutOfPredicate() {
+    final OIndex<?> index = database.getMetadata().getIndexManager().getIndex("Account.email");
+
+    database.command(new OCommandSQL(
+        "update Account set email = 'new@test.com', status = 'ACTIVE' where email = 'user10@test.com' and status = 'DELETED'"))
+        .execute();
+    Assert.assertEquals(index.getSize(), 51);
+
+    database.command(new OCommandSQL("update Account set status = 'DELETED' where email = 'user10@test.com' and status = 'ACTIVE'"))
+        .execute();
+
+    Assert.assertEquals(index.getSize(), 50);
+    Assert.assertNull(index.get("user10@test.com"));
+    Assert.assertNotNull(index.get("new@test.com"));
+
+    database.command(new OCommandSQL("update Account set email = 'user11@test.com' where email = 'user12@test.com' and status = 'DELETED'"))
+        .execute();
+    Assert.assertNotNull(index.get("user12@test.com"));
+    Assert.assertEquals(index.getSize(), 50);
+  }
+
+  public void testDeleteOfNotMatchingRecordKeepsKey() {
+    final OIndex<?> index = database.getMetadata().getIndexManager().getIndex("Account.email");
+
+    database.command(new OCommandSQL("delete from Account where email = 'user20@test.com' and status = 'DELETED'")).execute();
+    Assert.assertNotNull(index.get("user20@test.com"));
+
+    database.command(new OCommandSQL("delete from Account where email = 'user20@test.com' and status = 'ACTIVE'")).execute();
+    Assert.assertNull(index.get("user20@test.com"));
+    Assert.assertEquals(index.getSize(), 49);
+  }
+
+  public void testQueryWhichImpliesPredicateUsesIndex() {
+    final List<ODocument> result = database
+        .query(new OSQLSynchQuery<ODocument>("select from Account where email = 'user30@test.com' and status = 'ACTIVE'"));
+    Assert.assertEquals(result.size(), 1);
+
+    final ODocument explain = database
+        .command(new OCommandSQL("explain select from Account where email = 'user30@test.com' and status = 'ACTIVE'")).execute();
+    Assert.assertTrue(explain.<Collection<String>>field("involvedIndexes").contains("Account.email"));
+  }
+
+  public void testQueryWhichDoesNotImplyPredicateDoesNotUseIndex() {
+    final List<ODocument> result = database
+        .query(new OSQLSynchQuery<ODocument>("select from Account where email = 'user30@test.com'"));
+    Assert.assertEquals(result.size(), 2);
+
+    final ODocument explain = database
+        .command(new OCommandSQL("explain select from Account where email = 'user30@test.com'")).execute();
+    Assert.assertNull(explain.field("involvedIndexes"));
+  }
+}
@@ -0,0 +1,104 @@
+package com.orientechnologies.orient.core.index.bitmap;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.TreeSet;
+
+@Test
+public class OCompressedBitmapTest {
+
+  public void testAddRemoveAcrossContainers() {
+    final OCompressedBitmap bitmap = new OCompressedBitmap();
+    final TreeSet<Long> expected = new TreeSet<Long>();
+
+    // DENSE CHUNK SWITCHES TO BITMAP CONTAINER, OTHER CHUNKS STAY SPARSE
+    for (long i = 0; i < 10000; i++)
+      add(bitmap, expected, i);
+    for (long i = 0; i < 100; i++)
+      add(bitmap, expected, (1L << 20) + i * 7);
+    add(bitmap, expected, Long.MAX_VALUE >>> 1);
+
+    assertContent(bitmap, expected);
+    Assert.assertTrue(bitmap.contains(9999));
+    Assert.assertFalse(bitmap.contains(10000));
+
+    // DENSE CHUNK SWITCHES BACK TO ARRAY CONTAINER
+    for (long i = 100; i < 10000; i++) {
+      Assert.assertTrue(bitmap.remove(i));
+      expected.remove(i);
+    }
+    Assert.assertFalse(bitmap.remove(100));
+
+    assertContent(bitmap, expected);
+  }
+
+  public void testSetOperations() {
+    final Random random = new Random(42);
+
+    final OCompressedBitmap first = new OCompressedBitmap();
+    final OCompressedBitmap second = new OCompressedBitmap();
+    final TreeSet<Long> firstExpected = new TreeSet<Long>();
+    final TreeSet<Long> secondExpected = new TreeSet<Long>();
+
+    for (int i = 0; i < 20000; i++) {
+      add(first, firstExpected, random.nextInt(200000));
+      add(second, secondExpected, random.nextInt(100000) + 50000);
+    }
+    for (long i = 0; i < 5000; i++)
+      add(second, secondExpected, i);
+
+    final TreeSet<Long> and = new TreeSet<Long>(firstExpected);
+    and.retainAll(secondExpected);
+    assertContent(first.and(second), and);
+    assertContent(second.and(first), and);
+
+    final TreeSet<Long> or = new TreeSet<Long>(firstExpected);
+    or.addAll(secondExpected);
+    assertContent(first.or(second), or);
+    assertContent(second.or(first), or);
+
+    final TreeSet<Long> andNot = new TreeSet<Long>(firstExpected);
+    andNot.removeAll(secondExpected);
+    assertContent(first.andNot(second), andNot);
+
+    final TreeSet<Long> reverseAndNot = new TreeSet<Long>(secondExpected);
+    reverseAndNot.removeAll(firstExpected);
+    assertContent(second.andNot(first), reverseAndNot);
+
+    // OPERANDS ARE NOT MODIFIED
+    assertContent(first, firstExpected);
+    assertContent(second, secondExpected);
+  }
+
+  public void testSerialization() {
+    final OCompressedBitmap bitmap = new OCompressedBitmap();
+    for (long i = 0; i < 7000; i++)
+      bitmap.add(i * 3);
+
+    final ByteBuffer buffer = ByteBuffer.allocate(bitmap.getSerializedSize());
+    bitmap.serialize(buffer);
+    Assert.assertEquals(buffer.remaining(), 0);
+
+    buffer.flip();
+    Assert.assertEquals(OCompressedBitmap.deserialize(buffer), bitmap);
+  }
+
+  private static void add(final OCompressedBitmap bitmap, final TreeSet<Long> expected, final long value) {
+    bitmap.add(value);
+    expected.add(value);
+  }
+
+  private static void assertContent(final OCompressedBitmap bitmap, final TreeSet<Long> expected) {
+    Assert.assertEquals(bitmap.cardinality(), expected.size());
+
+    final OCompressedBitmap.ValueIterator iterator = bitmap.iterator();
+    for (long value : expected) {
+      Assert.assertTrue(iterator.hasNext());
+      Assert.assertEquals(iterator.next(), value);
+    }
+    Assert.assertFalse(iterator.hasNext());
+  }
+}
@@ -0,0 +1,209 @@
+package com.orientechnologies.orient.core.index.hashindex.local;
+
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.serialization.serializer.binary.OBinarySerializerFactory;
+import com.orientechnologies.orient.core.sql.OCommandSQL;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Test
+public class OConcurrentHashTableTest {
+  private static final int KEYS_COUNT = 100000;
+
+  private ODatabaseDocumentTx                   databaseDocumentTx;
+  private OConcurrentHashTable<Integer, String> hashTable;
+
+  @BeforeClass
+  public void beforeClass() {
+    String buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null)
+      buildDirectory = ".";
+
+    databaseDocumentTx = new ODatabaseDocumentTx("plocal:" + buildDirectory + "/concurrentHashTableTest");
+    if (databaseDocumentTx.exists()) {
+      databaseDocumentTx.open("admin", "admin");
+      databaseDocumentTx.drop();
+    }
+
+    databaseDocumentTx.create();
+
+    final OMurmurHash3HashFunction<Integer> murmurHash3HashFunction = new OMurmurHash3HashFunction<Integer>();
+    murmurHash3HashFunction.setValueSerializer(OIntegerSerializer.INSTANCE);
+
+    hashTable = new OConcurrentHashTable<Integer, String>("concurrentHashTableTest", ".chm", ".cht", ".chb", ".chn",
+        murmurHash3HashFunction, false, (OAbstractPaginatedStorage) databaseDocumentTx.getStorage());
+    hashTable.setPartitionsCount(4);
+    hashTable.create(OIntegerSerializer.INSTANCE, OBinarySerializerFactory.getInstance().<String>getObjectSerializer(OType.STRING),
+        null, true);
+  }
+
+  @AfterClass
+  public void afterClass() throws Exception {
+    hashTable.delete();
+    databaseDocumentTx.drop();
+  }
+
+  @AfterMethod
+  public void afterMethod() {
+    hashTable.clear();
+  }
+
+  public void testKeyPutRemove() {
+    for (int i = 0; i < KEYS_COUNT; i++)
+      hashTable.put(i, i + "");
+
+    Assert.assertEquals(hashTable.size(), KEYS_COUNT);
+
+    for (int i = 0; i < KEYS_COUNT; i++)
+      Assert.assertEquals(hashTable.get(i), i + "", i + " key is absent");
+
+    for (int i = 0; i < KEYS_COUNT; i += 2)
+      Assert.assertEquals(hashTable.remove(i), i + "");
+
+    for (int i = 0; i < KEYS_COUNT; i++) {
+      if (i % 2 == 0)
+        Assert.assertNull(hashTable.get(i));
+      else
+        Assert.assertEquals(hashTable.get(i), i + "");
+    }
+
+    Assert.assertEquals(hashTable.size(), KEYS_COUNT / 2);
+  }
+
+  public void testNullKey() {
+    hashTable.put(1, "1");
+    hashTable.put(null, "null");
+
+    Assert.assertEquals(hashTable.get(null), "null");
+    Assert.assertEquals(hashTable.size(), 2);
+
+    Assert.assertEquals(hashTable.remove(null), "null");
+    Assert.assertNull(hashTable.get(null));
+  }
+
+  public void testIterationVisitsEachEntryOnce() {
+    for (int i = 0; i < KEYS_COUNT; i++)
+      hashTable.put(i, i + "");
+
+    final Set<Integer> ascKeys = new HashSet<Integer>();
+    OHashIndexBucket.Entry<Integer, String>[] entries = hashTable.ceilingEntries(hashTable.firstEntry().key);
+    while (entries.length > 0) {
+      for (OHashIndexBucket.Entry<Integer, String> entry : entries)
+        Assert.assertTrue(ascKeys.add(entry.key));
+
+      entries = hashTable.higherEntries(entries[entries.length - 1].key);
+    }
+
+    Assert.assertEquals(ascKeys.size(), KEYS_COUNT);
+
+    final Set<Integer> descKeys = new HashSet<Integer>();
+    entries = hashTable.floorEntries(hashTable.lastEntry().key);
+    while (entries.length > 0) {
+      for (OHashIndexBucket.Entry<Integer, String> entry : entries)
+        Assert.assertTrue(descKeys.add(entry.key));
+
+      entries = hashTable.lowerEntries(entries[0].key);
+    }
+
+    Assert.assertEquals(descKeys, ascKeys);
+  }
+
+  public void testConcurrentReadsAndWrites() throws Exception {
+    final int writersCount = 4;
+    final int keysPerWriter = KEYS_COUNT / writersCount;
+
+    final ExecutorService executor = Executors.newFixedThreadPool(writersCount * 2);
+    final AtomicBoolean writersFinished = new AtomicBoolean();
+    try {
+      final List<Future<Void>> writers = new ArrayList<Future<Void>>();
+      for (int n = 0; n < writersCount; n++) {
+        final int writer = n;
+        writers.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            databaseDocumentTx.activateOnCurrentThread();
+            for (int i = writer; i < KEYS_COUNT; i += writersCount)
+              hashTable.put(i, i + "");
+
+            return null;
+          }
+        }));
+      }
+
+      final List<Future<Void>> readers = new ArrayList<Future<Void>>();
+      for (int n = 0; n < writersCount; n++) {
+        readers.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            databaseDocumentTx.activateOnCurrentThread();
+            while (!writersFinished.get()) {
+              for (int i = 0; i < KEYS_COUNT; i += 97) {
+                final String value = hashTable.get(i);
+                if (value != null)
+                  Assert.assertEquals(value, i + "");
+              }
+            }
+
+            return null;
+          }
+        }));
+      }
+
+      for (Future<Void> writer : writers)
+        writer.get();
+
+      writersFinished.set(true);
+
+      for (Future<Void> reader : readers)
+        reader.get();
+    } finally {
+      writersFinished.set(true);
+      executor.shutdown();
+    }
+
+    Assert.assertEquals(hashTable.size(), keysPerWriter * writersCount);
+    for (int i = 0; i < KEYS_COUNT; i++)
+      Assert.assertEquals(hashTable.get(i), i + "");
+  }
+
+  public void testIndexEngine() {
+    databaseDocumentTx.command(new OCommandSQL("create class ConcurrentHashIndexTest")).execute();
+    databaseDocumentTx.command(new OCommandSQL("create property ConcurrentHashIndexTest.id integer")).execute();
+    databaseDocumentTx.command(new OCommandSQL(
+        "create index ConcurrentHashIndexTest.id on ConcurrentHashIndexTest (id) UNIQUE_HASH_INDEX ENGINE CONCURRENT_HASH_INDEX"))
+        .execute();
+
+    for (int i = 0; i < 1000; i++) {
+      final ODocument document = new ODocument("ConcurrentHashIndexTest");
+      document.field("id", i);
+      document.save();
+    }
+
+    final OIndex<?> index = databaseDocumentTx.getMetadata().getIndexManager().getIndex("ConcurrentHashIndexTest.id");
+    Assert.assertEquals(index.getAlgorithm(), OHashIndexFactory.CONCURRENT_HASH_INDEX_ALGORITHM);
+    Assert.assertEquals(index.getSize(), 1000);
+
+    for (int i = 0; i < 1000; i++)
+      Assert.assertNotNull(index.get(i));
+
+    Assert.assertNull(index.get(1000));
+  }
+}
@@ -0,0 +1,165 @@
+package com.orientechnologies.orient.core.index.hashindex.local.cache;
+
+import com.orientechnologies.common.collection.closabledictionary.OClosableLinkedContainer;
+import com.orientechnologies.common.directmemory.OByteBufferPool;
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.common.serialization.types.OLongSerializer;
+import com.orientechnologies.common.types.OModifiableBoolean;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.storage.cache.OCachePointer;
+import com.orientechnologies.orient.core.storage.cache.local.OWOWCache;
+import com.orientechnologies.orient.core.storage.fs.OFileClassic;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+@Test
+public class WOWCacheParallelFlushTest {
+  private static final int FLUSH_THREADS = 4;
+  private static final int FILES_COUNT   = 4;
+  private static final int PAGES_COUNT   = 200;
+
+  private int systemOffset = 2 * (OIntegerSerializer.INT_SIZE + OLongSerializer.LONG_SIZE);
+  private int pageSize     = systemOffset + 8;
+
+  private OLocalPaginatedStorage storageLocal;
+
+  private OWOWCache wowCache;
+  private OClosableLinkedContainer<Long, OFileClassic> files = new OClosableLinkedContainer<Long, OFileClassic>(1024);
+
+  @BeforeClass
+  public void beforeClass() throws IOException {
+    OGlobalConfiguration.FILE_LOCK.setValue(Boolean.FALSE);
+    String buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null)
+      buildDirectory = ".";
+
+    storageLocal = (OLocalPaginatedStorage) Orient.instance().loadStorage("plocal:" + buildDirectory + "/WOWCacheParallelFlushTest");
+    storageLocal.create(null);
+    storageLocal.close(true, false);
+  }
+
+  @AfterClass
+  public void afterClass() throws IOException {
+    storageLocal.delete();
+  }
+
+  @BeforeMethod
+  public void beforeMethod() throws IOException {
+    wowCache = new OWOWCache(false, pageSize, new OByteBufferPool(pageSize), 0, null, 10, 10000 * pageSize, 10000 * pageSize,
+        storageLocal, false, files, 1, FLUSH_THREADS);
+    wowCache.loadRegisteredFiles();
+  }
+
+  @AfterMethod
+  public void afterMethod() throws IOException {
+    wowCache.delete();
+    files.clear();
+  }
+
+  public void testFlushSplitsFilesBetweenWorkers() throws IOException {
+    final long[] fileIds = new long[FILES_COUNT];
+    final byte[][][] pageData = new byte[FILES_COUNT][][];
+
+    for (int n = 0; n < FILES_COUNT; n++) {
+      fileIds[n] = wowCache.addFile("wowCacheParallelFlushTest" + n + ".tst");
+      pageData[n] = storePages(fileIds[n]);
+    }
+
+    Assert.assertEquals(wowCache.getFlushWorkersCount(), FLUSH_THREADS);
+
+    wowCache.flush();
+
+    Assert.assertEquals(wowCache.getWriteCacheSize(), 0);
+
+    long flushedPages = 0;
+    for (long workerPages : wowCache.getFlushWorkersFlushedPages()) {
+      Assert.assertTrue(workerPages > 0);
+      flushedPages += workerPages;
+    }
+    Assert.assertEquals(flushedPages, FILES_COUNT * PAGES_COUNT);
+
+    for (int queueDepth : wowCache.getFlushWorkersQueueDepth())
+      Assert.assertEquals(queueDepth, 0);
+
+    for (int n = 0; n < FILES_COUNT; n++)
+      assertFile(fileIds[n], pageData[n]);
+  }
+
+  public void testPeriodicFlush() throws Exception {
+    final long fileId = wowCache.addFile("wowCacheParallelFlushTest.tst");
+    final byte[][] pageData = storePages(fileId);
+
+    final long start = System.currentTimeMillis();
+    while (wowCache.getWriteCacheSize() != 0) {
+      Thread.sleep(100);
+
+      //wait no more than 1 min
+      if (System.currentTimeMillis() - start > 60 * 1000) {
+        Assert.assertEquals(wowCache.getWriteCacheSize(), 0);
+      }
+    }
+
+    assertFile(fileId, pageData);
+  }
+
+  private byte[][] storePages(long fileId) throws IOException {
+    final Random random = new Random();
+    final byte[][] pageData = new byte[PAGES_COUNT][];
+
+    for (int i = 0; i < PAGES_COUNT; i++) {
+      final byte[] data = new byte[8];
+      random.nextBytes(data);
+      pageData[i] = data;
+
+      final OCachePointer cachePointer = wowCache.load(fileId, i, 1, true, new OModifiableBoolean())[0];
+      cachePointer.acquireExclusiveLock();
+
+      final ByteBuffer buffer = cachePointer.getSharedBuffer();
+      buffer.position(systemOffset);
+      buffer.put(data);
+      cachePointer.releaseExclusiveLock();
+
+      wowCache.store(fileId, i, cachePointer);
+      cachePointer.decrementReadersReferrer();
+    }
+
+    return pageData;
+  }
+
+  private void assertFile(long fileId, byte[][] pageData) throws IOException {
+    final String path = storageLocal.getConfiguration().getDirectory() + File.separator + wowCache.fileNameById(fileId);
+
+    final OFileClassic fileClassic = new OFileClassic(path, "r");
+    fileClassic.open();
+    try {
+      for (int i = 0; i < pageData.length; i++) {
+        final byte[] content = new byte[pageSize];
+        fileClassic.read(i * pageSize, content, pageSize);
+
+        Assert.assertEquals(OLongSerializer.INSTANCE.deserializeNative(content, 0), OWOWCache.MAGIC_NUMBER);
+
+        final CRC32 crc32 = new CRC32();
+        crc32.update(content, OIntegerSerializer.INT_SIZE + OLongSerializer.LONG_SIZE,
+            content.length - OIntegerSerializer.INT_SIZE - OLongSerializer.LONG_SIZE);
+        Assert.assertEquals(OIntegerSerializer.INSTANCE.deserializeNative(content, OLongSerializer.LONG_SIZE), (int) crc32.getValue());
+
+        Assert.assertEquals(Arrays.copyOfRange(content, systemOffset, pageSize), pageData[i]);
+      }
+    } finally {
+      fileClassic.close();
+    }
+  }
+}
@@ -0,0 +1,119 @@
+package com.orientechnologies.orient.core.index.sbtree.local;
+
+import com.orientechnologies.DatabaseAbstractTest;
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.common.serialization.types.OStringSerializer;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.OLinkSerializer;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@Test
+public class SBTreeBulkLoadTest extends DatabaseAbstractTest {
+  private static final int KEYS_COUNT = 100000;
+
+  private OSBTree<Integer, OIdentifiable> tree;
+  private OSBTree<Integer, OIdentifiable> insertedTree;
+
+  @BeforeMethod
+  public void beforeMethod() {
+    final OAbstractPaginatedStorage storage = (OAbstractPaginatedStorage) database.getStorage().getUnderlying();
+
+    tree = new OSBTree<Integer, OIdentifiable>("bulkLoadedSBTree", ".sbt", false, ".nbt", storage);
+    tree.create(OIntegerSerializer.INSTANCE, OLinkSerializer.INSTANCE, null, 1, false);
+
+    insertedTree = new OSBTree<Integer, OIdentifiable>("insertedSBTree", ".sbt", false, ".nbt", storage);
+    insertedTree.create(OIntegerSerializer.INSTANCE, OLinkSerializer.INSTANCE, null, 1, false);
+  }
+
+  @AfterMethod
+  public void afterMethod() {
+    tree.delete();
+    insertedTree.delete();
+  }
+
+  public void testBulkLoad() {
+    final TreeMap<Integer, OIdentifiable> entries = generateEntries();
+    tree.bulkLoad(entries.entrySet().iterator(), 90);
+
+    for (Map.Entry<Integer, OIdentifiable> entry : entries.entrySet())
+      insertedTree.put(entry.getKey(), entry.getValue());
+
+    Assert.assertEquals(tree.size(), KEYS_COUNT);
+    Assert.assertEquals(tree.firstKey(), entries.firstKey());
+    Assert.assertEquals(tree.lastKey(), entries.lastKey());
+    Assert.assertTrue(tree.getHeight() <= insertedTree.getHeight());
+
+    for (Map.Entry<Integer, OIdentifiable> entry : entries.entrySet())
+      Assert.assertEquals(tree.get(entry.getKey()), entry.getValue());
+
+    Assert.assertNull(tree.get(-1));
+    Assert.assertNull(tree.get(1));
+
+    final OSBTree.OSBTreeCursor<Integer, OIdentifiable> cursor = tree.iterateEntriesMajor(entries.firstKey(), true, true);
+    for (Map.Entry<Integer, OIdentifiable> entry : entries.entrySet()) {
+      final Map.Entry<Integer, OIdentifiable> treeEntry = cursor.next(-1);
+      Assert.assertEquals(treeEntry.getKey(), entry.getKey());
+      Assert.assertEquals(treeEntry.getValue(), entry.getValue());
+    }
+    Assert.assertNull(cursor.next(-1));
+  }
+
+  public void testUpdatesAfterBulkLoad() {
+    final TreeMap<Integer, OIdentifiable> entries = generateEntries();
+    tree.bulkLoad(entries.entrySet().iterator(), 100);
+
+    for (int i = 1; i < KEYS_COUNT * 2; i += 2) {
+      final ORecordId value = new ORecordId(1, i);
+      tree.put(i, value);
+      entries.put(i, value);
+    }
+
+    for (int i = 0; i < KEYS_COUNT * 2; i += 6)
+      Assert.assertEquals(tree.remove(i), entries.remove(i));
+
+    Assert.assertEquals(tree.size(), entries.size());
+    for (Map.Entry<Integer, OIdentifiable> entry : entries.entrySet())
+      Assert.assertEquals(tree.get(entry.getKey()), entry.getValue());
+  }
+
+  public void testBulkLoadOfSingleBucket() {
+    final TreeMap<Integer, OIdentifiable> entries = new TreeMap<Integer, OIdentifiable>();
+    for (int i = 0; i < 10; i++)
+      entries.put(i, new ORecordId(1, i));
+
+    tree.bulkLoad(entries.entrySet().iterator(), 50);
+
+    Assert.assertEquals(tree.size(), 10);
+    Assert.assertEquals(tree.getHeight(), 1);
+    for (Map.Entry<Integer, OIdentifiable> entry : entries.entrySet())
+      Assert.assertEquals(tree.get(entry.getKey()), entry.getValue());
+  }
+
+  @Test(expectedExceptions = OSBTreeException.class)
+  public void testBulkLoadOfNotEmptyTree() {
+    tree.put(1, new ORecordId(1, 1));
+    tree.bulkLoad(generateEntries().entrySet().iterator(), 90);
+  }
+
+  @Test(expectedExceptions = OSBTreeException.class)
+  public void testBulkLoadOfNotSortedEntries() {
+    final TreeMap<Integer, OIdentifiable> entries = generateEntries();
+    tree.bulkLoad(entries.descendingMap().entrySet().iterator(), 90);
+  }
+
+  private static TreeMap<Integer, OIdentifiable> generateEntries() {
+    final TreeMap<Integer, OIdentifiable> entries = new TreeMap<Integer, OIdentifiable>();
+    for (int i = 0; i < KEYS_COUNT; i++)
+      entries.put(i * 2, new ORecordId(i % 32, i));
+
+    return entries;
+  }
+}
@@ -0,0 +1,100 @@
+package com.orientechnologies.orient.core.index.sbtree.local;
+
+import com.orientechnologies.DatabaseAbstractTest;
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.OLinkSerializer;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+@Test
+public class SBTreeGetAllTest extends DatabaseAbstractTest {
+  private static final int KEYS_COUNT = 50000;
+
+  private OSBTree<Integer, OIdentifiable> tree;
+
+  @BeforeMethod
+  public void beforeMethod() {
+    tree = new OSBTree<Integer, OIdentifiable>("getAllSBTree", ".sbt", false, ".nbt",
+        (OAbstractPaginatedStorage) database.getStorage().getUnderlying());
+    tree.create(OIntegerSerializer.INSTANCE, OLinkSerializer.INSTANCE, null, 1, true);
+
+    for (int i = 0; i < KEYS_COUNT; i++)
+      tree.put(i * 2, new ORecordId(i % 32, i));
+  }
+
+  @AfterMethod
+  public void afterMethod() {
+    tree.delete();
+  }
+
+  public void testGetAll() {
+    final Random random = new Random(42);
+    final List<Integer> keys = new ArrayList<Integer>();
+    for (int i = 0; i < 10000; i++)
+      keys.add(random.nextInt(KEYS_COUNT * 2 + 100) - 50);
+
+    assertGetAll(keys);
+  }
+
+  public void testGetAllOfSequentialKeys() {
+    final List<Integer> keys = new ArrayList<Integer>();
+    for (int i = 0; i < KEYS_COUNT * 2; i += 3)
+      keys.add(i);
+
+    Collections.shuffle(keys);
+    assertGetAll(keys);
+  }
+
+  public void testGetAllWithEmptyBuckets() {
+    for (int i = KEYS_COUNT / 4; i < KEYS_COUNT / 2; i++)
+      tree.remove(i * 2);
+
+    final List<Integer> keys = new ArrayList<Integer>();
+    for (int i = 0; i < KEYS_COUNT * 2; i += 5)
+      keys.add(i);
+
+    assertGetAll(keys);
+  }
+
+  public void testGetAllWithNullKey() {
+    final ORecordId nullValue = new ORecordId(5, 5);
+    tree.put(null, nullValue);
+
+    final List<Integer> keys = new ArrayList<Integer>();
+    keys.add(4);
+    keys.add(null);
+    keys.add(5);
+
+    final Map<Integer, OIdentifiable> result = tree.getAll(keys);
+    Assert.assertEquals(result.size(), 2);
+    Assert.assertEquals(result.get(null), nullValue);
+    Assert.assertEquals(result.get(4), tree.get(4));
+  }
+
+  private void assertGetAll(List<Integer> keys) {
+    final Map<Integer, OIdentifiable> result = tree.getAll(keys);
+
+    int found = 0;
+    for (Integer key : keys) {
+      final OIdentifiable value = tree.get(key);
+      Assert.assertEquals(result.get(key), value);
+
+      if (value != null)
+        found++;
+    }
+
+    Assert.assertTrue(found > 0);
+    Assert.assertTrue(result.size() <= found);
+  }
+}
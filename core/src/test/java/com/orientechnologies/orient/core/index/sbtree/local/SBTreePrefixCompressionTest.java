@@ -0,0 +1,159 @@
+package com.orientechnologies.orient.core.index.sbtree.local;
+
+import com.orientechnologies.DatabaseAbstractTest;
+import com.orientechnologies.common.serialization.types.OStringSerializer;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.OLinkSerializer;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+@Test
+public class SBTreePrefixCompressionTest extends DatabaseAbstractTest {
+  private static final int KEYS_COUNT = 30000;
+
+  private OSBTree<String, OIdentifiable> compressedTree;
+  private OSBTree<String, OIdentifiable> plainTree;
+
+  @BeforeClass
+  public void beforeClass() {
+    super.beforeClass();
+
+    final OAbstractPaginatedStorage storage = (OAbstractPaginatedStorage) database.getStorage().getUnderlying();
+
+    compressedTree = new OSBTree<String, OIdentifiable>("prefixCompressedSBTree", ".sbt", false, ".nbt", storage);
+    compressedTree.create(OStringSerializer.INSTANCE, OLinkSerializer.INSTANCE, null, 1, false, true);
+
+    plainTree = new OSBTree<String, OIdentifiable>("notPrefixCompressedSBTree", ".sbt", false, ".nbt", storage);
+    plainTree.create(OStringSerializer.INSTANCE, OLinkSerializer.INSTANCE, null, 1, false, false);
+  }
+
+  @BeforeMethod
+  public void beforeMethod() {
+    compressedTree.clear();
+    plainTree.clear();
+  }
+
+  @AfterMethod
+  public void afterMethod() {
+    compressedTree.clear();
+    plainTree.clear();
+  }
+
+  @AfterClass
+  public void afterClass() throws Exception {
+    compressedTree.delete();
+    plainTree.delete();
+
+    super.afterClass();
+  }
+
+  public void testPutGetRemove() {
+    final TreeMap<String, ORecordId> keys = generateKeys();
+    final List<String> shuffledKeys = new ArrayList<String>(keys.keySet());
+    Collections.shuffle(shuffledKeys);
+
+    for (String key : shuffledKeys)
+      compressedTree.put(key, keys.get(key));
+
+    Assert.assertEquals(compressedTree.size(), keys.size());
+
+    for (Map.Entry<String, ORecordId> entry : keys.entrySet())
+      Assert.assertEquals(compressedTree.get(entry.getKey()), entry.getValue());
+
+    Assert.assertNull(compressedTree.get("http://www.example.com/"));
+    Assert.assertNull(compressedTree.get("a"));
+    Assert.assertNull(compressedTree.get("z"));
+
+    for (int i = 0; i < shuffledKeys.size(); i += 2) {
+      final String key = shuffledKeys.get(i);
+      Assert.assertEquals(compressedTree.remove(key), keys.remove(key));
+    }
+
+    for (String key : shuffledKeys)
+      Assert.assertEquals(compressedTree.get(key), keys.get(key));
+
+    Assert.assertEquals(compressedTree.firstKey(), keys.firstKey());
+    Assert.assertEquals(compressedTree.lastKey(), keys.lastKey());
+  }
+
+  public void testIterationOrderIsTheSameAsForNotCompressedTree() {
+    final TreeMap<String, ORecordId> keys = generateKeys();
+    for (Map.Entry<String, ORecordId> entry : keys.entrySet()) {
+      compressedTree.put(entry.getKey(), entry.getValue());
+      plainTree.put(entry.getKey(), entry.getValue());
+    }
+
+    final String fromKey = keys.firstKey().substring(0, 20);
+    final OSBTree.OSBTreeCursor<String, OIdentifiable> compressedCursor = compressedTree.iterateEntriesMajor(fromKey, true, true);
+    final OSBTree.OSBTreeCursor<String, OIdentifiable> plainCursor = plainTree.iterateEntriesMajor(fromKey, true, true);
+
+    final String toKey = keys.lastKey().substring(0, 20);
+    Assert.assertEquals(keys.subMap(fromKey, toKey).size(),
+        count(compressedTree.iterateEntriesBetween(fromKey, true, toKey, false, true)));
+
+    int count = 0;
+    Map.Entry<String, OIdentifiable> entry;
+    while ((entry = plainCursor.next(-1)) != null) {
+      final Map.Entry<String, OIdentifiable> compressedEntry = compressedCursor.next(-1);
+      Assert.assertEquals(compressedEntry.getKey(), entry.getKey());
+      Assert.assertEquals(compressedEntry.getValue(), entry.getValue());
+      count++;
+    }
+
+    Assert.assertNull(compressedCursor.next(-1));
+    Assert.assertEquals(count, keys.tailMap(fromKey).size());
+  }
+
+  public void testCompressedTreeIsNotHigherThanNotCompressedOne() {
+    final TreeMap<String, ORecordId> keys = generateKeys();
+    for (Map.Entry<String, ORecordId> entry : keys.entrySet()) {
+      compressedTree.put(entry.getKey(), entry.getValue());
+      plainTree.put(entry.getKey(), entry.getValue());
+    }
+
+    Assert.assertTrue(plainTree.getHeight() > 1);
+    Assert.assertTrue(compressedTree.getHeight() <= plainTree.getHeight());
+  }
+
+  @Test(expectedExceptions = OSBTreeException.class)
+  public void testPrefixCompressionIsNotSupportedForNotStringKeys() {
+    final OSBTree<OIdentifiable, OIdentifiable> tree = new OSBTree<OIdentifiable, OIdentifiable>("prefixCompressedLinkSBTree",
+        ".sbt", false, ".nbt", (OAbstractPaginatedStorage) database.getStorage().getUnderlying());
+    tree.create(OLinkSerializer.INSTANCE, OLinkSerializer.INSTANCE, null, 1, false, true);
+  }
+
+  private static int count(OSBTree.OSBTreeCursor<String, OIdentifiable> cursor) {
+    int count = 0;
+    while (cursor.next(-1) != null)
+      count++;
+
+    return count;
+  }
+
+  private static TreeMap<String, ORecordId> generateKeys() {
+    final Random random = new Random(42);
+    final String[] hosts = { "http://www.example.com/", "http://www.example.org/", "https://docs.example.com/" };
+
+    final TreeMap<String, ORecordId> keys = new TreeMap<String, ORecordId>();
+    while (keys.size() < KEYS_COUNT) {
+      final String key =
+          hosts[random.nextInt(hosts.length)] + "catalog/section-" + random.nextInt(50) + "/item-" + random.nextInt(1000000);
+      keys.put(key, new ORecordId(keys.size() % 32, keys.size()));
+    }
+
+    return keys;
+  }
+}
@@ -0,0 +1,108 @@
+package com.orientechnologies.orient.core.index.sbtree.local;
+
+import com.orientechnologies.DatabaseAbstractTest;
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.OLinkSerializer;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+@Test
+public class SBTreeRangeSizeTest extends DatabaseAbstractTest {
+  private static final int KEYS_COUNT = 50000;
+
+  private OSBTree<Integer, OIdentifiable> tree;
+
+  @BeforeMethod
+  public void beforeMethod() {
+    tree = new OSBTree<Integer, OIdentifiable>("rangeSizeSBTree", ".sbt", false, ".nbt",
+        (OAbstractPaginatedStorage) database.getStorage().getUnderlying());
+    tree.create(OIntegerSerializer.INSTANCE, OLinkSerializer.INSTANCE, null, 1, false);
+  }
+
+  @AfterMethod
+  public void afterMethod() {
+    tree.delete();
+  }
+
+  public void testRangeSizeAfterPutAndRemove() {
+    final Random random = new Random(42);
+    final TreeMap<Integer, OIdentifiable> entries = new TreeMap<Integer, OIdentifiable>();
+
+    Assert.assertTrue(tree.hasSubtreeSizes());
+    Assert.assertEquals(tree.size(null, true, null, true), 0);
+
+    while (entries.size() < KEYS_COUNT) {
+      final int key = random.nextInt(KEYS_COUNT * 4);
+      final ORecordId value = new ORecordId(1, key);
+
+      tree.put(key, value);
+      entries.put(key, value);
+    }
+
+    assertRangeSizes(entries, random);
+
+    // UPDATES DO NOT CHANGE AMOUNT OF ENTRIES
+    for (int i = 0; i < 1000; i++) {
+      final int key = entries.firstKey() + i;
+      if (entries.containsKey(key))
+        tree.put(key, new ORecordId(2, key));
+    }
+
+    for (int i = 0; i < KEYS_COUNT * 4; i += 3) {
+      final OIdentifiable removed = tree.remove(i);
+      Assert.assertEquals(removed != null, entries.remove(i) != null);
+    }
+
+    assertRangeSizes(entries, random);
+  }
+
+  public void testRangeSizeAfterBulkLoad() {
+    final TreeMap<Integer, OIdentifiable> entries = new TreeMap<Integer, OIdentifiable>();
+    for (int i = 0; i < KEYS_COUNT; i++)
+      entries.put(i * 2, new ORecordId(1, i));
+
+    tree.bulkLoad(entries.entrySet().iterator(), 90);
+
+    final Random random = new Random(24);
+    assertRangeSizes(entries, random);
+
+    for (int i = 1; i < KEYS_COUNT; i += 4) {
+      final ORecordId value = new ORecordId(2, i);
+      tree.put(i, value);
+      entries.put(i, value);
+    }
+
+    assertRangeSizes(entries, random);
+  }
+
+  private void assertRangeSizes(final TreeMap<Integer, OIdentifiable> entries, final Random random) {
+    Assert.assertEquals(tree.size(), entries.size());
+    Assert.assertEquals(tree.size(null, true, null, true), entries.size());
+
+    final int maxKey = entries.lastKey() + 1;
+    for (int i = 0; i < 1000; i++) {
+      final int from = random.nextInt(maxKey);
+      final int to = from + random.nextInt(maxKey - from + 1);
+      final boolean fromInclusive = random.nextBoolean();
+      final boolean toInclusive = random.nextBoolean();
+
+      final Map<Integer, OIdentifiable> range = entries.subMap(from, fromInclusive, to, toInclusive);
+      Assert.assertEquals(tree.size(from, fromInclusive, to, toInclusive), range.size());
+
+      Assert.assertEquals(tree.size(null, true, to, toInclusive), entries.headMap(to, toInclusive).size());
+      Assert.assertEquals(tree.size(from, fromInclusive, null, true), entries.tailMap(from, fromInclusive).size());
+    }
+
+    Assert.assertEquals(tree.size(maxKey, true, maxKey + 10, true), 0);
+    Assert.assertEquals(tree.size(-10, true, -1, true), 0);
+  }
+}
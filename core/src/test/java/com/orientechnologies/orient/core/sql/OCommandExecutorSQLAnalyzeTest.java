@@ -0,0 +1,150 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.sql;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class OCommandExecutorSQLAnalyzeTest {
+  private ODatabaseDocumentTx db;
+
+  @BeforeClass
+  public void beforeClass() {
+    db = new ODatabaseDocumentTx("memory:OCommandExecutorSQLAnalyzeTest");
+    db.create();
+
+    db.command(new OCommandSQL("create class Item")).execute();
+    db.command(new OCommandSQL("create property Item.a INTEGER")).execute();
+    db.command(new OCommandSQL("create property Item.b INTEGER")).execute();
+    db.command(new OCommandSQL("create index Item.a on Item (a) NOTUNIQUE")).execute();
+    db.command(new OCommandSQL("create index Item.b on Item (b) NOTUNIQUE")).execute();
+
+    for (int i = 0; i < 1000; i++) {
+      final ODocument document = new ODocument("Item");
+      document.field("a", i % 100);
+      document.field("b", i / 10);
+      document.save();
+    }
+  }
+
+  @AfterClass
+  public void afterClass() {
+    db.drop();
+  }
+
+  public void testAnalyzeIndex() {
+    final ODocument statistics = db.command(new OCommandSQL("analyze index Item.a")).execute();
+
+    assertEquals(statistics.field("index"), "Item.a");
+    assertEquals(((Number) statistics.field("entries")).longValue(), 1000);
+    assertEquals(((Number) statistics.field("distinctKeys")).longValue(), 100);
+
+    final List<ODocument> histogram = statistics.field("histogram");
+    assertFalse(histogram.isEmpty());
+
+    long entries = 0;
+    for (ODocument bucket : histogram)
+      entries += ((Number) bucket.field("entries")).longValue();
+    assertEquals(entries, 1000);
+  }
+
+  public void testAnalyzeClass() {
+    final ODocument statistics = db.command(new OCommandSQL("analyze class Item")).execute();
+
+    assertEquals(statistics.field("class"), "Item");
+    assertEquals(((Number) statistics.field("records")).longValue(), 1000);
+
+    final List<ODocument> indexes = statistics.field("indexes");
+    assertEquals(indexes.size(), 2);
+  }
+
+  @Test(dependsOnMethods = "testAnalyzeClass")
+  public void testEstimatedAndActualRows() {
+    final ODocument explain = db.command(new OCommandSQL("explain select from Item where a < 10")).execute();
+
+    assertEquals(explain.field("plan"), "INDEX");
+    assertEquals(((Number) explain.field("estimatedRows")).longValue(), 100);
+    assertEquals(((Number) explain.field("actualRows")).longValue(), 100);
+  }
+
+  @Test(dependsOnMethods = "testAnalyzeClass")
+  public void testFullScanOfNotSelectiveCondition() {
+    final ODocument explain = db.command(new OCommandSQL("explain select from Item where a >= 0")).execute();
+
+    assertEquals(explain.field("plan"), "FULL_SCAN");
+    assertNull(explain.field("involvedIndexes"));
+    assertEquals(((Number) explain.field("actualRows")).longValue(), 1000);
+
+    final List<ODocument> result = db.command(new OCommandSQL("select from Item where a >= 0")).execute();
+    assertEquals(result.size(), 1000);
+  }
+
+  @Test(dependsOnMethods = "testAnalyzeClass")
+  public void testIndexIntersection() {
+    final String query = "select from Item where a < 10 and b < 10";
+
+    final ODocument explain = db.command(new OCommandSQL("explain " + query)).execute();
+    assertEquals(explain.field("plan"), "INDEX_INTERSECTION");
+    assertEquals(((Number) explain.field("estimatedRows")).longValue(), 10);
+
+    final Collection<String> involvedIndexes = explain.field("involvedIndexes");
+    assertEquals(involvedIndexes.size(), 2);
+    assertTrue(involvedIndexes.contains("Item.a"));
+    assertTrue(involvedIndexes.contains("Item.b"));
+
+    final List<ODocument> result = db.command(new OCommandSQL(query)).execute();
+    assertEquals(result.size(), 10);
+    for (ODocument document : result) {
+      assertTrue(((Integer) document.field("a")) < 10);
+      assertTrue(((Integer) document.field("b")) < 10);
+    }
+  }
+
+  @Test(dependsOnMethods = "testAnalyzeClass")
+  public void testOnlyChosenIndexIsQueried() {
+    final String query = "select from Item where a = 5 and b < 50";
+
+    final ODocument explain = db.command(new OCommandSQL("explain " + query)).execute();
+    assertEquals(explain.field("plan"), "INDEX");
+
+    final Collection<String> involvedIndexes = explain.field("involvedIndexes");
+    assertEquals(involvedIndexes.size(), 1);
+    assertTrue(involvedIndexes.contains("Item.a"));
+
+    final List<ODocument> result = db.command(new OCommandSQL(query)).execute();
+    assertEquals(result.size(), 5);
+    for (ODocument document : result) {
+      assertEquals(document.field("a"), 5);
+      assertTrue(((Integer) document.field("b")) < 50);
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.sql;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class OCommandExecutorSQLSelectParallelTest {
+  private static final int RECORDS = 20000;
+  private static final int GROUPS  = 10;
+
+  private ODatabaseDocumentTx db;
+  private Object              oldParallelMinimumRecords;
+
+  @BeforeClass
+  public void beforeClass() {
+    oldParallelMinimumRecords = OGlobalConfiguration.QUERY_PARALLEL_MINIMUM_RECORDS.getValue();
+    OGlobalConfiguration.QUERY_PARALLEL_MINIMUM_RECORDS.setValue(1000);
+
+    db = new ODatabaseDocumentTx("memory:OCommandExecutorSQLSelectParallelTest");
+    db.create();
+
+    db.getMetadata().getSchema().createClass("ParallelTest", 4);
+    for (int i = 0; i < RECORDS; i++) {
+      final ODocument document = new ODocument("ParallelTest");
+      document.field("num", (i * 37) % 1000);
+      document.field("grp", i % GROUPS);
+      document.save();
+    }
+  }
+
+  @AfterClass
+  public void afterClass() {
+    db.drop();
+    OGlobalConfiguration.QUERY_PARALLEL_MINIMUM_RECORDS.setValue(oldParallelMinimumRecords);
+  }
+
+  public void testAggregates() {
+    final String query = "select count(*) as cnt, sum(num) as total, min(num) as mn, max(num) as mx, avg(num) as average "
+        + "from ParallelTest where num > 10";
+
+    final List<ODocument> serial = db.query(new OSQLSynchQuery<ODocument>(query));
+    final List<ODocument> parallel = db.query(new OSQLSynchQuery<ODocument>(query + " parallel"));
+
+    assertEquals(parallel.size(), 1);
+    assertEquals(serial.size(), 1);
+    assertSameAggregates(parallel.get(0), serial.get(0));
+  }
+
+  public void testGroupBy() {
+    final String query = "select grp, count(*) as cnt, sum(num) as total, min(num) as mn, max(num) as mx, avg(num) as average "
+        + "from ParallelTest group by grp";
+
+    final Map<Object, ODocument> serial = new HashMap<Object, ODocument>();
+    for (ODocument document : db.query(new OSQLSynchQuery<ODocument>(query)))
+      serial.put(document.field("grp"), document);
+
+    final List<ODocument> parallel = db.query(new OSQLSynchQuery<ODocument>(query + " parallel"));
+
+    assertEquals(parallel.size(), GROUPS);
+    for (ODocument document : parallel) {
+      assertEquals(((Number) document.field("cnt")).longValue(), RECORDS / GROUPS);
+      assertSameAggregates(document, serial.get(document.field("grp")));
+    }
+  }
+
+  public void testGroupByOrderByLimit() {
+    final List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>(
+        "select grp, count(*) as cnt from ParallelTest group by grp order by grp desc limit 3 parallel"));
+
+    assertEquals(result.size(), 3);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(result.get(i).field("grp"), GROUPS - 1 - i);
+      assertEquals(((Number) result.get(i).field("cnt")).longValue(), RECORDS / GROUPS);
+    }
+  }
+
+  public void testFilter() {
+    final List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>("select from ParallelTest where num < 100 parallel"));
+
+    assertEquals(result.size(), RECORDS / 10);
+    for (ODocument document : result)
+      assertTrue((Integer) document.field("num") < 100);
+  }
+
+  public void testRanges() {
+    final ODocument explain = db.command(new OCommandSQL("explain select count(*) from ParallelTest parallel")).execute();
+
+    // EVERY CLUSTER IS SPLIT IN RANGES WHICH ARE SCANNED BY ALL THE THREADS
+    assertTrue(((Number) explain.field("parallelRanges")).intValue() >= 4);
+    assertTrue(((Number) explain.field("parallelThreads")).intValue() >= 1);
+  }
+
+  private static void assertSameAggregates(final ODocument parallel, final ODocument serial) {
+    assertEquals(((Number) parallel.field("cnt")).longValue(), ((Number) serial.field("cnt")).longValue());
+    assertEquals(((Number) parallel.field("total")).longValue(), ((Number) serial.field("total")).longValue());
+    assertEquals(parallel.field("mn"), serial.field("mn"));
+    assertEquals(parallel.field("mx"), serial.field("mx"));
+    assertEquals(((Number) parallel.field("average")).longValue(), ((Number) serial.field("average")).longValue());
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.sql;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class OCommandExecutorSQLSelectSpillTest {
+  private static final int RECORDS = 100;
+  private static final int GROUPS  = 25;
+
+  private ODatabaseDocumentTx db;
+  private Object              oldSpillThreshold;
+
+  @BeforeClass
+  public void beforeClass() {
+    oldSpillThreshold = OGlobalConfiguration.QUERY_SPILL_THRESHOLD.getValue();
+    OGlobalConfiguration.QUERY_SPILL_THRESHOLD.setValue(10);
+
+    db = new ODatabaseDocumentTx("memory:OCommandExecutorSQLSelectSpillTest");
+    db.create();
+
+    db.command(new OCommandSQL("create class SpillTest")).execute();
+    for (int i = 0; i < RECORDS; i++) {
+      final ODocument document = new ODocument("SpillTest");
+      document.field("num", (i * 37) % RECORDS);
+      document.field("grp", i % GROUPS);
+      document.save();
+    }
+  }
+
+  @AfterClass
+  public void afterClass() {
+    db.drop();
+    OGlobalConfiguration.QUERY_SPILL_THRESHOLD.setValue(oldSpillThreshold);
+  }
+
+  public void testOrderBy() {
+    final List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>("select from SpillTest order by num desc"));
+
+    assertEquals(result.size(), RECORDS);
+    for (int i = 0; i < RECORDS; i++) {
+      assertEquals(result.get(i).field("num"), RECORDS - 1 - i);
+      assertTrue(result.get(i).getIdentity().isPersistent());
+    }
+  }
+
+  public void testOrderByProjectionSkip() {
+    final List<ODocument> result = db
+        .query(new OSQLSynchQuery<ODocument>("select num, grp from SpillTest order by grp, num skip 5"));
+
+    assertEquals(result.size(), RECORDS - 5);
+    ODocument previous = null;
+    for (ODocument document : result) {
+      if (previous != null) {
+        final int previousGroup = (Integer) previous.field("grp");
+        final int group = (Integer) document.field("grp");
+        assertTrue(previousGroup < group || (previousGroup == group && (Integer) previous.field("num") < (Integer) document
+            .field("num")));
+      }
+      previous = document;
+    }
+  }
+
+  public void testOrderBySpilledRuns() {
+    final ODocument explain = db.command(new OCommandSQL("explain select from SpillTest order by num")).execute();
+    assertEquals(((Number) explain.field("spilledRuns")).intValue(), RECORDS / 10);
+  }
+
+  public void testGroupBy() {
+    final List<ODocument> result = db.query(
+        new OSQLSynchQuery<ODocument>("select grp, count(*) as cnt, sum(num) as total from SpillTest group by grp"));
+
+    assertEquals(result.size(), GROUPS);
+
+    final long[] totals = new long[GROUPS];
+    for (int i = 0; i < RECORDS; i++)
+      totals[i % GROUPS] += (i * 37) % RECORDS;
+
+    final boolean[] found = new boolean[GROUPS];
+    for (ODocument document : result) {
+      final int group = (Integer) document.field("grp");
+      assertEquals(((Number) document.field("cnt")).longValue(), RECORDS / GROUPS);
+      assertEquals(((Number) document.field("total")).longValue(), totals[group]);
+      found[group] = true;
+    }
+
+    for (boolean groupFound : found)
+      assertTrue(groupFound);
+  }
+
+  public void testDirtyRecordIsSpilledCompletely() {
+    final ODocument document = new ODocument("SpillTest");
+    document.field("num", -1);
+    document.save();
+
+    try {
+      final OIdentifiable clean = OQuerySpillFile.fromEntry(OQuerySpillFile.toEntry(document));
+      assertFalse(clean instanceof ODocument);
+      assertEquals(clean.getIdentity(), document.getIdentity());
+
+      document.field("num", -2);
+      final OIdentifiable dirty = OQuerySpillFile.fromEntry(OQuerySpillFile.toEntry(document));
+      assertTrue(dirty instanceof ODocument);
+      assertEquals(dirty.getIdentity(), document.getIdentity());
+      assertEquals(((ODocument) dirty).field("num"), -2);
+      assertEquals(((ODocument) dirty).getVersion(), document.getVersion());
+      assertTrue(((ODocument) dirty).isDirty());
+    } finally {
+      document.delete();
+    }
+  }
+
+  public void testGroupByOrderBy() {
+    final List<ODocument> result = db.query(
+        new OSQLSynchQuery<ODocument>("select grp, count(*) as cnt from SpillTest group by grp order by grp desc"));
+
+    assertEquals(result.size(), GROUPS);
+    for (int i = 0; i < GROUPS; i++) {
+      assertEquals(result.get(i).field("grp"), GROUPS - 1 - i);
+      assertEquals(((Number) result.get(i).field("cnt")).longValue(), RECORDS / GROUPS);
+    }
+  }
+}
@@ -1535,6 +1535,35 @@ public class OCommandExecutorSQLSelectTest {
   }
 
 
+  @Test
+  public void testTopKOrderBySkipLimit() {
+    db.command(new OCommandSQL("create class TopKOrderBy")).execute();
+    for (int i = 0; i < 1000; i++) {
+      ODocument doc = new ODocument("TopKOrderBy");
+      doc.field("num", i);
+      doc.field("score", (i * 37) % 100);
+      doc.save();
+    }
+
+    List<ODocument> results = db.query(new OSQLSynchQuery<ODocument>(
+        "select from TopKOrderBy order by score desc, num asc skip 3 limit 10"));
+    assertEquals(results.size(), 10);
+    // EVERY SCORE IS SHARED BY 10 RECORDS: 99 IS THE BEST ONE, THEN ORDERED BY NUM
+    for (int i = 0; i < results.size(); i++) {
+      int expectedScore = i < 7 ? 99 : 98;
+      assertEquals(results.get(i).field("score"), expectedScore);
+      if (i > 0 && expectedScore == (Integer) results.get(i - 1).field("score"))
+        assertTrue((Integer) results.get(i).field("num") > (Integer) results.get(i - 1).field("num"));
+    }
+
+    results = db.query(new OSQLSynchQuery<ODocument>("select num, score from TopKOrderBy order by score asc, num desc limit 3"));
+    assertEquals(results.size(), 3);
+    assertEquals(results.get(0).field("score"), 0);
+    assertEquals(results.get(0).field("num"), 900);
+    assertEquals(results.get(1).field("num"), 800);
+    assertEquals(results.get(2).field("num"), 700);
+  }
+
   @Test
   public void testSubquerySkipLimit(){
     //issue #6737
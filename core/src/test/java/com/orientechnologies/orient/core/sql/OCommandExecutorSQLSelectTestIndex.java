@@ -23,9 +23,11 @@ import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
 import org.testng.annotations.Test;
 
+import java.util.Collection;
 import java.util.List;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 @Test
 public class OCommandExecutorSQLSelectTestIndex {
@@ -101,4 +103,33 @@ public class OCommandExecutorSQLSelectTestIndex {
     }
 
   }
+
+  public void testMostSelectiveIndexIsUsed() {
+    ODatabaseDocumentTx databaseDocumentTx = new ODatabaseDocumentTx("memory:OCommandExecutorSQLSelectTestIndex_testMostSelectiveIndexIsUsed");
+    databaseDocumentTx.create();
+    try {
+      databaseDocumentTx.command(new OCommandSQL("CREATE CLASS Foo")).execute();
+      databaseDocumentTx.command(new OCommandSQL("CREATE PROPERTY Foo.a INTEGER")).execute();
+      databaseDocumentTx.command(new OCommandSQL("CREATE PROPERTY Foo.b INTEGER")).execute();
+      databaseDocumentTx.command(new OCommandSQL("CREATE INDEX Foo.a ON Foo (a) UNIQUE")).execute();
+      databaseDocumentTx.command(new OCommandSQL("CREATE INDEX Foo.b ON Foo (b) UNIQUE")).execute();
+
+      for (int i = 0; i < 1000; i++)
+        databaseDocumentTx.command(new OCommandSQL("INSERT INTO Foo SET a = " + i + ", b = " + (1000 - i))).execute();
+
+      final String query = "SELECT FROM Foo WHERE a BETWEEN 100 AND 999 AND b BETWEEN 50 AND 59";
+      List<?> result = databaseDocumentTx.query(new OSQLSynchQuery<Object>(query));
+      assertEquals(result.size(), 10);
+
+      ODocument explain = databaseDocumentTx.command(new OCommandSQL("EXPLAIN " + query)).execute();
+      Collection<String> involvedIndexes = explain.field("involvedIndexes");
+      assertEquals(involvedIndexes.size(), 1);
+      assertTrue(involvedIndexes.contains("Foo.b"));
+
+      List<ODocument> count = databaseDocumentTx.query(new OSQLSynchQuery<ODocument>("SELECT count(*) FROM Foo WHERE a BETWEEN 100 AND 399"));
+      assertEquals(((Number) count.get(0).field("count")).longValue(), 300);
+    } finally {
+      databaseDocumentTx.drop();
+    }
+  }
 }
@@ -0,0 +1,150 @@
+/*
+ *
+ *  *  Copyright 2014 Orient Technologies LTD (info(at)orientechnologies.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientechnologies.com
+ *
+ */
+package com.orientechnologies.orient.core.sql;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.metadata.OMetadataInternal;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Collection;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class OQueryPlanCacheTest {
+  private ODatabaseDocumentTx db;
+  private OQueryPlanCache     planCache;
+
+  @BeforeClass
+  public void beforeClass() {
+    db = new ODatabaseDocumentTx("memory:OQueryPlanCacheTest");
+    db.create();
+
+    db.command(new OCommandSQL("create class PlanItem")).execute();
+    db.command(new OCommandSQL("create property PlanItem.a INTEGER")).execute();
+    db.command(new OCommandSQL("create property PlanItem.b INTEGER")).execute();
+    db.command(new OCommandSQL("create index PlanItem.a on PlanItem (a) NOTUNIQUE")).execute();
+
+    for (int i = 0; i < 1000; i++) {
+      final ODocument document = new ODocument("PlanItem");
+      document.field("a", i % 100);
+      document.field("b", i / 10);
+      document.save();
+    }
+
+    planCache = ((OMetadataInternal) db.getMetadata()).getQueryPlanCache();
+  }
+
+  @AfterClass
+  public void afterClass() {
+    db.drop();
+  }
+
+  @BeforeMethod
+  public void beforeMethod() {
+    planCache.invalidate();
+  }
+
+  public void testCachedPlanIsReused() {
+    final long hits = planCache.getHits();
+
+    for (int i = 0; i < 10; i++) {
+      final List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>("select from PlanItem where a = ?"), i);
+      assertEquals(result.size(), 10);
+      for (ODocument document : result)
+        assertEquals(document.field("a"), i);
+    }
+
+    assertEquals(planCache.size(), 1);
+    assertEquals(planCache.getHits() - hits, 9);
+
+    // THE SAME QUERY WRITTEN WITH DIFFERENT SPACING USES THE SAME PLAN
+    final ODocument explain = db.command(new OCommandSQL("explain select  from PlanItem\nwhere a = 5")).execute();
+    assertFalse((Boolean) explain.field("planCached"));
+
+    final ODocument cachedExplain = db.command(new OCommandSQL("explain select from PlanItem where a =  5")).execute();
+    assertTrue((Boolean) cachedExplain.field("planCached"));
+    assertTrue(((Collection<?>) cachedExplain.field("involvedIndexes")).contains("PlanItem.a"));
+    assertEquals(cachedExplain.field("plan"), "INDEX");
+    assertEquals(((Number) cachedExplain.field("resultSize")).intValue(), 10);
+  }
+
+  public void testIndexChangeInvalidatesCache() {
+    db.query(new OSQLSynchQuery<ODocument>("select from PlanItem where a = 1 and b = 0"));
+    assertEquals(planCache.size(), 1);
+
+    final long invalidations = planCache.getInvalidations();
+    db.command(new OCommandSQL("create index PlanItem.b on PlanItem (b) NOTUNIQUE")).execute();
+    try {
+      assertEquals(planCache.size(), 0);
+      assertTrue(planCache.getInvalidations() > invalidations);
+
+      final List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>("select from PlanItem where a = 1 and b = 0"));
+      assertEquals(result.size(), 1);
+      assertEquals(planCache.size(), 1);
+    } finally {
+      db.command(new OCommandSQL("drop index PlanItem.b")).execute();
+    }
+
+    assertEquals(planCache.size(), 0);
+    final List<ODocument> result = db.query(new OSQLSynchQuery<ODocument>("select from PlanItem where a = 1 and b = 0"));
+    assertEquals(result.size(), 1);
+  }
+
+  public void testAnalyzeInvalidatesCache() {
+    db.query(new OSQLSynchQuery<ODocument>("select from PlanItem where a = 1"));
+    assertEquals(planCache.size(), 1);
+
+    db.command(new OCommandSQL("analyze index PlanItem.a")).execute();
+    assertEquals(planCache.size(), 0);
+  }
+
+  public void testEviction() {
+    final OQueryPlanCache cache = new OQueryPlanCache("OQueryPlanCacheTest", 2);
+    try {
+      final OQueryPlan plan = OQueryPlan.fullScan();
+      cache.put("a", plan, cache.getVersion());
+      cache.put("b", plan, cache.getVersion());
+      cache.get("a");
+      cache.put("c", plan, cache.getVersion());
+
+      assertEquals(cache.getEvictions(), 1);
+      assertEquals(cache.get("a"), plan);
+      assertNull(cache.get("b"));
+
+      // PLANS COMPUTED BEFORE AN INVALIDATION ARE NOT CACHED
+      final long version = cache.getVersion();
+      cache.invalidate();
+      cache.put("d", plan, version);
+      assertEquals(cache.size(), 0);
+    } finally {
+      cache.close();
+    }
+  }
+}
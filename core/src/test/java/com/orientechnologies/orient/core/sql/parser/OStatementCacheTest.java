@@ -28,5 +28,28 @@ public class OStatementCacheTest {
 
   }
 
+  @Test
+  public void testNormalizedStatements() {
+    OStatementCache cache = new OStatementCache(2);
+    cache.get("select from foo where name = 'a  b'");
+    cache.get("  select  from\tfoo\nwhere name =   'a  b' ");
+
+    Assert.assertEquals(cache.getMisses(), 1);
+    Assert.assertEquals(cache.getHits(), 1);
+    Assert.assertFalse(cache.contains("select from foo where name = 'a b'"));
+
+    cache.get("select from bar");
+    cache.get("select from baz");
+    Assert.assertEquals(cache.getEvictions(), 1);
+    Assert.assertEquals(cache.getHitRatio(), 0.25f);
+  }
+
+  @Test
+  public void testNormalize() {
+    Assert.assertEquals(OStatementCache.normalize(" select  from\r\nfoo "), "select from foo");
+    Assert.assertEquals(OStatementCache.normalize("select `my  field` from foo where a = \"x  \\\"  y\""),
+        "select `my  field` from foo where a = \"x  \\\"  y\"");
+  }
+
 
 }
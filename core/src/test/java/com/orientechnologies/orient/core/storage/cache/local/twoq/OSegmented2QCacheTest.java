@@ -0,0 +1,220 @@
+package com.orientechnologies.orient.core.storage.cache.local.twoq;
+
+import com.orientechnologies.common.collection.closabledictionary.OClosableLinkedContainer;
+import com.orientechnologies.common.directmemory.OByteBufferPool;
+import com.orientechnologies.common.serialization.types.OIntegerSerializer;
+import com.orientechnologies.common.serialization.types.OLongSerializer;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
+import com.orientechnologies.orient.core.storage.cache.local.OWOWCache;
+import com.orientechnologies.orient.core.storage.fs.OFileClassic;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Test
+public class OSegmented2QCacheTest {
+  private static final int systemOffset    = OIntegerSerializer.INT_SIZE + 3 * OLongSerializer.LONG_SIZE;
+  private static final int userDataSize    = 8;
+  private static final int PAGE_SIZE       = userDataSize + systemOffset;
+  private static final int SEGMENTS        = 4;
+  private static final int PAGES_COUNT     = 256;
+  private static final int WRITE_CACHE_MAX = 15000 * PAGE_SIZE;
+
+  private OSegmented2QCache readBuffer;
+  private OWOWCache         writeBuffer;
+  private OClosableLinkedContainer<Long, OFileClassic> files = new OClosableLinkedContainer<Long, OFileClassic>(1024);
+
+  private OLocalPaginatedStorage storageLocal;
+  private String                 fileName;
+
+  @BeforeClass
+  public void beforeClass() throws IOException {
+    OGlobalConfiguration.FILE_LOCK.setValue(Boolean.FALSE);
+
+    String buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null)
+      buildDirectory = ".";
+
+    storageLocal = (OLocalPaginatedStorage) Orient.instance().loadStorage("plocal:" + buildDirectory + "/OSegmented2QCacheTest");
+    storageLocal.create(null);
+    storageLocal.close(true, false);
+
+    fileName = "segmented2QCacheTest.tst";
+  }
+
+  @BeforeMethod
+  public void beforeMethod() throws IOException {
+    writeBuffer = new OWOWCache(false, PAGE_SIZE, new OByteBufferPool(PAGE_SIZE), -1, null, -1, WRITE_CACHE_MAX,
+        WRITE_CACHE_MAX + 64 * PAGE_SIZE, storageLocal, false, files, 1);
+    writeBuffer.loadRegisteredFiles();
+
+    readBuffer = new OSegmented2QCache(64 * PAGE_SIZE, PAGE_SIZE, false, 50, SEGMENTS);
+  }
+
+  @AfterMethod
+  public void afterMethod() throws IOException {
+    readBuffer.deleteStorage(writeBuffer);
+    readBuffer.clear();
+    files.clear();
+  }
+
+  @AfterClass
+  public void afterClass() throws IOException {
+    storageLocal.delete();
+  }
+
+  public void testSegmentsCountIsPowerOfTwo() {
+    Assert.assertEquals(new OSegmented2QCache(64 * PAGE_SIZE, PAGE_SIZE, false, 50, 3).getSegmentsCount(), 4);
+    Assert.assertEquals(new OSegmented2QCache(64 * PAGE_SIZE, PAGE_SIZE, false, 50, 1).getSegmentsCount(), 1);
+    Assert.assertEquals(readBuffer.getSegmentsCount(), SEGMENTS);
+  }
+
+  public void testStripeIsPlacedInSingleSegment() throws IOException {
+    final long fileId = readBuffer.addFile(fileName, writeBuffer);
+
+    for (int stripe = 0; stripe < 8; stripe++) {
+      final O2QCache segment = readBuffer.segment(fileId, stripe * OSegmented2QCache.STRIPE_SIZE);
+      for (int i = 1; i < OSegmented2QCache.STRIPE_SIZE; i++) {
+        Assert.assertSame(readBuffer.segment(fileId, stripe * OSegmented2QCache.STRIPE_SIZE + i), segment);
+      }
+    }
+  }
+
+  public void testAllocateAndReadPages() throws IOException {
+    final long fileId = readBuffer.addFile(fileName, writeBuffer);
+
+    for (int i = 0; i < PAGES_COUNT; i++) {
+      final OCacheEntry cacheEntry = readBuffer.allocateNewPage(fileId, writeBuffer);
+      Assert.assertEquals(cacheEntry.getPageIndex(), i);
+
+      writePage(cacheEntry, (byte) i);
+    }
+
+    Assert.assertEquals(writeBuffer.getFilledUpTo(fileId), PAGES_COUNT);
+    Assert.assertTrue(readBuffer.getUsedMemory() <= 64 * PAGE_SIZE);
+
+    for (int i = 0; i < PAGES_COUNT; i++) {
+      final OCacheEntry cacheEntry = readBuffer.load(fileId, i, false, writeBuffer, 4);
+      assertPage(cacheEntry, (byte) i);
+    }
+
+    readBuffer.truncateFile(fileId, writeBuffer);
+    Assert.assertEquals(writeBuffer.getFilledUpTo(fileId), 0);
+    Assert.assertNull(readBuffer.load(fileId, 0, false, writeBuffer, 1));
+  }
+
+  public void testConcurrentReads() throws Exception {
+    final long fileId = readBuffer.addFile(fileName, writeBuffer);
+
+    for (int i = 0; i < PAGES_COUNT; i++) {
+      writePage(readBuffer.allocateNewPage(fileId, writeBuffer), (byte) i);
+    }
+
+    final ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (int n = 0; n < 8; n++) {
+        final int seed = n;
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            for (int i = 0; i < 10000; i++) {
+              final int pageIndex = (i * 31 + seed * 17) % PAGES_COUNT;
+              assertPage(readBuffer.load(fileId, pageIndex, false, writeBuffer, 1), (byte) pageIndex);
+            }
+
+            return null;
+          }
+        }));
+      }
+
+      for (Future<Void> future : futures)
+        future.get();
+    } finally {
+      executor.shutdown();
+    }
+
+    for (int i = 0; i < PAGES_COUNT; i++)
+      assertPage(readBuffer.load(fileId, i, false, writeBuffer, 1), (byte) i);
+  }
+
+  public void testStoreAndLoadCacheState() throws Exception {
+    final long fileId = readBuffer.addFile(fileName, writeBuffer);
+
+    for (int i = 0; i < 32; i++) {
+      writePage(readBuffer.allocateNewPage(fileId, writeBuffer), (byte) i);
+    }
+
+    final long usedMemory = readBuffer.getUsedMemory();
+
+    readBuffer.storeCacheState(writeBuffer);
+    readBuffer.closeStorage(writeBuffer);
+
+    for (int i = 0; i < SEGMENTS; i++) {
+      Assert.assertTrue(new File(storageLocal.getConfiguration().getDirectory(), "cache." + SEGMENTS + "." + i + ".stt").exists());
+    }
+
+    beforeMethod();
+    readBuffer.loadCacheState(writeBuffer);
+
+    final long start = System.currentTimeMillis();
+    while (readBuffer.isWarmUpInProgress()) {
+      Thread.sleep(10);
+
+      //wait no more than 1 min
+      if (System.currentTimeMillis() - start > 60 * 1000) {
+        Assert.assertFalse(readBuffer.isWarmUpInProgress());
+      }
+    }
+
+    Assert.assertEquals(readBuffer.getUsedMemory(), usedMemory);
+    Assert.assertEquals(readBuffer.getWarmUpPagesProcessed(), readBuffer.getWarmUpPagesTotal());
+    Assert.assertEquals(readBuffer.getAmSize() + readBuffer.getA1InSize(), usedMemory / PAGE_SIZE);
+  }
+
+  private void writePage(OCacheEntry cacheEntry, byte value) {
+    cacheEntry.acquireExclusiveLock();
+    try {
+      final ByteBuffer buffer = cacheEntry.getCachePointer().getSharedBuffer();
+      buffer.position(systemOffset);
+      buffer.put(new byte[] { value, 1, 2, 3, 4, 5, 6, value });
+
+      cacheEntry.markDirty();
+    } finally {
+      cacheEntry.releaseExclusiveLock();
+      readBuffer.release(cacheEntry, writeBuffer);
+    }
+  }
+
+  private void assertPage(OCacheEntry cacheEntry, byte value) {
+    Assert.assertNotNull(cacheEntry);
+    cacheEntry.acquireSharedLock();
+    try {
+      final ByteBuffer buffer = cacheEntry.getCachePointer().getSharedBuffer();
+      final byte[] data = new byte[userDataSize];
+      for (int i = 0; i < data.length; i++)
+        data[i] = buffer.get(systemOffset + i);
+
+      Assert.assertEquals(data, new byte[] { value, 1, 2, 3, 4, 5, 6, value });
+    } finally {
+      cacheEntry.releaseSharedLock();
+      readBuffer.release(cacheEntry, writeBuffer);
+    }
+  }
+}
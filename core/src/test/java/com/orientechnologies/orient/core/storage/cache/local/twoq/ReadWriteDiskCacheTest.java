@@ -557,6 +557,80 @@ public class ReadWriteDiskCacheTest {
     Assert.assertNotNull(a1in.get(fileId, 0));
   }
 
+  public void testReadAheadPagesAreKeptInA1inOnly() throws Exception {
+    final long fileId = readBuffer.addFile(fileName, writeBuffer);
+    Assert.assertEquals(readBuffer.getMaxSize(), 4);
+
+    for (int i = 0; i < 8; i++) {
+      OCacheEntry cacheEntry = readBuffer.allocateNewPage(fileId, writeBuffer);
+      cacheEntry.acquireExclusiveLock();
+      try {
+        final ByteBuffer buffer = cacheEntry.getCachePointer().getSharedBuffer();
+        buffer.position(systemOffset);
+        buffer.put(new byte[] { (byte) i, 1, 2, seed, 4, 5, 6, 7 });
+
+        cacheEntry.markDirty();
+      } finally {
+        cacheEntry.releaseExclusiveLock();
+        readBuffer.release(cacheEntry, writeBuffer);
+      }
+    }
+
+    readBuffer.clear();
+    writeBuffer.flush();
+
+    LRUList am = readBuffer.getAm();
+    LRUList a1in = readBuffer.getA1in();
+    LRUList a1out = readBuffer.getA1out();
+
+    readBuffer.readAhead(fileId, 0, 8, writeBuffer);
+
+    //pages 0 - 3 are evicted because of size limit, and they are not remembered in a1out queue because they were not used
+    Assert.assertEquals(am.size(), 0);
+    Assert.assertEquals(a1out.size(), 0);
+    Assert.assertEquals(a1in.size(), 4);
+    for (int i = 4; i < 8; i++)
+      Assert.assertTrue(a1in.get(fileId, i).isPrefetched());
+
+    Assert.assertEquals(readBuffer.getReadAheadPages(), 8);
+    Assert.assertEquals(readBuffer.getReadAheadHits(), 0);
+
+    OCacheEntry cacheEntry = readBuffer.load(fileId, 5, false, writeBuffer, 1);
+    final ByteBuffer buffer = cacheEntry.getCachePointer().getSharedBuffer();
+    buffer.position(systemOffset);
+    final byte[] userData = new byte[userDataSize];
+    buffer.get(userData);
+    readBuffer.release(cacheEntry, writeBuffer);
+
+    Assert.assertEquals(userData, new byte[] { 5, 1, 2, seed, 4, 5, 6, 7 });
+    Assert.assertFalse(a1in.get(fileId, 5).isPrefetched());
+    Assert.assertEquals(readBuffer.getReadAheadHits(), 1);
+    Assert.assertEquals(readBuffer.getReadAheadHitRatio(), 12.5);
+
+    //page 4 is evicted to free space for page 0, it was not used so it is not moved into a1out queue
+    cacheEntry = readBuffer.load(fileId, 0, false, writeBuffer, 1);
+    readBuffer.release(cacheEntry, writeBuffer);
+
+    Assert.assertEquals(am.size(), 0);
+    Assert.assertEquals(a1out.size(), 0);
+    Assert.assertEquals(a1in.size(), 4);
+    Assert.assertNull(a1in.get(fileId, 4));
+
+    //pages which are already in cache are not loaded again
+    readBuffer.readAhead(fileId, 5, 3, writeBuffer);
+    Assert.assertEquals(readBuffer.getReadAheadPages(), 8);
+
+    readBuffer.clear();
+    readBuffer.prefetch(fileId, 0, 2, writeBuffer);
+
+    final long start = System.currentTimeMillis();
+    while (readBuffer.getReadAheadPages() < 10 && System.currentTimeMillis() - start < 60 * 1000)
+      Thread.sleep(10);
+
+    Assert.assertEquals(readBuffer.getReadAheadPages(), 10);
+    Assert.assertEquals(a1in.size(), 2);
+  }
+
   public void testStoreCacheState() throws Exception {
     final long fileId = readBuffer.addFile(fileName, writeBuffer);
     Assert.assertEquals(readBuffer.getMaxSize(), 4);
@@ -628,7 +702,14 @@ public class ReadWriteDiskCacheTest {
     Assert.assertTrue(stateFile.exists());
 
     initBuffer();
-    readBuffer.loadCacheState(writeBuffer);
+
+    final boolean loadInBackground = OGlobalConfiguration.STORAGE_KEEP_DISK_CACHE_STATE_IN_BACKGROUND.getValueAsBoolean();
+    OGlobalConfiguration.STORAGE_KEEP_DISK_CACHE_STATE_IN_BACKGROUND.setValue(false);
+    try {
+      readBuffer.loadCacheState(writeBuffer);
+    } finally {
+      OGlobalConfiguration.STORAGE_KEEP_DISK_CACHE_STATE_IN_BACKGROUND.setValue(loadInBackground);
+    }
 
     am = readBuffer.getAm();
     a1in = readBuffer.getA1in();
@@ -662,6 +743,119 @@ public class ReadWriteDiskCacheTest {
 
   }
 
+  public void testLoadCacheStateInBackground() throws Exception {
+    final long fileId = readBuffer.addFile(fileName, writeBuffer);
+    Assert.assertEquals(readBuffer.getMaxSize(), 4);
+
+    for (int i = 0; i < 8; i++) {
+      OCacheEntry cacheEntry = readBuffer.allocateNewPage(fileId, writeBuffer);
+      cacheEntry.acquireExclusiveLock();
+      try {
+        byte[] userData = new byte[userDataSize];
+        for (int n = 0; n < userData.length; n++) {
+          userData[n] = (byte) (i + 1);
+        }
+
+        final ByteBuffer buffer = cacheEntry.getCachePointer().getSharedBuffer();
+        buffer.position(systemOffset);
+        buffer.put(userData);
+
+        setLsn(buffer, new OLogSequenceNumber(1, i));
+
+        cacheEntry.markDirty();
+      } finally {
+        cacheEntry.releaseExclusiveLock();
+        readBuffer.release(cacheEntry, writeBuffer);
+      }
+    }
+
+    readBuffer.clear();
+    writeBuffer.flush();
+
+    //page 1 in am queue, pages 2 - 3 in a1out queue, pages 4 - 6 in a1in queue
+    for (int i = 0; i < 7; i++) {
+      OCacheEntry cacheEntry = readBuffer.load(fileId, i, false, writeBuffer, 1);
+      readBuffer.release(cacheEntry, writeBuffer);
+    }
+
+    OCacheEntry cacheEntry = readBuffer.load(fileId, 1, false, writeBuffer, 1);
+    readBuffer.release(cacheEntry, writeBuffer);
+
+    readBuffer.storeCacheState(writeBuffer);
+    readBuffer.closeStorage(writeBuffer);
+
+    initBuffer();
+    readBuffer.loadCacheState(writeBuffer);
+
+    //queue of stubs is restored before storage is opened
+    Assert.assertEquals(readBuffer.getA1out().size(), 2);
+
+    waitForCacheStateLoad();
+
+    Assert.assertEquals(readBuffer.getAmSize(), 1);
+    Assert.assertEquals(readBuffer.getA1OutSize(), 2);
+    Assert.assertEquals(readBuffer.getA1InSize(), 3);
+
+    Assert.assertEquals(readBuffer.getWarmUpPagesTotal(), 4);
+    Assert.assertEquals(readBuffer.getWarmUpPagesProcessed(), 4);
+    Assert.assertEquals(readBuffer.getWarmUpProgress(), 100.0);
+
+    for (OCacheEntry entry : readBuffer.getAm()) {
+      Assert.assertEquals(entry.getPageIndex(), 1);
+      Assert.assertNotNull(entry.getCachePointer());
+    }
+
+    for (OCacheEntry entry : readBuffer.getA1in()) {
+      Assert.assertTrue(entry.getPageIndex() >= 4 && entry.getPageIndex() <= 6);
+      Assert.assertNotNull(entry.getCachePointer());
+    }
+
+    for (int i = 1; i < 7; i++) {
+      cacheEntry = readBuffer.load(fileId, i, false, writeBuffer, 1);
+      try {
+        final ByteBuffer buffer = cacheEntry.getCachePointer().getSharedBuffer();
+        Assert.assertEquals(buffer.get(systemOffset), (byte) (i + 1));
+      } finally {
+        readBuffer.release(cacheEntry, writeBuffer);
+      }
+    }
+  }
+
+  public void testCloseStorageStopsCacheStateLoad() throws Exception {
+    final long fileId = readBuffer.addFile(fileName, writeBuffer);
+
+    for (int i = 0; i < 4; i++) {
+      OCacheEntry cacheEntry = readBuffer.allocateNewPage(fileId, writeBuffer);
+      cacheEntry.markDirty();
+      readBuffer.release(cacheEntry, writeBuffer);
+    }
+
+    readBuffer.storeCacheState(writeBuffer);
+    readBuffer.closeStorage(writeBuffer);
+
+    initBuffer();
+    readBuffer.loadCacheState(writeBuffer);
+    readBuffer.closeStorage(writeBuffer);
+
+    Assert.assertFalse(readBuffer.isWarmUpInProgress());
+    Assert.assertEquals(readBuffer.getUsedMemory(), 0);
+    Assert.assertTrue(readBuffer.getWarmUpPagesProcessed() <= readBuffer.getWarmUpPagesTotal());
+
+    initBuffer();
+  }
+
+  private void waitForCacheStateLoad() throws InterruptedException {
+    final long start = System.currentTimeMillis();
+    while (readBuffer.isWarmUpInProgress()) {
+      Thread.sleep(10);
+
+      //wait no more than 1 min
+      if (System.currentTimeMillis() - start > 60 * 1000) {
+        Assert.assertFalse(readBuffer.isWarmUpInProgress());
+      }
+    }
+  }
+
   public void testPrefetchPagesInPinnedPages() throws Exception {
     final long fileId = readBuffer.addFile(fileName, writeBuffer);
     Assert.assertEquals(readBuffer.getMaxSize(), 4);
@@ -266,6 +266,11 @@ public class PageCacheTest {
       return pointers == null || pointers.length == 0 ? null : new OCacheEntry(fileId, pageIndex, pointers[0], false);
     }
 
+    @Override
+    public void prefetch(long fileId, long pageIndex, int pageCount, OWriteCache writeCache) {
+
+    }
+
     @Override
     public void pinPage(OCacheEntry cacheEntry) throws IOException {
 
@@ -289,6 +294,11 @@ public class PageCacheTest {
       return 0;
     }
 
+    @Override
+    public void changeMaximumAmountOfMemory(long readCacheMaxMemory) {
+
+    }
+
     @Override
     public void clear() {
 
@@ -614,6 +624,11 @@ public class PageCacheTest {
       return null;
     }
 
+    @Override
+    public void waitForGroupCommit(OLogSequenceNumber lsn) {
+
+    }
+
     @Override
     public OLogSequenceNumber log(OWALRecord record) throws IOException {
       return new OLogSequenceNumber(0, 0);
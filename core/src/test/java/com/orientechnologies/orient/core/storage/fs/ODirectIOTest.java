@@ -0,0 +1,139 @@
+package com.orientechnologies.orient.core.storage.fs;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+@Test
+public class ODirectIOTest {
+  private static final int BLOCK_SIZE = ODirectIO.DEFAULT_BLOCK_SIZE;
+
+  public void testAllocateAligned() {
+    final ByteBuffer buffer = ODirectIO.allocateAligned(3 * BLOCK_SIZE, BLOCK_SIZE);
+
+    Assert.assertEquals(buffer.capacity(), 3 * BLOCK_SIZE);
+    Assert.assertEquals(buffer.order(), ByteOrder.nativeOrder());
+    Assert.assertTrue(ODirectIO.isAligned(0, buffer, BLOCK_SIZE));
+    Assert.assertTrue(ODirectIO.isAligned(BLOCK_SIZE, buffer, BLOCK_SIZE));
+  }
+
+  public void testIsAligned() {
+    final ByteBuffer buffer = ODirectIO.allocateAligned(2 * BLOCK_SIZE, BLOCK_SIZE);
+
+    Assert.assertFalse(ODirectIO.isAligned(1024, buffer, BLOCK_SIZE));
+    Assert.assertFalse(ODirectIO.isAligned(0, ByteBuffer.allocate(BLOCK_SIZE), BLOCK_SIZE));
+
+    buffer.position(BLOCK_SIZE);
+    Assert.assertTrue(ODirectIO.isAligned(0, buffer, BLOCK_SIZE));
+
+    buffer.position(512);
+    Assert.assertFalse(ODirectIO.isAligned(0, buffer, BLOCK_SIZE));
+
+    buffer.position(0);
+    buffer.limit(BLOCK_SIZE + 512);
+    Assert.assertFalse(ODirectIO.isAligned(0, buffer, BLOCK_SIZE));
+  }
+
+  public void testAllocateAlignedWithOffset() {
+    final ByteBuffer buffer = ODirectIO.allocateAligned(2 * BLOCK_SIZE, BLOCK_SIZE, 1024);
+
+    Assert.assertEquals(buffer.capacity(), 2 * BLOCK_SIZE);
+    Assert.assertFalse(ODirectIO.isAligned(0, buffer, BLOCK_SIZE));
+
+    buffer.position(BLOCK_SIZE - 1024);
+    buffer.limit(2 * BLOCK_SIZE - 1024);
+    Assert.assertTrue(ODirectIO.isAligned(0, buffer, BLOCK_SIZE));
+  }
+
+  public void testOpenChannel() throws IOException {
+    final File file = createFile("directIOTest.tst");
+    try {
+      final FileChannel channel = ODirectIO.openChannel(file, false);
+      if (!ODirectIO.isSupported()) {
+        Assert.assertNull(channel);
+        return;
+      }
+
+      // file system may not support direct I/O
+      if (channel != null)
+        channel.close();
+    } finally {
+      file.delete();
+    }
+  }
+
+  public void testFileIsReadAndWrittenIfDirectIOIsEnabled() throws IOException {
+    final boolean directIO = OGlobalConfiguration.FILE_DIRECT_IO.getValueAsBoolean();
+    OGlobalConfiguration.FILE_DIRECT_IO.setValue(true);
+
+    final File file = createFile("directIOFileTest.tst");
+    file.delete();
+
+    final OFileClassic fileClassic = new OFileClassic(file.getAbsolutePath(), "rw");
+    try {
+      fileClassic.create();
+      if (!ODirectIO.isSupported())
+        Assert.assertFalse(fileClassic.isDirectIO());
+
+      final int pageSize = 4 * BLOCK_SIZE;
+      fileClassic.allocateSpace(4 * pageSize);
+
+      final Random random = new Random();
+      final byte[][] pages = new byte[4][pageSize];
+      for (int i = 0; i < pages.length; i++) {
+        random.nextBytes(pages[i]);
+
+        final ByteBuffer buffer = ODirectIO.allocateAligned(pageSize, BLOCK_SIZE, OFileClassic.HEADER_SIZE);
+        buffer.put(pages[i]);
+        buffer.flip();
+
+        fileClassic.write(i * pageSize, buffer);
+      }
+
+      for (int i = 0; i < pages.length; i++) {
+        final ByteBuffer buffer = ODirectIO.allocateAligned(pageSize, BLOCK_SIZE, OFileClassic.HEADER_SIZE);
+        fileClassic.read(i * pageSize, buffer);
+
+        final byte[] content = new byte[pageSize];
+        buffer.flip();
+        buffer.get(content);
+        Assert.assertEquals(content, pages[i]);
+      }
+
+      final byte[] content = new byte[pageSize];
+      fileClassic.read(pageSize, content, content.length);
+      Assert.assertEquals(content, pages[1]);
+
+      final ByteBuffer[] buffers = new ByteBuffer[3];
+      for (int i = 0; i < buffers.length; i++)
+        buffers[i] = ODirectIO.allocateAligned(pageSize, BLOCK_SIZE, OFileClassic.HEADER_SIZE);
+
+      Assert.assertEquals(fileClassic.read(2 * pageSize, buffers), 2 * pageSize);
+      buffers[1].flip();
+      buffers[1].get(content);
+      Assert.assertEquals(content, pages[3]);
+    } finally {
+      fileClassic.delete();
+      OGlobalConfiguration.FILE_DIRECT_IO.setValue(directIO);
+    }
+  }
+
+  private static File createFile(String name) throws IOException {
+    String buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null || buildDirectory.isEmpty())
+      buildDirectory = ".";
+
+    final File file = new File(buildDirectory, name);
+    if (!file.exists())
+      Assert.assertTrue(file.createNewFile());
+
+    return file;
+  }
+}
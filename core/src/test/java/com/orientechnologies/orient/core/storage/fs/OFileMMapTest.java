@@ -0,0 +1,190 @@
+package com.orientechnologies.orient.core.storage.fs;
+
+import com.orientechnologies.common.io.OIOException;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+@Test
+public class OFileMMapTest {
+  private static final int WINDOW_SIZE = 4096;
+  private static final int PAGE_SIZE   = 1024;
+
+  private File      file;
+  private OFileMMap fileMMap;
+
+  @BeforeMethod
+  public void beforeMethod() throws IOException {
+    String buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null || buildDirectory.isEmpty())
+      buildDirectory = ".";
+
+    file = new File(buildDirectory, "fileMMapTest.tst");
+    if (file.exists())
+      file.delete();
+
+    fileMMap = new OFileMMap(file.getAbsolutePath(), "rw", WINDOW_SIZE);
+    fileMMap.create();
+  }
+
+  @AfterMethod
+  public void afterMethod() throws IOException {
+    fileMMap.delete();
+  }
+
+  public void testReadWrittenPages() throws IOException {
+    final byte[][] pages = writePages(0, 16);
+
+    for (int i = 0; i < pages.length; i++)
+      assertPage(i, pages[i]);
+
+    Assert.assertEquals(fileMMap.getMappedWindowsCount(), 16 * PAGE_SIZE / WINDOW_SIZE);
+  }
+
+  public void testReadPageWhichCrossesWindowBoundary() throws IOException {
+    writePages(0, 8);
+
+    final byte[] data = new byte[PAGE_SIZE];
+    new Random().nextBytes(data);
+    fileMMap.write(WINDOW_SIZE - PAGE_SIZE / 2, data, data.length, 0);
+
+    final byte[] content = new byte[PAGE_SIZE];
+    fileMMap.read(WINDOW_SIZE - PAGE_SIZE / 2, content, content.length);
+
+    Assert.assertEquals(content, data);
+  }
+
+  public void testUpdateIsVisibleInMappedWindow() throws IOException {
+    final byte[][] pages = writePages(0, 4);
+    assertPage(0, pages[0]);
+
+    final byte[] data = new byte[PAGE_SIZE];
+    new Random().nextBytes(data);
+    fileMMap.write(0, ByteBuffer.wrap(data));
+
+    assertPage(0, data);
+  }
+
+  public void testWindowIsRemappedWhenFileGrows() throws IOException {
+    final byte[][] firstPages = writePages(0, 2);
+    assertPage(1, firstPages[1]);
+
+    final byte[][] nextPages = writePages(2, 2);
+    assertPage(3, nextPages[1]);
+    assertPage(0, firstPages[0]);
+
+    Assert.assertEquals(fileMMap.getMappedWindowsCount(), 1);
+  }
+
+  public void testReadSeveralPages() throws IOException {
+    final byte[][] pages = writePages(0, 10);
+
+    final ByteBuffer[] buffers = new ByteBuffer[12];
+    for (int i = 0; i < buffers.length; i++)
+      buffers[i] = ByteBuffer.allocateDirect(PAGE_SIZE);
+
+    final long bytesRead = fileMMap.read(2 * PAGE_SIZE, buffers);
+    Assert.assertEquals(bytesRead, 8 * PAGE_SIZE);
+
+    for (int i = 0; i < 8; i++) {
+      final byte[] content = new byte[PAGE_SIZE];
+      buffers[i].position(0);
+      buffers[i].get(content);
+
+      Assert.assertEquals(content, pages[i + 2]);
+    }
+  }
+
+  public void testShrinkUnmapsWindows() throws IOException {
+    final byte[][] pages = writePages(0, 16);
+    assertPage(15, pages[15]);
+
+    fileMMap.shrink(4 * PAGE_SIZE);
+    Assert.assertEquals(fileMMap.getMappedWindowsCount(), 0);
+
+    assertPage(3, pages[3]);
+
+    try {
+      readPage(4);
+      Assert.fail();
+    } catch (OIOException e) {
+      Assert.assertTrue(true);
+    }
+  }
+
+  public void testCloseAndOpen() throws IOException {
+    final byte[][] pages = writePages(0, 8);
+    assertPage(7, pages[7]);
+
+    fileMMap.close();
+    Assert.assertEquals(fileMMap.getMappedWindowsCount(), 0);
+
+    fileMMap.open();
+    for (int i = 0; i < pages.length; i++)
+      assertPage(i, pages[i]);
+  }
+
+  public void testRenameToUnmapsWindows() throws IOException {
+    final byte[][] pages = writePages(0, 8);
+    assertPage(7, pages[7]);
+
+    final File renamed = new File(file.getParentFile(), "fileMMapTestRenamed.tst");
+    if (renamed.exists())
+      renamed.delete();
+
+    Assert.assertTrue(fileMMap.renameTo(renamed));
+    Assert.assertEquals(fileMMap.getMappedWindowsCount(), 0);
+
+    for (int i = 0; i < pages.length; i++)
+      assertPage(i, pages[i]);
+  }
+
+  public void testDeleteUnmapsWindows() throws IOException {
+    final byte[][] pages = writePages(0, 8);
+    assertPage(7, pages[7]);
+
+    fileMMap.delete();
+    Assert.assertEquals(fileMMap.getMappedWindowsCount(), 0);
+    Assert.assertFalse(file.exists());
+
+    fileMMap.create();
+  }
+
+  private byte[][] writePages(int startPage, int count) throws IOException {
+    final Random random = new Random();
+    final byte[][] pages = new byte[count][];
+
+    fileMMap.allocateSpace(count * PAGE_SIZE);
+
+    for (int i = 0; i < count; i++) {
+      final byte[] data = new byte[PAGE_SIZE];
+      random.nextBytes(data);
+
+      fileMMap.write((long) (startPage + i) * PAGE_SIZE, ByteBuffer.wrap(data));
+      pages[i] = data;
+    }
+
+    return pages;
+  }
+
+  private byte[] readPage(int pageIndex) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(PAGE_SIZE);
+    fileMMap.read((long) pageIndex * PAGE_SIZE, buffer);
+
+    final byte[] content = new byte[PAGE_SIZE];
+    buffer.position(0);
+    buffer.get(content);
+
+    return content;
+  }
+
+  private void assertPage(int pageIndex, byte[] data) throws IOException {
+    Assert.assertEquals(readPage(pageIndex), data);
+  }
+}
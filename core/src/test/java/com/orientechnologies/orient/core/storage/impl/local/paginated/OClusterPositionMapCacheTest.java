@@ -0,0 +1,58 @@
+package com.orientechnologies.orient.core.storage.impl.local.paginated;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test
+public class OClusterPositionMapCacheTest {
+  public void testPutGetRemove() {
+    final OClusterPositionMapCache cache = new OClusterPositionMapCache(1000);
+    Assert.assertEquals(cache.getSize(), 1024);
+    Assert.assertNull(cache.get(1));
+
+    for (long i = 0; i < 1024; i++)
+      cache.put(i, new OClusterPositionMapBucket.PositionEntry(i * 3, (int) (i % 100)));
+
+    for (long i = 0; i < 1024; i++) {
+      final OClusterPositionMapBucket.PositionEntry entry = cache.get(i);
+      Assert.assertNotNull(entry);
+      Assert.assertEquals(entry.getPageIndex(), i * 3);
+      Assert.assertEquals(entry.getRecordPosition(), (int) (i % 100));
+    }
+
+    cache.remove(10);
+    Assert.assertNull(cache.get(10));
+    Assert.assertNotNull(cache.get(11));
+
+    cache.clear();
+    Assert.assertNull(cache.get(11));
+  }
+
+  public void testEntriesWithTheSameSlotReplaceEachOther() {
+    final OClusterPositionMapCache cache = new OClusterPositionMapCache(16);
+
+    cache.put(5, new OClusterPositionMapBucket.PositionEntry(1, 1));
+    cache.put(21, new OClusterPositionMapBucket.PositionEntry(2, 2));
+
+    Assert.assertNull(cache.get(5));
+    Assert.assertEquals(cache.get(21).getPageIndex(), 2);
+
+    // removal of absent entry should not remove entry which occupies the same slot
+    cache.remove(5);
+    Assert.assertEquals(cache.get(21).getPageIndex(), 2);
+  }
+
+  public void testEntriesWhichDoNotFitAreNotCached() {
+    final OClusterPositionMapCache cache = new OClusterPositionMapCache(16);
+
+    cache.put(Long.MAX_VALUE, new OClusterPositionMapBucket.PositionEntry(1, 1));
+    Assert.assertNull(cache.get(Long.MAX_VALUE));
+
+    cache.put(3, new OClusterPositionMapBucket.PositionEntry(1, 1));
+    cache.put(3, new OClusterPositionMapBucket.PositionEntry(1L << 40, 1));
+    Assert.assertNull(cache.get(3));
+
+    cache.put(4, new OClusterPositionMapBucket.PositionEntry(1, 1 << 20));
+    Assert.assertNull(cache.get(4));
+  }
+}
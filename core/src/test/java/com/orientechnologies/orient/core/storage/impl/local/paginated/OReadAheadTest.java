@@ -0,0 +1,68 @@
+package com.orientechnologies.orient.core.storage.impl.local.paginated;
+
+import com.orientechnologies.orient.core.storage.cache.OReadCache;
+import com.orientechnologies.orient.core.storage.cache.OWriteCache;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+@Test
+public class OReadAheadTest {
+  private OReadCache  readCache;
+  private OWriteCache writeCache;
+  private OReadAhead  readAhead;
+
+  @BeforeMethod
+  public void beforeMethod() {
+    readCache = mock(OReadCache.class);
+    writeCache = mock(OWriteCache.class);
+    readAhead = new OReadAhead(readCache, writeCache, 16);
+  }
+
+  public void testRandomReadsDoNotStartReadAhead() {
+    readAhead.pageRead(1, 10, false);
+    readAhead.pageRead(1, 50, false);
+    readAhead.pageRead(1, 20, false);
+    readAhead.pageRead(1, 21, false);
+    readAhead.pageRead(1, 21, false);
+    readAhead.pageRead(2, 22, false);
+
+    verifyNoMoreInteractions(readCache);
+  }
+
+  public void testReadAheadIsGrownDuringSequentialScan() {
+    readAhead.pageRead(1, 0, false);
+    readAhead.pageRead(1, 1, false);
+    readAhead.pageRead(1, 1, false);
+    readAhead.pageRead(1, 2, false);
+
+    verify(readCache).prefetch(1, 3, OReadAhead.MIN_PAGES, writeCache);
+
+    readAhead.pageRead(1, 3, false);
+    verifyNoMoreInteractions(readCache);
+
+    readAhead.pageRead(1, 4, false);
+    verify(readCache).prefetch(1, 7, 6, writeCache);
+    Assert.assertEquals(readAhead.getPages(), 8);
+
+    readAhead.pageRead(1, 8, false);
+    verify(readCache).prefetch(1, 13, 12, writeCache);
+    Assert.assertEquals(readAhead.getPages(), 16);
+
+    readAhead.pageRead(1, 100, false);
+    Assert.assertEquals(readAhead.getPages(), OReadAhead.MIN_PAGES);
+    verifyNoMoreInteractions(readCache);
+  }
+
+  public void testScanStartsReadAheadImmediately() {
+    readAhead.pageRead(1, 0, true);
+    verify(readCache).prefetch(1, 1, OReadAhead.MIN_PAGES, writeCache);
+
+    readAhead.pageRead(2, 10, true);
+    verify(readCache).prefetch(2, 11, OReadAhead.MIN_PAGES, writeCache);
+  }
+}
@@ -1,5 +1,6 @@
 package com.orientechnologies.orient.core.storage.impl.local.paginated.wal;
 
+import com.orientechnologies.common.serialization.types.OShortSerializer;
 import com.orientechnologies.orient.core.Orient;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
@@ -184,6 +185,62 @@ public class OWALPageChangesPortionTest {
 
   }
 
+  public void testSequentialChunksAreMergedInRuns() {
+    final byte[] data = new byte[65536];
+    final ByteBuffer pointer = ByteBuffer.wrap(data);
+
+    final OWALPageChangesPortion changesCollector = new OWALPageChangesPortion(65536);
+    final byte[] changes = new byte[4096];
+
+    Random random = new Random();
+    random.nextBytes(changes);
+
+    changesCollector.setBinaryValue(pointer, changes, 1000);
+
+    final int chunks = (1000 + 4096 - 1) / OWALPageChangesPortion.CHUNK_SIZE - 1000 / OWALPageChangesPortion.CHUNK_SIZE + 1;
+    final int size = changesCollector.serializedSize();
+    Assert.assertEquals(size, OShortSerializer.SHORT_SIZE + 2 * OShortSerializer.SHORT_SIZE + chunks * OWALPageChangesPortion.CHUNK_SIZE);
+
+    final byte[] content = new byte[size];
+    Assert.assertEquals(changesCollector.toStream(0, content), size);
+    Assert.assertEquals(OShortSerializer.INSTANCE.deserializeNative(content, 0), -1);
+
+    final OWALPageChangesPortion restored = new OWALPageChangesPortion(65536);
+    Assert.assertEquals(restored.fromStream(0, content), size);
+
+    final ByteBuffer newBuffer = ByteBuffer.wrap(new byte[65536]);
+    restored.applyChanges(newBuffer);
+
+    final byte[] expected = new byte[65536];
+    changesCollector.applyChanges(ByteBuffer.wrap(expected));
+
+    Assert.assertEquals(newBuffer.array(), expected);
+    Assert.assertEquals(restored.getBinaryValue(newBuffer, 1000, 4096), changes);
+  }
+
+  public void testSparseChunksAreSerializedSeparately() {
+    final byte[] data = new byte[4096];
+    final ByteBuffer pointer = ByteBuffer.wrap(data);
+
+    final OWALPageChangesPortion changesCollector = new OWALPageChangesPortion(4096);
+    for (int i = 0; i < 4096 / OWALPageChangesPortion.CHUNK_SIZE; i += 2)
+      changesCollector.setLongValue(pointer, i + 1, i * OWALPageChangesPortion.CHUNK_SIZE);
+
+    final int size = changesCollector.serializedSize();
+    final byte[] content = new byte[size];
+    Assert.assertEquals(changesCollector.toStream(0, content), size);
+    Assert.assertEquals(OShortSerializer.INSTANCE.deserializeNative(content, 0), 4096 / OWALPageChangesPortion.CHUNK_SIZE / 2);
+
+    final OWALPageChangesPortion restored = new OWALPageChangesPortion(4096);
+    Assert.assertEquals(restored.fromStream(0, content), size);
+
+    final ByteBuffer newBuffer = ByteBuffer.wrap(new byte[4096]);
+    restored.applyChanges(newBuffer);
+
+    for (int i = 0; i < 4096 / OWALPageChangesPortion.CHUNK_SIZE; i += 2)
+      Assert.assertEquals(restored.getLongValue(newBuffer, i * OWALPageChangesPortion.CHUNK_SIZE), i + 1);
+  }
+
   public void testEmptyChanges() {
     OWALPageChangesPortion changesCollector = new OWALPageChangesPortion(1024);
     int size = changesCollector.serializedSize();
@@ -1,8 +1,12 @@
 package com.orientechnologies.orient.core.storage.impl.local.paginated.wal;
 
+import com.orientechnologies.orient.core.compression.OCompressionFactory;
+import com.orientechnologies.orient.core.compression.impl.OGZIPCompression;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.nio.ByteBuffer;
+
 /**
  * @author Andrey Lomakin
  * @since 29.04.13
@@ -49,4 +53,41 @@ public class UpdatePageRecordTest {
     Assert.assertEquals(restoredUpdatePageRecord, serializedUpdatePageRecord);
   }
 
+  public void testCompressedSerialization() {
+    final byte[] data = new byte[65536];
+    final OWALPageChangesPortion changes = new OWALPageChangesPortion(65536);
+    for (int i = 0; i < 1024; i++)
+      changes.setIntValue(ByteBuffer.wrap(data), i, 4096 + i * 4);
+
+    final OUpdatePageRecord record = new OUpdatePageRecord(12, 100, OOperationUnitId.generateId(), changes);
+
+    final byte[] content = OWALRecordsFactory.INSTANCE.toStream(record);
+    final byte[] compressed = OWALRecordsFactory.INSTANCE
+        .compress(content, OCompressionFactory.INSTANCE.getCompression(OGZIPCompression.NAME, null));
+
+    Assert.assertTrue(compressed.length < content.length);
+
+    final OUpdatePageRecord restored = (OUpdatePageRecord) OWALRecordsFactory.INSTANCE.fromStream(compressed);
+    Assert.assertEquals(restored.getPageIndex(), 12);
+    Assert.assertEquals(restored.getFileId(), 100);
+    Assert.assertEquals(restored.getOperationUnitId(), record.getOperationUnitId());
+
+    final ByteBuffer restoredPage = ByteBuffer.wrap(new byte[65536]);
+    restored.getChanges().applyChanges(restoredPage);
+    for (int i = 0; i < 1024; i++)
+      Assert.assertEquals(restored.getChanges().getIntValue(restoredPage, 4096 + i * 4), i);
+
+    final OUpdatePageRecord notCompressed = (OUpdatePageRecord) OWALRecordsFactory.INSTANCE.fromStream(content);
+    Assert.assertEquals(notCompressed.getOperationUnitId(), record.getOperationUnitId());
+  }
+
+  public void testIncompressibleContentIsNotCompressed() {
+    final OUpdatePageRecord record = new OUpdatePageRecord(12, 100, OOperationUnitId.generateId(), new OWALPageChangesPortion());
+
+    final byte[] content = OWALRecordsFactory.INSTANCE.toStream(record);
+    final byte[] compressed = OWALRecordsFactory.INSTANCE
+        .compress(content, OCompressionFactory.INSTANCE.getCompression(OGZIPCompression.NAME, null));
+
+    Assert.assertSame(compressed, content);
+  }
 }
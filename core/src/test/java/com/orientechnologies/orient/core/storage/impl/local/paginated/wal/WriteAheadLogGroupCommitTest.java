@@ -0,0 +1,164 @@
+package com.orientechnologies.orient.core.storage.impl.local.paginated.wal;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.config.OStorageConfiguration;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
+import com.orientechnologies.orient.core.storage.impl.local.statistic.OPerformanceStatisticManager;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Test
+public class WriteAheadLogGroupCommitTest {
+  private static final int THREADS              = 8;
+  private static final int OPERATIONS_PER_THREAD = 200;
+
+  private ODiskWriteAheadLog writeAheadLog;
+  private File               testDir;
+
+  private boolean groupCommit;
+  private int     maxBatchSize;
+  private int     maxWait;
+
+  @BeforeClass
+  public void beforeClass() {
+    String buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null || buildDirectory.isEmpty())
+      buildDirectory = ".";
+
+    testDir = new File(buildDirectory, "writeAheadLogGroupCommitTest");
+    if (!testDir.exists())
+      testDir.mkdir();
+
+    groupCommit = OGlobalConfiguration.WAL_GROUP_COMMIT.getValueAsBoolean();
+    maxBatchSize = OGlobalConfiguration.WAL_GROUP_COMMIT_MAX_BATCH_SIZE.getValueAsInteger();
+    maxWait = OGlobalConfiguration.WAL_GROUP_COMMIT_MAX_WAIT.getValueAsInteger();
+
+    OGlobalConfiguration.WAL_GROUP_COMMIT.setValue(true);
+    OGlobalConfiguration.WAL_GROUP_COMMIT_MAX_BATCH_SIZE.setValue(4);
+    // 10 seconds, lone committer should not wait so long
+    OGlobalConfiguration.WAL_GROUP_COMMIT_MAX_WAIT.setValue(10000000);
+  }
+
+  @AfterClass
+  public void afterClass() {
+    OGlobalConfiguration.WAL_GROUP_COMMIT.setValue(groupCommit);
+    OGlobalConfiguration.WAL_GROUP_COMMIT_MAX_BATCH_SIZE.setValue(maxBatchSize);
+    OGlobalConfiguration.WAL_GROUP_COMMIT_MAX_WAIT.setValue(maxWait);
+
+    if (testDir.exists())
+      testDir.delete();
+  }
+
+  @BeforeMethod
+  public void beforeMethod() throws IOException {
+    OLocalPaginatedStorage paginatedStorage = mock(OLocalPaginatedStorage.class);
+    when(paginatedStorage.getName()).thenReturn("WriteAheadLogGroupCommitTest");
+    when(paginatedStorage.getStoragePath()).thenReturn(testDir.getAbsolutePath());
+    OStorageConfiguration configurationMock = mock(OStorageConfiguration.class);
+    when(configurationMock.getLocaleInstance()).thenReturn(Locale.getDefault());
+    when(paginatedStorage.getConfiguration()).thenReturn(configurationMock);
+    when(paginatedStorage.getPerformanceStatisticManager())
+        .thenReturn(new OPerformanceStatisticManager(paginatedStorage, Long.MAX_VALUE, -1));
+
+    // periodic flush is switched off, so WAL is flushed only by group commits
+    writeAheadLog = new ODiskWriteAheadLog(100, -1, 64 * OWALPage.PAGE_SIZE, null, true, paginatedStorage, 10);
+  }
+
+  @AfterMethod
+  public void afterMethod() throws IOException {
+    if (writeAheadLog != null)
+      writeAheadLog.delete();
+  }
+
+  public void testCommitWaitsForFlush() throws Exception {
+    final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() throws Exception {
+            for (int n = 0; n < OPERATIONS_PER_THREAD; n++) {
+              final OOperationUnitId unitId = OOperationUnitId.generateId();
+
+              final OLogSequenceNumber startLsn = writeAheadLog.logAtomicOperationStartRecord(true, unitId);
+              final OLogSequenceNumber endLsn = writeAheadLog.logAtomicOperationEndRecord(unitId, false, startLsn, null);
+              writeAheadLog.waitForGroupCommit(endLsn);
+
+              Assert.assertNotNull(writeAheadLog.getFlushedLsn());
+              Assert.assertTrue(writeAheadLog.getFlushedLsn().compareTo(endLsn) >= 0);
+            }
+
+            return null;
+          }
+        }));
+      }
+
+      for (Future<Void> future : futures)
+        future.get();
+    } finally {
+      executor.shutdown();
+    }
+
+    long flushes = 0;
+    for (long count : writeAheadLog.getGroupCommitSizeHistogram())
+      flushes += count;
+
+    Assert.assertTrue(flushes > 0);
+    Assert.assertTrue(flushes <= THREADS * OPERATIONS_PER_THREAD);
+
+    // group size is limited by 4, so buckets for groups bigger than 4 operations are absent
+    Assert.assertTrue(writeAheadLog.getGroupCommitSizeHistogram().length <= 4);
+
+    long flushTimes = 0;
+    for (long count : writeAheadLog.getGroupCommitFlushTimeHistogram())
+      flushTimes += count;
+
+    Assert.assertEquals(flushTimes, flushes);
+  }
+
+  public void testLoneCommitDoesNotWaitForOthers() throws Exception {
+    final OOperationUnitId unitId = OOperationUnitId.generateId();
+
+    final OLogSequenceNumber startLsn = writeAheadLog.logAtomicOperationStartRecord(true, unitId);
+    final OLogSequenceNumber endLsn = writeAheadLog.logAtomicOperationEndRecord(unitId, false, startLsn, null);
+
+    // end record is only logged, WAL is flushed by the wait for group commit
+    Assert.assertNull(writeAheadLog.getFlushedLsn());
+
+    final long start = System.nanoTime();
+    writeAheadLog.waitForGroupCommit(endLsn);
+    final long duration = System.nanoTime() - start;
+
+    Assert.assertTrue(writeAheadLog.getFlushedLsn().compareTo(endLsn) >= 0);
+    Assert.assertTrue(duration < TimeUnit.SECONDS.toNanos(5));
+  }
+
+  public void testRollbackDoesNotWaitForFlush() throws Exception {
+    final OOperationUnitId unitId = OOperationUnitId.generateId();
+
+    final OLogSequenceNumber startLsn = writeAheadLog.logAtomicOperationStartRecord(true, unitId);
+    writeAheadLog.logAtomicOperationEndRecord(unitId, true, startLsn, null);
+
+    Assert.assertNull(writeAheadLog.getFlushedLsn());
+    Assert.assertEquals(writeAheadLog.getGroupCommitSizeHistogram().length, 0);
+  }
+}
@@ -0,0 +1,123 @@
+package com.orientechnologies.orient.core.storage.impl.local.paginated.wal;
+
+import com.orientechnologies.orient.core.compression.impl.OGZIPCompression;
+import com.orientechnologies.orient.core.compression.impl.ONothingCompression;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.config.OStorageConfiguration;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
+import com.orientechnologies.orient.core.storage.impl.local.statistic.OPerformanceStatisticManager;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Test
+public class WriteAheadLogPageChangesCompressionTest {
+  private static final int RECORDS_COUNT = 100;
+  private static final int PAGE_SIZE     = OGlobalConfiguration.DISK_CACHE_PAGE_SIZE.getValueAsInteger() * 1024;
+
+  private ODiskWriteAheadLog     writeAheadLog;
+  private OLocalPaginatedStorage paginatedStorage;
+  private File                   testDir;
+
+  private String compression;
+
+  @BeforeClass
+  public void beforeClass() {
+    String buildDirectory = System.getProperty("buildDirectory");
+    if (buildDirectory == null || buildDirectory.isEmpty())
+      buildDirectory = ".";
+
+    testDir = new File(buildDirectory, "writeAheadLogPageChangesCompressionTest");
+    if (!testDir.exists())
+      testDir.mkdir();
+
+    compression = OGlobalConfiguration.WAL_PAGE_CHANGES_COMPRESSION.getValueAsString();
+
+    paginatedStorage = mock(OLocalPaginatedStorage.class);
+    when(paginatedStorage.getName()).thenReturn("WriteAheadLogPageChangesCompressionTest");
+    when(paginatedStorage.getStoragePath()).thenReturn(testDir.getAbsolutePath());
+    OStorageConfiguration configurationMock = mock(OStorageConfiguration.class);
+    when(configurationMock.getLocaleInstance()).thenReturn(Locale.getDefault());
+    when(paginatedStorage.getConfiguration()).thenReturn(configurationMock);
+    when(paginatedStorage.getPerformanceStatisticManager())
+        .thenReturn(new OPerformanceStatisticManager(paginatedStorage, Long.MAX_VALUE, -1));
+  }
+
+  @AfterClass
+  public void afterClass() {
+    OGlobalConfiguration.WAL_PAGE_CHANGES_COMPRESSION.setValue(compression);
+
+    if (testDir.exists())
+      testDir.delete();
+  }
+
+  @AfterMethod
+  public void afterMethod() throws IOException {
+    if (writeAheadLog != null)
+      writeAheadLog.delete();
+
+    writeAheadLog = null;
+  }
+
+  public void testCompressedAndPlainRecordsAreRead() throws Exception {
+    OGlobalConfiguration.WAL_PAGE_CHANGES_COMPRESSION.setValue(OGZIPCompression.NAME);
+    writeAheadLog = createWAL();
+
+    final List<OLogSequenceNumber> lsns = new ArrayList<OLogSequenceNumber>();
+    for (int i = 0; i < RECORDS_COUNT; i++)
+      lsns.add(writeAheadLog.log(createRecord(i)));
+
+    Assert.assertEquals(writeAheadLog.getPageChangesRecords(), RECORDS_COUNT);
+    Assert.assertTrue(writeAheadLog.getPageChangesSize() < writeAheadLog.getPageChangesUncompressedSize());
+
+    writeAheadLog.close();
+
+    OGlobalConfiguration.WAL_PAGE_CHANGES_COMPRESSION.setValue(ONothingCompression.NAME);
+    writeAheadLog = createWAL();
+
+    for (int i = RECORDS_COUNT; i < 2 * RECORDS_COUNT; i++)
+      lsns.add(writeAheadLog.log(createRecord(i)));
+
+    Assert.assertEquals(writeAheadLog.getPageChangesRecords(), RECORDS_COUNT);
+    Assert.assertEquals(writeAheadLog.getPageChangesSize(), writeAheadLog.getPageChangesUncompressedSize());
+
+    writeAheadLog.flush();
+
+    for (int i = 0; i < lsns.size(); i++) {
+      final OUpdatePageRecord record = (OUpdatePageRecord) writeAheadLog.read(lsns.get(i));
+      Assert.assertEquals(record.getPageIndex(), i);
+
+      final ByteBuffer page = ByteBuffer.wrap(new byte[PAGE_SIZE]);
+      record.getChanges().applyChanges(page);
+
+      for (int n = 0; n < 256; n++)
+        Assert.assertEquals(record.getChanges().getIntValue(page, 1024 + n * 4), i + n);
+    }
+  }
+
+  private ODiskWriteAheadLog createWAL() throws IOException {
+    return new ODiskWriteAheadLog(100, -1, 64 * OWALPage.PAGE_SIZE, null, true, paginatedStorage, 10);
+  }
+
+  private static OUpdatePageRecord createRecord(int pageIndex) {
+    final ByteBuffer page = ByteBuffer.wrap(new byte[PAGE_SIZE]);
+    final OWALPageChangesPortion changes = new OWALPageChangesPortion();
+
+    for (int n = 0; n < 256; n++)
+      changes.setIntValue(page, pageIndex + n, 1024 + n * 4);
+
+    return new OUpdatePageRecord(pageIndex, 1, OOperationUnitId.generateId(), changes);
+  }
+}
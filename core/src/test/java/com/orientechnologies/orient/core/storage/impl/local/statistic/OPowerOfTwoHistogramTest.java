@@ -0,0 +1,39 @@
+package com.orientechnologies.orient.core.storage.impl.local.statistic;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+@Test
+public class OPowerOfTwoHistogramTest {
+  public void testEmptyHistogram() {
+    final OPowerOfTwoHistogram histogram = new OPowerOfTwoHistogram();
+
+    Assert.assertEquals(histogram.getCounts().length, 0);
+    Assert.assertEquals(histogram.getTotalCount(), 0);
+  }
+
+  public void testBuckets() {
+    final OPowerOfTwoHistogram histogram = new OPowerOfTwoHistogram();
+
+    histogram.record(-5);
+    histogram.record(0);
+    histogram.record(1);
+    histogram.record(2);
+    histogram.record(3);
+    histogram.record(4);
+    histogram.record(7);
+    histogram.record(8);
+
+    Assert.assertEquals(histogram.getCounts(), new long[] { 2, 1, 2, 2, 1 });
+    Assert.assertEquals(histogram.getTotalCount(), 8);
+  }
+
+  public void testMaxValue() {
+    final OPowerOfTwoHistogram histogram = new OPowerOfTwoHistogram();
+    histogram.record(Long.MAX_VALUE);
+
+    final long[] counts = histogram.getCounts();
+    Assert.assertEquals(counts.length, 64);
+    Assert.assertEquals(counts[63], 1);
+  }
+}
@@ -25,7 +25,7 @@ public class PerformanceStatisticManagerMBeanTest {
     assertOperation(operations, "stopMonitoring");
 
     final MBeanAttributeInfo[] attributes = mBeanInfo.getAttributes();
-    Assert.assertEquals(attributes.length, 30);
+    Assert.assertEquals(attributes.length, 34);
 
     assertAttribute(attributes, "cacheHits", int.class);
     assertAttribute(attributes, "cacheHits_com1", int.class);
@@ -51,6 +51,12 @@ public class PerformanceStatisticManagerMBeanTest {
 
     assertAttribute(attributes, "fullCheckpointTime", long.class);
 
+    assertAttribute(attributes, "walGroupCommitSizeHistogram", long[].class.getName());
+    assertAttribute(attributes, "walGroupCommitFlushTimeHistogram", long[].class.getName());
+
+    assertAttribute(attributes, "walPageChangesBytesPerRecord", long.class);
+    assertAttribute(attributes, "walPageChangesUncompressedBytesPerRecord", long.class);
+
     Assert.assertEquals(mBeanInfo.getConstructors().length, 0);
     Assert.assertEquals(mBeanInfo.getNotifications().length, 0);
   }
@@ -339,10 +345,14 @@ public class PerformanceStatisticManagerMBeanTest {
   }
 
   private void assertAttribute(MBeanAttributeInfo[] attributes, String name, Class clazz) {
+    assertAttribute(attributes, name, clazz.toString());
+  }
+
+  private void assertAttribute(MBeanAttributeInfo[] attributes, String name, String type) {
     boolean found = false;
     for (MBeanAttributeInfo actual : attributes) {
       if (actual.getName().equals(name)) {
-        Assert.assertEquals(actual.getType(), clazz.toString());
+        Assert.assertEquals(actual.getType(), type);
         Assert.assertEquals(actual.isIs(), false);
         Assert.assertEquals(actual.isReadable(), true);
         Assert.assertEquals(actual.isWritable(), false);
@@ -18,10 +18,12 @@
 
 package com.orientechnologies.orient.etl.transformer;
 
+import com.orientechnologies.orient.core.collate.OCollate;
 import com.orientechnologies.orient.core.command.OCommandContext;
 import com.orientechnologies.orient.core.db.record.OIdentifiable;
 import com.orientechnologies.orient.core.id.ORID;
 import com.orientechnologies.orient.core.index.OIndex;
+import com.orientechnologies.orient.core.index.OIndexCursor;
 import com.orientechnologies.orient.core.metadata.schema.OType;
 import com.orientechnologies.orient.core.record.impl.ODocument;
 import com.orientechnologies.orient.core.sql.query.OSQLQuery;
@@ -30,7 +32,11 @@ import com.orientechnologies.orient.etl.OETLProcessor;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Merges two records. Useful when a record needs to be updated rather than created.
@@ -67,19 +73,7 @@ public abstract class OAbstractLookupTransformer extends OAbstractTransformer {
     Object result = null;
 
     if (joinValue != null) {
-      if (sqlQuery == null && index == null) {
-        // ONLY THE FIRST TIME
-        if (lookup.toUpperCase().startsWith("SELECT"))
-          sqlQuery = new OSQLSynchQuery<ODocument>(lookup);
-        else {
-          index = pipeline.getDocumentDatabase().getMetadata().getIndexManager().getIndex(lookup);
-          if (index == null) {
-            log(OETLProcessor.LOG_LEVELS.DEBUG, "WARNING: index %s not found. Lookups could be really slow", lookup);
-            final String[] parts = lookup.split("\\.");
-            sqlQuery = new OSQLSynchQuery<ODocument>("SELECT FROM " + parts[0] + " WHERE " + parts[1] + " = ?");
-          }
-        }
-      }
+      initLookup();
 
       if (index != null) {
         final OType idxFieldType = index.getDefinition().getTypes()[0];
@@ -92,27 +86,110 @@ public abstract class OAbstractLookupTransformer extends OAbstractTransformer {
         result = pipeline.getDocumentDatabase().query(sqlQuery, joinValue);
       }
 
-      if (result != null && result instanceof Collection) {
-        final Collection coll = (Collection) result;
-
-        if (!coll.isEmpty()) {
-          if (iReturnRIDS) {
-            // CONVERT COLLECTION OF RECORDS IN RIDS
-            final List<ORID> resultRIDs = new ArrayList<ORID>(coll.size());
-            for (Object o : coll) {
-              if (o instanceof OIdentifiable)
-                resultRIDs.add(((OIdentifiable) o).getIdentity());
-            }
-            result = resultRIDs;
-          }
-        } else
-          result = null;
-      } else if (result instanceof OIdentifiable) {
-        if (iReturnRIDS)
-          result = ((OIdentifiable) result).getIdentity();
-        else
-          result = ((OIdentifiable) result).getRecord();
+      result = lookupResult(result, iReturnRIDS);
+    }
+
+    return result;
+  }
+
+  /**
+   * Looks up several join values. If lookup is performed by index all the values are looked up at once, see {@link
+   * OIndex#iterateEntries(Collection, boolean)}.
+   *
+   * @return Results of lookup of each join value in the same order as join values are passed.
+   */
+  protected List<Object> lookup(final Collection<?> joinValues, final boolean iReturnRIDS) {
+    final List<Object> results = new ArrayList<Object>(joinValues.size());
+
+    initLookup();
+    if (index == null) {
+      for (Object joinValue : joinValues)
+        results.add(lookup(joinValue, iReturnRIDS));
+
+      return results;
+    }
+
+    final OType idxFieldType = index.getDefinition().getTypes()[0];
+    final OCollate collate = index.getDefinition().getCollate();
+
+    final List<Object> keys = new ArrayList<Object>(joinValues.size());
+    final Set<Object> uniqueKeys = new LinkedHashSet<Object>();
+    for (Object joinValue : joinValues) {
+      final Object key = joinValue != null ? OType.convert(joinValue, idxFieldType.getDefaultJavaType()) : null;
+      keys.add(key);
+
+      if (key != null)
+        uniqueKeys.add(key);
+    }
+
+    final Map<Object, List<OIdentifiable>> values = new HashMap<Object, List<OIdentifiable>>();
+    if (!uniqueKeys.isEmpty()) {
+      final OIndexCursor cursor = index.iterateEntries(uniqueKeys, true);
+
+      Map.Entry<Object, OIdentifiable> entry;
+      while ((entry = cursor.nextEntry()) != null) {
+        List<OIdentifiable> keyValues = values.get(entry.getKey());
+        if (keyValues == null) {
+          keyValues = new ArrayList<OIdentifiable>();
+          values.put(entry.getKey(), keyValues);
+        }
+
+        keyValues.add(entry.getValue());
+      }
+    }
+
+    for (Object key : keys) {
+      Object result = null;
+
+      if (key != null) {
+        final List<OIdentifiable> keyValues = values.get(collate.transform(key));
+        if (keyValues != null)
+          result = index.isUnique() ? keyValues.get(0) : keyValues;
       }
+
+      results.add(lookupResult(result, iReturnRIDS));
+    }
+
+    return results;
+  }
+
+  private void initLookup() {
+    if (sqlQuery == null && index == null) {
+      // ONLY THE FIRST TIME
+      if (lookup.toUpperCase().startsWith("SELECT"))
+        sqlQuery = new OSQLSynchQuery<ODocument>(lookup);
+      else {
+        index = pipeline.getDocumentDatabase().getMetadata().getIndexManager().getIndex(lookup);
+        if (index == null) {
+          log(OETLProcessor.LOG_LEVELS.DEBUG, "WARNING: index %s not found. Lookups could be really slow", lookup);
+          final String[] parts = lookup.split("\\.");
+          sqlQuery = new OSQLSynchQuery<ODocument>("SELECT FROM " + parts[0] + " WHERE " + parts[1] + " = ?");
+        }
+      }
+    }
+  }
+
+  private Object lookupResult(Object result, final boolean iReturnRIDS) {
+    if (result != null && result instanceof Collection) {
+      final Collection coll = (Collection) result;
+
+      if (!coll.isEmpty()) {
+        if (iReturnRIDS) {
+          // CONVERT COLLECTION OF RECORDS IN RIDS
+          final List<ORID> resultRIDs = new ArrayList<ORID>(coll.size());
+          for (Object o : coll) {
+            if (o instanceof OIdentifiable)
+              resultRIDs.add(((OIdentifiable) o).getIdentity());
+          }
+          result = resultRIDs;
+        }
+      } else
+        result = null;
+    } else if (result instanceof OIdentifiable) {
+      if (iReturnRIDS)
+        result = ((OIdentifiable) result).getIdentity();
+      else
+        result = ((OIdentifiable) result).getRecord();
     }
 
     return result;
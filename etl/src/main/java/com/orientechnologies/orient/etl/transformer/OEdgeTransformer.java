@@ -110,8 +110,16 @@ public class OEdgeTransformer extends OAbstractLookupTransformer {
 
       if (OMultiValue.isMultiValue(joinCurrentValue)) {
         // RESOLVE SINGLE JOINS
-        for (Object ob : OMultiValue.getMultiValueIterable(joinCurrentValue)) {
-          final Object r = lookup(ob, true);
+        final List<Object> joinValues = new ArrayList<Object>();
+        for (Object ob : OMultiValue.getMultiValueIterable(joinCurrentValue))
+          joinValues.add(ob);
+
+        // CREATED VERTICES HAVE TO BE VISIBLE TO LOOKUPS OF THE NEXT VALUES, SO LOOK THEM UP ONE BY ONE
+        final List<Object> results = unresolvedLinkAction != ACTION.CREATE ? lookup(joinValues, true) : null;
+
+        for (int i = 0; i < joinValues.size(); i++) {
+          final Object ob = joinValues.get(i);
+          final Object r = results != null ? results.get(i) : lookup(ob, true);
           if (createEdge(vertex, ob, r) == null) {
             if (unresolvedLinkAction == ACTION.SKIP)
               // RETURN NULL ONLY IN CASE SKIP ACTION IS REQUESTED
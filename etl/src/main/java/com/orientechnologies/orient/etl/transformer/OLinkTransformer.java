@@ -86,11 +86,11 @@ public class OLinkTransformer extends OAbstractLookupTransformer {
     Object result;
     if (OMultiValue.isMultiValue(joinRuntimeValue)) {
       // RESOLVE SINGLE JOINS
-      final Collection<Object> singleJoinsResult = new ArrayList<Object>();
+      final Collection<Object> joinValues = new ArrayList<Object>();
       for (Object o : OMultiValue.getMultiValueIterable(joinRuntimeValue)) {
-        singleJoinsResult.add(lookup(o, true));
+        joinValues.add(o);
       }
-      result = singleJoinsResult;
+      result = lookup(joinValues, true);
     } else
       result = lookup(joinRuntimeValue, true);
 
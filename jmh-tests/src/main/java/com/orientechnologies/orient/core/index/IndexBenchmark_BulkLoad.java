@@ -0,0 +1,104 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of rebuild of index which is filled by bulk load of sorted entries (see {@link OBulkLoadIndexEngine}) or by insertion
+ * of keys one by one.
+ * <p>
+ * To run this benchmark run {@link org.openjdk.jmh.Main}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IndexBenchmark_BulkLoad {
+  @Param({ "true", "false" })
+  private boolean bulkLoad;
+
+  @Param({ "UNIQUE", "NOTUNIQUE" })
+  private String indexType;
+
+  @Param({ "1000000" })
+  private int documentsCount;
+
+  private ODatabaseDocumentTx database;
+  private OIndex<?>           index;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    OGlobalConfiguration.INDEX_BULK_LOAD_ENABLED.setValue(bulkLoad);
+
+    final String buildDirectory = new File(System.getProperty("buildDirectory", ".")).getAbsolutePath();
+    database = new ODatabaseDocumentTx("plocal:" + buildDirectory + "/indexBenchmarkBulkLoad");
+    if (database.exists()) {
+      database.open("admin", "admin");
+      database.drop();
+    }
+
+    database.create();
+
+    final OClass personClass = database.getMetadata().getSchema().createClass("Person", 8);
+    personClass.createProperty("name", OType.STRING);
+
+    for (int i = 0; i < documentsCount; i++) {
+      final ODocument document = new ODocument("Person");
+      document.field("name", "Person-" + Integer.toHexString(i * 0x9E3779B1) + '-' + ("UNIQUE".equals(indexType) ? i : i % 1000));
+      document.save();
+    }
+
+    index = personClass.createIndex("Person.name", indexType, "name");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    database.drop();
+  }
+
+  @Benchmark
+  public long rebuild() {
+    return index.rebuild();
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+
+package com.orientechnologies.orient.core.index;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.metadata.schema.OClass;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of lookup of 10k keys by batched multi-key lookup (see {@link OIndexEngine#getAll(java.util.Collection)}) against
+ * lookup of the same keys one by one.
+ * <p>
+ * To run this benchmark run {@link org.openjdk.jmh.Main}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class IndexBenchmark_GetAll {
+  @Param({ "UNIQUE", "UNIQUE_HASH_INDEX" })
+  private String indexType;
+
+  @Param({ "1000000" })
+  private int documentsCount;
+
+  @Param({ "10000" })
+  private int keysCount;
+
+  private ODatabaseDocumentTx database;
+  private OIndex<?>           index;
+  private List<Integer>       keys;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final String buildDirectory = new File(System.getProperty("buildDirectory", ".")).getAbsolutePath();
+    database = new ODatabaseDocumentTx("plocal:" + buildDirectory + "/indexBenchmarkGetAll");
+    if (database.exists()) {
+      database.open("admin", "admin");
+      database.drop();
+    }
+
+    database.create();
+
+    final OClass personClass = database.getMetadata().getSchema().createClass("Person", 8);
+    personClass.createProperty("id", OType.INTEGER);
+    index = personClass.createIndex("Person.id", indexType, "id");
+
+    for (int i = 0; i < documentsCount; i++) {
+      final ODocument document = new ODocument("Person");
+      document.field("id", i);
+      document.save();
+    }
+
+    final Random random = new Random(42);
+    keys = new ArrayList<Integer>(keysCount);
+    for (int i = 0; i < keysCount; i++)
+      keys.add(random.nextInt(documentsCount));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    database.drop();
+  }
+
+  @Benchmark
+  public int getPerKey() {
+    int found = 0;
+    for (Integer key : keys) {
+      if (index.get(key) != null)
+        found++;
+    }
+
+    return found;
+  }
+
+  @Benchmark
+  public int getAll() {
+    final OIndexCursor cursor = index.iterateEntries(keys, true);
+
+    int found = 0;
+    while (cursor.nextEntry() != null)
+      found++;
+
+    return found;
+  }
+
+  @Benchmark
+  public int queryIn() {
+    return database.query(new OSQLSynchQuery<ODocument>("select from Person where id in ?"), keys).size();
+  }
+}
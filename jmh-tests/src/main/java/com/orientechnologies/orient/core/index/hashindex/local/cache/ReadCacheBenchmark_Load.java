@@ -0,0 +1,181 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+
+package com.orientechnologies.orient.core.index.hashindex.local.cache;
+
+import com.orientechnologies.common.collection.closabledictionary.OClosableLinkedContainer;
+import com.orientechnologies.common.directmemory.OByteBufferPool;
+import com.orientechnologies.orient.core.Orient;
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import com.orientechnologies.orient.core.storage.cache.OCacheEntry;
+import com.orientechnologies.orient.core.storage.cache.OReadCache;
+import com.orientechnologies.orient.core.storage.cache.local.OWOWCache;
+import com.orientechnologies.orient.core.storage.cache.local.twoq.O2QCache;
+import com.orientechnologies.orient.core.storage.cache.local.twoq.OSegmented2QCache;
+import com.orientechnologies.orient.core.storage.fs.OFileClassic;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.OLocalPaginatedStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark which compares throughput of page loads of {@link O2QCache} and {@link OSegmented2QCache}. Half of pages fit in
+ * cache, so benchmark measures both cache hits and cache misses.
+ * <p>
+ * To run this benchmark run {@link org.openjdk.jmh.Main}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReadCacheBenchmark_Load {
+  private static final int PAGE_SIZE   = 4 * 1024;
+  private static final int PAGES_COUNT = 64 * 1024;
+
+  private Random r = new Random();
+
+  @State(Scope.Benchmark)
+  public static class PreparedCache {
+    @Param({ "2q", "segmented" })
+    private String cacheType;
+
+    private OReadCache             readCache;
+    private OWOWCache              writeCache;
+    private OLocalPaginatedStorage storage;
+    private long                   fileId;
+
+    private final OClosableLinkedContainer<Long, OFileClassic> files = new OClosableLinkedContainer<Long, OFileClassic>(1024);
+
+    @Setup(Level.Trial)
+    public void up() throws IOException {
+      OGlobalConfiguration.FILE_LOCK.setValue(Boolean.FALSE);
+
+      final String buildDirectory = System.getProperty("buildDirectory", ".");
+      storage = (OLocalPaginatedStorage) Orient.instance().loadStorage("plocal:" + buildDirectory + "/ReadCacheBenchmark");
+      storage.create(null);
+      storage.close(true, false);
+
+      writeCache = new OWOWCache(false, PAGE_SIZE, new OByteBufferPool(PAGE_SIZE), -1, null, -1, 1024L * PAGE_SIZE,
+          2048L * PAGE_SIZE + PAGES_COUNT * PAGE_SIZE, storage, false, files, 1);
+      writeCache.loadRegisteredFiles();
+
+      final long readCacheMemory = (PAGES_COUNT / 2) * (long) PAGE_SIZE;
+      if ("segmented".equals(cacheType)) {
+        readCache = new OSegmented2QCache(readCacheMemory, PAGE_SIZE, false, 20, Runtime.getRuntime().availableProcessors());
+      } else {
+        readCache = new O2QCache(readCacheMemory, PAGE_SIZE, false, 20);
+      }
+
+      fileId = readCache.addFile("readCacheBenchmark.tst", writeCache);
+      for (int i = 0; i < PAGES_COUNT; i++) {
+        final OCacheEntry cacheEntry = readCache.allocateNewPage(fileId, writeCache);
+        cacheEntry.markDirty();
+        readCache.release(cacheEntry, writeCache);
+      }
+
+      writeCache.flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void down() throws IOException {
+      readCache.deleteStorage(writeCache);
+      readCache.clear();
+      files.clear();
+      storage.delete();
+
+      new File(System.getProperty("buildDirectory", "."), "ReadCacheBenchmark").delete();
+    }
+
+    public void load(int pageIndex) throws IOException {
+      final OCacheEntry cacheEntry = readCache.load(fileId, pageIndex, false, writeCache, 1);
+      readCache.release(cacheEntry, writeCache);
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void testLoad_1thread(PreparedCache cache) throws IOException {
+    cache.load(nextPage());
+  }
+
+  @Benchmark
+  @Threads(2)
+  public void testLoad_2thread(PreparedCache cache) throws IOException {
+    cache.load(nextPage());
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void testLoad_4thread(PreparedCache cache) throws IOException {
+    cache.load(nextPage());
+  }
+
+  @Benchmark
+  @Threads(8)
+  public void testLoad_8thread(PreparedCache cache) throws IOException {
+    cache.load(nextPage());
+  }
+
+  @Benchmark
+  @Threads(16)
+  public void testLoad_16thread(PreparedCache cache) throws IOException {
+    cache.load(nextPage());
+  }
+
+  @Benchmark
+  @Threads(32)
+  public void testLoad_32thread(PreparedCache cache) throws IOException {
+    cache.load(nextPage());
+  }
+
+  @Benchmark
+  @Threads(64)
+  public void testLoad_64thread(PreparedCache cache) throws IOException {
+    cache.load(nextPage());
+  }
+
+  @Benchmark
+  @Threads(128)
+  public void testLoad_128thread(PreparedCache cache) throws IOException {
+    cache.load(nextPage());
+  }
+
+  /**
+   * Skewed page distribution: 80% of loads hit 20% of pages.
+   */
+  private int nextPage() {
+    if (r.nextInt(5) < 4)
+      return r.nextInt(PAGES_COUNT / 5);
+
+    return r.nextInt(PAGES_COUNT);
+  }
+}
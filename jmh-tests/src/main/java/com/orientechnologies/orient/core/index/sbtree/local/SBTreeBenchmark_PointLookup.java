@@ -0,0 +1,221 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+
+package com.orientechnologies.orient.core.index.sbtree.local;
+
+import com.orientechnologies.common.serialization.types.OBinarySerializer;
+import com.orientechnologies.common.serialization.types.OStringSerializer;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.index.OCompositeKey;
+import com.orientechnologies.orient.core.metadata.schema.OType;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.OLinkSerializer;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.index.OCompositeKeySerializer;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import com.orientechnologies.orient.core.storage.impl.local.paginated.wal.OWALChanges;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of point lookups in {@link OSBTree} with string and composite (string, long) keys. It compares lookups which compare
+ * keys stored in buckets with searched key in binary form (see {@link com.orientechnologies.common.serialization.types.OBinaryComparator})
+ * with lookups which deserialize stored keys before comparison. Run it with <code>-prof gc</code> option to see difference in
+ * amount of allocated memory.
+ * <p>
+ * To run this benchmark run {@link org.openjdk.jmh.Main}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SBTreeBenchmark_PointLookup {
+  @Param({ "string", "composite" })
+  private String keyType;
+
+  @Param({ "true", "false" })
+  private boolean binaryComparison;
+
+  @Param({ "10000000" })
+  private int keysCount;
+
+  private ODatabaseDocumentTx              database;
+  private OSBTree<Object, OIdentifiable> tree;
+
+  @State(Scope.Thread)
+  public static class KeyGenerator {
+    private final Random random = new Random();
+  }
+
+  @Setup(Level.Trial)
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    final String buildDirectory = new File(System.getProperty("buildDirectory", ".")).getAbsolutePath();
+    database = new ODatabaseDocumentTx("plocal:" + buildDirectory + "/sbTreeBenchmarkPointLookup");
+    if (database.exists()) {
+      database.open("admin", "admin");
+      database.drop();
+    }
+
+    database.create();
+
+    final boolean composite = "composite".equals(keyType);
+
+    OBinarySerializer<?> keySerializer;
+    if (composite)
+      keySerializer = OCompositeKeySerializer.INSTANCE;
+    else
+      keySerializer = OStringSerializer.INSTANCE;
+
+    if (!binaryComparison)
+      keySerializer = new ObjectComparedSerializer<Object>((OBinarySerializer<Object>) keySerializer);
+
+    final OType[] keyTypes = composite ? new OType[] { OType.STRING, OType.LONG } : null;
+
+    tree = new OSBTree<Object, OIdentifiable>("pointLookupBenchmark", ".sbt", false, ".nbt",
+        (OAbstractPaginatedStorage) database.getStorage().getUnderlying());
+    tree.create((OBinarySerializer<Object>) keySerializer, OLinkSerializer.INSTANCE, keyTypes, composite ? 2 : 1, false);
+
+    for (int i = 0; i < keysCount; i++)
+      tree.put(key(i), new ORecordId(i % 32, i));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    tree.delete();
+    database.drop();
+  }
+
+  @Benchmark
+  public OIdentifiable pointLookup(KeyGenerator generator) {
+    return tree.get(key(generator.random.nextInt(keysCount)));
+  }
+
+  private Object key(int index) {
+    final String stringKey = "key-" + Integer.toHexString(index * 0x9E3779B1) + '-' + index;
+    if ("composite".equals(keyType))
+      return new OCompositeKey(stringKey, (long) (index & 0xFF));
+
+    return stringKey;
+  }
+
+  /**
+   * Serializer which does not support binary comparison of keys, so keys are deserialized before each comparison.
+   */
+  private static final class ObjectComparedSerializer<T> implements OBinarySerializer<T> {
+    private final OBinarySerializer<T> delegate;
+
+    private ObjectComparedSerializer(OBinarySerializer<T> delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public int getObjectSize(T object, Object... hints) {
+      return delegate.getObjectSize(object, hints);
+    }
+
+    @Override
+    public int getObjectSize(byte[] stream, int startPosition) {
+      return delegate.getObjectSize(stream, startPosition);
+    }
+
+    @Override
+    public void serialize(T object, byte[] stream, int startPosition, Object... hints) {
+      delegate.serialize(object, stream, startPosition, hints);
+    }
+
+    @Override
+    public T deserialize(byte[] stream, int startPosition) {
+      return delegate.deserialize(stream, startPosition);
+    }
+
+    @Override
+    public byte getId() {
+      return delegate.getId();
+    }
+
+    @Override
+    public boolean isFixedLength() {
+      return delegate.isFixedLength();
+    }
+
+    @Override
+    public int getFixedLength() {
+      return delegate.getFixedLength();
+    }
+
+    @Override
+    public void serializeNativeObject(T object, byte[] stream, int startPosition, Object... hints) {
+      delegate.serializeNativeObject(object, stream, startPosition, hints);
+    }
+
+    @Override
+    public T deserializeNativeObject(byte[] stream, int startPosition) {
+      return delegate.deserializeNativeObject(stream, startPosition);
+    }
+
+    @Override
+    public int getObjectSizeNative(byte[] stream, int startPosition) {
+      return delegate.getObjectSizeNative(stream, startPosition);
+    }
+
+    @Override
+    public T preprocess(T value, Object... hints) {
+      return delegate.preprocess(value, hints);
+    }
+
+    @Override
+    public void serializeInByteBufferObject(T object, ByteBuffer buffer, Object... hints) {
+      delegate.serializeInByteBufferObject(object, buffer, hints);
+    }
+
+    @Override
+    public T deserializeFromByteBufferObject(ByteBuffer buffer) {
+      return delegate.deserializeFromByteBufferObject(buffer);
+    }
+
+    @Override
+    public int getObjectSizeInByteBuffer(ByteBuffer buffer) {
+      return delegate.getObjectSizeInByteBuffer(buffer);
+    }
+
+    @Override
+    public T deserializeFromByteBufferObject(ByteBuffer buffer, OWALChanges walChanges, int offset) {
+      return delegate.deserializeFromByteBufferObject(buffer, walChanges, offset);
+    }
+
+    @Override
+    public int getObjectSizeInByteBuffer(ByteBuffer buffer, OWALChanges walChanges, int offset) {
+      return delegate.getObjectSizeInByteBuffer(buffer, walChanges, offset);
+    }
+  }
+}
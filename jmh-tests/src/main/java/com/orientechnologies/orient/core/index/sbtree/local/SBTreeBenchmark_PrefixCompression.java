@@ -0,0 +1,111 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+
+package com.orientechnologies.orient.core.index.sbtree.local;
+
+import com.orientechnologies.common.serialization.types.OStringSerializer;
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.db.record.OIdentifiable;
+import com.orientechnologies.orient.core.id.ORecordId;
+import com.orientechnologies.orient.core.serialization.serializer.binary.impl.OLinkSerializer;
+import com.orientechnologies.orient.core.storage.impl.local.OAbstractPaginatedStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of point lookups in {@link OSBTree} with URL-like string keys which share long prefixes, with and without prefix
+ * compression of keys. Size of index file and height of tree are printed once tree is filled, lookup latency is measured by
+ * benchmark itself.
+ * <p>
+ * To run this benchmark run {@link org.openjdk.jmh.Main}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SBTreeBenchmark_PrefixCompression {
+  private static final String TREE_NAME = "prefixCompressionBenchmark";
+
+  @Param({ "true", "false" })
+  private boolean prefixCompression;
+
+  @Param({ "10000000" })
+  private int keysCount;
+
+  private ODatabaseDocumentTx            database;
+  private OSBTree<String, OIdentifiable> tree;
+
+  @State(Scope.Thread)
+  public static class KeyGenerator {
+    private final Random random = new Random();
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final String buildDirectory = new File(System.getProperty("buildDirectory", ".")).getAbsolutePath();
+    final String databasePath = buildDirectory + "/sbTreeBenchmarkPrefixCompression";
+
+    database = new ODatabaseDocumentTx("plocal:" + databasePath);
+    if (database.exists()) {
+      database.open("admin", "admin");
+      database.drop();
+    }
+
+    database.create();
+
+    tree = new OSBTree<String, OIdentifiable>(TREE_NAME, ".sbt", false, ".nbt",
+        (OAbstractPaginatedStorage) database.getStorage().getUnderlying());
+    tree.create(OStringSerializer.INSTANCE, OLinkSerializer.INSTANCE, null, 1, false, prefixCompression);
+
+    for (int i = 0; i < keysCount; i++)
+      tree.put(key(i), new ORecordId(i % 32, i));
+
+    database.getStorage().synch();
+
+    System.out.printf("%nPrefix compression: %b, index size: %d bytes, tree height: %d%n", prefixCompression,
+        new File(databasePath, TREE_NAME + ".sbt").length(), tree.getHeight());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    tree.delete();
+    database.drop();
+  }
+
+  @Benchmark
+  public OIdentifiable pointLookup(KeyGenerator generator) {
+    return tree.get(key(generator.random.nextInt(keysCount)));
+  }
+
+  private static String key(int index) {
+    return "https://www.example.com/catalog/section-" + (index & 0x3F) + "/item-" + Integer.toHexString(index * 0x9E3779B1);
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+
+package com.orientechnologies.orient.core.sql;
+
+import com.orientechnologies.orient.core.db.document.ODatabaseDocumentTx;
+import com.orientechnologies.orient.core.record.impl.ODocument;
+import com.orientechnologies.orient.core.sql.query.OSQLSynchQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of SELECT with GROUP BY and aggregate functions executed serially against the same query executed with PARALLEL
+ * keyword. Parallel query uses as many threads as available processors, so to compare speedup on different amount of cores run
+ * this benchmark with restricted CPU affinity (like <code>taskset</code> on Linux).
+ * <p>
+ * To run this benchmark run {@link org.openjdk.jmh.Main}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SelectBenchmark_ParallelAggregation {
+  private static final String QUERY = "select grp, count(*), sum(num), min(num), max(num), avg(num) from Item where num > 10 "
+      + "group by grp";
+
+  @Param({ "1000000" })
+  private int documentsCount;
+
+  @Param({ "100" })
+  private int groupsCount;
+
+  @Param({ "32" })
+  private int clustersCount;
+
+  private ODatabaseDocumentTx database;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final String buildDirectory = new File(System.getProperty("buildDirectory", ".")).getAbsolutePath();
+    database = new ODatabaseDocumentTx("plocal:" + buildDirectory + "/selectBenchmarkParallelAggregation");
+    if (database.exists()) {
+      database.open("admin", "admin");
+      database.drop();
+    }
+
+    database.create();
+
+    database.getMetadata().getSchema().createClass("Item", clustersCount);
+    for (int i = 0; i < documentsCount; i++) {
+      final ODocument document = new ODocument("Item");
+      document.field("num", (i * 37) % 1000);
+      document.field("grp", i % groupsCount);
+      document.save();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    database.drop();
+  }
+
+  @Benchmark
+  public int serial() {
+    final List<ODocument> result = database.query(new OSQLSynchQuery<ODocument>(QUERY));
+    return result.size();
+  }
+
+  @Benchmark
+  public int parallel() {
+    final List<ODocument> result = database.query(new OSQLSynchQuery<ODocument>(QUERY + " parallel"));
+    return result.size();
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ *
+ *  *  Copyright 2016 OrientDB LTD (info(at)orientdb.com)
+ *  *
+ *  *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  *  you may not use this file except in compliance with the License.
+ *  *  You may obtain a copy of the License at
+ *  *
+ *  *       http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  *  Unless required by applicable law or agreed to in writing, software
+ *  *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  *  See the License for the specific language governing permissions and
+ *  *  limitations under the License.
+ *  *
+ *  * For more information: http://www.orientdb.com
+ *
+ */
+
+package com.orientechnologies.orient.core.storage.fs;
+
+import com.orientechnologies.orient.core.config.OGlobalConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark which compares throughput of page reads and writes of {@link OFileClassic} when classic file I/O and direct I/O
+ * (see {@link ODirectIO}) are used. Pages are read and written at random positions of file, size of file (1 GB by default) should
+ * exceed amount of free memory to measure real disk throughput for classic file I/O, otherwise pages are served by page cache of
+ * operating system.
+ * <p>
+ * Direct I/O requires Java 10+, on older JVMs both modes use classic file I/O. To run this benchmark run
+ * {@link org.openjdk.jmh.Main}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FileClassicBenchmark_PageIO {
+  private static final int PAGE_SIZE = OGlobalConfiguration.DISK_CACHE_PAGE_SIZE.getValueAsInteger() * 1024;
+
+  private final Random     random = new Random();
+  private       ByteBuffer buffer;
+
+  @State(Scope.Benchmark)
+  public static class PreparedFile {
+    @Param({ "false", "true" })
+    private boolean directIO;
+
+    @Param({ "16384" })
+    private int pagesCount;
+
+    private OFileClassic file;
+
+    @Setup(Level.Trial)
+    public void up() throws IOException {
+      OGlobalConfiguration.FILE_LOCK.setValue(Boolean.FALSE);
+      OGlobalConfiguration.FILE_DIRECT_IO.setValue(directIO);
+
+      final File osFile = new File(System.getProperty("buildDirectory", "."), "fileClassicBenchmark.tst");
+      if (osFile.exists())
+        osFile.delete();
+
+      file = new OFileClassic(osFile.getAbsolutePath(), "rw");
+      file.create();
+
+      if (directIO && !file.isDirectIO()) {
+        file.delete();
+        OGlobalConfiguration.FILE_DIRECT_IO.setValue(false);
+
+        throw new IllegalStateException(
+            "Direct I/O is not supported for file " + osFile + ", results would measure classic file I/O");
+      }
+
+      file.allocateSpace((long) pagesCount * PAGE_SIZE);
+
+      final ByteBuffer page = allocatePage();
+      final Random random = new Random();
+      for (int i = 0; i < pagesCount; i++) {
+        page.clear();
+        page.putLong(0, random.nextLong());
+        file.write((long) i * PAGE_SIZE, page);
+      }
+
+      file.synch();
+    }
+
+    @TearDown(Level.Trial)
+    public void down() throws IOException {
+      file.delete();
+      OGlobalConfiguration.FILE_DIRECT_IO.setValue(false);
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void allocateBuffer() {
+    buffer = allocatePage();
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void testRead_1thread(PreparedFile file) throws IOException {
+    read(file);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public void testRead_8thread(PreparedFile file) throws IOException {
+    read(file);
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void testWrite_1thread(PreparedFile file) throws IOException {
+    write(file);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public void testWrite_8thread(PreparedFile file) throws IOException {
+    write(file);
+  }
+
+  private void read(PreparedFile file) throws IOException {
+    buffer.clear();
+    file.file.read((long) random.nextInt(file.pagesCount) * PAGE_SIZE, buffer);
+  }
+
+  private void write(PreparedFile file) throws IOException {
+    buffer.clear();
+    buffer.putLong(0, random.nextLong());
+    file.file.write((long) random.nextInt(file.pagesCount) * PAGE_SIZE, buffer);
+  }
+
+  /**
+   * Pages are allocated in the same way as pages of disk cache when direct I/O is used.
+   */
+  private static ByteBuffer allocatePage() {
+    return ODirectIO.allocateAligned(PAGE_SIZE, ODirectIO.DEFAULT_BLOCK_SIZE, OFileClassic.HEADER_SIZE);
+  }
+}
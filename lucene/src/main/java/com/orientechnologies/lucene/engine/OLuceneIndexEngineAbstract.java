@@ -61,6 +61,7 @@ import org.apache.lucene.util.Version;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -501,6 +502,28 @@ public abstract class OLuceneIndexEngineAbstract<V> extends OSharedResourceAdapt
     return true; // do nothing
   }
 
+  @Override
+  public Map<Object, Object> getAll(Collection<?> keys) {
+    final Map<Object, Object> result = new HashMap<Object, Object>();
+    for (Object key : keys) {
+      final Object value = get(key);
+      if (value != null)
+        result.put(key, value);
+    }
+
+    return result;
+  }
+
+  @Override
+  public long getRangeSize(Object rangeFrom, boolean fromInclusive, Object rangeTo, boolean toInclusive) {
+    throw new UnsupportedOperationException("getRangeSize");
+  }
+
+  @Override
+  public long getApproximateRangeSize(Object rangeFrom, boolean fromInclusive, Object rangeTo, boolean toInclusive) {
+    return -1;
+  }
+
   @Override
   public String getIndexNameByKey(final Object key) {
     return name;
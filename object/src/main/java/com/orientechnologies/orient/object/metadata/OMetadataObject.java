@@ -25,8 +25,10 @@ import com.orientechnologies.orient.core.metadata.OMetadataInternal;
 import com.orientechnologies.orient.core.metadata.function.OFunctionLibrary;
 import com.orientechnologies.orient.core.metadata.schema.OImmutableSchema;
 import com.orientechnologies.orient.core.metadata.security.OSecurity;
+import com.orientechnologies.orient.core.metadata.statistics.OStatisticsManager;
 import com.orientechnologies.orient.core.metadata.sequence.OSequenceLibrary;
 import com.orientechnologies.orient.core.schedule.OScheduler;
+import com.orientechnologies.orient.core.sql.OQueryPlanCache;
 import com.orientechnologies.orient.object.metadata.schema.OSchemaProxyObject;
 
 /**
@@ -84,6 +86,16 @@ public class OMetadataObject implements OMetadataInternal {
     return underlying.getCommandCache();
   }
 
+  @Override
+  public OStatisticsManager getStatistics() {
+    return underlying.getStatistics();
+  }
+
+  @Override
+  public OQueryPlanCache getQueryPlanCache() {
+    return underlying.getQueryPlanCache();
+  }
+
   @Override
   public OSecurity getSecurity() {
     return underlying.getSecurity();